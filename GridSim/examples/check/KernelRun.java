@@ -0,0 +1,51 @@
+package check;
+
+/*
+ * Description: Runs one of the examples checked by 'ant check' with the
+ *              event-loop kernel or without packet trains, so that its
+ *              output can be compared with the one of the SimJava kernel.
+ */
+
+import gridsim.*;
+
+
+/**
+ * Test Driver class that selects the kernel before running an example
+ */
+public class KernelRun
+{
+    /**
+     * Runs an example
+     * @param args  the kernel ("simjava" or "loop"), optionally "-packets"
+     *              to queue every packet rather than packet trains, the
+     *              example class and the arguments of the example
+     */
+    public static void main(String[] args) throws Exception
+    {
+        int index = 1;      // position of the example class
+        if (args.length > 1 && args[1].equals("-packets")) {
+            index++;
+        }
+
+        if (args.length < index + 1)
+        {
+            System.out.println("Usage: java check.KernelRun [simjava | loop] "
+                    + "[-packets] class [args]");
+            return;
+        }
+
+        if ( args[0].equals("loop") ) {
+            GridSim.initKernelType(GridSimTags.KERNEL_EVENT_LOOP);
+        }
+
+        if (index > 1) {
+            GridSim.initPacketTrains(false);
+        }
+
+        String[] rest = new String[args.length - index - 1];
+        System.arraycopy(args, index + 1, rest, 0, rest.length);
+        Class.forName(args[index]).getMethod("main", String[].class)
+             .invoke(null, (Object) rest);
+    }
+
+} // end class
@@ -11,7 +11,6 @@ package gridsim;
 
 import java.util.*;
 import eduni.simjava.Sim_event;
-import eduni.simjava.Sim_system;
 
 /**
  * This is a resource scheduler that handles Advanced Reservation
@@ -587,7 +586,7 @@ public class ARSimpleSpaceShared extends ARPolicy
      * @pre list != null
      * @post $none
      */
-    private int findGridlet(LinkedList list, int reservationID)
+    private int findGridlet(List<ResGridlet> list, int reservationID)
     {
         ResGridlet rgl = null;
         int found = -1;     // means the Gridlet is not in the list
@@ -596,10 +595,10 @@ public class ARSimpleSpaceShared extends ARPolicy
         {
             // Search through the list to find the given Gridlet object
             int i = 0;
-            Iterator iter = list.iterator();
+            Iterator<ResGridlet> iter = list.iterator();
             while ( iter.hasNext() )
             {
-                rgl = (ResGridlet) iter.next();
+                rgl = iter.next();
                 if (rgl.getReservationID() == reservationID)
                 {
                     found = i;
@@ -876,7 +875,7 @@ public class ARSimpleSpaceShared extends ARPolicy
      * @pre startTime > 0
      * @post $none
      */
-    private int findPosition(LinkedList list, long startTime)
+    private int findPosition(List<ResGridlet> list, long startTime)
     {
         int index = 0;
 
@@ -885,13 +884,13 @@ public class ARSimpleSpaceShared extends ARPolicy
             return index;
         }
 
-        Iterator it = list.iterator();
+        Iterator<ResGridlet> it = list.iterator();
         ResGridlet rgl = null;
 
         // iterates a loop to find the location based on start time
         while ( it.hasNext() )
         {
-            rgl = (ResGridlet) it.next();
+            rgl = it.next();
 
             // exit the loop if object's reservation start time is greater
             if (rgl.getStartTime() > startTime) {
@@ -1121,7 +1120,7 @@ public class ARSimpleSpaceShared extends ARPolicy
 
         // a loop that is looking for internal events only
         Sim_event ev = new Sim_event();
-        while ( Sim_system.running() )
+        while ( GridSim.isSimulationRunning() )
         {
             super.sim_get_next(ev);
 
@@ -1245,38 +1244,30 @@ public class ARSimpleSpaceShared extends ARPolicy
         ResGridlet rgl = null;
 
         // Find in EXEC List first
-        int found = gridletInExecList_.indexOf(gridletId, userId);
-        if (found >= 0)
+        rgl = gridletInExecList_.get(gridletId, userId);
+        if (rgl != null)
         {
-            // Get the Gridlet from the execution list
-            rgl = (ResGridlet) gridletInExecList_.get(found);
             return rgl.getGridletStatus();
         }
 
         // Find in Paused List
-        found = gridletPausedList_.indexOf(gridletId, userId);
-        if (found >= 0)
+        rgl = gridletPausedList_.get(gridletId, userId);
+        if (rgl != null)
         {
-            // Get the Gridlet from the execution list
-            rgl = (ResGridlet) gridletPausedList_.get(found);
             return rgl.getGridletStatus();
         }
 
         // Find in Queue List
-        found = gridletQueueList_.indexOf(gridletId, userId);
-        if (found >= 0)
+        rgl = gridletQueueList_.get(gridletId, userId);
+        if (rgl != null)
         {
-            // Get the Gridlet from the execution list
-            rgl = (ResGridlet) gridletQueueList_.get(found);
             return rgl.getGridletStatus();
         }
 
         // Find in the AR Waiting List
-        found = gridletWaitingList_.indexOf(gridletId, userId);
-        if (found >= 0)
+        rgl = gridletWaitingList_.get(gridletId, userId);
+        if (rgl != null)
         {
-            // Get the Gridlet from the execution list
-            rgl = (ResGridlet) gridletWaitingList_.get(found);
             return rgl.getGridletStatus();
         }
 
@@ -1359,25 +1350,25 @@ public class ARSimpleSpaceShared extends ARPolicy
         boolean status = false;
 
         // Find in EXEC List first
-        int found = gridletInExecList_.indexOf(gridletId, userId);
-        if (found >= 0)
+        ResGridlet rgl = gridletInExecList_.get(gridletId, userId);
+        if (rgl != null)
         {
             // updates all the Gridlets first before pausing
             updateGridletProcessing();
 
             // Removes the Gridlet from the execution list
-            ResGridlet rgl = (ResGridlet) gridletInExecList_.remove(found);
+            gridletInExecList_.remove(rgl);
 
             // if a Gridlet is finished upon cancelling, then set it to success
             // instead.
             if (rgl.getRemainingGridletLength() == 0.0)
             {
-                found = -1;  // meaning not found in Queue List
                 gridletFinish(rgl, Gridlet.SUCCESS);
                 System.out.println(super.get_name()
                         + ".gridletPause(): Cannot pause"
                         + " Gridlet #" + gridletId + " for User #" + userId
                         + " since it has FINISHED.");
+                rgl = null;  // meaning not found in Queue List
             }
             else
             {
@@ -1394,36 +1385,30 @@ public class ARSimpleSpaceShared extends ARPolicy
             }
         }
         else {      // Find in QUEUE list
-            found = gridletQueueList_.indexOf(gridletId, userId);
+            rgl = gridletQueueList_.remove(gridletId, userId);
         }
 
         // if found in the Queue List
-        if (status == false && found >= 0)
+        if (status == false && rgl != null)
         {
             status = true;
-
-            // removes the Gridlet from the Queue list
-            ResGridlet rgl = (ResGridlet) gridletQueueList_.remove(found);
             rgl.setGridletStatus(Gridlet.PAUSED);   // change the status
             gridletPausedList_.add(rgl);            // add into the paused list
         }
         else {     // Find in the AR Waiting List
-            found = gridletWaitingList_.indexOf(gridletId, userId);
+            rgl = gridletWaitingList_.remove(gridletId, userId);
         }
 
         // if found in the AR waiting list
-        if (status == false && found >= 0)
+        if (status == false && rgl != null)
         {
             status = true;
-
-            // removes the Gridlet from the waiting list
-            ResGridlet rgl = (ResGridlet) gridletWaitingList_.remove(found);
             rgl.setGridletStatus(Gridlet.PAUSED);   // change the status
             gridletPausedList_.add(rgl);            // add into the paused list
         }
 
         // if not found anywhere in both exec and paused lists
-        else if (found == -1)
+        else if (rgl == null)
         {
             System.out.println(super.get_name() +
                     ".gridletPause(): Error - cannot " +
@@ -1525,11 +1510,11 @@ public class ARSimpleSpaceShared extends ARPolicy
         boolean status = false;
 
         // finds the Gridlet in the execution list first
-        int found = gridletPausedList_.indexOf(gridletId, userId);
-        if (found >= 0)
+        ResGridlet rgl = gridletPausedList_.get(gridletId, userId);
+        if (rgl != null)
         {
             // removes the Gridlet
-            ResGridlet rgl = (ResGridlet) gridletPausedList_.remove(found);
+            gridletPausedList_.remove(rgl);
             rgl.setGridletStatus(Gridlet.RESUMED);
 
             // update the Gridlets up to this point in time
@@ -2302,14 +2287,14 @@ public class ARSimpleSpaceShared extends ARPolicy
         ResGridlet rgl = null;
 
         // Find in EXEC List first
-        int found = gridletInExecList_.indexOf(gridletId, userId);
-        if (found >= 0)
+        rgl = gridletInExecList_.get(gridletId, userId);
+        if (rgl != null)
         {
             // update the gridlets in execution list up to this point in time
             updateGridletProcessing();
 
             // Get the Gridlet from the execution list
-            rgl = (ResGridlet) gridletInExecList_.remove(found);
+            gridletInExecList_.remove(rgl);
 
             // if a Gridlet is finished upon cancelling, then set it to success
             // instead.
@@ -2328,28 +2313,28 @@ public class ARSimpleSpaceShared extends ARPolicy
         }
 
         // Find in QUEUE list
-        found = gridletQueueList_.indexOf(gridletId, userId);
-        if (found >= 0)
+        rgl = gridletQueueList_.get(gridletId, userId);
+        if (rgl != null)
         {
-            rgl = (ResGridlet) gridletQueueList_.remove(found);
+            gridletQueueList_.remove(rgl);
             rgl.setGridletStatus(Gridlet.CANCELED);
             return rgl;
         }
 
         // if not found, then find in the Paused list
-        found = gridletPausedList_.indexOf(gridletId, userId);
-        if (found >= 0)
+        rgl = gridletPausedList_.get(gridletId, userId);
+        if (rgl != null)
         {
-            rgl = (ResGridlet) gridletPausedList_.remove(found);
+            gridletPausedList_.remove(rgl);
             rgl.setGridletStatus(Gridlet.CANCELED);
             return rgl;
         }
 
         // if not found, then find in AR waiting list
-        found = gridletWaitingList_.indexOf(gridletId, userId);
-        if (found >= 0)
+        rgl = gridletWaitingList_.get(gridletId, userId);
+        if (rgl != null)
         {
-            rgl = (ResGridlet) gridletWaitingList_.remove(found);
+            gridletWaitingList_.remove(rgl);
             rgl.setGridletStatus(Gridlet.CANCELED);
             return rgl;
         }
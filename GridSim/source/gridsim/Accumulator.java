@@ -9,6 +9,8 @@
 
 package gridsim;
 
+import java.io.Serializable;
+
 /**
  * GridSim Accumulator provides a placeholder for maintaining statistical
  * values of a series of data added to it. It can be queried for mean,
@@ -19,8 +21,10 @@ package gridsim;
  * @since        GridSim Toolkit 1.0
  * @invariant $none
  */
-public class Accumulator
+public class Accumulator implements Serializable
 {
+    private static final long serialVersionUID = 356715833622472973L;
+
     private int n_;           // the number of items accumulated
     private double mean_;     // the mean of accumulated items
     private double sqrMean_;  // the square mean of accumulated items
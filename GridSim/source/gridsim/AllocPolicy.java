@@ -11,11 +11,16 @@ package gridsim;
 
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 
-import eduni.simjava.Sim_entity;
 import eduni.simjava.Sim_event;
 import eduni.simjava.Sim_port;
+import gridsim.kernel.KernelEntity;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 
 
 /**
@@ -39,7 +44,7 @@ import eduni.simjava.Sim_port;
  * @see gridsim.ResourceCharacteristics
  * @invariant $none
  */
-public abstract class AllocPolicy extends Sim_entity
+public abstract class AllocPolicy extends KernelEntity
 {
     /** The GridResource characteristics object, same as the one in
      * GridResource class
@@ -80,6 +85,16 @@ public abstract class AllocPolicy extends Sim_entity
     // for statistical purposes to determine the load of this scheduler
     private Accumulator accTotalLoad_;
     private boolean endSimulation_;  // denotes the end of simulation
+    private double timerTime_;  // time of the pending wake-up, or -1 if none
+    private long timerToken_;   // identifies the pending wake-up event
+    private double loadChangeTime_;  // time of the pending load change, or -1
+    private HashSet<Long> bulkGridlets_;   // Gridlets to be returned in bulk
+
+    // finished Gridlets held for each user, or null if they are sent at once
+    private LinkedHashMap<Integer, GridletList> heldGridlets_;
+
+    // migrations held for each destination, or null if they are sent at once
+    private LinkedHashMap<Integer, GridletMigration> heldMigrations_;
     private static final int ARRAY_SIZE = 2;  // [0] = gridlet id and [1] = result
 
     ///////////////////// ABSTRACT METHODS /////////////////////////////
@@ -124,6 +139,32 @@ public abstract class AllocPolicy extends Sim_entity
      */
     public abstract void gridletSubmit(Gridlet gl, boolean ack);
 
+    /**
+     * Schedules a list of Gridlets that has been received in one message by
+     * the GridResource entity. These Gridlets are returned in bulk, i.e.
+     * the ones that finish at the same time are sent back in one message.
+     * <p>
+     * By default, this method submits the Gridlets one by one to
+     * {@link #gridletSubmit(Gridlet, boolean)} without an acknowledgement,
+     * since the GridResource entity sends one acknowledgement for the
+     * whole list. A child class can override this method to schedule the
+     * Gridlets at once, but then it should call
+     * {@link #setBulkReturn(GridletList)} first.
+     *
+     * @param list  a list of Gridlets that are going to be executed
+     * @see #holdFinishedGridlets()
+     * @pre list != null
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    public void gridletSubmit(GridletList list)
+    {
+        setBulkReturn(list);
+        for (Gridlet gl : list) {
+            gridletSubmit(gl, false);
+        }
+    }
+
     /**
      * An <tt>abstract</tt> method that cancels a Gridlet in an execution list.
      * When writing this code, there are few things to consider:
@@ -268,6 +309,35 @@ public abstract class AllocPolicy extends Sim_entity
 
     ///////////////////// End of Abstract methods ///////////////////////////
 
+    /**
+     * Moves a list of Gridlets of one user to the same GridResource entity,
+     * e.g. to balance the load between two GridResources. The Gridlets
+     * that can be moved are sent in one transfer.
+     * <p>
+     * By default, this method moves the Gridlets one by one with
+     * {@link #gridletMove(int, int, int, boolean)} without an
+     * acknowledgement, between {@link #holdMigratedGridlets()} and
+     * {@link #releaseMigratedGridlets()}.
+     *
+     * @param gridletIds   the Gridlet IDs
+     * @param userId       the user or owner's ID of these Gridlets
+     * @param destId       a new destination GridResource ID
+     * @see gridsim.GridSim#gridletMove(int[], int, int, int, double)
+     * @pre gridletIds != null
+     * @pre userId > 0
+     * @pre destId > 0
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    public void gridletMove(int[] gridletIds, int userId, int destId)
+    {
+        holdMigratedGridlets();
+        for (int i = 0; i < gridletIds.length; i++) {
+            gridletMove(gridletIds[i], userId, destId, false);
+        }
+        releaseMigratedGridlets();
+    }
+
     /**
      * Overrides this method when executing or scheduling newly-defined tags.
      * This method is called by
@@ -346,6 +416,11 @@ public abstract class AllocPolicy extends Sim_entity
         totalPE_ = resource_.getNumPE();
         resId_ = resource_.getResourceID();
 
+        // compiles the local load for the simulation start date
+        if (resCalendar_ != null) {
+            resCalendar_.compile();
+        }
+
         double load = calculateTotalLoad(0);
         accTotalLoad_.add(load);
 
@@ -363,6 +438,61 @@ public abstract class AllocPolicy extends Sim_entity
 
     ////////////////////// PROTECTED METHODS //////////////////////////////
 
+    /**
+     * Saves the state shared by all allocation policies into a snapshot,
+     * i.e. the resource characteristics with the status of every PE, the
+     * resource calendar and the total load. A child class that implements
+     * {@link gridsim.kernel.Checkpointable} calls this method before saving
+     * its own Gridlet lists.
+     * @param out  the snapshot stream
+     * @throws IOException  if the state can't be written
+     * @pre out != null
+     * @post $none
+     */
+    protected void savePolicyState(ObjectOutputStream out) throws IOException
+    {
+        out.writeObject(resource_);
+        out.writeObject(resCalendar_);
+        out.writeObject(accTotalLoad_);
+        out.writeBoolean(endSimulation_);
+        out.writeDouble(timerTime_);
+        out.writeLong(timerToken_);
+        out.writeDouble(loadChangeTime_);
+
+        // the keys of the Gridlets to be returned in bulk
+        out.writeInt( bulkGridlets_.size() );
+        for (Long key : bulkGridlets_) {
+            out.writeLong( key.longValue() );
+        }
+    }
+
+    /**
+     * Restores the state shared by all allocation policies from a snapshot
+     * @param in  the snapshot stream
+     * @throws IOException  if the state can't be read
+     * @throws ClassNotFoundException  if a saved class is not found
+     * @pre in != null
+     * @post $none
+     * @see #savePolicyState(ObjectOutputStream)
+     */
+    protected void restorePolicyState(ObjectInputStream in)
+            throws IOException, ClassNotFoundException
+    {
+        resource_ = (ResourceCharacteristics) in.readObject();
+        resCalendar_ = (ResourceCalendar) in.readObject();
+        accTotalLoad_ = (Accumulator) in.readObject();
+        endSimulation_ = in.readBoolean();
+        timerTime_ = in.readDouble();
+        timerToken_ = in.readLong();
+        loadChangeTime_ = in.readDouble();
+
+        int count = in.readInt();
+        bulkGridlets_ = new HashSet<Long>();
+        for (int i = 0; i < count; i++) {
+            bulkGridlets_.add( Long.valueOf(in.readLong()) );
+        }
+    }
+
     /**
      * Allocates a new AllocPolicy object. A child class should call this method
      * during its constructor. The name of this entity (or the child class that
@@ -403,6 +533,11 @@ public abstract class AllocPolicy extends Sim_entity
         endSimulation_ = false;
         totalPE_ = 0;
         accTotalLoad_ = new Accumulator();
+        timerTime_ = -1;
+        timerToken_ = 0;
+        loadChangeTime_ = -1;
+        bulkGridlets_ = new HashSet<Long>();
+        heldGridlets_ = null;
     }
 
     /**
@@ -434,6 +569,11 @@ public abstract class AllocPolicy extends Sim_entity
      */
     protected int findGridlet(Collection obj, int gridletId, int userId)
     {
+        // a ResGridletList knows at once whether it contains the Gridlet
+        if (obj instanceof ResGridletList) {
+            return ((ResGridletList) obj).indexOf(gridletId, userId);
+        }
+
         ResGridlet rgl = null;
         int found = -1;     // means the Gridlet is not in the list
 
@@ -506,6 +646,19 @@ public abstract class AllocPolicy extends Sim_entity
         return load;
     }
 
+    /**
+     * Gets the local load of this GridResource at a given simulation time
+     * @param time   the simulation time
+     * @return the local load between range [0.0, 1.0]
+     * @see gridsim.ResourceCalendar#getLoad(double)
+     * @pre time >= 0.0
+     * @post $result >= 0.0
+     * @since GridSim Toolkit 5.2
+     */
+    protected double getLocalLoad(double time) {
+        return resCalendar_ == null ? 0.0 : resCalendar_.getLoad(time);
+    }
+
     /**
      * Sends an acknowledgement to the sender. This method is only suitable
      * for the following tags:
@@ -592,6 +745,9 @@ public abstract class AllocPolicy extends Sim_entity
             return false;
         }
 
+        // a canceled Gridlet is always returned on its own
+        clearBulkReturn(gridletId, destId);
+
         long gridletSize = 0;
         if (gl != null) {
             gridletSize = gl.getGridletOutputSize();
@@ -640,20 +796,87 @@ public abstract class AllocPolicy extends Sim_entity
             return false;
         }
 
-        IO_data data = new IO_data(gl, gl.getGridletOutputSize(), destId);
+        // the new GridResource returns this Gridlet on its own
+        clearBulkReturn(gl.getGridletID(), gl.getUserID());
 
-        int tag = 0;
-        if (ack) {
-            tag = GridSimTags.GRIDLET_SUBMIT_ACK;
+        // the Gridlet has started already, so only its checkpoint is sent
+        // rather than submitting it again
+        GridletMigration migration = null;
+        if (heldMigrations_ != null) {
+            migration = heldMigrations_.get(destId);
         }
-        else {
-            tag = GridSimTags.GRIDLET_SUBMIT;
+
+        if (migration == null)
+        {
+            migration = new GridletMigration(resId_, destId);
+            if (heldMigrations_ != null) {
+                heldMigrations_.put(destId, migration);
+            }
+        }
+
+        migration.add(gl, ack);
+        if (heldMigrations_ == null) {
+            sendMigration(migration);
         }
 
-        super.sim_schedule(outputPort_, GridSimTags.SCHEDULE_NOW, tag, data);
         return true;
     }
 
+    /**
+     * Holds the Gridlets migrated by
+     * {@link #gridletMigrate(Gridlet, int, boolean)}, until
+     * {@link #releaseMigratedGridlets()} is called. A child class calls
+     * these two methods around a loop that moves many Gridlets, so that
+     * the ones going to the same GridResource are sent in one transfer.
+     * @pre $none
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    protected void holdMigratedGridlets()
+    {
+        if (heldMigrations_ == null) {
+            heldMigrations_ = new LinkedHashMap<Integer, GridletMigration>();
+        }
+    }
+
+    /**
+     * Sends the Gridlets held since {@link #holdMigratedGridlets()} to their
+     * new GridResources, i.e. one transfer for each GridResource
+     * @pre $none
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    protected void releaseMigratedGridlets()
+    {
+        if (heldMigrations_ == null) {
+            return;
+        }
+
+        LinkedHashMap<Integer, GridletMigration> held = heldMigrations_;
+        heldMigrations_ = null;
+
+        for (GridletMigration migration : held.values()) {
+            sendMigration(migration);
+        }
+    }
+
+    /**
+     * Sends Gridlets to another GridResource with
+     * {@link gridsim.GridSimTags#GRIDLET_MIGRATE} tag
+     * @param migration  the Gridlets and their destination
+     * @pre migration != null
+     * @post $none
+     */
+    private void sendMigration(GridletMigration migration)
+    {
+        Gridlet gl = migration.getGridletList().getFirst();
+        IO_data data = new IO_data(migration, migration.getByteSize(),
+                migration.getDestinationID(), gl.getNetServiceLevel());
+
+        super.sim_schedule(outputPort_, GridSimTags.SCHEDULE_NOW,
+                           GridSimTags.GRIDLET_MIGRATE, data);
+    }
+
     /**
      * Sends the completed Gridlet back to sender or Gridlet's user ID
      * @param gl  a completed Gridlet object
@@ -664,12 +887,120 @@ public abstract class AllocPolicy extends Sim_entity
      */
     protected boolean sendFinishGridlet(Gridlet gl)
     {
+        // a Gridlet submitted in bulk waits for the others finishing now
+        if (bulkGridlets_.size() > 0 && bulkGridlets_.remove( Long.valueOf(
+                ResGridletList.key(gl.getGridletID(), gl.getUserID())) ) &&
+            heldGridlets_ != null)
+        {
+            Integer userId = Integer.valueOf( gl.getUserID() );
+            GridletList list = heldGridlets_.get(userId);
+            if (list == null)
+            {
+                list = new GridletList();
+                heldGridlets_.put(userId, list);
+            }
+
+            list.add(gl);
+            return true;
+        }
+
         IO_data obj = new IO_data(gl,gl.getGridletOutputSize(),gl.getUserID());
         super.sim_schedule(outputPort_, 0, GridSimTags.GRIDLET_RETURN, obj);
 
         return true;
     }
 
+    /**
+     * Marks a list of Gridlets to be returned in bulk. A child class that
+     * overrides {@link #gridletSubmit(GridletList)} calls this method before
+     * scheduling the Gridlets.
+     * @param list  a list of Gridlets submitted in one message
+     * @pre list != null
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    protected void setBulkReturn(GridletList list)
+    {
+        for (Gridlet gl : list) {
+            bulkGridlets_.add( Long.valueOf(ResGridletList.key(
+                    gl.getGridletID(), gl.getUserID())) );
+        }
+    }
+
+    /**
+     * Removes a Gridlet from the ones to be returned in bulk
+     * @param gridletId   the Gridlet ID
+     * @param userId      the user or owner's ID of this Gridlet
+     * @pre $none
+     * @post $none
+     */
+    private void clearBulkReturn(int gridletId, int userId)
+    {
+        if (bulkGridlets_.size() > 0) {
+            bulkGridlets_.remove( Long.valueOf(
+                    ResGridletList.key(gridletId, userId)) );
+        }
+    }
+
+    /**
+     * Holds the Gridlets submitted in bulk that are sent back by
+     * {@link #sendFinishGridlet(Gridlet)}, until
+     * {@link #releaseFinishedGridlets()} is called. A child class calls
+     * these two methods around a loop that finishes all Gridlets completed
+     * at the current time, so that each user gets them in one message.
+     * The other Gridlets are still sent at once.
+     * @pre $none
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    protected void holdFinishedGridlets()
+    {
+        if (heldGridlets_ == null) {
+            heldGridlets_ = new LinkedHashMap<Integer, GridletList>();
+        }
+    }
+
+    /**
+     * Sends the Gridlets held since {@link #holdFinishedGridlets()} back to
+     * their users, i.e. one message for each user. A single Gridlet is sent
+     * with {@link gridsim.GridSimTags#GRIDLET_RETURN} tag, whereas several
+     * Gridlets are sent as a {@link gridsim.GridletList} with
+     * {@link gridsim.GridSimTags#GRIDLET_RETURN_BULK} tag.
+     * @pre $none
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    protected void releaseFinishedGridlets()
+    {
+        if (heldGridlets_ == null) {
+            return;
+        }
+
+        LinkedHashMap<Integer, GridletList> held = heldGridlets_;
+        heldGridlets_ = null;
+
+        for (GridletList list : held.values())
+        {
+            Gridlet gl = list.getFirst();
+            if (list.size() == 1)
+            {
+                IO_data obj = new IO_data(gl, gl.getGridletOutputSize(),
+                                          gl.getUserID());
+                super.sim_schedule(outputPort_, 0, GridSimTags.GRIDLET_RETURN,
+                                   obj);
+                continue;
+            }
+
+            long size = 0;
+            for (Gridlet finished : list) {
+                size += finished.getGridletOutputSize();
+            }
+
+            super.sim_schedule(outputPort_, 0, GridSimTags.GRIDLET_RETURN_BULK,
+                               new IO_data(list, size, gl.getUserID()) );
+        }
+    }
+
     /**
      * Sends an internal event to itself
      * @param time   the simulation delay time
@@ -707,5 +1038,181 @@ public abstract class AllocPolicy extends Sim_entity
         return true;
     }
 
+    /**
+     * Requests a wake-up after a given delay. Unlike
+     * {@link #sendInternalEvent(double)}, at most one wake-up is pending at
+     * any time: it is replaced if the new one is earlier, whereas a later
+     * request is dropped. Hence, whenever a wake-up is received through
+     * {@link #isTimerEvent(Sim_event)}, the child class should request the
+     * next time it needs again.
+     * <p>
+     * The wake-up is an internal event with
+     * {@link gridsim.GridSimTags#INSIGNIFICANT} tag.
+     *
+     * @param time   the simulation delay time
+     * @return <tt>true</tt> if a new event has been sent,
+     *         <tt>false</tt> if an earlier wake-up is already pending
+     * @pre time >= 0.0
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    protected boolean setTimer(double time)
+    {
+        if (time < 0.0) {
+            time = 0.0;
+        }
+
+        double wakeUpTime = GridSim.clock() + time;
+        if (timerTime_ >= 0.0 && timerTime_ <= wakeUpTime) {
+            return false;
+        }
+
+        // the previous wake-up, if any, becomes stale
+        timerToken_++;
+        timerTime_ = wakeUpTime;
+        super.sim_schedule(myId_, time, GridSimTags.INSIGNIFICANT,
+                           Long.valueOf(timerToken_));
+        return true;
+    }
+
+    /**
+     * Requests a wake-up at a given simulation time, like
+     * {@link #setTimer(double)}. The delay is chosen so that the wake-up
+     * arrives exactly at this time, rather than up to one rounding error
+     * away from it.
+     *
+     * @param time   the simulation time
+     * @return <tt>true</tt> if a new event has been sent,
+     *         <tt>false</tt> if an earlier wake-up is already pending
+     * @pre time >= 0.0
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    protected boolean setTimerAt(double time) {
+        return setTimer( getDelay(time) );
+    }
+
+    /**
+     * Gets the delay after which an event arrives exactly at a given
+     * simulation time, rather than up to one rounding error away from it
+     * @param time   the simulation time
+     * @return the delay, or <tt>0.0</tt> if the time has passed already
+     * @pre time >= 0.0
+     * @post $result >= 0.0
+     */
+    private static double getDelay(double time)
+    {
+        double clock = GridSim.clock();
+        if (time <= clock) {
+            return 0.0;
+        }
+
+        double delay = time - clock;
+        while (clock + delay < time) {
+            delay = Math.nextUp(delay);
+        }
+        while (delay > 0.0 && clock + delay > time) {
+            delay = Math.nextAfter(delay, 0.0);
+        }
+        return delay;
+    }
+
+    /**
+     * Discards the pending wake-up, if any
+     * @pre $none
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    protected void cancelTimer()
+    {
+        timerToken_++;
+        timerTime_ = -1;
+    }
+
+    /**
+     * Requests a call of {@link #processLoadChange()} when the local load
+     * of this GridResource changes next. Gridlets in execution are
+     * processed at a different rate from then on, hence a child class
+     * whose wake-up time depends on the local load should request it
+     * whenever it requests a wake-up. At most one such request is pending
+     * at any time, and the others are dropped.
+     * <p>
+     * The request is an internal event with
+     * {@link gridsim.GridSimTags#INSIGNIFICANT} tag, which is recognised by
+     * {@link #isTimerEvent(Sim_event)}.
+     *
+     * @return <tt>true</tt> if a new event has been sent,
+     *         <tt>false</tt> if a request is already pending or the local
+     *         load never changes
+     * @see gridsim.ResourceCalendar#getNextLoadChange(double)
+     * @pre $none
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    protected boolean setLoadChangeTimer()
+    {
+        if (resCalendar_ == null || loadChangeTime_ >= 0.0) {
+            return false;
+        }
+
+        double time = resCalendar_.getNextLoadChange( GridSim.clock() );
+        if (time < 0.0) {
+            return false;
+        }
+
+        loadChangeTime_ = time;
+        super.sim_schedule(myId_, getDelay(time), GridSimTags.INSIGNIFICANT,
+                           Double.valueOf(time));
+        return true;
+    }
+
+    /**
+     * Handles a change of the local load requested by
+     * {@link #setLoadChangeTimer()}. This method does nothing by default.
+     * @pre $none
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    protected void processLoadChange() {
+        // empty
+    }
+
+    /**
+     * Checks whether an event is the pending wake-up requested by
+     * {@link #setTimer(double)}. A wake-up that has been replaced or
+     * cancelled is stale, and should be ignored.
+     * <p>
+     * A change of the local load requested by {@link #setLoadChangeTimer()}
+     * is handled here as well: {@link #processLoadChange()} is called, and
+     * <tt>false</tt> is returned.
+     * @param ev   a Sim_event object
+     * @return <tt>true</tt> if the event is the pending wake-up,
+     *         <tt>false</tt> otherwise
+     * @pre ev != null
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    protected boolean isTimerEvent(Sim_event ev)
+    {
+        Object data = ev.get_data();
+        if (loadChangeTime_ >= 0.0 && ev.get_src() == myId_ &&
+            data instanceof Double &&
+            ((Double) data).doubleValue() == loadChangeTime_)
+        {
+            loadChangeTime_ = -1;
+            processLoadChange();
+            return false;
+        }
+
+        if (ev.get_src() != myId_ || !(data instanceof Long) ||
+            ((Long) data).longValue() != timerToken_)
+        {
+            return false;
+        }
+
+        timerTime_ = -1;
+        return true;
+    }
+
 } 
 
@@ -0,0 +1,245 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim;
+
+import eduni.simjava.Sim_entity;
+import java.util.HashMap;
+
+
+/**
+ * EntityRegistry maps the entity ids of a simulation to the entities,
+ * their names and the ids of their I/O ports, i.e. of the
+ * <tt>Input_xxx</tt> and <tt>Output_xxx</tt> entities of an entity
+ * <tt>xxx</tt>, using arrays indexed by id.
+ * <p>
+ * The registry is built by {@link GridSim#startGridSimulation()} once all
+ * entities have been created, so that entities, routers and links don't
+ * have to search entities by name while the simulation runs. Since the
+ * names and ids of entities never change, the registry stays valid until
+ * the next <tt>GridSim.init()</tt>. An entity created afterwards is not
+ * in the registry, in which case all methods fall back to searching it by
+ * name or id.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.GridSim#getEntityRegistry()
+ * @invariant $none
+ */
+public final class EntityRegistry
+{
+    private static final String INPUT = "Input_";
+    private static final String OUTPUT = "Output_";
+    private static final int NOT_FOUND = -1;
+
+    private final Sim_entity[] entities_;       // entities indexed by id
+    private final String[] names_;              // names indexed by id
+    private final int[] inputIds_;              // Input_xxx of entity xxx
+    private final int[] outputIds_;             // Output_xxx of entity xxx
+    private final int[] ownerIds_;              // entity xxx of an I/O port
+    private final HashMap<String, Integer> ids_;    // ids by name
+
+    /**
+     * Builds a new registry
+     * @param entities  the entities of a simulation, indexed by id. An
+     *                  array element is <tt>null</tt> if there is no entity
+     *                  with this id.
+     * @pre entities != null
+     * @post $none
+     */
+    EntityRegistry(Sim_entity[] entities)
+    {
+        int count = entities.length;
+        entities_ = entities;
+        names_ = new String[count];
+        inputIds_ = new int[count];
+        outputIds_ = new int[count];
+        ownerIds_ = new int[count];
+        ids_ = new HashMap<String, Integer>(count * 2);
+
+        for (int i = 0; i < count; i++)
+        {
+            if (entities[i] != null)
+            {
+                names_[i] = entities[i].get_name();
+                ids_.put( names_[i], Integer.valueOf(i) );
+            }
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            inputIds_[i] = NOT_FOUND;
+            outputIds_[i] = NOT_FOUND;
+            ownerIds_[i] = NOT_FOUND;
+            String name = names_[i];
+            if (name == null) {
+                continue;
+            }
+
+            inputIds_[i] = find(INPUT + name);
+            outputIds_[i] = find(OUTPUT + name);
+            if ( name.startsWith(INPUT) ) {
+                ownerIds_[i] = find( name.substring(INPUT.length()) );
+            }
+            else if ( name.startsWith(OUTPUT) ) {
+                ownerIds_[i] = find( name.substring(OUTPUT.length()) );
+            }
+        }
+    }
+
+    /**
+     * Gets the number of entity ids covered by this registry
+     * @return the largest entity id plus one
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int size() {
+        return entities_.length;
+    }
+
+    /**
+     * Gets an entity given its ID
+     * @param id  the entity ID
+     * @return the entity or <tt>null</tt> if it is not found
+     * @pre $none
+     * @post $none
+     */
+    public Sim_entity getEntity(int id)
+    {
+        if (id >= 0 && id < entities_.length && entities_[id] != null) {
+            return entities_[id];
+        }
+        return GridSim.findEntity(id);
+    }
+
+    /**
+     * Gets the name of an entity given its ID
+     * @param id  the entity ID
+     * @return the entity name or <tt>null</tt> if it is not found
+     * @pre $none
+     * @post $none
+     */
+    public String getEntityName(int id)
+    {
+        if (id >= 0 && id < names_.length && names_[id] != null) {
+            return names_[id];
+        }
+
+        Sim_entity ent = GridSim.findEntity(id);
+        return (ent != null) ? ent.get_name() : null;
+    }
+
+    /**
+     * Gets the ID of an entity given its name
+     * @param name  the entity name
+     * @return the entity ID or <tt>-1</tt> if it is not found
+     * @pre name != null
+     * @post $result >= -1
+     */
+    public int getEntityId(String name)
+    {
+        Integer id = ids_.get(name);
+        if (id != null) {
+            return id.intValue();
+        }
+        return GridSim.findEntityId(name);
+    }
+
+    /**
+     * Gets the ID of the <tt>Input</tt> entity of an entity, which receives
+     * the incoming events of this entity
+     * @param id  the entity ID
+     * @return the ID of the <tt>Input</tt> entity or <tt>-1</tt> if it
+     *         is not found
+     * @pre $none
+     * @post $result >= -1
+     */
+    public int getInputId(int id)
+    {
+        if (id >= 0 && id < inputIds_.length && names_[id] != null) {
+            return inputIds_[id];
+        }
+        return findPort(INPUT, id);
+    }
+
+    /**
+     * Gets the ID of the <tt>Output</tt> entity of an entity, which sends
+     * the outgoing events of this entity
+     * @param id  the entity ID
+     * @return the ID of the <tt>Output</tt> entity or <tt>-1</tt> if it
+     *         is not found
+     * @pre $none
+     * @post $result >= -1
+     */
+    public int getOutputId(int id)
+    {
+        if (id >= 0 && id < outputIds_.length && names_[id] != null) {
+            return outputIds_[id];
+        }
+        return findPort(OUTPUT, id);
+    }
+
+    /**
+     * Gets the ID of the entity that owns an <tt>Input</tt> or
+     * <tt>Output</tt> entity
+     * @param id  the ID of the <tt>Input</tt> or <tt>Output</tt> entity
+     * @return the ID of the owner or <tt>-1</tt> if the given entity is
+     *         not an I/O port or is not found
+     * @pre $none
+     * @post $result >= -1
+     */
+    public int getOwnerId(int id)
+    {
+        if (id >= 0 && id < ownerIds_.length && names_[id] != null) {
+            return ownerIds_[id];
+        }
+
+        String name = getEntityName(id);
+        if (name == null) {
+            return NOT_FOUND;
+        }
+
+        if ( name.startsWith(INPUT) ) {
+            return getEntityId( name.substring(INPUT.length()) );
+        }
+        else if ( name.startsWith(OUTPUT) ) {
+            return getEntityId( name.substring(OUTPUT.length()) );
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Finds an entity of this registry given its name
+     * @param name  the entity name
+     * @return the entity ID or <tt>-1</tt> if it is not found
+     * @pre name != null
+     * @post $result >= -1
+     */
+    private int find(String name)
+    {
+        Integer id = ids_.get(name);
+        return (id != null) ? id.intValue() : NOT_FOUND;
+    }
+
+    /**
+     * Finds an I/O port of an entity that is not in this registry
+     * @param prefix  <tt>Input_</tt> or <tt>Output_</tt>
+     * @param id      the entity ID
+     * @return the ID of the I/O port or <tt>-1</tt> if it is not found
+     * @pre prefix != null
+     * @post $result >= -1
+     */
+    private int findPort(String prefix, int id)
+    {
+        String name = getEntityName(id);
+        if (name == null) {
+            return NOT_FOUND;
+        }
+        return getEntityId(prefix + name);
+    }
+
+} // end class
@@ -9,12 +9,15 @@
 
 package gridsim;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.Iterator;
 import java.util.Collection;
 import eduni.simjava.Sim_event;
-import eduni.simjava.Sim_system;
+import gridsim.kernel.Checkpointable;
 
 /**
  * A Grid Information Service (GIS) is an entity that provides grid
@@ -81,6 +84,7 @@ import eduni.simjava.Sim_system;
  * @see gridsim.GridResource#body()
  */
 public class GridInformationService extends GridSimCore
+        implements Checkpointable
 {
     private LinkedList resList_;    // for all type of resources
     private LinkedList arList_;     // only for AR resources
@@ -139,7 +143,7 @@ public class GridInformationService extends GridSimCore
 
         // Process events
         Sim_event ev = new Sim_event();
-        while ( Sim_system.running() )
+        while ( GridSim.isSimulationRunning() )
         {
             super.sim_get_next(ev);     // get the next incoming event
 
@@ -222,6 +226,40 @@ public class GridInformationService extends GridSimCore
         super.terminateIOEntities();
     }
 
+    /**
+     * Saves the lists of registered resources, regional GIS entities and
+     * network connections into a snapshot. A child class with attributes
+     * of its own overrides this method and calls it first.
+     * @param out  the snapshot stream
+     * @throws IOException  if the state can't be written
+     * @pre out != null
+     * @post $none
+     */
+    public void saveState(ObjectOutputStream out) throws IOException
+    {
+        out.writeObject(resList_);
+        out.writeObject(arList_);
+        out.writeObject(gisList_);
+        out.writeObject(netList_);
+    }
+
+    /**
+     * Restores the lists of registered entities from a snapshot
+     * @param in  the snapshot stream
+     * @throws IOException  if the state can't be read
+     * @throws ClassNotFoundException  if a saved class is not found
+     * @pre in != null
+     * @post $none
+     */
+    public void restoreState(ObjectInputStream in)
+            throws IOException, ClassNotFoundException
+    {
+        resList_ = (LinkedList) in.readObject();
+        arList_ = (LinkedList) in.readObject();
+        gisList_ = (LinkedList) in.readObject();
+        netList_ = (ArrayList) in.readObject();
+    }
+
     /**
      * Gets the list of all GridResource IDs, including resources that support
      * Advance Reservation.
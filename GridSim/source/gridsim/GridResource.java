@@ -10,10 +10,13 @@
 package gridsim;
 
 import eduni.simjava.Sim_event;
-import eduni.simjava.Sim_system;
 import gridsim.index.AbstractGIS;
 import gridsim.net.InfoPacket;
+import gridsim.kernel.Checkpointable;
 import gridsim.net.Link;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 
 import java.util.Calendar;
 import java.util.LinkedList;
@@ -94,7 +97,7 @@ import java.util.LinkedList;
  * @see gridsim.AllocPolicy
  * @invariant $none
  */
-public class GridResource extends GridSimCore
+public class GridResource extends GridSimCore implements Checkpointable
 {
     /** Characteristics of this resource */
     protected ResourceCharacteristics resource_;
@@ -468,10 +471,13 @@ public class GridResource extends GridSimCore
      *      <li> {@link gridsim.GridSimTags#RESOURCE_CHARACTERISTICS} </li>
      *      <li> {@link gridsim.GridSimTags#RESOURCE_DYNAMICS} </li>
      *      <li> {@link gridsim.GridSimTags#GRIDLET_SUBMIT} </li>
+     *      <li> {@link gridsim.GridSimTags#GRIDLET_SUBMIT_BULK} </li>
      *      <li> {@link gridsim.GridSimTags#GRIDLET_CANCEL} </li>
      *      <li> {@link gridsim.GridSimTags#GRIDLET_PAUSE} </li>
      *      <li> {@link gridsim.GridSimTags#GRIDLET_RESUME} </li>
      *      <li> {@link gridsim.GridSimTags#GRIDLET_MOVE} </li>
+     *      <li> {@link gridsim.GridSimTags#GRIDLET_MOVE_BULK} </li>
+     *      <li> {@link gridsim.GridSimTags#GRIDLET_MIGRATE} </li>
      *      <li> {@link gridsim.GridSimTags#GRIDLET_STATUS} </li>
      * </ul>
      * <br>
@@ -485,6 +491,41 @@ public class GridResource extends GridSimCore
      * @post $none
      */
     public void body()
+    {
+        // a resource restored from a snapshot has registered already
+        if ( !super.isRestored() ) {
+            startResource();
+        }
+
+        // Process events until END_OF_SIMULATION is received from the
+        // GridSimShutdown Entity
+        Sim_event ev = new Sim_event();
+        while ( GridSim.isSimulationRunning() )
+        {
+            super.sim_get_next(ev);
+
+            // if the simulation finishes then exit the loop
+            if (ev.get_tag() == GridSimTags.END_OF_SIMULATION)
+            {
+                policy_.setEndSimulation();
+                break;
+            }
+
+            // process the received event
+            processEvent(ev);
+        }
+
+        // remove I/O entities created during construction of this entity
+        super.terminateIOEntities();
+    }
+
+    /**
+     * Registers this resource to the GIS and to other entities when the
+     * simulation starts
+     * @pre $none
+     * @post $none
+     */
+    private void startResource()
     {
         // send the registration to GIS
         int register = 0;
@@ -518,27 +559,37 @@ public class GridResource extends GridSimCore
 
         // Below method is for a child class to override
         registerOtherEntity();
+    }
 
-        // Process events until END_OF_SIMULATION is received from the
-        // GridSimShutdown Entity
-        Sim_event ev = new Sim_event();
-        while ( Sim_system.running() )
-        {
-            super.sim_get_next(ev);
-
-            // if the simulation finishes then exit the loop
-            if (ev.get_tag() == GridSimTags.END_OF_SIMULATION)
-            {
-                policy_.setEndSimulation();
-                break;
-            }
-
-            // process the received event
-            processEvent(ev);
-        }
+    /**
+     * Saves the characteristics of this resource, including the status of
+     * every PE, and its calendar into a snapshot. A child class with
+     * attributes of its own overrides this method and calls it first.
+     * @param out  the snapshot stream
+     * @throws IOException  if the state can't be written
+     * @pre out != null
+     * @post $none
+     */
+    public void saveState(ObjectOutputStream out) throws IOException
+    {
+        out.writeObject(resource_);
+        out.writeObject(resCalendar_);
+    }
 
-        // remove I/O entities created during construction of this entity
-        super.terminateIOEntities();
+    /**
+     * Restores the characteristics and the calendar of this resource from a
+     * snapshot
+     * @param in  the snapshot stream
+     * @throws IOException  if the state can't be read
+     * @throws ClassNotFoundException  if a saved class is not found
+     * @pre in != null
+     * @post $none
+     */
+    public void restoreState(ObjectInputStream in)
+            throws IOException, ClassNotFoundException
+    {
+        resource_ = (ResourceCharacteristics) in.readObject();
+        resCalendar_ = (ResourceCalendar) in.readObject();
     }
 
     //////////////////// PROTECTED METHODS ///////////////////////////////////
@@ -685,6 +736,17 @@ public class GridResource extends GridSimCore
                 processGridletSubmit(ev, true);
                 break;
 
+                // A list of new Gridlets arrives in one message
+            case GridSimTags.GRIDLET_SUBMIT_BULK:
+                processGridletSubmitBulk(ev, false);
+                break;
+
+                // A list of new Gridlets arrives, and the sender asks for
+                // one ack for the whole list
+            case GridSimTags.GRIDLET_SUBMIT_BULK_ACK:
+                processGridletSubmitBulk(ev, true);
+                break;
+
                 // Cancels a previously submitted Gridlet
             case GridSimTags.GRIDLET_CANCEL:
                 processGridlet(ev, GridSimTags.GRIDLET_CANCEL);
@@ -722,6 +784,16 @@ public class GridResource extends GridSimCore
                 processGridletMove(ev, GridSimTags.GRIDLET_MOVE_ACK);
                 break;
 
+                // Moves a list of Gridlets to a different resource
+            case GridSimTags.GRIDLET_MOVE_BULK:
+                processGridletMoveBulk(ev);
+                break;
+
+                // Gridlets moved from a different resource arrive
+            case GridSimTags.GRIDLET_MIGRATE:
+                processGridletMigrate(ev);
+                break;
+
                 // Checks the status of a Gridlet
             case GridSimTags.GRIDLET_STATUS:
                 processGridletStatus(ev);
@@ -789,6 +861,12 @@ public class GridResource extends GridSimCore
             return;
         }
 
+        // a Gridlet moving to this resource has not left the user's view
+        if (status == -1 &&
+            GridletMigration.isInFlight(gridletId, userId, super.get_id())) {
+            status = Gridlet.QUEUED;
+        }
+
         int[] array = new int[2];
         array[0] = gridletId;
         array[1] = status;
@@ -905,6 +983,76 @@ public class GridResource extends GridSimCore
         }
     }
 
+    /**
+     * Processes the move of a list of Gridlets owned by one user
+     * @param ev   a Sim_event object
+     * @pre ev != null
+     * @post $none
+     */
+    private void processGridletMoveBulk(Sim_event ev)
+    {
+        try
+        {
+            // the user ID and destination ID, followed by the Gridlet IDs
+            int data[] = (int[]) ev.get_data();
+            int userId = data[0];
+            int destId = data[1];
+
+            int[] gridletIds = new int[data.length - 2];
+            System.arraycopy(data, 2, gridletIds, 0, gridletIds.length);
+
+            policy_.gridletMove(gridletIds, userId, destId);
+        }
+        catch (Exception e)
+        {
+            System.out.println(super.get_name() +
+                    ": Error in moving a list of Gridlets.");
+            System.out.println( e.getMessage() );
+        }
+    }
+
+    /**
+     * Processes Gridlets that have been moved from a different resource.
+     * Unlike a new submission, these Gridlets keep their finished length
+     * and they are given to the allocation policy straight away.
+     * @param ev   a Sim_event object
+     * @pre ev != null
+     * @post $none
+     */
+    private void processGridletMigrate(Sim_event ev)
+    {
+        try
+        {
+            GridletMigration migration = (GridletMigration) ev.get_data();
+            migration.arrive();
+
+            GridletList list = migration.getGridletList();
+            int i = 0;
+            for (Gridlet gl : list)
+            {
+                boolean ack = migration.isAckRequired(i);
+                i++;
+
+                // checks whether this Gridlet has finished or not
+                if (gl.isFinished())
+                {
+                    returnFinishedGridlet(gl, ack);
+                    continue;
+                }
+
+                gl.setResourceParameter(super.get_id(),
+                                        resource_.getCostPerSec());
+                policy_.gridletSubmit(gl, ack);
+            }
+        }
+        catch (Exception e)
+        {
+            System.out.println(super.get_name() +
+                    ": Error in receiving moved Gridlets.");
+            System.out.println( e.getMessage() );
+        }
+    }
+
     /**
      * Processes a Gridlet submission
      * @param ev  a Sim_event object
@@ -922,33 +1070,7 @@ public class GridResource extends GridSimCore
             // checks whether this Gridlet has finished or not
             if (gl.isFinished())
             {
-                String name = GridSim.getEntityName( gl.getUserID() );
-                System.out.println(super.get_name() + ": Warning - Gridlet #" +
-                        gl.getGridletID() + " owned by " + name +
-                        " is already completed/finished.");
-                System.out.println("Therefore, it is not being executed again");
-                System.out.println();
-
-                // NOTE: If a Gridlet has finished, then it won't be processed.
-                // So, if ack is required, this method sends back a result.
-                // If ack is not required, this method don't send back a result.
-                // Hence, this might cause GridSim to be hanged since waiting
-                // for this Gridlet back.
-                if (ack)
-                {
-                    int[] array = new int[2];
-                    array[0] = gl.getGridletID();
-                    array[1] = GridSimTags.FALSE;
-
-                    // unique tag = operation tag
-                    int tag = GridSimTags.GRIDLET_SUBMIT_ACK;
-                    super.send(super.output, GridSimTags.SCHEDULE_NOW, tag,
-                            new IO_data(array, SIZE, gl.getUserID()) );
-                }
-
-                super.send(super.output, 0, GridSimTags.GRIDLET_RETURN,
-                    new IO_data(gl,gl.getGridletOutputSize(),gl.getUserID()) );
-
+                returnFinishedGridlet(gl, ack);
                 return;
             }
 
@@ -970,6 +1092,122 @@ public class GridResource extends GridSimCore
         }
     }
 
+    /**
+     * Sends back a Gridlet that has finished already, since it is not being
+     * executed again
+     * @param gl   a Gridlet that has finished
+     * @param ack  an acknowledgement
+     * @pre gl != null
+     * @post $none
+     */
+    private void returnFinishedGridlet(Gridlet gl, boolean ack)
+    {
+        String name = GridSim.getEntityName( gl.getUserID() );
+        System.out.println(super.get_name() + ": Warning - Gridlet #" +
+                gl.getGridletID() + " owned by " + name +
+                " is already completed/finished.");
+        System.out.println("Therefore, it is not being executed again");
+        System.out.println();
+
+        // NOTE: If a Gridlet has finished, then it won't be processed.
+        // So, if ack is required, this method sends back a result.
+        // If ack is not required, this method don't send back a result.
+        // Hence, this might cause GridSim to be hanged since waiting
+        // for this Gridlet back.
+        if (ack)
+        {
+            int[] array = new int[2];
+            array[0] = gl.getGridletID();
+            array[1] = GridSimTags.FALSE;
+
+            // unique tag = operation tag
+            int tag = GridSimTags.GRIDLET_SUBMIT_ACK;
+            super.send(super.output, GridSimTags.SCHEDULE_NOW, tag,
+                    new IO_data(array, SIZE, gl.getUserID()) );
+        }
+
+        super.send(super.output, 0, GridSimTags.GRIDLET_RETURN,
+            new IO_data(gl,gl.getGridletOutputSize(),gl.getUserID()) );
+    }
+
+    /**
+     * Processes the submission of a list of Gridlets in one message. The
+     * Gridlets that have finished already are sent back, whereas the others
+     * are given to the allocation policy at once, in the order of the list.
+     * If an ack is required, then the sender gets the number of Gridlets
+     * accepted, together with the ID of the first Gridlet in the list.
+     * @param ev  a Sim_event object
+     * @param ack  an acknowledgement
+     * @pre ev != null
+     * @post $none
+     */
+    private void processGridletSubmitBulk(Sim_event ev, boolean ack)
+    {
+        try
+        {
+            // gets the Gridlet objects
+            GridletList list = (GridletList) ev.get_data();
+            if (list.size() == 0) {
+                return;
+            }
+
+            GridletList accepted = new GridletList();
+            for (Gridlet gl : list)
+            {
+                // checks whether this Gridlet has finished or not
+                if (gl.isFinished())
+                {
+                    String name = GridSim.getEntityName( gl.getUserID() );
+                    System.out.println(super.get_name() + ": Warning - " +
+                            "Gridlet #" + gl.getGridletID() + " owned by " +
+                            name + " is already completed/finished.");
+                    System.out.println("Therefore, it is not being " +
+                            "executed again");
+                    System.out.println();
+
+                    super.send(super.output, 0, GridSimTags.GRIDLET_RETURN,
+                        new IO_data(gl, gl.getGridletOutputSize(),
+                                    gl.getUserID()) );
+                    continue;
+                }
+
+                gl.setResourceParameter(super.get_id(),
+                                        resource_.getCostPerSec());
+                accepted.add(gl);
+            }
+
+            // process these Gridlets to this GridResource
+            if (accepted.size() > 0) {
+                policy_.gridletSubmit(accepted);
+            }
+
+            // one ack for the whole list
+            if (ack)
+            {
+                Gridlet first = list.getFirst();
+                int[] array = new int[2];
+                array[0] = first.getGridletID();
+                array[1] = accepted.size();
+
+                int tag = GridSimTags.GRIDLET_SUBMIT_BULK_ACK;
+                super.send(super.output, GridSimTags.SCHEDULE_NOW, tag,
+                        new IO_data(array, SIZE, first.getUserID()) );
+            }
+        }
+        catch (ClassCastException c)
+        {
+            System.out.println(super.get_name() +
+                    ".processGridletSubmitBulk(): ClassCastException error.");
+            System.out.println( c.getMessage() );
+        }
+        catch (Exception e)
+        {
+            System.out.println(super.get_name() +
+                    ".processGridletSubmitBulk(): Exception error.");
+            System.out.println( e.getMessage() );
+        }
+    }
+
     /**
      * Processes a ping request.
      * @param ev  a Sim_event object
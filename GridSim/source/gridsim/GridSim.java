@@ -9,6 +9,7 @@
 
 package gridsim;
 
+import eduni.simjava.Sim_entity;
 import eduni.simjava.Sim_event;
 
 import eduni.simjava.Sim_exception;
@@ -17,7 +18,11 @@ import eduni.simjava.Sim_system;
 import eduni.simjava.Sim_type_p;
 import gridsim.filter.FilterGridlet;
 import gridsim.filter.FilterResult;
+import gridsim.kernel.EventLoopKernel;
+import gridsim.kernel.FutureEventList;
+import gridsim.kernel.SimulationMonitor;
 import gridsim.net.Link;
+import gridsim.net.RouterPartitioner;
 import gridsim.parallel.gui.ParallelVisualizer;
 import gridsim.parallel.gui.Visualizer;
 import gridsim.parallel.gui.VisualizerAdaptor;
@@ -85,13 +90,17 @@ public class GridSim extends GridSimCore
     // Indicates whether the simulation should run in debug mode (i.e. with GUI)
     private static boolean debugMode_ = false;
     
-    private static int gisID_ = -1;         // id of GIS entity
-    private static int shutdownID_ = -1;    // id of GridSimShutdown entity
-    private static int statsID_ = -1;       // id of GridStatistics entity
-    private static Calendar calendar_ = null;    // a Calendar object
-    private static GridInformationService gis_ = null;   // a GIS object
     private static final int NOT_FOUND = -1;     // a constant
-    private static boolean traceFlag_ = false; // trace events or other activities
+
+    // tags of the events that return one or many Gridlets
+    private static final int[] RETURN_TAGS = { GridSimTags.GRIDLET_RETURN,
+                                               GridSimTags.GRIDLET_RETURN_BULK };
+
+    // the simulation this entity belongs to
+    private final SimulationContext context_ = SimulationContext.current();
+
+    // Gridlets returned in bulk that have not been received yet
+    private GridletList bulkReturned_ = null;
 
     /** Pause for a certain time delay (in seconds) before a resource
      * registers to a Regional GIS entity.
@@ -199,7 +208,8 @@ public class GridSim extends GridSimCore
      */
     public static Date getSimulationStartDate()
     {
-        return calendar_.getTime();
+        SimulationContext ctx = SimulationContext.current();
+        return ctx.calendar_.getTime();
     }
 
     /**
@@ -215,9 +225,10 @@ public class GridSim extends GridSimCore
     public static Calendar getSimulationCalendar()
     {
         // make a new copy
-        Calendar clone = calendar_;
-        if (calendar_ != null) {
-            clone = (Calendar) calendar_.clone();
+        SimulationContext ctx = SimulationContext.current();
+        Calendar clone = ctx.calendar_;
+        if (ctx.calendar_ != null) {
+            clone = (Calendar) ctx.calendar_.clone();
         }
 
         return clone;
@@ -271,6 +282,7 @@ public class GridSim extends GridSimCore
             String[] excludeFromFile, String[] excludeFromProcessing,
             String reportWriterName)
     {
+        SimulationContext ctx = SimulationContext.current();
         try
         {
             initCommonVariable(cal, traceFlag, numUser, reportWriterName);
@@ -281,12 +293,12 @@ public class GridSim extends GridSimCore
                                       excludeFromFile, excludeFromProcessing);
 
             // create a GIS object
-            gis_ = new GridInformationService("GridInformationService",
+            ctx.gis_ = new GridInformationService("GridInformationService",
                                               GridSimTags.DEFAULT_BAUD_RATE);
 
             // set all the above entity IDs
-            gisID_ = gis_.get_id();
-            statsID_ = stat.get_id();
+            ctx.gisID_ = ctx.gis_.get_id();
+            ctx.statsID_ = stat.get_id();
         }
         catch (Sim_exception s)
         {
@@ -341,16 +353,17 @@ public class GridSim extends GridSimCore
      */
     public static void init(int numUser, Calendar cal, boolean traceFlag)
     {
+        SimulationContext ctx = SimulationContext.current();
         try
         {
             initCommonVariable(cal, traceFlag, numUser, null);
 
             // create a GIS object
-            gis_ = new GridInformationService("GridInformationService",
+            ctx.gis_ = new GridInformationService("GridInformationService",
                                               GridSimTags.DEFAULT_BAUD_RATE);
 
             // set all the above entity IDs
-            gisID_ = gis_.get_id();
+            ctx.gisID_ = ctx.gis_.get_id();
         }
         catch (Sim_exception s)
         {
@@ -414,17 +427,18 @@ public class GridSim extends GridSimCore
     public static void init(int numUser, Calendar cal, boolean traceFlag,
                             boolean gis)
     {
+        SimulationContext ctx = SimulationContext.current();
         try
         {
             initCommonVariable(cal, traceFlag, numUser, null);
             if (gis)
             {
                 // create a GIS object
-                gis_ = new GridInformationService("GridInformationService",
+                ctx.gis_ = new GridInformationService("GridInformationService",
                                     GridSimTags.DEFAULT_BAUD_RATE);
 
                 // set all the above entity IDs
-                gisID_ = gis_.get_id();
+                ctx.gisID_ = ctx.gis_.get_id();
             }
         }
         catch (Sim_exception s)
@@ -439,6 +453,52 @@ public class GridSim extends GridSimCore
         }
     }
 
+    /**
+     * Initializes GridSim parameters <b>without</b> any statistical
+     * entities, like {@link #init(int, Calendar, boolean)}, but also selects
+     * the simulation kernel that runs the entities. This method should be
+     * called before creating any entities.
+     * <p>
+     * With {@link gridsim.GridSimTags#KERNEL_EVENT_LOOP}, all entities are
+     * run by a single thread. Entities implementing
+     * {@link gridsim.kernel.EventDriven} are called back for each event,
+     * whereas other entities still run their <tt>body()</tt> method.
+     * With {@link gridsim.GridSimTags#KERNEL_VIRTUAL_THREAD}, these
+     * <tt>body()</tt> methods run on virtual threads instead of platform
+     * threads. With {@link gridsim.GridSimTags#KERNEL_PARALLEL}, the
+     * entities are split into logical processes that run in parallel.
+     *
+     * @param numUser  the number of User Entities created.
+     *                 This parameters indicates that
+     *                 {@link gridsim.GridSimShutdown} first waits for
+     *                 User Entities's END_OF_SIMULATION signal before
+     *                 issuing terminate signal to other entities
+     * @param cal          starting time for this simulation. If it is
+     *        <tt>null</tt>, then the time will be taken from
+     *        <tt>Calendar.getInstance()</tt>
+     * @param traceFlag    true if GridSim trace need to be written
+     * @param kernelType   {@link gridsim.GridSimTags#KERNEL_SIMJAVA},
+     *                     {@link gridsim.GridSimTags#KERNEL_EVENT_LOOP},
+     *                     {@link gridsim.GridSimTags#KERNEL_VIRTUAL_THREAD}
+     *                     or {@link gridsim.GridSimTags#KERNEL_PARALLEL}
+     * @see gridsim.GridSim#initKernelType(int)
+     * @see gridsim.GridSim#init(int, Calendar, boolean)
+     * @pre numUser >= 0
+     * @post $none
+     */
+    public static void init(int numUser, Calendar cal, boolean traceFlag,
+                            int kernelType)
+    {
+        if ( !initKernelType(kernelType) )
+        {
+            System.out.println("GridSim.init(): Warning - unknown kernel " +
+                    "type. Using SimJava instead.");
+            initKernelType(GridSimTags.KERNEL_SIMJAVA);
+        }
+
+        init(numUser, cal, traceFlag);
+    }
+
     /**
      * Sets a <tt>GridInformationService</tt> (GIS) entity.
      * This method is useful when you want a different type of GIS entity.
@@ -451,13 +511,14 @@ public class GridSim extends GridSimCore
      */
     public static boolean setGIS(GridInformationService gis)
     {
+        SimulationContext ctx = SimulationContext.current();
         // ignore if an existing GIS object has already been created
-        if (gis == null || gis_ != null) {
+        if (gis == null || ctx.gis_ != null) {
             return false;
         }
 
-        gis_ = gis;
-        gisID_ = gis.get_id();
+        ctx.gis_ = gis;
+        ctx.gisID_ = gis.get_id();
         return true;
     }
 
@@ -476,23 +537,70 @@ public class GridSim extends GridSimCore
     private static void initCommonVariable(Calendar cal, boolean traceFlag,
                int numUser, String reportWriterName) throws Exception
     {
+        SimulationContext ctx = SimulationContext.current();
+        boolean isolated = ctx.isIsolated();
+
         // NOTE: the order for the below 3 lines are important
-        Sim_system.initialise();
-        Sim_system.set_trc_level(1);
-        Sim_system.set_auto_trace(traceFlag);
+        if (!isolated)
+        {
+            Sim_system.initialise();
+            Sim_system.set_trc_level(1);
+            Sim_system.set_auto_trace(traceFlag);
+        }
+        else if (ctx.kernelType_ == GridSimTags.KERNEL_SIMJAVA)
+        {
+            System.out.println("GridSim.init(): Warning - SimJava can only " +
+                    "run the default simulation context. Using the " +
+                    "event-loop kernel instead.");
+            ctx.kernelType_ = GridSimTags.KERNEL_EVENT_LOOP;
+        }
+
+        // the kernel must exist before any entity is created
+        ctx.kernel_ = null;
+        ctx.registry_ = new EntityRegistry( new Sim_entity[0] );
+        if (ctx.kernelType_ == GridSimTags.KERNEL_EVENT_LOOP) {
+            ctx.kernel_ = new EventLoopKernel(false, isolated);
+        }
+        else if (ctx.kernelType_ == GridSimTags.KERNEL_VIRTUAL_THREAD) {
+            ctx.kernel_ = new EventLoopKernel(true, isolated);
+        }
+        else if (ctx.kernelType_ == GridSimTags.KERNEL_PARALLEL)
+        {
+            int count = ctx.kernelPartitions_;
+            if (count <= 0) {
+                count = Runtime.getRuntime().availableProcessors();
+            }
+
+            ctx.kernel_ = new EventLoopKernel(false, isolated);
+            ctx.kernel_.setPartitions(count, new RouterPartitioner());
+        }
+
+        if (ctx.kernel_ != null) {
+            ctx.kernel_.setFutureEventList(ctx.felType_);
+        }
+        createKernelMonitor(ctx);
+        createGridletHistory(ctx);
+        ctx.migrations_.clear();
+
+        if (isolated) {
+            EventLoopKernel.setThreadActive(ctx.kernel_);
+        }
+        else {
+            EventLoopKernel.setActive(ctx.kernel_);
+        }
 
-        traceFlag_ = traceFlag;
+        ctx.traceFlag_ = traceFlag;
 
         // Set the current Wall clock time as the starting time of simulation
-        calendar_ = cal;
+        ctx.calendar_ = cal;
         if (cal == null) {
-            calendar_ = Calendar.getInstance();
+            ctx.calendar_ = Calendar.getInstance();
         }
 
         // creates a GridSimShutdown object
         GridSimShutdown shutdown = new GridSimShutdown("GridSimShutdown",
                                               numUser, reportWriterName);
-        shutdownID_ = shutdown.get_id();
+        ctx.shutdownID_ = shutdown.get_id();
     }
 
     /**
@@ -514,6 +622,28 @@ public class GridSim extends GridSimCore
     public static void startGridSimulation() throws NullPointerException
     {
     	System.out.println("Starting GridSim version " + GRIDSIM_VERSION_STRING);
+        SimulationContext ctx = SimulationContext.current();
+        ctx.registry_ = createEntityRegistry(ctx);
+        if (ctx.kernel_ != null)
+        {
+            boolean done = ctx.kernel_.run();
+            if (ctx.monitor_ != null) {
+                ctx.monitor_.stopDump();    // writes the final report
+            }
+
+            if (done) {
+                return;
+            }
+
+            if ( ctx.isIsolated() ) {
+                return;   // an isolated simulation can't run on SimJava
+            }
+
+            // some entities can only be run by SimJava
+            ctx.kernel_ = null;
+            EventLoopKernel.setActive(null);
+        }
+
         try {
             Sim_system.run();
         }
@@ -589,6 +719,9 @@ public class GridSim extends GridSimCore
      * 			<code>false</code> otherwise.
      */
     public static boolean pauseSimulation() {
+    	if (SimulationContext.current().kernel_ != null) {
+    	    return false;   // not supported by the event-loop kernel
+    	}
     	return Sim_system.pauseSimulation();
     }
     
@@ -600,6 +733,9 @@ public class GridSim extends GridSimCore
      * 			<code>false</code> otherwise.
      */
     public static boolean pauseSimulation(long time) {
+    	if (SimulationContext.current().kernel_ != null) {
+    	    return false;   // not supported by the event-loop kernel
+    	}
     	return Sim_system.pauseSimulation(time);
     }
     
@@ -610,17 +746,27 @@ public class GridSim extends GridSimCore
      * 			<code>false</code> otherwise.
      */
     public static boolean resumeSimulation() {
+    	if (SimulationContext.current().kernel_ != null) {
+    	    return false;   // not supported by the event-loop kernel
+    	}
     	return Sim_system.resumeSimulation();
     }
 
     /**
-     * Gets the current simulation time (based on SimJava simulation clock)
+     * Gets the current simulation time (based on SimJava simulation clock,
+     * or on the event-loop kernel clock if that kernel has been selected)
      * @return The current simulation time from the simulation clock
      * @see eduni.simjava.Sim_system#clock()
+     * @see gridsim.kernel.EventLoopKernel#clock()
      * @pre $none
      * @post $result >= 0.0
      */
-    public static double clock() {
+    public static double clock()
+    {
+        SimulationContext ctx = SimulationContext.current();
+        if (ctx.kernel_ != null) {
+            return ctx.kernel_.clock();
+        }
         return Sim_system.clock();
     }
 
@@ -656,6 +802,13 @@ public class GridSim extends GridSimCore
      */
     public static void stopGridSimulation() throws NullPointerException
     {
+        SimulationContext ctx = SimulationContext.current();
+        if (ctx.kernel_ != null && ctx.kernel_.isRunning())
+        {
+            ctx.kernel_.stop();
+            return;
+        }
+
         try {
             Sim_system.run_stop();
         }
@@ -872,6 +1025,123 @@ public class GridSim extends GridSimCore
         return valid;
     }
 
+    /**
+     * Sends a list of Gridlets to the destination GridResource ID in one
+     * message, <tt>with</tt> a specified delay. This is much cheaper than
+     * submitting the Gridlets one by one, since the GridResource receives
+     * them at once and, if an acknowledgement is wanted, replies once for
+     * the whole list. Invalid or finished Gridlets are not sent.
+     * <p>
+     * The list is sent as one file of the total size of the Gridlets, so
+     * all Gridlets arrive when the whole list has arrived, i.e. when the
+     * last one would have arrived if they were sent one by one. The
+     * allocation policy then schedules them in the order of the list, in
+     * the same way as Gridlets submitted one by one at that time. Hence,
+     * the first Gridlets start later than on their own, and may finish
+     * later as well. Giving each Gridlet its own arrival time would take
+     * one transfer per Gridlet, which is what this method saves. Use
+     * {@link #gridletSubmit(Gridlet, int, double, boolean)} if the
+     * transfer time of each Gridlet matters.
+     * <p>
+     * The GridResource returns Gridlets submitted in this way that finish at
+     * the same time in one message. They can be received one by one with
+     * {@link #gridletReceive()}, or as a list with
+     * {@link #gridletReceiveBulk()}. However, the other
+     * <tt>gridletReceive()</tt> methods, which look for a particular
+     * Gridlet, do not see them.
+     *
+     * @param list          a list of Gridlets to be sent
+     * @param resourceID    an unique resource ID
+     * @param delay         delay time or <tt>0.0</tt> if want to execute NOW
+     * @param ack           an acknowledgment status. <tt>true</tt> if want to
+     *                      know the result of this method, <tt>false</tt>
+     *                      otherwise or don't care.
+     * @return the number of Gridlets accepted by the destination GridResource
+     *         if an acknowledgement is wanted, or <tt>0</tt> otherwise
+     * @see gridsim.GridSim#gridletSubmit(Gridlet, int, double, boolean)
+     * @see gridsim.GridSim#gridletReceiveBulk()
+     * @pre list != null
+     * @pre resourceID >= 0
+     * @pre delay >= 0.0
+     * @post $result >= 0
+     * @since GridSim Toolkit 5.2
+     */
+    protected int gridletSubmit(GridletList list, int resourceID,
+                                double delay, boolean ack)
+    {
+        // checks whether a list is empty or delay is -ve
+        if (list == null || list.size() == 0 || delay < 0.0) {
+            return 0;
+        }
+
+        String errorMsg = super.get_name() + ".gridletSubmit(): ";
+        GridletList valid = new GridletList();
+        long size = 0;
+        for (Gridlet gl : list)
+        {
+            // checks whether a Gridlet has finished executing before
+            if (gl == null) {
+                continue;
+            }
+
+            if (gl.isFinished())
+            {
+                System.out.println(errorMsg + "Error - Gridlet #" +
+                                   gl.getGridletID() + " for User #" +
+                                   gl.getUserID() + " is already finished.");
+                continue;
+            }
+
+            if ( validateValue(errorMsg, gl.getGridletID(), gl.getUserID(),
+                               resourceID) )
+            {
+                valid.add(gl);
+                size += gl.getGridletFileSize();
+            }
+        }
+
+        if (valid.size() == 0) {
+            return 0;
+        }
+
+        int result = 0;
+        try
+        {
+            // sends the gridlets to a destination GridResource id with ACK
+            if (ack)
+            {
+                send(super.output, delay, GridSimTags.GRIDLET_SUBMIT_BULK_ACK,
+                     new IO_data(valid, size, resourceID) );
+
+                // the ack is identified by the ID of the first Gridlet
+                result = getIntResult(valid.getFirst().getGridletID(),
+                                      GridSimTags.GRIDLET_SUBMIT_BULK_ACK);
+                if (result < 0) {
+                    result = 0;
+                }
+            }
+            else   // sends without ACK
+            {
+                send(super.output, delay, GridSimTags.GRIDLET_SUBMIT_BULK,
+                     new IO_data(valid, size, resourceID) );
+            }
+        }
+        catch (Sim_exception sim)
+        {
+            result = 0;
+            System.out.println(errorMsg + "Error from SimJava occurs.");
+            System.out.println( sim.getMessage() );
+        }
+        catch (Exception e)
+        {
+            result = 0;
+            System.out.println(errorMsg + "Error occurs.");
+            System.out.println( e.getMessage() );
+        }
+
+        return result;
+    }
+
     /**
      * Gets the result from an incoming event buffer that matches
      * the given Gridlet ID and tag name
@@ -946,14 +1216,26 @@ public class GridSim extends GridSimCore
      */
     protected Gridlet gridletReceive()
     {
+        // Gridlets returned in bulk are handed out one by one
+        if (bulkReturned_ != null && bulkReturned_.size() > 0) {
+            return bulkReturned_.removeFirst();
+        }
+
         Sim_event ev = new Sim_event();
 
         // waiting for a response from the GridResource entity
-        Sim_type_p tag = new Sim_type_p(GridSimTags.GRIDLET_RETURN);
+        Sim_type_p tag = new Sim_type_p(RETURN_TAGS);
         super.sim_get_next(tag, ev);   // wait for the correct event type
 
         Gridlet gl = null;
-        try {
+        try
+        {
+            if (ev.get_tag() == GridSimTags.GRIDLET_RETURN_BULK)
+            {
+                bulkReturned_ = (GridletList) ev.get_data();
+                return bulkReturned_.removeFirst();
+            }
+
             gl = (Gridlet) ev.get_data();
         }
         catch (ClassCastException c) {
@@ -966,6 +1248,55 @@ public class GridSim extends GridSimCore
         return gl;
     }
 
+    /**
+     * Gets the Gridlets belong to the first event <b>CURRENTLY</b> waiting in
+     * this entity's deferred queue (incoming buffer), i.e. all Gridlets that
+     * a GridResource has returned at once, or a single Gridlet.
+     * If there are no events, then wait indefinitely for an event to arrive.
+     * @return a list of Gridlets or <tt>null</tt> if an error occurs.
+     * @see gridsim.GridSim#gridletSubmit(GridletList, int, double, boolean)
+     * @pre $none
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    protected GridletList gridletReceiveBulk()
+    {
+        // Gridlets returned in bulk, but not received by gridletReceive()
+        GridletList list = null;
+        if (bulkReturned_ != null && bulkReturned_.size() > 0)
+        {
+            list = bulkReturned_;
+            bulkReturned_ = null;
+            return list;
+        }
+
+        Sim_event ev = new Sim_event();
+
+        // waiting for a response from the GridResource entity
+        Sim_type_p tag = new Sim_type_p(RETURN_TAGS);
+        super.sim_get_next(tag, ev);   // wait for the correct event type
+
+        try
+        {
+            if (ev.get_tag() == GridSimTags.GRIDLET_RETURN_BULK) {
+                list = (GridletList) ev.get_data();
+            }
+            else
+            {
+                list = new GridletList();
+                list.add( (Gridlet) ev.get_data() );
+            }
+        }
+        catch (ClassCastException c) {
+            list = null;
+        }
+        catch (Exception e) {
+            list = null;
+        }
+
+        return list;
+    }
+
     /**
      * Gets a Gridlet belong to the first event <b>CURRENTLY</b> waiting in this
      * entity's deferred queue (incoming buffer).
@@ -1150,7 +1481,7 @@ public class GridSim extends GridSimCore
         }
 
         // if a grid resource ID doesn't exist in GIS list
-        if (!gis_.isResourceExist(resourceId))
+        if (!context_.gis_.isResourceExist(resourceId))
         {
             valid = false;
             System.out.println(msg + "Error - GridResource ID #" + resourceId +
@@ -1605,7 +1936,7 @@ public class GridSim extends GridSimCore
         }
 
         // if a destination grid resource ID doesn't exist in GIS list
-        if (!gis_.isResourceExist(destId))
+        if (!context_.gis_.isResourceExist(destId))
         {
             System.out.println(errorMsg + "Error - GridResource ID #" + destId +
                    " doesn't exist. Hence, can't move Gridlet #" + gridletId);
@@ -1656,6 +1987,85 @@ public class GridSim extends GridSimCore
         return valid;
     }
 
+    /**
+     * Moves a list of Gridlets owned by one user to the destination
+     * GridResource ID. The source GridResource sends the Gridlets that have
+     * not finished in one transfer, and only their checkpoints travel, i.e.
+     * {@link gridsim.Gridlet#getCheckpointSize()}. No acknowledgement is
+     * sent back. While the Gridlets are in flight, their status is
+     * {@link gridsim.Gridlet#QUEUED}.
+     * @param gridletIds  the Gridlet IDs
+     * @param userId      the owner or user ID of these Gridlets
+     * @param srcId   the GridResource ID that is currently executing these
+     *                Gridlets
+     * @param destId  the new GridResource ID
+     * @param delay   simulation delay
+     * @return <tt>true</tt> if the request has been sent, <tt>false</tt>
+     *         otherwise, e.g. if the list is empty, if one or both
+     *         GridResource ID don't exist or if the delay is negative
+     * @see gridsim.AllocPolicy#gridletMove(int[], int, int)
+     * @pre gridletIds != null
+     * @pre userId > 0
+     * @pre srcId > 0
+     * @pre destId > 0
+     * @pre delay >= 0.0
+     * @post $result = true || false
+     * @since GridSim Toolkit 5.2
+     */
+    protected boolean gridletMove(int[] gridletIds, int userId, int srcId,
+                                  int destId, double delay)
+    {
+        String errorMsg = super.get_name() + ".gridletMove(): ";
+
+        // check whether the source Id is the same as destination Id
+        if (srcId == destId)
+        {
+            System.out.println(errorMsg + "Error - Can't move a Gridlet to " +
+                   "the same GridResource.");
+            return false;
+        }
+
+        if (gridletIds == null || gridletIds.length == 0 || delay < 0.0) {
+            return false;
+        }
+
+        boolean valid = validateValue(errorMsg, gridletIds[0], userId, srcId);
+        if (!valid) {
+            return false;
+        }
+
+        // if a destination grid resource ID doesn't exist in GIS list
+        if (!context_.gis_.isResourceExist(destId))
+        {
+            System.out.println(errorMsg + "Error - GridResource ID #" + destId +
+                   " doesn't exist. Hence, can't move the Gridlets.");
+
+            return false;
+        }
+
+        try
+        {
+            // the user ID and destination ID, followed by the Gridlet IDs
+            int[] array = new int[gridletIds.length + 2];
+            array[0] = userId;
+            array[1] = destId;
+            System.arraycopy(gridletIds, 0, array, 2, gridletIds.length);
+
+            int size = 4 * array.length + 2;    // ints + 2 bytes overhead
+            send(super.output, delay, GridSimTags.GRIDLET_MOVE_BULK,
+                 new IO_data(array, size, srcId)
+            );
+        }
+        catch (Exception e)
+        {
+            valid = false;
+            System.out.println(errorMsg + "Error occurs.");
+            System.out.println( e.getMessage() );
+        }
+
+        return valid;
+    }
+
     /**
      * Gets the name of this entity
      * @return the Entity name or <tt>null</tt> if this object does not have
@@ -1684,17 +2094,8 @@ public class GridSim extends GridSimCore
      * @pre entityID > 0
      * @post $none
      */
-    public static String getEntityName(int entityID)
-    {
-        try {
-            return Sim_system.get_entity(entityID).get_name();
-        }
-        catch (Sim_exception e) {
-            return null;
-        }
-        catch (Exception e) {
-            return null;
-        }
+    public static String getEntityName(int entityID) {
+        return SimulationContext.current().registry_.getEntityName(entityID);
     }
 
     /**
@@ -1727,6 +2128,24 @@ public class GridSim extends GridSimCore
             return NOT_FOUND;
         }
 
+        return SimulationContext.current().registry_.getEntityId(entityName);
+    }
+
+    /**
+     * Searches the ID of an entity given its name, without using the
+     * {@link EntityRegistry}
+     * @param entityName    an Entity name
+     * @return the Entity ID or <tt>-1</tt> if it is not found
+     * @pre entityName != null
+     * @post $result >= -1
+     */
+    static int findEntityId(String entityName)
+    {
+        SimulationContext ctx = SimulationContext.current();
+        if (ctx.isIsolated() && ctx.kernel_ != null) {
+            return ctx.kernel_.getEntityId(entityName);
+        }
+
         try {
             return Sim_system.get_entity_id(entityName);
         }
@@ -1738,6 +2157,130 @@ public class GridSim extends GridSimCore
         }
     }
 
+    /**
+     * Gets an entity of the current simulation given its ID
+     * @param entityID  the entity ID
+     * @return the entity or <tt>null</tt> if it is not found
+     * @see gridsim.SimulationContext
+     * @pre entityID >= 0
+     * @post $none
+     */
+    public static Sim_entity getEntity(int entityID) {
+        return SimulationContext.current().registry_.getEntity(entityID);
+    }
+
+    /**
+     * Searches an entity of the current simulation given its ID, without
+     * using the {@link EntityRegistry}
+     * @param entityID  the entity ID
+     * @return the entity or <tt>null</tt> if it is not found
+     * @pre $none
+     * @post $none
+     */
+    static Sim_entity findEntity(int entityID)
+    {
+        SimulationContext ctx = SimulationContext.current();
+        if (ctx.isIsolated() && ctx.kernel_ != null) {
+            return ctx.kernel_.getEntity(entityID);
+        }
+
+        try {
+            return Sim_system.get_entity(entityID);
+        }
+        catch (Sim_exception e) {
+            return null;
+        }
+        catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets an entity of the current simulation given its name
+     * @param entityName    an Entity name
+     * @return the entity or <tt>null</tt> if it is not found
+     * @see gridsim.SimulationContext
+     * @pre entityName != null
+     * @post $none
+     */
+    public static Sim_entity getEntity(String entityName)
+    {
+        if (entityName == null) {
+            return null;
+        }
+
+        EntityRegistry registry = SimulationContext.current().registry_;
+        int id = registry.getEntityId(entityName);
+        if (id == NOT_FOUND) {
+            return null;
+        }
+
+        return registry.getEntity(id);
+    }
+
+    /**
+     * Gets the registry of the entities of the current simulation, which
+     * finds entities, their names and their I/O ports by entity ID without
+     * searching. The registry is complete once
+     * {@link #startGridSimulation()} has been called.
+     * @return the entity registry
+     * @see gridsim.EntityRegistry
+     * @pre $none
+     * @post $result != null
+     */
+    public static EntityRegistry getEntityRegistry() {
+        return SimulationContext.current().registry_;
+    }
+
+    /**
+     * Builds the registry of all entities of a simulation
+     * @param ctx   the simulation context
+     * @return the entity registry
+     * @pre ctx != null
+     * @post $result != null
+     */
+    private static EntityRegistry createEntityRegistry(SimulationContext ctx)
+    {
+        int count = 0;
+        if (ctx.isIsolated() && ctx.kernel_ != null) {
+            count = ctx.kernel_.getEntityCount();
+        }
+        else
+        {
+            try {
+                count = Sim_system.get_num_entities();
+            }
+            catch (Exception e) {
+                count = 0;
+            }
+        }
+
+        Sim_entity[] entities = new Sim_entity[count];
+        for (int i = 0; i < count; i++) {
+            entities[i] = findEntity(i);
+        }
+
+        return new EntityRegistry(entities);
+    }
+
+    /**
+     * Checks whether the current simulation is running. This should be used
+     * instead of <tt>Sim_system.running()</tt> by entities that can be run
+     * inside a {@link gridsim.SimulationContext} other than the default one.
+     * @return <tt>true</tt> if the simulation is running
+     * @pre $none
+     * @post $none
+     */
+    public static boolean isSimulationRunning()
+    {
+        SimulationContext ctx = SimulationContext.current();
+        if (ctx.isIsolated() && ctx.kernel_ != null) {
+            return ctx.kernel_.isRunning();
+        }
+
+        return Sim_system.running();
+    }
+
     /**
      * Gets the entity ID of <tt>GridStatistics</tt>
      * @return the Entity ID or <tt>-1</tt> if it is not found
@@ -1745,7 +2288,7 @@ public class GridSim extends GridSimCore
      * @post $result >= -1
      */
     public static int getGridStatisticsEntityId() {
-        return statsID_;
+        return SimulationContext.current().statsID_;
     }
 
     /**
@@ -1755,7 +2298,7 @@ public class GridSim extends GridSimCore
      * @post $result >= -1
      */
     public static int getGridInfoServiceEntityId() {
-        return gisID_;
+        return SimulationContext.current().gisID_;
     }
 
     /**
@@ -1765,7 +2308,7 @@ public class GridSim extends GridSimCore
      * @post $result >= -1
      */
     public static int getGISId() {
-        return gisID_;
+        return SimulationContext.current().gisID_;
     }
 
     /**
@@ -1775,7 +2318,7 @@ public class GridSim extends GridSimCore
      * @post $result >= -1
      */
     public static int getGridSimShutdownEntityId() {
-        return shutdownID_;
+        return SimulationContext.current().shutdownID_;
     }
 
     /**
@@ -1788,8 +2331,8 @@ public class GridSim extends GridSimCore
      */
     protected void shutdownUserEntity()
     {
-        if (shutdownID_ != NOT_FOUND) {
-            send(shutdownID_, 0.0, GridSimTags.END_OF_SIMULATION);
+        if (context_.shutdownID_ != NOT_FOUND) {
+            send(context_.shutdownID_, 0.0, GridSimTags.END_OF_SIMULATION);
         }
     }
 
@@ -1800,8 +2343,8 @@ public class GridSim extends GridSimCore
      */
     protected void shutdownGridStatisticsEntity()
     {
-        if (statsID_ != NOT_FOUND) {
-            send(statsID_, 0.0, GridSimTags.END_OF_SIMULATION);
+        if (context_.statsID_ != NOT_FOUND) {
+            send(context_.statsID_, 0.0, GridSimTags.END_OF_SIMULATION);
         }
     }
 
@@ -1815,11 +2358,12 @@ public class GridSim extends GridSimCore
      */
     public static LinkedList getGridResourceList()
     {
-        if (gis_ == null) {
+        SimulationContext ctx = SimulationContext.current();
+        if (ctx.gis_ == null) {
             return null;
         }
 
-        return gis_.getList();
+        return ctx.gis_.getList();
     }
 
     /**
@@ -1833,11 +2377,12 @@ public class GridSim extends GridSimCore
      */
     public static boolean resourceSupportAR(int resourceID)
     {
-        if (gis_ == null) {
+        SimulationContext ctx = SimulationContext.current();
+        if (ctx.gis_ == null) {
             return false;
         }
 
-        return gis_.resourceSupportAR(resourceID);
+        return ctx.gis_.resourceSupportAR(resourceID);
     }
 
     /**
@@ -1851,11 +2396,12 @@ public class GridSim extends GridSimCore
      */
     public static boolean resourceSupportAR(Integer resourceID)
     {
-        if (gis_ == null || resourceID == null) {
+        SimulationContext ctx = SimulationContext.current();
+        if (ctx.gis_ == null || resourceID == null) {
             return false;
         }
 
-        return gis_.resourceSupportAR(resourceID);
+        return ctx.gis_.resourceSupportAR(resourceID);
     }
 
     /**
@@ -1868,11 +2414,12 @@ public class GridSim extends GridSimCore
      */
     public static LinkedList getAdvancedReservationList()
     {
-        if (gis_ == null) {
+        SimulationContext ctx = SimulationContext.current();
+        if (ctx.gis_ == null) {
             return null;
         }
 
-        return gis_.getAdvReservList();
+        return ctx.gis_.getAdvReservList();
     }
 
     /**
@@ -1884,11 +2431,12 @@ public class GridSim extends GridSimCore
      */
     public static boolean isResourceExist(int id)
     {
-        if (gis_ == null) {
+        SimulationContext ctx = SimulationContext.current();
+        if (ctx.gis_ == null) {
             return false;
         }
 
-        return gis_.isResourceExist(id);
+        return ctx.gis_.isResourceExist(id);
     }
 
     /**
@@ -1900,7 +2448,8 @@ public class GridSim extends GridSimCore
      */
     public static boolean isResourceExist(Integer id)
     {
-        if (gis_ == null || id == null) {
+        SimulationContext ctx = SimulationContext.current();
+        if (ctx.gis_ == null || id == null) {
             return false;
         }
 
@@ -1913,7 +2462,7 @@ public class GridSim extends GridSimCore
      * or <tt>false</tt> otherwise.
      */
     public static boolean isTraceEnabled() {
-    	return traceFlag_;
+    	return SimulationContext.current().traceFlag_;
     }
 
     /**
@@ -2036,7 +2585,7 @@ public class GridSim extends GridSimCore
      */
     public ResourceCharacteristics getResourceCharacteristics(int resourceID)
     {
-        if (!gis_.isResourceExist(resourceID)) {
+        if (!context_.gis_.isResourceExist(resourceID)) {
             return null;
         }
 
@@ -2073,7 +2622,7 @@ public class GridSim extends GridSimCore
      */
     public Accumulator getResourceDynamicInfo(int resourceID)
     {
-        if (!gis_.isResourceExist(resourceID)) {
+        if (!context_.gis_.isResourceExist(resourceID)) {
             return null;
         }
 
@@ -2114,11 +2663,11 @@ public class GridSim extends GridSimCore
      */
     public void recordStatistics(String category, double data)
     {
-        if (statsID_ == NOT_FOUND || category == null) {
+        if (context_.statsID_ == NOT_FOUND || category == null) {
             return;
         }
 
-        super.send(statsID_, 0.0, GridSimTags.RECORD_STATISTICS,
+        super.send(context_.statsID_, 0.0, GridSimTags.RECORD_STATISTICS,
              new Stat( GridSim.clock(), category, super.get_name(), data )
         );
     }
@@ -2133,11 +2682,11 @@ public class GridSim extends GridSimCore
      */
     public void recordStatistics(String category, int data)
     {
-        if (statsID_ == NOT_FOUND || category == null) {
+        if (context_.statsID_ == NOT_FOUND || category == null) {
             return;
         }
 
-        super.send(statsID_, 0.0, GridSimTags.RECORD_STATISTICS,
+        super.send(context_.statsID_, 0.0, GridSimTags.RECORD_STATISTICS,
              new Stat( GridSim.clock(), category, super.get_name(), data )
         );
     }
@@ -2152,11 +2701,11 @@ public class GridSim extends GridSimCore
      */
     public void recordStatistics(String category, String data)
     {
-        if (statsID_ == NOT_FOUND || category == null || data == null) {
+        if (context_.statsID_ == NOT_FOUND || category == null || data == null) {
             return;
         }
 
-        super.send(statsID_, 0.0, GridSimTags.RECORD_STATISTICS,
+        super.send(context_.statsID_, 0.0, GridSimTags.RECORD_STATISTICS,
              new Stat( GridSim.clock(), category, super.get_name(), data )
         );
     }
@@ -2171,11 +2720,11 @@ public class GridSim extends GridSimCore
      */
     public void recordStatistics(String category, boolean data)
     {
-        if (statsID_ == NOT_FOUND || category == null) {
+        if (context_.statsID_ == NOT_FOUND || category == null) {
             return;
         }
 
-        super.send(statsID_, 0.0, GridSimTags.RECORD_STATISTICS,
+        super.send(context_.statsID_, 0.0, GridSimTags.RECORD_STATISTICS,
              new Stat( GridSim.clock(), category, super.get_name(), data )
         );
     }
@@ -2193,6 +2742,7 @@ public class GridSim extends GridSimCore
      * @see gridsim.GridSimTags#NET_PACKET_LEVEL
      * @see gridsim.GridSimTags#NET_FLOW_LEVEL
      * @see gridsim.GridSimTags#NET_BUFFER_PACKET_LEVEL
+     * @see gridsim.GridSimTags#NET_MAX_MIN_FLOW_LEVEL
      */
     public static boolean initNetworkType(int networkType)
     {
@@ -2200,15 +2750,121 @@ public class GridSim extends GridSimCore
         switch(networkType)
         {
             case GridSimTags.NET_PACKET_LEVEL:
-                GridSimCore.NETWORK_TYPE = GridSimTags.NET_PACKET_LEVEL;
+            case GridSimTags.NET_FLOW_LEVEL:
+            case GridSimTags.NET_BUFFER_PACKET_LEVEL:
+            case GridSimTags.NET_MAX_MIN_FLOW_LEVEL:
+                SimulationContext.current().setNetworkType(networkType);
                 break;
 
-            case GridSimTags.NET_FLOW_LEVEL:
-                GridSimCore.NETWORK_TYPE = GridSimTags.NET_FLOW_LEVEL;
+            default:
+                result = false;
                 break;
+        }
 
-            case GridSimTags.NET_BUFFER_PACKET_LEVEL:
-                GridSimCore.NETWORK_TYPE = GridSimTags.NET_BUFFER_PACKET_LEVEL;
+        return result;
+    }
+
+    /**
+     * Initializes whether the empty packets of large transfers over the
+     * packet level network, i.e. {@link gridsim.GridSimTags#NET_PACKET_LEVEL},
+     * are queued as a {@link gridsim.net.PacketTrain} rather than as one
+     * {@link gridsim.net.NetPacket} per MTU. A train creates each packet
+     * only when it leaves the queue, and the packets are still sent one by
+     * one, so the results of a simulation are the same either way. By
+     * default, packet trains are used.
+     * This method must be called before the simulation starts.
+     *
+     * @param enabled  <tt>true</tt> to queue large transfers as packet
+     *                 trains, <tt>false</tt> otherwise
+     * @see gridsim.GridSim#isPacketTrainEnabled()
+     * @pre $none
+     * @post $none
+     */
+    public static void initPacketTrains(boolean enabled) {
+        SimulationContext.current().packetTrains_ = enabled;
+    }
+
+    /**
+     * Checks whether large transfers are queued as packet trains in this
+     * simulation
+     * @return <tt>true</tt> if they are, <tt>false</tt> otherwise
+     * @see gridsim.GridSim#initPacketTrains(boolean)
+     * @pre $none
+     * @post $none
+     */
+    public static boolean isPacketTrainEnabled() {
+        return SimulationContext.current().packetTrains_;
+    }
+
+    /**
+     * Initializes whether the routes of the network topologies read by
+     * {@link gridsim.util.NetworkReader} and
+     * {@link gridsim.net.fnb.FnbNetworkReader} are computed once a topology
+     * has been read, rather than advertised by the routers when the
+     * simulation starts. By default, the routes are advertised.
+     * This method must be called before the topology is read.
+     *
+     * @param enabled  <tt>true</tt> to compute the routes up front,
+     *                 <tt>false</tt> otherwise
+     * @see gridsim.net.StaticRoutes
+     * @see gridsim.GridSim#isStaticRouteEnabled()
+     * @pre $none
+     * @post $none
+     */
+    public static void initStaticRoutes(boolean enabled) {
+        SimulationContext.current().staticRoutes_ = enabled;
+    }
+
+    /**
+     * Checks whether the routes of the network topologies read in this
+     * simulation are computed up front
+     * @return <tt>true</tt> if they are, <tt>false</tt> if they are
+     *         advertised by the routers
+     * @see gridsim.GridSim#initStaticRoutes(boolean)
+     * @pre $none
+     * @post $none
+     */
+    public static boolean isStaticRouteEnabled() {
+        return SimulationContext.current().staticRoutes_;
+    }
+
+    /**
+     * Initializes the simulation kernel to be used in the simulation.
+     * This method must be called before {@link #init(int, Calendar, boolean)}
+     * or any other <tt>init()</tt> method, since the kernel is created at
+     * initialization. By default, the simulation runs on SimJava
+     * ({@link gridsim.GridSimTags#KERNEL_SIMJAVA}).
+     *
+     * @param kernelType  kernel type
+     * @return <tt>true</tt> if the kernel type has been initialized
+     * successfully or <tt>false</tt> otherwise.
+     *
+     * @see gridsim.GridSimTags#KERNEL_SIMJAVA
+     * @see gridsim.GridSimTags#KERNEL_EVENT_LOOP
+     * @see gridsim.GridSimTags#KERNEL_VIRTUAL_THREAD
+     * @see gridsim.GridSimTags#KERNEL_PARALLEL
+     * @see gridsim.kernel.EventLoopKernel
+     */
+    public static boolean initKernelType(int kernelType)
+    {
+        SimulationContext ctx = SimulationContext.current();
+        boolean result = true;
+        switch(kernelType)
+        {
+            case GridSimTags.KERNEL_SIMJAVA:
+                ctx.kernelType_ = GridSimTags.KERNEL_SIMJAVA;
+                break;
+
+            case GridSimTags.KERNEL_EVENT_LOOP:
+                ctx.kernelType_ = GridSimTags.KERNEL_EVENT_LOOP;
+                break;
+
+            case GridSimTags.KERNEL_VIRTUAL_THREAD:
+                ctx.kernelType_ = GridSimTags.KERNEL_VIRTUAL_THREAD;
+                break;
+
+            case GridSimTags.KERNEL_PARALLEL:
+                ctx.kernelType_ = GridSimTags.KERNEL_PARALLEL;
                 break;
 
             default:
@@ -2219,15 +2875,337 @@ public class GridSim extends GridSimCore
         return result;
     }
 
+    /** Returns the kernel type used in this simulation.
+     * @return the kernel type
+     * @see gridsim.GridSimTags#KERNEL_SIMJAVA
+     * @see gridsim.GridSimTags#KERNEL_EVENT_LOOP
+     * @see gridsim.GridSimTags#KERNEL_VIRTUAL_THREAD
+     * @see gridsim.GridSimTags#KERNEL_PARALLEL
+     */
+    public static int getKernelType() {
+        return SimulationContext.current().kernelType_;
+    }
+
+    /**
+     * Initializes the number of logical processes used by
+     * {@link gridsim.GridSimTags#KERNEL_PARALLEL}. Routers are assigned to
+     * the logical processes by {@link gridsim.net.RouterPartitioner}.
+     * This method must be called before any <tt>init()</tt> method.
+     *
+     * @param count  the maximum number of logical processes, or 0 to use
+     *               one per available processor (the default)
+     * @return <tt>true</tt> if the value has been set, <tt>false</tt>
+     *         otherwise
+     * @see gridsim.GridSim#initKernelType(int)
+     * @pre count >= 0
+     * @post $none
+     */
+    public static boolean initKernelPartitions(int count)
+    {
+        SimulationContext ctx = SimulationContext.current();
+        if (count < 0) {
+            return false;
+        }
+
+        ctx.kernelPartitions_ = count;
+        return true;
+    }
+
+    /**
+     * Initializes the future event list used by the event-loop kernel, i.e.
+     * by {@link gridsim.GridSimTags#KERNEL_EVENT_LOOP},
+     * {@link gridsim.GridSimTags#KERNEL_VIRTUAL_THREAD} and
+     * {@link gridsim.GridSimTags#KERNEL_PARALLEL}. The statistics of each
+     * list can be read after the simulation with
+     * {@link gridsim.kernel.EventLoopKernel#getFutureEventList(int)}.
+     * This method must be called before any <tt>init()</tt> method.
+     *
+     * @param felType  {@link gridsim.GridSimTags#FEL_BINARY_HEAP} (the
+     *                 default), {@link gridsim.GridSimTags#FEL_CALENDAR_QUEUE}
+     *                 or {@link gridsim.GridSimTags#FEL_LADDER_QUEUE}
+     * @return <tt>true</tt> if the type has been set, <tt>false</tt>
+     *         otherwise
+     * @see gridsim.GridSim#initKernelType(int)
+     * @see gridsim.kernel.FutureEventList
+     * @pre $none
+     * @post $none
+     */
+    public static boolean initFutureEventList(int felType)
+    {
+        SimulationContext ctx = SimulationContext.current();
+        boolean result = true;
+        switch(felType)
+        {
+            case GridSimTags.FEL_BINARY_HEAP:
+                ctx.felType_ = FutureEventList.BINARY_HEAP;
+                break;
+
+            case GridSimTags.FEL_CALENDAR_QUEUE:
+                ctx.felType_ = FutureEventList.CALENDAR_QUEUE;
+                break;
+
+            case GridSimTags.FEL_LADDER_QUEUE:
+                ctx.felType_ = FutureEventList.LADDER_QUEUE;
+                break;
+
+            default:
+                result = false;
+                break;
+        }
+
+        return result;
+    }
+
+    /**
+     * Initializes a {@link gridsim.kernel.SimulationMonitor} that publishes
+     * the live metrics of the event-loop kernel as a JMX MBean, i.e. the
+     * simulation clock, the event rate, the depth of the future event list
+     * and the events received by every entity and the time spent handling
+     * them, per event tag. Profiling the entities costs a little time per
+     * event, so the monitor should only be used to find out why a run is
+     * slow. Optionally, a report is appended to a file periodically and
+     * once more when the simulation ends.
+     * This method must be called before any <tt>init()</tt> method, and
+     * requires an event-loop kernel.
+     *
+     * @param dumpFile  the file where the report is appended, or
+     *                  <tt>null</tt> to publish the metrics through JMX only
+     * @param period    the time between two reports, in milliseconds
+     * @return <tt>true</tt> if the monitor has been initialized,
+     *         <tt>false</tt> if the period is invalid
+     * @see gridsim.GridSim#initKernelType(int)
+     * @see gridsim.GridSim#getKernelMonitor()
+     * @pre period > 0 if dumpFile != null
+     * @post $none
+     */
+    public static boolean initKernelMonitor(String dumpFile, long period)
+    {
+        if (dumpFile != null && period <= 0) {
+            return false;
+        }
+
+        SimulationContext ctx = SimulationContext.current();
+        ctx.monitored_ = true;
+        ctx.monitorFile_ = dumpFile;
+        ctx.monitorPeriod_ = period;
+        return true;
+    }
+
+    /**
+     * Initializes the log that records the history of the Gridlets, i.e.
+     * of the Gridlets that have been created with a history. By default,
+     * the log keeps every record in memory. Otherwise, it keeps the latest
+     * records only, and older ones are either written to a file, so that
+     * {@link gridsim.Gridlet#getGridletHistory()} can still read them, or
+     * dropped. Every <tt>init()</tt> method starts a new log with the same
+     * settings. This method should be called before the Gridlets are
+     * created, since a Gridlet keeps writing into the log in use when its
+     * history began.
+     *
+     * @param capacity   the number of records kept in memory, or
+     *                   <tt>0</tt> to keep every record
+     * @param spillFile  the file where older records are written, or
+     *                   <tt>null</tt> to drop them
+     * @return <tt>true</tt> if the log has been initialized,
+     *         <tt>false</tt> if the capacity is negative
+     * @see gridsim.GridletHistory
+     * @pre capacity >= 0
+     * @post $none
+     */
+    public static boolean initGridletHistory(int capacity, String spillFile)
+    {
+        if (capacity < 0) {
+            return false;
+        }
+
+        SimulationContext ctx = SimulationContext.current();
+        ctx.historyCapacity_ = capacity;
+        ctx.historyFile_ = spillFile;
+        createGridletHistory(ctx);
+        return true;
+    }
+
+    /**
+     * Gets the log that records the history of the Gridlets of this
+     * simulation
+     * @return the log
+     * @see gridsim.GridSim#initGridletHistory(int, String)
+     * @pre $none
+     * @post $result != null
+     */
+    public static GridletHistory getGridletHistory()
+    {
+        SimulationContext ctx = SimulationContext.current();
+        synchronized (ctx)
+        {
+            if (ctx.history_ == null) {
+                createGridletHistory(ctx);
+            }
+            return ctx.history_;
+        }
+    }
+
+    /**
+     * Creates a new log for the history of the Gridlets. The previous log,
+     * if any, stops writing into its file, but remains readable by the
+     * Gridlets that use it unless the new log writes into the same file.
+     * @param ctx  the simulation context
+     * @pre ctx != null
+     * @post $none
+     */
+    private static void createGridletHistory(SimulationContext ctx)
+    {
+        synchronized (ctx)
+        {
+            if (ctx.history_ != null) {
+                ctx.history_.close();
+            }
+            ctx.history_ = new GridletHistory(ctx.historyCapacity_,
+                                              ctx.historyFile_);
+        }
+    }
+
+    /**
+     * Saves a snapshot of this simulation once all events up to a given
+     * time have been delivered, e.g. at the end of a warm-up phase that is
+     * shared by several variants of an experiment. Besides the pending
+     * events and the state of the entities, the snapshot holds the state
+     * of {@link gridsim.GridSimRandom}. Each variant then builds the same
+     * simulation and calls {@link #restoreSnapshot(String)} instead of
+     * running the warm-up phase again.
+     * <p>
+     * This requires an event-loop kernel and a sequential run. All entities
+     * that are still running at that time must implement
+     * {@link gridsim.kernel.Checkpointable}, which is the case for the
+     * resources, allocation policies, GIS, network entities and RIP
+     * routers of GridSim, but not for user entities unless they do so
+     * themselves. This method must be called after <tt>init()</tt> and
+     * before {@link #startGridSimulation()}.
+     *
+     * @param time      the simulation time of the snapshot
+     * @param fileName  the snapshot file to be written
+     * @param stop      <tt>true</tt> to stop the simulation once the
+     *                  snapshot has been saved
+     * @return <tt>true</tt> if the snapshot has been scheduled,
+     *         <tt>false</tt> otherwise, e.g. if the simulation runs on
+     *         SimJava
+     * @see gridsim.kernel.EventLoopKernel#scheduleSnapshot(double, String,
+     *      boolean)
+     * @pre time >= 0.0
+     * @pre fileName != null
+     * @post $none
+     */
+    public static boolean saveSnapshot(double time, String fileName,
+                                       boolean stop)
+    {
+        SimulationContext ctx = SimulationContext.current();
+        if (ctx.kernel_ == null)
+        {
+            System.out.println("GridSim.saveSnapshot(): Warning - " +
+                    "snapshots require an event-loop kernel.");
+            return false;
+        }
+
+        ctx.kernel_.setGlobalState( ctx.getSnapshotState() );
+        return ctx.kernel_.scheduleSnapshot(time, fileName, stop);
+    }
+
+    /**
+     * Restores a snapshot saved by {@link #saveSnapshot(double, String,
+     * boolean)} when the simulation starts. This simulation must have been
+     * built by the same code, so that it has the same entities, after
+     * which it continues from the time of the snapshot instead of starting
+     * at time 0. This method must be called after <tt>init()</tt> and
+     * before {@link #startGridSimulation()}.
+     *
+     * @param fileName  the snapshot file
+     * @return <tt>true</tt> if the snapshot will be restored,
+     *         <tt>false</tt> otherwise, e.g. if the file does not exist or
+     *         the simulation runs on SimJava
+     * @see gridsim.kernel.EventLoopKernel#restoreSnapshot(String)
+     * @pre fileName != null
+     * @post $none
+     */
+    public static boolean restoreSnapshot(String fileName)
+    {
+        SimulationContext ctx = SimulationContext.current();
+        if (ctx.kernel_ == null)
+        {
+            System.out.println("GridSim.restoreSnapshot(): Warning - " +
+                    "snapshots require an event-loop kernel.");
+            return false;
+        }
+
+        ctx.kernel_.setGlobalState( ctx.getSnapshotState() );
+        return ctx.kernel_.restoreSnapshot(fileName);
+    }
+
+    /**
+     * Gets the event-loop kernel running this simulation
+     * @return the kernel or <tt>null</tt> if the simulation is run by SimJava
+     * @see gridsim.GridSimTags#KERNEL_EVENT_LOOP
+     */
+    public static EventLoopKernel getKernel() {
+        return SimulationContext.current().kernel_;
+    }
+
+    /**
+     * Gets the monitor of the event-loop kernel running this simulation
+     * @return the monitor or <tt>null</tt> if
+     *         {@link #initKernelMonitor(String, long)} has not been called
+     *         or the simulation is run by SimJava
+     * @pre $none
+     * @post $none
+     */
+    public static SimulationMonitor getKernelMonitor() {
+        return SimulationContext.current().monitor_;
+    }
+
+    /**
+     * Creates the monitor of a new event-loop kernel, if requested by
+     * {@link #initKernelMonitor(String, long)}. The monitor of the previous
+     * kernel, if any, is removed from the MBean server.
+     * @param ctx  the simulation context
+     * @pre ctx != null
+     * @post $none
+     */
+    private static void createKernelMonitor(SimulationContext ctx)
+    {
+        if (ctx.monitor_ != null)
+        {
+            ctx.monitor_.unregister();
+            ctx.monitor_ = null;
+        }
+
+        if (!ctx.monitored_) {
+            return;
+        }
+
+        if (ctx.kernel_ == null)
+        {
+            System.out.println("GridSim.init(): Warning - the kernel " +
+                    "monitor requires an event-loop kernel.");
+            return;
+        }
+
+        ctx.monitor_ = new SimulationMonitor(ctx.kernel_);
+        ctx.monitor_.setProfiling(true);
+        ctx.monitor_.register();
+        if (ctx.monitorFile_ != null) {
+            ctx.monitor_.startDump(ctx.monitorFile_, ctx.monitorPeriod_);
+        }
+    }
+
     /** Returns the network type used in this simulation.
      * @return the network type
      * @see gridsim.GridSimCore#NETWORK_TYPE
      * @see gridsim.GridSimTags#NET_PACKET_LEVEL
      * @see gridsim.GridSimTags#NET_FLOW_LEVEL
      * @see gridsim.GridSimTags#NET_BUFFER_PACKET_LEVEL
+     * @see gridsim.GridSimTags#NET_MAX_MIN_FLOW_LEVEL
      */
     public static int getNetworkType() {
-        return GridSimCore.NETWORK_TYPE;
+        return SimulationContext.current().getNetworkType();
     }
 
 } 
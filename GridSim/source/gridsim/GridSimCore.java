@@ -10,6 +10,8 @@
 package gridsim;
 
 import eduni.simjava.*;
+import gridsim.kernel.EventLoopKernel;
+import gridsim.kernel.KernelEntity;
 import gridsim.net.*;
 import gridsim.util.*;
 import java.util.Collection;
@@ -171,7 +173,7 @@ import gridsim.net.fnb.*;
  * @see gridsim.net.Input
  * @invariant $none
  */
-public class GridSimCore extends Sim_entity
+public class GridSimCore extends KernelEntity
 {
     private boolean networkedFlag_;  // true, if networked entity, other false
 
@@ -196,10 +198,12 @@ public class GridSimCore extends Sim_entity
      * network service. To change this default property, please use the 
      * {@link gridsim.GridSim#initNetworkType(int)} method <b>before</b> the
      * simulation starts.
+     * This attribute only applies to the default {@link SimulationContext}.
      * @see gridsim.GridSim#initNetworkType(int)
      * @see gridsim.GridSimTags#NET_PACKET_LEVEL
      * @see gridsim.GridSimTags#NET_FLOW_LEVEL
      * @see gridsim.GridSimTags#NET_BUFFER_PACKET_LEVEL
+     * @see gridsim.GridSimTags#NET_MAX_MIN_FLOW_LEVEL
      */
     protected static int NETWORK_TYPE = GridSimTags.NET_PACKET_LEVEL;
 
@@ -322,28 +326,46 @@ public class GridSimCore extends Sim_entity
         // Every GridSim entity with network has its own input/output channels.
         // Connect this entity "input" port to its input buffer "in_port"
         NetIO in = null;
+        SimulationContext context = SimulationContext.current();
+        int networkType = context.getNetworkType();
 
         // Packet Level networking
-        if (GridSimCore.NETWORK_TYPE == GridSimTags.NET_PACKET_LEVEL)
+        if (networkType == GridSimTags.NET_PACKET_LEVEL)
         {
             in = new Input("Input_" + name, baudRate);
             out_ = new Output("Output_" + name, baudRate);
         }
         // Flow Level networking
-        else if (GridSimCore.NETWORK_TYPE == GridSimTags.NET_FLOW_LEVEL)
+        else if (networkType == GridSimTags.NET_FLOW_LEVEL)
         {
             in = new FlowInput("Input_" + name, baudRate);
             out_ = new FlowOutput("Output_" + name, baudRate);
         }
+        // Flow Level networking with max-min fair sharing over whole paths
+        else if (networkType == GridSimTags.NET_MAX_MIN_FLOW_LEVEL)
+        {
+            FlowNetwork.create();
+            in = new FlowInput("Input_" + name, baudRate);
+            out_ = new FlowOutput("Output_" + name, baudRate);
+        }
         // Use Finite network buffer
-        else if (GridSimCore.NETWORK_TYPE == GridSimTags.NET_BUFFER_PACKET_LEVEL)
+        else if (networkType == GridSimTags.NET_BUFFER_PACKET_LEVEL)
         {   
             in = new FnbInput("Input_" + name, baudRate);
             out_ = new FnbOutput("Output_" + name, baudRate);
         }
 
-        Sim_system.link_ports(name, "input", "Input_" + name, "input_buffer");
-        Sim_system.link_ports(name, "output", "Output_" + name, "output_buffer");
+        EventLoopKernel kernel = context.getKernel();
+        if (kernel != null && kernel.isIsolated())
+        {
+            kernel.linkPorts(name, "input", "Input_" + name, "input_buffer");
+            kernel.linkPorts(name, "output", "Output_" + name, "output_buffer");
+        }
+        else
+        {
+            Sim_system.link_ports(name, "input", "Input_" + name, "input_buffer");
+            Sim_system.link_ports(name, "output", "Output_" + name, "output_buffer");
+        }
         if (link != null)
         {
             in.addLink(link);
@@ -9,8 +9,6 @@
 
 package gridsim;
 
-import java.util.Random;
-
 /**
  * GridSim Random provides static methods for incorporating randomness in data
  * used for any simulation.
@@ -27,6 +25,10 @@ import java.util.Random;
  * <tt>Example:</tt> to produce a random number between 18.00 and 22.00, need
  * to invoke <tt>GridSimRandom.real(20.0, 0.1, 0.1, randDouble)</tt> where
  * <tt>randDouble</tt> comes from <b>java.util.Random</b>.
+ * <p>
+ * The random number generator and the factors are kept by the
+ * {@link SimulationContext} of the current thread, so that simulations run
+ * in separate contexts do not affect each other.
  *
  * @author       Manzur Murshed and Rajkumar Buyya
  * @since        GridSim Toolkit 1.0
@@ -40,25 +42,9 @@ public class GridSimRandom
 {
     private static final int MIN_VALUE = 0;
     private static final int MAX_VALUE = 1;
-    private static Random random_;
-
-    // Factor values for Network I/O
-    private static double lessFactorIO_;
-    private static double moreFactorIO_;
-
-    // Factor values for Execution
-    private static double lessFactorExec_;
-    private static double moreFactorExec_;
 
-    /** Initializes all static variables */
-    static
-    {
-        random_ = new Random();
-        lessFactorIO_ = 0.0;
-        moreFactorIO_ = 0.0;
-        lessFactorExec_ = 0.0;
-        moreFactorExec_ = 0.0;
-    }
+    // NOTE: the Random object and the factor values for Network I/O and
+    // execution are kept by the SimulationContext of the current thread
 
     /**
      * Allocates a new GridSimRandom object
@@ -76,7 +62,7 @@ public class GridSimRandom
      * @post $none
      */
     public GridSimRandom(long seed) {
-        random_.setSeed(seed);
+        SimulationContext.current().random_.setSeed(seed);
     }
 
     /**
@@ -96,11 +82,12 @@ public class GridSimRandom
     public GridSimRandom(long seed, double lessFactorIO, double moreFactorIO,
                 double lessFactorExec, double moreFactorExec)
     {
-        random_.setSeed(seed);
-        lessFactorIO_ = lessFactorIO;
-        moreFactorIO_ = moreFactorIO;
-        lessFactorExec_ = lessFactorExec;
-        moreFactorExec_ = moreFactorExec;
+        SimulationContext ctx = SimulationContext.current();
+        ctx.random_.setSeed(seed);
+        ctx.lessFactorIO_ = lessFactorIO;
+        ctx.moreFactorIO_ = moreFactorIO;
+        ctx.lessFactorExec_ = lessFactorExec;
+        ctx.moreFactorExec_ = moreFactorExec;
     }
 
     /**
@@ -119,10 +106,11 @@ public class GridSimRandom
                 double moreFactorIOValue, double lessFactorExecValue,
                 double moreFactorExecValue)
     {
-        lessFactorIO_ = lessFactorIOValue;
-        moreFactorIO_ = moreFactorIOValue;
-        lessFactorExec_ = lessFactorExecValue;
-        moreFactorExec_ = moreFactorExecValue;
+        SimulationContext ctx = SimulationContext.current();
+        ctx.lessFactorIO_ = lessFactorIOValue;
+        ctx.moreFactorIO_ = moreFactorIOValue;
+        ctx.lessFactorExec_ = lessFactorExecValue;
+        ctx.moreFactorExec_ = moreFactorExecValue;
     }
 
     /**
@@ -136,7 +124,7 @@ public class GridSimRandom
      * @post $result >= 0
      */
     public static int intSample(int range) throws IllegalArgumentException {
-        return random_.nextInt(range);
+        return SimulationContext.current().random_.nextInt(range);
     }
 
     /**
@@ -148,7 +136,7 @@ public class GridSimRandom
      * @post $result >= 0.0 && $result <= 1.0
      */
     public static double doubleSample() {
-        return random_.nextDouble();
+        return SimulationContext.current().random_.nextDouble();
     }
 
     /**
@@ -167,7 +155,7 @@ public class GridSimRandom
                     "GridSimRandom.setLessFactorIO() : Error - factor must" +
                     " be zero or positive value.");
         }
-        lessFactorIO_ = factor;
+        SimulationContext.current().lessFactorIO_ = factor;
     }
 
     /**
@@ -186,7 +174,7 @@ public class GridSimRandom
                     "GridSimRandom.setMoreFactorIO() : Error - factor must" +
                     " be zero or positive value.");
         }
-        moreFactorIO_ = factor;
+        SimulationContext.current().moreFactorIO_ = factor;
     }
 
     /**
@@ -206,7 +194,7 @@ public class GridSimRandom
                     " be zero or positive value.");
         }
 
-        lessFactorExec_ = factor;
+        SimulationContext.current().lessFactorExec_ = factor;
     }
 
     /**
@@ -225,7 +213,7 @@ public class GridSimRandom
                     "GridSimRandom.setMoreFactorExec() : Error - factor must" +
                     " be zero or positive value.");
         }
-        moreFactorExec_ = factor;
+        SimulationContext.current().moreFactorExec_ = factor;
     }
 
     /**
@@ -234,8 +222,10 @@ public class GridSimRandom
      * @pre $none
      * @post $result >= 0.0
      */
-    public static double getFactorIO() {
-        return (moreFactorIO_ - lessFactorIO_) / 2;
+    public static double getFactorIO()
+    {
+        SimulationContext ctx = SimulationContext.current();
+        return (ctx.moreFactorIO_ - ctx.lessFactorIO_) / 2;
     }
 
     /**
@@ -244,8 +234,25 @@ public class GridSimRandom
      * @pre $none
      * @post $result >= 0.0
      */
-    public static double getFactorExec() {
-        return (moreFactorExec_ - lessFactorExec_) / 2;
+    public static double getFactorExec()
+    {
+        SimulationContext ctx = SimulationContext.current();
+        return (ctx.moreFactorExec_ - ctx.lessFactorExec_) / 2;
+    }
+
+    /**
+     * Checks whether any factor of Network I/O or Execution has been set.
+     * If not, {@link #realIO(double)} and {@link #realExec(double)} return
+     * the estimated value.
+     * @return <tt>true</tt> if a factor is not zero
+     * @pre $none
+     * @post $none
+     */
+    public static boolean hasFactors()
+    {
+        SimulationContext ctx = SimulationContext.current();
+        return ctx.lessFactorIO_ != 0.0 || ctx.moreFactorIO_ != 0.0 ||
+               ctx.lessFactorExec_ != 0.0 || ctx.moreFactorExec_ != 0.0;
     }
 
     /**
@@ -320,7 +327,9 @@ public class GridSimRandom
      * @post $none
      */
     public static double realIO(double value) throws IllegalArgumentException {
-        return real( value, lessFactorIO_, moreFactorIO_, doubleSample() );
+        SimulationContext ctx = SimulationContext.current();
+        return real( value, ctx.lessFactorIO_, ctx.moreFactorIO_,
+                     ctx.random_.nextDouble() );
     }
 
     /**
@@ -334,7 +343,9 @@ public class GridSimRandom
     public static double realExec(double value)
                 throws IllegalArgumentException
     {
-        return real( value, lessFactorExec_, moreFactorExec_, doubleSample() );
+        SimulationContext ctx = SimulationContext.current();
+        return real( value, ctx.lessFactorExec_, ctx.moreFactorExec_,
+                     ctx.random_.nextDouble() );
     }
 
     /**
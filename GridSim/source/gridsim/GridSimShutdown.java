@@ -10,7 +10,11 @@
 package gridsim;
 
 import eduni.simjava.Sim_event;
+import gridsim.kernel.Checkpointable;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Calendar;
 
 
@@ -33,10 +37,11 @@ import java.util.Calendar;
  * @see gridsim.GridSim#init(int, Calendar, boolean)
  * @see gridsim.GridSim#init(int, Calendar, boolean, String[], String[], String)
  */
-public class GridSimShutdown extends GridSimCore
+public class GridSimShutdown extends GridSimCore implements Checkpointable
 {
     private int numUser_;
     private String reportWriterName_;
+    private int endCount_;      // number of users that have finished
 
 
     /**
@@ -74,6 +79,7 @@ public class GridSimShutdown extends GridSimCore
         super(name);
         this.numUser_ = numUser;
         this.reportWriterName_ = reportWriterName;
+        this.endCount_ = 0;
     }
 
     /**
@@ -126,8 +132,10 @@ public class GridSimShutdown extends GridSimCore
         // wait for shutdown message from all users.
         // NOTE: this can cause GridSim to be hanged if numUser_ doesn't match
         // with number of user entities given during GridSim.init().
-        for (int i = 0; i < numUser_; i++) {
+        while (endCount_ < numUser_)
+        {
             super.sim_get_next(ev);
+            endCount_++;
         }
 
         // Shutdown GIS - now GIS is responsible for informing end of simulation
@@ -166,4 +174,26 @@ public class GridSimShutdown extends GridSimCore
         super.terminateIOEntities();
     }
 
+    /**
+     * Saves the number of users that have finished into a snapshot
+     * @param out  the snapshot stream
+     * @throws IOException  if the state can't be written
+     * @pre out != null
+     * @post $none
+     */
+    public void saveState(ObjectOutputStream out) throws IOException {
+        out.writeInt(endCount_);
+    }
+
+    /**
+     * Restores the number of users that have finished from a snapshot
+     * @param in  the snapshot stream
+     * @throws IOException  if the state can't be read
+     * @pre in != null
+     * @post $none
+     */
+    public void restoreState(ObjectInputStream in) throws IOException {
+        endCount_ = in.readInt();
+    }
+
 } 
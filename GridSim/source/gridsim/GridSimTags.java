@@ -194,6 +194,12 @@ public class GridSimTags
     
     public static final int NET_BUFFER_PACKET_LEVEL = NETBASE + 13;
 
+    /** Denotes flow level networking where the bandwidth is shared among
+     * all active flows by max-min fairness over their whole paths.
+     * The flows are timed by the {@link gridsim.net.flow.FlowNetwork} entity.
+     */
+    public static final int NET_MAX_MIN_FLOW_LEVEL = NETBASE + 18;
+
     // Denotes flow en-route to destination (used manually by entities)
     public static final int FLOW_SUBMIT = NETBASE + 14;
 
@@ -358,6 +364,104 @@ public class GridSimTags
     /** The polling interval for the GIS entities. */
     public static final int POLLING_TIME_GIS = BASE + 37;
 
+    /**
+     * Runs the simulation on SimJava, where every entity has its own thread
+     * (the default).
+     * @see gridsim.GridSim#initKernelType(int)
+     */
+    public static final int KERNEL_SIMJAVA = BASE + 38;
+
+    /**
+     * Runs the simulation on a single-threaded event loop.
+     * @see gridsim.GridSim#initKernelType(int)
+     * @see gridsim.kernel.EventLoopKernel
+     */
+    public static final int KERNEL_EVENT_LOOP = BASE + 39;
+
+    /**
+     * Runs the simulation on a single-threaded event loop, like
+     * {@link #KERNEL_EVENT_LOOP}, but entities that are not event-driven run
+     * their <tt>body()</tt> method on virtual threads (requires Java 21).
+     * @see gridsim.GridSim#initKernelType(int)
+     * @see gridsim.kernel.EventLoopKernel#EventLoopKernel(boolean)
+     */
+    public static final int KERNEL_VIRTUAL_THREAD = BASE + 40;
+
+    /**
+     * Runs the simulation on the event-loop kernel split into several
+     * logical processes, which are advanced in parallel. The results are
+     * the same as with {@link #KERNEL_EVENT_LOOP}.
+     * @see gridsim.GridSim#initKernelType(int)
+     * @see gridsim.GridSim#initKernelPartitions(int)
+     * @see gridsim.kernel.EventLoopKernel#setPartitions(int,
+     *      gridsim.kernel.Partitioner)
+     */
+    public static final int KERNEL_PARALLEL = BASE + 41;
+
+    /**
+     * Keeps the future events of the event-loop kernel in a binary heap
+     * (the default).
+     * @see gridsim.GridSim#initFutureEventList(int)
+     * @see gridsim.kernel.FutureEventList#BINARY_HEAP
+     */
+    public static final int FEL_BINARY_HEAP = BASE + 42;
+
+    /**
+     * Keeps the future events of the event-loop kernel in a calendar queue,
+     * which suits events whose times are evenly spread.
+     * @see gridsim.GridSim#initFutureEventList(int)
+     * @see gridsim.kernel.FutureEventList#CALENDAR_QUEUE
+     */
+    public static final int FEL_CALENDAR_QUEUE = BASE + 43;
+
+    /**
+     * Keeps the future events of the event-loop kernel in a ladder queue,
+     * which suits large queues, even when the event times are skewed.
+     * @see gridsim.GridSim#initFutureEventList(int)
+     * @see gridsim.kernel.FutureEventList#LADDER_QUEUE
+     */
+    public static final int FEL_LADDER_QUEUE = BASE + 44;
+
+    /**
+     * Denotes the submission of a list of Gridlets in one message. This tag
+     * is normally used between GridSim User and GridResource entity.
+     * @see gridsim.GridSim#gridletSubmit(GridletList, int, double, boolean)
+     */
+    public static final int GRIDLET_SUBMIT_BULK = BASE + 45;
+
+    /**
+     * Denotes the submission of a list of Gridlets in one message with one
+     * acknowledgement for the whole list.
+     * This tag is normally used between GridSim User and GridResource entity.
+     * @see gridsim.GridSim#gridletSubmit(GridletList, int, double, boolean)
+     */
+    public static final int GRIDLET_SUBMIT_BULK_ACK = BASE + 46;
+
+    /**
+     * Denotes the return of a list of Gridlets, which have finished at the
+     * same time, back to sender. This tag is normally used by GridResource
+     * entity for Gridlets that have been submitted in bulk.
+     * @see gridsim.GridSim#gridletReceiveBulk()
+     */
+    public static final int GRIDLET_RETURN_BULK = BASE + 47;
+
+    /**
+     * Denotes the migration of one or more Gridlets from one GridResource
+     * to another one in a single transfer. The data is a
+     * {@link gridsim.GridletMigration} object. This tag is normally used
+     * between GridResource entities.
+     * @see gridsim.AllocPolicy#gridletMigrate(Gridlet, int, boolean)
+     */
+    public static final int GRIDLET_MIGRATE = BASE + 48;
+
+    /**
+     * Denotes a request to move a list of Gridlets of one user to the same
+     * GridResource. This tag is normally used between GridSim User and
+     * GridResource entity.
+     * @see gridsim.GridSim#gridletMove(int[], int, int, int, double)
+     */
+    public static final int GRIDLET_MOVE_BULK = BASE + 49;
+
 
     ///////////////////////////////////////////////////////////////
 
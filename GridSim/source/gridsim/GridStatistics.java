@@ -11,13 +11,17 @@ package gridsim;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.PrintWriter;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedList;
 
-import eduni.simjava.Sim_entity;
 import eduni.simjava.Sim_event;
+import gridsim.kernel.Checkpointable;
+import gridsim.kernel.EventDriven;
+import gridsim.kernel.KernelEntity;
 
 
 /**
@@ -33,7 +37,8 @@ import eduni.simjava.Sim_event;
  * @since        GridSim Toolkit 1.0
  * @invariant $none
  */
-public class GridStatistics extends Sim_entity
+public class GridStatistics extends KernelEntity
+        implements EventDriven, Checkpointable
 {
     private boolean active_;
     private PrintWriter outFile_;
@@ -588,32 +593,104 @@ public class GridStatistics extends Sim_entity
         for (sim_get_next(ev); ev.get_tag() != GridSimTags.END_OF_SIMULATION;
                 sim_get_next(ev) )
         {
-            if ( !active_ ) {
-                continue; // Skip processing of this event
-            }
+            processEvent(ev);
+        }
 
-            switch ( ev.get_tag() )
-            {
-                case GridSimTags.RECORD_STATISTICS:
-                    if (ev.get_data() != null) {
-                        recordStat( (Stat) ev.get_data() );
-                    }
-                    break;
+        if (active_) {
+            outFile_.close();
+        }
+    }
 
-                case GridSimTags.RETURN_ACC_STATISTICS_BY_CATEGORY:
-                    returnAccStatByCategory(ev);
-                    break;
+    /**
+     * Does nothing, since this entity only reacts to incoming events
+     * @pre $none
+     * @post $none
+     */
+    public void startEntity() {
+        // empty
+    }
 
-                default:
-                    System.out.println("GridStatistics.body() : " +
-                            "Unable to handle request from GridSimTags " +
-                            "with constant number " + ev.get_tag() );
-                    break;
+    /**
+     * Saves the recorded statistics into a snapshot
+     * @param out  the snapshot stream
+     * @throws IOException  if the state can't be written
+     * @pre out != null
+     * @post $none
+     */
+    public void saveState(ObjectOutputStream out) throws IOException
+    {
+        out.writeBoolean(active_);
+        out.writeObject(statList_);
+    }
+
+    /**
+     * Restores the recorded statistics from a snapshot. They are used by
+     * {@link #accumulate(String)}, but are not written into the file of
+     * this entity again, which only receives the statistics recorded after
+     * the snapshot.
+     * @param in  the snapshot stream
+     * @throws IOException  if the state can't be read
+     * @throws ClassNotFoundException  if a saved class is not found
+     * @pre in != null
+     * @post $none
+     */
+    public void restoreState(ObjectInputStream in)
+            throws IOException, ClassNotFoundException
+    {
+        active_ = in.readBoolean();
+        statList_ = (LinkedList) in.readObject();
+    }
+
+    /**
+     * Handles an incoming event when this entity is run by the event-loop
+     * kernel. The services available are the same as in {@link #body()}.
+     * @param ev  an incoming event
+     * @pre ev != null
+     * @post $none
+     */
+    public void handleEvent(Sim_event ev)
+    {
+        if (ev.get_tag() == GridSimTags.END_OF_SIMULATION)
+        {
+            if (active_) {
+                outFile_.close();
             }
+            super.endEntity();
+            return;
         }
 
-        if (active_) {
-            outFile_.close();
+        processEvent(ev);
+    }
+
+    /**
+     * Processes one incoming event
+     * @param ev  an incoming event
+     * @pre ev != null
+     * @post $none
+     */
+    private void processEvent(Sim_event ev)
+    {
+        if ( !active_ ) {
+            return; // Skip processing of this event
+        }
+
+        switch ( ev.get_tag() )
+        {
+            case GridSimTags.RECORD_STATISTICS:
+                if (ev.get_data() != null) {
+                    recordStat( (Stat) ev.get_data() );
+                }
+                break;
+
+            case GridSimTags.RETURN_ACC_STATISTICS_BY_CATEGORY:
+                returnAccStatByCategory(ev);
+                break;
+
+            default:
+                System.out.println("GridStatistics.body() : " +
+                        "Unable to handle request from GridSimTags " +
+                        "with constant number " + ev.get_tag() );
+                break;
         }
     }
 
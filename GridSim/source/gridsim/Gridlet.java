@@ -9,7 +9,7 @@
 
 package gridsim;
 
-import java.text.DecimalFormat;
+import java.io.Serializable;
 import java.util.ArrayList;
 
 /**
@@ -44,14 +44,21 @@ import java.util.ArrayList;
  * However, this approach requires a significant amount of memory if you have
  * many Gridlet objects. To disable this functionality, use
  * {@link #Gridlet(int, double, long, long, boolean)} constructor instead.
+ * <p>
+ * For simulations with millions of jobs, the Gridlets can be kept in a
+ * {@link GridletStore} instead. A Gridlet obtained from
+ * {@link GridletStore#getGridlet(int)} keeps its attributes in the store,
+ * and behaves otherwise like any other Gridlet.
  *
  * @author       Manzur Murshed and Rajkumar Buyya
  * @author       Anthony Sulistio
  * @since        GridSim Toolkit 1.0
  * @invariant $none
  */
-public class Gridlet
+public class Gridlet implements Serializable
 {
+    private static final long serialVersionUID = -5187797593799735550L;
+
     // the User or Broker ID. It is advisable that broker set this ID
     // with its own ID, so that GridResource returns to it after the execution
     private int userID_;
@@ -65,10 +72,12 @@ public class Gridlet
     // the output file size of this Gridlet after execution (unit: in byte)
     private long gridletOutputSize_;
 
+    // the state to transfer when migrating this Gridlet (unit: in byte)
+    private long checkpointSize_ = -1;
+
     private int numPE_;              // num of PE required to execute this job
     private int gridletID_;          // this Gridlet ID
     private int status_;             // status of this Gridlet
-    private DecimalFormat num_;      // to format the decimal number
     private double finishTime_;      // the time where this Gridlet completes
 
     // start time of executing this Gridlet.
@@ -80,8 +89,8 @@ public class Gridlet
 
     // records the transaction history for this Gridlet
     private boolean record_;         // record a history or not
-    private String newline_;
-    private StringBuffer history_;
+    private transient GridletHistory historyLog_;  // the log, or null
+    private transient long historyLast_;  // the latest record in the log
     private ArrayList<Resource> resList_;
     private int index_;
 
@@ -89,6 +98,11 @@ public class Gridlet
     private int classType_;    // class type of Gridlet for resource scheduling
     private int netToS_;       // ToS for sending Gridlet over the network
 
+    // the store that keeps the attributes of this Gridlet, or null.
+    // A serialized Gridlet only holds the values of its slot.
+    private transient GridletStore store_;
+    private transient int slot_;    // the slot of this Gridlet in the store
+
 
     ////////////////////////////////////////////
     // Below are CONSTANTS attributes
@@ -199,9 +213,8 @@ public class Gridlet
         this.record_ = record;
 
         // history will be created later
-        this.num_ = null;
-        this.history_ = null;
-        this.newline_ = null;
+        this.historyLog_ = null;
+        this.historyLast_ = GridletHistory.NONE;
     }
 
     /**
@@ -230,6 +243,28 @@ public class Gridlet
         this.record_ = true;
     }
 
+    /**
+     * Allocates a new Gridlet object that reads and writes its attributes
+     * in a given slot of a store. The history of this object is not recorded.
+     * @param store     the store of this Gridlet
+     * @param slot      the slot of this Gridlet in the store
+     * @see gridsim.GridletStore#getGridlet(int)
+     * @pre store != null
+     * @pre slot >= 0
+     * @post $none
+     */
+    Gridlet(GridletStore store, int slot)
+    {
+        this.store_ = store;
+        this.slot_ = slot;
+        this.gridletID_ = store.getGridletID(slot);
+        this.index_ = -1;
+        this.record_ = false;
+        this.resList_ = null;
+        this.historyLog_ = null;
+        this.historyLast_ = GridletHistory.NONE;
+    }
+
 
 
     //////////////////////// INTERNAL CLASS ///////////////////////////////////
@@ -238,8 +273,10 @@ public class Gridlet
      * Internal class that keeps track Gridlet's movement in different
      * GridResources
      */
-    private class Resource
+    private class Resource implements Serializable
     {
+        private static final long serialVersionUID = -2174689580690293303L;
+
         /** Gridlet's submission time to a GridResource */
         double submissionTime = 0.0;
 
@@ -274,6 +311,9 @@ public class Gridlet
      * <tt>false</tt> otherwise.
      */
     public boolean setReservationID(int resId) {
+    	if (store_ != null) {
+    		return store_.setReservationID(slot_, resId);
+    	}
     	if(resId <= 0) {
     		return false;
     	}
@@ -288,6 +328,9 @@ public class Gridlet
      * @post $none
      */
     public int getReservationID() {
+        if (store_ != null) {
+            return store_.getReservationID(slot_);
+        }
         return reservationId_;
     }
     
@@ -297,7 +340,7 @@ public class Gridlet
      *         <tt>false</tt> otherwise
      */
     public boolean hasReserved() {
-        if (reservationId_ == -1) {
+        if (getReservationID() == -1) {
             return false;
         }
         return true;
@@ -317,6 +360,10 @@ public class Gridlet
      */
     public boolean setGridletLength(double gridletLength)
     {
+        if (store_ != null) {
+            return store_.setGridletLength(slot_, gridletLength);
+        }
+
         if (gridletLength <= 0) {
             return false;
         }
@@ -336,6 +383,10 @@ public class Gridlet
      */
     public boolean setNetServiceLevel(int netServiceLevel)
     {
+        if (store_ != null) {
+            return store_.setNetServiceLevel(slot_, netServiceLevel);
+        }
+
         boolean success = false;
         if (netServiceLevel > 0)
         {
@@ -353,6 +404,9 @@ public class Gridlet
      * @post $none
      */
     public int getNetServiceLevel() {
+        if (store_ != null) {
+            return store_.getNetServiceLevel(slot_);
+        }
         return netToS_;
     }
 
@@ -364,6 +418,15 @@ public class Gridlet
      */
     public double getWaitingTime()
     {
+        if (store_ != null)
+        {
+            if (store_.getResourceID(slot_) == -1) {
+                return 0;
+            }
+            return store_.getExecStartTime(slot_) -
+                   store_.getSubmissionTime(slot_);
+        }
+
         if (index_ == -1) {
             return 0;
         }
@@ -383,6 +446,10 @@ public class Gridlet
      */
     public boolean setClassType(int classType)
     {
+        if (store_ != null) {
+            return store_.setClassType(slot_, classType);
+        }
+
         boolean success = false;
         if (classType > 0)
         {
@@ -401,9 +468,56 @@ public class Gridlet
      * @post $none
      */
     public int getClassType() {
+        if (store_ != null) {
+            return store_.getClassType(slot_);
+        }
         return classType_;
     }
 
+    /**
+     * Sets the size of the state of this Gridlet that is transferred when
+     * it migrates to another GridResource, e.g. the size of its memory
+     * image or of its latest checkpoint. Since only this state and the
+     * remaining length are sent, a migration is much cheaper than sending
+     * the whole Gridlet again.
+     * @param size  the checkpoint size (in byte)
+     * @return <tt>true</tt> if it is successful, <tt>false</tt> otherwise
+     * @see gridsim.AllocPolicy#gridletMigrate(Gridlet, int, boolean)
+     * @pre size >= 0
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    public boolean setCheckpointSize(long size)
+    {
+        if (store_ != null) {
+            return store_.setCheckpointSize(slot_, size);
+        }
+
+        if (size < 0) {
+            return false;
+        }
+
+        checkpointSize_ = size;
+        return true;
+    }
+
+    /**
+     * Gets the size of the state of this Gridlet that is transferred when
+     * it migrates to another GridResource
+     * @return the checkpoint size (in byte) or <tt>-1</tt> if it has not
+     *         been set, in which case a migration transfers as many bytes
+     *         as the output size of this Gridlet
+     * @pre $none
+     * @post $result >= -1
+     * @since GridSim Toolkit 5.2
+     */
+    public long getCheckpointSize() {
+        if (store_ != null) {
+            return store_.getCheckpointSize(slot_);
+        }
+        return checkpointSize_;
+    }
+
     /**
      * Sets the number of PEs required to run this Gridlet. <br>
      * NOTE: The Gridlet length is computed only for 1 PE for simplicity. <br>
@@ -417,6 +531,10 @@ public class Gridlet
      */
     public boolean setNumPE(int numPE)
     {
+        if (store_ != null) {
+            return store_.setNumPE(slot_, numPE);
+        }
+
         boolean success = false;
         if (numPE > 0)
         {
@@ -433,6 +551,9 @@ public class Gridlet
      * @post $none
      */
     public int getNumPE() {
+        if (store_ != null) {
+            return store_.getNumPE(slot_);
+        }
         return numPE_;
     }
 
@@ -447,11 +568,11 @@ public class Gridlet
     public String getGridletHistory()
     {
         String msg = null;
-        if (history_ == null) {
+        if (historyLog_ == null) {
             msg = "No history is recorded for Gridlet #" + gridletID_;
         }
         else {
-            msg = history_.toString();
+            msg = historyLog_.render(historyLast_, gridletID_);
         }
 
         return msg;
@@ -469,6 +590,10 @@ public class Gridlet
      */
     public double getGridletFinishedSoFar()
     {
+        if (store_ != null) {
+            return store_.getGridletFinishedSoFar(slot_);
+        }
+
         if (index_ == -1) {
             return gridletLength_;
         }
@@ -490,6 +615,10 @@ public class Gridlet
      */
     public boolean isFinished()
     {
+        if (store_ != null) {
+            return store_.isFinished(slot_);
+        }
+
         if (index_ == -1) {
             return false;
         }
@@ -519,6 +648,12 @@ public class Gridlet
      */
     public void setGridletFinishedSoFar(double length)
     {
+        if (store_ != null)
+        {
+            store_.setGridletFinishedSoFar(slot_, length);
+            return;
+        }
+
         // if length is -ve then ignore
         if (length < 0.0 || index_ < 0) {
             return;
@@ -528,7 +663,7 @@ public class Gridlet
         res.finishedSoFar = length;
 
         if (record_) {
-            write("Sets the length's finished so far to " + length);
+            write(GridletHistory.FINISHED_SO_FAR, 0, 0, length, 0, null);
         }
     }
 
@@ -552,11 +687,16 @@ public class Gridlet
      */
     public void setUserID(int id)
     {
+        if (store_ != null)
+        {
+            store_.setUserID(slot_, id);
+            return;
+        }
+
         userID_ = id;
         if (record_)
         {
-            write("Assigns the Gridlet to " + GridSim.getEntityName(id) +
-                  " (ID #" + id + ")");
+            write(GridletHistory.USER, id, 0, 0, 0, null);
         }
     }
 
@@ -567,6 +707,9 @@ public class Gridlet
      * @post $result >= -1
      */
     public int getUserID() {
+        if (store_ != null) {
+            return store_.getUserID(slot_);
+        }
         return userID_;
     }
 
@@ -578,6 +721,10 @@ public class Gridlet
      */
     public int getResourceID()
     {
+        if (store_ != null) {
+            return store_.getResourceID(slot_);
+        }
+
         if (index_ == -1) {
             return -1;
         }
@@ -593,6 +740,9 @@ public class Gridlet
      * @post $result >= 1
      */
     public long getGridletFileSize() {
+        if (store_ != null) {
+            return store_.getGridletFileSize(slot_);
+        }
         return gridletFileSize_;
     }
 
@@ -604,6 +754,9 @@ public class Gridlet
      * @post $result >= 1
      */
     public long getGridletOutputSize() {
+        if (store_ != null) {
+            return store_.getGridletOutputSize(slot_);
+        }
         return gridletOutputSize_;
     }
 
@@ -620,6 +773,12 @@ public class Gridlet
      */
     public void setResourceParameter(int resourceID, double cost)
     {
+        if (store_ != null)
+        {
+            store_.setResourceParameter(slot_, resourceID, cost);
+            return;
+        }
+
         Resource res = new Resource();
         res.resourceId = resourceID;
         res.costPerSec = cost;
@@ -630,16 +789,14 @@ public class Gridlet
 
         if (index_ == -1 && record_)
         {
-            write("Allocates this Gridlet to " + res.resourceName +
-                  " (ID #" + resourceID + ") with cost = $" + cost + "/sec");
+            write(GridletHistory.ALLOCATE, resourceID, 0, cost, 0,
+                  res.resourceName);
         }
         else if (record_)
         {
             int id = resList_.get(index_).resourceId;
-            String name = resList_.get(index_).resourceName;
-            write("Moves Gridlet from " + name + " (ID #" + id + ") to " +
-                  res.resourceName + " (ID #" + resourceID +
-                  ") with cost = $" + cost + "/sec");
+            write(GridletHistory.MOVE, id, resourceID, cost, 0,
+                  res.resourceName);
         }
 
         index_++;  // initially, index_ = -1
@@ -653,6 +810,12 @@ public class Gridlet
      */
     public void setSubmissionTime(double clockTime)
     {
+        if (store_ != null)
+        {
+            store_.setSubmissionTime(slot_, clockTime);
+            return;
+        }
+
         if (clockTime < 0.0 || index_ < 0) {
             return;
         }
@@ -661,7 +824,7 @@ public class Gridlet
         res.submissionTime = clockTime;
 
         if (record_) {
-            write( "Sets the submission time to " + num_.format(clockTime) );
+            write(GridletHistory.SUBMISSION_TIME, 0, 0, clockTime, 0, null);
         }
     }
 
@@ -674,6 +837,10 @@ public class Gridlet
      */
     public double getSubmissionTime()
     {
+        if (store_ != null) {
+            return store_.getSubmissionTime(slot_);
+        }
+
         if (index_ == -1) {
             return 0.0;
         }
@@ -693,9 +860,15 @@ public class Gridlet
      */
     public void setExecStartTime(double clockTime)
     {
+        if (store_ != null)
+        {
+            store_.setExecStartTime(slot_, clockTime);
+            return;
+        }
+
         execStartTime_ = clockTime;
         if (record_) {
-            write("Sets the execution start time to " + num_.format(clockTime));
+            write(GridletHistory.EXEC_START_TIME, 0, 0, clockTime, 0, null);
         }
     }
 
@@ -706,6 +879,9 @@ public class Gridlet
      * @post $result >= 0.0
      */
     public double getExecStartTime() {
+        if (store_ != null) {
+            return store_.getExecStartTime(slot_);
+        }
         return execStartTime_;
     }
 
@@ -726,6 +902,12 @@ public class Gridlet
      */
     public void setExecParam(double wallTime, double actualTime)
     {
+        if (store_ != null)
+        {
+            store_.setExecParam(slot_, wallTime, actualTime);
+            return;
+        }
+
         if (wallTime < 0.0 || actualTime < 0.0 || index_ < 0) {
             return;
         }
@@ -736,8 +918,7 @@ public class Gridlet
 
         if (record_)
         {
-            write("Sets the wall clock time to "+ num_.format(wallTime)+
-                  " and the actual CPU time to " + num_.format(actualTime));
+            write(GridletHistory.EXEC_PARAM, 0, 0, wallTime, actualTime, null);
         }
     }
 
@@ -750,6 +931,12 @@ public class Gridlet
      */
     public void setGridletStatus(int newStatus) throws Exception
     {
+        if (store_ != null)
+        {
+            store_.setGridletStatus(slot_, newStatus);
+            return;
+        }
+
         // if the new status is same as current one, then ignore the rest
         if (status_ == newStatus) {
             return;
@@ -768,8 +955,7 @@ public class Gridlet
 
         if (record_)
         {
-            String obj = "Sets Gridlet status from " + getGridletStatusString();
-            write( obj + " to " + Gridlet.getStatusString(newStatus) );
+            write(GridletHistory.STATUS, status_, newStatus, 0, 0, null);
         }
 
         this.status_ = newStatus;
@@ -782,6 +968,9 @@ public class Gridlet
      * @post $result >= 0
      */
     public int getGridletStatus() {
+        if (store_ != null) {
+            return store_.getGridletStatus(slot_);
+        }
         return status_;
     }
 
@@ -793,7 +982,7 @@ public class Gridlet
      * @post $none
      */
     public String getGridletStatusString() {
-        return Gridlet.getStatusString(status_);
+        return Gridlet.getStatusString( getGridletStatus() );
     }
 
     /**
@@ -863,6 +1052,9 @@ public class Gridlet
      * @post $result >= 0.0
      */
     public double getGridletLength() {
+        if (store_ != null) {
+            return store_.getGridletLength(slot_);
+        }
         return gridletLength_;
     }
 
@@ -875,6 +1067,10 @@ public class Gridlet
      */
     public double getActualCPUTime()
     {
+        if (store_ != null) {
+            return store_.getActualCPUTime(slot_);
+        }
+
         if (index_ == -1) {
             return 0.0;
         }
@@ -891,6 +1087,10 @@ public class Gridlet
      */
     public double getCostPerSec()
     {
+        if (store_ != null) {
+            return store_.getCostPerSec(slot_);
+        }
+
         if (index_ == -1) {
             return 0.0;
         }
@@ -909,6 +1109,10 @@ public class Gridlet
      */
     public double getProcessingCost()
     {
+        if (store_ != null) {
+            return store_.getProcessingCost(slot_);
+        }
+
         if (index_ == -1) {
             return 0.0;
         }
@@ -933,6 +1137,10 @@ public class Gridlet
      */
     public double getWallClockTime()
     {
+        if (store_ != null) {
+            return store_.getWallClockTime(slot_);
+        }
+
         if (index_ == -1) {
             return 0.0;
         }
@@ -948,6 +1156,20 @@ public class Gridlet
      */
     public String[] getAllResourceName()
     {
+        if (store_ != null)
+        {
+            int[] id = store_.getAllResourceID(slot_);
+            if (id == null) {
+                return null;
+            }
+
+            String[] data = new String[id.length];
+            for (int i = 0; i < id.length; i++) {
+                data[i] = GridSim.getEntityName(id[i]);
+            }
+            return data;
+        }
+
         int size = resList_.size();
         String[] data = null;
 
@@ -970,6 +1192,10 @@ public class Gridlet
      */
     public int[] getAllResourceID()
     {
+        if (store_ != null) {
+            return store_.getAllResourceID(slot_);
+        }
+
         int size = resList_.size();
         int[] data = null;
 
@@ -994,6 +1220,10 @@ public class Gridlet
      */
     public double getActualCPUTime(int resId)
     {
+        if (store_ != null) {
+            return store_.getActualCPUTime(slot_, resId);
+        }
+
         Resource res = null;
         int size = resList_.size();
         for (int i = 0; i < size; i++)
@@ -1017,6 +1247,10 @@ public class Gridlet
      */
     public double getCostPerSec(int resId)
     {
+        if (store_ != null) {
+            return store_.getCostPerSec(slot_, resId);
+        }
+
         Resource res = null;
         int size = resList_.size();
         for (int i = 0; i < size; i++)
@@ -1042,6 +1276,10 @@ public class Gridlet
      */
     public double getGridletFinishedSoFar(int resId)
     {
+        if (store_ != null) {
+            return store_.getGridletFinishedSoFar(slot_, resId);
+        }
+
         Resource res = null;
         int size = resList_.size();
         for (int i = 0; i < size; i++)
@@ -1065,6 +1303,10 @@ public class Gridlet
      */
     public double getSubmissionTime(int resId)
     {
+        if (store_ != null) {
+            return store_.getSubmissionTime(slot_, resId);
+        }
+
         Resource res = null;
         int size = resList_.size();
         for (int i = 0; i < size; i++)
@@ -1089,6 +1331,10 @@ public class Gridlet
      */
     public double getWallClockTime(int resId)
     {
+        if (store_ != null) {
+            return store_.getWallClockTime(slot_, resId);
+        }
+
         Resource res = null;
         int size = resList_.size();
         for (int i = 0; i < size; i++)
@@ -1111,6 +1357,14 @@ public class Gridlet
      */
     public String getResourceName(int resId)
     {
+        if (store_ != null)
+        {
+            if (store_.hasVisited(slot_, resId)) {
+                return GridSim.getEntityName(resId);
+            }
+            return null;
+        }
+
         Resource res = null;
         int size = resList_.size();
         for (int i = 0; i < size; i++)
@@ -1132,9 +1386,65 @@ public class Gridlet
      * @post $result >= -1
      */
     public double getFinishTime() {
+        if (store_ != null) {
+            return store_.getFinishTime(slot_);
+        }
         return finishTime_;
     }
 
+    /**
+     * Compares this Gridlet with another object. A Gridlet obtained from a
+     * {@link GridletStore} is equal to any Gridlet of the same slot in the
+     * same store. Any other Gridlet is only equal to itself.
+     * @param obj   an object
+     * @return <tt>true</tt> if both are the same Gridlet
+     * @pre $none
+     * @post $none
+     */
+    public boolean equals(Object obj)
+    {
+        if (store_ == null || !(obj instanceof Gridlet)) {
+            return super.equals(obj);
+        }
+
+        Gridlet gl = (Gridlet) obj;
+        return store_ == gl.store_ && slot_ == gl.slot_;
+    }
+
+    /**
+     * Gets a hash code that is consistent with {@link #equals(Object)}
+     * @return a hash code
+     * @pre $none
+     * @post $none
+     */
+    public int hashCode()
+    {
+        if (store_ == null) {
+            return super.hashCode();
+        }
+        return System.identityHashCode(store_) * 31 + slot_;
+    }
+
+    /**
+     * Gets the store that keeps the attributes of this Gridlet
+     * @return the store, or <tt>null</tt> if none
+     * @pre $none
+     * @post $none
+     */
+    GridletStore getStore() {
+        return store_;
+    }
+
+    /**
+     * Gets the slot of this Gridlet in its store
+     * @return the slot, meaningless if this Gridlet has no store
+     * @pre $none
+     * @post $none
+     */
+    int getStoreSlot() {
+        return slot_;
+    }
+
     ////////////////////////// PROTECTED METHODS //////////////////////////////
 
     /**
@@ -1145,30 +1455,52 @@ public class Gridlet
      */
     protected void write(String str)
     {
-        if (!record_) {
-            return;
+        if (record_) {
+            write(GridletHistory.TEXT, 0, 0, 0, 0, str);
         }
+    }
 
-        if (num_ == null || history_ == null)
+    ////////////////////////// PRIVATE METHODS ////////////////////////////////
+
+    /**
+     * Writes the values of the slot of a Gridlet kept in a store instead of
+     * this object, so that the whole store is not written
+     * @return this Gridlet, or the values of its slot
+     * @see gridsim.GridletStore#getRow(int)
+     * @pre $none
+     * @post $result != null
+     */
+    private Object writeReplace() {
+        return (store_ == null) ? this : store_.getRow(slot_);
+    }
+
+    /**
+     * Writes a history transaction of this Gridlet into the log of the
+     * simulation. The text of the transaction is only made when the
+     * history is read.
+     * @param type  the kind of transaction
+     * @param a     the first int value
+     * @param b     the second int value
+     * @param v1    the first double value
+     * @param v2    the second double value
+     * @param text  a text or an entity name, or <tt>null</tt>
+     * @see gridsim.GridletHistory
+     * @pre $none
+     * @post $none
+     */
+    private void write(byte type, int a, int b, double v1, double v2,
+                       String text)
+    {
+        if (historyLog_ == null)
         {
             // Creates the history or transactions of this Gridlet
-            newline_ = System.getProperty("line.separator");
-            num_ = new DecimalFormat("#0.00#");   // with 3 decimal spaces
-            history_ = new StringBuffer(1000);
-            history_.append("Time below denotes the simulation time.");
-            history_.append( System.getProperty("line.separator") );
-            history_.append("Time (sec)       Description Gridlet #"+gridletID_);
-            history_.append( System.getProperty("line.separator") );
-            history_.append("------------------------------------------");
-            history_.append( System.getProperty("line.separator") );
-            history_.append( num_.format(GridSim.clock()) );
-            history_.append("   Creates Gridlet ID #" + gridletID_);
-            history_.append( System.getProperty("line.separator") );
-        }
-
-        history_.append( num_.format(GridSim.clock()) );
-        history_.append( "   " + str + newline_);
-    }
+            historyLog_ = GridSim.getGridletHistory();
+            historyLast_ = historyLog_.record(GridletHistory.NONE, gridletID_,
+                    GridletHistory.CREATE, 0, 0, 0, 0, null);
+        }
 
-} 
+        historyLast_ = historyLog_.record(historyLast_, gridletID_, type,
+                                          a, b, v1, v2, text);
+    }
 
+}
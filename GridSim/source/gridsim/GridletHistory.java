@@ -0,0 +1,622 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.text.DecimalFormat;
+import java.util.HashMap;
+
+
+/**
+ * GridletHistory records the activities of the Gridlets of a simulation,
+ * such as a change of status or of resource, as small binary records in
+ * one log, instead of appending a line of text to every Gridlet. The text
+ * of {@link Gridlet#getGridletHistory()} is only built when it is asked for.
+ * <p>
+ * Each record holds the simulation time, the Gridlet ID, the kind of
+ * activity and its values, e.g. the old and new status, plus a link to the
+ * previous record of the same Gridlet. Hence, the history of one Gridlet is
+ * found without reading the whole log.
+ * <p>
+ * By default the log keeps every record. With
+ * {@link GridSim#initGridletHistory(int, String)}, the log only keeps the
+ * latest records in memory. Older records are either dropped, in which
+ * case the history of a Gridlet may start later than its creation, or are
+ * written to a file, from which they are read back when needed.
+ * <p>
+ * The log is shared by all Gridlets created in the same simulation, and can
+ * be written by several threads at once.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.GridSim#getGridletHistory()
+ * @invariant $none
+ */
+public final class GridletHistory
+{
+    // the kinds of activity
+    static final byte CREATE = 0;
+    static final byte TEXT = 1;
+    static final byte USER = 2;
+    static final byte ALLOCATE = 3;
+    static final byte MOVE = 4;
+    static final byte FINISHED_SO_FAR = 5;
+    static final byte SUBMISSION_TIME = 6;
+    static final byte EXEC_START_TIME = 7;
+    static final byte EXEC_PARAM = 8;
+    static final byte STATUS = 9;
+
+    /** The previous record of a Gridlet that has none */
+    static final long NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // time, id, type, a, b, v1, v2 and prev of a record in the spill file
+    private static final int RECORD_SIZE = 8 + 4 + 1 + 4 + 4 + 8 + 8 + 8;
+
+    private final int capacity_;        // max records in memory, or 0
+    private final String spillFile_;    // file for older records, or null
+    private long next_;                 // sequence number of the next record
+    private long dropped_;              // number of records dropped
+    private long spilled_;              // number of records in the file
+
+    // the records in memory, indexed by sequence number modulo the length
+    private double[] time_;             // simulation times
+    private int[] id_;                  // Gridlet IDs
+    private byte[] type_;               // kinds of activity
+    private int[] a_;                   // first int value
+    private int[] b_;                   // second int value
+    private double[] v1_;               // first double value
+    private double[] v2_;               // second double value
+    private long[] prev_;               // previous record of the Gridlet
+    private String[] text_;             // text or entity name, or null
+
+    private DataOutputStream spill_;    // writes older records, or null
+    private HashMap<Long, String> spillText_;   // texts of older records
+
+    /**
+     * Allocates a new log that keeps every record
+     * @pre $none
+     * @post $none
+     */
+    public GridletHistory() {
+        this(0, null);
+    }
+
+    /**
+     * Allocates a new log
+     * @param capacity   the maximum number of records kept in memory,
+     *                   or <tt>0</tt> to keep every record
+     * @param spillFile  the file where older records are written, or
+     *                   <tt>null</tt> to drop them. This is ignored if every
+     *                   record is kept in memory.
+     * @throws IllegalArgumentException  if the capacity is negative
+     * @pre capacity >= 0
+     * @post $none
+     */
+    public GridletHistory(int capacity, String spillFile)
+    {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("GridletHistory(): Error - " +
+                    "capacity must be >= 0.");
+        }
+
+        capacity_ = capacity;
+        spillFile_ = (capacity > 0) ? spillFile : null;
+        next_ = 0;
+        dropped_ = 0;
+        spilled_ = 0;
+        spill_ = null;
+        spillText_ = null;
+
+        int size = (capacity > 0) ? capacity : INITIAL_CAPACITY;
+        time_ = new double[size];
+        id_ = new int[size];
+        type_ = new byte[size];
+        a_ = new int[size];
+        b_ = new int[size];
+        v1_ = new double[size];
+        v2_ = new double[size];
+        prev_ = new long[size];
+        text_ = new String[size];
+    }
+
+    /**
+     * Gets the maximum number of records kept in memory
+     * @return the capacity, or <tt>0</tt> if every record is kept
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int getCapacity() {
+        return capacity_;
+    }
+
+    /**
+     * Gets the name of the file where older records are written
+     * @return the file name, or <tt>null</tt> if none
+     * @pre $none
+     * @post $none
+     */
+    public String getSpillFile() {
+        return spillFile_;
+    }
+
+    /**
+     * Gets the number of records written into this log so far
+     * @return the number of records
+     * @pre $none
+     * @post $result >= 0
+     */
+    public synchronized long getRecordCount() {
+        return next_;
+    }
+
+    /**
+     * Gets the number of records that have been dropped because the log
+     * was full
+     * @return the number of dropped records
+     * @pre $none
+     * @post $result >= 0
+     */
+    public synchronized long getDroppedCount() {
+        return dropped_;
+    }
+
+    /**
+     * Closes the file where older records are written, if any. Records
+     * written afterwards are dropped once the log is full.
+     * @pre $none
+     * @post $none
+     */
+    public synchronized void close()
+    {
+        if (spill_ == null) {
+            return;
+        }
+
+        try {
+            spill_.close();
+        }
+        catch (IOException e) {
+            // ignore, the file is not used anymore
+        }
+        spill_ = null;
+    }
+
+    /**
+     * Adds a record into this log
+     * @param prev       the previous record of the Gridlet, or {@link #NONE}
+     * @param gridletID  the Gridlet ID
+     * @param type       the kind of activity
+     * @param a          the first int value
+     * @param b          the second int value
+     * @param v1         the first double value
+     * @param v2         the second double value
+     * @param text       a text or an entity name, or <tt>null</tt>
+     * @return the sequence number of the new record
+     * @pre $none
+     * @post $result >= 0
+     */
+    synchronized long record(long prev, int gridletID, byte type, int a,
+                             int b, double v1, double v2, String text)
+    {
+        long seq = next_;
+        int index;
+        if (capacity_ == 0)
+        {
+            if (seq == time_.length) {
+                grow();
+            }
+            index = (int) seq;
+        }
+        else
+        {
+            index = (int) (seq % capacity_);
+            if (seq >= capacity_) {
+                evict(seq - capacity_, index);
+            }
+        }
+
+        time_[index] = GridSim.clock();
+        id_[index] = gridletID;
+        type_[index] = type;
+        a_[index] = a;
+        b_[index] = b;
+        v1_[index] = v1;
+        v2_[index] = v2;
+        prev_[index] = prev;
+        text_[index] = text;
+
+        next_++;
+        return seq;
+    }
+
+    /**
+     * Builds the history of a Gridlet as text. The layout is a readable
+     * table with <tt>time</tt> and <tt>description</tt> as headers.
+     * @param last       the latest record of the Gridlet
+     * @param gridletID  the Gridlet ID
+     * @return the history of the Gridlet
+     * @pre last >= 0
+     * @post $result != null
+     */
+    synchronized String render(long last, int gridletID)
+    {
+        // the records of the Gridlet, from the latest one
+        long[] seqs = new long[16];
+        int count = 0;
+        boolean complete = false;
+        RandomAccessFile file = openSpill();
+        try
+        {
+            long seq = last;
+            while (seq != NONE)
+            {
+                int index = load(seq, file);
+                if (index < 0) {
+                    break;      // the older records have been dropped
+                }
+
+                if (count == seqs.length)
+                {
+                    long[] temp = new long[count * 2];
+                    System.arraycopy(seqs, 0, temp, 0, count);
+                    seqs = temp;
+                }
+                seqs[count++] = seq;
+                seq = prev_[index];
+            }
+            complete = (seq == NONE);
+
+            String newline = System.getProperty("line.separator");
+            DecimalFormat num = new DecimalFormat("#0.00#");
+            StringBuffer history = new StringBuffer(count * 64 + 200);
+            history.append("Time below denotes the simulation time.");
+            history.append(newline);
+            history.append("Time (sec)       Description Gridlet #" + gridletID);
+            history.append(newline);
+            history.append("------------------------------------------");
+            history.append(newline);
+            if (!complete)
+            {
+                history.append("(the earlier history has been dropped)");
+                history.append(newline);
+            }
+
+            int resID = -1;         // the current resource
+            String resName = null;
+            for (int i = count - 1; i >= 0; i--)
+            {
+                int index = load(seqs[i], file);
+                if (index < 0) {
+                    continue;
+                }
+
+                // the name of the resource a Gridlet is moved from
+                if (type_[index] == MOVE && resID != a_[index]) {
+                    resName = GridSim.getEntityName(a_[index]);
+                }
+
+                history.append( num.format(time_[index]) );
+                history.append("   ");
+                history.append( describe(index, gridletID, resName, num) );
+                history.append(newline);
+
+                if (type_[index] == ALLOCATE || type_[index] == MOVE)
+                {
+                    resID = (type_[index] == ALLOCATE) ? a_[index] : b_[index];
+                    resName = text_[index];
+                    if (resName == null) {
+                        resName = GridSim.getEntityName(resID);
+                    }
+                }
+            }
+
+            return history.toString();
+        }
+        finally {
+            closeSpill(file);
+        }
+    }
+
+    //////////////////////////// PRIVATE METHODS //////////////////////////////
+
+    /**
+     * Gets the description of a record
+     * @param index      the position of the record in memory
+     * @param gridletID  the Gridlet ID
+     * @param resName    the name of the current resource of the Gridlet
+     * @param num        the format of the times
+     * @return the description
+     * @pre index >= 0
+     * @post $result != null
+     */
+    private String describe(int index, int gridletID, String resName,
+                            DecimalFormat num)
+    {
+        int a = a_[index];
+        int b = b_[index];
+        String name = text_[index];
+        switch (type_[index])
+        {
+            case CREATE:
+                return "Creates Gridlet ID #" + gridletID;
+
+            case USER:
+                if (name == null) {
+                    name = GridSim.getEntityName(a);
+                }
+                return "Assigns the Gridlet to " + name + " (ID #" + a + ")";
+
+            case ALLOCATE:
+                if (name == null) {
+                    name = GridSim.getEntityName(a);
+                }
+                return "Allocates this Gridlet to " + name + " (ID #" + a +
+                       ") with cost = $" + v1_[index] + "/sec";
+
+            case MOVE:
+                if (name == null) {
+                    name = GridSim.getEntityName(b);
+                }
+                return "Moves Gridlet from " + resName + " (ID #" + a +
+                       ") to " + name + " (ID #" + b + ") with cost = $" +
+                       v1_[index] + "/sec";
+
+            case FINISHED_SO_FAR:
+                return "Sets the length's finished so far to " + v1_[index];
+
+            case SUBMISSION_TIME:
+                return "Sets the submission time to " + num.format(v1_[index]);
+
+            case EXEC_START_TIME:
+                return "Sets the execution start time to " +
+                       num.format(v1_[index]);
+
+            case EXEC_PARAM:
+                return "Sets the wall clock time to " + num.format(v1_[index]) +
+                       " and the actual CPU time to " + num.format(v2_[index]);
+
+            case STATUS:
+                return "Sets Gridlet status from " + Gridlet.getStatusString(a) +
+                       " to " + Gridlet.getStatusString(b);
+
+            default:
+                return name;
+        }
+    }
+
+    /**
+     * Makes a record available in memory. A record that is only in the spill
+     * file is read into a spare position past the ring.
+     * @param seq   the sequence number of the record
+     * @param file  the spill file, or <tt>null</tt>
+     * @return the position of the record in memory, or <tt>-1</tt> if the
+     *         record has been dropped
+     * @pre seq >= 0
+     * @post $none
+     */
+    private int load(long seq, RandomAccessFile file)
+    {
+        if (capacity_ == 0) {
+            return (int) seq;
+        }
+
+        if (seq >= next_ - capacity_) {
+            return (int) (seq % capacity_);
+        }
+
+        // the file holds the first records, in sequence order
+        if (file == null || seq >= spilled_) {
+            return -1;
+        }
+
+        try
+        {
+            int index = spare();
+            file.seek(seq * RECORD_SIZE);
+            time_[index] = file.readDouble();
+            id_[index] = file.readInt();
+            type_[index] = file.readByte();
+            a_[index] = file.readInt();
+            b_[index] = file.readInt();
+            v1_[index] = file.readDouble();
+            v2_[index] = file.readDouble();
+            prev_[index] = file.readLong();
+            text_[index] = spillText_.get(seq);
+            return index;
+        }
+        catch (IOException e)
+        {
+            System.out.println("GridletHistory: Warning - unable to read " +
+                    spillFile_ + ": " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Gets a spare position past the ring, used to read records back from
+     * the spill file. Only the last record read stays there.
+     * @return the position
+     * @pre capacity_ > 0
+     * @post $none
+     */
+    private int spare()
+    {
+        if (time_.length == capacity_) {
+            resize(capacity_ + 1);
+        }
+        return capacity_;
+    }
+
+    /**
+     * Removes the oldest record from memory, writing it into the spill file
+     * if there is one
+     * @param seq    the sequence number of the oldest record
+     * @param index  the position of the record in memory
+     * @pre seq >= 0
+     * @post $none
+     */
+    private void evict(long seq, int index)
+    {
+        if (spillFile_ != null && spill_ == null && dropped_ == 0 &&
+            seq == 0)
+        {
+            try
+            {
+                spill_ = new DataOutputStream( new BufferedOutputStream(
+                        new FileOutputStream(spillFile_), 64 * 1024) );
+                spillText_ = new HashMap<Long, String>();
+            }
+            catch (IOException e)
+            {
+                System.out.println("GridletHistory: Warning - unable to " +
+                        "create " + spillFile_ + ": " + e.getMessage());
+            }
+        }
+
+        if (spill_ == null)
+        {
+            dropped_++;
+            return;
+        }
+
+        try
+        {
+            spill_.writeDouble(time_[index]);
+            spill_.writeInt(id_[index]);
+            spill_.writeByte(type_[index]);
+            spill_.writeInt(a_[index]);
+            spill_.writeInt(b_[index]);
+            spill_.writeDouble(v1_[index]);
+            spill_.writeDouble(v2_[index]);
+            spill_.writeLong(prev_[index]);
+
+            // entity names are found again from their IDs
+            if (type_[index] == TEXT) {
+                spillText_.put(seq, text_[index]);
+            }
+            spilled_++;
+        }
+        catch (IOException e)
+        {
+            System.out.println("GridletHistory: Warning - unable to write " +
+                    spillFile_ + ": " + e.getMessage());
+            close();
+            dropped_++;
+        }
+    }
+
+    /**
+     * Opens the spill file for reading, once all records have been written
+     * @return the file, or <tt>null</tt> if there is none
+     * @pre $none
+     * @post $none
+     */
+    private RandomAccessFile openSpill()
+    {
+        if (spilled_ == 0) {
+            return null;
+        }
+
+        try
+        {
+            if (spill_ != null) {
+                spill_.flush();
+            }
+            return new RandomAccessFile(spillFile_, "r");
+        }
+        catch (IOException e)
+        {
+            System.out.println("GridletHistory: Warning - unable to read " +
+                    spillFile_ + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Closes the spill file opened for reading
+     * @param file  the file, or <tt>null</tt>
+     * @pre $none
+     * @post $none
+     */
+    private void closeSpill(RandomAccessFile file)
+    {
+        if (file == null) {
+            return;
+        }
+
+        try {
+            file.close();
+        }
+        catch (IOException e) {
+            // ignore, nothing has been written
+        }
+    }
+
+    /**
+     * Doubles the number of records kept in memory
+     * @pre capacity_ == 0
+     * @post $none
+     */
+    private void grow() {
+        resize(time_.length * 2);
+    }
+
+    /**
+     * Changes the number of records kept in memory
+     * @param size  the new number of records
+     * @pre size >= time_.length
+     * @post $none
+     */
+    private void resize(int size)
+    {
+        int length = time_.length;
+
+        double[] time = new double[size];
+        System.arraycopy(time_, 0, time, 0, length);
+        time_ = time;
+
+        int[] id = new int[size];
+        System.arraycopy(id_, 0, id, 0, length);
+        id_ = id;
+
+        byte[] type = new byte[size];
+        System.arraycopy(type_, 0, type, 0, length);
+        type_ = type;
+
+        int[] a = new int[size];
+        System.arraycopy(a_, 0, a, 0, length);
+        a_ = a;
+
+        int[] b = new int[size];
+        System.arraycopy(b_, 0, b, 0, length);
+        b_ = b;
+
+        double[] v1 = new double[size];
+        System.arraycopy(v1_, 0, v1, 0, length);
+        v1_ = v1;
+
+        double[] v2 = new double[size];
+        System.arraycopy(v2_, 0, v2, 0, length);
+        v2_ = v2;
+
+        long[] prev = new long[size];
+        System.arraycopy(prev_, 0, prev, 0, length);
+        prev_ = prev;
+
+        String[] text = new String[size];
+        System.arraycopy(text_, 0, text, 0, length);
+        text_ = text;
+    }
+
+} // end class
@@ -0,0 +1,233 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim;
+
+
+/**
+ * GridletIndex maps the key of a Gridlet, as given by
+ * {@link ResGridletList#key(int, int)}, to an object that holds the
+ * Gridlet, e.g. a node of {@link ResGridletList} or an entry of
+ * {@link VirtualTimeShared}. At most one object is kept for each key.
+ * <p>
+ * This index uses open addressing on a <tt>long</tt> array of keys. Hence,
+ * looking up, adding or removing a key does not create any object.
+ *
+ * @param <T> the type of the objects in this index
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.HeterogeneousTimeShared
+ * @see gridsim.ResGridletList
+ * @see gridsim.VirtualTimeShared
+ * @invariant $none
+ */
+final class GridletIndex<T>
+{
+    private static final int INITIAL_CAPACITY = 16;     // a power of two
+
+    private long[] keys_;       // the key of each slot
+    private Object[] items_;    // the object of each slot, or null if free
+    private int size_;          // number of keys
+
+
+    /**
+     * Allocates a new empty index
+     * @pre $none
+     * @post $none
+     */
+    GridletIndex()
+    {
+        keys_ = new long[INITIAL_CAPACITY];
+        items_ = new Object[INITIAL_CAPACITY];
+        size_ = 0;
+    }
+
+    /**
+     * Gets the number of keys in this index
+     * @return the number of keys
+     * @pre $none
+     * @post $result >= 0
+     */
+    int size() {
+        return size_;
+    }
+
+    /**
+     * Gets the object of a key
+     * @param key  the key
+     * @return the object or <tt>null</tt> if the key is not found
+     * @pre $none
+     * @post $none
+     */
+    @SuppressWarnings("unchecked")
+    T get(long key)
+    {
+        int slot = find(key);
+        return (slot < 0) ? null : (T) items_[slot];
+    }
+
+    /**
+     * Sets the object of a key. It replaces the object that the key had,
+     * if any.
+     * @param key   the key
+     * @param item  the object
+     * @pre item != null
+     * @post $none
+     */
+    void put(long key, T item)
+    {
+        int slot = find(key);
+        if (slot >= 0)
+        {
+            items_[slot] = item;
+            return;
+        }
+
+        if ( (size_ + 1) * 2 > keys_.length ) {
+            resize(keys_.length * 2);
+        }
+
+        int mask = keys_.length - 1;
+        slot = hash(key) & mask;
+        while (items_[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+
+        keys_[slot] = key;
+        items_[slot] = item;
+        size_++;
+    }
+
+    /**
+     * Removes a key
+     * @param key  the key
+     * @return <tt>true</tt> if the key was in this index
+     * @pre $none
+     * @post $none
+     */
+    boolean remove(long key)
+    {
+        int slot = find(key);
+        if (slot < 0) {
+            return false;
+        }
+
+        removeSlot(slot);
+        return true;
+    }
+
+    /**
+     * Removes a key only if it has a given object
+     * @param key   the key
+     * @param item  the object
+     * @return <tt>true</tt> if the key had this object
+     * @pre $none
+     * @post $none
+     */
+    boolean remove(long key, Object item)
+    {
+        int slot = find(key);
+        if (slot < 0 || items_[slot] != item) {
+            return false;
+        }
+
+        removeSlot(slot);
+        return true;
+    }
+
+    /**
+     * Empties a slot, then moves back the keys that follow it
+     * @param slot  a slot in use
+     * @pre slot >= 0
+     * @post $none
+     */
+    private void removeSlot(int slot)
+    {
+        int mask = keys_.length - 1;
+        int hole = slot;
+        int i = (slot + 1) & mask;
+        while (items_[i] != null)
+        {
+            int home = hash(keys_[i]) & mask;
+            if ( ((i - home) & mask) >= ((i - hole) & mask) )
+            {
+                keys_[hole] = keys_[i];
+                items_[hole] = items_[i];
+                hole = i;
+            }
+            i = (i + 1) & mask;
+        }
+
+        items_[hole] = null;
+        size_--;
+    }
+
+    /**
+     * Finds the slot of a key
+     * @param key  the key
+     * @return the slot or <tt>-1</tt> if not found
+     * @pre $none
+     * @post $none
+     */
+    private int find(long key)
+    {
+        int mask = keys_.length - 1;
+        int slot = hash(key) & mask;
+        while (items_[slot] != null)
+        {
+            if (keys_[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Changes the capacity of this index
+     * @param capacity  the new capacity, a power of two
+     * @pre capacity > size()
+     * @post $none
+     */
+    private void resize(int capacity)
+    {
+        long[] keys = keys_;
+        Object[] items = items_;
+        keys_ = new long[capacity];
+        items_ = new Object[capacity];
+
+        int mask = capacity - 1;
+        for (int i = 0; i < items.length; i++)
+        {
+            if (items[i] == null) {
+                continue;
+            }
+
+            int slot = hash(keys[i]) & mask;
+            while (items_[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys_[slot] = keys[i];
+            items_[slot] = items[i];
+        }
+    }
+
+    /**
+     * Spreads the bits of a key
+     * @param key  the key
+     * @return the hash code
+     * @pre $none
+     * @post $none
+     */
+    private static int hash(long key)
+    {
+        int h = (int) (key ^ (key >>> 32)) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+} // end class
@@ -0,0 +1,215 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim;
+
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * GridletMigration carries one or more Gridlets that move from one
+ * GridResource to another one in a single transfer, with
+ * {@link gridsim.GridSimTags#GRIDLET_MIGRATE} tag.
+ * <p>
+ * A Gridlet that has already started does not need its input file again.
+ * Hence, only its remaining length and its checkpoint are sent, i.e.
+ * {@link #HEADER_SIZE} bytes plus {@link Gridlet#getCheckpointSize()}. If
+ * the checkpoint size of a Gridlet has not been set, then its output size
+ * is sent instead, as GridSim did before.
+ * <p>
+ * While Gridlets are in flight, the GridResource they move to answers a
+ * status query about them with {@link Gridlet#QUEUED}, rather than not
+ * finding them.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.AllocPolicy#gridletMigrate(Gridlet, int, boolean)
+ * @see gridsim.AllocPolicy#gridletMove(int[], int, int)
+ * @invariant $none
+ */
+public final class GridletMigration implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    /** The bytes sent for every Gridlet besides its checkpoint, i.e. the
+     * Gridlet ID, the user ID and the remaining length */
+    public static final int HEADER_SIZE = 16;
+
+    private final int srcId_;       // the GridResource the Gridlets leave
+    private final int destId_;      // the GridResource they move to
+    private final GridletList list_;    // the Gridlets
+    private final BitSet ack_;      // whether a Gridlet needs an ack
+    private long byteSize_;         // bytes to transfer
+
+
+    /**
+     * Allocates a new empty migration
+     * @param srcId   the GridResource ID the Gridlets leave
+     * @param destId  the GridResource ID the Gridlets move to
+     * @pre srcId >= 0
+     * @pre destId >= 0
+     * @post $none
+     */
+    GridletMigration(int srcId, int destId)
+    {
+        srcId_ = srcId;
+        destId_ = destId;
+        list_ = new GridletList();
+        ack_ = new BitSet();
+        byteSize_ = 0;
+    }
+
+    /**
+     * Adds a Gridlet to this migration, and records it as in flight
+     * @param gl   a Gridlet
+     * @param ack  whether the user wants an acknowledgement once the
+     *             Gridlet has been submitted to the new GridResource
+     * @pre gl != null
+     * @post $none
+     */
+    void add(Gridlet gl, boolean ack)
+    {
+        if (ack) {
+            ack_.set( list_.size() );
+        }
+
+        list_.add(gl);
+        byteSize_ += getTransferSize(gl);
+
+        SimulationContext.current().migrations_.put(
+                key(gl.getGridletID(), gl.getUserID()),
+                Integer.valueOf(destId_) );
+    }
+
+    /**
+     * Removes the Gridlets of this migration from the ones in flight,
+     * once they have reached the new GridResource. This method is called
+     * by the GridResource that receives them.
+     * @pre $none
+     * @post $none
+     */
+    public void arrive()
+    {
+        ConcurrentHashMap<Long, Integer> map =
+                SimulationContext.current().migrations_;
+
+        for (Gridlet gl : list_) {
+            map.remove( key(gl.getGridletID(), gl.getUserID()) );
+        }
+    }
+
+    /**
+     * Checks whether a Gridlet is moving to a given GridResource
+     * @param gridletId    a Gridlet ID
+     * @param userId       the user or owner's ID of this Gridlet
+     * @param resourceId   a GridResource ID
+     * @return <tt>true</tt> if the Gridlet is in flight to this
+     *         GridResource, <tt>false</tt> otherwise
+     * @pre $none
+     * @post $none
+     */
+    public static boolean isInFlight(int gridletId, int userId, int resourceId)
+    {
+        Integer destId = SimulationContext.current().migrations_.get(
+                key(gridletId, userId) );
+        return destId != null && destId.intValue() == resourceId;
+    }
+
+    /**
+     * Gets the number of bytes sent to migrate a Gridlet
+     * @param gl   a Gridlet
+     * @return {@link #HEADER_SIZE} plus the checkpoint size, or the output
+     *         size if the checkpoint size has not been set
+     * @pre gl != null
+     * @post $result >= 0
+     */
+    public static long getTransferSize(Gridlet gl)
+    {
+        long checkpoint = gl.getCheckpointSize();
+        if (checkpoint < 0) {
+            return gl.getGridletOutputSize();
+        }
+
+        return HEADER_SIZE + checkpoint;
+    }
+
+    /**
+     * Gets the key of a Gridlet in the table of the ones in flight
+     * @param gridletId    a Gridlet ID
+     * @param userId       the user or owner's ID of this Gridlet
+     * @return the key
+     * @pre $none
+     * @post $none
+     */
+    private static Long key(int gridletId, int userId) {
+        return Long.valueOf( ResGridletList.key(gridletId, userId) );
+    }
+
+    /**
+     * Gets the ID of the GridResource the Gridlets leave
+     * @return the GridResource ID
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int getSourceID() {
+        return srcId_;
+    }
+
+    /**
+     * Gets the ID of the GridResource the Gridlets move to
+     * @return the GridResource ID
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int getDestinationID() {
+        return destId_;
+    }
+
+    /**
+     * Gets the number of Gridlets in this migration
+     * @return the number of Gridlets
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int size() {
+        return list_.size();
+    }
+
+    /**
+     * Gets the Gridlets in this migration
+     * @return the list of Gridlets
+     * @pre $none
+     * @post $result != null
+     */
+    public GridletList getGridletList() {
+        return list_;
+    }
+
+    /**
+     * Checks whether the user of a Gridlet wants an acknowledgement once
+     * it has been submitted to the new GridResource
+     * @param index  the position of the Gridlet in the list
+     * @return <tt>true</tt> if an acknowledgement is required
+     * @pre index >= 0 && index < size()
+     * @post $none
+     */
+    public boolean isAckRequired(int index) {
+        return ack_.get(index);
+    }
+
+    /**
+     * Gets the number of bytes sent for all Gridlets in this migration
+     * @return the size (in byte)
+     * @pre $none
+     * @post $result >= 0
+     */
+    public long getByteSize() {
+        return byteSize_;
+    }
+
+} // end class
@@ -0,0 +1,1602 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * GridletStore keeps the attributes of many Gridlets in arrays of primitive
+ * values, one array per attribute, instead of one {@link Gridlet} object per
+ * job. It is meant for simulations that replay very large workload traces,
+ * where millions of Gridlet objects, each with its own list of resources
+ * and history, do not fit in memory.
+ * <p>
+ * Each Gridlet in the store is identified by its position, or slot, which is
+ * given by {@link #add(int, double, long, long)}. A Gridlet object for a
+ * slot is created by {@link #getGridlet(int)}. Such a Gridlet is only a view
+ * of the slot: it keeps no attributes of its own and reads or writes them
+ * in the store. Hence, it can be submitted to a resource and be executed by
+ * any allocation policy like an ordinary Gridlet, and it can be thrown away
+ * once the job has completed. Two views of the same slot are
+ * {@link Gridlet#equals(Object) equal}.
+ * <p>
+ * The attributes that usually have the same value for every job of a trace,
+ * such as the file sizes, the cost per second of a resource, the class type
+ * or the reservation ID, take no memory per job until a job has a different
+ * value. A Gridlet that is executed on more than one resource keeps the
+ * details of its previous resources outside the arrays. Thus, a job executed
+ * on a single resource takes less than 100 bytes.
+ * <p>
+ * A Gridlet in the store does not record its history, as if it was created
+ * with {@link Gridlet#Gridlet(int, double, long, long, boolean)} with
+ * <tt>false</tt>. A GridletStore is not thread-safe.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.Gridlet
+ * @see gridsim.parallel.util.WorkloadFileReader#generateStore()
+ * @invariant $none
+ */
+public class GridletStore implements Serializable
+{
+    private static final long serialVersionUID = -2961409823127385310L;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // the values that follow the ID, user ID, status and length of a
+    // Gridlet written by writeSlot(), other than the file sizes
+    private static final int ROW_NUM_PE = 1;
+    private static final int ROW_FINISH_TIME = 2;
+    private static final int ROW_EXEC_START = 4;
+    private static final int ROW_RESOURCE = 8;
+    private static final int ROW_FINISHED_SO_FAR = 16;
+    private static final int ROW_LONG_FILES = 32;
+    private static final int ROW_CHECKPOINT = 64;
+    private static final int ROW_CLASS_TYPE = 128;
+    private static final int ROW_NET_TOS = 256;
+    private static final int ROW_RESERVATION = 512;
+    private static final int ROW_RELEASE = 1024;
+    private static final int ROW_VISITS = 2048;
+
+    private int size_;                  // number of Gridlets in the store
+
+    private int[] id_;                  // Gridlet IDs
+    private int[] user_;                // user IDs
+    private int[] numPE_;               // number of PEs required
+    private byte[] status_;             // Gridlet status
+    private double[] length_;           // Gridlet lengths (in MI)
+    private double[] finishTime_;       // finish times
+    private double[] execStart_;        // latest execution start times
+
+    // details of the latest resource
+    private int[] resId_;               // resource IDs, or -1 if none
+    private double[] submission_;       // submission times
+    private double[] wallClock_;        // wall clock times
+    private double[] cpuTime_;          // actual CPU times
+    private double[] finishedSoFar_;    // lengths finished so far
+
+    // attributes that are the same for most jobs
+    private LongColumn fileSize_;       // input file sizes
+    private LongColumn outputSize_;     // output file sizes
+    private LongColumn checkpoint_;     // checkpoint sizes, or -1 if none
+    private LongColumn release_;        // times to release the jobs
+    private DoubleColumn cost_;         // cost per second of the resources
+    private boolean costSet_;           // whether a cost has been set
+    private IntColumn classType_;       // class types
+    private IntColumn netToS_;          // network service levels
+    private IntColumn reservation_;     // reservation IDs
+
+    // slot -> previous resources of a Gridlet that has been moved
+    private HashMap<Integer, ArrayList<Visit>> visits_;
+
+    /**
+     * Allocates a new empty store
+     * @pre $none
+     * @post $none
+     */
+    public GridletStore() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Allocates a new empty store for a given number of Gridlets. The store
+     * grows as needed, but knowing the number of jobs in advance, e.g. from
+     * a workload trace, avoids copying the arrays.
+     * @param capacity  the expected number of Gridlets
+     * @throws IllegalArgumentException  if the capacity is negative
+     * @pre capacity >= 0
+     * @post $none
+     */
+    public GridletStore(int capacity)
+    {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("GridletStore(): Error - " +
+                    "capacity must be >= 0.");
+        }
+
+        size_ = 0;
+        id_ = new int[capacity];
+        user_ = new int[capacity];
+        numPE_ = new int[capacity];
+        status_ = new byte[capacity];
+        length_ = new double[capacity];
+        finishTime_ = new double[capacity];
+        execStart_ = new double[capacity];
+        resId_ = new int[capacity];
+        submission_ = new double[capacity];
+        wallClock_ = new double[capacity];
+        cpuTime_ = new double[capacity];
+        finishedSoFar_ = new double[capacity];
+
+        fileSize_ = new LongColumn(1);
+        outputSize_ = new LongColumn(1);
+        checkpoint_ = new LongColumn(-1);
+        release_ = new LongColumn(0);
+        cost_ = new DoubleColumn(0.0);
+        costSet_ = false;
+        classType_ = new IntColumn(0);
+        netToS_ = new IntColumn(0);
+        reservation_ = new IntColumn(-1);
+        visits_ = null;
+    }
+
+    ///////////////////////// INTERNAL CLASSES ////////////////////////////////
+
+    /**
+     * A column of int values that needs no array while every Gridlet has
+     * the same value
+     */
+    private static final class IntColumn implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+        private final int value_;   // the value of every Gridlet
+        private int[] data_;        // values per Gridlet, or null
+
+        IntColumn(int value) {
+            value_ = value;
+        }
+
+        int get(int slot) {
+            return (data_ == null) ? value_ : data_[slot];
+        }
+
+        void set(int slot, int value, int capacity)
+        {
+            if (data_ == null)
+            {
+                if (value == value_) {
+                    return;
+                }
+
+                data_ = new int[capacity];
+                Arrays.fill(data_, value_);
+            }
+            data_[slot] = value;
+        }
+
+        void resize(int capacity)
+        {
+            if (data_ != null)
+            {
+                int length = Math.min(data_.length, capacity);
+                int[] data = new int[capacity];
+                System.arraycopy(data_, 0, data, 0, length);
+                Arrays.fill(data, length, capacity, value_);
+                data_ = data;
+            }
+        }
+    }
+
+    /**
+     * A column of long values that needs no array while every Gridlet has
+     * the same value
+     */
+    private static final class LongColumn implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+        private final long value_;  // the value of every Gridlet
+        private long[] data_;       // values per Gridlet, or null
+
+        LongColumn(long value) {
+            value_ = value;
+        }
+
+        long get(int slot) {
+            return (data_ == null) ? value_ : data_[slot];
+        }
+
+        void set(int slot, long value, int capacity)
+        {
+            if (data_ == null)
+            {
+                if (value == value_) {
+                    return;
+                }
+
+                data_ = new long[capacity];
+                Arrays.fill(data_, value_);
+            }
+            data_[slot] = value;
+        }
+
+        void resize(int capacity)
+        {
+            if (data_ != null)
+            {
+                int length = Math.min(data_.length, capacity);
+                long[] data = new long[capacity];
+                System.arraycopy(data_, 0, data, 0, length);
+                Arrays.fill(data, length, capacity, value_);
+                data_ = data;
+            }
+        }
+    }
+
+    /**
+     * A column of double values that needs no array while every Gridlet has
+     * the same value
+     */
+    private static final class DoubleColumn implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+        private final double value_;    // the value of every Gridlet
+        private double[] data_;         // values per Gridlet, or null
+
+        DoubleColumn(double value) {
+            value_ = value;
+        }
+
+        double get(int slot) {
+            return (data_ == null) ? value_ : data_[slot];
+        }
+
+        void set(int slot, double value, int capacity)
+        {
+            if (data_ == null)
+            {
+                if (value == value_) {
+                    return;
+                }
+
+                data_ = new double[capacity];
+                Arrays.fill(data_, value_);
+            }
+            data_[slot] = value;
+        }
+
+        void resize(int capacity)
+        {
+            if (data_ != null)
+            {
+                int length = Math.min(data_.length, capacity);
+                double[] data = new double[capacity];
+                System.arraycopy(data_, 0, data, 0, length);
+                Arrays.fill(data, length, capacity, value_);
+                data_ = data;
+            }
+        }
+    }
+
+    /**
+     * The details of a resource that has executed a Gridlet before it was
+     * moved to another one
+     */
+    private static final class Visit implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+        int resourceId;
+        double submissionTime;
+        double wallClockTime;
+        double actualCPUTime;
+        double costPerSec;
+        double finishedSoFar;
+    }
+
+    /**
+     * A Gridlet of a store that is written instead of its view. Only the
+     * values of its slot are written rather than the whole store. It is
+     * read back as a view of a new store that only holds this Gridlet.
+     */
+    private static final class Row implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+        private transient GridletStore store_;  // the store of the Gridlet
+        private transient int slot_;            // the slot of the Gridlet
+
+        Row(GridletStore store, int slot)
+        {
+            store_ = store;
+            slot_ = slot;
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException
+        {
+            out.defaultWriteObject();
+            store_.writeSlot(slot_, out);
+        }
+
+        private void readObject(ObjectInputStream in)
+                throws IOException, ClassNotFoundException
+        {
+            in.defaultReadObject();
+            store_ = new GridletStore(1);
+            slot_ = store_.readSlot(in);
+        }
+
+        private Object readResolve() {
+            return store_.getGridlet(slot_);
+        }
+    }
+
+    //////////////////////// End of Internal Classes //////////////////////////
+
+    /**
+     * Adds a new Gridlet into this store. The Gridlet length, input and
+     * output file sizes are at least 1, as in
+     * {@link Gridlet#Gridlet(int, double, long, long)}.
+     * @param gridletID          the unique ID of the Gridlet
+     * @param gridletLength      the length or size (in MI) of the Gridlet
+     * @param gridletFileSize    the file size (in byte) of the Gridlet
+     *                           <tt>BEFORE</tt> submitting to a GridResource
+     * @param gridletOutputSize  the file size (in byte) of the Gridlet
+     *                           <tt>AFTER</tt> finish executing by
+     *                           a GridResource
+     * @return the slot of the new Gridlet
+     * @pre gridletID >= 0
+     * @post $result == size() - 1
+     */
+    public int add(int gridletID, double gridletLength,
+                   long gridletFileSize, long gridletOutputSize)
+    {
+        if (size_ == id_.length) {
+            grow();
+        }
+
+        int slot = size_;
+        size_++;
+
+        id_[slot] = gridletID;
+        user_[slot] = -1;       // to be set by a Broker or user
+        numPE_[slot] = 1;
+        status_[slot] = (byte) Gridlet.CREATED;
+        length_[slot] = Math.max(1, gridletLength);
+        finishTime_[slot] = -1.0;   // the Gridlet hasn't finished yet
+        execStart_[slot] = 0.0;
+        resId_[slot] = -1;
+        submission_[slot] = 0.0;
+        wallClock_[slot] = 0.0;
+        cpuTime_[slot] = 0.0;
+        finishedSoFar_[slot] = 0.0;
+
+        // the file sizes of the first Gridlet are taken as the usual ones
+        if (slot == 0)
+        {
+            fileSize_ = new LongColumn( Math.max(1, gridletFileSize) );
+            outputSize_ = new LongColumn( Math.max(1, gridletOutputSize) );
+        }
+        else
+        {
+            int capacity = id_.length;
+            fileSize_.set(slot, Math.max(1, gridletFileSize), capacity);
+            outputSize_.set(slot, Math.max(1, gridletOutputSize), capacity);
+        }
+        return slot;
+    }
+
+    /**
+     * Gets the number of Gridlets in this store
+     * @return the number of Gridlets
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int size() {
+        return size_;
+    }
+
+    /**
+     * Gets a Gridlet object that reads and writes the attributes of a given
+     * slot in this store. A new object is created on every call, hence it
+     * should be kept for as long as the job is running, and dropped after.
+     * @param slot  the slot of a Gridlet
+     * @return a Gridlet object
+     * @throws IndexOutOfBoundsException  if the slot is not in this store
+     * @pre slot >= 0 && slot < size()
+     * @post $result != null
+     */
+    public Gridlet getGridlet(int slot)
+    {
+        check(slot);
+        return new Gridlet(this, slot);
+    }
+
+    /**
+     * Gets the slot of a Gridlet in this store
+     * @param gl   a Gridlet object
+     * @return the slot, or <tt>-1</tt> if the Gridlet is not a view of this
+     *         store
+     * @pre $none
+     * @post $result >= -1
+     */
+    public int indexOf(Gridlet gl)
+    {
+        if (gl == null || gl.getStore() != this) {
+            return -1;
+        }
+        return gl.getStoreSlot();
+    }
+
+    /**
+     * Releases the arrays space that is not used by any Gridlet. This is
+     * useful once a workload trace has been read into the store.
+     * @pre $none
+     * @post $none
+     */
+    public void trimToSize() {
+        resize(size_);
+    }
+
+    /**
+     * Sets the time at which a Gridlet is to be sent to a resource by its
+     * user, e.g. the submit time of the job in a workload trace. This is not
+     * the same as the submission time set by a resource when the Gridlet
+     * arrives.
+     * @param slot  the slot of a Gridlet
+     * @param time  the release time
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public void setReleaseTime(int slot, long time)
+    {
+        check(slot);
+        release_.set(slot, time, id_.length);
+    }
+
+    /**
+     * Gets the time at which a Gridlet is to be sent to a resource by its
+     * user
+     * @param slot  the slot of a Gridlet
+     * @return the release time, or <tt>0</tt> if none
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public long getReleaseTime(int slot)
+    {
+        check(slot);
+        return release_.get(slot);
+    }
+
+    ///////////////////// ATTRIBUTES OF A GRIDLET ////////////////////////////
+
+    /**
+     * Gets the ID of a Gridlet
+     * @param slot  the slot of a Gridlet
+     * @return the Gridlet ID
+     * @see gridsim.Gridlet#getGridletID()
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public int getGridletID(int slot)
+    {
+        check(slot);
+        return id_[slot];
+    }
+
+    /**
+     * Sets the user or owner ID of a Gridlet
+     * @param slot  the slot of a Gridlet
+     * @param id    the user ID
+     * @see gridsim.Gridlet#setUserID(int)
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public void setUserID(int slot, int id)
+    {
+        check(slot);
+        user_[slot] = id;
+    }
+
+    /**
+     * Gets the user or owner ID of a Gridlet
+     * @param slot  the slot of a Gridlet
+     * @return the user ID or <tt>-1</tt> if it has not been set before
+     * @see gridsim.Gridlet#getUserID()
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public int getUserID(int slot)
+    {
+        check(slot);
+        return user_[slot];
+    }
+
+    /**
+     * Sets the length of a Gridlet
+     * @param slot    the slot of a Gridlet
+     * @param length  the length (in MI) of the Gridlet
+     * @return <tt>true</tt> if it is successful, <tt>false</tt> otherwise
+     * @see gridsim.Gridlet#setGridletLength(double)
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public boolean setGridletLength(int slot, double length)
+    {
+        check(slot);
+        if (length <= 0) {
+            return false;
+        }
+
+        length_[slot] = length;
+        return true;
+    }
+
+    /**
+     * Gets the length of a Gridlet
+     * @param slot  the slot of a Gridlet
+     * @return the length (in MI) of the Gridlet
+     * @see gridsim.Gridlet#getGridletLength()
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public double getGridletLength(int slot)
+    {
+        check(slot);
+        return length_[slot];
+    }
+
+    /**
+     * Gets the input file size of a Gridlet
+     * @param slot  the slot of a Gridlet
+     * @return the input file size (in byte)
+     * @see gridsim.Gridlet#getGridletFileSize()
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public long getGridletFileSize(int slot)
+    {
+        check(slot);
+        return fileSize_.get(slot);
+    }
+
+    /**
+     * Gets the output file size of a Gridlet
+     * @param slot  the slot of a Gridlet
+     * @return the output file size (in byte)
+     * @see gridsim.Gridlet#getGridletOutputSize()
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public long getGridletOutputSize(int slot)
+    {
+        check(slot);
+        return outputSize_.get(slot);
+    }
+
+    /**
+     * Sets the number of PEs required to run a Gridlet
+     * @param slot   the slot of a Gridlet
+     * @param numPE  number of PEs
+     * @return <tt>true</tt> if it is successful, <tt>false</tt> otherwise
+     * @see gridsim.Gridlet#setNumPE(int)
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public boolean setNumPE(int slot, int numPE)
+    {
+        check(slot);
+        if (numPE <= 0) {
+            return false;
+        }
+
+        numPE_[slot] = numPE;
+        return true;
+    }
+
+    /**
+     * Gets the number of PEs required to run a Gridlet
+     * @param slot  the slot of a Gridlet
+     * @return number of PEs
+     * @see gridsim.Gridlet#getNumPE()
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public int getNumPE(int slot)
+    {
+        check(slot);
+        return numPE_[slot];
+    }
+
+    /**
+     * Sets the class type or priority of a Gridlet
+     * @param slot       the slot of a Gridlet
+     * @param classType  class type of the Gridlet
+     * @return <tt>true</tt> if it is successful, <tt>false</tt> otherwise
+     * @see gridsim.Gridlet#setClassType(int)
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public boolean setClassType(int slot, int classType)
+    {
+        check(slot);
+        if (classType <= 0) {
+            return false;
+        }
+
+        classType_.set(slot, classType, id_.length);
+        return true;
+    }
+
+    /**
+     * Sets the size of the state of a Gridlet that is transferred when it
+     * migrates to another GridResource
+     * @param slot  the slot of a Gridlet
+     * @param size  the checkpoint size (in byte)
+     * @return <tt>true</tt> if it is successful, <tt>false</tt> otherwise
+     * @see gridsim.Gridlet#setCheckpointSize(long)
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public boolean setCheckpointSize(int slot, long size)
+    {
+        check(slot);
+        if (size < 0) {
+            return false;
+        }
+
+        checkpoint_.set(slot, size, id_.length);
+        return true;
+    }
+
+    /**
+     * Gets the size of the state of a Gridlet that is transferred when it
+     * migrates to another GridResource
+     * @param slot  the slot of a Gridlet
+     * @return the checkpoint size (in byte) or <tt>-1</tt> if not set
+     * @see gridsim.Gridlet#getCheckpointSize()
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public long getCheckpointSize(int slot)
+    {
+        check(slot);
+        return checkpoint_.get(slot);
+    }
+
+    /**
+     * Gets the class type or priority of a Gridlet
+     * @param slot  the slot of a Gridlet
+     * @return class type of the Gridlet
+     * @see gridsim.Gridlet#getClassType()
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public int getClassType(int slot)
+    {
+        check(slot);
+        return classType_.get(slot);
+    }
+
+    /**
+     * Sets the network service level of a Gridlet
+     * @param slot             the slot of a Gridlet
+     * @param netServiceLevel  the network service level
+     * @return <tt>true</tt> if it is successful, <tt>false</tt> otherwise
+     * @see gridsim.Gridlet#setNetServiceLevel(int)
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public boolean setNetServiceLevel(int slot, int netServiceLevel)
+    {
+        check(slot);
+        if (netServiceLevel <= 0) {
+            return false;
+        }
+
+        netToS_.set(slot, netServiceLevel, id_.length);
+        return true;
+    }
+
+    /**
+     * Gets the network service level of a Gridlet
+     * @param slot  the slot of a Gridlet
+     * @return the network service level
+     * @see gridsim.Gridlet#getNetServiceLevel()
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public int getNetServiceLevel(int slot)
+    {
+        check(slot);
+        return netToS_.get(slot);
+    }
+
+    /**
+     * Sets the ID of the reservation made for a Gridlet
+     * @param slot   the slot of a Gridlet
+     * @param resId  the reservation ID
+     * @return <tt>true</tt> if it is successful, <tt>false</tt> otherwise
+     * @see gridsim.Gridlet#setReservationID(int)
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public boolean setReservationID(int slot, int resId)
+    {
+        check(slot);
+        if (resId <= 0) {
+            return false;
+        }
+
+        reservation_.set(slot, resId, id_.length);
+        return true;
+    }
+
+    /**
+     * Gets the ID of the reservation made for a Gridlet
+     * @param slot  the slot of a Gridlet
+     * @return the reservation ID, or <tt>-1</tt> if none
+     * @see gridsim.Gridlet#getReservationID()
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public int getReservationID(int slot)
+    {
+        check(slot);
+        return reservation_.get(slot);
+    }
+
+    /**
+     * Sets the status code of a Gridlet. The finish time is set when the
+     * Gridlet becomes <tt>SUCCESS</tt>.
+     * @param slot       the slot of a Gridlet
+     * @param newStatus  the status code
+     * @throws Exception  Invalid range of Gridlet status
+     * @see gridsim.Gridlet#setGridletStatus(int)
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public void setGridletStatus(int slot, int newStatus) throws Exception
+    {
+        check(slot);
+        if (status_[slot] == newStatus) {
+            return;
+        }
+
+        if (newStatus < Gridlet.CREATED ||
+            newStatus > Gridlet.FAILED_RESOURCE_UNAVAILABLE)
+        {
+            throw new Exception("Gridlet.setGridletStatus() : Error - " +
+                    "Invalid integer range for Gridlet status.");
+        }
+
+        if (newStatus == Gridlet.SUCCESS) {
+            finishTime_[slot] = GridSim.clock();
+        }
+
+        status_[slot] = (byte) newStatus;
+    }
+
+    /**
+     * Gets the status code of a Gridlet
+     * @param slot  the slot of a Gridlet
+     * @return the status code
+     * @see gridsim.Gridlet#getGridletStatus()
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public int getGridletStatus(int slot)
+    {
+        check(slot);
+        return status_[slot];
+    }
+
+    /**
+     * Gets the finish time of a Gridlet
+     * @param slot  the slot of a Gridlet
+     * @return the finish time or <tt>-1</tt> if not finished yet
+     * @see gridsim.Gridlet#getFinishTime()
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public double getFinishTime(int slot)
+    {
+        check(slot);
+        return finishTime_[slot];
+    }
+
+    /**
+     * Sets the latest execution start time of a Gridlet
+     * @param slot       the slot of a Gridlet
+     * @param clockTime  the execution start time
+     * @see gridsim.Gridlet#setExecStartTime(double)
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public void setExecStartTime(int slot, double clockTime)
+    {
+        check(slot);
+        execStart_[slot] = clockTime;
+    }
+
+    /**
+     * Gets the latest execution start time of a Gridlet
+     * @param slot  the slot of a Gridlet
+     * @return the latest execution start time
+     * @see gridsim.Gridlet#getExecStartTime()
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public double getExecStartTime(int slot)
+    {
+        check(slot);
+        return execStart_[slot];
+    }
+
+    ///////////////////// RESOURCES OF A GRIDLET /////////////////////////////
+
+    /**
+     * Sets the resource that is going to execute a Gridlet. The details of
+     * the previous resource, if any, are kept.
+     * @param slot        the slot of a Gridlet
+     * @param resourceID  the GridResource ID
+     * @param cost        the cost running the GridResource per second
+     * @see gridsim.Gridlet#setResourceParameter(int, double)
+     * @pre slot >= 0 && slot < size()
+     * @pre resourceID >= 0
+     * @post $none
+     */
+    public void setResourceParameter(int slot, int resourceID, double cost)
+    {
+        check(slot);
+
+        // keeps the details of the previous resource
+        if (resId_[slot] != -1)
+        {
+            Visit visit = new Visit();
+            visit.resourceId = resId_[slot];
+            visit.submissionTime = submission_[slot];
+            visit.wallClockTime = wallClock_[slot];
+            visit.actualCPUTime = cpuTime_[slot];
+            visit.costPerSec = cost_.get(slot);
+            visit.finishedSoFar = finishedSoFar_[slot];
+
+            if (visits_ == null) {
+                visits_ = new HashMap<Integer, ArrayList<Visit>>();
+            }
+
+            ArrayList<Visit> list = visits_.get(slot);
+            if (list == null)
+            {
+                list = new ArrayList<Visit>(2);
+                visits_.put(slot, list);
+            }
+            list.add(visit);
+        }
+
+        resId_[slot] = resourceID;
+        submission_[slot] = 0.0;
+        wallClock_[slot] = 0.0;
+        cpuTime_[slot] = 0.0;
+        finishedSoFar_[slot] = 0.0;
+
+        // the first cost is taken as the usual one
+        if (!costSet_)
+        {
+            cost_ = new DoubleColumn(cost);
+            costSet_ = true;
+        }
+        else {
+            cost_.set(slot, cost, id_.length);
+        }
+    }
+
+    /**
+     * Gets the latest resource ID that processes a Gridlet
+     * @param slot  the slot of a Gridlet
+     * @return the resource ID or <tt>-1</tt> if none
+     * @see gridsim.Gridlet#getResourceID()
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public int getResourceID(int slot)
+    {
+        check(slot);
+        return resId_[slot];
+    }
+
+    /**
+     * Sets the submission or arrival time of a Gridlet into its latest
+     * resource
+     * @param slot       the slot of a Gridlet
+     * @param clockTime  the submission time
+     * @see gridsim.Gridlet#setSubmissionTime(double)
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public void setSubmissionTime(int slot, double clockTime)
+    {
+        check(slot);
+        if (clockTime < 0.0 || resId_[slot] == -1) {
+            return;
+        }
+        submission_[slot] = clockTime;
+    }
+
+    /**
+     * Gets the submission or arrival time of a Gridlet into its latest
+     * resource
+     * @param slot  the slot of a Gridlet
+     * @return the submission time or <tt>0.0</tt> if none
+     * @see gridsim.Gridlet#getSubmissionTime()
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public double getSubmissionTime(int slot)
+    {
+        check(slot);
+        return submission_[slot];
+    }
+
+    /**
+     * Sets the execution parameters of a Gridlet in its latest resource
+     * @param slot        the slot of a Gridlet
+     * @param wallTime    the time of the Gridlet resides in the resource
+     * @param actualTime  the total execution time of the Gridlet in the
+     *                    resource
+     * @see gridsim.Gridlet#setExecParam(double, double)
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public void setExecParam(int slot, double wallTime, double actualTime)
+    {
+        check(slot);
+        if (wallTime < 0.0 || actualTime < 0.0 || resId_[slot] == -1) {
+            return;
+        }
+
+        wallClock_[slot] = wallTime;
+        cpuTime_[slot] = actualTime;
+    }
+
+    /**
+     * Gets the time of a Gridlet resides in its latest resource
+     * @param slot  the slot of a Gridlet
+     * @return the wall clock time or <tt>0.0</tt> if none
+     * @see gridsim.Gridlet#getWallClockTime()
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public double getWallClockTime(int slot)
+    {
+        check(slot);
+        return wallClock_[slot];
+    }
+
+    /**
+     * Gets the total execution time of a Gridlet in its latest resource
+     * @param slot  the slot of a Gridlet
+     * @return the actual CPU time or <tt>0.0</tt> if none
+     * @see gridsim.Gridlet#getActualCPUTime()
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public double getActualCPUTime(int slot)
+    {
+        check(slot);
+        return cpuTime_[slot];
+    }
+
+    /**
+     * Gets the cost per second of the latest resource of a Gridlet
+     * @param slot  the slot of a Gridlet
+     * @return the cost per second or <tt>0.0</tt> if none
+     * @see gridsim.Gridlet#getCostPerSec()
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public double getCostPerSec(int slot)
+    {
+        check(slot);
+        if (resId_[slot] == -1) {
+            return 0.0;
+        }
+        return cost_.get(slot);
+    }
+
+    /**
+     * Sets the length of a Gridlet that has been executed so far in its
+     * latest resource
+     * @param slot    the slot of a Gridlet
+     * @param length  the length executed so far
+     * @see gridsim.Gridlet#setGridletFinishedSoFar(double)
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public void setGridletFinishedSoFar(int slot, double length)
+    {
+        check(slot);
+        if (length < 0.0 || resId_[slot] == -1) {
+            return;
+        }
+        finishedSoFar_[slot] = length;
+    }
+
+    /**
+     * Gets the length of a Gridlet that has been executed so far in its
+     * latest resource
+     * @param slot  the slot of a Gridlet
+     * @return the length executed so far, or the full length if the
+     *         Gridlet has not been sent to a resource or is completed
+     * @see gridsim.Gridlet#getGridletFinishedSoFar()
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public double getGridletFinishedSoFar(int slot)
+    {
+        check(slot);
+        if (resId_[slot] == -1) {
+            return length_[slot];
+        }
+        return Math.min(finishedSoFar_[slot], length_[slot]);
+    }
+
+    /**
+     * Checks whether a Gridlet has finished execution or not
+     * @param slot  the slot of a Gridlet
+     * @return <tt>true</tt> if the Gridlet has finished execution,
+     *         <tt>false</tt> otherwise
+     * @see gridsim.Gridlet#isFinished()
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public boolean isFinished(int slot)
+    {
+        check(slot);
+        if (resId_[slot] == -1) {
+            return false;
+        }
+        return length_[slot] - finishedSoFar_[slot] <= 0.0;
+    }
+
+    /**
+     * Gets the total cost of executing a Gridlet on all its resources
+     * @param slot  the slot of a Gridlet
+     * @return the total processing cost
+     * @see gridsim.Gridlet#getProcessingCost()
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public double getProcessingCost(int slot)
+    {
+        check(slot);
+        if (resId_[slot] == -1) {
+            return 0.0;
+        }
+
+        double cost = 0.0;
+        ArrayList<Visit> list = getVisits(slot);
+        if (list != null)
+        {
+            for (Visit visit : list) {
+                cost += visit.actualCPUTime * visit.costPerSec;
+            }
+        }
+
+        cost += cpuTime_[slot] * cost_.get(slot);
+        return cost;
+    }
+
+    /**
+     * Gets all the resource IDs that executed a Gridlet, in order
+     * @param slot  the slot of a Gridlet
+     * @return an array of resource IDs or <tt>null</tt> if it has none
+     * @see gridsim.Gridlet#getAllResourceID()
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public int[] getAllResourceID(int slot)
+    {
+        check(slot);
+        if (resId_[slot] == -1) {
+            return null;
+        }
+
+        ArrayList<Visit> list = getVisits(slot);
+        int count = (list == null) ? 0 : list.size();
+        int[] data = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            data[i] = list.get(i).resourceId;
+        }
+
+        data[count] = resId_[slot];
+        return data;
+    }
+
+    /**
+     * Gets the total execution time of a Gridlet in a given resource
+     * @param slot   the slot of a Gridlet
+     * @param resId  a GridResource entity ID
+     * @return the actual CPU time or <tt>0.0</tt> if not found
+     * @see gridsim.Gridlet#getActualCPUTime(int)
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public double getActualCPUTime(int slot, int resId)
+    {
+        Visit visit = findVisit(slot, resId);
+        if (visit != null) {
+            return visit.actualCPUTime;
+        }
+        return (resId_[slot] == resId) ? cpuTime_[slot] : 0.0;
+    }
+
+    /**
+     * Gets the cost per second of a given resource of a Gridlet
+     * @param slot   the slot of a Gridlet
+     * @param resId  a GridResource entity ID
+     * @return the cost per second or <tt>0.0</tt> if not found
+     * @see gridsim.Gridlet#getCostPerSec(int)
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public double getCostPerSec(int slot, int resId)
+    {
+        Visit visit = findVisit(slot, resId);
+        if (visit != null) {
+            return visit.costPerSec;
+        }
+        return (resId_[slot] == resId) ? cost_.get(slot) : 0.0;
+    }
+
+    /**
+     * Gets the length of a Gridlet that has been executed so far in a given
+     * resource
+     * @param slot   the slot of a Gridlet
+     * @param resId  a GridResource entity ID
+     * @return the length executed so far or <tt>0.0</tt> if not found
+     * @see gridsim.Gridlet#getGridletFinishedSoFar(int)
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public double getGridletFinishedSoFar(int slot, int resId)
+    {
+        Visit visit = findVisit(slot, resId);
+        if (visit != null) {
+            return visit.finishedSoFar;
+        }
+        return (resId_[slot] == resId) ? finishedSoFar_[slot] : 0.0;
+    }
+
+    /**
+     * Gets the submission time of a Gridlet in a given resource
+     * @param slot   the slot of a Gridlet
+     * @param resId  a GridResource entity ID
+     * @return the submission time or <tt>0.0</tt> if not found
+     * @see gridsim.Gridlet#getSubmissionTime(int)
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public double getSubmissionTime(int slot, int resId)
+    {
+        Visit visit = findVisit(slot, resId);
+        if (visit != null) {
+            return visit.submissionTime;
+        }
+        return (resId_[slot] == resId) ? submission_[slot] : 0.0;
+    }
+
+    /**
+     * Gets the time of a Gridlet resides in a given resource
+     * @param slot   the slot of a Gridlet
+     * @param resId  a GridResource entity ID
+     * @return the wall clock time or <tt>0.0</tt> if not found
+     * @see gridsim.Gridlet#getWallClockTime(int)
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    public double getWallClockTime(int slot, int resId)
+    {
+        Visit visit = findVisit(slot, resId);
+        if (visit != null) {
+            return visit.wallClockTime;
+        }
+        return (resId_[slot] == resId) ? wallClock_[slot] : 0.0;
+    }
+
+    /**
+     * Checks whether a Gridlet has been executed by a given resource
+     * @param slot   the slot of a Gridlet
+     * @param resId  a GridResource entity ID
+     * @return <tt>true</tt> if the resource has executed the Gridlet
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    boolean hasVisited(int slot, int resId)
+    {
+        if (findVisit(slot, resId) != null) {
+            return true;
+        }
+        return resId != -1 && resId_[slot] == resId;
+    }
+
+    /**
+     * Gets the object written instead of a view of a slot, so that a
+     * serialized Gridlet only holds the values of its slot
+     * @param slot  the slot of a Gridlet
+     * @return the object to be written
+     * @pre slot >= 0 && slot < size()
+     * @post $result != null
+     */
+    Object getRow(int slot)
+    {
+        check(slot);
+        return new Row(this, slot);
+    }
+
+    //////////////////////////// PRIVATE METHODS //////////////////////////////
+
+    /**
+     * Writes the values of a Gridlet. The values that most Gridlets do not
+     * have, e.g. a checkpoint size or the details of previous resources, are
+     * only written if the Gridlet has them.
+     * @param slot  the slot of a Gridlet
+     * @param out   the stream
+     * @throws IOException  if the values can't be written
+     * @see #readSlot(DataInput)
+     * @pre slot >= 0 && slot < size()
+     * @pre out != null
+     * @post $none
+     */
+    private void writeSlot(int slot, DataOutput out) throws IOException
+    {
+        long fileSize = fileSize_.get(slot);
+        long outputSize = outputSize_.get(slot);
+        ArrayList<Visit> visits = getVisits(slot);
+
+        int flags = 0;
+        if (numPE_[slot] != 1) {
+            flags |= ROW_NUM_PE;
+        }
+        if (finishTime_[slot] != -1.0) {
+            flags |= ROW_FINISH_TIME;
+        }
+        if (execStart_[slot] != 0.0) {
+            flags |= ROW_EXEC_START;
+        }
+        if (resId_[slot] != -1)
+        {
+            flags |= ROW_RESOURCE;
+
+            // a completed Gridlet has usually finished its length
+            if (finishedSoFar_[slot] != length_[slot]) {
+                flags |= ROW_FINISHED_SO_FAR;
+            }
+        }
+        if (fileSize > Integer.MAX_VALUE || outputSize > Integer.MAX_VALUE) {
+            flags |= ROW_LONG_FILES;
+        }
+        if (checkpoint_.get(slot) != -1) {
+            flags |= ROW_CHECKPOINT;
+        }
+        if (classType_.get(slot) != 0) {
+            flags |= ROW_CLASS_TYPE;
+        }
+        if (netToS_.get(slot) != 0) {
+            flags |= ROW_NET_TOS;
+        }
+        if (reservation_.get(slot) != -1) {
+            flags |= ROW_RESERVATION;
+        }
+        if (release_.get(slot) != 0) {
+            flags |= ROW_RELEASE;
+        }
+        if (visits != null) {
+            flags |= ROW_VISITS;
+        }
+
+        out.writeInt(id_[slot]);
+        out.writeInt(user_[slot]);
+        out.writeByte(status_[slot]);
+        out.writeDouble(length_[slot]);
+        out.writeShort(flags);
+
+        if ( (flags & ROW_LONG_FILES) != 0 )
+        {
+            out.writeLong(fileSize);
+            out.writeLong(outputSize);
+        }
+        else
+        {
+            out.writeInt( (int) fileSize );
+            out.writeInt( (int) outputSize );
+        }
+
+        if ( (flags & ROW_NUM_PE) != 0 ) {
+            out.writeInt(numPE_[slot]);
+        }
+        if ( (flags & ROW_FINISH_TIME) != 0 ) {
+            out.writeDouble(finishTime_[slot]);
+        }
+        if ( (flags & ROW_EXEC_START) != 0 ) {
+            out.writeDouble(execStart_[slot]);
+        }
+        if ( (flags & ROW_RESOURCE) != 0 )
+        {
+            out.writeInt(resId_[slot]);
+            out.writeDouble(submission_[slot]);
+            out.writeDouble(wallClock_[slot]);
+            out.writeDouble(cpuTime_[slot]);
+            out.writeDouble( cost_.get(slot) );
+        }
+        if ( (flags & ROW_FINISHED_SO_FAR) != 0 ) {
+            out.writeDouble(finishedSoFar_[slot]);
+        }
+        if ( (flags & ROW_CHECKPOINT) != 0 ) {
+            out.writeLong( checkpoint_.get(slot) );
+        }
+        if ( (flags & ROW_CLASS_TYPE) != 0 ) {
+            out.writeInt( classType_.get(slot) );
+        }
+        if ( (flags & ROW_NET_TOS) != 0 ) {
+            out.writeInt( netToS_.get(slot) );
+        }
+        if ( (flags & ROW_RESERVATION) != 0 ) {
+            out.writeInt( reservation_.get(slot) );
+        }
+        if ( (flags & ROW_RELEASE) != 0 ) {
+            out.writeLong( release_.get(slot) );
+        }
+        if ( (flags & ROW_VISITS) != 0 )
+        {
+            out.writeInt( visits.size() );
+            for (Visit visit : visits)
+            {
+                out.writeInt(visit.resourceId);
+                out.writeDouble(visit.submissionTime);
+                out.writeDouble(visit.wallClockTime);
+                out.writeDouble(visit.actualCPUTime);
+                out.writeDouble(visit.costPerSec);
+                out.writeDouble(visit.finishedSoFar);
+            }
+        }
+    }
+
+    /**
+     * Reads the values of a Gridlet written by
+     * {@link #writeSlot(int, DataOutput)} into a new slot
+     * @param in   the stream
+     * @return the slot of the Gridlet
+     * @throws IOException  if the values can't be read
+     * @pre in != null
+     * @post $result == size() - 1
+     */
+    private int readSlot(DataInput in) throws IOException
+    {
+        int id = in.readInt();
+        int user = in.readInt();
+        byte status = in.readByte();
+        double length = in.readDouble();
+        int flags = in.readUnsignedShort();
+
+        long fileSize;
+        long outputSize;
+        if ( (flags & ROW_LONG_FILES) != 0 )
+        {
+            fileSize = in.readLong();
+            outputSize = in.readLong();
+        }
+        else
+        {
+            fileSize = in.readInt();
+            outputSize = in.readInt();
+        }
+
+        int slot = add(id, length, fileSize, outputSize);
+        int capacity = id_.length;
+        user_[slot] = user;
+        status_[slot] = status;
+        length_[slot] = length;
+
+        if ( (flags & ROW_NUM_PE) != 0 ) {
+            numPE_[slot] = in.readInt();
+        }
+        if ( (flags & ROW_FINISH_TIME) != 0 ) {
+            finishTime_[slot] = in.readDouble();
+        }
+        if ( (flags & ROW_EXEC_START) != 0 ) {
+            execStart_[slot] = in.readDouble();
+        }
+        if ( (flags & ROW_RESOURCE) != 0 )
+        {
+            resId_[slot] = in.readInt();
+            submission_[slot] = in.readDouble();
+            wallClock_[slot] = in.readDouble();
+            cpuTime_[slot] = in.readDouble();
+            cost_.set(slot, in.readDouble(), capacity);
+            costSet_ = true;
+            finishedSoFar_[slot] = length;
+        }
+        if ( (flags & ROW_FINISHED_SO_FAR) != 0 ) {
+            finishedSoFar_[slot] = in.readDouble();
+        }
+        if ( (flags & ROW_CHECKPOINT) != 0 ) {
+            checkpoint_.set(slot, in.readLong(), capacity);
+        }
+        if ( (flags & ROW_CLASS_TYPE) != 0 ) {
+            classType_.set(slot, in.readInt(), capacity);
+        }
+        if ( (flags & ROW_NET_TOS) != 0 ) {
+            netToS_.set(slot, in.readInt(), capacity);
+        }
+        if ( (flags & ROW_RESERVATION) != 0 ) {
+            reservation_.set(slot, in.readInt(), capacity);
+        }
+        if ( (flags & ROW_RELEASE) != 0 ) {
+            release_.set(slot, in.readLong(), capacity);
+        }
+        if ( (flags & ROW_VISITS) != 0 )
+        {
+            int count = in.readInt();
+            ArrayList<Visit> list = new ArrayList<Visit>(count);
+            for (int i = 0; i < count; i++)
+            {
+                Visit visit = new Visit();
+                visit.resourceId = in.readInt();
+                visit.submissionTime = in.readDouble();
+                visit.wallClockTime = in.readDouble();
+                visit.actualCPUTime = in.readDouble();
+                visit.costPerSec = in.readDouble();
+                visit.finishedSoFar = in.readDouble();
+                list.add(visit);
+            }
+
+            if (visits_ == null) {
+                visits_ = new HashMap<Integer, ArrayList<Visit>>();
+            }
+            visits_.put(slot, list);
+        }
+
+        return slot;
+    }
+
+    /**
+     * Gets the previous resources of a Gridlet
+     * @param slot  the slot of a Gridlet
+     * @return a list of resources, or <tt>null</tt> if none
+     * @pre slot >= 0 && slot < size()
+     * @post $none
+     */
+    private ArrayList<Visit> getVisits(int slot)
+    {
+        if (visits_ == null) {
+            return null;
+        }
+        return visits_.get(slot);
+    }
+
+    /**
+     * Finds the first previous resource of a Gridlet with a given ID
+     * @param slot   the slot of a Gridlet
+     * @param resId  a GridResource entity ID
+     * @return the resource, or <tt>null</tt> if not found
+     * @pre $none
+     * @post $none
+     */
+    private Visit findVisit(int slot, int resId)
+    {
+        check(slot);
+        ArrayList<Visit> list = getVisits(slot);
+        if (list == null) {
+            return null;
+        }
+
+        for (Visit visit : list)
+        {
+            if (visit.resourceId == resId) {
+                return visit;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a slot is in this store
+     * @param slot  the slot of a Gridlet
+     * @throws IndexOutOfBoundsException  if the slot is not in this store
+     * @pre $none
+     * @post $none
+     */
+    private void check(int slot)
+    {
+        if (slot < 0 || slot >= size_) {
+            throw new IndexOutOfBoundsException("GridletStore: slot " +
+                    slot + ", size " + size_);
+        }
+    }
+
+    /**
+     * Doubles the capacity of the arrays
+     * @pre $none
+     * @post $none
+     */
+    private void grow() {
+        resize( Math.max(INITIAL_CAPACITY, id_.length * 2) );
+    }
+
+    /**
+     * Changes the capacity of the arrays
+     * @param capacity  the new capacity
+     * @pre capacity >= size_
+     * @post $none
+     */
+    private void resize(int capacity)
+    {
+        id_ = copy(id_, capacity);
+        user_ = copy(user_, capacity);
+        numPE_ = copy(numPE_, capacity);
+        resId_ = copy(resId_, capacity);
+
+        byte[] status = new byte[capacity];
+        System.arraycopy(status_, 0, status, 0, size_);
+        status_ = status;
+
+        length_ = copy(length_, capacity);
+        finishTime_ = copy(finishTime_, capacity);
+        execStart_ = copy(execStart_, capacity);
+        submission_ = copy(submission_, capacity);
+        wallClock_ = copy(wallClock_, capacity);
+        cpuTime_ = copy(cpuTime_, capacity);
+        finishedSoFar_ = copy(finishedSoFar_, capacity);
+
+        fileSize_.resize(capacity);
+        outputSize_.resize(capacity);
+        checkpoint_.resize(capacity);
+        release_.resize(capacity);
+        cost_.resize(capacity);
+        classType_.resize(capacity);
+        netToS_.resize(capacity);
+        reservation_.resize(capacity);
+    }
+
+    /**
+     * Copies the used part of an array into a new one
+     * @param data      an array
+     * @param capacity  the length of the new array
+     * @return the new array
+     * @pre data != null
+     * @post $none
+     */
+    private int[] copy(int[] data, int capacity)
+    {
+        int[] result = new int[capacity];
+        System.arraycopy(data, 0, result, 0, size_);
+        return result;
+    }
+
+    /**
+     * Copies the used part of an array into a new one
+     * @param data      an array
+     * @param capacity  the length of the new array
+     * @return the new array
+     * @pre data != null
+     * @post $none
+     */
+    private double[] copy(double[] data, int capacity)
+    {
+        double[] result = new double[capacity];
+        System.arraycopy(data, 0, result, 0, size_);
+        return result;
+    }
+
+} // end class
@@ -0,0 +1,1243 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim;
+
+import eduni.simjava.Sim_event;
+import gridsim.kernel.Checkpointable;
+import gridsim.kernel.EventDriven;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+
+/**
+ * HeterogeneousTimeShared is a time-shared allocation policy for
+ * GridResource whose PEs (Processing Elements) have different MIPS ratings,
+ * e.g. a cluster made of Machines of several generations. Unlike
+ * {@link gridsim.TimeShared}, which assumes that every PE runs at
+ * {@link ResourceCharacteristics#getMIPSRatingOfOnePE()}, this policy uses
+ * the rating of each PE.
+ * <p>
+ * When a Gridlet arrives, it is given to the PE where it gets the largest
+ * share, i.e. the PE with the smallest <tt>(Gridlets + 1) / MIPS rating</tt>,
+ * and it stays on this PE until it leaves. The PEs are kept in a heap
+ * ordered by this value. Each PE has its own run queue, whose Gridlets
+ * share the PE equally, i.e. each of them is processed at
+ * <tt>MIPS rating of the PE * (1 - local load) / Gridlets on the PE</tt>
+ * MI per second.
+ * <p>
+ * As in {@link gridsim.VirtualTimeShared}, each run queue keeps a
+ * <i>virtual time</i>, which is the number of MI that each of its Gridlets
+ * has received, and a heap of its Gridlets by virtual finish time. The PEs
+ * are also kept in a heap ordered by the time their next Gridlet finishes.
+ * Hence, the arrival or departure of a Gridlet only updates the run queue
+ * of its PE, and costs <tt>O(log n + log p)</tt> for <tt>n</tt> Gridlets
+ * and <tt>p</tt> PEs. Only one internal event is pending at any time, for
+ * the next Gridlet to finish on any PE.
+ * <p>
+ * A Gridlet that requires more than one PE is run on one PE only, with its
+ * length multiplied by the number of PEs, as in {@link gridsim.TimeShared}.
+ * This policy is not selected by a {@link ResourceCharacteristics}
+ * constant, but given to a GridResource, e.g.
+ * <pre>
+ * MachineList machineList = new MachineList();
+ * machineList.add( new Machine(0, 4, 377) );   // older Machine
+ * machineList.add( new Machine(1, 8, 1200) );  // newer Machine
+ * ResourceCharacteristics resConfig = new ResourceCharacteristics(arch, os,
+ *         machineList, ResourceCharacteristics.TIME_SHARED, timeZone, cost);
+ * HeterogeneousTimeShared policy =
+ *         new HeterogeneousTimeShared(name, "HeterogeneousTimeShared");
+ * GridResource res = new GridResource(name, link, resConfig, calendar, policy);
+ * </pre>
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.TimeShared
+ * @see gridsim.VirtualTimeShared
+ * @see gridsim.GridResource#GridResource(String, gridsim.net.Link,
+ *      ResourceCharacteristics, ResourceCalendar, AllocPolicy)
+ * @invariant $none
+ */
+public class HeterogeneousTimeShared extends AllocPolicy
+        implements EventDriven, Checkpointable
+{
+    // relative tolerance when comparing virtual times
+    private static final double EPSILON = 1e-9;
+
+    // delay before checking the local load again if no MI can be processed
+    private static final double FULL_LOAD_DELAY = 1.0;
+
+    // the orders of the two heaps of PEs
+    private static final int BY_SHARE = 0;
+    private static final int BY_FINISH = 1;
+
+    private RunQueue[] queues_;     // run queue of every PE
+    private RunQueue[] byShare_;    // PEs by the share of a new Gridlet
+    private RunQueue[] byFinish_;   // PEs by the time of the next finish
+    private int size_;              // number of Gridlets in execution
+    private GridletIndex<Entry> index_;  // Gridlets in execution by key
+    private ResGridletList gridletPausedList_;  // storing Paused Gridlets
+    private double localLoad_;      // local load of the current rates
+    private double lastUpdateTime_; // time when the load was last recorded
+    private long sequence_;         // number of Gridlets added so far
+
+    /**
+     * A Gridlet in execution
+     */
+    private static final class Entry implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        final ResGridlet rgl_;      // the Gridlet
+        final RunQueue queue_;      // the run queue of its PE
+        final double finish_;       // virtual finish time
+        final long sequence_;       // breaks ties between finish times
+        double updated_;            // virtual time of the last update
+        int index_;                 // position in the heap of the queue
+
+        /**
+         * Allocates a new entry
+         * @param rgl       the Gridlet
+         * @param queue     the run queue of the PE running the Gridlet
+         * @param sequence  the order of the Gridlet
+         * @pre rgl != null
+         * @pre queue != null
+         * @post $none
+         */
+        Entry(ResGridlet rgl, RunQueue queue, long sequence)
+        {
+            rgl_ = rgl;
+            queue_ = queue;
+            finish_ = queue.virtualTime_ + rgl.getRemainingGridletLength();
+            sequence_ = sequence;
+            updated_ = queue.virtualTime_;
+            index_ = -1;
+        }
+
+        /**
+         * Checks whether this entry finishes before another one
+         * @param other  another entry
+         * @return <tt>true</tt> if this entry comes first
+         * @pre other != null
+         * @post $none
+         */
+        boolean before(Entry other)
+        {
+            if (finish_ != other.finish_) {
+                return finish_ < other.finish_;
+            }
+            return sequence_ < other.sequence_;
+        }
+    }
+
+    /**
+     * The Gridlets running on one PE
+     */
+    private static final class RunQueue implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        final int number_;          // position in the list of all PEs
+        final int machineId_;       // the Machine of the PE
+        final int peId_;            // the PE
+        final int rating_;          // MIPS rating of the PE
+        Entry[] heap_;              // Gridlets by virtual finish time
+        int size_;                  // number of Gridlets
+        double virtualTime_;        // MI received by every Gridlet so far
+        double rate_;               // MI per second of every Gridlet
+        double lastUpdateTime_;     // time when virtualTime_ was updated
+        double nextFinish_;         // time when the next Gridlet finishes
+        final int[] index_;         // positions in the heaps of PEs
+
+        /**
+         * Allocates a new empty run queue
+         * @param number     position in the list of all PEs
+         * @param machineId  the Machine ID
+         * @param peId       the PE ID
+         * @param rating     the MIPS rating of the PE
+         * @pre number >= 0
+         * @pre rating >= 0
+         * @post $none
+         */
+        RunQueue(int number, int machineId, int peId, int rating)
+        {
+            number_ = number;
+            machineId_ = machineId;
+            peId_ = peId;
+            rating_ = rating;
+            heap_ = new Entry[4];
+            size_ = 0;
+            virtualTime_ = 0.0;
+            rate_ = 0.0;
+            lastUpdateTime_ = 0.0;
+            nextFinish_ = Double.POSITIVE_INFINITY;
+            index_ = new int[] { number, number };
+        }
+
+        /**
+         * Checks whether this PE comes before another one in a heap of PEs
+         * @param other  another run queue
+         * @param order  either BY_SHARE or BY_FINISH
+         * @return <tt>true</tt> if this PE comes first
+         * @pre other != null
+         * @post $none
+         */
+        boolean before(RunQueue other, int order)
+        {
+            double value = nextFinish_;
+            double otherValue = other.nextFinish_;
+            if (order == BY_SHARE)
+            {
+                value = (size_ + 1.0) / rating_;
+                otherValue = (other.size_ + 1.0) / other.rating_;
+            }
+
+            if (value != otherValue) {
+                return value < otherValue;
+            }
+            return number_ < other.number_;
+        }
+    }
+
+    /**
+     * Allocates a new HeterogeneousTimeShared object
+     * @param resourceName    the GridResource entity name that will contain
+     *                        this allocation policy
+     * @param entityName      this object entity name
+     * @throws Exception This happens when one of the following scenarios occur:
+     *      <ul>
+     *          <li> creating this entity before initializing GridSim package
+     *          <li> this entity name is <tt>null</tt> or empty
+     *          <li> this entity has <tt>zero</tt> number of PEs (Processing
+     *              Elements). <br>
+     *              No PEs mean the Gridlets can't be processed.
+     *              A GridResource must contain one or more Machines.
+     *              A Machine must contain one or more PEs.
+     *      </ul>
+     * @see gridsim.GridSim#init(int, Calendar, boolean, String[], String[],
+     *          String)
+     * @pre resourceName != null
+     * @pre entityName != null
+     * @post $none
+     */
+    public HeterogeneousTimeShared(String resourceName, String entityName)
+            throws Exception
+    {
+        super(resourceName, entityName);
+
+        queues_ = null;
+        byShare_ = null;
+        byFinish_ = null;
+        size_ = 0;
+        index_ = new GridletIndex<Entry>();
+        gridletPausedList_ = new ResGridletList();
+        localLoad_ = 0.0;
+        lastUpdateTime_ = 0.0;
+        sequence_ = 0;
+    }
+
+    /**
+     * Handles internal events that are coming to this entity.
+     * @pre $none
+     * @post $none
+     */
+    public void body()
+    {
+        startEntity();
+
+        // a loop that is looking for internal events only
+        Sim_event ev = new Sim_event();
+        while ( GridSim.isSimulationRunning() )
+        {
+            super.sim_get_next(ev);
+
+            // if the simulation finishes then exit the loop
+            if (ev.get_tag() == GridSimTags.END_OF_SIMULATION ||
+                super.isEndSimulation())
+            {
+                break;
+            }
+
+            // Internal Event if this is the pending wake-up of this entity
+            if ( super.isTimerEvent(ev) ) {
+                internalEvent();
+            }
+        }
+
+        // CHECK for ANY INTERNAL EVENTS WAITING TO BE PROCESSED
+        while (super.sim_waiting() > 0)
+        {
+            // wait for event and ignore since it is likely to be related to
+            // internal event scheduled to update Gridlets processing
+            super.sim_get_next(ev);
+            System.out.println(super.resName_ +
+                    ".HeterogeneousTimeShared.body(): ignoring internal events");
+        }
+    }
+
+    /**
+     * Creates a run queue for every PE of the GridResource when the
+     * simulation starts
+     * @pre $none
+     * @post $none
+     */
+    public synchronized void startEntity()
+    {
+        if (queues_ != null) {
+            return;
+        }
+
+        // counts the PEs of all Machines
+        MachineList list = super.resource_.getMachineList();
+        int count = 0;
+        for (Machine machine : list) {
+            count += machine.getNumPE();
+        }
+
+        queues_ = new RunQueue[count];
+        byShare_ = new RunQueue[count];
+        byFinish_ = new RunQueue[count];
+
+        // the PEs are sorted by number, hence both heaps are valid already
+        int number = 0;
+        for (Machine machine : list)
+        {
+            for (PE pe : machine.getPEList())
+            {
+                RunQueue queue = new RunQueue(number, machine.getMachineID(),
+                                              pe.getID(), pe.getMIPSRating());
+                queues_[number] = queue;
+                byShare_[number] = queue;
+                byFinish_[number] = queue;
+                number++;
+            }
+        }
+
+        // the PEs with a higher rating get the first Gridlets
+        for (int i = count / 2 - 1; i >= 0; i--) {
+            siftDown(byShare_, i, BY_SHARE);
+        }
+    }
+
+    /**
+     * Handles an internal event when this entity is run by the event-loop
+     * kernel
+     * @param ev  an incoming event
+     * @pre ev != null
+     * @post $none
+     */
+    public void handleEvent(Sim_event ev)
+    {
+        // if the simulation finishes then stop receiving events
+        if (ev.get_tag() == GridSimTags.END_OF_SIMULATION ||
+            super.isEndSimulation())
+        {
+            super.endEntity();
+            return;
+        }
+
+        // Internal Event if this is the pending wake-up of this entity
+        if ( super.isTimerEvent(ev) ) {
+            internalEvent();
+        }
+    }
+
+    /**
+     * Saves the run queues of this policy into a snapshot
+     * @param out  the snapshot stream
+     * @throws IOException  if the state can't be written
+     * @pre out != null
+     * @post $none
+     */
+    public void saveState(ObjectOutputStream out) throws IOException
+    {
+        super.savePolicyState(out);
+        out.writeObject(queues_);
+        out.writeObject(byShare_);
+        out.writeObject(byFinish_);
+        out.writeInt(size_);
+        out.writeObject(gridletPausedList_);
+        out.writeDouble(localLoad_);
+        out.writeDouble(lastUpdateTime_);
+        out.writeLong(sequence_);
+    }
+
+    /**
+     * Restores the run queues of this policy from a snapshot
+     * @param in  the snapshot stream
+     * @throws IOException  if the state can't be read
+     * @throws ClassNotFoundException  if a saved class is not found
+     * @pre in != null
+     * @post $none
+     */
+    public void restoreState(ObjectInputStream in)
+            throws IOException, ClassNotFoundException
+    {
+        super.restorePolicyState(in);
+        queues_ = (RunQueue[]) in.readObject();
+        byShare_ = (RunQueue[]) in.readObject();
+        byFinish_ = (RunQueue[]) in.readObject();
+        size_ = in.readInt();
+        gridletPausedList_ = (ResGridletList) in.readObject();
+        localLoad_ = in.readDouble();
+        lastUpdateTime_ = in.readDouble();
+        sequence_ = in.readLong();
+
+        // the index refers to the restored entries
+        index_ = new GridletIndex<Entry>();
+        for (int i = 0; queues_ != null && i < queues_.length; i++)
+        {
+            RunQueue queue = queues_[i];
+            for (int j = 0; j < queue.size_; j++)
+            {
+                Entry entry = queue.heap_[j];
+                indexEntry(entry);
+            }
+        }
+    }
+
+    /**
+     * Schedules a new Gridlet that has been received by the GridResource
+     * entity.
+     * @param   gl    a Gridlet object that is going to be executed
+     * @param   ack   an acknowledgement, i.e. <tt>true</tt> if wanted to know
+     *        whether this operation is success or not, <tt>false</tt>
+     *        otherwise (don't care)
+     * @pre gl != null
+     * @post $none
+     */
+    public synchronized void gridletSubmit(Gridlet gl, boolean ack)
+    {
+        // record the load and the local load up to this point in time
+        updateLoad();
+
+        // reset number of PE since at the moment, it is not supported
+        if (gl.getNumPE() > 1)
+        {
+            String userName = GridSim.getEntityName( gl.getUserID() );
+            System.out.println();
+            System.out.println(super.get_name() + ".gridletSubmit(): " +
+                " Gridlet #" + gl.getGridletID() + " from " + userName +
+                " user requires " + gl.getNumPE() + " PEs.");
+            System.out.println("--> Process this Gridlet to 1 PE only.");
+            System.out.println();
+
+            // also adjusted the length because the number of PEs are reduced
+            int numPE = gl.getNumPE();
+            double len = gl.getGridletLength();
+            gl.setGridletLength(len*numPE);
+            gl.setNumPE(1);
+        }
+
+        // adds a Gridlet to the run queue of the least loaded PE
+        ResGridlet rgl = new ResGridlet(gl);
+        rgl.setGridletStatus(Gridlet.INEXEC); // set the Gridlet status to exec
+        addGridlet(rgl);
+
+        // sends back an ack if required
+        if (ack)
+        {
+            super.sendAck(GridSimTags.GRIDLET_SUBMIT_ACK, true,
+                          gl.getGridletID(), gl.getUserID()
+            );
+        }
+
+        // wake up when the next Gridlet finishes
+        forecastGridlet();
+    }
+
+    /**
+     * Finds the status of a specified Gridlet ID.
+     * @param gridletId    a Gridlet ID
+     * @param userId       the user or owner's ID of this Gridlet
+     * @return the Gridlet status or <tt>-1</tt> if not found
+     * @see gridsim.Gridlet
+     * @pre gridletId > 0
+     * @pre userId > 0
+     * @post $none
+     */
+    public synchronized int gridletStatus(int gridletId, int userId)
+    {
+        // Find in the run queues first
+        Entry entry = findEntry(gridletId, userId);
+        if (entry != null) {
+            return entry.rgl_.getGridletStatus();
+        }
+
+        // if not found then find again in Paused List
+        int found = gridletPausedList_.indexOf(gridletId, userId);
+        if (found >= 0)
+        {
+            ResGridlet rgl = gridletPausedList_.get(found);
+            return rgl.getGridletStatus();
+        }
+
+        // if not found in all lists
+        return -1;
+    }
+
+    /**
+     * Cancels a Gridlet running in this entity.
+     * This method will search the execution and paused list. The User ID is
+     * important as many users might have the same Gridlet ID in the lists.
+     * <b>NOTE:</b>
+     * <ul>
+     *    <li> Before canceling a Gridlet, this method updates the progress
+     *         of the Gridlet. If the Gridlet has no more MIs to be executed,
+     *         then it is considered to be <tt>finished</tt>.
+     *         Hence, the Gridlet can't be canceled.
+     *
+     *    <li> Once a Gridlet has been canceled, it can't be resumed to
+     *         execute again since this method will pass the Gridlet back to
+     *         sender, i.e. the <tt>userId</tt>.
+     *
+     *    <li> If a Gridlet can't be found in both execution and paused list,
+     *         then a <tt>null</tt> Gridlet will be send back to sender,
+     *         i.e. the <tt>userId</tt>.
+     * </ul>
+     *
+     * @param gridletId    a Gridlet ID
+     * @param userId       the user or owner's ID of this Gridlet
+     * @pre gridletId > 0
+     * @pre userId > 0
+     * @post $none
+     */
+    public synchronized void gridletCancel(int gridletId, int userId)
+    {
+        // Finds the gridlet in execution and paused list
+        ResGridlet rgl = cancel(gridletId, userId);
+
+        // If not found in both lists then report an error and sends back
+        // an empty Gridlet
+        if (rgl == null)
+        {
+            System.out.println(super.resName_ +
+                    ".HeterogeneousTimeShared.gridletCancel(): Cannot find " +
+                    "Gridlet #" + gridletId + " for User #" + userId);
+
+            super.sendCancelGridlet(GridSimTags.GRIDLET_CANCEL, null,
+                                    gridletId, userId);
+            return;
+        }
+
+        // if a Gridlet is found
+        rgl.finalizeGridlet();     // finalise Gridlet
+
+        // if a Gridlet has finished execution before canceling, the reports
+        // an error msg
+        if (rgl.getGridletStatus() == Gridlet.SUCCESS)
+        {
+            System.out.println(super.resName_
+                    + ".HeterogeneousTimeShared.gridletCancel(): Cannot cancel"
+                    + " Gridlet #" + gridletId + " for User #" + userId
+                    + " since it has FINISHED.");
+        }
+
+        // sends the Gridlet back to sender
+        super.sendCancelGridlet(GridSimTags.GRIDLET_CANCEL, rgl.getGridlet(),
+                                gridletId, userId);
+    }
+
+    /**
+     * Pauses a Gridlet only if it is currently executing.
+     * This method will search in the execution list. The User ID is
+     * important as many users might have the same Gridlet ID in the lists.
+     * @param gridletId    a Gridlet ID
+     * @param userId       the user or owner's ID of this Gridlet
+     * @param   ack   an acknowledgement, i.e. <tt>true</tt> if wanted to know
+     *        whether this operation is success or not, <tt>false</tt>
+     *        otherwise (don't care)
+     * @pre gridletId > 0
+     * @pre userId > 0
+     * @post $none
+     */
+    public synchronized void gridletPause(int gridletId, int userId, boolean ack)
+    {
+        boolean status = false;
+
+        // find this Gridlet in the run queues
+        Entry entry = findEntry(gridletId, userId);
+        if (entry != null)
+        {
+            // record the load and the local load up to this point in time
+            updateLoad();
+
+            // get a Gridlet from the run queue of its PE
+            ResGridlet rgl = removeGridlet(entry);
+
+            // if a Gridlet is finished upon pausing, then set it to success
+            // instead.
+            if (rgl.getRemainingGridletLength() == 0.0)
+            {
+                System.out.println(super.resName_
+                        + ".HeterogeneousTimeShared.gridletPause(): Cannot pause"
+                        + " Gridlet #" + gridletId + " for User #" + userId
+                        + " since it is FINISHED.");
+
+                gridletFinish(rgl, Gridlet.SUCCESS);
+            }
+            else
+            {
+                status = true;
+                rgl.setGridletStatus(Gridlet.PAUSED);
+
+                // add the Gridlet into the paused list
+                gridletPausedList_.add(rgl);
+                System.out.println(super.resName_ +
+                    ".HeterogeneousTimeShared.gridletPause(): Gridlet #" +
+                    gridletId + " with User #" + userId +
+                    " has been sucessfully PAUSED.");
+            }
+
+            // the other Gridlets on this PE now get a larger share
+            forecastGridlet();
+        }
+        else   // if not found in the execution list
+        {
+            System.out.println(super.resName_ +
+                    ".HeterogeneousTimeShared.gridletPause(): Cannot find " +
+                    "Gridlet #" + gridletId + " for User #" + userId);
+        }
+
+        // sends back an ack
+        if (ack)
+        {
+            super.sendAck(GridSimTags.GRIDLET_PAUSE_ACK, status,
+                          gridletId, userId);
+        }
+    }
+
+    /**
+     * Moves a Gridlet from this GridResource entity to a different one.
+     * This method will search in both the execution and paused list.
+     * The User ID is important as many Users might have the same Gridlet ID
+     * in the lists.
+     * <p>
+     * If a Gridlet has finished beforehand, then this method will send back
+     * the Gridlet to sender, i.e. the <tt>userId</tt> and sets the
+     * acknowledgment to false (if required).
+     *
+     * @param gridletId    a Gridlet ID
+     * @param userId       the user or owner's ID of this Gridlet
+     * @param destId       a new destination GridResource ID for this Gridlet
+     * @param   ack   an acknowledgement, i.e. <tt>true</tt> if wanted to know
+     *        whether this operation is success or not, <tt>false</tt>
+     *        otherwise (don't care)
+     * @pre gridletId > 0
+     * @pre userId > 0
+     * @pre destId > 0
+     * @post $none
+     */
+    public synchronized void gridletMove(int gridletId, int userId, int destId,
+                                         boolean ack)
+    {
+        // cancel the Gridlet first
+        ResGridlet rgl = cancel(gridletId, userId);
+
+        // If no found then print an error msg
+        if (rgl == null)
+        {
+            System.out.println(super.resName_ +
+                    ".HeterogeneousTimeShared.gridletMove(): Cannot find " +
+                    "Gridlet #" + gridletId + " for User #" + userId);
+
+            if (ack)   // sends ack that this operation fails
+            {
+                super.sendAck(GridSimTags.GRIDLET_SUBMIT_ACK, false,
+                              gridletId, userId);
+            }
+            return;
+        }
+
+        // if found
+        rgl.finalizeGridlet();   // finalise Gridlet
+        Gridlet gl = rgl.getGridlet();
+
+        // if a Gridlet has finished execution
+        if (gl.getGridletStatus() == Gridlet.SUCCESS)
+        {
+            System.out.println(super.resName_
+                    + ".HeterogeneousTimeShared.gridletMove(): Cannot move"
+                    + " Gridlet #" + gridletId + " for User #" + userId
+                    + " since it has FINISHED.");
+
+            if (ack)
+            {
+                super.sendAck(GridSimTags.GRIDLET_SUBMIT_ACK, false, gridletId,
+                              userId);
+            }
+
+            super.sendFinishGridlet(gl);   // sends the Gridlet back to sender
+        }
+        // moves this Gridlet to another GridResource entity
+        else {
+            super.gridletMigrate(gl, destId, ack);
+        }
+    }
+
+    /**
+     * Resumes a Gridlet only in the paused list.
+     * The User ID is important as many Users might have the same Gridlet ID
+     * in the lists.
+     * @param gridletId    a Gridlet ID
+     * @param userId       the user or owner's ID of this Gridlet
+     * @param   ack   an acknowledgement, i.e. <tt>true</tt> if wanted to know
+     *        whether this operation is success or not, <tt>false</tt>
+     *        otherwise (don't care)
+     * @pre gridletId > 0
+     * @pre userId > 0
+     * @post $none
+     */
+    public synchronized void gridletResume(int gridletId, int userId, boolean ack)
+    {
+        boolean success = false;
+
+        // finds in the paused list
+        int found = gridletPausedList_.indexOf(gridletId, userId);
+        if (found >= 0)
+        {
+            // record the load and the local load up to this point in time
+            updateLoad();
+
+            // remove a Gridlet from paused list and change the status
+            ResGridlet rgl = gridletPausedList_.remove(found);
+            rgl.setGridletStatus(Gridlet.RESUMED);
+
+            // add the Gridlet to the least loaded PE, which may differ from
+            // the one it ran on before
+            addGridlet(rgl);
+            forecastGridlet();
+
+            success = true;
+            System.out.println(super.resName_ +
+                    ".HeterogeneousTimeShared.gridletResume(): Gridlet #" +
+                    gridletId + " with User #" + userId +
+                    " has been sucessfully RESUMED.");
+        }
+        else  // if no found then prints an error msg
+        {
+            System.out.println(super.resName_ +
+                    ".HeterogeneousTimeShared.gridletResume(): Cannot find " +
+                    "Gridlet #" + gridletId + " for User #" + userId);
+        }
+
+        // sends back an ack
+        if (ack)
+        {
+            super.sendAck(GridSimTags.GRIDLET_RESUME_ACK, success,
+                          gridletId, userId);
+        }
+    }
+
+    /**
+     * Forecasts the Gridlets in execution again, since they are processed
+     * at a different rate from now on
+     * @pre $none
+     * @post $none
+     */
+    protected void processLoadChange() {
+        internalEvent();
+    }
+
+
+    ////////////////////// PRIVATE METHODS //////////////////////////////
+
+    /**
+     * Handles internal event
+     * @pre $none
+     * @post $none
+     */
+    private synchronized void internalEvent()
+    {
+        updateLoad();
+        forecastGridlet();
+    }
+
+    /**
+     * Records the load of the GridResource up to the current time. If the
+     * local load has changed since the rates were computed, then the run
+     * queues of all PEs are brought up to date at the previous rates, and
+     * given the new ones.
+     * @pre $none
+     * @post $none
+     */
+    private void updateLoad()
+    {
+        startEntity();
+        double time = GridSim.clock();
+
+        // update the GridResource load
+        if (time > lastUpdateTime_)
+        {
+            lastUpdateTime_ = time;
+            super.addTotalLoad( super.calculateTotalLoad(size_) );
+        }
+
+        double localLoad = super.getLocalLoad(time);
+        if (localLoad == localLoad_) {
+            return;
+        }
+
+        for (int i = 0; i < queues_.length; i++) {
+            advance(queues_[i], time);
+        }
+
+        localLoad_ = localLoad;
+        for (int i = 0; i < queues_.length; i++) {
+            forecastQueue(queues_[i], time);
+        }
+    }
+
+    /**
+     * Finishes the Gridlets that are done on every PE, then schedules one
+     * internal event for the next Gridlet to finish, unless an earlier event
+     * is pending already
+     * @pre $none
+     * @post $none
+     */
+    private void forecastGridlet()
+    {
+        double time = GridSim.clock();
+
+        // only the PEs whose next Gridlet is due have to be checked
+        super.holdFinishedGridlets();
+        while (byFinish_.length > 0 && byFinish_[0].nextFinish_ <= time)
+        {
+            RunQueue queue = byFinish_[0];
+            advance(queue, time);
+            checkGridletCompletion(queue, time);
+            forecastQueue(queue, time);
+        }
+        super.releaseFinishedGridlets();
+
+        if (size_ == 0)
+        {
+            super.cancelTimer();    // the pending event is not needed anymore
+            return;
+        }
+
+        // an earlier pending event is kept, and forecasts again when due
+        super.setTimer(byFinish_[0].nextFinish_ - time);
+
+        // the rates change with the local load, so forecast again by then
+        super.setLoadChangeTimer();
+    }
+
+    /**
+     * Advances the virtual time of a PE from its last update time up to a
+     * given time, at the rate computed by its last forecast
+     * @param queue  the run queue of the PE
+     * @param time   the current simulation time
+     * @pre queue != null
+     * @post $none
+     */
+    private static void advance(RunQueue queue, double time)
+    {
+        double timeSpan = time - queue.lastUpdateTime_;
+        if (timeSpan <= 0.0) {
+            return;
+        }
+
+        queue.lastUpdateTime_ = time;
+        if (queue.size_ > 0) {
+            queue.virtualTime_ += queue.rate_ * timeSpan;
+        }
+    }
+
+    /**
+     * Computes the rate of the Gridlets on a PE and the time when the next
+     * one finishes, then moves the PE to its place in the heap of PEs by
+     * finish time
+     * @param queue  the run queue of the PE
+     * @param time   the current simulation time
+     * @pre queue != null
+     * @post $none
+     */
+    private void forecastQueue(RunQueue queue, double time)
+    {
+        queue.rate_ = 0.0;
+        queue.nextFinish_ = Double.POSITIVE_INFINITY;
+        if (queue.size_ > 0)
+        {
+            // 1 - localLoad = available MI share percentage
+            double rate = queue.rating_ * (1 - localLoad_) / queue.size_;
+            queue.rate_ = Math.max(rate, 0.0);
+
+            queue.nextFinish_ = time + FULL_LOAD_DELAY;
+            if (queue.rate_ > 0.0)
+            {
+                Entry first = queue.heap_[0];
+                double delay = (first.finish_ - queue.virtualTime_) / queue.rate_;
+                queue.nextFinish_ = time + Math.max(delay, 0.0);
+                first.rgl_.setFinishTime(queue.nextFinish_);
+            }
+        }
+
+        int index = queue.index_[BY_FINISH];
+        siftDown(byFinish_, index, BY_FINISH);
+        siftUp(byFinish_, index, BY_FINISH);
+    }
+
+    /**
+     * Finishes all Gridlets on a PE whose virtual finish time has been
+     * reached
+     * @param queue  the run queue of the PE
+     * @param time   the current simulation time
+     * @pre queue != null
+     * @post $none
+     */
+    private void checkGridletCompletion(RunQueue queue, double time)
+    {
+        while (queue.size_ > 0)
+        {
+            Entry entry = queue.heap_[0];
+            double left = entry.finish_ - queue.virtualTime_;
+
+            // a Gridlet is done if its remaining MI are negligible, or if
+            // they take too little time to advance the clock
+            boolean done = left <= EPSILON * Math.max(1.0, entry.finish_);
+            if (!done && queue.rate_ > 0.0) {
+                done = (time + left / queue.rate_ == time);
+            }
+
+            if (!done) {
+                break;
+            }
+
+            ResGridlet rgl = removeEntry(entry);
+            rgl.updateGridletFinishedSoFar( rgl.getRemainingGridletLength() );
+            gridletFinish(rgl, Gridlet.SUCCESS);
+        }
+    }
+
+    /**
+     * Updates the Gridlet's properties, such as status once a
+     * Gridlet is considered finished.
+     * @param rgl     a ResGridlet object
+     * @param status  the status of this ResGridlet object
+     * @pre rgl != null
+     * @post $none
+     */
+    private void gridletFinish(ResGridlet rgl, int status)
+    {
+        // NOTE: the order is important! Set the status first then finalize
+        // due to timing issues in ResGridlet class.
+        rgl.setGridletStatus(status);
+        rgl.finalizeGridlet();
+
+        // sends back the Gridlet with no delay
+        super.sendFinishGridlet( rgl.getGridlet() );
+    }
+
+    /**
+     * Handles an operation of canceling a Gridlet in either execution list
+     * or paused list.
+     * @param gridletId    a Gridlet ID
+     * @param userId       the user or owner's ID of this Gridlet
+     * @return a ResGridlet object or <tt>null</tt> if this Gridlet is not found
+     * @pre gridletId > 0
+     * @pre userId > 0
+     * @post $none
+     */
+    private ResGridlet cancel(int gridletId, int userId)
+    {
+        ResGridlet rgl = null;
+
+        // Check whether the Gridlet is in execution or not
+        Entry entry = findEntry(gridletId, userId);
+
+        // if a Gridlet is in execution
+        if (entry != null)
+        {
+            // record the load and the local load up to this point in time
+            updateLoad();
+            rgl = removeGridlet(entry);
+
+            // if a Gridlet is finished upon cancelling, then set it to success
+            if (rgl.getRemainingGridletLength() == 0.0) {
+                rgl.setGridletStatus(Gridlet.SUCCESS);
+            }
+            else {
+                rgl.setGridletStatus(Gridlet.CANCELED);
+            }
+
+            // then forecast the next Gridlet to complete
+            forecastGridlet();
+        }
+
+        // if a Gridlet is not in execution, then find it in the paused list
+        else
+        {
+            int found = gridletPausedList_.indexOf(gridletId, userId);
+
+            // if a Gridlet is found in the paused list then remove it
+            if (found >= 0)
+            {
+                rgl = gridletPausedList_.remove(found);
+                rgl.setGridletStatus(Gridlet.CANCELED);
+            }
+        }
+
+        return rgl;
+    }
+
+    /**
+     * Finds a Gridlet in execution
+     * @param gridletId    a Gridlet ID
+     * @param userId       the user or owner's ID of this Gridlet
+     * @return the entry of the Gridlet or <tt>null</tt> if not found
+     * @pre $none
+     * @post $none
+     */
+    private Entry findEntry(int gridletId, int userId) {
+        return index_.get( ResGridletList.key(gridletId, userId) );
+    }
+
+    /**
+     * Adds an entry into the index. It replaces the entry of another
+     * Gridlet that has the same Ids, if any.
+     * @param entry  the entry of a Gridlet in execution
+     * @pre entry != null
+     * @post $none
+     */
+    private void indexEntry(Entry entry)
+    {
+        index_.put( ResGridletList.key(entry.rgl_.getGridletID(),
+                                       entry.rgl_.getUserID()), entry );
+    }
+
+    /**
+     * Removes an entry from the index
+     * @param entry  the entry of a Gridlet, which is no longer in execution
+     * @pre entry != null
+     * @post $none
+     */
+    private void unindexEntry(Entry entry)
+    {
+        index_.remove( ResGridletList.key(entry.rgl_.getGridletID(),
+                                          entry.rgl_.getUserID()), entry );
+    }
+
+    /**
+     * Adds a Gridlet to the run queue of the PE where it gets the largest
+     * share, starting at the current virtual time of this PE
+     * @param rgl  the Gridlet
+     * @pre rgl != null
+     * @post $none
+     */
+    private void addGridlet(ResGridlet rgl)
+    {
+        double time = GridSim.clock();
+        RunQueue queue = byShare_[0];
+        advance(queue, time);
+
+        Entry entry = new Entry(rgl, queue, sequence_++);
+        rgl.setMachineAndPEID(queue.machineId_, queue.peId_);
+        indexEntry(entry);
+
+        if (queue.size_ == queue.heap_.length)
+        {
+            Entry[] heap = new Entry[queue.size_ * 2];
+            System.arraycopy(queue.heap_, 0, heap, 0, queue.size_);
+            queue.heap_ = heap;
+        }
+
+        queue.heap_[queue.size_] = entry;
+        entry.index_ = queue.size_;
+        queue.size_++;
+        size_++;
+        siftUp(queue, entry.index_);
+
+        // this PE now gives a smaller share to a new Gridlet
+        siftDown(byShare_, queue.index_[BY_SHARE], BY_SHARE);
+        forecastQueue(queue, time);
+    }
+
+    /**
+     * Removes a Gridlet from the run queue of its PE, and gives the other
+     * Gridlets on this PE a larger share
+     * @param entry  the entry of the Gridlet
+     * @return the Gridlet
+     * @pre entry != null
+     * @post $none
+     */
+    private ResGridlet removeGridlet(Entry entry)
+    {
+        double time = GridSim.clock();
+        RunQueue queue = entry.queue_;
+        advance(queue, time);
+
+        ResGridlet rgl = removeEntry(entry);
+        forecastQueue(queue, time);
+        return rgl;
+    }
+
+    /**
+     * Removes an entry from the run queue of its PE, and adds the MI the
+     * Gridlet has received since it was added. The rate of the other
+     * Gridlets on this PE is not computed again.
+     * @param entry  the entry of the Gridlet
+     * @return the Gridlet
+     * @pre entry != null
+     * @post $none
+     */
+    private ResGridlet removeEntry(Entry entry)
+    {
+        unindexEntry(entry);
+
+        RunQueue queue = entry.queue_;
+        int index = entry.index_;
+        queue.size_--;
+        size_--;
+        if (index != queue.size_)
+        {
+            queue.heap_[index] = queue.heap_[queue.size_];
+            queue.heap_[index].index_ = index;
+            siftDown(queue, index);
+            siftUp(queue, index);
+        }
+        queue.heap_[queue.size_] = null;
+        entry.index_ = -1;
+
+        // this PE now gives a larger share to a new Gridlet
+        siftUp(byShare_, queue.index_[BY_SHARE], BY_SHARE);
+
+        // the progress of the Gridlet since it was added
+        double time = Math.min(queue.virtualTime_, entry.finish_);
+        if (time > entry.updated_)
+        {
+            entry.rgl_.updateGridletFinishedSoFar(time - entry.updated_);
+            entry.updated_ = time;
+        }
+        return entry.rgl_;
+    }
+
+    /**
+     * Moves an entry of the heap of a run queue up to its place
+     * @param queue  the run queue
+     * @param index  the position of the entry
+     * @pre index >= 0 && index < queue.size_
+     * @post $none
+     */
+    private static void siftUp(RunQueue queue, int index)
+    {
+        Entry[] heap = queue.heap_;
+        Entry entry = heap[index];
+        while (index > 0)
+        {
+            int parent = (index - 1) / 2;
+            if ( !entry.before(heap[parent]) ) {
+                break;
+            }
+
+            heap[index] = heap[parent];
+            heap[index].index_ = index;
+            index = parent;
+        }
+        heap[index] = entry;
+        entry.index_ = index;
+    }
+
+    /**
+     * Moves an entry of the heap of a run queue down to its place
+     * @param queue  the run queue
+     * @param index  the position of the entry
+     * @pre index >= 0 && index < queue.size_
+     * @post $none
+     */
+    private static void siftDown(RunQueue queue, int index)
+    {
+        Entry[] heap = queue.heap_;
+        Entry entry = heap[index];
+        while (true)
+        {
+            int child = 2 * index + 1;
+            if (child >= queue.size_) {
+                break;
+            }
+
+            if ( child + 1 < queue.size_ && heap[child + 1].before(heap[child]) ) {
+                child++;
+            }
+
+            if ( !heap[child].before(entry) ) {
+                break;
+            }
+
+            heap[index] = heap[child];
+            heap[index].index_ = index;
+            index = child;
+        }
+        heap[index] = entry;
+        entry.index_ = index;
+    }
+
+    /**
+     * Moves a PE of a heap of PEs up to its place
+     * @param heap   the heap of PEs
+     * @param index  the position of the PE
+     * @param order  either BY_SHARE or BY_FINISH
+     * @pre index >= 0 && index < heap.length
+     * @post $none
+     */
+    private static void siftUp(RunQueue[] heap, int index, int order)
+    {
+        RunQueue queue = heap[index];
+        while (index > 0)
+        {
+            int parent = (index - 1) / 2;
+            if ( !queue.before(heap[parent], order) ) {
+                break;
+            }
+
+            heap[index] = heap[parent];
+            heap[index].index_[order] = index;
+            index = parent;
+        }
+        heap[index] = queue;
+        queue.index_[order] = index;
+    }
+
+    /**
+     * Moves a PE of a heap of PEs down to its place
+     * @param heap   the heap of PEs
+     * @param index  the position of the PE
+     * @param order  either BY_SHARE or BY_FINISH
+     * @pre index >= 0 && index < heap.length
+     * @post $none
+     */
+    private static void siftDown(RunQueue[] heap, int index, int order)
+    {
+        RunQueue queue = heap[index];
+        while (true)
+        {
+            int child = 2 * index + 1;
+            if (child >= heap.length) {
+                break;
+            }
+
+            if ( child + 1 < heap.length &&
+                 heap[child + 1].before(heap[child], order) )
+            {
+                child++;
+            }
+
+            if ( !heap[child].before(queue, order) ) {
+                break;
+            }
+
+            heap[index] = heap[child];
+            heap[index].index_[order] = index;
+            index = child;
+        }
+        heap[index] = queue;
+        queue.index_[order] = index;
+    }
+
+} // end class
@@ -9,6 +9,8 @@
 
 package gridsim;
 
+import java.io.Serializable;
+
 /**
  * Class relates to a communication between user entities and resources
  * or user entities and others.
@@ -17,8 +19,10 @@ package gridsim;
  * @since        GridSim Toolkit 1.0
  * @invariant $none
  */
-public class IO_data
+public class IO_data implements Serializable
 {
+    private static final long serialVersionUID = -2993920149085551006L;
+
     private Object data_;
     private long byteSize_;
     private int destID_;
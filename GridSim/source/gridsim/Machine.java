@@ -10,6 +10,7 @@
 
 package gridsim;
 
+import java.io.Serializable;
 import java.util.Iterator;
 
 
@@ -21,8 +22,10 @@ import java.util.Iterator;
  * @since        GridSim Toolkit 1.0
  * @invariant $none
  */
-public class Machine
+public class Machine implements Serializable
 {
+    private static final long serialVersionUID = -513551457263065301L;
+
     // |PEs| > 1 is SMP (Shared Memory Multiprocessors)
     private PEList PEList_;
     private int id_;
@@ -18,6 +18,13 @@ import java.util.LinkedList;
  * GridSim users to define the connectivity among the machines in a collection.
  * Therefore, this class can be instantiated to model a simple LAN to cluster
  * to WAN.
+ * <p>
+ * Since GridSim 5.2, the list keeps a tree of the number of free PEs of its
+ * machines, so that a machine with enough free PEs is found in logarithmic
+ * time, even for a cluster of many thousands of machines. Each
+ * {@link gridsim.PEList} of a machine tells this list when its number of
+ * free PEs changes, hence a machine should only belong to one list. The
+ * tree is rebuilt whenever machines are added or removed.
  *
  * @author       Manzur Murshed and Rajkumar Buyya
  * @since        GridSim Toolkit 1.0
@@ -25,6 +32,10 @@ import java.util.LinkedList;
  */
 public class MachineList extends LinkedList<Machine>
 {
+    private transient Machine[] machines_;  // machines by position
+    private transient int[] tree_;      // max free PEs of each subtree
+    private transient int leaves_;      // number of leaves of the tree
+    private transient int indexedModCount_;  // modCount when indexed
 
     /**
      * Gets the Machine object for a particular ID
@@ -36,14 +47,19 @@ public class MachineList extends LinkedList<Machine>
      */
     public Machine getMachine(int id)
     {
-        Machine obj = null;
+        checkIndex();
 
-        Iterator<Machine> it = super.iterator();
-        while ( it.hasNext() )
+        // machine ids usually match their position in the list
+        if (id >= 0 && id < machines_.length &&
+            machines_[id].getMachineID() == id)
         {
-            obj = it.next();
-            if (obj.getMachineID() == id) {
-                return obj;
+            return machines_[id];
+        }
+
+        for (int i = 0; i < machines_.length; i++)
+        {
+            if (machines_[i].getMachineID() == id) {
+                return machines_[i];
             }
         }
 
@@ -121,31 +137,25 @@ public class MachineList extends LinkedList<Machine>
      */
     public Machine getMachineWithFreePE(int numPE)
     {
-        Machine obj = null;
+        checkIndex();
 
-        Iterator<Machine> it = super.iterator();
-        while ( it.hasNext() )
-        {
-            obj = it.next();
+        // none of the machines have free PE.
+        if (tree_[1] < numPE) {
+            return null;
+        }
 
-            // If the machine is failed, do nothing. Otherwise...
-            if (!obj.getFailed())
-            {
-                PEList myPElist = obj.getPEList();
-                if (myPElist.getNumFreePE() >= numPE) {
-                    return obj; // a machine with Free ID is found.
-                }
+        // go down to the first machine with enough free PEs.
+        // Failed machines are ignored since their leaves are negative.
+        int node = 1;
+        while (node < leaves_)
+        {
+            node <<= 1;
+            if (tree_[node] < numPE) {
+                node++;
             }
-            /**************
-            // Uncomment this if you want more info on the progress of sims
-            else
-            {
-                System.out.println("MachineList.getMachineWithFreePE(). MachineID: " +
-                    obj.getMachineID() + ". Machine is failed. Try other machine.");
-            }*/
         }
 
-        return null;    // none of the machines have free PE.
+        return machines_[node - leaves_];
     }
 
     /**
@@ -197,17 +207,95 @@ public class MachineList extends LinkedList<Machine>
      */
     public Machine getMachineInPos(int index)
     {
-        Machine obj = null;
-        Iterator<Machine> it = super.iterator();
-        int count = 0;
-        while ( (it.hasNext()) && (count <= index) )
+        checkIndex();
+        if (index < 0 || machines_.length == 0) {
+            return null;
+        }
+
+        // the last machine is given if the index is too large
+        if (index >= machines_.length) {
+            index = machines_.length - 1;
+        }
+
+        return machines_[index];
+    }
+
+    /**
+     * Updates the tree after the number of free PEs, or the failure status,
+     * of a machine has changed
+     * @param pos  the position of the machine in this list
+     * @pre pos >= 0
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    void update(int pos)
+    {
+        // the tree will be rebuilt anyway
+        if (machines_ == null || indexedModCount_ != modCount ||
+            pos >= machines_.length)
         {
-            count++;
-            obj = it.next();
+            return;
+        }
+
+        int node = leaves_ + pos;
+        tree_[node] = getNumUsablePE( machines_[pos] );
+        for (node >>= 1; node > 0; node >>= 1) {
+            tree_[node] = Math.max(tree_[2*node], tree_[2*node + 1]);
+        }
+    }
+
+    /**
+     * Rebuilds the tree if machines have been added or removed since it
+     * was built
+     * @pre $none
+     * @post $none
+     */
+    private void checkIndex()
+    {
+        if (machines_ != null && indexedModCount_ == modCount) {
+            return;
         }
 
-        return obj;
+        machines_ = super.toArray( new Machine[super.size()] );
+        leaves_ = 1;
+        while (leaves_ < machines_.length) {
+            leaves_ <<= 1;
+        }
+
+        tree_ = new int[2 * leaves_];
+        indexedModCount_ = modCount;
+        for (int i = 0; i < leaves_; i++)
+        {
+            if (i < machines_.length)
+            {
+                machines_[i].getPEList().setOwner(this, i);
+                tree_[leaves_ + i] = getNumUsablePE(machines_[i]);
+            }
+            else {
+                tree_[leaves_ + i] = -1;
+            }
+        }
+
+        for (int node = leaves_ - 1; node > 0; node--) {
+            tree_[node] = Math.max(tree_[2*node], tree_[2*node + 1]);
+        }
+    }
+
+    /**
+     * Gets the number of free PEs of a machine that can be allocated
+     * @param obj  a Machine object
+     * @return the number of free PEs, or <tt>-1</tt> if the machine has
+     *         failed
+     * @pre obj != null
+     * @post $none
+     */
+    private static int getNumUsablePE(Machine obj)
+    {
+        if ( obj.getFailed() ) {
+            return -1;
+        }
 
+        return obj.getNumFreePE();
     }
 
 } 
@@ -8,6 +8,8 @@
 
 package gridsim;
 
+import java.io.Serializable;
+
 /**
  * GridSim PE (Processing Element) class represents CPU unit,
  * defined in terms of Millions Instructions Per Second (MIPS) rating.<br>
@@ -17,14 +19,20 @@ package gridsim;
  * @since        GridSim Toolkit 1.0
  * @invariant $none
  */
-public class PE
+public class PE implements Serializable
 {
+    private static final long serialVersionUID = -4673248874092267768L;
+
     private int id_;             // this PE id
     private int MIPSRating_;     // in SPEC MIPS or LINPACK MFLOPS
 
     // FOR SPACE SHARED RESOURCE: Jan 21
     private boolean status_;     // Status of PE: FREE or BUSY
 
+    // the list that keeps an index of the free PEs, if any
+    private transient PEList owner_;
+    private transient int ownerPos_;    // the position of this PE in it
+
     // TODO: this is obviously clash BUSY with FAILED !!! So, change from the status
     // of boolean to integer !!
 
@@ -106,7 +114,7 @@ public class PE
      * @post $none
      */
     public void setStatusFree() {
-        status_ = PE.FREE;
+        setStatus(PE.FREE);
     }
 
     /**
@@ -116,7 +124,7 @@ public class PE
      * @post $none
      */
     public void setStatusBusy() {
-        status_ = PE.BUSY;
+        setStatus(PE.BUSY);
     }
 
     /**
@@ -126,8 +134,16 @@ public class PE
      * @pre $none
      * @post $none
      */
-    public void setStatus(boolean status) {
+    public void setStatus(boolean status)
+    {
+        if (status_ == status) {
+            return;
+        }
+
         status_ = status;
+        if (owner_ != null) {
+            owner_.update(this, ownerPos_);
+        }
     }
 
     /**
@@ -148,7 +164,23 @@ public class PE
      * @post $none
      */
     public void setStatusFailed() {
-        status_ = FAILED;
+        setStatus(FAILED);
+    }
+
+    /**
+     * Sets the list to tell when the status of this PE changes, so that
+     * its index of the free PEs stays up to date
+     * @param owner  the list of PEs
+     * @param pos    the position of this PE in the list
+     * @pre owner != null
+     * @pre pos >= 0
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    void setOwner(PEList owner, int pos)
+    {
+        owner_ = owner;
+        ownerPos_ = pos;
     }
 
 } 
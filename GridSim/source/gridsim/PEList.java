@@ -14,6 +14,14 @@ import java.util.Iterator;
 /**
  * GridSim PEList maintains a list of PEs (Processing Elements) that make up
  * a machine.
+ * <p>
+ * Since GridSim 5.2, the list keeps a bit set of its free PEs, so that the
+ * number of free PEs and the first free PE are found without visiting
+ * every PE. The bit set is rebuilt whenever PEs are added or removed. Each
+ * {@link gridsim.PE} tells this list when its status changes, so the
+ * status can be set through the PE itself as well as through this list, a
+ * {@link gridsim.Machine} or a {@link gridsim.MachineList}. Hence a PE
+ * should only belong to one list.
  *
  * @author       Manzur Murshed and Rajkumar Buyya
  * @since        GridSim Toolkit 1.0
@@ -21,6 +29,14 @@ import java.util.Iterator;
  */
 public class PEList extends LinkedList<PE>
 {
+    private transient PE[] pes_;        // PEs by position in the list
+    private transient long[] free_;     // bit set of the free PEs
+    private transient int numFree_;     // number of free PEs
+    private transient int indexedModCount_;  // modCount when indexed
+
+    // the list of machines to notify when the number of free PEs changes
+    private transient MachineList owner_;
+    private transient int ownerPos_;    // the position of this machine
 
     /**
      * Gets MIPS Rating for a specified PE ID
@@ -52,13 +68,13 @@ public class PEList extends LinkedList<PE>
      */
     public int getFreePEID()
     {
-        PE obj = null;
-        Iterator<PE> it = super.iterator();
-        while ( it.hasNext() )
+        checkIndex();
+        for (int i = 0; i < free_.length; i++)
         {
-            obj = it.next();
-            if (obj.getStatus() == PE.FREE) {
-                return obj.getID();
+            if (free_[i] != 0)
+            {
+                int pos = (i << 6) + Long.numberOfTrailingZeros(free_[i]);
+                return pes_[pos].getID();
             }
         }
 
@@ -73,20 +89,8 @@ public class PEList extends LinkedList<PE>
      */
     public int getNumFreePE()
     {
-        int counter = 0;
-        PE obj = null;
-
-        // a loop that counts the number of free PE
-        Iterator<PE> it = super.iterator();
-        while ( it.hasNext() )
-        {
-            obj = it.next();
-            if (obj.getStatus() == PE.FREE) {
-                counter++;
-            }
-        }
-
-        return counter;
+        checkIndex();
+        return numFree_;
     }
 
     /**
@@ -100,23 +104,26 @@ public class PEList extends LinkedList<PE>
      */
     public boolean setStatusPE(boolean status, int peID)
     {
-        boolean found = false;
-        PE obj = null;
+        checkIndex();
 
-        // a loop that counts the number of free PE
-        Iterator<PE> it = super.iterator();
-        while ( it.hasNext() )
+        // PE ids usually match their position in the list
+        int pos = peID;
+        if (pos < 0 || pos >= pes_.length || pes_[pos].getID() != peID)
         {
-            obj = it.next();
-            if (obj.getID() == peID)
-            {
-                obj.setStatus(status);
-                found = true;
-                break;
+            pos = 0;
+            while (pos < pes_.length && pes_[pos].getID() != peID) {
+                pos++;
+            }
+
+            if (pos == pes_.length) {
+                return false;
             }
         }
 
-        return found;
+        // the PE tells this list, unless it belongs to another one
+        pes_[pos].setStatus(status);
+        updateIndex(pos);
+        return true;
     }
 
     /**
@@ -181,6 +188,118 @@ public class PEList extends LinkedList<PE>
             else
                 obj.setStatus(PE.FREE);
         }
+
+        buildIndex();
+        notifyOwner();
+    }
+
+    /**
+     * Sets the list of machines to notify when the number of free PEs of
+     * this list changes
+     * @param owner  the list of machines
+     * @param pos    the position of the machine of this list in the owner
+     * @pre owner != null
+     * @pre pos >= 0
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    void setOwner(MachineList owner, int pos)
+    {
+        owner_ = owner;
+        ownerPos_ = pos;
+    }
+
+    /**
+     * Updates the bit set after the status of a PE has changed
+     * @param pe   the PE
+     * @param pos  the position of the PE in this list
+     * @pre pe != null
+     * @pre pos >= 0
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    void update(PE pe, int pos)
+    {
+        // the bit set is rebuilt from the status of every PE
+        if (pes_ == null || indexedModCount_ != modCount)
+        {
+            checkIndex();
+            return;
+        }
+
+        // the PE may have been removed from this list
+        if (pos < pes_.length && pes_[pos] == pe) {
+            updateIndex(pos);
+        }
+    }
+
+    /**
+     * Rebuilds the bit set of the free PEs if PEs have been added or
+     * removed since it was built
+     * @pre $none
+     * @post $none
+     */
+    private void checkIndex()
+    {
+        if (pes_ == null || indexedModCount_ != modCount)
+        {
+            buildIndex();
+            notifyOwner();
+        }
+    }
+
+    /**
+     * Makes the bit of a PE match its status
+     * @param pos  the position of the PE in this list
+     * @pre pos >= 0
+     * @post $none
+     */
+    private void updateIndex(int pos)
+    {
+        long bit = 1L << pos;
+        boolean wasFree = (free_[pos >>> 6] & bit) != 0;
+        boolean isFree = pes_[pos].getStatus() == PE.FREE;
+        if (wasFree != isFree)
+        {
+            free_[pos >>> 6] ^= bit;
+            numFree_ += isFree ? 1 : -1;
+            notifyOwner();
+        }
+    }
+
+    /**
+     * Builds the bit set of the free PEs from the status of every PE
+     * @pre $none
+     * @post $none
+     */
+    private void buildIndex()
+    {
+        pes_ = super.toArray( new PE[super.size()] );
+        free_ = new long[ (pes_.length + 63) >>> 6 ];
+        numFree_ = 0;
+        for (int i = 0; i < pes_.length; i++)
+        {
+            pes_[i].setOwner(this, i);
+            if (pes_[i].getStatus() == PE.FREE)
+            {
+                free_[i >>> 6] |= 1L << i;
+                numFree_++;
+            }
+        }
+        indexedModCount_ = modCount;
+    }
+
+    /**
+     * Tells the list of machines, if any, that the number of free PEs of
+     * this list has changed
+     * @pre $none
+     * @post $none
+     */
+    private void notifyOwner()
+    {
+        if (owner_ != null) {
+            owner_.update(ownerPos_);
+        }
     }
 
 } 
@@ -8,6 +8,8 @@
 
 package gridsim;
 
+import java.io.Serializable;
+
 /**
  * GridSim ResGridlet represents a Gridlet submitted to GridResource for
  * processing. This class keeps track the time for all activities in the
@@ -25,8 +27,10 @@ package gridsim;
  * @since        GridSim Toolkit 1.0
  * @invariant $none
  */
-public class ResGridlet
+public class ResGridlet implements Serializable
 {
+    private static final long serialVersionUID = 3784834027437275740L;
+
     private Gridlet gridlet_;       // a Gridlet object
     private double arrivalTime_;    // Gridlet arrival time for the first time
     private double finishedTime_;   // estimation of Gridlet finished time
@@ -466,6 +470,17 @@ public class ResGridlet
         gridletFinishedSoFar_ += miLength;
     }
 
+    /**
+     * Gets the length of gridlet that has been completed so far
+     * @return gridlet length in Million Instructions (MI)
+     * @pre $none
+     * @post $result >= 0.0
+     * @since GridSim Toolkit 5.2
+     */
+    public double getGridletFinishedSoFar() {
+        return gridletFinishedSoFar_;
+    }
+
     /**
      * Gets arrival time of a gridlet
      * @return arrival time
@@ -8,78 +8,181 @@
 
 package gridsim;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.util.AbstractSequentialList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 
 
 /**
  * GridSim ResGridletList maintains a linked-list of Gridlet
+ * <p>
+ * Since GridSim 5.2, the list keeps its Gridlets in its own nodes, together
+ * with an index of these nodes by Gridlet Id and User Id. Hence, a Gridlet
+ * is found or removed in constant time regardless of the length of the
+ * list, e.g. when a Grid user asks for the status of many Gridlets on a
+ * busy resource. The Gridlets remain in the order they were added, hence
+ * a policy can still process them on a First Come First Serve basis.
+ * <p>
+ * Each node also has a slot number, which grows along the list, and the
+ * list counts the slots in use with a Fenwick tree. Thus, the position of
+ * a Gridlet, e.g. {@link #indexOf(int, int)}, and the Gridlet at a given
+ * position, e.g. {@link #get(int)}, are found in <tt>O(log n)</tt> time.
+ * The slots are numbered again when there is no free slot at the place of
+ * a new Gridlet, which mostly happens when one is inserted in the middle
+ * of the list.
+ * <p>
+ * Since GridSim 5.2, this class is no longer a <tt>LinkedList</tt>. It is a
+ * <tt>List</tt> whose every method works on these nodes, and it still has
+ * the methods of a <tt>LinkedList</tt> that work on both ends of the list,
+ * such as {@link #getFirst()} or {@link #pollLast()}. A <tt>null</tt>
+ * Gridlet can't be added.
  *
  * @author       Manzur Murshed and Rajkumar Buyya
  * @since        GridSim Toolkit 1.0
  * @invariant $none
  */
-public class ResGridletList extends LinkedList<ResGridlet>
+public class ResGridletList extends AbstractSequentialList<ResGridlet>
+        implements Cloneable, Serializable
 {
+    // the serial form differs from the one of the earlier releases, which
+    // were written by a LinkedList
+    private static final long serialVersionUID = 2L;
+
+    private static final int INITIAL_CAPACITY = 16;  // number of slots
+
+    private transient Node first_;      // first node of this list
+    private transient Node last_;       // last node of this list
+    private transient int size_;        // number of Gridlets
+
+    // Gridlet key -> first node with this key
+    private transient GridletIndex<Node> index_;
+
+    // number of Gridlets that have the same key as an indexed one
+    private transient int duplicates_;
+
+    // slot -> node, and a Fenwick tree that counts the slots in use
+    private transient Node[] slots_;
+    private transient int[] counts_;
+
+    /**
+     * Allocates a new empty list
+     * @pre $none
+     * @post $none
+     */
+    public ResGridletList()
+    {
+        super();
+        init();
+    }
+
+    /**
+     * A node of this list
+     */
+    private static final class Node
+    {
+        ResGridlet item;    // the Gridlet
+        Node prev;          // the previous node or null
+        Node next;          // the next node or null
+        int slot;           // the slot of this node
+
+        Node(ResGridlet item) {
+            this.item = item;
+        }
+    }
+
+    /**
+     * Gets the key of a Gridlet in the index. Both the Gridlet Id and the
+     * User Id are needed because each Grid User might have exactly the same
+     * Gridlet Id.
+     * @param gridletId  a Gridlet Id
+     * @param userId     an User Id
+     * @return the key
+     * @pre gridletId >= 0
+     * @pre userId >= 0
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    static long key(int gridletId, int userId) {
+        return ((long) userId << 32) | (gridletId & 0xFFFFFFFFL);
+    }
 
     /**
-     * Finds the index of a Gridlet inside the list. This method needs a 
-     * combination of Gridlet Id and User Id because each Grid User might 
+     * Finds the index of a Gridlet inside the list. This method needs a
+     * combination of Gridlet Id and User Id because each Grid User might
      * have exactly the same Gridlet Id.
      * @param gridletId  a Gridlet Id
      * @param userId an User Id
-     * @return the index in this list of the first occurrence of the 
-     * specified Gridlet, or <code>-1</code> if the list does not 
+     * @return the index in this list of the first occurrence of the
+     * specified Gridlet, or <code>-1</code> if the list does not
      * contain this Gridlet.
      * @pre gridletId >= 0
      * @pre userId >= 0
      * @post $none
      */
-    public int indexOf(int gridletId, int userId) {
-        ResGridlet gl = null;    
-        int i = 0;
-        
-        Iterator<ResGridlet> iter = super.iterator();
-        while (iter.hasNext()){
-        	gl = iter.next();
-
-        	if (gl.getGridletID()==gridletId && gl.getUserID()==userId) {
-        		return i;
-        	}
-
-        	i++;
+    public int indexOf(int gridletId, int userId)
+    {
+        Node node = first( key(gridletId, userId) );
+        if (node == null) {
+            return -1;
         }
-        
-        return -1;
+
+        return position(node);
     }
 
     /**
-     * Returns a given Gridlet. This method needs a combination of Gridlet 
+     * Returns a given Gridlet. This method needs a combination of Gridlet
      * Id and User Id because each Grid Users might have exactly same Gridlet Ids.
      * @param gridletId  a Gridlet Id
      * @param userId an User Id
-     * @return the Gridlet.
-     * @throws IndexOutOfBoundsException - if a Gridlet with specified 
+     * @return the Gridlet or <tt>null</tt> if a Gridlet with specified
      * Id and user id is not in the list.
      * @pre gridletId >= 0
      * @pre userId >= 0
      * @post $none
      */
-    public ResGridlet get(int gridletId, int userId) {
-        ResGridlet gl = null;
-        
-        Iterator<ResGridlet> iter = super.iterator();
-        while (iter.hasNext()){
-        	gl = iter.next();
+    public ResGridlet get(int gridletId, int userId)
+    {
+        Node node = first( key(gridletId, userId) );
+        if (node == null) {
+            return null;
+        }
+
+        return node.item;
+    }
 
-        	if (gl.getGridletID()==gridletId && gl.getUserID()==userId) {
-        		return gl;
-        	}
+    /**
+     * Removes a given Gridlet from this list. This method needs a
+     * combination of Gridlet Id and User Id because each Grid Users might
+     * have exactly same Gridlet Ids.
+     * @param gridletId  a Gridlet Id
+     * @param userId an User Id
+     * @return the removed Gridlet or <tt>null</tt> if a Gridlet with
+     * specified Id and user id is not in the list.
+     * @pre gridletId >= 0
+     * @pre userId >= 0
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    public ResGridlet remove(int gridletId, int userId)
+    {
+        Node node = first( key(gridletId, userId) );
+        if (node == null) {
+            return null;
         }
-        
-        return gl;
+
+        return unlink(node);
     }
-	
+
     /**
      * Move a ResGridlet object from this linked-list into a specified one
      * @param obj a ResGridlet object to be moved
@@ -93,7 +196,7 @@ public class ResGridletList extends LinkedList<ResGridlet>
     public boolean move(ResGridlet obj, ResGridletList list)
     {
         boolean success = false;
-        if (super.remove(obj))
+        if (this.remove(obj))
         {
             list.add(obj);
             success = true;
@@ -102,4 +205,1143 @@ public class ResGridletList extends LinkedList<ResGridlet>
         return success;
     }
 
-} 
+    /**
+     * Gets the number of Gridlets in this list
+     * @return the number of Gridlets
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int size() {
+        return size_;
+    }
+
+    /**
+     * Checks whether this list contains a given Gridlet
+     * @param obj  a ResGridlet object
+     * @return <tt>true</tt> if the Gridlet is in this list
+     * @pre $none
+     * @post $none
+     */
+    public boolean contains(Object obj) {
+        return find(obj) != null;
+    }
+
+    /**
+     * Gets the position of the first occurrence of a given Gridlet
+     * @param obj  a ResGridlet object
+     * @return the position or <tt>-1</tt> if the Gridlet is not in this list
+     * @pre $none
+     * @post $none
+     */
+    public int indexOf(Object obj)
+    {
+        Node node = find(obj);
+        if (node == null) {
+            return -1;
+        }
+
+        return position(node);
+    }
+
+    /**
+     * Gets the position of the last occurrence of a given Gridlet
+     * @param obj  a ResGridlet object
+     * @return the position or <tt>-1</tt> if the Gridlet is not in this list
+     * @pre $none
+     * @post $none
+     */
+    public int lastIndexOf(Object obj)
+    {
+        Node node = findLast(obj);
+        if (node == null) {
+            return -1;
+        }
+
+        return position(node);
+    }
+
+    /**
+     * Gets the Gridlet at a given position in this list
+     * @param index  the position
+     * @return the Gridlet
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @pre $none
+     * @post $none
+     */
+    public ResGridlet get(int index) {
+        return node(index).item;
+    }
+
+    /**
+     * Replaces the Gridlet at a given position in this list
+     * @param index  the position
+     * @param obj    a ResGridlet object
+     * @return the replaced Gridlet
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @pre obj != null
+     * @post $none
+     */
+    public ResGridlet set(int index, ResGridlet obj) {
+        return replace(node(index), obj);
+    }
+
+    /**
+     * Appends a Gridlet to the end of this list
+     * @param obj  a ResGridlet object
+     * @return <tt>true</tt>
+     * @pre obj != null
+     * @post $none
+     */
+    public boolean add(ResGridlet obj)
+    {
+        linkBefore(obj, null);
+        return true;
+    }
+
+    /**
+     * Inserts a Gridlet at a given position in this list
+     * @param index  the position
+     * @param obj    a ResGridlet object
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @pre obj != null
+     * @post $none
+     */
+    public void add(int index, ResGridlet obj)
+    {
+        checkPosition(index);
+        linkBefore(obj, (index == size_) ? null : node(index));
+    }
+
+    /**
+     * Appends all Gridlets of a collection to the end of this list
+     * @param c  a collection of ResGridlet objects
+     * @return <tt>true</tt> if this list has changed
+     * @pre c != null
+     * @post $none
+     */
+    public boolean addAll(Collection<? extends ResGridlet> c) {
+        return addAll(size_, c);
+    }
+
+    /**
+     * Inserts all Gridlets of a collection at a given position in this list
+     * @param index  the position
+     * @param c      a collection of ResGridlet objects
+     * @return <tt>true</tt> if this list has changed
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @pre c != null
+     * @post $none
+     */
+    public boolean addAll(int index, Collection<? extends ResGridlet> c)
+    {
+        checkPosition(index);
+        Object[] array = c.toArray();
+        if (array.length == 0) {
+            return false;
+        }
+
+        Node succ = (index == size_) ? null : node(index);
+        if (succ == null)
+        {
+            for (int i = 0; i < array.length; i++) {
+                linkBefore( (ResGridlet) array[i], null );
+            }
+        }
+        else
+        {
+            // number the slots once, rather than for each Gridlet
+            for (int i = 0; i < array.length; i++) {
+                link( (ResGridlet) array[i], succ );
+            }
+            renumber();
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes a given Gridlet from this list
+     * @param obj  a ResGridlet object
+     * @return <tt>true</tt> if the Gridlet was in this list
+     * @pre $none
+     * @post $none
+     */
+    public boolean remove(Object obj)
+    {
+        Node node = find(obj);
+        if (node == null) {
+            return false;
+        }
+
+        unlink(node);
+        return true;
+    }
+
+    /**
+     * Removes the Gridlet at a given position in this list
+     * @param index  the position
+     * @return the removed Gridlet
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @pre $none
+     * @post $none
+     */
+    public ResGridlet remove(int index) {
+        return unlink( node(index) );
+    }
+
+    /**
+     * Removes the first occurrence of a given Gridlet
+     * @param obj  a ResGridlet object
+     * @return <tt>true</tt> if the Gridlet was in this list
+     * @pre $none
+     * @post $none
+     */
+    public boolean removeFirstOccurrence(Object obj) {
+        return remove(obj);
+    }
+
+    /**
+     * Removes the last occurrence of a given Gridlet
+     * @param obj  a ResGridlet object
+     * @return <tt>true</tt> if the Gridlet was in this list
+     * @pre $none
+     * @post $none
+     */
+    public boolean removeLastOccurrence(Object obj)
+    {
+        Node node = findLast(obj);
+        if (node == null) {
+            return false;
+        }
+
+        unlink(node);
+        return true;
+    }
+
+    /**
+     * Removes all Gridlets from this list
+     * @pre $none
+     * @post size() == 0
+     */
+    public void clear()
+    {
+        // unlinks the nodes, as they may still be referenced by an iterator
+        Node node = first_;
+        while (node != null)
+        {
+            Node next = node.next;
+            node.item = null;
+            node.prev = null;
+            node.next = null;
+            node = next;
+        }
+
+        modCount++;
+        init();
+    }
+
+    /**
+     * Gets the first Gridlet of this list
+     * @return the first Gridlet
+     * @throws NoSuchElementException if this list is empty
+     * @pre $none
+     * @post $none
+     */
+    public ResGridlet getFirst()
+    {
+        if (first_ == null) {
+            throw new NoSuchElementException();
+        }
+        return first_.item;
+    }
+
+    /**
+     * Gets the last Gridlet of this list
+     * @return the last Gridlet
+     * @throws NoSuchElementException if this list is empty
+     * @pre $none
+     * @post $none
+     */
+    public ResGridlet getLast()
+    {
+        if (last_ == null) {
+            throw new NoSuchElementException();
+        }
+        return last_.item;
+    }
+
+    /**
+     * Removes the first Gridlet of this list
+     * @return the removed Gridlet
+     * @throws NoSuchElementException if this list is empty
+     * @pre $none
+     * @post $none
+     */
+    public ResGridlet removeFirst()
+    {
+        if (first_ == null) {
+            throw new NoSuchElementException();
+        }
+        return unlink(first_);
+    }
+
+    /**
+     * Removes the last Gridlet of this list
+     * @return the removed Gridlet
+     * @throws NoSuchElementException if this list is empty
+     * @pre $none
+     * @post $none
+     */
+    public ResGridlet removeLast()
+    {
+        if (last_ == null) {
+            throw new NoSuchElementException();
+        }
+        return unlink(last_);
+    }
+
+    /**
+     * Inserts a Gridlet at the beginning of this list
+     * @param obj  a ResGridlet object
+     * @pre obj != null
+     * @post $none
+     */
+    public void addFirst(ResGridlet obj) {
+        linkBefore(obj, first_);
+    }
+
+    /**
+     * Appends a Gridlet to the end of this list
+     * @param obj  a ResGridlet object
+     * @pre obj != null
+     * @post $none
+     */
+    public void addLast(ResGridlet obj) {
+        linkBefore(obj, null);
+    }
+
+    /**
+     * Gets the first Gridlet of this list, if any
+     * @return the first Gridlet or <tt>null</tt> if this list is empty
+     * @pre $none
+     * @post $none
+     */
+    public ResGridlet peek() {
+        return peekFirst();
+    }
+
+    /**
+     * Gets the first Gridlet of this list
+     * @return the first Gridlet
+     * @throws NoSuchElementException if this list is empty
+     * @pre $none
+     * @post $none
+     */
+    public ResGridlet element() {
+        return getFirst();
+    }
+
+    /**
+     * Removes the first Gridlet of this list, if any
+     * @return the removed Gridlet or <tt>null</tt> if this list is empty
+     * @pre $none
+     * @post $none
+     */
+    public ResGridlet poll() {
+        return pollFirst();
+    }
+
+    /**
+     * Removes the first Gridlet of this list
+     * @return the removed Gridlet
+     * @throws NoSuchElementException if this list is empty
+     * @pre $none
+     * @post $none
+     */
+    public ResGridlet remove() {
+        return removeFirst();
+    }
+
+    /**
+     * Appends a Gridlet to the end of this list
+     * @param obj  a ResGridlet object
+     * @return <tt>true</tt>
+     * @pre obj != null
+     * @post $none
+     */
+    public boolean offer(ResGridlet obj) {
+        return add(obj);
+    }
+
+    /**
+     * Inserts a Gridlet at the beginning of this list
+     * @param obj  a ResGridlet object
+     * @return <tt>true</tt>
+     * @pre obj != null
+     * @post $none
+     */
+    public boolean offerFirst(ResGridlet obj)
+    {
+        addFirst(obj);
+        return true;
+    }
+
+    /**
+     * Appends a Gridlet to the end of this list
+     * @param obj  a ResGridlet object
+     * @return <tt>true</tt>
+     * @pre obj != null
+     * @post $none
+     */
+    public boolean offerLast(ResGridlet obj)
+    {
+        addLast(obj);
+        return true;
+    }
+
+    /**
+     * Gets the first Gridlet of this list, if any
+     * @return the first Gridlet or <tt>null</tt> if this list is empty
+     * @pre $none
+     * @post $none
+     */
+    public ResGridlet peekFirst() {
+        return (first_ == null) ? null : first_.item;
+    }
+
+    /**
+     * Gets the last Gridlet of this list, if any
+     * @return the last Gridlet or <tt>null</tt> if this list is empty
+     * @pre $none
+     * @post $none
+     */
+    public ResGridlet peekLast() {
+        return (last_ == null) ? null : last_.item;
+    }
+
+    /**
+     * Removes the first Gridlet of this list, if any
+     * @return the removed Gridlet or <tt>null</tt> if this list is empty
+     * @pre $none
+     * @post $none
+     */
+    public ResGridlet pollFirst() {
+        return (first_ == null) ? null : unlink(first_);
+    }
+
+    /**
+     * Removes the last Gridlet of this list, if any
+     * @return the removed Gridlet or <tt>null</tt> if this list is empty
+     * @pre $none
+     * @post $none
+     */
+    public ResGridlet pollLast() {
+        return (last_ == null) ? null : unlink(last_);
+    }
+
+    /**
+     * Inserts a Gridlet at the beginning of this list
+     * @param obj  a ResGridlet object
+     * @pre obj != null
+     * @post $none
+     */
+    public void push(ResGridlet obj) {
+        addFirst(obj);
+    }
+
+    /**
+     * Removes the first Gridlet of this list
+     * @return the removed Gridlet
+     * @throws NoSuchElementException if this list is empty
+     * @pre $none
+     * @post $none
+     */
+    public ResGridlet pop() {
+        return removeFirst();
+    }
+
+    /**
+     * Gets an iterator over the Gridlets of this list
+     * @param index  the position of the first Gridlet to be returned
+     * @return the iterator
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @pre $none
+     * @post $result != null
+     */
+    public ListIterator<ResGridlet> listIterator(int index)
+    {
+        checkPosition(index);
+        return new Itr(index);
+    }
+
+    /**
+     * Gets an iterator over the Gridlets of this list in reverse order
+     * @return the iterator
+     * @pre $none
+     * @post $result != null
+     */
+    public Iterator<ResGridlet> descendingIterator()
+    {
+        final Itr iter = new Itr(size_);
+        return new Iterator<ResGridlet>() {
+            public boolean hasNext() {
+                return iter.hasPrevious();
+            }
+
+            public ResGridlet next() {
+                return iter.previous();
+            }
+
+            public void remove() {
+                iter.remove();
+            }
+        };
+    }
+
+    /**
+     * Gets a spliterator over the Gridlets of this list
+     * @return the spliterator
+     * @pre $none
+     * @post $result != null
+     */
+    public Spliterator<ResGridlet> spliterator() {
+        return Spliterators.spliterator(this, Spliterator.ORDERED);
+    }
+
+    /**
+     * Gets the Gridlets of this list in an array
+     * @return an array of ResGridlet objects
+     * @pre $none
+     * @post $result != null
+     */
+    public Object[] toArray()
+    {
+        Object[] array = new Object[size_];
+        int i = 0;
+        for (Node node = first_; node != null; node = node.next) {
+            array[i++] = node.item;
+        }
+        return array;
+    }
+
+    /**
+     * Gets the Gridlets of this list in an array of a given type
+     * @param array  the array to be filled if it is big enough
+     * @return an array of ResGridlet objects
+     * @pre array != null
+     * @post $result != null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(T[] array)
+    {
+        if (array.length < size_)
+        {
+            array = (T[]) Array.newInstance(
+                    array.getClass().getComponentType(), size_);
+        }
+
+        Object[] result = array;
+        int i = 0;
+        for (Node node = first_; node != null; node = node.next) {
+            result[i++] = node.item;
+        }
+
+        if (array.length > size_) {
+            array[size_] = null;
+        }
+        return array;
+    }
+
+    /**
+     * Returns a copy of this list with its own nodes. The Gridlets
+     * themselves are not copied.
+     * @return a copy of this list
+     * @pre $none
+     * @post $result != null
+     */
+    public Object clone()
+    {
+        ResGridletList list = null;
+        try {
+            list = (ResGridletList) super.clone();
+        }
+        catch (CloneNotSupportedException e) {
+            throw new InternalError();
+        }
+
+        // the copy shares no node with this list
+        list.modCount = 0;
+        list.init();
+        for (Node node = first_; node != null; node = node.next) {
+            list.linkBefore(node.item, null);
+        }
+        return list;
+    }
+
+    ////////////////////////// PRIVATE METHODS //////////////////////////
+
+    /**
+     * Empties this list, the index and the slots
+     * @pre $none
+     * @post $none
+     */
+    private void init()
+    {
+        first_ = null;
+        last_ = null;
+        size_ = 0;
+
+        index_ = new GridletIndex<Node>();
+        duplicates_ = 0;
+
+        slots_ = new Node[INITIAL_CAPACITY];
+        counts_ = new int[INITIAL_CAPACITY + 1];
+    }
+
+    /**
+     * Checks whether a position is valid for adding a Gridlet
+     * @param index  the position
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @pre $none
+     * @post $none
+     */
+    private void checkPosition(int index)
+    {
+        if (index < 0 || index > size_)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index +
+                    ", Size: " + size_);
+        }
+    }
+
+    /**
+     * Gets the node at a given position
+     * @param index  the position
+     * @return the node
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @pre $none
+     * @post $result != null
+     */
+    private Node node(int index)
+    {
+        if (index < 0 || index >= size_)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index +
+                    ", Size: " + size_);
+        }
+
+        if (index == 0) {
+            return first_;
+        }
+        else if (index == size_ - 1) {
+            return last_;
+        }
+
+        // finds the slot that has index slots in use before it
+        int slot = 0;
+        int rest = index;
+        for (int step = Integer.highestOneBit(slots_.length); step > 0;
+             step >>= 1)
+        {
+            if (slot + step <= slots_.length && counts_[slot + step] <= rest)
+            {
+                slot += step;
+                rest -= counts_[slot];
+            }
+        }
+
+        return slots_[slot];
+    }
+
+    /**
+     * Gets the position of a node in this list
+     * @param node  a node of this list
+     * @return the position
+     * @pre node != null
+     * @post $result >= 0
+     */
+    private int position(Node node)
+    {
+        // counts the slots in use before the one of this node
+        int count = 0;
+        for (int i = node.slot; i > 0; i -= i & -i) {
+            count += counts_[i];
+        }
+        return count;
+    }
+
+    /**
+     * Changes the count of a slot in the Fenwick tree
+     * @param slot   the slot
+     * @param delta  <tt>1</tt> if the slot is now used, or <tt>-1</tt>
+     * @pre slot >= 0
+     * @post $none
+     */
+    private void count(int slot, int delta)
+    {
+        for (int i = slot + 1; i <= slots_.length; i += i & -i) {
+            counts_[i] += delta;
+        }
+    }
+
+    /**
+     * Adds a Gridlet before a given node, or at the end of this list
+     * @param obj   a ResGridlet object
+     * @param succ  the node that follows the new one, or <tt>null</tt>
+     * @pre obj != null
+     * @post $none
+     */
+    private void linkBefore(ResGridlet obj, Node succ)
+    {
+        Node node = link(obj, succ);
+
+        // takes a free slot between its neighbours, i.e. the next slot for
+        // an appended Gridlet, so that the free slots remain for the others
+        int slot = slots_.length / 2;
+        if (node.prev == null && node.next != null) {
+            slot = node.next.slot - 1;
+        }
+        else if (node.prev != null && node.next == null) {
+            slot = node.prev.slot + 1;
+        }
+        else if (node.prev != null) {
+            slot = (node.prev.slot + node.next.slot) >>> 1;
+        }
+
+        if ( slot < 0 || slot >= slots_.length || slots_[slot] != null ||
+             (node.prev != null && slot <= node.prev.slot) )
+        {
+            renumber();
+            return;
+        }
+
+        node.slot = slot;
+        slots_[slot] = node;
+        count(slot, 1);
+    }
+
+    /**
+     * Links a new node before a given node, or at the end of this list,
+     * without giving it a slot
+     * @param obj   a ResGridlet object
+     * @param succ  the node that follows the new one, or <tt>null</tt>
+     * @return the new node
+     * @pre obj != null
+     * @post $none
+     */
+    private Node link(ResGridlet obj, Node succ)
+    {
+        if (obj == null) {
+            throw new NullPointerException("ResGridletList: null Gridlet");
+        }
+
+        Node node = new Node(obj);
+        node.next = succ;
+        node.prev = (succ == null) ? last_ : succ.prev;
+        if (node.prev == null) {
+            first_ = node;
+        }
+        else {
+            node.prev.next = node;
+        }
+
+        if (succ == null) {
+            last_ = node;
+        }
+        else {
+            succ.prev = node;
+        }
+
+        size_++;
+        modCount++;
+        index(node);
+        return node;
+    }
+
+    /**
+     * Removes a node from this list
+     * @param node  a node of this list
+     * @return the Gridlet of this node
+     * @pre node != null
+     * @post $none
+     */
+    private ResGridlet unlink(Node node)
+    {
+        ResGridlet obj = node.item;
+        if (node.prev == null) {
+            first_ = node.next;
+        }
+        else {
+            node.prev.next = node.next;
+        }
+
+        if (node.next == null) {
+            last_ = node.prev;
+        }
+        else {
+            node.next.prev = node.prev;
+        }
+
+        size_--;
+        modCount++;
+        unindex(node);
+        slots_[node.slot] = null;
+        count(node.slot, -1);
+
+        node.item = null;
+        node.prev = null;
+        node.next = null;
+        return obj;
+    }
+
+    /**
+     * Replaces the Gridlet of a node
+     * @param node  a node of this list
+     * @param obj   a ResGridlet object
+     * @return the replaced Gridlet
+     * @pre node != null
+     * @post $none
+     */
+    private ResGridlet replace(Node node, ResGridlet obj)
+    {
+        if (obj == null) {
+            throw new NullPointerException("ResGridletList: null Gridlet");
+        }
+
+        ResGridlet old = node.item;
+        unindex(node);
+        node.item = obj;
+        index(node);
+        return old;
+    }
+
+    /**
+     * Gives the nodes new slots in a table of twice their number, with
+     * the free slots on both ends
+     * @pre $none
+     * @post $none
+     */
+    private void renumber()
+    {
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < size_ * 2) {
+            capacity *= 2;
+        }
+
+        slots_ = new Node[capacity];
+        counts_ = new int[capacity + 1];
+
+        int slot = (capacity - size_) / 2;
+        for (Node node = first_; node != null; node = node.next)
+        {
+            node.slot = slot;
+            slots_[slot] = node;
+            counts_[slot + 1] = 1;
+            slot++;
+        }
+
+        // builds the Fenwick tree from the counts of each slot
+        for (int i = 1; i <= capacity; i++)
+        {
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                counts_[parent] += counts_[i];
+            }
+        }
+    }
+
+    /**
+     * Finds the first node with a given key
+     * @param key  the key
+     * @return the node or <tt>null</tt> if not found
+     * @pre $none
+     * @post $none
+     */
+    private Node first(long key)
+    {
+        Node first = index_.get(key);
+        if (first == null) {
+            return null;
+        }
+
+        // another Gridlet with the same Ids may come first
+        if (duplicates_ > 0)
+        {
+            for (Node node = first_; node != null; node = node.next)
+            {
+                if (key(node.item.getGridletID(), node.item.getUserID()) == key) {
+                    return node;
+                }
+            }
+        }
+
+        return first;
+    }
+
+    /**
+     * Finds the first node of a given Gridlet
+     * @param obj  a ResGridlet object
+     * @return the node or <tt>null</tt> if not found
+     * @pre $none
+     * @post $none
+     */
+    private Node find(Object obj)
+    {
+        if ( !(obj instanceof ResGridlet) ) {
+            return null;
+        }
+
+        ResGridlet rgl = (ResGridlet) obj;
+        Node first = index_.get( key(rgl.getGridletID(), rgl.getUserID()) );
+        if (first == null) {
+            return null;
+        }
+
+        if (duplicates_ == 0) {
+            return (first.item == obj) ? first : null;
+        }
+
+        for (Node node = first_; node != null; node = node.next)
+        {
+            if (node.item == obj) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the last node of a given Gridlet
+     * @param obj  a ResGridlet object
+     * @return the node or <tt>null</tt> if not found
+     * @pre $none
+     * @post $none
+     */
+    private Node findLast(Object obj)
+    {
+        if (duplicates_ == 0) {
+            return find(obj);
+        }
+
+        for (Node node = last_; node != null; node = node.prev)
+        {
+            if (node.item == obj) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds a node into the index
+     * @param node  a node of this list
+     * @pre node != null
+     * @post $none
+     */
+    private void index(Node node)
+    {
+        long key = key( node.item.getGridletID(), node.item.getUserID() );
+        if (index_.get(key) != null)
+        {
+            duplicates_++;
+            return;
+        }
+
+        index_.put(key, node);
+    }
+
+    /**
+     * Removes a node from the index
+     * @param node  a node, which is no longer in this list
+     * @pre node != null
+     * @post $none
+     */
+    private void unindex(Node node)
+    {
+        long key = key( node.item.getGridletID(), node.item.getUserID() );
+        Node first = index_.get(key);
+        if (first == null) {
+            return;
+        }
+
+        if (first != node)
+        {
+            duplicates_--;
+            return;
+        }
+
+        // index another Gridlet with the same Ids, if any
+        if (duplicates_ > 0)
+        {
+            for (Node other = first_; other != null; other = other.next)
+            {
+                if (other != node && key(other.item.getGridletID(),
+                                         other.item.getUserID()) == key)
+                {
+                    index_.put(key, other);
+                    duplicates_--;
+                    return;
+                }
+            }
+        }
+
+        index_.remove(key);
+    }
+
+    /**
+     * Writes the number of Gridlets, then each Gridlet in order
+     * @param out  the stream
+     * @throws IOException  if the list can't be written
+     * @pre out != null
+     * @post $none
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException
+    {
+        out.defaultWriteObject();
+        out.writeInt(size_);
+        for (Node node = first_; node != null; node = node.next) {
+            out.writeObject(node.item);
+        }
+    }
+
+    /**
+     * Reads the Gridlets written by {@link #writeObject(ObjectOutputStream)}
+     * into the nodes of this list
+     * @param in  the stream
+     * @throws IOException  if the list can't be read
+     * @throws ClassNotFoundException  if a saved class is not found
+     * @pre in != null
+     * @post $none
+     */
+    private void readObject(ObjectInputStream in)
+            throws IOException, ClassNotFoundException
+    {
+        in.defaultReadObject();
+        init();
+
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            linkBefore( (ResGridlet) in.readObject(), null );
+        }
+    }
+
+    /**
+     * Iterates over the Gridlets of this list
+     */
+    private final class Itr implements ListIterator<ResGridlet>
+    {
+        private Node next_;             // the node returned by next()
+        private Node lastReturned_;     // the node to remove or set
+        private int nextIndex_;         // the position of next_
+        private int expectedModCount_;  // to find changes of the list
+
+        /**
+         * Allocates a new iterator
+         * @param index  the position of the first Gridlet to be returned
+         * @pre index >= 0 && index <= size()
+         * @post $none
+         */
+        Itr(int index)
+        {
+            next_ = (index == size_) ? null : node(index);
+            lastReturned_ = null;
+            nextIndex_ = index;
+            expectedModCount_ = modCount;
+        }
+
+        public boolean hasNext() {
+            return nextIndex_ < size_;
+        }
+
+        public ResGridlet next()
+        {
+            checkForChange();
+            if ( !hasNext() ) {
+                throw new NoSuchElementException();
+            }
+
+            lastReturned_ = next_;
+            next_ = next_.next;
+            nextIndex_++;
+            return lastReturned_.item;
+        }
+
+        public boolean hasPrevious() {
+            return nextIndex_ > 0;
+        }
+
+        public ResGridlet previous()
+        {
+            checkForChange();
+            if ( !hasPrevious() ) {
+                throw new NoSuchElementException();
+            }
+
+            next_ = (next_ == null) ? last_ : next_.prev;
+            lastReturned_ = next_;
+            nextIndex_--;
+            return lastReturned_.item;
+        }
+
+        public int nextIndex() {
+            return nextIndex_;
+        }
+
+        public int previousIndex() {
+            return nextIndex_ - 1;
+        }
+
+        public void remove()
+        {
+            checkForChange();
+            if (lastReturned_ == null) {
+                throw new IllegalStateException();
+            }
+
+            Node lastNext = lastReturned_.next;
+            unlink(lastReturned_);
+            if (next_ == lastReturned_) {
+                next_ = lastNext;
+            }
+            else {
+                nextIndex_--;
+            }
+
+            lastReturned_ = null;
+            expectedModCount_++;
+        }
+
+        public void set(ResGridlet obj)
+        {
+            if (lastReturned_ == null) {
+                throw new IllegalStateException();
+            }
+
+            checkForChange();
+            replace(lastReturned_, obj);
+        }
+
+        public void add(ResGridlet obj)
+        {
+            checkForChange();
+            lastReturned_ = null;
+            linkBefore(obj, next_);
+            nextIndex_++;
+            expectedModCount_ = modCount;
+        }
+
+        /**
+         * Checks that the list has only been changed by this iterator
+         * @throws ConcurrentModificationException if it has not
+         * @pre $none
+         * @post $none
+         */
+        private void checkForChange()
+        {
+            if (modCount != expectedModCount_) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+} // end class
@@ -8,6 +8,7 @@
 
 package gridsim;
 
+import java.io.Serializable;
 import java.util.*;
 import eduni.simjava.Sim_system;
 
@@ -20,16 +21,31 @@ import eduni.simjava.Sim_system;
  * @since        GridSim Toolkit 1.0
  * @invariant $none
  */
-public class ResourceCalendar
+public class ResourceCalendar implements Serializable
 {
+    private static final long serialVersionUID = 4316543926103829338L;
+
     private Random random_;
     private double timeZone_;
     private double[] weekdayLoad_;  // load during the day
     private double[] holidayLoad_;  // load during holidays, including weekends
     private LinkedList weekendList_;
     private LinkedList holidayList_;
+    private boolean constant_;      // whether the load never changes
     private final int TIME = 60;
 
+    // the calendar compiled into one entry per local hour of the simulation
+    private transient Calendar start_;   // the simulation start it is for
+    private transient long startMillis_;
+    private transient int first_;        // seconds until the second entry
+    private transient int size_;         // number of entries compiled
+    private transient double[] load_;    // load of every entry
+    private transient boolean[] holiday_;   // whether an entry is a holiday
+
+    private static final int HOUR_SEC = 3600;   // seconds per entry
+    private static final int WEEK = 7 * 24;     // entries compiled at once
+    private static final int YEAR = 366 * 24;   // lookahead for a change
+
 
     // LinkedList weekend is a list of 0 = Sunday, 1 = Monday, 2 = Tuesday,
     // 3 = Wednesday, 4 = Thursday, 5 = Friday, 6 = Saturday
@@ -175,6 +191,188 @@ public class ResourceCalendar
 
             }
         } // end if
+
+        // if all hours have the same load, then there is no need to find
+        // out when it changes
+        constant_ = true;
+        for (int i = 0; i < HOUR; i++)
+        {
+            if (weekdayLoad_[i] != weekdayLoad_[0] ||
+                holidayLoad_[i] != weekdayLoad_[0])
+            {
+                constant_ = false;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Compiles this calendar for the simulation start date, so that the load
+     * at a simulation time can be found without using a Calendar object.
+     * The load changes only at the start of a local hour. Hence, the
+     * simulation time is split into one entry per local hour, which holds
+     * the load and whether it is a holiday. Entries are added a week at a
+     * time as the simulation clock passes them.
+     * <p>
+     * This method is called by {@link gridsim.AllocPolicy} when a resource
+     * is initialized. It is called again on demand if the simulation start
+     * date has changed since, e.g. by calling <tt>GridSim.init()</tt> for
+     * another simulation.
+     *
+     * @throws NullPointerException if <tt>GridSim.init()</tt> has not been
+     *              called before
+     * @see gridsim.GridSim#init(int, Calendar, boolean, String[], String[],
+     *          String)
+     * @pre $none
+     * @post $none
+     */
+    public synchronized void compile() throws NullPointerException
+    {
+        Calendar start = SimulationContext.current().calendar_;
+        if (start == null)
+        {
+            throw new NullPointerException(
+                    "ResourceCalendar.compile() : Error - " +
+                    "Need to call GridSim.init() first before using any of " +
+                    "GridSim entities.");
+        }
+
+        start_ = start;
+        startMillis_ = start.getTimeInMillis();
+
+        // the first entry lasts until the start of the next local hour
+        Calendar calendar = getCalendarAtSimulationTime(0);
+        long millis = calendar.get(Calendar.MINUTE) * TIME * 1000L +
+                      calendar.get(Calendar.SECOND) * 1000L +
+                      calendar.get(Calendar.MILLISECOND);
+        first_ = (int) Math.ceil( (HOUR_SEC * 1000L - millis) / 1000.0 );
+
+        size_ = 0;
+        load_ = new double[WEEK];
+        holiday_ = new boolean[WEEK];
+        extend(WEEK);
+    }
+
+    /**
+     * Adds entries to the compiled calendar until it has a given number of
+     * entries
+     * @param size  the number of entries needed
+     * @pre size > 0
+     * @post $none
+     */
+    private synchronized void extend(int size)
+    {
+        if (size <= size_) {
+            return;
+        }
+
+        if (size > load_.length)
+        {
+            int capacity = Math.max(size, load_.length * 2);
+            double[] load = new double[capacity];
+            boolean[] holiday = new boolean[capacity];
+            System.arraycopy(load_, 0, load, 0, size_);
+            System.arraycopy(holiday_, 0, holiday, 0, size_);
+            load_ = load;
+            holiday_ = holiday;
+        }
+
+        Calendar calendar = getCalendarAtSimulationTime(0);
+        long base = calendar.getTimeInMillis();
+        for (int i = size_; i < size; i++)
+        {
+            calendar.setTimeInMillis( base + (long) (getEntryTime(i) * 1000) );
+            boolean holiday = isHoliday(calendar);
+
+            // NOTE: getCurrentLoad() has always indexed the loads with the
+            // Calendar.HOUR_OF_DAY field number rather than the local hour.
+            // This is kept so that existing simulations give the same results
+            int hour = Calendar.HOUR_OF_DAY;
+
+            holiday_[i] = holiday;
+            load_[i] = holiday ? holidayLoad_[hour] : weekdayLoad_[hour];
+        }
+
+        size_ = size;
+    }
+
+    /**
+     * Gets the entry of the compiled calendar for a given simulation time,
+     * and compiles more entries if needed
+     * @param simulationTime    the simulation time
+     * @return the entry index
+     * @throws NullPointerException if <tt>GridSim.init()</tt> has not been
+     *              called before
+     * @pre simulationTime >= 0.0
+     * @post $result >= 0
+     */
+    private int getEntry(double simulationTime) throws NullPointerException
+    {
+        Calendar start = SimulationContext.current().calendar_;
+        if (start == null || start != start_ ||
+            start.getTimeInMillis() != startMillis_)
+        {
+            compile();
+        }
+
+        // as the Calendar objects, ignore the fraction of a second
+        long second = (long) simulationTime;
+        int index = 0;
+        if (second >= first_) {
+            index = (int) ( (second - first_) / HOUR_SEC ) + 1;
+        }
+
+        if (index >= size_) {
+            extend(index + WEEK);
+        }
+
+        return index;
+    }
+
+    /**
+     * Gets the simulation time when an entry of the compiled calendar starts
+     * @param index  the entry index
+     * @return the simulation time
+     * @pre index >= 0
+     * @post $result >= 0.0
+     */
+    private double getEntryTime(int index)
+    {
+        if (index == 0) {
+            return 0.0;
+        }
+
+        return first_ + (index - 1) * (double) HOUR_SEC;
+    }
+
+    /**
+     * Checks whether the day of a Calendar object is a weekend or a holiday
+     * @param calendar  a Calendar object
+     * @return <tt>true</tt> if it is a holiday, otherwise returns
+     *         <tt>false</tt>
+     * @pre calendar != null
+     * @post $none
+     */
+    private boolean isHoliday(Calendar calendar)
+    {
+        int day_of_year = calendar.get(Calendar.DAY_OF_YEAR);
+        int day_of_week = calendar.get(Calendar.DAY_OF_WEEK);
+
+        if (holidayList_ != null)
+        {
+            if ( holidayList_.contains(Integer.valueOf(day_of_year)) ) {
+                return true;
+            }
+        }
+
+        if (weekendList_ != null)
+        {
+            if ( weekendList_.contains(Integer.valueOf(day_of_week)) ) {
+                return true;
+            }
+        }
+
+        return false;
     }
 
     /**
@@ -224,7 +422,7 @@ public class ResourceCalendar
      * @post $result != null
      */
     public Calendar getCurrentCalendar() throws NullPointerException {
-        return this.getCalendarAtSimulationTime( Sim_system.clock() );
+        return this.getCalendarAtSimulationTime( GridSim.clock() );
     }
 
     /**
@@ -301,25 +499,8 @@ public class ResourceCalendar
      */
     public boolean isHoliday() throws NullPointerException
     {
-        Calendar myCalendar = getCurrentCalendar();
-        int day_of_year = myCalendar.get(Calendar.DAY_OF_YEAR);
-        int day_of_week = myCalendar.get(Calendar.DAY_OF_WEEK);
-
-        if (holidayList_ != null)
-        {
-            if ( holidayList_.contains(new Integer(day_of_year)) ) {
-                return true;
-            }
-        }
-
-        if (weekendList_ != null)
-        {
-            if ( weekendList_.contains(new Integer(day_of_week)) ) {
-                return true;
-            }
-        }
-
-        return false;
+        int index = getEntry( GridSim.clock() );
+        return holiday_[index];
     }
 
     /**
@@ -344,14 +525,14 @@ public class ResourceCalendar
 
         if (holidayList_ != null)
         {
-            if ( holidayList_.contains(new Integer(day_of_year)) ) {
+            if ( holidayList_.contains(Integer.valueOf(day_of_year)) ) {
                 return true;
             }
         }
 
         if (weekendList_ != null)
         {
-            if (weekendList_.contains(new Integer(day_of_week)) ) {
+            if (weekendList_.contains(Integer.valueOf(day_of_week)) ) {
                 return true;
             }
         }
@@ -369,15 +550,71 @@ public class ResourceCalendar
      * @pre $none
      * @post $result >= 0.0
      */
-    public double getCurrentLoad() throws NullPointerException
+    public double getCurrentLoad() throws NullPointerException {
+        return getLoad( GridSim.clock() );
+    }
+
+    /**
+     * Gets the load at a given simulation time
+     * @param simulationTime    the simulation time
+     * @return the load
+     * @throws NullPointerException if <tt>GridSim.init()</tt> has not been
+     *              called before
+     * @see gridsim.GridSim#init(int, Calendar, boolean, String[], String[],
+     *          String)
+     * @pre simulationTime >= 0.0
+     * @post $result >= 0.0
+     */
+    public double getLoad(double simulationTime) throws NullPointerException
     {
-        if ( isHoliday() ) {
-            return holidayLoad_[getCurrentCalendar().HOUR_OF_DAY];
-        }
-        else {
-            return weekdayLoad_[getCurrentCalendar().HOUR_OF_DAY];
+        if (constant_) {
+            return weekdayLoad_[0];
         }
+
+        int index = getEntry(simulationTime);
+        return load_[index];
     }
 
-} 
+    /**
+     * Gets the simulation time when the load changes next after a given
+     * simulation time. If the load stays the same for a whole year, then
+     * the time a year ahead is returned instead. An allocation policy
+     * should forecast its Gridlets again at this time, since they are
+     * processed at a different rate from then on.
+     * @param simulationTime    the simulation time
+     * @return the simulation time of the next change, or <tt>-1</tt> if
+     *         the load never changes
+     * @throws NullPointerException if <tt>GridSim.init()</tt> has not been
+     *              called before
+     * @see gridsim.GridSim#init(int, Calendar, boolean, String[], String[],
+     *          String)
+     * @pre simulationTime >= 0.0
+     * @post $result == -1 || $result > simulationTime
+     */
+    public double getNextLoadChange(double simulationTime)
+                throws NullPointerException
+    {
+        if (constant_) {
+            return -1;
+        }
+
+        int index = getEntry(simulationTime);
+        double load = load_[index];
+        int last = index + YEAR;
+
+        int i = index + 1;
+        for (; i < last; i++)
+        {
+            if (i >= size_) {
+                extend(i + WEEK);
+            }
+
+            if (load_[i] != load) {
+                break;
+            }
+        }
+
+        return getEntryTime(i);
+    }
 
+}
@@ -8,18 +8,27 @@
 
 package gridsim;
 
+import java.io.Serializable;
+
 /**
  * GridSim ResourceCharacteristics class represents static properties of a
  * resource such as resource architecture, Operating System (OS), management
  * policy (time- or space-shared), cost and time zone at which the resource
  * is located along resource configuration.
+ * <p>
+ * Queries on free PEs, such as {@link #getMachineWithFreePE(int)}, are
+ * answered by the indices kept in {@link gridsim.MachineList} and
+ * {@link gridsim.PEList}, hence the status of a PE should be changed through
+ * {@link #setStatusPE(boolean, int, int)} or the machine list.
  *
  * @author       Manzur Murshed and Rajkumar Buyya
  * @since        GridSim Toolkit 1.0
  * @invariant $none
  */
-public class ResourceCharacteristics
+public class ResourceCharacteristics implements Serializable
 {
+    private static final long serialVersionUID = -7382516284517215881L;
+
     private int id_;     // resource id--setup when Resource is created
     private String architecture_;
     private String OS_;
@@ -0,0 +1,373 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim;
+
+import eduni.simjava.Sim_entity;
+import gridsim.kernel.Checkpointable;
+import gridsim.kernel.EventLoopKernel;
+import gridsim.kernel.FutureEventList;
+import gridsim.kernel.SimulationMonitor;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Calendar;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SimulationContext holds the state of one simulation that used to be kept
+ * in static attributes, i.e. the ids of the GIS, statistics and shutdown
+ * entities, the simulation calendar, the network, kernel and future event
+ * list types, and the random number generator and factors of
+ * {@link GridSimRandom}.
+ * <p>
+ * The static methods of {@link GridSim} and {@link GridSimRandom} work on
+ * the context of the current thread. By default, this is the default
+ * context, so existing simulations behave exactly as before. A new context
+ * allows several simulations to be built and run at the same time in one
+ * JVM, e.g. on a thread pool:
+ * <pre>
+ *     final SimulationContext context = new SimulationContext();
+ *     executor.submit(new Runnable() {
+ *         public void run() {
+ *             context.run(new Runnable() {
+ *                 public void run() {
+ *                     GridSim.init(numUser, calendar, false);
+ *                     // create resources, users and links ...
+ *                     GridSim.startGridSimulation();
+ *                 }
+ *             });
+ *         }
+ *     });
+ * </pre>
+ * Every thread started during {@link #run(Runnable)}, including the
+ * threads of the simulation kernel, belongs to the same context.
+ * <p>
+ * A new context is always run by an isolated
+ * {@link gridsim.kernel.EventLoopKernel}, since SimJava can only run one
+ * simulation at a time. Its entities are therefore kept apart from SimJava,
+ * so they should be looked up with {@link GridSim#getEntityId(String)} and
+ * {@link GridSim#getEntity(int)} instead of <tt>Sim_system</tt>, and their
+ * <tt>body()</tt> should loop on {@link GridSim#isSimulationRunning()}
+ * rather than <tt>Sim_system.running()</tt>. The default context must not
+ * run a simulation at the same time as other contexts.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.GridSim
+ * @see gridsim.GridSimRandom
+ * @see gridsim.kernel.EventLoopKernel#EventLoopKernel(boolean, boolean)
+ * @invariant $none
+ */
+public final class SimulationContext
+{
+    private static final SimulationContext default_ =
+            new SimulationContext(false);
+
+    // the context of the current thread, or null for the default context
+    private static final InheritableThreadLocal<SimulationContext> current_ =
+            new InheritableThreadLocal<SimulationContext>();
+
+    // true once a context other than the default one has been used
+    private static volatile boolean used_ = false;
+
+    private final boolean isolated_;    // false for the default context
+
+    // NOTE: the attributes below are managed by GridSim and GridSimRandom
+    int gisID_;                     // id of GIS entity
+    int shutdownID_;                // id of GridSimShutdown entity
+    int statsID_;                   // id of GridStatistics entity
+    Calendar calendar_;             // a Calendar object
+    GridInformationService gis_;    // a GIS object
+    boolean traceFlag_;             // trace events or other activities
+    int kernelType_;                // the simulation kernel to be used
+    EventLoopKernel kernel_;        // null if run by SimJava
+    int kernelPartitions_;          // 0 means one per processor
+    int felType_;                   // the future event list of the kernel
+    EntityRegistry registry_;       // entities of the current simulation
+    boolean monitored_;             // publish a SimulationMonitor
+    String monitorFile_;            // periodic dump of the monitor, or null
+    long monitorPeriod_;            // time between two dumps, in ms
+    SimulationMonitor monitor_;     // monitor of the current kernel, or null
+    GridletHistory history_;        // history of the Gridlets, or null
+    int historyCapacity_;           // records kept in memory, 0 means all
+    String historyFile_;            // file for older records, or null
+
+    // Gridlets moving between GridResources -> their destination
+    ConcurrentHashMap<Long, Integer> migrations_;
+    private int networkType_;       // the network type to be used
+    boolean packetTrains_;          // queue large transfers as trains
+    boolean staticRoutes_;          // compute the routes of a topology
+
+    // the state of GridSimRandom
+    Random random_;
+    double lessFactorIO_;
+    double moreFactorIO_;
+    double lessFactorExec_;
+    double moreFactorExec_;
+
+    /**
+     * Allocates a new context, which runs its simulation on an isolated
+     * event-loop kernel
+     * @pre $none
+     * @post $none
+     */
+    public SimulationContext() {
+        this(true);
+    }
+
+    /**
+     * Allocates a new context
+     * @param isolated  <tt>false</tt> for the default context
+     * @pre $none
+     * @post $none
+     */
+    private SimulationContext(boolean isolated)
+    {
+        isolated_ = isolated;
+        gisID_ = -1;
+        shutdownID_ = -1;
+        statsID_ = -1;
+        calendar_ = null;
+        gis_ = null;
+        traceFlag_ = false;
+        kernel_ = null;
+        kernelPartitions_ = 0;
+        felType_ = FutureEventList.BINARY_HEAP;
+        registry_ = new EntityRegistry( new Sim_entity[0] );
+        monitored_ = false;
+        monitorFile_ = null;
+        monitorPeriod_ = 0;
+        monitor_ = null;
+        history_ = null;
+        historyCapacity_ = 0;
+        historyFile_ = null;
+        migrations_ = new ConcurrentHashMap<Long, Integer>();
+        networkType_ = GridSimTags.NET_PACKET_LEVEL;
+        packetTrains_ = true;
+        staticRoutes_ = false;
+
+        // a new context can not run on SimJava
+        kernelType_ = GridSimTags.KERNEL_SIMJAVA;
+        if (isolated) {
+            kernelType_ = GridSimTags.KERNEL_EVENT_LOOP;
+        }
+
+        random_ = new Random();
+        lessFactorIO_ = 0.0;
+        moreFactorIO_ = 0.0;
+        lessFactorExec_ = 0.0;
+        moreFactorExec_ = 0.0;
+    }
+
+    /**
+     * Gets the state of {@link GridSimRandom} in this context, so that it is
+     * saved into snapshots and restored from them, together with the
+     * Gridlets moving between GridResources
+     * @return the state of the random number generator and its factors
+     * @pre $none
+     * @post $result != null
+     */
+    Checkpointable getSnapshotState()
+    {
+        return new Checkpointable() {
+            public void saveState(ObjectOutputStream out) throws IOException
+            {
+                out.writeObject(random_);
+                out.writeDouble(lessFactorIO_);
+                out.writeDouble(moreFactorIO_);
+                out.writeDouble(lessFactorExec_);
+                out.writeDouble(moreFactorExec_);
+
+                // each Gridlet in flight and its destination
+                out.writeInt( migrations_.size() );
+                for (Map.Entry<Long, Integer> entry : migrations_.entrySet())
+                {
+                    out.writeLong( entry.getKey().longValue() );
+                    out.writeInt( entry.getValue().intValue() );
+                }
+            }
+
+            public void restoreState(ObjectInputStream in)
+                    throws IOException, ClassNotFoundException
+            {
+                random_ = (Random) in.readObject();
+                lessFactorIO_ = in.readDouble();
+                moreFactorIO_ = in.readDouble();
+                lessFactorExec_ = in.readDouble();
+                moreFactorExec_ = in.readDouble();
+
+                migrations_ = new ConcurrentHashMap<Long, Integer>();
+                int count = in.readInt();
+                for (int i = 0; i < count; i++)
+                {
+                    Long key = Long.valueOf( in.readLong() );
+                    migrations_.put( key, Integer.valueOf(in.readInt()) );
+                }
+            }
+        };
+    }
+
+    /**
+     * Gets the default context, which is used by threads that do not run
+     * inside another context
+     * @return the default context
+     * @pre $none
+     * @post $result != null
+     */
+    public static SimulationContext getDefault() {
+        return default_;
+    }
+
+    /**
+     * Gets the context of the current thread
+     * @return the current context
+     * @pre $none
+     * @post $result != null
+     */
+    public static SimulationContext current()
+    {
+        if (!used_) {
+            return default_;
+        }
+
+        SimulationContext context = current_.get();
+        return (context != null) ? context : default_;
+    }
+
+    /**
+     * Checks whether this context is kept apart from other simulations
+     * @return <tt>false</tt> for the default context, <tt>true</tt> otherwise
+     * @pre $none
+     * @post $none
+     */
+    public boolean isIsolated() {
+        return isolated_;
+    }
+
+    /**
+     * Runs a task inside this context. All static methods of
+     * {@link GridSim} and {@link GridSimRandom} called by the task, or by
+     * the threads it starts, work on this context. Afterwards, the current
+     * thread returns to its previous context.
+     * @param task  the task, e.g. a whole simulation
+     * @pre task != null
+     * @post $none
+     */
+    public void run(Runnable task)
+    {
+        SimulationContext previous = enter();
+        EventLoopKernel previousKernel = EventLoopKernel.getThreadActive();
+        EventLoopKernel.setThreadActive(isolated_ ? kernel_ : null);
+        try {
+            task.run();
+        }
+        finally
+        {
+            EventLoopKernel.setThreadActive(previousKernel);
+            leave(previous);
+        }
+    }
+
+    /**
+     * Runs a task inside this context and returns its result
+     * @param task  the task, e.g. a whole simulation
+     * @return the result of the task
+     * @throws Exception  if the task fails
+     * @see #run(Runnable)
+     * @pre task != null
+     * @post $none
+     */
+    public <T> T call(Callable<T> task) throws Exception
+    {
+        SimulationContext previous = enter();
+        EventLoopKernel previousKernel = EventLoopKernel.getThreadActive();
+        EventLoopKernel.setThreadActive(isolated_ ? kernel_ : null);
+        try {
+            return task.call();
+        }
+        finally
+        {
+            EventLoopKernel.setThreadActive(previousKernel);
+            leave(previous);
+        }
+    }
+
+    /**
+     * Makes this context the one of the current thread
+     * @return the previous context of the current thread, or <tt>null</tt>
+     * @pre $none
+     * @post $none
+     */
+    private SimulationContext enter()
+    {
+        used_ = true;
+        SimulationContext previous = current_.get();
+        current_.set(this);
+        return previous;
+    }
+
+    /**
+     * Returns the current thread to its previous context
+     * @param previous  the previous context, or <tt>null</tt>
+     * @pre $none
+     * @post $none
+     */
+    private void leave(SimulationContext previous)
+    {
+        if (previous == null) {
+            current_.remove();
+        }
+        else {
+            current_.set(previous);
+        }
+    }
+
+    /**
+     * Gets the simulation kernel of this context
+     * @return the event-loop kernel, or <tt>null</tt> if the simulation is
+     *         run by SimJava or GridSim hasn't been initialized
+     * @pre $none
+     * @post $none
+     */
+    public EventLoopKernel getKernel() {
+        return kernel_;
+    }
+
+    /**
+     * Gets the network type of this context. The default context uses
+     * {@link GridSimCore#NETWORK_TYPE}.
+     * @return the network type
+     * @pre $none
+     * @post $none
+     */
+    int getNetworkType()
+    {
+        if (!isolated_) {
+            return GridSimCore.NETWORK_TYPE;
+        }
+        return networkType_;
+    }
+
+    /**
+     * Sets the network type of this context
+     * @param networkType  the network type
+     * @pre $none
+     * @post $none
+     */
+    void setNetworkType(int networkType)
+    {
+        if (!isolated_) {
+            GridSimCore.NETWORK_TYPE = networkType;
+        }
+        networkType_ = networkType;
+    }
+
+} // end class
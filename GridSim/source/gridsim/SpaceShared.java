@@ -10,7 +10,11 @@ package gridsim;
 
 import java.util.Iterator;
 import eduni.simjava.Sim_event;
-import eduni.simjava.Sim_system;
+import gridsim.kernel.Checkpointable;
+import gridsim.kernel.EventDriven;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 
 
 /**
@@ -28,13 +32,21 @@ import eduni.simjava.Sim_system;
  * @see gridsim.ResourceCharacteristics
  * @invariant $none
  */
-class SpaceShared extends AllocPolicy
+class SpaceShared extends AllocPolicy implements EventDriven, Checkpointable
 {
+    // the longest time between two updates while Gridlets are in execution
+    private static final double HOURLY_INTERRUPT = 60.0 * 60.0;
+
+    // how much earlier than forecast a Gridlet might finish due to rounding
+    private static final double FORECAST_MARGIN = 1e-6;
+
     private ResGridletList gridletQueueList_;     // Queue list
     private ResGridletList gridletInExecList_;    // Execution list
     private ResGridletList gridletPausedList_;    // Pause list
     private double lastUpdateTime_;    // the last time Gridlets updated
     private int[] machineRating_;      // list of machine ratings available
+    private WakeUpTimes wakeUps_;      // times to update the Gridlets at
+    private double nextFinish_;    // earliest finish time, or -1 if not known
 
 
     /**
@@ -68,6 +80,8 @@ class SpaceShared extends AllocPolicy
         this.gridletQueueList_  = new ResGridletList();
         this.lastUpdateTime_ = 0.0;
         this.machineRating_ = null;
+        this.wakeUps_ = new WakeUpTimes();
+        this.nextFinish_ = -1;
     }
 
     /**
@@ -77,18 +91,11 @@ class SpaceShared extends AllocPolicy
      */
     public void body()
     {
-        // Gets the PE's rating for each Machine in the list.
-        // Assumed one Machine has same PE rating.
-        MachineList list = super.resource_.getMachineList();
-        int size = list.size();
-        machineRating_ = new int[size];
-        for (int i = 0; i < size; i++) {
-            machineRating_[i] = super.resource_.getMIPSRatingOfOnePE(i, 0);
-        }
+        startEntity();
 
         // a loop that is looking for internal events only
         Sim_event ev = new Sim_event();
-        while ( Sim_system.running() )
+        while ( GridSim.isSimulationRunning() )
         {
             super.sim_get_next(ev);
 
@@ -99,12 +106,7 @@ class SpaceShared extends AllocPolicy
                 break;
             }
 
-            // Internal Event if the event source is this entity
-            if (ev.get_src() == super.myId_ && gridletInExecList_.size() > 0)
-            {
-                updateGridletProcessing();   // update Gridlets
-                checkGridletCompletion();    // check for finished Gridlets
-            }
+            processEvent(ev);
         }
 
         // CHECK for ANY INTERNAL EVENTS WAITING TO BE PROCESSED
@@ -118,6 +120,100 @@ class SpaceShared extends AllocPolicy
         }
     }
 
+    /**
+     * Gets the PE's rating for each Machine when the simulation starts
+     * @pre $none
+     * @post $none
+     */
+    public void startEntity()
+    {
+        // Gets the PE's rating for each Machine in the list.
+        // Assumed one Machine has same PE rating.
+        MachineList list = super.resource_.getMachineList();
+        int size = list.size();
+        machineRating_ = new int[size];
+        for (int i = 0; i < size; i++) {
+            machineRating_[i] = super.resource_.getMIPSRatingOfOnePE(i, 0);
+        }
+    }
+
+    /**
+     * Saves the Gridlet lists of this policy into a snapshot
+     * @param out  the snapshot stream
+     * @throws IOException  if the state can't be written
+     * @pre out != null
+     * @post $none
+     */
+    public void saveState(ObjectOutputStream out) throws IOException
+    {
+        super.savePolicyState(out);
+        out.writeObject(gridletQueueList_);
+        out.writeObject(gridletInExecList_);
+        out.writeObject(gridletPausedList_);
+        out.writeDouble(lastUpdateTime_);
+        out.writeObject(machineRating_);
+        out.writeObject(wakeUps_);
+    }
+
+    /**
+     * Restores the Gridlet lists of this policy from a snapshot
+     * @param in  the snapshot stream
+     * @throws IOException  if the state can't be read
+     * @throws ClassNotFoundException  if a saved class is not found
+     * @pre in != null
+     * @post $none
+     */
+    public void restoreState(ObjectInputStream in)
+            throws IOException, ClassNotFoundException
+    {
+        super.restorePolicyState(in);
+        gridletQueueList_ = (ResGridletList) in.readObject();
+        gridletInExecList_ = (ResGridletList) in.readObject();
+        gridletPausedList_ = (ResGridletList) in.readObject();
+        lastUpdateTime_ = in.readDouble();
+        machineRating_ = (int[]) in.readObject();
+        wakeUps_ = (WakeUpTimes) in.readObject();
+        nextFinish_ = -1;
+    }
+
+    /**
+     * Handles an internal event when this entity is run by the event-loop
+     * kernel
+     * @param ev  an incoming event
+     * @pre ev != null
+     * @post $none
+     */
+    public void handleEvent(Sim_event ev)
+    {
+        // if the simulation finishes then stop receiving events
+        if (ev.get_tag() == GridSimTags.END_OF_SIMULATION ||
+            super.isEndSimulation())
+        {
+            super.endEntity();
+            return;
+        }
+
+        processEvent(ev);
+    }
+
+    /**
+     * Updates the Gridlets in execution upon an internal event
+     * @param ev  an incoming event
+     * @pre ev != null
+     * @post $none
+     */
+    private void processEvent(Sim_event ev)
+    {
+        // Internal Event if this is the pending wake-up of this entity
+        if ( !super.isTimerEvent(ev) ) {
+            return;
+        }
+
+        // update and check the Gridlets at every wake-up time up to now
+        processWakeUps(GridSim.clock(), true);
+        setNextTimer();
+    }
+
     /**
      * Schedules a new Gridlet that has been received by the GridResource
      * entity.
@@ -133,38 +229,9 @@ class SpaceShared extends AllocPolicy
         // update the current Gridlets in exec list up to this point in time
         updateGridletProcessing();
 
-        // reset number of PE since at the moment, it is not supported
-        if (gl.getNumPE() > 1)
-        {
-            String userName = GridSim.getEntityName( gl.getUserID() );
-            System.out.println();
-            System.out.println(super.get_name() + ".gridletSubmit(): " +
-                " Gridlet #" + gl.getGridletID() + " from " + userName +
-                " user requires " + gl.getNumPE() + " PEs.");
-            System.out.println("--> Process this Gridlet to 1 PE only.");
-            System.out.println();
-
-            // also adjusted the length because the number of PEs are reduced
-            int numPE = gl.getNumPE();
-            double len = gl.getGridletLength();
-            gl.setGridletLength(len*numPE);
-            gl.setNumPE(1);
-        }
-
-        ResGridlet rgl = new ResGridlet(gl);
-        boolean success = false;
-
-        // if there is an available PE slot, then allocate immediately
-        if (gridletInExecList_.size() < super.totalPE_) {
-            success = allocatePEtoGridlet(rgl);
-        }
-
-        // if no available PE then put the ResGridlet into a Queue list
-        if (!success)
-        {
-            rgl.setGridletStatus(Gridlet.QUEUED);
-            gridletQueueList_.add(rgl);
-        }
+        // schedules this Gridlet on a free PE or puts it into the queue
+        schedule(gl);
+        setNextTimer();
 
         // sends back an ack if required
         if (ack)
@@ -175,6 +242,28 @@ class SpaceShared extends AllocPolicy
         }
     }
 
+    /**
+     * Schedules a list of Gridlets that has been received in one message by
+     * the GridResource entity. The Gridlets in execution are updated only
+     * once for the whole list.
+     * @param list  a list of Gridlets that are going to be executed
+     * @pre list != null
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    public synchronized void gridletSubmit(GridletList list)
+    {
+        super.setBulkReturn(list);
+
+        // update the current Gridlets in exec list up to this point in time
+        updateGridletProcessing();
+
+        for (Gridlet gl : list) {
+            schedule(gl);
+        }
+        setNextTimer();
+    }
+
     /**
      * Finds the status of a specified Gridlet ID.
      * @param gridletId    a Gridlet ID
@@ -190,29 +279,23 @@ class SpaceShared extends AllocPolicy
         ResGridlet rgl = null;
 
         // Find in EXEC List first
-        int found = gridletInExecList_.indexOf(gridletId, userId);
-        if (found >= 0)
+        rgl = gridletInExecList_.get(gridletId, userId);
+        if (rgl != null)
         {
-            // Get the Gridlet from the execution list
-            rgl = (ResGridlet) gridletInExecList_.get(found);
             return rgl.getGridletStatus();
         }
 
         // Find in Paused List
-        found = gridletPausedList_.indexOf(gridletId, userId);
-        if (found >= 0)
+        rgl = gridletPausedList_.get(gridletId, userId);
+        if (rgl != null)
         {
-            // Get the Gridlet from the execution list
-            rgl = (ResGridlet) gridletPausedList_.get(found);
             return rgl.getGridletStatus();
         }
 
         // Find in Queue List
-        found = gridletQueueList_.indexOf(gridletId, userId);
-        if (found >= 0)
+        rgl = gridletQueueList_.get(gridletId, userId);
+        if (rgl != null)
         {
-            // Get the Gridlet from the execution list
-            rgl = (ResGridlet) gridletQueueList_.get(found);
             return rgl.getGridletStatus();
         }
 
@@ -277,6 +360,7 @@ class SpaceShared extends AllocPolicy
         rgl.finalizeGridlet();
         super.sendCancelGridlet(GridSimTags.GRIDLET_CANCEL, rgl.getGridlet(),
                                 gridletId, userId);
+        setNextTimer();
     }
 
     /**
@@ -297,25 +381,26 @@ class SpaceShared extends AllocPolicy
         boolean status = false;
 
         // Find in EXEC List first
-        int found = gridletInExecList_.indexOf(gridletId, userId);
-        if (found >= 0)
+        ResGridlet rgl = gridletInExecList_.get(gridletId, userId);
+        if (rgl != null)
         {
             // updates all the Gridlets first before pausing
             updateGridletProcessing();
 
             // Removes the Gridlet from the execution list
-            ResGridlet rgl = (ResGridlet) gridletInExecList_.remove(found);
+            gridletInExecList_.remove(rgl);
+            nextFinish_ = -1;
 
             // if a Gridlet is finished upon cancelling, then set it to success
             // instead.
             if (rgl.getRemainingGridletLength() == 0.0)
             {
-                found = -1;  // meaning not found in Queue List
                 gridletFinish(rgl, Gridlet.SUCCESS);
                 System.out.println(super.resName_
                         + ".SpaceShared.gridletPause(): Cannot pause"
                         + " Gridlet #" + gridletId + " for User #" + userId
                         + " since it has FINISHED.");
+                rgl = null;  // meaning not found in Queue List
             }
             else
             {
@@ -332,21 +417,18 @@ class SpaceShared extends AllocPolicy
             }
         }
         else {      // Find in QUEUE list
-            found = gridletQueueList_.indexOf(gridletId, userId);
+            rgl = gridletQueueList_.remove(gridletId, userId);
         }
 
         // if found in the Queue List
-        if (status == false && found >= 0)
+        if (status == false && rgl != null)
         {
             status = true;
-
-            // removes the Gridlet from the Queue list
-            ResGridlet rgl = (ResGridlet) gridletQueueList_.remove(found);
             rgl.setGridletStatus(Gridlet.PAUSED);   // change the status
             gridletPausedList_.add(rgl);            // add into the paused list
         }
         // if not found anywhere in both exec and paused lists
-        else if (found == -1)
+        else if (rgl == null)
         {
             System.out.println(super.resName_ +
                     ".SpaceShared.gridletPause(): Error - cannot " +
@@ -359,6 +441,7 @@ class SpaceShared extends AllocPolicy
             super.sendAck(GridSimTags.GRIDLET_PAUSE_ACK, status,
                           gridletId, userId);
         }
+        setNextTimer();
     }
 
     /**
@@ -430,6 +513,7 @@ class SpaceShared extends AllocPolicy
             super.gridletMigrate(rgl.getGridlet(), destId, ack);
             allocateQueueGridlet();
         }
+        setNextTimer();
     }
 
     /**
@@ -450,11 +534,11 @@ class SpaceShared extends AllocPolicy
         boolean status = false;
 
         // finds the Gridlet in the execution list first
-        int found = gridletPausedList_.indexOf(gridletId, userId);
-        if (found >= 0)
+        ResGridlet rgl = gridletPausedList_.get(gridletId, userId);
+        if (rgl != null)
         {
             // removes the Gridlet
-            ResGridlet rgl = (ResGridlet) gridletPausedList_.remove(found);
+            gridletPausedList_.remove(rgl);
             rgl.setGridletStatus(Gridlet.RESUMED);
 
             // update the Gridlets up to this point in time
@@ -491,10 +575,79 @@ class SpaceShared extends AllocPolicy
             super.sendAck(GridSimTags.GRIDLET_RESUME_ACK, status,
                           gridletId, userId);
         }
+        setNextTimer();
+    }
+
+    /**
+     * Gets the total load for this GridResource, once the Gridlets have
+     * been updated at the wake-up times before now
+     * @return an Accumulator object
+     * @pre $none
+     * @post $result != null
+     */
+    public synchronized Accumulator getTotalLoad()
+    {
+        processWakeUps(GridSim.clock(), false);
+        return super.getTotalLoad();
+    }
+
+    /**
+     * Finds the earliest finish time again, since the Gridlets in
+     * execution are processed at a different rate from now on
+     * @pre $none
+     * @post $none
+     */
+    protected synchronized void processLoadChange()
+    {
+        nextFinish_ = -1;
+        setNextTimer();
     }
 
     ///////////////////////////// PRIVATE METHODS /////////////////////
 
+    /**
+     * Allocates a new Gridlet to a free PE, or puts it into the queue list
+     * if there is none
+     * @param gl  a Gridlet object that is going to be executed
+     * @pre gl != null
+     * @post $none
+     */
+    private void schedule(Gridlet gl)
+    {
+        // reset number of PE since at the moment, it is not supported
+        if (gl.getNumPE() > 1)
+        {
+            String userName = GridSim.getEntityName( gl.getUserID() );
+            System.out.println();
+            System.out.println(super.get_name() + ".gridletSubmit(): " +
+                " Gridlet #" + gl.getGridletID() + " from " + userName +
+                " user requires " + gl.getNumPE() + " PEs.");
+            System.out.println("--> Process this Gridlet to 1 PE only.");
+            System.out.println();
+
+            // also adjusted the length because the number of PEs are reduced
+            int numPE = gl.getNumPE();
+            double len = gl.getGridletLength();
+            gl.setGridletLength(len*numPE);
+            gl.setNumPE(1);
+        }
+
+        ResGridlet rgl = new ResGridlet(gl);
+        boolean success = false;
+
+        // if there is an available PE slot, then allocate immediately
+        if (gridletInExecList_.size() < super.totalPE_) {
+            success = allocatePEtoGridlet(rgl);
+        }
+
+        // if no available PE then put the ResGridlet into a Queue list
+        if (!success)
+        {
+            rgl.setGridletStatus(Gridlet.QUEUED);
+            gridletQueueList_.add(rgl);
+        }
+    }
+
     /**
      * Allocates the first Gridlet in the Queue list (if any) to execution list
      * @pre $none
@@ -521,17 +674,58 @@ class SpaceShared extends AllocPolicy
     }
 
     /**
-     * Updates the execution of all Gridlets for a period of time.
-     * The time period is determined from the last update time up to the
-     * current time. Once this operation is successfull, then the last update
-     * time refers to the current time.
+     * Updates the execution of all Gridlets up to the current time, after
+     * processing the wake-up times up to now
      * @pre $none
      * @post $none
      */
     private synchronized void updateGridletProcessing()
     {
-        // Identify MI share for the duration (from last event time)
         double time = GridSim.clock();
+        processWakeUps(time, true);
+        updateGridletProcessing(time);
+    }
+
+    /**
+     * Updates and checks the Gridlets at every wake-up time up to a given
+     * time, in the same way as the internal event sent for this time would
+     * have done. By construction of {@link #setNextTimer()}, no Gridlet
+     * finishes at a time before the current time.
+     * @param time       the simulation time
+     * @param inclusive  whether a wake-up at this time is processed as well
+     * @pre time >= 0.0
+     * @post $none
+     */
+    private void processWakeUps(double time, boolean inclusive)
+    {
+        while ( !wakeUps_.isEmpty() )
+        {
+            double next = wakeUps_.first();
+            if (next > time || (next == time && !inclusive)) {
+                break;
+            }
+
+            wakeUps_.removeFirst();
+            if (gridletInExecList_.size() > 0)
+            {
+                updateGridletProcessing(next);   // update Gridlets
+                checkGridletCompletion(next);    // check for finished Gridlets
+            }
+        }
+    }
+
+    /**
+     * Updates the execution of all Gridlets for a period of time.
+     * The time period is determined from the last update time up to the
+     * given time. Once this operation is successfull, then the last update
+     * time refers to the given time.
+     * @param time  the simulation time
+     * @pre time >= 0.0
+     * @post $none
+     */
+    private void updateGridletProcessing(double time)
+    {
+        // Identify MI share for the duration (from last event time)
         double timeSpan = time - lastUpdateTime_;
 
         // if current time is the same or less than the last update time,
@@ -562,7 +756,7 @@ class SpaceShared extends AllocPolicy
             obj = (ResGridlet) iter.next();
 
             // Updates the Gridlet length that is currently being executed
-            load = getMIShare( timeSpan, obj.getMachineID() );
+            load = getMIShare( timeSpan, obj.getMachineID(), time );
             obj.updateGridletFinishedSoFar(load);
         }
     }
@@ -572,16 +766,17 @@ class SpaceShared extends AllocPolicy
      * a given timeSpan
      * @param timeSpan     duration
      * @param machineId    machine ID that executes this Gridlet
+     * @param time         the end of the duration, which gives the local load
      * @return  the total MI share that a Gridlet gets for a given
      *          <tt>timeSpan</tt>
      * @pre timeSpan >= 0.0
      * @pre machineId > 0
      * @post $result >= 0.0
      */
-    private double getMIShare(double timeSpan, int machineId)
+    private double getMIShare(double timeSpan, int machineId, double time)
     {
         // 1 - localLoad_ = available MI share percentage
-        double localLoad = super.resCalendar_.getCurrentLoad();
+        double localLoad = super.getLocalLoad(time);
 
         // each Machine might have different PE Rating compare to another
         // so much look at which Machine this PE belongs to
@@ -618,6 +813,7 @@ class SpaceShared extends AllocPolicy
 
         // add this Gridlet into execution list
         gridletInExecList_.add(rgl);
+        nextFinish_ = -1;
 
         // Set allocated PE to BUSY status
         super.resource_.setStatusPE(PE.BUSY, rgl.getMachineID(), freePE);
@@ -628,13 +824,90 @@ class SpaceShared extends AllocPolicy
                                           rgl.getRemainingGridletLength() );
 
         int roundUpTime = (int) (time+1);   // rounding up
-        rgl.setFinishTime(roundUpTime);
+        rgl.setFinishTime(GridSim.clock() + roundUpTime);
 
-        // then send this into itself
-        super.sendInternalEvent(roundUpTime);
+        // then wake up at this time
+        wakeUps_.add( GridSim.clock() + roundUpTime );
         return true;
     }
 
+    /**
+     * Requests the wake-up of this entity for the next time to process.
+     * The Gridlets are updated and checked at the same times as when this
+     * policy sent an internal event for each of them, i.e. at the forecast
+     * finish time of every Gridlet and one hour after every check. However,
+     * only the times at which a Gridlet may finish need an event. The other
+     * ones are processed once this entity wakes up, or upon the next
+     * Gridlet operation.
+     * <p>
+     * While the local load stays the same, no Gridlet finishes before its
+     * remaining length divided by its share of the PE, apart from rounding
+     * errors. A wake-up time only adds later ones. Hence, this entity wakes
+     * up at the first wake-up time if it is not before then, or otherwise
+     * shortly before then. The local load is assumed to stay the same until
+     * {@link #processLoadChange()} is called.
+     * @pre $none
+     * @post $none
+     */
+    private void setNextTimer()
+    {
+        double now = GridSim.clock();
+        processWakeUps(now, false);
+        if (wakeUps_.isEmpty() || gridletInExecList_.size() == 0)
+        {
+            super.cancelTimer();
+            return;
+        }
+
+        if (nextFinish_ < 0.0) {
+            nextFinish_ = findFinishTime( super.getLocalLoad(now) );
+        }
+
+        double time = Double.MAX_VALUE;
+        if (nextFinish_ < Double.MAX_VALUE) {
+            time = nextFinish_ -
+                   FORECAST_MARGIN * (nextFinish_ - lastUpdateTime_ + 1);
+        }
+
+        double next = Math.max(wakeUps_.first(), time);
+        if (next == Double.MAX_VALUE) {
+            super.cancelTimer();    // no Gridlet finishes at this load
+        }
+        else {
+            super.setTimerAt(next);
+        }
+
+        // the earliest finish time only holds until the local load changes
+        super.setLoadChangeTimer();
+    }
+
+    /**
+     * Finds the earliest time at which a Gridlet in execution may finish,
+     * given the local load
+     * @param localLoad  the local load
+     * @return the finish time, or <tt>Double.MAX_VALUE</tt> if no Gridlet
+     *         gets any share
+     * @pre localLoad >= 0.0
+     * @post $none
+     */
+    private double findFinishTime(double localLoad)
+    {
+        double finish = Double.MAX_VALUE;
+        for (ResGridlet rgl : gridletInExecList_)
+        {
+            double rating = machineRating_[ rgl.getMachineID() ] *
+                            (1 - localLoad);
+            if (rating > 0.0)
+            {
+                double time = lastUpdateTime_ +
+                              rgl.getRemainingGridletLength() / rating;
+                finish = Math.min(finish, time);
+            }
+        }
+
+        return finish;
+    }
+
     /**
      * Forecast finish time of a Gridlet.
      * <tt>Finish time = length / available rating</tt>
@@ -662,14 +935,18 @@ class SpaceShared extends AllocPolicy
     /**
      * Checks all Gridlets in the execution list whether they are finished or
      * not.
-     * @pre $none
+     * @param time  the simulation time of this check
+     * @pre time >= 0.0
      * @post $none
      */
-    private synchronized void checkGridletCompletion()
+    private synchronized void checkGridletCompletion(double time)
     {
         ResGridlet obj = null;
         int i = 0;
 
+        // Gridlets submitted in bulk are sent back together
+        super.holdFinishedGridlets();
+
         // NOTE: This one should stay as it is since gridletFinish()
         // will modify the content of this list if a Gridlet has finished.
         // Can't use iterator since it will cause an exception
@@ -680,6 +957,7 @@ class SpaceShared extends AllocPolicy
             if (obj.getRemainingGridletLength() == 0.0)
             {
                 gridletInExecList_.remove(obj);
+                nextFinish_ = -1;
                 gridletFinish(obj, Gridlet.SUCCESS);
                 continue;
             }
@@ -687,13 +965,15 @@ class SpaceShared extends AllocPolicy
             i++;
         }
 
+        super.releaseFinishedGridlets();
+
         // if there are still Gridlets left in the execution
-        // then send this into itself for an hourly interrupt
+        // then wake up again after an hour
         // NOTE: Setting the internal event time too low will make the
         //       simulation more realistic, BUT will take longer time to
         //       run this simulation. Also, size of sim_trace will be HUGE!
         if (gridletInExecList_.size() > 0) {
-            super.sendInternalEvent(60.0*60.0);
+            wakeUps_.add(time + HOURLY_INTERRUPT);
         }
     }
 
@@ -735,14 +1015,15 @@ class SpaceShared extends AllocPolicy
         ResGridlet rgl = null;
 
         // Find in EXEC List first
-        int found = gridletInExecList_.indexOf(gridletId, userId);
-        if (found >= 0)
+        rgl = gridletInExecList_.get(gridletId, userId);
+        if (rgl != null)
         {
             // update the gridlets in execution list up to this point in time
             updateGridletProcessing();
 
             // Get the Gridlet from the execution list
-            rgl = (ResGridlet) gridletInExecList_.remove(found);
+            gridletInExecList_.remove(rgl);
+            nextFinish_ = -1;
 
             // if a Gridlet is finished upon cancelling, then set it to success
             // instead.
@@ -761,22 +1042,22 @@ class SpaceShared extends AllocPolicy
         }
 
         // Find in QUEUE list
-        found = gridletQueueList_.indexOf(gridletId, userId);
-        if (found >= 0)
+        rgl = gridletQueueList_.get(gridletId, userId);
+        if (rgl != null)
         {
-            rgl = (ResGridlet) gridletQueueList_.remove(found);
+            gridletQueueList_.remove(rgl);
             rgl.setGridletStatus(Gridlet.CANCELED);
         }
 
         // if not, then find in the Paused list
         else
         {
-            found = gridletPausedList_.indexOf(gridletId, userId);
+            rgl = gridletPausedList_.get(gridletId, userId);
 
             // if found in Paused list
-            if (found >= 0)
+            if (rgl != null)
             {
-                rgl = (ResGridlet) gridletPausedList_.remove(found);
+                gridletPausedList_.remove(rgl);
                 rgl.setGridletStatus(Gridlet.CANCELED);
             }
 
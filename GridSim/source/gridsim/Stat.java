@@ -19,8 +19,10 @@ import eduni.simjava.*;
  * @since        GridSim Toolkit 1.0
  * @invariant $none
  */
-public class Stat
+public class Stat implements Serializable
 {
+    private static final long serialVersionUID = 5874577098486544666L;
+
     private double time_;
     private String category_;
     private String name_;
@@ -9,7 +9,11 @@
 package gridsim;
 
 import eduni.simjava.Sim_event;
-import eduni.simjava.Sim_system;
+import gridsim.kernel.Checkpointable;
+import gridsim.kernel.EventDriven;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 
 import java.util.Calendar;
 import java.util.Iterator;
@@ -32,12 +36,17 @@ import java.util.Iterator;
  * @see gridsim.ResourceCharacteristics
  * @invariant $none
  */
-class TimeShared extends AllocPolicy
+class TimeShared extends AllocPolicy implements EventDriven, Checkpointable
 {
+    // how much earlier than forecast a Gridlet might finish due to rounding
+    private static final double FORECAST_MARGIN = 1e-6;
+
     private ResGridletList gridletInExecList_;  // storing exec Gridlets
     private ResGridletList gridletPausedList_;  // storing Paused Gridlets
     private double lastUpdateTime_;   // a timer to denote the last update time
     private MIShares share_;   // a temp variable
+    private WakeUpTimes wakeUps_;     // times to update the Gridlets at
+    private double nextFinish_;   // earliest finish time, or -1 if not known
 
 
     /**
@@ -70,6 +79,8 @@ class TimeShared extends AllocPolicy
         this.gridletPausedList_ = new ResGridletList();
         this.share_ = new MIShares();
         this.lastUpdateTime_ = 0.0;
+        this.wakeUps_ = new WakeUpTimes();
+        this.nextFinish_ = -1;
     }
 
     ////////////////////// INTERNAL CLASS /////////////////////////////////
@@ -114,7 +125,7 @@ class TimeShared extends AllocPolicy
     {
         // a loop that is looking for internal events only
         Sim_event ev = new Sim_event();
-        while ( Sim_system.running() )
+        while ( GridSim.isSimulationRunning() )
         {
             super.sim_get_next(ev);
 
@@ -125,8 +136,8 @@ class TimeShared extends AllocPolicy
                 break;
             }
 
-            // Internal Event if the event source is this entity
-            if (ev.get_src() == super.myId_) {
+            // Internal Event if this is the pending wake-up of this entity
+            if ( super.isTimerEvent(ev) ) {
                 internalEvent();
             }
         }
@@ -142,6 +153,73 @@ class TimeShared extends AllocPolicy
         }
     }
 
+    /**
+     * Does nothing, since this entity only reacts to internal events
+     * @pre $none
+     * @post $none
+     */
+    public void startEntity() {
+        // empty
+    }
+
+    /**
+     * Saves the Gridlet lists of this policy into a snapshot
+     * @param out  the snapshot stream
+     * @throws IOException  if the state can't be written
+     * @pre out != null
+     * @post $none
+     */
+    public void saveState(ObjectOutputStream out) throws IOException
+    {
+        super.savePolicyState(out);
+        out.writeObject(gridletInExecList_);
+        out.writeObject(gridletPausedList_);
+        out.writeDouble(lastUpdateTime_);
+        out.writeObject(wakeUps_);
+    }
+
+    /**
+     * Restores the Gridlet lists of this policy from a snapshot
+     * @param in  the snapshot stream
+     * @throws IOException  if the state can't be read
+     * @throws ClassNotFoundException  if a saved class is not found
+     * @pre in != null
+     * @post $none
+     */
+    public void restoreState(ObjectInputStream in)
+            throws IOException, ClassNotFoundException
+    {
+        super.restorePolicyState(in);
+        gridletInExecList_ = (ResGridletList) in.readObject();
+        gridletPausedList_ = (ResGridletList) in.readObject();
+        lastUpdateTime_ = in.readDouble();
+        wakeUps_ = (WakeUpTimes) in.readObject();
+        nextFinish_ = -1;
+    }
+
+    /**
+     * Handles an internal event when this entity is run by the event-loop
+     * kernel
+     * @param ev  an incoming event
+     * @pre ev != null
+     * @post $none
+     */
+    public void handleEvent(Sim_event ev)
+    {
+        // if the simulation finishes then stop receiving events
+        if (ev.get_tag() == GridSimTags.END_OF_SIMULATION ||
+            super.isEndSimulation())
+        {
+            super.endEntity();
+            return;
+        }
+
+        // Internal Event if this is the pending wake-up of this entity
+        if ( super.isTimerEvent(ev) ) {
+            internalEvent();
+        }
+    }
+
     /**
      * Schedules a new Gridlet that has been received by the GridResource
      * entity.
@@ -157,28 +235,8 @@ class TimeShared extends AllocPolicy
         // update Gridlets in execution up to this point in time
         updateGridletProcessing();
 
-        // reset number of PE since at the moment, it is not supported
-        if (gl.getNumPE() > 1)
-        {
-            String userName = GridSim.getEntityName( gl.getUserID() );
-            System.out.println();
-            System.out.println(super.get_name() + ".gridletSubmit(): " +
-                " Gridlet #" + gl.getGridletID() + " from " + userName +
-                " user requires " + gl.getNumPE() + " PEs.");
-            System.out.println("--> Process this Gridlet to 1 PE only.");
-            System.out.println();
-
-            // also adjusted the length because the number of PEs are reduced
-            int numPE = gl.getNumPE();
-            double len = gl.getGridletLength();
-            gl.setGridletLength(len*numPE);
-            gl.setNumPE(1);
-        }
-
         // adds a Gridlet to the in execution list
-        ResGridlet rgl = new ResGridlet(gl);
-        rgl.setGridletStatus(Gridlet.INEXEC); // set the Gridlet status to exec
-        gridletInExecList_.add(rgl);   // add into the execution list
+        addGridlet(gl);
 
         // sends back an ack if required
         if (ack)
@@ -192,6 +250,56 @@ class TimeShared extends AllocPolicy
         forecastGridlet();
     }
 
+    /**
+     * Schedules a list of Gridlets that has been received in one message by
+     * the GridResource entity. The Gridlets finish at the same times as if
+     * they had been submitted one by one at the current time, since each
+     * of these submissions adds the wake-up time of its forecast. However,
+     * these wake-up times are found from the remaining lengths of the
+     * Gridlets, rather than by forecasting all Gridlets for each of them.
+     * @param list  a list of Gridlets that are going to be executed
+     * @pre list != null
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    public synchronized void gridletSubmit(GridletList list)
+    {
+        if (list.size() == 0) {
+            return;
+        }
+
+        super.setBulkReturn(list);
+
+        // update Gridlets in execution up to this point in time
+        updateGridletProcessing();
+
+        // each Gridlet adds the wake-up time of its forecast, as on its own.
+        // The first one and an empty one also remove the finished Gridlets,
+        // so all Gridlets are forecast after them.
+        double now = GridSim.clock();
+        int count = 0;    // number of Gridlets added so far
+        int first = gridletInExecList_.size();  // size after the last forecast
+        for (Gridlet gl : list)
+        {
+            addGridlet(gl);
+            count++;
+
+            int size = gridletInExecList_.size();
+            if ( count == 1 || (count < list.size() &&
+                 gridletInExecList_.getLast().getRemainingGridletLength() <= 0.0) )
+            {
+                forecastEachGridlet(now, first + 1, size - 1);
+                forecastGridlet(now);
+                first = gridletInExecList_.size();
+            }
+        }
+
+        forecastEachGridlet(now, first + 1, gridletInExecList_.size() - 1);
+
+        // forecast all Gridlets in the execution list
+        forecastGridlet();
+    }
+
     /**
      * Finds the status of a specified Gridlet ID.
      * @param gridletId    a Gridlet ID
@@ -207,20 +315,14 @@ class TimeShared extends AllocPolicy
         ResGridlet rgl = null;
 
         // Find in EXEC List first
-        int found = gridletInExecList_.indexOf(gridletId, userId);
-        if (found >= 0)
-        {
-            // Get the Gridlet from the execution list
-            rgl = (ResGridlet) gridletInExecList_.get(found);
+        rgl = gridletInExecList_.get(gridletId, userId);
+        if (rgl != null) {
             return rgl.getGridletStatus();
         }
 
         // if not found then find again in Paused List
-        found = gridletPausedList_.indexOf(gridletId, userId);
-        if (found >= 0)
-        {
-            // Get the Gridlet from the execution list
-            rgl = (ResGridlet) gridletPausedList_.get(found);
+        rgl = gridletPausedList_.get(gridletId, userId);
+        if (rgl != null) {
             return rgl.getGridletStatus();
         }
 
@@ -308,14 +410,14 @@ class TimeShared extends AllocPolicy
         boolean status = false;
 
         // find this Gridlet in the execution list
-        int found = gridletInExecList_.indexOf(gridletId, userId);
-        if (found >= 0)
+        ResGridlet rgl = gridletInExecList_.get(gridletId, userId);
+        if (rgl != null)
         {
             // update Gridlets in execution list up to this point in time
             updateGridletProcessing();
 
             // get a Gridlet from execution list
-            ResGridlet rgl = (ResGridlet) gridletInExecList_.remove(found);
+            gridletInExecList_.remove(rgl);
 
             // if a Gridlet is finished upon pausing, then set it to success
             // instead.
@@ -443,14 +545,13 @@ class TimeShared extends AllocPolicy
         boolean success = false;
 
         // finds in the execution list first
-        int found = gridletPausedList_.indexOf(gridletId, userId);
-        if (found >= 0)
+        ResGridlet rgl = gridletPausedList_.remove(gridletId, userId);
+        if (rgl != null)
         {
             // need to update Gridlets in execution up to this point in time
             updateGridletProcessing();
 
-            // remove a Gridlet from paused list and change the status
-            ResGridlet rgl = (ResGridlet) gridletPausedList_.remove(found);
+            // change the status of the Gridlet removed from paused list
             rgl.setGridletStatus(Gridlet.RESUMED);
 
             // add the Gridlet back to in execution list
@@ -480,20 +581,119 @@ class TimeShared extends AllocPolicy
     }
 
 
+    /**
+     * Gets the total load for this GridResource, once the Gridlets have
+     * been updated at the wake-up times before now
+     * @return an Accumulator object
+     * @pre $none
+     * @post $result != null
+     */
+    public synchronized Accumulator getTotalLoad()
+    {
+        processWakeUps(GridSim.clock(), false);
+        return super.getTotalLoad();
+    }
+
+    /**
+     * Finds the earliest finish time again, since the Gridlets in
+     * execution are processed at a different rate from now on
+     * @pre $none
+     * @post $none
+     */
+    protected synchronized void processLoadChange()
+    {
+        nextFinish_ = -1;
+        setNextTimer();
+    }
+
     ////////////////////// PRIVATE METHODS //////////////////////////////
 
     /**
-     * Updates the execution of all Gridlets for a period of time.
-     * The time period is determined from the last update time up to the
-     * current time. Once this operation is successfull, then the last update
-     * time refers to the current time.
+     * Adds a new Gridlet into the execution list
+     * @param gl  a Gridlet object that is going to be executed
+     * @pre gl != null
+     * @post $none
+     */
+    private void addGridlet(Gridlet gl)
+    {
+        // reset number of PE since at the moment, it is not supported
+        if (gl.getNumPE() > 1)
+        {
+            String userName = GridSim.getEntityName( gl.getUserID() );
+            System.out.println();
+            System.out.println(super.get_name() + ".gridletSubmit(): " +
+                " Gridlet #" + gl.getGridletID() + " from " + userName +
+                " user requires " + gl.getNumPE() + " PEs.");
+            System.out.println("--> Process this Gridlet to 1 PE only.");
+            System.out.println();
+
+            // also adjusted the length because the number of PEs are reduced
+            int numPE = gl.getNumPE();
+            double len = gl.getGridletLength();
+            gl.setGridletLength(len*numPE);
+            gl.setNumPE(1);
+        }
+
+        ResGridlet rgl = new ResGridlet(gl);
+        rgl.setGridletStatus(Gridlet.INEXEC); // set the Gridlet status to exec
+        gridletInExecList_.add(rgl);   // add into the execution list
+    }
+
+    /**
+     * Updates the execution of all Gridlets up to the current time, after
+     * processing the wake-up times up to now
      * @pre $none
      * @post $none
      */
     private void updateGridletProcessing()
     {
-        // Identify MI share for the duration (from last event time)
         double time = GridSim.clock();
+        processWakeUps(time, true);
+        updateGridletProcessing(time);
+    }
+
+    /**
+     * Updates and forecasts the Gridlets at every wake-up time up to a given
+     * time, in the same way as the internal event sent for this time would
+     * have done. By construction of {@link #setNextTimer()}, no Gridlet
+     * finishes at a time before the current time.
+     * @param time       the simulation time
+     * @param inclusive  whether a wake-up at this time is processed as well
+     * @pre time >= 0.0
+     * @post $none
+     */
+    private void processWakeUps(double time, boolean inclusive)
+    {
+        while ( !wakeUps_.isEmpty() )
+        {
+            double next = wakeUps_.first();
+            if (next > time || (next == time && !inclusive)) {
+                break;
+            }
+
+            wakeUps_.removeFirst();
+
+            // an event at the time of the last update was ignored
+            if (lastUpdateTime_ != next)
+            {
+                updateGridletProcessing(next);
+                forecastGridlet(next);
+            }
+        }
+    }
+
+    /**
+     * Updates the execution of all Gridlets for a period of time.
+     * The time period is determined from the last update time up to the
+     * given time. Once this operation is successfull, then the last update
+     * time refers to the given time.
+     * @param time  the simulation time
+     * @pre time >= 0.0
+     * @post $none
+     */
+    private void updateGridletProcessing(double time)
+    {
+        // Identify MI share for the duration (from last event time)
         double timeSpan = time - lastUpdateTime_;
 
         // if current time is the same or less than the last update time,
@@ -516,7 +716,7 @@ class TimeShared extends AllocPolicy
         }
 
         // gets MI Share for all Gridlets
-        MIShares shares = getMIShare(timeSpan, size);
+        MIShares shares = getMIShare(timeSpan, size, time);
         ResGridlet obj = null;
 
         // a loop that allocates MI share for each Gridlet accordingly
@@ -547,13 +747,14 @@ class TimeShared extends AllocPolicy
      * a given time duration
      * @param timeSpan duration
      * @param size    total number of Gridlets in the execution list
+     * @param time    the end of the duration, which gives the local load
      * @return  the total MI share that a Gridlet gets for a given
      *          <tt>timeSpan</tt>
      */
-    private MIShares getMIShare(double timeSpan, int size)
+    private MIShares getMIShare(double timeSpan, int size, double time)
     {
         // 1 - localLoad_ = available MI share percentage
-        double localLoad = super.resCalendar_.getCurrentLoad();
+        double localLoad = super.getLocalLoad(time);
         double TotalMIperPE = super.resource_.getMIPSRatingOfOnePE() * timeSpan
                               * (1 - localLoad);
 
@@ -605,13 +806,25 @@ class TimeShared extends AllocPolicy
      *          given the share MIPS rating for all and the remaining Gridlet's
      *          length
      *     <li> find the smallest finish time in the list
-     *     <li> send the last Gridlet in the list with
-     *          <tt>delay =  smallest finish time - current time</tt>
+     *     <li> wake up at <tt>current time + smallest finish time</tt>
      * </ul>
      * @pre $none
      * @post $none
      */
     private void forecastGridlet()
+    {
+        forecastGridlet( GridSim.clock() );
+        setNextTimer();
+    }
+
+    /**
+     * Determines the smallest completion time of all Gridlets in the execution
+     * list at a given time, and adds it to the wake-up times
+     * @param now  the simulation time of this forecast
+     * @pre now >= 0.0
+     * @post $none
+     */
+    private void forecastGridlet(double now)
     {
         // if no Gridlets available in exec list, then exit this method
         if (gridletInExecList_.size() == 0) {
@@ -622,9 +835,13 @@ class TimeShared extends AllocPolicy
         // them since they will effect the MIShare calculation.
         checkGridletCompletion();
 
+        // every change of the execution list is followed by a forecast,
+        // hence the earliest finish time is found again from here
+        nextFinish_ = -1;
+
         // Identify MIPS share for all Gridlets for 1 second, considering
         // current Gridlets + No of PEs.
-        MIShares share = getMIShare( 1.0, gridletInExecList_.size() );
+        MIShares share = getMIShare( 1.0, gridletInExecList_.size(), now );
 
         ResGridlet rgl = null;
         int i = 0;
@@ -660,8 +877,171 @@ class TimeShared extends AllocPolicy
             i++;
         }
 
-        // sends to itself as an internal event
-        super.sendInternalEvent(smallestTime);
+        // then wake up at this time, unless no Gridlet gets any share
+        if (smallestTime < Double.POSITIVE_INFINITY) {
+            wakeUps_.add(now + smallestTime);
+        }
+    }
+
+    /**
+     * Adds the wake-up times of the forecasts done when the execution list
+     * only had its first <tt>count</tt> Gridlets, for each <tt>count</tt>
+     * in a given range. Since a finish time grows with the remaining length,
+     * the smallest one is found from the shortest remaining length of the
+     * Gridlets given the max. MIPS rating and of the ones given the min.
+     * rating. These lengths are looked up in a table of the shortest
+     * remaining length over each range of <tt>2^j</tt> Gridlets.
+     * @param now   the simulation time of these forecasts
+     * @param from  the smallest number of Gridlets
+     * @param to    the largest number of Gridlets
+     * @pre now >= 0.0
+     * @pre to < gridletInExecList_.size()
+     * @post $none
+     */
+    private void forecastEachGridlet(double now, int from, int to)
+    {
+        if (from > to) {
+            return;
+        }
+
+        // shortest[j][i] = shortest remaining length of Gridlets i..i+2^j-1
+        int levels = 1;
+        while ( (1 << levels) <= to ) {
+            levels++;
+        }
+
+        double[][] shortest = new double[levels][];
+        shortest[0] = new double[to];
+        Iterator<ResGridlet> iter = gridletInExecList_.iterator();
+        for (int i = 0; i < to; i++) {
+            shortest[0][i] = iter.next().getRemainingGridletLength();
+        }
+
+        for (int j = 1; j < levels; j++)
+        {
+            int half = 1 << (j - 1);
+            shortest[j] = new double[to - 2*half + 1];
+            for (int i = 0; i < shortest[j].length; i++) {
+                shortest[j][i] = Math.min(shortest[j-1][i],
+                                          shortest[j-1][i + half]);
+            }
+        }
+
+        for (int count = from; count <= to; count++)
+        {
+            MIShares share = getMIShare(1.0, count, now);
+            int maxCount = Math.min(share.maxCount, count);
+            double smallestTime = Double.POSITIVE_INFINITY;
+            if (maxCount > 0)
+            {
+                smallestTime = forecastFinishTime(share.max,
+                        getShortest(shortest, 0, maxCount) );
+            }
+
+            if (maxCount < count)
+            {
+                smallestTime = Math.min(smallestTime, forecastFinishTime(
+                        share.min, getShortest(shortest, maxCount, count)) );
+            }
+
+            if (smallestTime < Double.POSITIVE_INFINITY) {
+                wakeUps_.add(now + smallestTime);
+            }
+        }
+    }
+
+    /**
+     * Gets the shortest remaining length of a range of Gridlets
+     * @param shortest  the table made by
+     *                  {@link #forecastEachGridlet(double, int, int)}
+     * @param start     the position of the first Gridlet
+     * @param end       the position after the last Gridlet
+     * @return the shortest remaining length
+     * @pre start < end
+     * @post $none
+     */
+    private static double getShortest(double[][] shortest, int start, int end)
+    {
+        int j = 31 - Integer.numberOfLeadingZeros(end - start);
+        return Math.min(shortest[j][start], shortest[j][end - (1 << j)]);
+    }
+
+    /**
+     * Requests the wake-up of this entity for the next time to process.
+     * The Gridlets are updated and forecast at the same times as when this
+     * policy sent an internal event for each forecast. However, only the
+     * times at which a Gridlet may finish need an event. The other ones are
+     * processed once this entity wakes up, or upon the next Gridlet
+     * operation.
+     * <p>
+     * While the local load stays the same, no Gridlet finishes before its
+     * remaining length divided by its share of a PE, apart from rounding
+     * errors. A wake-up time only adds later ones. Hence, this entity wakes
+     * up at the first wake-up time if it is not before then, or otherwise
+     * shortly before then. The local load is assumed to stay the same until
+     * {@link #processLoadChange()} is called.
+     * @pre $none
+     * @post $none
+     */
+    private void setNextTimer()
+    {
+        double now = GridSim.clock();
+        processWakeUps(now, false);
+        if (wakeUps_.isEmpty() || gridletInExecList_.size() == 0)
+        {
+            super.cancelTimer();
+            return;
+        }
+
+        if (nextFinish_ < 0.0) {
+            nextFinish_ = findFinishTime(now);
+        }
+
+        double time = Double.MAX_VALUE;
+        if (nextFinish_ < Double.MAX_VALUE) {
+            time = nextFinish_ -
+                   FORECAST_MARGIN * (nextFinish_ - lastUpdateTime_ + 1);
+        }
+
+        double next = Math.max(wakeUps_.first(), time);
+        if (next == Double.MAX_VALUE) {
+            super.cancelTimer();    // no Gridlet finishes at this load
+        }
+        else {
+            super.setTimerAt(next);
+        }
+
+        // the earliest finish time only holds until the local load changes
+        super.setLoadChangeTimer();
+    }
+
+    /**
+     * Finds the earliest time at which a Gridlet in execution may finish,
+     * given the local load at a given time
+     * @param now  the simulation time
+     * @return the finish time, or <tt>Double.MAX_VALUE</tt> if no Gridlet
+     *         gets any share
+     * @pre now >= 0.0
+     * @post $none
+     */
+    private double findFinishTime(double now)
+    {
+        MIShares share = getMIShare( 1.0, gridletInExecList_.size(), now );
+        double finish = Double.MAX_VALUE;
+        int i = 0;
+        for (ResGridlet rgl : gridletInExecList_)
+        {
+            double rating = (i < share.maxCount) ? share.max : share.min;
+            if (rating > 0.0)
+            {
+                double time = lastUpdateTime_ +
+                              rgl.getRemainingGridletLength() / rating;
+                finish = Math.min(finish, time);
+            }
+            i++;
+        }
+
+        return finish;
     }
 
     /**
@@ -678,6 +1058,9 @@ class TimeShared extends AllocPolicy
         // Don't use an iterator since it causes an exception because if
         // a Gridlet is finished, gridletFinish() will remove it from the list.
         int i = 0;
+
+        // Gridlets submitted in bulk are sent back together
+        super.holdFinishedGridlets();
         while ( i < gridletInExecList_.size() )
         {
             rgl = (ResGridlet) gridletInExecList_.get(i);
@@ -691,6 +1074,8 @@ class TimeShared extends AllocPolicy
 
             i++;
         }
+
+        super.releaseFinishedGridlets();
     }
 
     /**
@@ -744,18 +1129,11 @@ class TimeShared extends AllocPolicy
      */
     private synchronized void internalEvent()
     {
-        // this is a constraint that prevents an infinite loop
-        // Compare between 2 floating point numbers. This might be incorrect
-        // for some hardware platform.
-        if ( lastUpdateTime_ == GridSim.clock() ) {
-            return;
-        }
-
-        // update Gridlets in execution up to this point in time
-        updateGridletProcessing();
+        // update and forecast the Gridlets at every wake-up time up to now
+        processWakeUps(GridSim.clock(), true);
 
         // schedule next event
-        forecastGridlet();
+        setNextTimer();
     }
 
     /**
@@ -773,16 +1151,16 @@ class TimeShared extends AllocPolicy
         ResGridlet rgl = null;
 
         // Check whether the Gridlet is in execution list or not
-        int found = gridletInExecList_.indexOf(gridletId, userId);
+        rgl = gridletInExecList_.get(gridletId, userId);
 
         // if a Gridlet is in execution list
-        if (found >= 0)
+        if (rgl != null)
         {
             // update the gridlets in execution list up to this point in time
             updateGridletProcessing();
 
-            // Get the Gridlet from the execution list
-            rgl = (ResGridlet) gridletInExecList_.remove(found);
+            // Remove the Gridlet from the execution list
+            gridletInExecList_.remove(rgl);
 
             // if a Gridlet is finished upon cancelling, then set it to success
             if (rgl.getRemainingGridletLength() == 0.0) {
@@ -799,12 +1177,10 @@ class TimeShared extends AllocPolicy
         // if a Gridlet is not in exec list, then find it in the paused list
         else
         {
-            found = gridletPausedList_.indexOf(gridletId, userId);
+            rgl = gridletPausedList_.remove(gridletId, userId);
 
-            // if a Gridlet is found in the paused list then remove it
-            if (found >= 0)
-            {
-                rgl = (ResGridlet) gridletPausedList_.remove(found);
+            // if a Gridlet is found in the paused list then cancel it
+            if (rgl != null) {
                 rgl.setGridletStatus(Gridlet.CANCELED);
             }
         }
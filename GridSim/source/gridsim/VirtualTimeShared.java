@@ -0,0 +1,972 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim;
+
+import eduni.simjava.Sim_event;
+import gridsim.kernel.Checkpointable;
+import gridsim.kernel.EventDriven;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+
+/**
+ * VirtualTimeShared is a time-shared allocation policy for GridResource
+ * that scales to a large number of concurrent Gridlets. Like
+ * {@link gridsim.TimeShared}, it runs all Gridlets at the same time, each
+ * of them on one PE (Processing Element). All Gridlets in execution get
+ * the same share of the resource, i.e. each of them is processed at
+ * <tt>MIPS rating of one PE * (1 - local load) * min(1, PEs / Gridlets)</tt>
+ * MI per second.
+ * <p>
+ * Rather than adding the MI processed to every Gridlet on every event, this
+ * policy keeps a <i>virtual time</i>, which is the number of MI that each
+ * Gridlet in execution has received since the start of the simulation.
+ * A Gridlet starting at virtual time <tt>v</tt> with <tt>r</tt> MI to run
+ * finishes at virtual time <tt>v + r</tt>, whatever happens meanwhile, so
+ * the Gridlets are kept in a heap ordered by this virtual finish time.
+ * Hence, submitting, pausing, resuming or canceling a Gridlet costs
+ * <tt>O(log n)</tt> for <tt>n</tt> Gridlets in execution instead of
+ * <tt>O(n)</tt>. The progress of a Gridlet is only computed when it leaves
+ * the execution list, and only one internal event is pending at any time,
+ * for the next Gridlet to finish.
+ * <p>
+ * The finish times differ slightly from the ones of {@link TimeShared},
+ * which gives a larger share to the Gridlets at the front of its list and
+ * finishes a Gridlet no earlier than one second after the last update. This
+ * policy is not selected by a {@link ResourceCharacteristics} constant, but
+ * given to a GridResource, e.g.
+ * <pre>
+ * ResourceCharacteristics resConfig = new ResourceCharacteristics(arch, os,
+ *         machineList, ResourceCharacteristics.TIME_SHARED, timeZone, cost);
+ * VirtualTimeShared policy = new VirtualTimeShared(name, "VirtualTimeShared");
+ * GridResource res = new GridResource(name, link, resConfig, calendar, policy);
+ * </pre>
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.TimeShared
+ * @see gridsim.GridResource#GridResource(String, gridsim.net.Link,
+ *      ResourceCharacteristics, ResourceCalendar, AllocPolicy)
+ * @invariant $none
+ */
+public class VirtualTimeShared extends AllocPolicy
+        implements EventDriven, Checkpointable
+{
+    // relative tolerance when comparing virtual times
+    private static final double EPSILON = 1e-9;
+
+    // delay before checking the local load again if no MI can be processed
+    private static final double FULL_LOAD_DELAY = 1.0;
+
+    private Entry[] heap_;          // Gridlets in execution, by finish time
+    private int size_;              // number of Gridlets in execution
+    private GridletIndex<Entry> index_;  // Gridlets in execution by key
+    private ResGridletList gridletPausedList_;  // storing Paused Gridlets
+    private double virtualTime_;    // MI received by every Gridlet so far
+    private double rate_;           // MI per second of every Gridlet
+    private double lastUpdateTime_; // time when virtualTime_ was updated
+    private long sequence_;         // number of Gridlets added so far
+
+    /**
+     * A Gridlet in execution
+     */
+    private static final class Entry implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        final ResGridlet rgl_;      // the Gridlet
+        final double finish_;       // virtual finish time
+        final long sequence_;       // breaks ties between finish times
+        double updated_;            // virtual time of the last update
+        int index_;                 // position in the heap
+
+        /**
+         * Allocates a new entry
+         * @param rgl       the Gridlet
+         * @param start     virtual time when the Gridlet starts running
+         * @param sequence  the order of the Gridlet
+         * @pre rgl != null
+         * @post $none
+         */
+        Entry(ResGridlet rgl, double start, long sequence)
+        {
+            rgl_ = rgl;
+            finish_ = start + rgl.getRemainingGridletLength();
+            sequence_ = sequence;
+            updated_ = start;
+            index_ = -1;
+        }
+
+        /**
+         * Checks whether this entry finishes before another one
+         * @param other  another entry
+         * @return <tt>true</tt> if this entry comes first
+         * @pre other != null
+         * @post $none
+         */
+        boolean before(Entry other)
+        {
+            if (finish_ != other.finish_) {
+                return finish_ < other.finish_;
+            }
+            return sequence_ < other.sequence_;
+        }
+    }
+
+    /**
+     * Allocates a new VirtualTimeShared object
+     * @param resourceName    the GridResource entity name that will contain
+     *                        this allocation policy
+     * @param entityName      this object entity name
+     * @throws Exception This happens when one of the following scenarios occur:
+     *      <ul>
+     *          <li> creating this entity before initializing GridSim package
+     *          <li> this entity name is <tt>null</tt> or empty
+     *          <li> this entity has <tt>zero</tt> number of PEs (Processing
+     *              Elements). <br>
+     *              No PEs mean the Gridlets can't be processed.
+     *              A GridResource must contain one or more Machines.
+     *              A Machine must contain one or more PEs.
+     *      </ul>
+     * @see gridsim.GridSim#init(int, Calendar, boolean, String[], String[],
+     *          String)
+     * @pre resourceName != null
+     * @pre entityName != null
+     * @post $none
+     */
+    public VirtualTimeShared(String resourceName, String entityName)
+            throws Exception
+    {
+        super(resourceName, entityName);
+
+        heap_ = new Entry[16];
+        size_ = 0;
+        index_ = new GridletIndex<Entry>();
+        gridletPausedList_ = new ResGridletList();
+        virtualTime_ = 0.0;
+        rate_ = 0.0;
+        lastUpdateTime_ = 0.0;
+        sequence_ = 0;
+    }
+
+    /**
+     * Handles internal events that are coming to this entity.
+     * @pre $none
+     * @post $none
+     */
+    public void body()
+    {
+        // a loop that is looking for internal events only
+        Sim_event ev = new Sim_event();
+        while ( GridSim.isSimulationRunning() )
+        {
+            super.sim_get_next(ev);
+
+            // if the simulation finishes then exit the loop
+            if (ev.get_tag() == GridSimTags.END_OF_SIMULATION ||
+                super.isEndSimulation())
+            {
+                break;
+            }
+
+            // Internal Event if this is the pending wake-up of this entity
+            if ( super.isTimerEvent(ev) ) {
+                internalEvent();
+            }
+        }
+
+        // CHECK for ANY INTERNAL EVENTS WAITING TO BE PROCESSED
+        while (super.sim_waiting() > 0)
+        {
+            // wait for event and ignore since it is likely to be related to
+            // internal event scheduled to update Gridlets processing
+            super.sim_get_next(ev);
+            System.out.println(super.resName_ +
+                    ".VirtualTimeShared.body(): ignoring internal events");
+        }
+    }
+
+    /**
+     * Does nothing, since this entity only reacts to internal events
+     * @pre $none
+     * @post $none
+     */
+    public void startEntity() {
+        // empty
+    }
+
+    /**
+     * Handles an internal event when this entity is run by the event-loop
+     * kernel
+     * @param ev  an incoming event
+     * @pre ev != null
+     * @post $none
+     */
+    public void handleEvent(Sim_event ev)
+    {
+        // if the simulation finishes then stop receiving events
+        if (ev.get_tag() == GridSimTags.END_OF_SIMULATION ||
+            super.isEndSimulation())
+        {
+            super.endEntity();
+            return;
+        }
+
+        // Internal Event if this is the pending wake-up of this entity
+        if ( super.isTimerEvent(ev) ) {
+            internalEvent();
+        }
+    }
+
+    /**
+     * Saves the Gridlets and the virtual time of this policy into a snapshot
+     * @param out  the snapshot stream
+     * @throws IOException  if the state can't be written
+     * @pre out != null
+     * @post $none
+     */
+    public void saveState(ObjectOutputStream out) throws IOException
+    {
+        super.savePolicyState(out);
+        out.writeInt(size_);
+        for (int i = 0; i < size_; i++) {
+            out.writeObject(heap_[i]);
+        }
+        out.writeObject(gridletPausedList_);
+        out.writeDouble(virtualTime_);
+        out.writeDouble(rate_);
+        out.writeDouble(lastUpdateTime_);
+        out.writeLong(sequence_);
+    }
+
+    /**
+     * Restores the Gridlets and the virtual time of this policy from a
+     * snapshot
+     * @param in  the snapshot stream
+     * @throws IOException  if the state can't be read
+     * @throws ClassNotFoundException  if a saved class is not found
+     * @pre in != null
+     * @post $none
+     */
+    public void restoreState(ObjectInputStream in)
+            throws IOException, ClassNotFoundException
+    {
+        super.restorePolicyState(in);
+        int size = in.readInt();
+        heap_ = new Entry[ Math.max(16, size) ];
+        index_ = new GridletIndex<Entry>();
+        for (int i = 0; i < size; i++)
+        {
+            Entry entry = (Entry) in.readObject();
+            heap_[i] = entry;
+            indexEntry(entry);
+        }
+        size_ = size;
+        gridletPausedList_ = (ResGridletList) in.readObject();
+        virtualTime_ = in.readDouble();
+        rate_ = in.readDouble();
+        lastUpdateTime_ = in.readDouble();
+        sequence_ = in.readLong();
+    }
+
+    /**
+     * Schedules a new Gridlet that has been received by the GridResource
+     * entity.
+     * @param   gl    a Gridlet object that is going to be executed
+     * @param   ack   an acknowledgement, i.e. <tt>true</tt> if wanted to know
+     *        whether this operation is success or not, <tt>false</tt>
+     *        otherwise (don't care)
+     * @pre gl != null
+     * @post $none
+     */
+    public synchronized void gridletSubmit(Gridlet gl, boolean ack)
+    {
+        // update the virtual time up to this point in time
+        updateVirtualTime();
+
+        // reset number of PE since at the moment, it is not supported
+        if (gl.getNumPE() > 1)
+        {
+            String userName = GridSim.getEntityName( gl.getUserID() );
+            System.out.println();
+            System.out.println(super.get_name() + ".gridletSubmit(): " +
+                " Gridlet #" + gl.getGridletID() + " from " + userName +
+                " user requires " + gl.getNumPE() + " PEs.");
+            System.out.println("--> Process this Gridlet to 1 PE only.");
+            System.out.println();
+
+            // also adjusted the length because the number of PEs are reduced
+            int numPE = gl.getNumPE();
+            double len = gl.getGridletLength();
+            gl.setGridletLength(len*numPE);
+            gl.setNumPE(1);
+        }
+
+        // adds a Gridlet to the heap of Gridlets in execution
+        ResGridlet rgl = new ResGridlet(gl);
+        rgl.setGridletStatus(Gridlet.INEXEC); // set the Gridlet status to exec
+        addGridlet(rgl);
+
+        // sends back an ack if required
+        if (ack)
+        {
+            super.sendAck(GridSimTags.GRIDLET_SUBMIT_ACK, true,
+                          gl.getGridletID(), gl.getUserID()
+            );
+        }
+
+        // finish the Gridlets that are done and schedule the next one
+        forecastGridlet();
+    }
+
+    /**
+     * Finds the status of a specified Gridlet ID.
+     * @param gridletId    a Gridlet ID
+     * @param userId       the user or owner's ID of this Gridlet
+     * @return the Gridlet status or <tt>-1</tt> if not found
+     * @see gridsim.Gridlet
+     * @pre gridletId > 0
+     * @pre userId > 0
+     * @post $none
+     */
+    public synchronized int gridletStatus(int gridletId, int userId)
+    {
+        // Find in the execution heap first
+        Entry entry = findEntry(gridletId, userId);
+        if (entry != null) {
+            return entry.rgl_.getGridletStatus();
+        }
+
+        // if not found then find again in Paused List
+        int found = gridletPausedList_.indexOf(gridletId, userId);
+        if (found >= 0)
+        {
+            ResGridlet rgl = gridletPausedList_.get(found);
+            return rgl.getGridletStatus();
+        }
+
+        // if not found in all lists
+        return -1;
+    }
+
+    /**
+     * Cancels a Gridlet running in this entity.
+     * This method will search the execution and paused list. The User ID is
+     * important as many users might have the same Gridlet ID in the lists.
+     * <b>NOTE:</b>
+     * <ul>
+     *    <li> Before canceling a Gridlet, this method updates the progress
+     *         of the Gridlet. If the Gridlet has no more MIs to be executed,
+     *         then it is considered to be <tt>finished</tt>.
+     *         Hence, the Gridlet can't be canceled.
+     *
+     *    <li> Once a Gridlet has been canceled, it can't be resumed to
+     *         execute again since this method will pass the Gridlet back to
+     *         sender, i.e. the <tt>userId</tt>.
+     *
+     *    <li> If a Gridlet can't be found in both execution and paused list,
+     *         then a <tt>null</tt> Gridlet will be send back to sender,
+     *         i.e. the <tt>userId</tt>.
+     * </ul>
+     *
+     * @param gridletId    a Gridlet ID
+     * @param userId       the user or owner's ID of this Gridlet
+     * @pre gridletId > 0
+     * @pre userId > 0
+     * @post $none
+     */
+    public synchronized void gridletCancel(int gridletId, int userId)
+    {
+        // Finds the gridlet in execution and paused list
+        ResGridlet rgl = cancel(gridletId, userId);
+
+        // If not found in both lists then report an error and sends back
+        // an empty Gridlet
+        if (rgl == null)
+        {
+            System.out.println(super.resName_ +
+                    ".VirtualTimeShared.gridletCancel(): Cannot find " +
+                    "Gridlet #" + gridletId + " for User #" + userId);
+
+            super.sendCancelGridlet(GridSimTags.GRIDLET_CANCEL, null,
+                                    gridletId, userId);
+            return;
+        }
+
+        // if a Gridlet is found
+        rgl.finalizeGridlet();     // finalise Gridlet
+
+        // if a Gridlet has finished execution before canceling, the reports
+        // an error msg
+        if (rgl.getGridletStatus() == Gridlet.SUCCESS)
+        {
+            System.out.println(super.resName_
+                    + ".VirtualTimeShared.gridletCancel(): Cannot cancel"
+                    + " Gridlet #" + gridletId + " for User #" + userId
+                    + " since it has FINISHED.");
+        }
+
+        // sends the Gridlet back to sender
+        super.sendCancelGridlet(GridSimTags.GRIDLET_CANCEL, rgl.getGridlet(),
+                                gridletId, userId);
+    }
+
+    /**
+     * Pauses a Gridlet only if it is currently executing.
+     * This method will search in the execution list. The User ID is
+     * important as many users might have the same Gridlet ID in the lists.
+     * @param gridletId    a Gridlet ID
+     * @param userId       the user or owner's ID of this Gridlet
+     * @param   ack   an acknowledgement, i.e. <tt>true</tt> if wanted to know
+     *        whether this operation is success or not, <tt>false</tt>
+     *        otherwise (don't care)
+     * @pre gridletId > 0
+     * @pre userId > 0
+     * @post $none
+     */
+    public synchronized void gridletPause(int gridletId, int userId, boolean ack)
+    {
+        boolean status = false;
+
+        // find this Gridlet in the execution heap
+        Entry entry = findEntry(gridletId, userId);
+        if (entry != null)
+        {
+            // update the virtual time up to this point in time
+            updateVirtualTime();
+
+            // get a Gridlet from the execution heap
+            ResGridlet rgl = removeGridlet(entry);
+
+            // if a Gridlet is finished upon pausing, then set it to success
+            // instead.
+            if (rgl.getRemainingGridletLength() == 0.0)
+            {
+                System.out.println(super.resName_
+                        + ".VirtualTimeShared.gridletPause(): Cannot pause"
+                        + " Gridlet #" + gridletId + " for User #" + userId
+                        + " since it is FINISHED.");
+
+                gridletFinish(rgl, Gridlet.SUCCESS);
+            }
+            else
+            {
+                status = true;
+                rgl.setGridletStatus(Gridlet.PAUSED);
+
+                // add the Gridlet into the paused list
+                gridletPausedList_.add(rgl);
+                System.out.println(super.resName_ +
+                    ".VirtualTimeShared.gridletPause(): Gridlet #" +
+                    gridletId + " with User #" + userId +
+                    " has been sucessfully PAUSED.");
+            }
+
+            // the other Gridlets now get a larger share
+            forecastGridlet();
+        }
+        else   // if not found in the execution list
+        {
+            System.out.println(super.resName_ +
+                    ".VirtualTimeShared.gridletPause(): Cannot find " +
+                    "Gridlet #" + gridletId + " for User #" + userId);
+        }
+
+        // sends back an ack
+        if (ack)
+        {
+            super.sendAck(GridSimTags.GRIDLET_PAUSE_ACK, status,
+                          gridletId, userId);
+        }
+    }
+
+    /**
+     * Moves a Gridlet from this GridResource entity to a different one.
+     * This method will search in both the execution and paused list.
+     * The User ID is important as many Users might have the same Gridlet ID
+     * in the lists.
+     * <p>
+     * If a Gridlet has finished beforehand, then this method will send back
+     * the Gridlet to sender, i.e. the <tt>userId</tt> and sets the
+     * acknowledgment to false (if required).
+     *
+     * @param gridletId    a Gridlet ID
+     * @param userId       the user or owner's ID of this Gridlet
+     * @param destId       a new destination GridResource ID for this Gridlet
+     * @param   ack   an acknowledgement, i.e. <tt>true</tt> if wanted to know
+     *        whether this operation is success or not, <tt>false</tt>
+     *        otherwise (don't care)
+     * @pre gridletId > 0
+     * @pre userId > 0
+     * @pre destId > 0
+     * @post $none
+     */
+    public synchronized void gridletMove(int gridletId, int userId, int destId,
+                                         boolean ack)
+    {
+        // cancel the Gridlet first
+        ResGridlet rgl = cancel(gridletId, userId);
+
+        // If no found then print an error msg
+        if (rgl == null)
+        {
+            System.out.println(super.resName_ +
+                    ".VirtualTimeShared.gridletMove(): Cannot find " +
+                    "Gridlet #" + gridletId + " for User #" + userId);
+
+            if (ack)   // sends ack that this operation fails
+            {
+                super.sendAck(GridSimTags.GRIDLET_SUBMIT_ACK, false,
+                              gridletId, userId);
+            }
+            return;
+        }
+
+        // if found
+        rgl.finalizeGridlet();   // finalise Gridlet
+        Gridlet gl = rgl.getGridlet();
+
+        // if a Gridlet has finished execution
+        if (gl.getGridletStatus() == Gridlet.SUCCESS)
+        {
+            System.out.println(super.resName_
+                    + ".VirtualTimeShared.gridletMove(): Cannot move"
+                    + " Gridlet #" + gridletId + " for User #" + userId
+                    + " since it has FINISHED.");
+
+            if (ack)
+            {
+                super.sendAck(GridSimTags.GRIDLET_SUBMIT_ACK, false, gridletId,
+                              userId);
+            }
+
+            super.sendFinishGridlet(gl);   // sends the Gridlet back to sender
+        }
+        // moves this Gridlet to another GridResource entity
+        else {
+            super.gridletMigrate(gl, destId, ack);
+        }
+    }
+
+    /**
+     * Resumes a Gridlet only in the paused list.
+     * The User ID is important as many Users might have the same Gridlet ID
+     * in the lists.
+     * @param gridletId    a Gridlet ID
+     * @param userId       the user or owner's ID of this Gridlet
+     * @param   ack   an acknowledgement, i.e. <tt>true</tt> if wanted to know
+     *        whether this operation is success or not, <tt>false</tt>
+     *        otherwise (don't care)
+     * @pre gridletId > 0
+     * @pre userId > 0
+     * @post $none
+     */
+    public synchronized void gridletResume(int gridletId, int userId, boolean ack)
+    {
+        boolean success = false;
+
+        // finds in the paused list
+        int found = gridletPausedList_.indexOf(gridletId, userId);
+        if (found >= 0)
+        {
+            // need to update the virtual time up to this point in time
+            updateVirtualTime();
+
+            // remove a Gridlet from paused list and change the status
+            ResGridlet rgl = gridletPausedList_.remove(found);
+            rgl.setGridletStatus(Gridlet.RESUMED);
+
+            // add the Gridlet back to the execution heap
+            addGridlet(rgl);
+            forecastGridlet();
+
+            success = true;
+            System.out.println(super.resName_ +
+                    ".VirtualTimeShared.gridletResume(): Gridlet #" +
+                    gridletId + " with User #" + userId +
+                    " has been sucessfully RESUMED.");
+        }
+        else  // if no found then prints an error msg
+        {
+            System.out.println(super.resName_ +
+                    ".VirtualTimeShared.gridletResume(): Cannot find " +
+                    "Gridlet #" + gridletId + " for User #" + userId);
+        }
+
+        // sends back an ack to sender
+        if (ack)
+        {
+            super.sendAck(GridSimTags.GRIDLET_RESUME_ACK, success,
+                          gridletId, userId);
+        }
+    }
+
+    /**
+     * Forecasts the Gridlets in execution again, since they are processed
+     * at a different rate from now on
+     * @pre $none
+     * @post $none
+     */
+    protected void processLoadChange() {
+        internalEvent();
+    }
+
+
+    ////////////////////// PRIVATE METHODS //////////////////////////////
+
+    /**
+     * Advances the virtual time from the last update time up to the current
+     * time, at the rate computed by the last forecast
+     * @pre $none
+     * @post $none
+     */
+    private void updateVirtualTime()
+    {
+        double time = GridSim.clock();
+        double timeSpan = time - lastUpdateTime_;
+
+        // if current time is the same or less than the last update time,
+        // then ignore
+        if (timeSpan <= 0.0) {
+            return;
+        }
+
+        // Update Current Time as the Last Update
+        lastUpdateTime_ = time;
+
+        // update the GridResource load
+        double load = super.calculateTotalLoad(size_);
+        super.addTotalLoad(load);       // add the current resource load
+
+        if (size_ > 0) {
+            virtualTime_ += rate_ * timeSpan;
+        }
+    }
+
+    /**
+     * Finishes the Gridlets that are done, then schedules one internal event
+     * for the next Gridlet to finish, unless an earlier event is pending
+     * already
+     * @pre $none
+     * @post $none
+     */
+    private void forecastGridlet()
+    {
+        // checks whether Gridlets have finished or not. If yes, then remove
+        // them since they will effect the share of the others.
+        checkGridletCompletion();
+        rate_ = getRate(size_);
+
+        if (size_ == 0)
+        {
+            super.cancelTimer();    // the pending event is not needed anymore
+            return;
+        }
+
+        double delay = FULL_LOAD_DELAY;
+        if (rate_ > 0.0)
+        {
+            delay = (heap_[0].finish_ - virtualTime_) / rate_;
+            heap_[0].rgl_.setFinishTime(lastUpdateTime_ + delay);
+        }
+
+        // an earlier pending event is kept, and forecasts again when due
+        super.setTimer(delay);
+
+        // the rate changes with the local load, so forecast again by then
+        super.setLoadChangeTimer();
+    }
+
+    /**
+     * Gets the number of MI per second processed for every Gridlet
+     * @param size  the number of Gridlets in execution
+     * @return the processing rate of every Gridlet
+     * @pre size >= 0
+     * @post $result >= 0.0
+     */
+    private double getRate(int size)
+    {
+        // 1 - localLoad_ = available MI share percentage
+        double localLoad = super.resCalendar_.getCurrentLoad();
+        double rate = super.resource_.getMIPSRatingOfOnePE() * (1 - localLoad);
+
+        // more Gridlets than PEs, so all PEs are shared by all Gridlets
+        if (size > super.totalPE_) {
+            rate = rate * super.totalPE_ / size;
+        }
+
+        return Math.max(rate, 0.0);
+    }
+
+    /**
+     * Finishes all Gridlets whose virtual finish time has been reached
+     * @pre $none
+     * @post $none
+     */
+    private void checkGridletCompletion()
+    {
+        double time = GridSim.clock();
+        while (size_ > 0)
+        {
+            Entry entry = heap_[0];
+            double left = entry.finish_ - virtualTime_;
+
+            // a Gridlet is done if its remaining MI are negligible, or if
+            // they take too little time to advance the clock
+            boolean done = left <= EPSILON * Math.max(1.0, entry.finish_);
+            if (!done && rate_ > 0.0) {
+                done = (time + left / rate_ == time);
+            }
+
+            if (!done) {
+                break;
+            }
+
+            ResGridlet rgl = removeGridlet(entry);
+            rgl.updateGridletFinishedSoFar( rgl.getRemainingGridletLength() );
+            gridletFinish(rgl, Gridlet.SUCCESS);
+        }
+    }
+
+    /**
+     * Updates the Gridlet's properties, such as status once a
+     * Gridlet is considered finished.
+     * @param rgl     a ResGridlet object
+     * @param status  the status of this ResGridlet object
+     * @pre rgl != null
+     * @post $none
+     */
+    private void gridletFinish(ResGridlet rgl, int status)
+    {
+        // NOTE: the order is important! Set the status first then finalize
+        // due to timing issues in ResGridlet class.
+        rgl.setGridletStatus(status);
+        rgl.finalizeGridlet();
+
+        // sends back the Gridlet with no delay
+        super.sendFinishGridlet( rgl.getGridlet() );
+    }
+
+    /**
+     * Handles internal event
+     * @pre $none
+     * @post $none
+     */
+    private synchronized void internalEvent()
+    {
+        updateVirtualTime();
+        forecastGridlet();
+    }
+
+    /**
+     * Handles an operation of canceling a Gridlet in either execution list
+     * or paused list.
+     * @param gridletId    a Gridlet ID
+     * @param userId       the user or owner's ID of this Gridlet
+     * @return a ResGridlet object or <tt>null</tt> if this Gridlet is not found
+     * @pre gridletId > 0
+     * @pre userId > 0
+     * @post $none
+     */
+    private ResGridlet cancel(int gridletId, int userId)
+    {
+        ResGridlet rgl = null;
+
+        // Check whether the Gridlet is in execution or not
+        Entry entry = findEntry(gridletId, userId);
+
+        // if a Gridlet is in execution
+        if (entry != null)
+        {
+            // update the virtual time up to this point in time
+            updateVirtualTime();
+            rgl = removeGridlet(entry);
+
+            // if a Gridlet is finished upon cancelling, then set it to success
+            if (rgl.getRemainingGridletLength() == 0.0) {
+                rgl.setGridletStatus(Gridlet.SUCCESS);
+            }
+            else {
+                rgl.setGridletStatus(Gridlet.CANCELED);
+            }
+
+            // then forecast the next Gridlet to complete
+            forecastGridlet();
+        }
+
+        // if a Gridlet is not in execution, then find it in the paused list
+        else
+        {
+            int found = gridletPausedList_.indexOf(gridletId, userId);
+
+            // if a Gridlet is found in the paused list then remove it
+            if (found >= 0)
+            {
+                rgl = gridletPausedList_.remove(found);
+                rgl.setGridletStatus(Gridlet.CANCELED);
+            }
+        }
+
+        return rgl;
+    }
+
+    /**
+     * Finds a Gridlet in execution
+     * @param gridletId    a Gridlet ID
+     * @param userId       the user or owner's ID of this Gridlet
+     * @return the entry of the Gridlet or <tt>null</tt> if not found
+     * @pre $none
+     * @post $none
+     */
+    private Entry findEntry(int gridletId, int userId) {
+        return index_.get( ResGridletList.key(gridletId, userId) );
+    }
+
+    /**
+     * Adds an entry into the index. It replaces the entry of another
+     * Gridlet that has the same Ids, if any.
+     * @param entry  the entry of a Gridlet in execution
+     * @pre entry != null
+     * @post $none
+     */
+    private void indexEntry(Entry entry)
+    {
+        index_.put( ResGridletList.key(entry.rgl_.getGridletID(),
+                                       entry.rgl_.getUserID()), entry );
+    }
+
+    /**
+     * Removes an entry from the index
+     * @param entry  the entry of a Gridlet, which is no longer in execution
+     * @pre entry != null
+     * @post $none
+     */
+    private void unindexEntry(Entry entry)
+    {
+        index_.remove( ResGridletList.key(entry.rgl_.getGridletID(),
+                                          entry.rgl_.getUserID()), entry );
+    }
+
+    /**
+     * Adds a Gridlet to the execution heap, starting at the current virtual
+     * time
+     * @param rgl  the Gridlet
+     * @pre rgl != null
+     * @post $none
+     */
+    private void addGridlet(ResGridlet rgl)
+    {
+        Entry entry = new Entry(rgl, virtualTime_, sequence_++);
+        indexEntry(entry);
+
+        if (size_ == heap_.length)
+        {
+            Entry[] heap = new Entry[size_ * 2];
+            System.arraycopy(heap_, 0, heap, 0, size_);
+            heap_ = heap;
+        }
+
+        heap_[size_] = entry;
+        entry.index_ = size_;
+        size_++;
+        siftUp(entry.index_);
+    }
+
+    /**
+     * Removes a Gridlet from the execution heap, and adds the MI it has
+     * received since it was added
+     * @param entry  the entry of the Gridlet
+     * @return the Gridlet
+     * @pre entry != null
+     * @post $none
+     */
+    private ResGridlet removeGridlet(Entry entry)
+    {
+        unindexEntry(entry);
+
+        int index = entry.index_;
+        size_--;
+        if (index != size_)
+        {
+            heap_[index] = heap_[size_];
+            heap_[index].index_ = index;
+            siftDown(index);
+            siftUp(index);
+        }
+        heap_[size_] = null;
+        entry.index_ = -1;
+
+        // the progress of the Gridlet since it was added
+        double time = Math.min(virtualTime_, entry.finish_);
+        if (time > entry.updated_)
+        {
+            entry.rgl_.updateGridletFinishedSoFar(time - entry.updated_);
+            entry.updated_ = time;
+        }
+        return entry.rgl_;
+    }
+
+    /**
+     * Moves an entry of the heap up to its place
+     * @param index  the position of the entry
+     * @pre index >= 0 && index < size_
+     * @post $none
+     */
+    private void siftUp(int index)
+    {
+        Entry entry = heap_[index];
+        while (index > 0)
+        {
+            int parent = (index - 1) / 2;
+            if ( !entry.before(heap_[parent]) ) {
+                break;
+            }
+
+            heap_[index] = heap_[parent];
+            heap_[index].index_ = index;
+            index = parent;
+        }
+        heap_[index] = entry;
+        entry.index_ = index;
+    }
+
+    /**
+     * Moves an entry of the heap down to its place
+     * @param index  the position of the entry
+     * @pre index >= 0 && index < size_
+     * @post $none
+     */
+    private void siftDown(int index)
+    {
+        Entry entry = heap_[index];
+        while (true)
+        {
+            int child = 2 * index + 1;
+            if (child >= size_) {
+                break;
+            }
+
+            if ( child + 1 < size_ && heap_[child + 1].before(heap_[child]) ) {
+                child++;
+            }
+
+            if ( !heap_[child].before(entry) ) {
+                break;
+            }
+
+            heap_[index] = heap_[child];
+            heap_[index].index_ = index;
+            index = child;
+        }
+        heap_[index] = entry;
+        entry.index_ = index;
+    }
+
+} // end class
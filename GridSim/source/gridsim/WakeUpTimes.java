@@ -0,0 +1,141 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim;
+
+import java.io.Serializable;
+
+/**
+ * WakeUpTimes keeps the times at which an allocation policy updates its
+ * Gridlets, in ascending order and without duplicates. A policy that used
+ * to send an internal event for each of these times keeps them here
+ * instead. It then processes the times at which no Gridlet can finish by
+ * itself, and only waits for the others through
+ * {@link AllocPolicy#setTimer(double)}.
+ * <p>
+ * The times are stored in a <tt>double</tt> array, so adding or removing a
+ * time does not create any object.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.SpaceShared
+ * @see gridsim.TimeShared
+ * @invariant $none
+ */
+final class WakeUpTimes implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private double[] times_;    // times_[first_ .. first_ + count_ - 1]
+    private int first_;         // index of the earliest time
+    private int count_;         // number of times
+
+
+    /**
+     * Allocates a new empty list
+     * @pre $none
+     * @post $none
+     */
+    WakeUpTimes()
+    {
+        times_ = new double[16];
+        first_ = 0;
+        count_ = 0;
+    }
+
+    /**
+     * Adds a time, unless it is in this list already
+     * @param time  the simulation time
+     * @pre time >= 0.0
+     * @post $none
+     */
+    void add(double time)
+    {
+        // find the position of this time by binary search
+        int low = first_;
+        int high = first_ + count_;
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (times_[mid] < time) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+
+        if (low < first_ + count_ && times_[low] == time) {
+            return;
+        }
+
+        if (first_ + count_ == times_.length)
+        {
+            // make room at the end, moving the times to the front
+            double[] times = times_;
+            if (count_ * 2 > times_.length) {
+                times = new double[times_.length * 2];
+            }
+            System.arraycopy(times_, first_, times, 0, count_);
+            low -= first_;
+            first_ = 0;
+            times_ = times;
+        }
+
+        System.arraycopy(times_, low, times_, low + 1, first_ + count_ - low);
+        times_[low] = time;
+        count_++;
+    }
+
+    /**
+     * Checks whether this list is empty
+     * @return <tt>true</tt> if there is no time in this list
+     * @pre $none
+     * @post $none
+     */
+    boolean isEmpty() {
+        return count_ == 0;
+    }
+
+    /**
+     * Gets the earliest time
+     * @return the earliest time
+     * @pre !isEmpty()
+     * @post $none
+     */
+    double first() {
+        return times_[first_];
+    }
+
+    /**
+     * Removes the earliest time
+     * @return the earliest time
+     * @pre !isEmpty()
+     * @post $none
+     */
+    double removeFirst()
+    {
+        double time = times_[first_];
+        first_++;
+        count_--;
+        if (count_ == 0) {
+            first_ = 0;
+        }
+        return time;
+    }
+
+    /**
+     * Gets the number of times in this list
+     * @return the number of times
+     * @pre $none
+     * @post $result >= 0
+     */
+    int size() {
+        return count_;
+    }
+
+} // end class
@@ -10,7 +10,6 @@ package gridsim.auction;
 
 import eduni.simjava.Sim_event;
 import eduni.simjava.Sim_port;
-import eduni.simjava.Sim_system;
 import gridsim.GridSim;
 import gridsim.GridSimTags;
 import gridsim.IO_data;
@@ -101,7 +100,7 @@ public class AuctionObserver extends GridSim {
         // GridSimShutdown Entity
 		
         Sim_event ev = new Sim_event();
-        while ( Sim_system.running() )
+        while ( GridSim.isSimulationRunning() )
         {
             super.sim_get_next(ev);
 
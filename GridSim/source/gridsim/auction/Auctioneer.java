@@ -9,7 +9,6 @@
 package gridsim.auction;
 
 import eduni.simjava.Sim_event;
-import eduni.simjava.Sim_system;
 import gridsim.GridSim;
 import gridsim.GridSimTags;
 import gridsim.net.Link;
@@ -132,7 +131,7 @@ public abstract class Auctioneer extends GridSim {
         // GridSimShutdown Entity
 		
         Sim_event ev = new Sim_event();
-        while ( Sim_system.running() )
+        while ( GridSim.isSimulationRunning() )
         {
             super.sim_get_next(ev);
 
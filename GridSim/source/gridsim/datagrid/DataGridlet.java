@@ -19,6 +19,7 @@ import java.util.LinkedList;
  * @since   GridSim Toolkit 4.0
  */
 public class DataGridlet extends gridsim.Gridlet {
+    private static final long serialVersionUID = 5133701096767900136L;
 
     private LinkedList requiredFiles_ = null;   // list of required filenames
 
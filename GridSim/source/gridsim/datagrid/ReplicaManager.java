@@ -12,9 +12,9 @@ package gridsim.datagrid;
 import java.util.Iterator;
 import java.util.List;
 
-import eduni.simjava.Sim_entity;
 import eduni.simjava.Sim_event;
 import eduni.simjava.Sim_port;
+import gridsim.kernel.KernelEntity;
 import gridsim.AllocPolicy;
 import gridsim.GridSim;
 import gridsim.GridSimTags;
@@ -30,7 +30,7 @@ import gridsim.datagrid.storage.Storage;
  * @author  Uros Cibej and Anthony Sulistio
  * @since   GridSim Toolkit 4.0
  */
-public abstract class ReplicaManager extends Sim_entity
+public abstract class ReplicaManager extends KernelEntity
 {
     /** The policy of the DataGridResource */
     protected AllocPolicy policy_;
@@ -10,7 +10,7 @@
 package gridsim.datagrid;
 
 import eduni.simjava.Sim_event;
-import eduni.simjava.Sim_system;
+import gridsim.GridSim;
 import gridsim.GridSimTags;
 import gridsim.IO_data;
 import gridsim.ParameterException;
@@ -257,7 +257,7 @@ public class SimpleReplicaManager extends ReplicaManager {
     public void body() {
         // a loop that is looking for internal events only
         Sim_event ev = new Sim_event();
-        while (Sim_system.running()) {
+        while (GridSim.isSimulationRunning()) {
             super.sim_get_next(ev);
 
             // if the simulation finishes then exit the loop
@@ -733,13 +733,13 @@ public class SimpleReplicaManager extends ReplicaManager {
      * GridSim is started.
      */
     public void registerAllMasterFiles() {
-        DataGridResource res = (DataGridResource) Sim_system
-                .get_entity(super.resourceID_);
+        DataGridResource res = (DataGridResource) GridSim.getEntity(
+                super.resourceID_);
         AbstractRC rc = null;
         if (res.hasLocalRC()) {
             rc = res.getLocalRC();
         } else {
-            rc = (AbstractRC) Sim_system.get_entity(super.rcID_);
+            rc = (AbstractRC) GridSim.getEntity(super.rcID_);
         }
 
         if (rc == null) {
@@ -172,7 +172,7 @@ public abstract class AbstractRC extends GridSimCore {
         // Process events until END_OF_SIMULATION is received from the
         // GridSimShutdown Entity
         Sim_event ev = new Sim_event();
-        while (Sim_system.running()) {
+        while (GridSim.isSimulationRunning()) {
             super.sim_get_next(ev);
 
             // if the simulation finishes then exit the loop
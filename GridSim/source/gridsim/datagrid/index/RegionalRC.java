@@ -917,7 +917,7 @@ public class RegionalRC extends AbstractRC
 
         // register also to the higher level RC
         int higherRC = getHigherLevelRCid();
-        AbstractRC rc = (AbstractRC)Sim_system.get_entity(higherRC);
+        AbstractRC rc = (AbstractRC)GridSim.getEntity(higherRC);
         rc.registerOriginalFile(fAttr, senderID_.intValue());
         return true;
     }
@@ -0,0 +1,252 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.experiment;
+
+import gridsim.GridSim;
+import gridsim.ParameterException;
+import gridsim.SimulationContext;
+import gridsim.kernel.EventLoopKernel;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+/**
+ * ExperimentRunner runs a parameter sweep, i.e. one simulation for every
+ * point of a {@link ParameterGrid}, on several threads at the same time:
+ * <pre>
+ *     ExperimentRunner runner = new ExperimentRunner(factory, grid);
+ *     Writer out = new FileWriter("results.csv");
+ *     runner.run( new ResultTable(out) );
+ *     out.close();
+ * </pre>
+ * Each run gets its own {@link gridsim.SimulationContext}, in which the
+ * {@link Scenario} created by the {@link ScenarioFactory} builds the
+ * simulation. The simulation is then run by the event-loop kernel of the
+ * context, and its {@link RunSummary} is added to the {@link ResultTable}.
+ * <p>
+ * The points are created only when a thread is ready to run them, and a
+ * summary is handed to the table as soon as its run finishes, so no more
+ * than one simulation per thread is in memory at any time. The immutable
+ * inputs of the runs, such as workload traces and network topologies, are
+ * loaded only once into {@link SharedInputs}.
+ * <p>
+ * Since all runs write to <tt>System.out</tt>, it is best to keep the
+ * scenarios quiet, e.g. by disabling tracing.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.SimulationContext
+ * @invariant $none
+ */
+public class ExperimentRunner
+{
+    private ScenarioFactory factory_;   // creates a scenario for each run
+    private ParameterGrid grid_;        // the points to run
+    private SharedInputs inputs_;       // inputs shared by all runs
+    private int threads_;               // number of runs at the same time
+
+    private int next_;                  // the next point to run
+    private int size_;                  // number of points
+
+    /**
+     * Allocates a new runner, which does as many runs at the same time as
+     * there are processors
+     * @param factory  creates the scenario of each run
+     * @param grid     the parameter sweep
+     * @throws ParameterException  if the factory or the grid is
+     *                             <tt>null</tt>
+     * @pre factory != null
+     * @pre grid != null
+     * @post $none
+     */
+    public ExperimentRunner(ScenarioFactory factory, ParameterGrid grid)
+                            throws ParameterException
+    {
+        String msg = "ExperimentRunner(): Error - ";
+        if (factory == null) {
+            throw new ParameterException(msg + "invalid scenario factory.");
+        }
+        else if (grid == null) {
+            throw new ParameterException(msg + "invalid parameter grid.");
+        }
+
+        factory_ = factory;
+        grid_ = grid;
+        inputs_ = new SharedInputs();
+        threads_ = Runtime.getRuntime().availableProcessors();
+        next_ = 0;
+        size_ = 0;
+    }
+
+    /**
+     * Sets the number of runs done at the same time
+     * @param threads  the number of threads
+     * @return <tt>true</tt> if successful, <tt>false</tt> otherwise
+     * @pre threads > 0
+     * @post $none
+     */
+    public boolean setThreadCount(int threads)
+    {
+        if (threads <= 0) {
+            return false;
+        }
+
+        threads_ = threads;
+        return true;
+    }
+
+    /**
+     * Gets the number of runs done at the same time
+     * @return the number of threads
+     * @pre $none
+     * @post $result > 0
+     */
+    public int getThreadCount() {
+        return threads_;
+    }
+
+    /**
+     * Gets the inputs shared by all runs. They can be loaded before the
+     * sweep starts, e.g. to report a missing file early.
+     * @return the shared inputs
+     * @pre $none
+     * @post $result != null
+     */
+    public SharedInputs getSharedInputs() {
+        return inputs_;
+    }
+
+    /**
+     * Runs every point of the grid, and waits until all runs have finished
+     * @param table  the table that collects the summaries
+     * @return the number of failed runs
+     * @throws InterruptedException  if the current thread is interrupted
+     *                               while waiting
+     * @throws IOException  if the table can not be written
+     * @pre table != null
+     * @post $result >= 0
+     */
+    public int run(final ResultTable table)
+                   throws InterruptedException, IOException
+    {
+        synchronized (this)
+        {
+            next_ = 0;
+            size_ = grid_.size();
+        }
+
+        final int[] failed = new int[1];
+        final IOException[] error = new IOException[1];
+        Thread[] worker = new Thread[ Math.min(threads_, size_) ];
+        for (int i = 0; i < worker.length; i++)
+        {
+            worker[i] = new Thread("ExperimentRunner-" + i) {
+                public void run()
+                {
+                    ParameterPoint point = null;
+                    while ( (point = nextPoint()) != null )
+                    {
+                        RunSummary summary = runPoint(point);
+                        try {
+                            table.add(summary);
+                        }
+                        catch (IOException e)
+                        {
+                            synchronized (failed) {
+                                error[0] = e;
+                            }
+                        }
+
+                        if ( !summary.isSuccessful() )
+                        {
+                            synchronized (failed) {
+                                failed[0]++;
+                            }
+                        }
+                    }
+                }
+            };
+            worker[i].start();
+        }
+
+        for (int i = 0; i < worker.length; i++) {
+            worker[i].join();
+        }
+
+        table.flush();
+        synchronized (failed)
+        {
+            if (error[0] != null) {
+                throw error[0];
+            }
+            return failed[0];
+        }
+    }
+
+    /**
+     * Gets the next point to run
+     * @return the point, or <tt>null</tt> if all points have been taken
+     * @pre $none
+     * @post $none
+     */
+    private synchronized ParameterPoint nextPoint()
+    {
+        if (next_ >= size_) {
+            return null;
+        }
+        return grid_.getPoint(next_++);
+    }
+
+    /**
+     * Builds and runs the simulation of one point in a new context
+     * @param point  the parameter values
+     * @return the summary of the run
+     * @pre point != null
+     * @post $result != null
+     */
+    private RunSummary runPoint(final ParameterPoint point)
+    {
+        final RunSummary summary = new RunSummary(point);
+        final SimulationContext context = new SimulationContext();
+        long start = System.nanoTime();
+        try
+        {
+            context.call(new Callable<Object>() {
+                public Object call() throws Exception
+                {
+                    Scenario scenario = factory_.createScenario(point,
+                                                                inputs_);
+                    scenario.build();
+
+                    EventLoopKernel kernel = context.getKernel();
+                    if (kernel == null) {
+                        throw new Exception("ExperimentRunner: Error - " +
+                                "GridSim has not been initialized.");
+                    }
+
+                    // the kernel reports the entities it can't run
+                    if ( !kernel.run() ) {
+                        throw new Exception("ExperimentRunner: Error - " +
+                                "unable to run the simulation.");
+                    }
+
+                    summary.setSimulationTime( GridSim.clock() );
+                    summary.setEventCount( kernel.getEventCount() );
+                    scenario.collect(summary);
+                    return null;
+                }
+            });
+        }
+        catch (Exception e) {
+            summary.setError(e);
+        }
+
+        summary.setWallTime( (System.nanoTime() - start) / 1000000.0 );
+        return summary;
+    }
+
+} // end class
@@ -0,0 +1,207 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.experiment;
+
+import gridsim.ParameterException;
+import java.util.ArrayList;
+
+/**
+ * ParameterGrid describes a parameter sweep, i.e. a set of parameters, each
+ * with a list of values. Every combination of values is one
+ * {@link ParameterPoint}, so the grid has as many points as the product of
+ * the number of values of each parameter. For example:
+ * <pre>
+ *     ParameterGrid grid = new ParameterGrid();
+ *     grid.addParameter("resources", new int[] {2, 4, 8});
+ *     grid.addParameter("mips", new int[] {377, 500});
+ *     grid.addParameter("policy", new Object[] {"TimeShared", "SpaceShared"});
+ *     grid.addParameter("workload", new Object[] {"LPC-EGEE.swf.gz"});
+ * </pre>
+ * describes 12 simulation runs.
+ * <p>
+ * The points are not stored, but created on demand by
+ * {@link #getPoint(int)}, so a large grid takes little memory. The first
+ * parameter varies the slowest, as in nested loops. A grid must not be
+ * modified while it is being run by an {@link ExperimentRunner}.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.experiment.ExperimentRunner
+ * @invariant $none
+ */
+public class ParameterGrid
+{
+    private ArrayList<String> names_;       // parameter names
+    private ArrayList<Object[]> values_;    // parameter values
+    private String[] nameArray_;            // names shared by the points
+
+    /**
+     * Allocates a new grid without parameters, which has a single point
+     * @pre $none
+     * @post $none
+     */
+    public ParameterGrid()
+    {
+        names_ = new ArrayList<String>();
+        values_ = new ArrayList<Object[]>();
+        nameArray_ = null;
+    }
+
+    /**
+     * Adds a parameter
+     * @param name    the parameter name
+     * @param values  the values of this parameter
+     * @throws ParameterException  if the name is empty or already used, or
+     *                             if there are no values
+     * @pre name != null
+     * @pre values != null
+     * @post $none
+     */
+    public void addParameter(String name, Object[] values)
+                             throws ParameterException
+    {
+        String msg = "ParameterGrid.addParameter(): Error - ";
+        if (name == null || name.length() == 0) {
+            throw new ParameterException(msg + "invalid parameter name.");
+        }
+        else if ( names_.contains(name) ) {
+            throw new ParameterException(msg + "parameter " + name +
+                    " already exists.");
+        }
+        else if (values == null || values.length == 0) {
+            throw new ParameterException(msg + "parameter " + name +
+                    " has no values.");
+        }
+
+        long size = (long) size() * values.length;
+        if (size > Integer.MAX_VALUE) {
+            throw new ParameterException(msg + "too many points.");
+        }
+
+        names_.add(name);
+        values_.add( values.clone() );
+        nameArray_ = null;
+    }
+
+    /**
+     * Adds a parameter that takes integer values
+     * @param name    the parameter name
+     * @param values  the values of this parameter
+     * @throws ParameterException  if the name is empty or already used, or
+     *                             if there are no values
+     * @pre name != null
+     * @pre values != null
+     * @post $none
+     */
+    public void addParameter(String name, int[] values)
+                             throws ParameterException
+    {
+        Object[] array = null;
+        if (values != null)
+        {
+            array = new Object[values.length];
+            for (int i = 0; i < values.length; i++) {
+                array[i] = Integer.valueOf(values[i]);
+            }
+        }
+        addParameter(name, array);
+    }
+
+    /**
+     * Adds a parameter that takes double values
+     * @param name    the parameter name
+     * @param values  the values of this parameter
+     * @throws ParameterException  if the name is empty or already used, or
+     *                             if there are no values
+     * @pre name != null
+     * @pre values != null
+     * @post $none
+     */
+    public void addParameter(String name, double[] values)
+                             throws ParameterException
+    {
+        Object[] array = null;
+        if (values != null)
+        {
+            array = new Object[values.length];
+            for (int i = 0; i < values.length; i++) {
+                array[i] = Double.valueOf(values[i]);
+            }
+        }
+        addParameter(name, array);
+    }
+
+    /**
+     * Gets the number of parameters
+     * @return the number of parameters
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int getParameterCount() {
+        return names_.size();
+    }
+
+    /**
+     * Gets the name of a parameter
+     * @param i  the parameter number, in the order they were added
+     * @return the parameter name
+     * @pre i >= 0 && i < getParameterCount()
+     * @post $result != null
+     */
+    public String getName(int i) {
+        return names_.get(i);
+    }
+
+    /**
+     * Gets the number of points, i.e. of simulation runs
+     * @return the number of points
+     * @pre $none
+     * @post $result > 0
+     */
+    public int size()
+    {
+        int size = 1;
+        for (int i = 0; i < values_.size(); i++) {
+            size *= values_.get(i).length;
+        }
+        return size;
+    }
+
+    /**
+     * Creates a point of this grid
+     * @param index  the position of the point, from 0 to <tt>size() - 1</tt>
+     * @return the point
+     * @throws IndexOutOfBoundsException  if the position is invalid
+     * @pre index >= 0 && index < size()
+     * @post $result != null
+     */
+    public synchronized ParameterPoint getPoint(int index)
+    {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("ParameterGrid.getPoint(): " +
+                    "Error - invalid point " + index);
+        }
+
+        if (nameArray_ == null) {
+            nameArray_ = names_.toArray( new String[names_.size()] );
+        }
+
+        // the last parameter varies the fastest
+        Object[] values = new Object[nameArray_.length];
+        int rest = index;
+        for (int i = values.length - 1; i >= 0; i--)
+        {
+            Object[] list = values_.get(i);
+            values[i] = list[rest % list.length];
+            rest /= list.length;
+        }
+
+        return new ParameterPoint(index, nameArray_, values);
+    }
+
+} // end class
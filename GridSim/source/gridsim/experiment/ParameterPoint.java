@@ -0,0 +1,177 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.experiment;
+
+/**
+ * ParameterPoint is one combination of parameter values of a
+ * {@link ParameterGrid}, i.e. the input of one simulation run.
+ * A ParameterPoint is immutable.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.experiment.ParameterGrid
+ * @invariant $none
+ */
+public final class ParameterPoint
+{
+    private final int index_;           // position in the grid
+    private final String[] names_;      // parameter names, shared
+    private final Object[] values_;     // parameter values
+
+    /**
+     * Allocates a new point
+     * @param index   the position of this point in the grid
+     * @param names   the parameter names, which must not be modified
+     * @param values  the parameter values
+     * @pre index >= 0
+     * @pre names != null && values != null
+     * @pre names.length == values.length
+     * @post $none
+     */
+    ParameterPoint(int index, String[] names, Object[] values)
+    {
+        index_ = index;
+        names_ = names;
+        values_ = values;
+    }
+
+    /**
+     * Gets the position of this point in the grid, which is also the run
+     * number in a {@link ResultTable}
+     * @return the position, starting at 0
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int getIndex() {
+        return index_;
+    }
+
+    /**
+     * Gets the number of parameters
+     * @return the number of parameters
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int getParameterCount() {
+        return names_.length;
+    }
+
+    /**
+     * Gets the name of a parameter
+     * @param i  the parameter number, in the order they were added to the
+     *           grid
+     * @return the parameter name
+     * @pre i >= 0 && i < getParameterCount()
+     * @post $result != null
+     */
+    public String getName(int i) {
+        return names_[i];
+    }
+
+    /**
+     * Gets the value of a parameter
+     * @param i  the parameter number, in the order they were added to the
+     *           grid
+     * @return the parameter value
+     * @pre i >= 0 && i < getParameterCount()
+     * @post $none
+     */
+    public Object getValue(int i) {
+        return values_[i];
+    }
+
+    /**
+     * Gets the value of a parameter
+     * @param name  the parameter name
+     * @return the parameter value
+     * @throws IllegalArgumentException  if there is no such parameter
+     * @pre name != null
+     * @post $none
+     */
+    public Object getValue(String name)
+    {
+        for (int i = 0; i < names_.length; i++)
+        {
+            if ( names_[i].equals(name) ) {
+                return values_[i];
+            }
+        }
+
+        throw new IllegalArgumentException("ParameterPoint.getValue(): " +
+                "Error - no parameter named " + name);
+    }
+
+    /**
+     * Gets the value of a numeric parameter as an integer
+     * @param name  the parameter name
+     * @return the parameter value
+     * @throws IllegalArgumentException  if there is no such parameter
+     * @throws NumberFormatException  if the value is not a number
+     * @pre name != null
+     * @post $none
+     */
+    public int getInt(String name)
+    {
+        Object value = getValue(name);
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        return Integer.parseInt( String.valueOf(value) );
+    }
+
+    /**
+     * Gets the value of a numeric parameter as a double
+     * @param name  the parameter name
+     * @return the parameter value
+     * @throws IllegalArgumentException  if there is no such parameter
+     * @throws NumberFormatException  if the value is not a number
+     * @pre name != null
+     * @post $none
+     */
+    public double getDouble(String name)
+    {
+        Object value = getValue(name);
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return Double.parseDouble( String.valueOf(value) );
+    }
+
+    /**
+     * Gets the value of a parameter as a string
+     * @param name  the parameter name
+     * @return the parameter value
+     * @throws IllegalArgumentException  if there is no such parameter
+     * @pre name != null
+     * @post $result != null
+     */
+    public String getString(String name) {
+        return String.valueOf( getValue(name) );
+    }
+
+    /**
+     * Gets the parameter values of this point, e.g.
+     * <tt>resources=4, policy=TimeShared</tt>
+     * @return the parameter values
+     * @pre $none
+     * @post $result != null
+     */
+    public String toString()
+    {
+        StringBuffer buffer = new StringBuffer();
+        for (int i = 0; i < names_.length; i++)
+        {
+            if (i > 0) {
+                buffer.append(", ");
+            }
+            buffer.append(names_[i]).append('=').append(values_[i]);
+        }
+        return buffer.toString();
+    }
+
+} // end class
@@ -0,0 +1,270 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.experiment;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ResultTable collects the {@link RunSummary} of every run of a parameter
+ * sweep into one table, with one row per run. The summaries can be kept in
+ * memory, or written as comma-separated values as soon as each run
+ * finishes, so that a large sweep does not need to keep them.
+ * <p>
+ * Each row has the following columns: <tt>run</tt> (the position of the
+ * point in the grid), one column per parameter, <tt>wall_time_ms</tt>,
+ * <tt>sim_time</tt>, <tt>events</tt>, one column per metric and
+ * <tt>error</tt>. The metric columns are taken from the first successful
+ * run; rows of failed runs that finish before it are written afterwards.
+ * Since the runs are done in parallel, the rows are in the order the runs
+ * finished, not in the order of the grid.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.experiment.ExperimentRunner
+ * @invariant $none
+ */
+public class ResultTable
+{
+    private Writer writer_;                 // where to write rows, or null
+    private ArrayList<RunSummary> list_;    // kept summaries, or null
+    private ArrayList<RunSummary> pending_; // failed runs before the header
+    private String[] metrics_;              // metric columns, or null
+    private int runs_;                      // number of runs
+    private int failed_;                    // number of failed runs
+
+    /**
+     * Allocates a new table that keeps all summaries in memory
+     * @pre $none
+     * @post $none
+     */
+    public ResultTable() {
+        this(null, true);
+    }
+
+    /**
+     * Allocates a new table that writes every summary as a row of
+     * comma-separated values, without keeping it in memory
+     * @param writer  where to write the rows. It is flushed after each row,
+     *                but not closed.
+     * @pre writer != null
+     * @post $none
+     */
+    public ResultTable(Writer writer) {
+        this(writer, false);
+    }
+
+    /**
+     * Allocates a new table
+     * @param writer  where to write the rows, or <tt>null</tt>
+     * @param keep    <tt>true</tt> to keep all summaries in memory
+     * @pre $none
+     * @post $none
+     */
+    public ResultTable(Writer writer, boolean keep)
+    {
+        writer_ = writer;
+        list_ = null;
+        if (keep) {
+            list_ = new ArrayList<RunSummary>();
+        }
+        pending_ = new ArrayList<RunSummary>();
+        metrics_ = null;
+        runs_ = 0;
+        failed_ = 0;
+    }
+
+    /**
+     * Adds the summary of a finished run
+     * @param summary  the summary
+     * @throws IOException  if the row can not be written
+     * @pre summary != null
+     * @post $none
+     */
+    public synchronized void add(RunSummary summary) throws IOException
+    {
+        runs_++;
+        if ( !summary.isSuccessful() ) {
+            failed_++;
+        }
+
+        if (list_ != null) {
+            list_.add(summary);
+        }
+
+        if (writer_ == null) {
+            return;
+        }
+
+        // wait for a successful run to know the metric columns
+        if (metrics_ == null && !summary.isSuccessful())
+        {
+            pending_.add(summary);
+            return;
+        }
+
+        if (metrics_ == null) {
+            writeHeader(summary);
+        }
+
+        writeRow(summary);
+        writer_.flush();
+    }
+
+    /**
+     * Writes the rows that are still waiting for the metric columns, i.e.
+     * when every run has failed. This is done by
+     * {@link ExperimentRunner#run(ResultTable)} at the end of a sweep.
+     * @throws IOException  if the rows can not be written
+     * @pre $none
+     * @post $none
+     */
+    public synchronized void flush() throws IOException
+    {
+        if (writer_ == null || pending_.isEmpty()) {
+            return;
+        }
+
+        if (metrics_ == null) {
+            writeHeader( pending_.get(0) );
+        }
+        writer_.flush();
+    }
+
+    /**
+     * Gets the number of runs added so far
+     * @return the number of runs
+     * @pre $none
+     * @post $result >= 0
+     */
+    public synchronized int getRunCount() {
+        return runs_;
+    }
+
+    /**
+     * Gets the number of failed runs added so far
+     * @return the number of failed runs
+     * @pre $none
+     * @post $result >= 0
+     */
+    public synchronized int getFailedCount() {
+        return failed_;
+    }
+
+    /**
+     * Gets the summaries kept in memory, in the order they were added
+     * @return a copy of the list of summaries, or <tt>null</tt> if this table
+     *         does not keep them
+     * @pre $none
+     * @post $none
+     */
+    public synchronized List<RunSummary> getSummaries()
+    {
+        if (list_ == null) {
+            return null;
+        }
+        return new ArrayList<RunSummary>(list_);
+    }
+
+    //////////////////////// PRIVATE METHODS ///////////////////////
+
+    /**
+     * Writes the header, then the rows that were waiting for it
+     * @param summary  the summary whose metrics become the columns
+     * @throws IOException  if the header can not be written
+     * @pre summary != null
+     * @post $none
+     */
+    private void writeHeader(RunSummary summary) throws IOException
+    {
+        metrics_ = new String[ summary.getMetricCount() ];
+        for (int i = 0; i < metrics_.length; i++) {
+            metrics_[i] = summary.getMetricName(i);
+        }
+
+        ParameterPoint point = summary.getPoint();
+        StringBuffer line = new StringBuffer("run");
+        for (int i = 0; i < point.getParameterCount(); i++) {
+            appendValue(line, point.getName(i));
+        }
+
+        appendValue(line, "wall_time_ms");
+        appendValue(line, "sim_time");
+        appendValue(line, "events");
+        for (int i = 0; i < metrics_.length; i++) {
+            appendValue(line, metrics_[i]);
+        }
+        appendValue(line, "error");
+
+        writer_.write( line.append('\n').toString() );
+
+        for (int i = 0; i < pending_.size(); i++) {
+            writeRow( pending_.get(i) );
+        }
+        pending_.clear();
+    }
+
+    /**
+     * Writes the row of a summary
+     * @param summary  the summary
+     * @throws IOException  if the row can not be written
+     * @pre summary != null
+     * @post $none
+     */
+    private void writeRow(RunSummary summary) throws IOException
+    {
+        ParameterPoint point = summary.getPoint();
+        StringBuffer line = new StringBuffer();
+        line.append( point.getIndex() );
+        for (int i = 0; i < point.getParameterCount(); i++) {
+            appendValue(line, point.getValue(i));
+        }
+
+        appendValue(line, Double.valueOf(summary.getWallTime()) );
+        appendValue(line, Double.valueOf(summary.getSimulationTime()) );
+        appendValue(line, Long.valueOf(summary.getEventCount()) );
+        for (int i = 0; i < metrics_.length; i++) {
+            appendValue(line, summary.getMetric(metrics_[i]) );
+        }
+
+        Throwable error = summary.getError();
+        appendValue(line, (error == null) ? null : error.toString() );
+
+        writer_.write( line.append('\n').toString() );
+    }
+
+    /**
+     * Appends a column to a line, quoting it if needed
+     * @param line   the line
+     * @param value  the column value, or <tt>null</tt> for an empty column
+     * @pre line != null
+     * @post $none
+     */
+    private void appendValue(StringBuffer line, Object value)
+    {
+        line.append(',');
+        if (value == null) {
+            return;
+        }
+
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 &&
+            text.indexOf('\n') < 0)
+        {
+            line.append(text);
+            return;
+        }
+
+        line.append('"');
+        line.append( text.replace("\"", "\"\"") );
+        line.append('"');
+    }
+
+} // end class
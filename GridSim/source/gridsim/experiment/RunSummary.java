@@ -0,0 +1,219 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.experiment;
+
+import java.util.ArrayList;
+
+/**
+ * RunSummary holds the results of one simulation run of a parameter sweep:
+ * the time it took, the simulation clock at the end, the number of events,
+ * and the metrics added by {@link Scenario#collect(RunSummary)}, in the
+ * order they were added.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.experiment.ResultTable
+ * @invariant $none
+ */
+public class RunSummary
+{
+    private ParameterPoint point_;      // the parameter values of this run
+    private ArrayList<String> names_;   // metric names
+    private ArrayList<Object> values_;  // metric values
+    private double wallTime_;           // run time in milliseconds
+    private double simTime_;            // simulation clock at the end
+    private long events_;               // number of events, or -1
+    private Throwable error_;           // the reason of a failed run
+
+    /**
+     * Allocates a new summary
+     * @param point  the parameter values of this run
+     * @pre point != null
+     * @post $none
+     */
+    public RunSummary(ParameterPoint point)
+    {
+        point_ = point;
+        names_ = new ArrayList<String>();
+        values_ = new ArrayList<Object>();
+        wallTime_ = 0;
+        simTime_ = 0;
+        events_ = -1;
+        error_ = null;
+    }
+
+    /**
+     * Gets the parameter values of this run
+     * @return the parameter values
+     * @pre $none
+     * @post $result != null
+     */
+    public ParameterPoint getPoint() {
+        return point_;
+    }
+
+    /**
+     * Adds a metric, or replaces its value if it has already been added
+     * @param name   the metric name
+     * @param value  the metric value
+     * @pre name != null
+     * @post $none
+     */
+    public void addMetric(String name, Object value)
+    {
+        int index = names_.indexOf(name);
+        if (index >= 0) {
+            values_.set(index, value);
+        }
+        else
+        {
+            names_.add(name);
+            values_.add(value);
+        }
+    }
+
+    /**
+     * Adds a numeric metric, or replaces its value if it has already been
+     * added
+     * @param name   the metric name
+     * @param value  the metric value
+     * @pre name != null
+     * @post $none
+     */
+    public void addMetric(String name, double value) {
+        addMetric(name, Double.valueOf(value));
+    }
+
+    /**
+     * Gets the number of metrics
+     * @return the number of metrics
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int getMetricCount() {
+        return names_.size();
+    }
+
+    /**
+     * Gets the name of a metric
+     * @param i  the metric number, in the order they were added
+     * @return the metric name
+     * @pre i >= 0 && i < getMetricCount()
+     * @post $result != null
+     */
+    public String getMetricName(int i) {
+        return names_.get(i);
+    }
+
+    /**
+     * Gets the value of a metric
+     * @param name  the metric name
+     * @return the metric value, or <tt>null</tt> if not found
+     * @pre name != null
+     * @post $none
+     */
+    public Object getMetric(String name)
+    {
+        int index = names_.indexOf(name);
+        if (index < 0) {
+            return null;
+        }
+        return values_.get(index);
+    }
+
+    /**
+     * Gets the time it took to build and run the simulation
+     * @return the time in milliseconds
+     * @pre $none
+     * @post $result >= 0
+     */
+    public double getWallTime() {
+        return wallTime_;
+    }
+
+    /**
+     * Sets the time it took to build and run the simulation
+     * @param wallTime  the time in milliseconds
+     * @pre wallTime >= 0
+     * @post $none
+     */
+    void setWallTime(double wallTime) {
+        wallTime_ = wallTime;
+    }
+
+    /**
+     * Gets the simulation clock at the end of the run
+     * @return the simulation time
+     * @pre $none
+     * @post $result >= 0
+     */
+    public double getSimulationTime() {
+        return simTime_;
+    }
+
+    /**
+     * Sets the simulation clock at the end of the run
+     * @param simTime  the simulation time
+     * @pre simTime >= 0
+     * @post $none
+     */
+    void setSimulationTime(double simTime) {
+        simTime_ = simTime;
+    }
+
+    /**
+     * Gets the number of events processed by the simulation kernel
+     * @return the number of events, or <tt>-1</tt> if unknown
+     * @pre $none
+     * @post $none
+     */
+    public long getEventCount() {
+        return events_;
+    }
+
+    /**
+     * Sets the number of events processed by the simulation kernel
+     * @param events  the number of events
+     * @pre events >= 0
+     * @post $none
+     */
+    void setEventCount(long events) {
+        events_ = events;
+    }
+
+    /**
+     * Checks whether this run has finished successfully
+     * @return <tt>true</tt> if successful, <tt>false</tt> otherwise
+     * @pre $none
+     * @post $none
+     */
+    public boolean isSuccessful() {
+        return error_ == null;
+    }
+
+    /**
+     * Gets the reason why this run has failed
+     * @return the error, or <tt>null</tt> if the run was successful
+     * @pre $none
+     * @post $none
+     */
+    public Throwable getError() {
+        return error_;
+    }
+
+    /**
+     * Marks this run as failed
+     * @param error  the reason of the failure
+     * @pre error != null
+     * @post $none
+     */
+    void setError(Throwable error) {
+        error_ = error;
+    }
+
+} // end class
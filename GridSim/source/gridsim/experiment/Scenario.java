@@ -0,0 +1,48 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.experiment;
+
+/**
+ * A Scenario builds the simulation of one {@link ParameterPoint} and
+ * collects its results. It is created by a {@link ScenarioFactory} for each
+ * run, so it can keep the entities it creates, e.g. the users whose Gridlets
+ * are counted afterwards, in its own attributes.
+ * <p>
+ * Both methods are called inside the {@link gridsim.SimulationContext} of
+ * the run, so they may use the static methods of {@link gridsim.GridSim}
+ * as usual.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.experiment.ExperimentRunner
+ * @invariant $none
+ */
+public interface Scenario
+{
+    /**
+     * Builds the simulation, i.e. calls
+     * {@link gridsim.GridSim#init(int, java.util.Calendar, boolean)} and
+     * creates the resources, users and network. This method must not start
+     * the simulation.
+     * @throws Exception  if the simulation can not be built
+     * @pre $none
+     * @post $none
+     */
+    void build() throws Exception;
+
+    /**
+     * Collects the results of the simulation after it has finished
+     * @param summary  the summary of this run, to add the results to
+     * @throws Exception  if the results can not be collected
+     * @see gridsim.experiment.RunSummary#addMetric(String, Object)
+     * @pre summary != null
+     * @post $none
+     */
+    void collect(RunSummary summary) throws Exception;
+
+} // end interface
@@ -0,0 +1,36 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.experiment;
+
+/**
+ * A ScenarioFactory creates a new {@link Scenario} for every point of a
+ * parameter sweep. Since the runs are done in parallel, this method may be
+ * called by several threads at the same time.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.experiment.ExperimentRunner
+ * @invariant $none
+ */
+public interface ScenarioFactory
+{
+    /**
+     * Creates the scenario of one run
+     * @param point   the parameter values of this run
+     * @param inputs  the inputs shared by all runs, such as parsed workload
+     *                traces and network topologies
+     * @return a new scenario
+     * @throws Exception  if the scenario can not be created
+     * @pre point != null
+     * @pre inputs != null
+     * @post $result != null
+     */
+    Scenario createScenario(ParameterPoint point, SharedInputs inputs)
+                            throws Exception;
+
+} // end interface
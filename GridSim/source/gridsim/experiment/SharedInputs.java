@@ -0,0 +1,164 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.experiment;
+
+import gridsim.util.WorkloadTrace;
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * SharedInputs keeps the immutable inputs of a parameter sweep, so that
+ * they are loaded only once and then shared by all runs, even by the runs
+ * that are done at the same time. Each input is loaded by the first run that
+ * asks for it, while other runs asking for the same input wait for it.
+ * <p>
+ * Workload traces are kept as a parsed {@link WorkloadTrace}, to be replayed
+ * by {@link gridsim.util.Workload#Workload(String, WorkloadTrace, String,
+ * int)}. Network topologies are kept as the text of their file, to be read
+ * by e.g. {@link gridsim.util.NetworkReader#createFIFO(Reader)}, because the
+ * routers and links are entities that every run must create again.
+ * Other inputs can be kept with {@link #get(String, Callable)}.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.experiment.ScenarioFactory
+ * @invariant $none
+ */
+public class SharedInputs
+{
+    private ConcurrentHashMap<String, FutureTask<Object>> inputs_;
+
+    /**
+     * Allocates a new, empty set of inputs
+     * @pre $none
+     * @post $none
+     */
+    public SharedInputs() {
+        inputs_ = new ConcurrentHashMap<String, FutureTask<Object>>();
+    }
+
+    /**
+     * Gets an input, loading it if this is the first time it is asked for.
+     * The input must not be modified by the runs.
+     * @param key     the name of the input
+     * @param loader  loads the input
+     * @return the input
+     * @throws Exception  if the input can not be loaded
+     * @pre key != null
+     * @pre loader != null
+     * @post $none
+     */
+    public Object get(String key, Callable<?> loader) throws Exception
+    {
+        FutureTask<Object> task = inputs_.get(key);
+        if (task == null)
+        {
+            final Callable<?> callable = loader;
+            FutureTask<Object> newTask = new FutureTask<Object>(
+                new Callable<Object>() {
+                    public Object call() throws Exception {
+                        return callable.call();
+                    }
+                });
+
+            task = inputs_.putIfAbsent(key, newTask);
+            if (task == null)
+            {
+                task = newTask;
+                task.run();
+            }
+        }
+
+        try {
+            return task.get();
+        }
+        catch (ExecutionException e)
+        {
+            // a failed input is loaded again next time
+            inputs_.remove(key, task);
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Gets a workload trace in the standard workload format
+     * @param fileName  the trace file name
+     * @return the parsed trace
+     * @throws Exception  if the trace can not be read
+     * @see gridsim.util.WorkloadTrace#read(String)
+     * @pre fileName != null
+     * @post $result != null
+     */
+    public WorkloadTrace getWorkload(final String fileName) throws Exception
+    {
+        return (WorkloadTrace) get("workload:" + fileName,
+            new Callable<WorkloadTrace>() {
+                public WorkloadTrace call() throws Exception {
+                    return WorkloadTrace.read(fileName);
+                }
+            });
+    }
+
+    /**
+     * Gets a network topology file
+     * @param fileName  the topology file name
+     * @return a new reader of the file content
+     * @throws Exception  if the file can not be read
+     * @see gridsim.util.NetworkReader
+     * @pre fileName != null
+     * @post $result != null
+     */
+    public Reader getTopology(final String fileName) throws Exception
+    {
+        String text = (String) get("topology:" + fileName,
+            new Callable<String>() {
+                public String call() throws Exception {
+                    return readFile(fileName);
+                }
+            });
+
+        return new StringReader(text);
+    }
+
+    /**
+     * Reads a text file
+     * @param fileName  the file name
+     * @return the file content
+     * @throws Exception  if the file can not be read
+     * @pre fileName != null
+     * @post $result != null
+     */
+    private static String readFile(String fileName) throws Exception
+    {
+        StringBuffer text = new StringBuffer();
+        BufferedReader reader = new BufferedReader( new FileReader(fileName) );
+        try
+        {
+            String line = null;
+            while ( (line = reader.readLine()) != null ) {
+                text.append(line).append('\n');
+            }
+        }
+        finally {
+            reader.close();
+        }
+
+        return text.toString();
+    }
+
+} // end class
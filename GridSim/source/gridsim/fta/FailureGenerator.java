@@ -1,7 +1,6 @@
 package gridsim.fta;
 
 import eduni.simjava.Sim_event;
-import eduni.simjava.Sim_system;
 import gridsim.GridSim;
 import gridsim.GridSimTags;
 import gridsim.parallel.log.LoggerEnum;
@@ -51,7 +50,7 @@ public class FailureGenerator extends GridSim{
         if(success) {
         	
             Sim_event ev = new Sim_event();
-        	while (Sim_system.running()) {
+        	while (GridSim.isSimulationRunning()) {
                 super.sim_get_next(ev);
 
                 // if the simulation finishes then exit the loop
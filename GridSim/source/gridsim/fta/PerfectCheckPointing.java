@@ -5,7 +5,6 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import eduni.simjava.Sim_event;
-import eduni.simjava.Sim_system;
 import gridsim.AllocPolicy;
 import gridsim.GridSim;
 import gridsim.GridSimTags;
@@ -77,7 +76,7 @@ public class PerfectCheckPointing extends AllocPolicy implements FTAllocPolicy
 
 	        // a loop that is looking for internal events only
 	        Sim_event ev = new Sim_event();
-	        while ( Sim_system.running() )
+	        while ( GridSim.isSimulationRunning() )
 	        {
 	            super.sim_get_next(ev);
 
@@ -184,29 +183,23 @@ public class PerfectCheckPointing extends AllocPolicy implements FTAllocPolicy
 	        ResGridlet rgl = null;
 
 	        // Find in EXEC List first
-	        int found = gridletInExecList_.indexOf(gridletId, userId);
-	        if (found >= 0)
+	        rgl = gridletInExecList_.get(gridletId, userId);
+	        if (rgl != null)
 	        {
-	            // Get the Gridlet from the execution list
-	            rgl = (ResGridlet) gridletInExecList_.get(found);
 	            return rgl.getGridletStatus();
 	        }
 
 	        // Find in Paused List
-	        found = gridletPausedList_.indexOf(gridletId, userId);
-	        if (found >= 0)
+	        rgl = gridletPausedList_.get(gridletId, userId);
+	        if (rgl != null)
 	        {
-	            // Get the Gridlet from the execution list
-	            rgl = (ResGridlet) gridletPausedList_.get(found);
 	            return rgl.getGridletStatus();
 	        }
 
 	        // Find in Queue List
-	        found = gridletQueueList_.indexOf(gridletId, userId);
-	        if (found >= 0)
+	        rgl = gridletQueueList_.get(gridletId, userId);
+	        if (rgl != null)
 	        {
-	            // Get the Gridlet from the execution list
-	            rgl = (ResGridlet) gridletQueueList_.get(found);
 	            return rgl.getGridletStatus();
 	        }
 
@@ -291,18 +284,17 @@ public class PerfectCheckPointing extends AllocPolicy implements FTAllocPolicy
 	        boolean status = false;
 
 	        // Find in EXEC List first
-	        int found = gridletInExecList_.indexOf(gridletId, userId);
-	        if (found >= 0)
+	        ResGridlet rgl = gridletInExecList_.get(gridletId, userId);
+	        if (rgl != null)
 	        {
 	            // updates all the Gridlets first before pausing
 	            updateGridletProcessing();
 
 	            // Removes the Gridlet from the execution list
-	            ResGridlet rgl = (ResGridlet) gridletInExecList_.remove(found);
+	            gridletInExecList_.remove(rgl);
 
 	            if (rgl.getRemainingGridletLength() == 0.0)
 	            {
-	                found = -1;  // meaning not found in Queue List
 	    	        rgl.setGridletStatus(Gridlet.SUCCESS);
 	    	        rgl.finalizeGridlet();
 	    	        super.sendFinishGridlet( rgl.getGridlet() );
@@ -311,6 +303,7 @@ public class PerfectCheckPointing extends AllocPolicy implements FTAllocPolicy
 	                        + ".PerfectCheckpointing.gridletPause(): Cannot pause"
 	                        + " Gridlet #" + gridletId + " for User #" + userId
 	                        + " since it has FINISHED.");
+	                rgl = null;  // meaning not found in Queue List
 	            }
 	            else
 	            {
@@ -321,21 +314,18 @@ public class PerfectCheckPointing extends AllocPolicy implements FTAllocPolicy
 	            }
 	        }
 	        else {      // Find in QUEUE list
-	            found = gridletQueueList_.indexOf(gridletId, userId);
+	            rgl = gridletQueueList_.remove(gridletId, userId);
 	        }
 
 	        // if found in the Queue List
-	        if (!status && found >= 0)
+	        if (!status && rgl != null)
 	        {
 	            status = true;
-
-	            // removes the Gridlet from the Queue list
-	            ResGridlet rgl = (ResGridlet) gridletQueueList_.remove(found);
 	            rgl.setGridletStatus(Gridlet.PAUSED);   // change the status
 	            gridletPausedList_.add(rgl);            // add into the paused list
 	        }
 	        // if not found anywhere in both exec and paused lists
-	        else if (found == -1)
+	        else if (rgl == null)
 	        {
 	        	logger.log(Level.INFO,super.resName_ +
 	                    ".PerfectCheckpointing.gridletPause(): Error - cannot " +
@@ -438,11 +428,11 @@ public class PerfectCheckPointing extends AllocPolicy implements FTAllocPolicy
 	        boolean status = false;
 
 	        // finds the Gridlet in the execution list first
-	        int found = gridletPausedList_.indexOf(gridletId, userId);
-	        if (found >= 0)
+	        ResGridlet rgl = gridletPausedList_.get(gridletId, userId);
+	        if (rgl != null)
 	        {
 	            // removes the Gridlet
-	            ResGridlet rgl = (ResGridlet) gridletPausedList_.remove(found);
+	            gridletPausedList_.remove(rgl);
 	            rgl.setGridletStatus(Gridlet.RESUMED);
 
 	            // update the Gridlets up to this point in time
@@ -768,14 +758,14 @@ public class PerfectCheckPointing extends AllocPolicy implements FTAllocPolicy
 	        ResGridlet rgl = null;
 
 	        // Find in EXEC List first
-	        int found = gridletInExecList_.indexOf(gridletId, userId);
-	        if (found >= 0)
+	        rgl = gridletInExecList_.get(gridletId, userId);
+	        if (rgl != null)
 	        {
 	            // update the gridlets in execution list up to this point in time
 	            updateGridletProcessing();
 
 	            // Get the Gridlet from the execution list
-	            rgl = (ResGridlet) gridletInExecList_.remove(found);
+	            gridletInExecList_.remove(rgl);
 
 	            // if a Gridlet is finished upon cancelling, then set it to success
 	            // instead.
@@ -794,22 +784,22 @@ public class PerfectCheckPointing extends AllocPolicy implements FTAllocPolicy
 	        }
 
 	        // Find in QUEUE list
-	        found = gridletQueueList_.indexOf(gridletId, userId);
-	        if (found >= 0)
+	        rgl = gridletQueueList_.get(gridletId, userId);
+	        if (rgl != null)
 	        {
-	            rgl = (ResGridlet) gridletQueueList_.remove(found);
+	            gridletQueueList_.remove(rgl);
 	            rgl.setGridletStatus(Gridlet.CANCELED);
 	        }
 
 	        // if not, then find in the Paused list
 	        else
 	        {
-	            found = gridletPausedList_.indexOf(gridletId, userId);
+	            rgl = gridletPausedList_.get(gridletId, userId);
 
 	            // if found in Paused list
-	            if (found >= 0)
+	            if (rgl != null)
 	            {
-	                rgl = (ResGridlet) gridletPausedList_.remove(found);
+	                gridletPausedList_.remove(rgl);
 	                rgl.setGridletStatus(Gridlet.CANCELED);
 	            }
 
@@ -145,7 +145,7 @@ public abstract class AbstractGIS extends GridSimCore
 
         // Process incoming events until END_OF_SIMULATION is received from the
         // GridInformationService entity
-        while ( Sim_system.running() )
+        while ( GridSim.isSimulationRunning() )
         {
             Sim_event ev = new Sim_event();
             super.sim_get_next(ev);     // get the next event in the queue
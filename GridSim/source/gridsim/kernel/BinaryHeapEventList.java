@@ -0,0 +1,250 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.kernel;
+
+import eduni.simjava.Sim_predicate;
+
+/**
+ * A future event list that is an array-based binary heap ordered by
+ * {@link KernelEvent#compareKey(KernelEvent)}. Every event remembers its
+ * position in the heap so it can be removed in logarithmic time when it is
+ * cancelled.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.kernel.FutureEventList#BINARY_HEAP
+ * @invariant $none
+ */
+final class BinaryHeapEventList extends FutureEventList
+{
+    private static final int INITIAL_SIZE = 256;
+    private KernelEvent[] heap_;
+    private int size_;
+
+    /**
+     * Allocates a new empty queue
+     * @pre $none
+     * @post $none
+     */
+    BinaryHeapEventList()
+    {
+        heap_ = new KernelEvent[INITIAL_SIZE];
+        size_ = 0;
+    }
+
+    /**
+     * Gets the type of this future event list
+     * @return {@link FutureEventList#BINARY_HEAP}
+     * @pre $none
+     * @post $none
+     */
+    public int getType() {
+        return BINARY_HEAP;
+    }
+
+    /**
+     * Gets the number of events in this queue
+     * @return the number of events
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int size() {
+        return size_;
+    }
+
+    /**
+     * Adds an event into this queue
+     * @param ev  the event
+     * @pre ev != null
+     * @post $none
+     */
+    void insert(KernelEvent ev)
+    {
+        if (size_ == heap_.length)
+        {
+            KernelEvent[] bigger = new KernelEvent[size_ * 2];
+            System.arraycopy(heap_, 0, bigger, 0, size_);
+            heap_ = bigger;
+        }
+
+        heap_[size_] = ev;
+        ev.index_ = size_;
+        size_++;
+        siftUp(size_ - 1);
+    }
+
+    /**
+     * Gets the first event without removing it
+     * @return the first event or <tt>null</tt> if the queue is empty
+     * @pre $none
+     * @post $none
+     */
+    KernelEvent peek() {
+        return (size_ == 0) ? null : heap_[0];
+    }
+
+    /**
+     * Removes and returns the first event
+     * @return the first event or <tt>null</tt> if the queue is empty
+     * @pre $none
+     * @post $none
+     */
+    KernelEvent removeFirst()
+    {
+        if (size_ == 0) {
+            return null;
+        }
+
+        KernelEvent first = heap_[0];
+        removeAt(0);
+        return first;
+    }
+
+    /**
+     * Removes a given event from this queue
+     * @param ev  the event
+     * @return <tt>true</tt> if the event was in this queue
+     * @pre ev != null
+     * @post $none
+     */
+    boolean remove(KernelEvent ev)
+    {
+        int i = ev.index_;
+        if (i < 0 || i >= size_ || heap_[i] != ev) {
+            return false;
+        }
+
+        removeAt(i);
+        return true;
+    }
+
+    /**
+     * Finds the first event, in delivery order, that matches a predicate
+     * @param p  the predicate
+     * @return the first matching event, or <tt>null</tt> if none matches
+     * @pre p != null
+     * @post $none
+     */
+    KernelEvent findFirst(Sim_predicate p)
+    {
+        KernelEvent first = null;
+        for (int i = 0; i < size_; i++)
+        {
+            KernelEvent ev = heap_[i];
+            if ( (first == null || ev.compareKey(first) < 0) && p.match(ev) ) {
+                first = ev;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Removes all events from this queue
+     * @pre $none
+     * @post size() == 0
+     */
+    void clear()
+    {
+        for (int i = 0; i < size_; i++)
+        {
+            heap_[i].index_ = -1;
+            heap_[i] = null;
+        }
+        size_ = 0;
+    }
+
+    /**
+     * Removes the event at a given position and restores the heap order
+     * @param i  position of the event
+     * @pre i >= 0 && i < size_
+     * @post $none
+     */
+    private void removeAt(int i)
+    {
+        KernelEvent removed = heap_[i];
+        removed.index_ = -1;
+        size_--;
+
+        if (i == size_)
+        {
+            heap_[i] = null;
+            return;
+        }
+
+        KernelEvent last = heap_[size_];
+        heap_[size_] = null;
+        heap_[i] = last;
+        last.index_ = i;
+
+        siftDown(i);
+        if (heap_[i] == last) {
+            siftUp(i);
+        }
+    }
+
+    /**
+     * Moves an event up the heap until its parent comes before it
+     * @param i  position of the event
+     * @pre i >= 0 && i < size_
+     * @post $none
+     */
+    private void siftUp(int i)
+    {
+        KernelEvent ev = heap_[i];
+        while (i > 0)
+        {
+            int parent = (i - 1) >>> 1;
+            KernelEvent p = heap_[parent];
+            if (ev.compareKey(p) >= 0) {
+                break;
+            }
+
+            heap_[i] = p;
+            p.index_ = i;
+            i = parent;
+        }
+
+        heap_[i] = ev;
+        ev.index_ = i;
+    }
+
+    /**
+     * Moves an event down the heap until its children come after it
+     * @param i  position of the event
+     * @pre i >= 0 && i < size_
+     * @post $none
+     */
+    private void siftDown(int i)
+    {
+        KernelEvent ev = heap_[i];
+        int half = size_ >>> 1;
+        while (i < half)
+        {
+            int child = (i << 1) + 1;
+            KernelEvent c = heap_[child];
+            int right = child + 1;
+            if (right < size_ && heap_[right].compareKey(c) < 0)
+            {
+                child = right;
+                c = heap_[child];
+            }
+
+            if (ev.compareKey(c) <= 0) {
+                break;
+            }
+
+            heap_[i] = c;
+            c.index_ = i;
+            i = child;
+        }
+
+        heap_[i] = ev;
+        ev.index_ = i;
+    }
+
+} // end class
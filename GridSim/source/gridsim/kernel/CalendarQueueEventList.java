@@ -0,0 +1,392 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.kernel;
+
+import eduni.simjava.Sim_predicate;
+
+/**
+ * A future event list that is a calendar queue (R. Brown, "Calendar Queues:
+ * A Fast O(1) Priority Queue Implementation for the Simulation Event Set
+ * Problem", Communications of the ACM, 31(10), 1988).
+ * <p>
+ * Time is divided into days of a fixed width, and the days of a year are
+ * the buckets of the queue. An event is put into the bucket of its day, so
+ * events one year apart share a bucket, which is kept sorted. The first
+ * event is found by walking through the days from the current one. The
+ * number of buckets doubles or halves when the queue grows or shrinks, in
+ * which case the day width is estimated again from the first events.
+ * <p>
+ * Days are numbered as <tt>(long) (time / width)</tt>, so that all events
+ * of the same time are in the same bucket, and the order of events never
+ * depends on rounding.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.kernel.FutureEventList#CALENDAR_QUEUE
+ * @invariant $none
+ */
+final class CalendarQueueEventList extends FutureEventList
+{
+    private static final int MIN_BUCKETS = 16;
+    private static final int SAMPLE_SIZE = 25;  // events to estimate a width
+    private static final int QUEUED = 0;        // index_ of a queued event
+
+    private EventBucket[] buckets_;     // the days of a year
+    private int mask_;                  // number of buckets - 1
+    private double width_;              // length of a day
+    private int size_;                  // number of events
+    private long day_;                  // no event comes before this day
+    private KernelEvent first_;         // the first event, or null if unknown
+
+    /**
+     * Allocates a new empty queue
+     * @pre $none
+     * @post $none
+     */
+    CalendarQueueEventList()
+    {
+        width_ = 1.0;
+        size_ = 0;
+        day_ = 0;
+        first_ = null;
+        buckets_ = newBuckets(MIN_BUCKETS);
+        mask_ = MIN_BUCKETS - 1;
+    }
+
+    /**
+     * Gets the type of this future event list
+     * @return {@link FutureEventList#CALENDAR_QUEUE}
+     * @pre $none
+     * @post $none
+     */
+    public int getType() {
+        return CALENDAR_QUEUE;
+    }
+
+    /**
+     * Gets the number of events in this queue
+     * @return the number of events
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int size() {
+        return size_;
+    }
+
+    /**
+     * Adds an event into this queue
+     * @param ev  the event
+     * @pre ev != null
+     * @post $none
+     */
+    void insert(KernelEvent ev)
+    {
+        put(ev);
+        size_++;
+        if (size_ > 2 * buckets_.length) {
+            resize(buckets_.length * 2);
+        }
+    }
+
+    /**
+     * Gets the first event without removing it
+     * @return the first event or <tt>null</tt> if the queue is empty
+     * @pre $none
+     * @post $none
+     */
+    KernelEvent peek()
+    {
+        if (first_ != null || size_ == 0) {
+            return first_;
+        }
+
+        // walk through the days of one year
+        int count = buckets_.length;
+        for (int i = 0; i < count; i++)
+        {
+            long day = day_ + i;
+            EventBucket bucket = buckets_[(int) day & mask_];
+            if ( !bucket.isEmpty() && dayOf(bucket.first()) <= day )
+            {
+                day_ = day;
+                first_ = bucket.first();
+                return first_;
+            }
+        }
+
+        // the next event is more than a year ahead, so search directly
+        KernelEvent min = null;
+        for (int i = 0; i < count; i++)
+        {
+            EventBucket bucket = buckets_[i];
+            if ( !bucket.isEmpty() &&
+                 (min == null || bucket.first().compareKey(min) < 0) ) {
+                min = bucket.first();
+            }
+        }
+
+        day_ = dayOf(min);
+        first_ = min;
+        return first_;
+    }
+
+    /**
+     * Removes and returns the first event
+     * @return the first event or <tt>null</tt> if the queue is empty
+     * @pre $none
+     * @post $none
+     */
+    KernelEvent removeFirst()
+    {
+        KernelEvent ev = takeFirst();
+        if (ev != null && size_ < buckets_.length / 2 &&
+            buckets_.length > MIN_BUCKETS)
+        {
+            resize(buckets_.length / 2);
+        }
+        return ev;
+    }
+
+    /**
+     * Removes a given event from this queue
+     * @param ev  the event
+     * @return <tt>true</tt> if the event was in this queue
+     * @pre ev != null
+     * @post $none
+     */
+    boolean remove(KernelEvent ev)
+    {
+        if (ev.index_ != QUEUED || !bucketOf(ev).removeSorted(ev)) {
+            return false;
+        }
+
+        ev.index_ = -1;
+        size_--;
+        if (first_ == ev) {
+            first_ = null;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the first event, in delivery order, that matches a predicate
+     * @param p  the predicate
+     * @return the first matching event, or <tt>null</tt> if none matches
+     * @pre p != null
+     * @post $none
+     */
+    KernelEvent findFirst(Sim_predicate p)
+    {
+        KernelEvent first = null;
+        for (int i = 0; i < buckets_.length; i++)
+        {
+            EventBucket bucket = buckets_[i];
+            for (int j = 0; j < bucket.size(); j++)
+            {
+                KernelEvent ev = bucket.get(j);
+                if (first != null && ev.compareKey(first) >= 0) {
+                    break;  // the bucket is sorted
+                }
+
+                if ( p.match(ev) )
+                {
+                    first = ev;
+                    break;
+                }
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Removes all events from this queue
+     * @pre $none
+     * @post size() == 0
+     */
+    void clear()
+    {
+        for (int i = 0; i < buckets_.length; i++)
+        {
+            EventBucket bucket = buckets_[i];
+            for (int j = 0; j < bucket.size(); j++) {
+                bucket.get(j).index_ = -1;
+            }
+            bucket.clear();
+        }
+
+        size_ = 0;
+        day_ = 0;
+        first_ = null;
+    }
+
+    /**
+     * Puts an event into the bucket of its day
+     * @param ev  the event
+     * @pre ev != null
+     * @post $none
+     */
+    private void put(KernelEvent ev)
+    {
+        ev.index_ = QUEUED;
+        bucketOf(ev).insertSorted(ev);
+
+        long day = dayOf(ev);
+        if (day < day_) {
+            day_ = day;
+        }
+
+        if (first_ != null && ev.compareKey(first_) < 0) {
+            first_ = ev;
+        }
+    }
+
+    /**
+     * Removes and returns the first event, without resizing the queue
+     * @return the first event or <tt>null</tt> if the queue is empty
+     * @pre $none
+     * @post $none
+     */
+    private KernelEvent takeFirst()
+    {
+        KernelEvent ev = peek();
+        if (ev == null) {
+            return null;
+        }
+
+        buckets_[(int) day_ & mask_].pollFirst();
+        ev.index_ = -1;
+        size_--;
+        first_ = null;
+        return ev;
+    }
+
+    /**
+     * Changes the number of buckets, estimates the day width from the first
+     * events, and puts every event into its new bucket
+     * @param count  the new number of buckets, a power of two
+     * @pre count >= MIN_BUCKETS
+     * @post $none
+     */
+    private void resize(int count)
+    {
+        // take the first events to estimate the new width
+        int total = size_;
+        int sampled = Math.min(SAMPLE_SIZE, total);
+        KernelEvent[] events = new KernelEvent[total];
+        for (int i = 0; i < sampled; i++) {
+            events[i] = takeFirst();
+        }
+
+        double width = estimateWidth(events, sampled);
+        if (width > 0.0) {
+            width_ = width;
+        }
+
+        // then collect the other events
+        int n = sampled;
+        for (int i = 0; i < buckets_.length; i++)
+        {
+            EventBucket bucket = buckets_[i];
+            for (int j = 0; j < bucket.size(); j++) {
+                events[n++] = bucket.get(j);
+            }
+        }
+
+        buckets_ = newBuckets(count);
+        mask_ = count - 1;
+        size_ = total;
+        first_ = null;
+        day_ = (total > 0) ? dayOf(events[0]) : 0;
+        for (int i = 0; i < total; i++) {
+            put(events[i]);
+        }
+    }
+
+    /**
+     * Estimates the day width as three times the average time between
+     * successive events, leaving out gaps that are more than twice as
+     * long as the average, and events at the same time
+     * @param events  the first events, in delivery order
+     * @param count   the number of events
+     * @return the width, or 0 if it can't be estimated
+     * @pre events != null
+     * @post $result >= 0
+     */
+    private double estimateWidth(KernelEvent[] events, int count)
+    {
+        double sum = 0.0;
+        int gaps = 0;
+        for (int i = 1; i < count; i++)
+        {
+            double gap = events[i].time_ - events[i - 1].time_;
+            if (gap > 0.0)
+            {
+                sum += gap;
+                gaps++;
+            }
+        }
+
+        if (gaps == 0) {
+            return 0.0;
+        }
+
+        double average = sum / gaps;
+        sum = 0.0;
+        gaps = 0;
+        for (int i = 1; i < count; i++)
+        {
+            double gap = events[i].time_ - events[i - 1].time_;
+            if (gap > 0.0 && gap <= 2.0 * average)
+            {
+                sum += gap;
+                gaps++;
+            }
+        }
+
+        return 3.0 * sum / gaps;
+    }
+
+    /**
+     * Gets the day of an event
+     * @param ev  the event
+     * @return the day number
+     * @pre ev != null
+     * @post $none
+     */
+    private long dayOf(KernelEvent ev) {
+        return (long) (ev.time_ / width_);
+    }
+
+    /**
+     * Gets the bucket of an event
+     * @param ev  the event
+     * @return the bucket
+     * @pre ev != null
+     * @post $result != null
+     */
+    private EventBucket bucketOf(KernelEvent ev) {
+        return buckets_[(int) dayOf(ev) & mask_];
+    }
+
+    /**
+     * Allocates empty buckets
+     * @param count  the number of buckets
+     * @return the buckets
+     * @pre count > 0
+     * @post $result != null
+     */
+    private static EventBucket[] newBuckets(int count)
+    {
+        EventBucket[] buckets = new EventBucket[count];
+        for (int i = 0; i < count; i++) {
+            buckets[i] = new EventBucket();
+        }
+        return buckets;
+    }
+
+} // end class
@@ -0,0 +1,65 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.kernel;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * An entity, or any other part of a simulation, whose state can be saved
+ * into a snapshot by an {@link EventLoopKernel} and restored from it later.
+ * <p>
+ * Both methods work on the same stream as all other parts of the snapshot,
+ * including the data of the pending events. Hence, an object written by
+ * several entities, such as a Gridlet held in a queue and also carried by
+ * an event, is restored as one object. A reference to another entity is
+ * saved as the entity id and restored as the entity of the new simulation
+ * with the same id, so entities themselves are never written.
+ * <p>
+ * When restored, an entity has been created again by the same code as in
+ * the simulation that saved it, with the same id. It should therefore only
+ * save the attributes that change while the simulation runs, such as its
+ * queues, counters and random number generators, but not its
+ * configuration or ports. An {@link EventDriven} entity is not started
+ * again, whereas the <tt>body()</tt> of any other entity is, in which case
+ * it should skip its start-up when
+ * {@link KernelEntity#isRestored()} returns <tt>true</tt>.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.kernel.EventLoopKernel#scheduleSnapshot(double, String, boolean)
+ * @see gridsim.kernel.EventLoopKernel#restoreSnapshot(String)
+ * @invariant $none
+ */
+public interface Checkpointable
+{
+    /**
+     * Writes the state of this object into a snapshot
+     * @param out  the snapshot stream
+     * @throws IOException  if the state can't be written, e.g. because an
+     *         object is not serializable
+     * @pre out != null
+     * @post $none
+     */
+    void saveState(ObjectOutputStream out) throws IOException;
+
+    /**
+     * Reads the state of this object from a snapshot, in the same order as
+     * {@link #saveState(ObjectOutputStream)} has written it
+     * @param in  the snapshot stream
+     * @throws IOException  if the state can't be read
+     * @throws ClassNotFoundException  if the class of a saved object is
+     *         not found
+     * @pre in != null
+     * @post $none
+     */
+    void restoreState(ObjectInputStream in)
+            throws IOException, ClassNotFoundException;
+
+} // end interface
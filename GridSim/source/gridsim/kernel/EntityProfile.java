@@ -0,0 +1,172 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.kernel;
+
+/**
+ * Counts the events received by one entity and the time spent handling
+ * them, per event tag. The kernel updates a profile while the simulation
+ * runs, whereas a {@link SimulationMonitor} reads it from another thread,
+ * hence all methods are synchronized.
+ * <p>
+ * An entity usually receives only a few distinct tags, so they are kept in
+ * small arrays searched linearly.
+ *
+ * @since GridSim Toolkit 5.2
+ * @invariant $none
+ */
+final class EntityProfile
+{
+    /** The pseudo tag counting the end of hold periods */
+    static final int HOLD = Integer.MIN_VALUE;
+
+    private static final int INITIAL_SIZE = 8;
+
+    private int[] tags_;        // distinct tags received so far
+    private long[] counts_;     // number of events per tag
+    private long[] nanos_;      // handling time per tag, in nanoseconds
+    private int size_;          // number of tags in tags_
+
+    /**
+     * Allocates a new empty profile
+     * @pre $none
+     * @post $none
+     */
+    EntityProfile()
+    {
+        tags_ = new int[INITIAL_SIZE];
+        counts_ = new long[INITIAL_SIZE];
+        nanos_ = new long[INITIAL_SIZE];
+        size_ = 0;
+    }
+
+    /**
+     * Records one received event
+     * @param tag    the event tag, or {@link #HOLD}
+     * @param nanos  the time spent handling the event, in nanoseconds
+     * @pre nanos >= 0
+     * @post $none
+     */
+    synchronized void record(int tag, long nanos)
+    {
+        int i = 0;
+        while (i < size_ && tags_[i] != tag) {
+            i++;
+        }
+
+        if (i == size_)
+        {
+            if (size_ == tags_.length)
+            {
+                int length = size_ * 2;
+                tags_ = copyOf(tags_, length);
+                counts_ = copyOf(counts_, length);
+                nanos_ = copyOf(nanos_, length);
+            }
+            tags_[i] = tag;
+            counts_[i] = 0;
+            nanos_[i] = 0;
+            size_++;
+        }
+
+        counts_[i]++;
+        nanos_[i] += nanos;
+    }
+
+    /**
+     * Gets the distinct tags received so far
+     * @return the tags, in the order they were first received
+     * @pre $none
+     * @post $result != null
+     */
+    synchronized int[] getTags() {
+        return copyOf(tags_, size_);
+    }
+
+    /**
+     * Gets the number of events received so far, per tag
+     * @return the counts, in the same order as {@link #getTags()}
+     * @pre $none
+     * @post $result != null
+     */
+    synchronized long[] getCounts() {
+        return copyOf(counts_, size_);
+    }
+
+    /**
+     * Gets the time spent handling events so far, per tag
+     * @return the times in nanoseconds, in the same order as
+     *         {@link #getTags()}
+     * @pre $none
+     * @post $result != null
+     */
+    synchronized long[] getTimes() {
+        return copyOf(nanos_, size_);
+    }
+
+    /**
+     * Gets the number of events received so far
+     * @return the number of events
+     * @pre $none
+     * @post $result >= 0
+     */
+    synchronized long getCount()
+    {
+        long count = 0;
+        for (int i = 0; i < size_; i++) {
+            count += counts_[i];
+        }
+        return count;
+    }
+
+    /**
+     * Gets the time spent handling events so far
+     * @return the time in nanoseconds
+     * @pre $none
+     * @post $result >= 0
+     */
+    synchronized long getTime()
+    {
+        long nanos = 0;
+        for (int i = 0; i < size_; i++) {
+            nanos += nanos_[i];
+        }
+        return nanos;
+    }
+
+    /**
+     * Copies the beginning of an array
+     * @param array   the array
+     * @param length  the length of the copy
+     * @return the copy, padded with zeros if needed
+     * @pre array != null && length >= 0
+     * @post $result != null
+     */
+    private static int[] copyOf(int[] array, int length)
+    {
+        int[] copy = new int[length];
+        System.arraycopy(array, 0, copy, 0, Math.min(length, array.length));
+        return copy;
+    }
+
+    /**
+     * Copies the beginning of an array
+     * @param array   the array
+     * @param length  the length of the copy
+     * @return the copy, padded with zeros if needed
+     * @pre array != null && length >= 0
+     * @post $result != null
+     */
+    private static long[] copyOf(long[] array, int length)
+    {
+        long[] copy = new long[length];
+        System.arraycopy(array, 0, copy, 0, Math.min(length, array.length));
+        return copy;
+    }
+
+} // end class
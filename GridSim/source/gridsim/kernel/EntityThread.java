@@ -0,0 +1,162 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.kernel;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs the <tt>body()</tt> method of an entity that is not
+ * {@link EventDriven} under an {@link EventLoopKernel}.
+ * <p>
+ * The body runs on its own thread, but only one thread runs at any time:
+ * either the kernel, or a single entity body. Whenever the body calls a
+ * blocking method, such as <tt>sim_get_next()</tt> or
+ * <tt>sim_process()</tt>, the entity thread parks itself and hands control
+ * back to the kernel, which resumes it once the awaited event has arrived
+ * or the hold period is over.
+ * <p>
+ * The thread is a virtual thread if the kernel has been created with
+ * virtual threads and the Java version supports them, or a platform daemon
+ * thread otherwise.
+ *
+ * @since GridSim Toolkit 5.2
+ * @invariant $none
+ */
+final class EntityThread implements Runnable
+{
+    private final EventLoopKernel kernel_;
+    private final KernelEntity entity_;
+    private final Semaphore resume_;   // released by the kernel
+    private volatile boolean terminated_;
+    private boolean parked_;           // true while waiting to be resumed
+    private Thread thread_;
+
+    /**
+     * Thrown inside a parked entity thread when the simulation ends, so that
+     * its <tt>body()</tt> method is unwound.
+     */
+    private static final class Termination extends Error
+    {
+        private static final long serialVersionUID = 1L;
+
+        Termination() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Allocates a new adapter for an entity
+     * @param kernel  the kernel running the entity
+     * @param entity  the entity
+     * @pre kernel != null && entity != null
+     * @post $none
+     */
+    EntityThread(EventLoopKernel kernel, KernelEntity entity)
+    {
+        kernel_ = kernel;
+        entity_ = entity;
+        resume_ = new Semaphore(0);
+        terminated_ = false;
+        parked_ = false;
+        thread_ = null;
+    }
+
+    /**
+     * Creates the thread of this adapter. The entity body does not run until
+     * the kernel resumes it for the first time.
+     * @pre $none
+     * @post $none
+     */
+    void start()
+    {
+        thread_ = VirtualThreads.newThread(this, entity_.get_name(),
+                kernel_.isVirtualThreads());
+        kernel_.hostedEntityStarted();
+        thread_.start();
+    }
+
+    /**
+     * Runs the entity body
+     * @pre $none
+     * @post $none
+     */
+    public void run()
+    {
+        resume_.acquireUninterruptibly();
+        kernel_.bindThread(entity_);
+        try
+        {
+            if (!terminated_) {
+                entity_.body();
+            }
+        }
+        catch (Termination t) {
+            // the simulation has ended while this entity was parked
+        }
+        catch (Throwable t)
+        {
+            System.out.println(entity_.get_name() + ".body(): Error - " +
+                    "exception raised under the event-loop kernel.");
+            t.printStackTrace();
+        }
+        finally
+        {
+            entity_.state_ = KernelEntity.FINISHED;
+            kernel_.hostedEntityFinished();
+            kernel_.yieldToKernel(entity_);
+        }
+    }
+
+    /**
+     * Called by the entity thread: hands control back to the kernel and
+     * waits until the kernel resumes this entity
+     * @pre $none
+     * @post $none
+     */
+    void park()
+    {
+        parked_ = true;
+        kernel_.entityParked();
+        kernel_.yieldToKernel(entity_);
+        resume_.acquireUninterruptibly();
+        if (terminated_) {
+            throw new Termination();
+        }
+    }
+
+    /**
+     * Called by the kernel: lets the entity thread run until it parks
+     * itself again or finishes
+     * @pre $none
+     * @post $none
+     */
+    void resume()
+    {
+        if (parked_)
+        {
+            parked_ = false;
+            kernel_.entityResumed();
+        }
+        resume_.release();
+        kernel_.waitForEntity(entity_);
+    }
+
+    /**
+     * Called by the kernel when the simulation ends: unwinds the entity
+     * body if it is still parked
+     * @pre $none
+     * @post $none
+     */
+    void terminate()
+    {
+        terminated_ = true;
+        resume();
+    }
+
+} // end class
@@ -0,0 +1,251 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.kernel;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A growable array of events, used as a bucket by the calendar and ladder
+ * queues. A bucket is either kept sorted by
+ * {@link KernelEvent#compareKey(KernelEvent)}, with the first event at the
+ * front, or filled in any order and sorted at once with {@link #sort()}.
+ * Taking the first event only moves the front of the array, so a sorted
+ * bucket can be emptied in linear time.
+ *
+ * @since GridSim Toolkit 5.2
+ * @invariant $none
+ */
+final class EventBucket
+{
+    private static final int INITIAL_SIZE = 4;
+
+    // orders events for sorting a whole bucket
+    private static final Comparator<KernelEvent> ORDER =
+        new Comparator<KernelEvent>() {
+            public int compare(KernelEvent a, KernelEvent b) {
+                return a.compareKey(b);
+            }
+        };
+
+    private KernelEvent[] events_;
+    private int head_;      // position of the first event
+    private int tail_;      // position after the last event
+
+    /**
+     * Allocates a new empty bucket
+     * @pre $none
+     * @post $none
+     */
+    EventBucket()
+    {
+        events_ = new KernelEvent[INITIAL_SIZE];
+        head_ = 0;
+        tail_ = 0;
+    }
+
+    /**
+     * Gets the number of events in this bucket
+     * @return the number of events
+     * @pre $none
+     * @post $result >= 0
+     */
+    int size() {
+        return tail_ - head_;
+    }
+
+    /**
+     * Checks whether this bucket is empty
+     * @return <tt>true</tt> if there are no events
+     * @pre $none
+     * @post $none
+     */
+    boolean isEmpty() {
+        return tail_ == head_;
+    }
+
+    /**
+     * Gets an event of this bucket
+     * @param i  a position between 0 and <tt>size() - 1</tt>
+     * @return the event
+     * @pre i >= 0 && i < size()
+     * @post $none
+     */
+    KernelEvent get(int i) {
+        return events_[head_ + i];
+    }
+
+    /**
+     * Gets the first event of a sorted bucket
+     * @return the first event
+     * @pre !isEmpty()
+     * @post $none
+     */
+    KernelEvent first() {
+        return events_[head_];
+    }
+
+    /**
+     * Removes and returns the first event of a sorted bucket
+     * @return the first event
+     * @pre !isEmpty()
+     * @post $none
+     */
+    KernelEvent pollFirst()
+    {
+        KernelEvent ev = events_[head_];
+        events_[head_] = null;
+        head_++;
+        if (head_ == tail_)
+        {
+            head_ = 0;
+            tail_ = 0;
+        }
+        return ev;
+    }
+
+    /**
+     * Adds an event at the end of this bucket, without keeping it sorted
+     * @param ev  the event
+     * @pre ev != null
+     * @post $none
+     */
+    void append(KernelEvent ev)
+    {
+        if (tail_ == events_.length) {
+            makeRoom();
+        }
+        events_[tail_++] = ev;
+    }
+
+    /**
+     * Adds an event into a sorted bucket
+     * @param ev  the event
+     * @pre ev != null
+     * @post $none
+     */
+    void insertSorted(KernelEvent ev)
+    {
+        if (tail_ == events_.length) {
+            makeRoom();
+        }
+
+        // most events come after all others
+        if (tail_ == head_ || ev.compareKey(events_[tail_ - 1]) > 0)
+        {
+            events_[tail_++] = ev;
+            return;
+        }
+
+        int low = head_;
+        int high = tail_ - 1;
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (events_[mid].compareKey(ev) < 0) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+
+        System.arraycopy(events_, low, events_, low + 1, tail_ - low);
+        events_[low] = ev;
+        tail_++;
+    }
+
+    /**
+     * Removes a given event from a sorted bucket
+     * @param ev  the event
+     * @return <tt>true</tt> if the event was in this bucket
+     * @pre ev != null
+     * @post $none
+     */
+    boolean removeSorted(KernelEvent ev)
+    {
+        int low = head_;
+        int high = tail_ - 1;
+        while (low <= high)
+        {
+            int mid = (low + high) >>> 1;
+            int cmp = events_[mid].compareKey(ev);
+            if (cmp < 0) {
+                low = mid + 1;
+            }
+            else if (cmp > 0) {
+                high = mid - 1;
+            }
+            else if (events_[mid] == ev)
+            {
+                System.arraycopy(events_, mid + 1, events_, mid,
+                                 tail_ - mid - 1);
+                tail_--;
+                events_[tail_] = null;
+                if (head_ == tail_)
+                {
+                    head_ = 0;
+                    tail_ = 0;
+                }
+                return true;
+            }
+            else {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sorts the events of this bucket
+     * @pre $none
+     * @post $none
+     */
+    void sort() {
+        Arrays.sort(events_, head_, tail_, ORDER);
+    }
+
+    /**
+     * Removes all events from this bucket
+     * @pre $none
+     * @post isEmpty()
+     */
+    void clear()
+    {
+        Arrays.fill(events_, head_, tail_, null);
+        head_ = 0;
+        tail_ = 0;
+    }
+
+    /**
+     * Makes room for one more event at the end, either by moving the events
+     * to the front of the array or by growing it
+     * @pre tail_ == events_.length
+     * @post tail_ < events_.length
+     */
+    private void makeRoom()
+    {
+        int size = tail_ - head_;
+        if (head_ > 0 && size < events_.length / 2)
+        {
+            System.arraycopy(events_, head_, events_, 0, size);
+            Arrays.fill(events_, size, tail_, null);
+        }
+        else
+        {
+            KernelEvent[] bigger = new KernelEvent[events_.length * 2];
+            System.arraycopy(events_, head_, bigger, 0, size);
+            events_ = bigger;
+        }
+
+        head_ = 0;
+        tail_ = size;
+    }
+
+} // end class
@@ -0,0 +1,64 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.kernel;
+
+import eduni.simjava.Sim_event;
+
+/**
+ * An entity that can be driven directly by an {@link EventLoopKernel}
+ * instead of running its <tt>body()</tt> method on its own thread.
+ * <p>
+ * The kernel calls {@link #startEntity()} once when the simulation starts
+ * and then {@link #handleEvent(Sim_event)} for every event delivered to the
+ * entity. Both methods are invoked on the kernel thread and must not block,
+ * i.e. they must not call <tt>sim_get_next()</tt> or <tt>sim_wait()</tt>
+ * when no matching event is waiting. Calling <tt>sim_process()</tt>,
+ * <tt>sim_hold()</tt> or <tt>sim_pause()</tt> is allowed: the method returns
+ * immediately and the kernel keeps the incoming events of this entity
+ * until the hold period is over.
+ * <p>
+ * An entity implementing this interface should still provide a
+ * <tt>body()</tt> method that does the same work by calling
+ * {@link #startEntity()} and looping over
+ * {@link #handleEvent(Sim_event)}, so that it behaves the same way when the
+ * simulation runs on SimJava. If a subclass overrides <tt>body()</tt> without
+ * overriding {@link #handleEvent(Sim_event)}, the kernel runs the entity
+ * through its <tt>body()</tt> method instead.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.kernel.KernelEntity
+ * @see gridsim.kernel.EventLoopKernel
+ * @invariant $none
+ */
+public interface EventDriven
+{
+    /**
+     * Initializes this entity when the simulation starts, e.g. registers
+     * it to other entities or schedules its first internal events.
+     * @pre $none
+     * @post $none
+     */
+    void startEntity();
+
+    /**
+     * Processes one incoming event.
+     * When the event is <tt>END_OF_SIMULATION</tt>, the entity should
+     * release its resources and call {@link KernelEntity#endEntity()}.
+     * <p>
+     * The event is only valid until this method returns, since the kernel
+     * then reuses it for a new event. An entity that needs the event later
+     * should keep its attributes instead, or disable pooling with
+     * {@link EventLoopKernel#setEventPooling(boolean)}.
+     * @param ev  the incoming event
+     * @pre ev != null
+     * @post $none
+     */
+    void handleEvent(Sim_event ev);
+
+} // end interface
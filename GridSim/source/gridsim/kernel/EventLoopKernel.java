@@ -0,0 +1,2365 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.kernel;
+
+import eduni.simjava.Sim_entity;
+import eduni.simjava.Sim_event;
+import eduni.simjava.Sim_exception;
+import eduni.simjava.Sim_port;
+import eduni.simjava.Sim_predicate;
+import eduni.simjava.Sim_system;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A single-threaded simulation kernel that can replace the SimJava
+ * thread-per-entity scheduler. All events are kept in one future event list
+ * and are delivered in order of time by a single loop.
+ * <p>
+ * Entities implementing {@link EventDriven} are called back directly
+ * through {@link EventDriven#handleEvent(Sim_event)}, which costs one
+ * method call per event instead of two thread hand-offs. All other entities
+ * run their <tt>body()</tt> method unchanged on an adapter thread that only
+ * runs while the kernel waits for it, so that at any time exactly one
+ * thread executes simulation code. These adapter threads can be virtual
+ * threads (see {@link #EventLoopKernel(boolean)}), so that a simulation with
+ * many such entities is not limited by the number of native threads.
+ * <p>
+ * This kernel is selected by initializing GridSim with
+ * {@link gridsim.GridSimTags#KERNEL_EVENT_LOOP}, e.g.
+ * <pre>
+ *     GridSim.init(numUser, calendar, traceFlag,
+ *                  GridSimTags.KERNEL_EVENT_LOOP);
+ * </pre>
+ * All entities must extend {@link KernelEntity}, which is the case for every
+ * GridSim entity. If an entity extends <tt>Sim_entity</tt> directly, the
+ * simulation runs on SimJava instead.
+ * <p>
+ * Like SimJava, the simulation ends when no more events are left in the
+ * future event list, or when {@link #stop()} is called.
+ * <p>
+ * The entities can also be split into several logical processes that are
+ * advanced on separate threads (see {@link #setPartitions(int, Partitioner)}).
+ * The partitions are synchronized conservatively: in each window, every
+ * partition delivers its events that come before the earliest future event
+ * of all partitions plus a lookahead. Without lookahead, a window holds all
+ * events with the same time and zero-delay generation, since handling them
+ * can only create events of a later generation. Because events are ordered
+ * by the same key in both cases, a parallel run delivers exactly the same
+ * events to every entity, in the same order, as a sequential run.
+ * <p>
+ * The future event list of each logical process is a binary heap by
+ * default. A calendar queue or a ladder queue can be chosen instead with
+ * {@link #setFutureEventList(int)}, and their statistics compared with
+ * {@link #getFutureEventList(int)}.
+ * <p>
+ * A sequential run can save a snapshot of the simulation at a given time
+ * (see {@link #scheduleSnapshot(double, String, boolean)}), e.g. at the end
+ * of a warm-up phase. Another simulation built by the same code can then
+ * be restored from it (see {@link #restoreSnapshot(String)}) and continue
+ * from that time, delivering the same events in the same order. The state
+ * of the entities is saved through {@link Checkpointable}.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.kernel.KernelEntity
+ * @see gridsim.kernel.EventDriven
+ * @invariant $none
+ */
+public class EventLoopKernel
+{
+    private static EventLoopKernel active_ = null;   // bound to new entities
+
+    // the kernel bound to new entities created by the current thread, which
+    // takes precedence over active_
+    private static final InheritableThreadLocal<EventLoopKernel> threadActive_
+            = new InheritableThreadLocal<EventLoopKernel>();
+
+    // true while an entity of an isolated kernel registers itself to SimJava
+    private static final ThreadLocal<Boolean> registering_ =
+            new ThreadLocal<Boolean>();
+
+    // whether a class is run through EventDriven, cached per class
+    private static final HashMap<Class<?>, Boolean> callbackClass_ =
+            new HashMap<Class<?>, Boolean>();
+
+    private final boolean virtual_;     // run bodies on virtual threads
+    private final boolean isolated_;    // keeps its own entity list
+    private volatile KernelEntity[] entities_;  // entities indexed by id
+    private int entityCount_;           // number of entities in entities_
+    private LogicalProcess[] lps_;      // the partitions of this simulation
+    private int maxPartitions_;         // requested number of partitions
+    private Partitioner partitioner_;   // splits entities into partitions
+    private int felType_;               // type of the future event lists
+    private double lookahead_;          // minimum delay between partitions
+    private double runLookahead_;       // lookahead used by the current run
+    private double snapshotTime_;       // when to save a snapshot
+    private String snapshotFile_;       // where to save it, or null if none
+    private boolean snapshotStop_;      // stop once it has been saved
+    private boolean snapshotWarned_;    // an entity could not be saved yet
+    private String restoreFile_;        // snapshot to restore, or null
+    private Checkpointable global_;     // state saved besides the entities
+    private double clock_;              // start time of the current window
+    private double windowTime_;         // end time of the current window
+    private long windowGen_;            // end generation of the current window
+    private boolean lookaheadWindow_;   // the current window uses lookahead
+    private boolean serialWindow_;      // delivered in order by one thread
+    private double genTime_;            // time of the last generation window
+    private long windowCount_;          // number of synchronization windows
+    private volatile boolean running_;
+    private volatile boolean stopped_;
+    private boolean parallel_;          // partitions run on their own thread
+    private boolean pooling_;           // reuse delivered events
+    private volatile boolean profiling_;    // record entity profiles
+    private Semaphore gate_;            // one permit per running partition
+    private Throwable failure_;         // raised by a partition thread
+    private final AtomicInteger callbackCount_;    // EventDriven entities
+    private final AtomicInteger hostedCount_;      // running entity bodies
+    private final AtomicInteger parkedCount_;      // parked entity bodies
+    private final AtomicInteger peakParkedCount_;  // highest parkedCount_
+
+    // the partition run by the current thread, in a parallel run
+    private final ThreadLocal<LogicalProcess> current_ =
+            new ThreadLocal<LogicalProcess>();
+
+    /**
+     * Allocates a new kernel that runs entity bodies on platform threads
+     * @pre $none
+     * @post $none
+     */
+    public EventLoopKernel() {
+        this(false);
+    }
+
+    /**
+     * Allocates a new kernel
+     * @param virtualThreads  <tt>true</tt> to run the <tt>body()</tt> method
+     *                        of entities on virtual threads. This requires
+     *                        Java 21 or later, otherwise platform threads
+     *                        are used.
+     * @pre $none
+     * @post $none
+     */
+    public EventLoopKernel(boolean virtualThreads) {
+        this(virtualThreads, false);
+    }
+
+    /**
+     * Allocates a new kernel.
+     * <p>
+     * An isolated kernel keeps its own list of entities instead of using the
+     * SimJava one, so that several isolated kernels can build and run
+     * independent simulations at the same time, each on its own thread.
+     * Entities are bound to an isolated kernel with
+     * {@link #setThreadActive(EventLoopKernel)}, and they must be looked up
+     * with {@link #getEntity(int)} and {@link #getEntityId(String)} rather
+     * than through <tt>Sim_system</tt>. Since <tt>Sim_system.running()</tt>
+     * is left untouched, an isolated simulation cannot be built while a
+     * SimJava simulation or a kernel that is not isolated is running.
+     *
+     * @param virtualThreads  <tt>true</tt> to run the <tt>body()</tt> method
+     *                        of entities on virtual threads. This requires
+     *                        Java 21 or later, otherwise platform threads
+     *                        are used.
+     * @param isolated        <tt>true</tt> to keep the entities of this
+     *                        kernel apart from SimJava
+     * @pre $none
+     * @post $none
+     */
+    public EventLoopKernel(boolean virtualThreads, boolean isolated)
+    {
+        if ( virtualThreads && !VirtualThreads.isAvailable() )
+        {
+            System.out.println("EventLoopKernel: Warning - virtual threads " +
+                    "are not supported by this Java version. Using platform " +
+                    "threads instead.");
+            virtualThreads = false;
+        }
+
+        virtual_ = virtualThreads;
+        isolated_ = isolated;
+        entities_ = new KernelEntity[0];
+        entityCount_ = 0;
+        felType_ = FutureEventList.BINARY_HEAP;
+        lps_ = new LogicalProcess[] { new LogicalProcess(0, felType_, null) };
+        maxPartitions_ = 1;
+        partitioner_ = null;
+        lookahead_ = 0.0;
+        runLookahead_ = 0.0;
+        snapshotTime_ = 0.0;
+        snapshotFile_ = null;
+        snapshotStop_ = false;
+        snapshotWarned_ = false;
+        restoreFile_ = null;
+        global_ = null;
+        clock_ = 0.0;
+        windowTime_ = 0.0;
+        windowGen_ = 0;
+        lookaheadWindow_ = false;
+        serialWindow_ = false;
+        genTime_ = 0.0;
+        windowCount_ = 0;
+        running_ = false;
+        stopped_ = false;
+        parallel_ = false;
+        pooling_ = true;
+        profiling_ = false;
+        gate_ = null;
+        failure_ = null;
+        callbackCount_ = new AtomicInteger(0);
+        hostedCount_ = new AtomicInteger(0);
+        parkedCount_ = new AtomicInteger(0);
+        peakParkedCount_ = new AtomicInteger(0);
+    }
+
+    /**
+     * Sets the number of logical processes that this kernel runs in
+     * parallel, and how entities are assigned to them. This method must be
+     * called before the simulation starts.
+     * @param count        the maximum number of partitions. A value of 1
+     *                     runs the simulation sequentially.
+     * @param partitioner  assigns entities to partitions. If it is
+     *                     <tt>null</tt>, all entities are put in one
+     *                     partition.
+     * @return <tt>true</tt> if the values have been set, <tt>false</tt> if
+     *         the count is invalid or the simulation is already running
+     * @pre count > 0
+     * @post $none
+     */
+    public boolean setPartitions(int count, Partitioner partitioner)
+    {
+        if (count < 1 || running_) {
+            return false;
+        }
+
+        maxPartitions_ = count;
+        partitioner_ = partitioner;
+        return true;
+    }
+
+    /**
+     * Sets the lookahead of a parallel run, i.e. the minimum delay of any
+     * event sent from one partition to another. A larger lookahead gives
+     * larger synchronization windows. It must only be set when the
+     * simulated model guarantees it, for example when partitions only
+     * interact through network links with at least this propagation delay.
+     * If an event breaks this guarantee, the simulation stops with a
+     * <tt>Sim_exception</tt> rather than producing different results.
+     * <p>
+     * If no lookahead is set, the one given by
+     * {@link Partitioner#getLookahead(KernelEntity[], int[], boolean[])}
+     * is used.
+     * @param lookahead  the lookahead, or 0 (the default) to synchronize on
+     *                   every zero-delay generation
+     * @return <tt>true</tt> if the lookahead has been set
+     * @pre lookahead >= 0.0
+     * @post $none
+     */
+    public boolean setLookahead(double lookahead)
+    {
+        if (lookahead < 0.0 || running_) {
+            return false;
+        }
+
+        lookahead_ = lookahead;
+        return true;
+    }
+
+    /**
+     * Gets the lookahead of a parallel run. Once the simulation has been
+     * started, this is the lookahead actually used, which may have been
+     * given by the partitioner.
+     * @return the lookahead, or 0 to synchronize on every zero-delay
+     *         generation
+     * @pre $none
+     * @post $result >= 0.0
+     */
+    public double getLookahead() {
+        return (runLookahead_ > 0.0) ? runLookahead_ : lookahead_;
+    }
+
+    /**
+     * Sets the implementation of the future event lists. This method must
+     * be called before the simulation starts.
+     * @param type  {@link FutureEventList#BINARY_HEAP} (the default),
+     *              {@link FutureEventList#CALENDAR_QUEUE} or
+     *              {@link FutureEventList#LADDER_QUEUE}
+     * @return <tt>true</tt> if the type has been set, <tt>false</tt> if it
+     *         is unknown or the simulation is already running
+     * @pre $none
+     * @post $none
+     */
+    public boolean setFutureEventList(int type)
+    {
+        if (type < FutureEventList.BINARY_HEAP ||
+            type > FutureEventList.LADDER_QUEUE || running_) {
+            return false;
+        }
+
+        felType_ = type;
+        return true;
+    }
+
+    /**
+     * Gets the implementation of the future event lists
+     * @return {@link FutureEventList#BINARY_HEAP},
+     *         {@link FutureEventList#CALENDAR_QUEUE} or
+     *         {@link FutureEventList#LADDER_QUEUE}
+     * @pre $none
+     * @post $none
+     */
+    public int getFutureEventListType() {
+        return felType_;
+    }
+
+    /**
+     * Gets the future event list of a logical process, e.g. to read its
+     * enqueue and dequeue counts and its mean depth after a run
+     * @param partition  the partition number, from 0 to
+     *                   <tt>getPartitionCount() - 1</tt>
+     * @return the future event list
+     * @throws ArrayIndexOutOfBoundsException  if the partition is invalid
+     * @pre partition >= 0 && partition < getPartitionCount()
+     * @post $result != null
+     */
+    public FutureEventList getFutureEventList(int partition) {
+        return lps_[partition].queue_;
+    }
+
+    /**
+     * Saves a snapshot of the simulation once all events up to a given time
+     * have been delivered, e.g. at the end of a warm-up phase. If an entity
+     * can't be saved at that time, e.g. because it is holding, the
+     * snapshot is taken before the first later event at which all entities
+     * can be saved. An entity can be saved once it has finished, or if it
+     * implements {@link Checkpointable} and is either {@link EventDriven} or
+     * waits in its <tt>body()</tt> for any event. Snapshots are only taken
+     * in a sequential run. This method must be called before the
+     * simulation starts.
+     * @param time      the simulation time of the snapshot
+     * @param fileName  the snapshot file to be written
+     * @param stop      <tt>true</tt> to stop the simulation once the
+     *                  snapshot has been saved
+     * @return <tt>true</tt> if the snapshot has been scheduled,
+     *         <tt>false</tt> if the values are invalid or the simulation is
+     *         already running
+     * @see #restoreSnapshot(String)
+     * @pre time >= 0.0 && fileName != null
+     * @post $none
+     */
+    public boolean scheduleSnapshot(double time, String fileName, boolean stop)
+    {
+        if (time < 0.0 || fileName == null || running_) {
+            return false;
+        }
+
+        snapshotTime_ = time;
+        snapshotFile_ = fileName;
+        snapshotStop_ = stop;
+        snapshotWarned_ = false;
+        return true;
+    }
+
+    /**
+     * Restores a snapshot when the simulation starts, instead of starting
+     * the entities. The simulation must have been built by the same code as
+     * the one that saved the snapshot, so that it has the same entities
+     * with the same ids. The clock, the pending events and the state of
+     * every entity are restored, after which the simulation continues from
+     * the time of the snapshot. {@link EventDriven} entities are not
+     * started again, whereas the <tt>body()</tt> of any other entity that
+     * has not finished is run again, with {@link KernelEntity#isRestored()}
+     * returning <tt>true</tt>. This method must be called before the
+     * simulation starts.
+     * @param fileName  the snapshot file, or <tt>null</tt> to start the
+     *                  simulation normally
+     * @return <tt>true</tt> if the snapshot will be restored,
+     *         <tt>false</tt> if the file does not exist or the simulation
+     *         is already running
+     * @see #scheduleSnapshot(double, String, boolean)
+     * @pre $none
+     * @post $none
+     */
+    public boolean restoreSnapshot(String fileName)
+    {
+        if ( running_ || (fileName != null && !new File(fileName).exists()) ) {
+            return false;
+        }
+
+        restoreFile_ = fileName;
+        return true;
+    }
+
+    /**
+     * Sets an object whose state is saved into every snapshot and restored
+     * from it, besides the state of the entities, e.g. the random number
+     * generators shared by all entities
+     * @param state  the global state or <tt>null</tt> if none
+     * @pre $none
+     * @post $none
+     */
+    public void setGlobalState(Checkpointable state) {
+        global_ = state;
+    }
+
+    /**
+     * Gets the number of logical processes used by this kernel
+     * @return the number of partitions
+     * @pre $none
+     * @post $result > 0
+     */
+    public int getPartitionCount() {
+        return lps_.length;
+    }
+
+    /**
+     * Gets the number of synchronization windows of a parallel run
+     * @return the number of windows, or 0 for a sequential run
+     * @pre $none
+     * @post $result >= 0
+     */
+    public long getWindowCount() {
+        return windowCount_;
+    }
+
+    /**
+     * Gets the kernel that newly created entities are bound to
+     * @return the active kernel or <tt>null</tt> if entities run on SimJava
+     * @pre $none
+     * @post $none
+     */
+    public static EventLoopKernel getActive()
+    {
+        EventLoopKernel kernel = threadActive_.get();
+        return (kernel != null) ? kernel : active_;
+    }
+
+    /**
+     * Sets the kernel that newly created entities are bound to.
+     * This is done by <tt>GridSim.init()</tt> before any entity is created.
+     * @param kernel  the kernel or <tt>null</tt> to use SimJava
+     * @pre $none
+     * @post $none
+     */
+    public static void setActive(EventLoopKernel kernel) {
+        active_ = kernel;
+    }
+
+    /**
+     * Gets the kernel that entities created by the current thread are bound
+     * to, if it differs from the one given to
+     * {@link #setActive(EventLoopKernel)}
+     * @return the kernel of this thread or <tt>null</tt> if none
+     * @pre $none
+     * @post $none
+     */
+    public static EventLoopKernel getThreadActive() {
+        return threadActive_.get();
+    }
+
+    /**
+     * Sets the kernel that entities created by the current thread, and by
+     * the threads it starts afterwards, are bound to. This is how the
+     * entities of an isolated kernel are kept apart from other simulations.
+     * @param kernel  the kernel or <tt>null</tt> to use the one given to
+     *                {@link #setActive(EventLoopKernel)}
+     * @pre $none
+     * @post $none
+     */
+    public static void setThreadActive(EventLoopKernel kernel)
+    {
+        if (kernel == null) {
+            threadActive_.remove();
+        }
+        else {
+            threadActive_.set(kernel);
+        }
+    }
+
+    /**
+     * Called before a new entity registers itself to SimJava. While the
+     * simulation runs, SimJava would treat the entity as created by the
+     * current SimJava thread, which does not exist under this kernel.
+     * Hence, the entity is registered as if the simulation had not started
+     * yet, and {@link #addEntity(KernelEntity)} starts it afterwards.
+     * The entity of an isolated kernel is kept out of the SimJava list.
+     * @param name  the entity name
+     * @return the same name
+     * @throws Sim_exception  if the entity belongs to an isolated kernel
+     *         while a simulation that is not isolated is running
+     * @pre $none
+     * @post $none
+     */
+    static String prepareEntity(String name)
+    {
+        registering_.remove();
+        EventLoopKernel kernel = getActive();
+        if (kernel == null) {
+            return name;
+        }
+
+        if (kernel.isolated_)
+        {
+            if ( Sim_system.running() )
+            {
+                throw new Sim_exception("EventLoopKernel: Error - can't " +
+                        "create " + name + " of an isolated simulation while " +
+                        "a simulation that is not isolated is running.");
+            }
+            registering_.set(Boolean.TRUE);
+        }
+
+        if (kernel.running_) {
+            kernel.beginCreate();
+        }
+        return name;
+    }
+
+    /**
+     * Checks whether an entity of an isolated kernel is registering itself
+     * to SimJava on the current thread
+     * @return <tt>true</tt> if SimJava should not add the entity to its list
+     * @pre $none
+     * @post $none
+     */
+    static boolean isRegistering() {
+        return registering_.get() != null;
+    }
+
+    /**
+     * Prepares the creation of a new entity during the simulation. In a
+     * parallel run, all other partitions are paused until the entity has
+     * been registered, since SimJava keeps the entities in a shared list.
+     * @pre $none
+     * @post $none
+     */
+    private void beginCreate()
+    {
+        if (parallel_)
+        {
+            gate_.release();
+            gate_.acquireUninterruptibly(lps_.length);
+        }
+
+        if (!isolated_) {
+            SimJavaBridge.setRunning(false);
+        }
+    }
+
+    /**
+     * Called once a new entity bound to this kernel has been created.
+     * If the simulation is running, the entity is added to the partition of
+     * the entity that created it, and started at the current simulation
+     * time. As in SimJava, the entity id remains -1 until then.
+     * @param ent  the new entity
+     * @pre ent != null
+     * @post $none
+     */
+    void addEntity(KernelEntity ent)
+    {
+        if (isolated_) {
+            register(ent);
+        }
+
+        if (!running_) {
+            return;
+        }
+
+        if (!isolated_) {
+            SimJavaBridge.setRunning(true);
+        }
+
+        int id = ent.get_id();
+        SimJavaBridge.setId(ent, -1);
+
+        LogicalProcess lp = currentPartition();
+        ent.lp_ = lp;
+
+        KernelEntity[] table = entities_;
+        if (id >= table.length)
+        {
+            KernelEntity[] newTable = new KernelEntity[id + 1];
+            System.arraycopy(table, 0, newTable, 0, table.length);
+            table = newTable;
+        }
+        table[id] = ent;
+        entities_ = table;
+        entityCount_ = Math.max(entityCount_, id + 1);
+
+        lp.add( new KernelEvent(KernelEvent.START, lp.clock_,
+                generation(lp, lp.clock_), lp.clock_, lp.gen_, id, id, 0, ent,
+                0) );
+
+        if (parallel_)
+        {
+            gate_.release(lps_.length);
+            gate_.acquireUninterruptibly();
+        }
+    }
+
+    /**
+     * Gives a new entity of an isolated kernel the next id of this kernel
+     * @param ent  the new entity
+     * @pre ent != null
+     * @post $none
+     */
+    private void register(KernelEntity ent)
+    {
+        registering_.remove();
+
+        KernelEntity[] table = entities_;
+        if (entityCount_ == table.length)
+        {
+            KernelEntity[] newTable = new KernelEntity[
+                    Math.max(16, entityCount_ * 2) ];
+            System.arraycopy(table, 0, newTable, 0, entityCount_);
+            table = newTable;
+        }
+
+        SimJavaBridge.setId(ent, entityCount_);
+        table[entityCount_] = ent;
+        entityCount_++;
+        entities_ = table;
+    }
+
+    /**
+     * Checks whether this kernel keeps its own list of entities
+     * @return <tt>true</tt> if this kernel is isolated from SimJava
+     * @pre $none
+     * @post $none
+     * @see #EventLoopKernel(boolean, boolean)
+     */
+    public boolean isIsolated() {
+        return isolated_;
+    }
+
+    /**
+     * Gets the number of entities of this simulation
+     * @return the largest entity id plus one
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int getEntityCount() {
+        return entityCount_;
+    }
+
+    /**
+     * Finds an entity of this simulation
+     * @param id  the entity id
+     * @return the entity or <tt>null</tt> if it does not exist
+     * @pre $none
+     * @post $none
+     */
+    public Sim_entity getEntity(int id)
+    {
+        if (!isolated_)
+        {
+            try {
+                return Sim_system.get_entity(id);
+            }
+            catch (Exception e) {
+                return null;
+            }
+        }
+
+        KernelEntity[] table = entities_;
+        if (id < 0 || id >= table.length) {
+            return null;
+        }
+        return table[id];
+    }
+
+    /**
+     * Finds an entity of this simulation
+     * @param name  the entity name
+     * @return the entity or <tt>null</tt> if it does not exist
+     * @pre $none
+     * @post $none
+     */
+    public Sim_entity getEntity(String name)
+    {
+        if (!isolated_)
+        {
+            try {
+                return Sim_system.get_entity(name);
+            }
+            catch (Exception e) {
+                return null;
+            }
+        }
+
+        KernelEntity[] table = entities_;
+        for (int i = 0; i < table.length; i++)
+        {
+            if ( table[i] != null && table[i].get_name().equals(name) ) {
+                return table[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the id of an entity of this simulation
+     * @param name  the entity name
+     * @return the entity id or <tt>-1</tt> if it does not exist
+     * @pre $none
+     * @post $none
+     */
+    public int getEntityId(String name)
+    {
+        Sim_entity ent = getEntity(name);
+        return (ent != null) ? ent.get_id() : -1;
+    }
+
+    /**
+     * Connects a port of an entity to another entity, like
+     * <tt>Sim_system.link_ports()</tt>
+     * @param name1  the name of the first entity
+     * @param port1  the port name of the first entity
+     * @param name2  the name of the second entity
+     * @param port2  the port name of the second entity
+     * @throws Sim_exception  if an entity or a port does not exist
+     * @pre name1 != null && port1 != null
+     * @pre name2 != null && port2 != null
+     * @post $none
+     */
+    public void linkPorts(String name1, String port1, String name2,
+                          String port2)
+    {
+        if (!isolated_)
+        {
+            Sim_system.link_ports(name1, port1, name2, port2);
+            return;
+        }
+
+        Sim_entity ent1 = getEntity(name1);
+        Sim_entity ent2 = getEntity(name2);
+        if (ent1 == null || ent2 == null) {
+            throw new Sim_exception("EventLoopKernel: " +
+                    (ent1 == null ? name1 : name2) + " not found.");
+        }
+
+        Sim_port p1 = ent1.get_port(port1);
+        Sim_port p2 = ent2.get_port(port2);
+        if (p1 == null || p2 == null) {
+            throw new Sim_exception("EventLoopKernel: " +
+                    (p1 == null ? port1 : port2) + " not found.");
+        }
+
+        SimJavaBridge.connect(p1, ent2);
+        SimJavaBridge.connect(p2, ent1);
+    }
+
+    /**
+     * Checks whether this kernel is running a simulation
+     * @return <tt>true</tt> if the simulation is running
+     * @pre $none
+     * @post $none
+     */
+    public boolean isRunning() {
+        return running_;
+    }
+
+    /**
+     * Gets the current simulation time
+     * @return the simulation time
+     * @pre $none
+     * @post $result >= 0.0
+     */
+    public double clock()
+    {
+        if (lps_.length == 1) {
+            return lps_[0].clock_;
+        }
+
+        LogicalProcess lp = current_.get();
+        return (lp != null) ? lp.clock_ : clock_;
+    }
+
+    /**
+     * Gets the number of events delivered so far
+     * @return the number of events
+     * @pre $none
+     * @post $result >= 0
+     */
+    public long getEventCount()
+    {
+        long count = 0;
+        for (int i = 0; i < lps_.length; i++) {
+            count += lps_[i].eventCount_;
+        }
+        return count;
+    }
+
+    /**
+     * Sets whether delivered events are reused for new events. Pooling is
+     * enabled by default, so that sending an event or holding an entity
+     * does not allocate any object once the simulation has warmed up.
+     * It should only be disabled when an {@link EventDriven} entity keeps
+     * a reference to an event after its <tt>handleEvent()</tt> has returned.
+     * @param pooling  <tt>true</tt> to reuse delivered events
+     * @return <tt>true</tt> if the setting has been changed,
+     *         <tt>false</tt> if the simulation is already running
+     * @pre $none
+     * @post $none
+     */
+    public boolean setEventPooling(boolean pooling)
+    {
+        if (running_) {
+            return false;
+        }
+
+        pooling_ = pooling;
+        return true;
+    }
+
+    /**
+     * Checks whether delivered events are reused for new events
+     * @return <tt>true</tt> if event pooling is enabled
+     * @pre $none
+     * @post $none
+     */
+    public boolean isEventPooling() {
+        return pooling_;
+    }
+
+    /**
+     * Sets whether the events received by every entity and the time spent
+     * handling them are recorded, per event tag. Profiling can be switched
+     * on and off while the simulation runs. The profiles are read through a
+     * {@link SimulationMonitor}.
+     * @param profiling  <tt>true</tt> to record entity profiles
+     * @pre $none
+     * @post $none
+     */
+    public void setProfiling(boolean profiling) {
+        profiling_ = profiling;
+    }
+
+    /**
+     * Checks whether entity profiles are recorded
+     * @return <tt>true</tt> if profiling is enabled
+     * @pre $none
+     * @post $none
+     */
+    public boolean isProfiling() {
+        return profiling_;
+    }
+
+    /**
+     * Gets the profile of an entity
+     * @param id  the entity id
+     * @return the profile or <tt>null</tt> if the entity does not exist or
+     *         has not received any event while profiling was enabled
+     * @pre $none
+     * @post $none
+     */
+    EntityProfile getProfile(int id)
+    {
+        KernelEntity[] table = entities_;
+        if (id < 0 || id >= table.length || table[id] == null) {
+            return null;
+        }
+        return table[id].profile_;
+    }
+
+    /**
+     * Discards the profiles of all entities
+     * @pre $none
+     * @post $none
+     */
+    void resetProfiles()
+    {
+        KernelEntity[] table = entities_;
+        for (int i = 0; i < table.length; i++)
+        {
+            if (table[i] != null) {
+                table[i].profile_ = null;
+            }
+        }
+    }
+
+    /**
+     * Records an event received by an entity into its profile
+     * @param ent    the entity
+     * @param tag    the event tag, or {@link EntityProfile#HOLD}
+     * @param nanos  the time spent handling the event, in nanoseconds
+     * @pre ent != null && nanos >= 0
+     * @post $none
+     */
+    private static void record(KernelEntity ent, int tag, long nanos)
+    {
+        EntityProfile profile = ent.profile_;
+        if (profile == null)
+        {
+            profile = new EntityProfile();
+            ent.profile_ = profile;
+        }
+        profile.record(tag, nanos);
+    }
+
+    /**
+     * Gets the number of events allocated so far. Together with
+     * {@link #getRecycledEventCount()}, this gives the allocation rate of
+     * the send path, i.e. the share of events that could not be taken from
+     * the pool.
+     * @return the number of allocated events
+     * @pre $none
+     * @post $result >= 0
+     */
+    public long getAllocatedEventCount()
+    {
+        long count = 0;
+        for (int i = 0; i < lps_.length; i++) {
+            count += lps_[i].allocCount_;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of events that reused a delivered event so far
+     * @return the number of reused events
+     * @see #setEventPooling(boolean)
+     * @pre $none
+     * @post $result >= 0
+     */
+    public long getRecycledEventCount()
+    {
+        long count = 0;
+        for (int i = 0; i < lps_.length; i++) {
+            count += lps_[i].reuseCount_;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of events waiting in the future event list
+     * @return the number of future events
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int getFutureEventCount()
+    {
+        int count = 0;
+        for (int i = 0; i < lps_.length; i++) {
+            count += lps_[i].size() + lps_[i].outbox_.size();
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of entities run as {@link EventDriven} callbacks
+     * @return the number of callback entities
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int getCallbackEntityCount() {
+        return callbackCount_.get();
+    }
+
+    /**
+     * Gets the number of entities run through their <tt>body()</tt> method
+     * @return the number of body entities
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int getBodyEntityCount() {
+        return entityCount_ - callbackCount_.get();
+    }
+
+    /**
+     * Checks whether entity bodies are run on virtual threads
+     * @return <tt>true</tt> if virtual threads are used
+     * @pre $none
+     * @post $none
+     */
+    public boolean isVirtualThreads() {
+        return virtual_;
+    }
+
+    /**
+     * Gets the number of entities whose <tt>body()</tt> method is currently
+     * hosted on a thread of this kernel, i.e. has been started but has not
+     * returned yet
+     * @return the number of hosted entities
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int getHostedEntityCount() {
+        return hostedCount_.get();
+    }
+
+    /**
+     * Gets the highest number of entity threads that were parked at the
+     * same time, waiting for an event or for the end of a hold period
+     * @return the peak number of parked threads
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int getPeakParkedCount() {
+        return peakParkedCount_.get();
+    }
+
+    /**
+     * Stops the simulation after the current event has been processed
+     * @pre $none
+     * @post $none
+     */
+    public void stop() {
+        stopped_ = true;
+    }
+
+    /**
+     * Runs the simulation until no events are left or {@link #stop()} is
+     * called. This kernel can only run entities extending
+     * {@link KernelEntity} that were created after it became active.
+     * If other entities are found, this method does nothing and returns
+     * <tt>false</tt>, in which case the simulation has to be run by SimJava.
+     * An isolated kernel only runs the entities bound to it.
+     * @return <tt>true</tt> if the simulation was run by this kernel
+     * @pre $none
+     * @post $none
+     */
+    public boolean run()
+    {
+        if ( !prepare() ) {
+            return false;
+        }
+
+        running_ = true;
+        stopped_ = false;
+        if (!isolated_) {
+            SimJavaBridge.setRunning(true);
+        }
+        try
+        {
+            if (restoreFile_ != null)
+            {
+                restore();
+                for (int i = 0; i < entities_.length; i++) {
+                    resumeEntity(entities_[i]);
+                }
+                System.out.println("Entities restored at time " + clock() +
+                        ".");
+            }
+            else
+            {
+                for (int i = 0; i < entities_.length; i++) {
+                    startEntity(entities_[i]);
+                }
+                System.out.println("Entities started.");
+            }
+
+            if (lps_.length == 1) {
+                runSequential(lps_[0]);
+            }
+            else {
+                runParallel();
+            }
+        }
+        finally
+        {
+            running_ = false;
+            parallel_ = false;
+            terminateEntities();
+            for (int i = 0; i < lps_.length; i++)
+            {
+                lps_[i].clear();
+                lps_[i].outbox_.clear();
+            }
+            if (!isolated_) {
+                SimJavaBridge.setRunning(false);
+            }
+        }
+
+        System.out.println("Simulation completed.");
+        return true;
+    }
+
+    /**
+     * Delivers all events of a single partition in order
+     * @param lp  the only partition
+     * @pre lp != null
+     * @post $none
+     */
+    private void runSequential(LogicalProcess lp)
+    {
+        KernelEvent ev = null;
+        while (!stopped_)
+        {
+            if (snapshotFile_ != null) {
+                checkSnapshot(lp);
+            }
+
+            ev = lp.poll();
+            if (ev == null) {
+                break;
+            }
+
+            lp.clock_ = ev.time_;
+            lp.gen_ = ev.gen_;
+            lp.eventCount_++;
+            dispatch(ev);
+        }
+
+        if (snapshotFile_ != null)
+        {
+            System.out.println("EventLoopKernel.run(): Warning - the " +
+                    "simulation has ended before a snapshot could be saved " +
+                    "into " + snapshotFile_ + ".");
+        }
+    }
+
+    /**
+     * Saves the scheduled snapshot if all events up to its time have been
+     * delivered and all entities can be saved
+     * @param lp  the only partition
+     * @pre lp != null && snapshotFile_ != null
+     * @post $none
+     */
+    private void checkSnapshot(LogicalProcess lp)
+    {
+        KernelEvent next = lp.peek();
+        if (next == null || next.time_ <= snapshotTime_) {
+            return;
+        }
+
+        KernelEntity ent = Snapshot.findUnsaveable(entities_);
+        if (ent != null)
+        {
+            if (!snapshotWarned_)
+            {
+                System.out.println("EventLoopKernel.run(): Warning - " +
+                    ent.get_name() + " can't be saved at time " + lp.clock_ +
+                    ". Waiting for all entities to be saved into " +
+                    snapshotFile_ + ".");
+                snapshotWarned_ = true;
+            }
+            return;
+        }
+
+        String fileName = snapshotFile_;
+        snapshotFile_ = null;
+        try
+        {
+            Snapshot.write(fileName, lp, entities_, global_);
+            System.out.println("Snapshot saved into " + fileName +
+                    " at time " + lp.clock_ + ".");
+            if (snapshotStop_) {
+                stopped_ = true;
+            }
+        }
+        catch (IOException e)
+        {
+            System.out.println("EventLoopKernel.run(): Error - can't save " +
+                    "a snapshot into " + fileName + ". " + e);
+            new File(fileName).delete();
+        }
+    }
+
+    /**
+     * Restores the scheduled snapshot into the entities and the partitions
+     * @throws Sim_exception  if the snapshot can't be restored
+     * @pre restoreFile_ != null
+     * @post $none
+     */
+    private void restore()
+    {
+        try {
+            Snapshot.read(restoreFile_, lps_, entities_, global_);
+        }
+        catch (Exception e)
+        {
+            throw new Sim_exception("EventLoopKernel: Error - can't restore " +
+                    "the snapshot " + restoreFile_ + ". " + e);
+        }
+
+        clock_ = lps_[0].clock_;
+        for (int i = 0; i < entities_.length; i++)
+        {
+            KernelEntity ent = entities_[i];
+            if ( ent.state_ != KernelEntity.FINISHED &&
+                 ent.callback_ != isCallback(ent) )
+            {
+                throw new Sim_exception("EventLoopKernel: Error - can't " +
+                    "restore " + ent.get_name() + " from the snapshot " +
+                    restoreFile_ + ", since it is run in another way.");
+            }
+        }
+    }
+
+    /**
+     * Runs every partition on its own thread, one synchronization window at
+     * a time. The calling thread runs the first partition.
+     * @throws Sim_exception  if a partition has failed
+     * @pre $none
+     * @post $none
+     */
+    private void runParallel()
+    {
+        final CyclicBarrier barrier = new CyclicBarrier(lps_.length,
+            new Runnable() {
+                public void run() {
+                    nextWindow();
+                }
+            });
+
+        gate_ = new Semaphore(lps_.length, true);
+        failure_ = null;
+        genTime_ = clock_;  // the start-up time has no lookahead window
+        nextWindow();   // also delivers the events sent at start-up
+        parallel_ = true;
+
+        Thread[] threads = new Thread[lps_.length];
+        for (int i = 1; i < lps_.length; i++)
+        {
+            final LogicalProcess lp = lps_[i];
+            threads[i] = new Thread("EventLoopKernel-" + i) {
+                public void run() {
+                    runPartition(lp, barrier);
+                }
+            };
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+
+        if (snapshotFile_ != null)
+        {
+            System.out.println("EventLoopKernel.run(): Warning - snapshots " +
+                    "are only saved in a sequential run.");
+            snapshotFile_ = null;
+        }
+
+        runPartition(lps_[0], barrier);
+        for (int i = 1; i < threads.length; i++)
+        {
+            try {
+                threads[i].join();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        for (int i = 0; i < lps_.length; i++) {
+            clock_ = Math.max(clock_, lps_[i].clock_);
+        }
+
+        if (failure_ instanceof Error) {
+            throw (Error) failure_;
+        }
+        else if (failure_ != null) {
+            throw new Sim_exception("EventLoopKernel: " + failure_);
+        }
+    }
+
+    /**
+     * Delivers the events of one partition, window after window, until the
+     * simulation ends
+     * @param lp       the partition
+     * @param barrier  where partitions wait for each other
+     * @pre lp != null && barrier != null
+     * @post $none
+     */
+    private void runPartition(LogicalProcess lp, CyclicBarrier barrier)
+    {
+        current_.set(lp);
+        try
+        {
+            while (windowTime_ >= 0.0)
+            {
+                gate_.acquireUninterruptibly();
+                try
+                {
+                    if (serialWindow_)
+                    {
+                        if (lp.index_ == 0) {
+                            runSerialWindow();
+                        }
+                    }
+                    else
+                    {
+                        while ( !stopped_ && lp.hasEventBefore(windowTime_, windowGen_) )
+                        {
+                            KernelEvent ev = lp.poll();
+                            lp.clock_ = ev.time_;
+                            lp.gen_ = ev.gen_;
+                            lp.eventCount_++;
+                            dispatch(ev);
+                        }
+                    }
+                }
+                catch (Throwable t)
+                {
+                    synchronized (this)
+                    {
+                        if (failure_ == null) {
+                            failure_ = t;
+                        }
+                    }
+                    stopped_ = true;
+                }
+                finally {
+                    gate_.release();
+                }
+
+                barrier.await();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (BrokenBarrierException e) {
+            stopped_ = true;
+        }
+        finally {
+            current_.remove();
+        }
+    }
+
+    /**
+     * Delivers the events of the current window of all partitions in order,
+     * on the thread of partition 0. This is used for a window that holds an
+     * event of a synchronous entity, so that entities of different
+     * partitions access any state they share in the same order as in a
+     * sequential run.
+     * @pre $none
+     * @post $none
+     */
+    private void runSerialWindow()
+    {
+        try
+        {
+            while (!stopped_)
+            {
+                LogicalProcess next = null;
+                for (int i = 0; i < lps_.length; i++)
+                {
+                    LogicalProcess lp = lps_[i];
+                    if ( lp.hasEventBefore(windowTime_, windowGen_) &&
+                         (next == null || lp.peek().compareKey(next.peek()) < 0) ) {
+                        next = lp;
+                    }
+                }
+
+                if (next == null) {
+                    break;
+                }
+
+                current_.set(next);
+                KernelEvent ev = next.poll();
+                next.clock_ = ev.time_;
+                next.gen_ = ev.gen_;
+                next.eventCount_++;
+                dispatch(ev);
+            }
+        }
+        finally {
+            current_.set(lps_[0]);
+        }
+    }
+
+    /**
+     * Moves the events sent between partitions to their destination and
+     * computes the next synchronization window. This is only called while
+     * all partitions wait at the window barrier.
+     * <p>
+     * A window uses the lookahead only if no synchronous entity has an
+     * event before its end, and if it starts after the last window that
+     * held a single generation. Hence, the zero-delay events exchanged by
+     * synchronous entities and the other entities, such as the replies to
+     * a synchronous entity, are always delivered one generation at a time.
+     * @pre $none
+     * @post $none
+     */
+    private void nextWindow()
+    {
+        KernelEvent first = null;
+        KernelEvent sync = null;    // first event of a synchronous entity
+        KernelEntity[] table = entities_;
+        for (int i = 0; i < lps_.length; i++)
+        {
+            LogicalProcess lp = lps_[i];
+            for (int j = 0; j < lp.outbox_.size(); j++)
+            {
+                KernelEvent ev = lp.outbox_.get(j);
+                table[ev.dst_].lp_.add(ev);
+            }
+            lp.outbox_.clear();
+        }
+
+        for (int i = 0; i < lps_.length; i++)
+        {
+            KernelEvent ev = lps_[i].peek();
+            if (ev != null && (first == null || ev.compareKey(first) < 0)) {
+                first = ev;
+            }
+
+            ev = lps_[i].peekSynchronous();
+            if (ev != null && (sync == null || ev.compareKey(sync) < 0)) {
+                sync = ev;
+            }
+        }
+
+        // a negative end time tells all partitions to stop
+        if (stopped_ || first == null)
+        {
+            windowTime_ = -1.0;
+            return;
+        }
+
+        clock_ = first.time_;
+        windowCount_++;
+        if (runLookahead_ > 0.0 && first.time_ > genTime_ &&
+            (sync == null || sync.time_ > first.time_))
+        {
+            windowTime_ = first.time_ + runLookahead_;
+            if (sync != null && sync.time_ < windowTime_) {
+                windowTime_ = sync.time_;
+            }
+            windowGen_ = 0;
+            lookaheadWindow_ = true;
+            serialWindow_ = false;
+        }
+        else
+        {
+            windowTime_ = first.time_;
+            windowGen_ = first.gen_ + 1;
+            lookaheadWindow_ = false;
+            serialWindow_ = (sync != null && sync.time_ == first.time_ &&
+                             sync.gen_ == first.gen_);
+            genTime_ = first.time_;
+        }
+    }
+
+    /**
+     * Builds the entity table and checks that all entities can be run by
+     * this kernel
+     * @return <tt>true</tt> if this kernel can run the simulation
+     * @pre $none
+     * @post $none
+     */
+    private boolean prepare()
+    {
+        if (isolated_) {
+            return prepareIsolated();
+        }
+
+        List<Sim_entity> list = Sim_system.getEntityList();
+        KernelEntity[] table = new KernelEntity[list.size()];
+        String problem = null;
+
+        if ( !SimJavaBridge.isAvailable() ) {
+            problem = "the SimJava library is not supported";
+        }
+
+        for (int i = 0; i < table.length && problem == null; i++)
+        {
+            Sim_entity ent = list.get(i);
+            if ( !(ent instanceof KernelEntity) ) {
+                problem = ent.get_name() + " does not extend KernelEntity";
+            }
+            else if ( ((KernelEntity) ent).kernel_ != this ) {
+                problem = ent.get_name() + " belongs to another kernel";
+            }
+            else {
+                table[ent.get_id()] = (KernelEntity) ent;
+            }
+        }
+
+        if (problem != null)
+        {
+            System.out.println("EventLoopKernel.run(): Warning - " + problem +
+                    ". Running the simulation on SimJava instead.");
+
+            // detach all entities so that they use SimJava
+            for (int i = 0; i < list.size(); i++)
+            {
+                Sim_entity ent = list.get(i);
+                if (ent instanceof KernelEntity) {
+                    ((KernelEntity) ent).kernel_ = null;
+                }
+            }
+            return false;
+        }
+
+        entities_ = table;
+        entityCount_ = table.length;
+        createPartitions(table);
+        return true;
+    }
+
+    /**
+     * Builds the entity table of an isolated kernel from its own list of
+     * entities
+     * @return <tt>true</tt> if this kernel can run the simulation
+     * @pre $none
+     * @post $none
+     */
+    private boolean prepareIsolated()
+    {
+        if ( !SimJavaBridge.isAvailable() )
+        {
+            System.out.println("EventLoopKernel.run(): Error - the SimJava " +
+                    "library is not supported. Can't run an isolated " +
+                    "simulation.");
+            return false;
+        }
+
+        KernelEntity[] table = new KernelEntity[entityCount_];
+        System.arraycopy(entities_, 0, table, 0, entityCount_);
+        entities_ = table;
+        createPartitions(table);
+        return true;
+    }
+
+    /**
+     * Creates the logical processes and assigns every entity to one of them
+     * @param table  all entities, indexed by their id
+     * @pre table != null
+     * @post $none
+     */
+    private void createPartitions(KernelEntity[] table)
+    {
+        int[] part = null;
+        boolean[] synchronous = null;
+        if (maxPartitions_ > 1 && partitioner_ != null) {
+            part = partitioner_.partition(table, maxPartitions_);
+        }
+
+        int count = 1;
+        for (int i = 0; part != null && i < table.length; i++)
+        {
+            if (part[i] < 0 || part[i] >= maxPartitions_)
+            {
+                System.out.println("EventLoopKernel.run(): Warning - " +
+                    "invalid partition for " + table[i].get_name() +
+                    ". Running the simulation sequentially instead.");
+                part = null;
+                count = 1;
+                break;
+            }
+            count = Math.max(count, part[i] + 1);
+        }
+
+        // the lookahead set by the user takes precedence
+        runLookahead_ = lookahead_;
+        if (count > 1)
+        {
+            synchronous = new boolean[table.length];
+            double lookahead = partitioner_.getLookahead(table, part,
+                                                         synchronous);
+            if (runLookahead_ == 0.0 && lookahead > 0.0) {
+                runLookahead_ = lookahead;
+            }
+        }
+
+        lps_ = new LogicalProcess[count];
+        for (int i = 0; i < count; i++) {
+            lps_[i] = new LogicalProcess(i, felType_, synchronous);
+        }
+
+        for (int i = 0; i < table.length; i++) {
+            table[i].lp_ = lps_[ (part == null) ? 0 : part[i] ];
+        }
+        windowCount_ = 0;
+    }
+
+    /**
+     * Starts an entity, either by calling {@link EventDriven#startEntity()}
+     * or by running its <tt>body()</tt> until it blocks
+     * @param ent  the entity
+     * @pre ent != null
+     * @post $none
+     */
+    private void startEntity(KernelEntity ent)
+    {
+        ent.state_ = KernelEntity.RUNNABLE;
+        if ( isCallback(ent) )
+        {
+            ent.callback_ = true;
+            callbackCount_.incrementAndGet();
+            try {
+                ((EventDriven) ent).startEntity();
+            }
+            catch (RuntimeException e) {
+                abortEntity(ent, e);
+            }
+        }
+        else
+        {
+            ent.thread_ = new EntityThread(this, ent);
+            ent.thread_.start();
+            ent.thread_.resume();
+        }
+    }
+
+    /**
+     * Resumes an entity restored from a snapshot. An {@link EventDriven}
+     * entity simply waits for its next event, whereas the <tt>body()</tt>
+     * of any other entity is run again until it blocks.
+     * @param ent  the entity
+     * @pre ent != null
+     * @post $none
+     */
+    private void resumeEntity(KernelEntity ent)
+    {
+        ent.restored_ = true;
+        if (ent.state_ == KernelEntity.FINISHED) {
+            return;
+        }
+
+        if (ent.callback_) {
+            callbackCount_.incrementAndGet();
+        }
+        else
+        {
+            ent.state_ = KernelEntity.RUNNABLE;
+            ent.thread_ = new EntityThread(this, ent);
+            ent.thread_.start();
+            ent.thread_.resume();
+        }
+    }
+
+    /**
+     * Starts an entity created during the simulation
+     * @param ent  the entity
+     * @param id   the entity id
+     * @pre ent != null && id >= 0
+     * @post $none
+     */
+    private void startNewEntity(KernelEntity ent, int id)
+    {
+        System.out.println("Adding: " + ent.get_name());
+        SimJavaBridge.setId(ent, id);
+        startEntity(ent);
+    }
+
+    /**
+     * Checks whether an entity should be run through {@link EventDriven}.
+     * This is the case when its class does not override <tt>body()</tt>
+     * below the class that implements <tt>handleEvent()</tt>.
+     * @param ent  the entity
+     * @return <tt>true</tt> if it is run as a callback
+     * @pre ent != null
+     * @post $none
+     */
+    private static boolean isCallback(KernelEntity ent)
+    {
+        if ( !(ent instanceof EventDriven) ) {
+            return false;
+        }
+
+        Class<?> c = ent.getClass();
+        synchronized (callbackClass_)
+        {
+            Boolean result = callbackClass_.get(c);
+            if (result == null)
+            {
+                try
+                {
+                    Method body = c.getMethod("body");
+                    Method handler = c.getMethod("handleEvent", Sim_event.class);
+                    result = body.getDeclaringClass().isAssignableFrom(
+                                handler.getDeclaringClass() );
+                }
+                catch (NoSuchMethodException e) {
+                    result = Boolean.FALSE;
+                }
+                callbackClass_.put(c, result);
+            }
+            return result.booleanValue();
+        }
+    }
+
+    /**
+     * Delivers one event
+     * @param ev  the event
+     * @pre ev != null
+     * @post $none
+     */
+    private void dispatch(KernelEvent ev)
+    {
+        // an entity created during the simulation
+        if (ev.type_ == KernelEvent.START)
+        {
+            startNewEntity( (KernelEntity) ev.data_, ev.dst_ );
+            return;
+        }
+
+        KernelEntity ent = entities_[ev.dst_];
+        if (ent.state_ == KernelEntity.FINISHED) {
+            return;
+        }
+
+        // end of a hold period
+        if (ev.type_ == KernelEvent.HOLD_DONE)
+        {
+            if (ev != ent.holdEvent_) {
+                return;
+            }
+
+            ent.holdEvent_ = null;
+            ent.state_ = KernelEntity.RUNNABLE;
+            recycle(ent, ev);
+            if (ent.callback_)
+            {
+                if (profiling_) {
+                    record(ent, EntityProfile.HOLD, 0);
+                }
+                drain(ent);
+            }
+            else {
+                resume(ent, EntityProfile.HOLD);
+            }
+            return;
+        }
+
+        if (ent.callback_)
+        {
+            if (ent.state_ == KernelEntity.HOLDING) {
+                ent.deferred_.add(ev);
+            }
+            else
+            {
+                deliver(ent, ev);
+                recycle(ent, ev);
+            }
+        }
+        else if (ent.state_ == KernelEntity.WAITING &&
+                 (ent.waitPredicate_ == null || ent.waitPredicate_.match(ev)))
+        {
+            int tag = ev.tag_;
+            SimJavaBridge.copy(ent.waitBuffer_, ev);
+            recycle(ent, ev);
+            ent.waitPredicate_ = null;
+            ent.waitBuffer_ = null;
+            ent.state_ = KernelEntity.RUNNABLE;
+            resume(ent, tag);
+        }
+        else {
+            ent.deferred_.add(ev);
+        }
+    }
+
+    /**
+     * Delivers an event to a callback entity, and records it into the
+     * profile of the entity if profiling is enabled
+     * @param ent  the entity
+     * @param ev   the event
+     * @pre ent != null && ev != null
+     * @post $none
+     */
+    private void deliver(KernelEntity ent, KernelEvent ev)
+    {
+        if (profiling_)
+        {
+            int tag = ev.tag_;
+            long start = System.nanoTime();
+            handle(ent, ev);
+            record(ent, tag, System.nanoTime() - start);
+        }
+        else {
+            handle(ent, ev);
+        }
+    }
+
+    /**
+     * Calls the event handler of a callback entity, aborting the entity if
+     * the handler fails
+     * @param ent  the entity
+     * @param ev   the event
+     * @pre ent != null && ev != null
+     * @post $none
+     */
+    private void handle(KernelEntity ent, KernelEvent ev)
+    {
+        try {
+            ((EventDriven) ent).handleEvent(ev);
+        }
+        catch (RuntimeException e) {
+            abortEntity(ent, e);
+        }
+    }
+
+    /**
+     * Runs the <tt>body()</tt> of an entity that has received an event or
+     * whose hold period is over, until it blocks again
+     * @param ent  the entity
+     * @param tag  the tag of the received event, or
+     *             {@link EntityProfile#HOLD}
+     * @pre ent != null
+     * @post $none
+     */
+    private void resume(KernelEntity ent, int tag)
+    {
+        if (profiling_)
+        {
+            long start = System.nanoTime();
+            ent.thread_.resume();
+            record(ent, tag, System.nanoTime() - start);
+        }
+        else {
+            ent.thread_.resume();
+        }
+    }
+
+    /**
+     * Delivers the events that a callback entity received while it was
+     * holding, until it holds again
+     * @param ent  the entity
+     * @pre ent != null
+     * @post $none
+     */
+    private void drain(KernelEntity ent)
+    {
+        while (ent.state_ == KernelEntity.RUNNABLE && !ent.deferred_.isEmpty())
+        {
+            KernelEvent ev = ent.deferred_.removeFirst();
+            deliver(ent, ev);
+            recycle(ent, ev);
+        }
+    }
+
+    /**
+     * Keeps a delivered event for reuse by the partition of an entity,
+     * if event pooling is enabled
+     * @param ent  the entity that received the event
+     * @param ev   the event
+     * @pre ent != null && ev != null
+     * @post $none
+     */
+    private void recycle(KernelEntity ent, KernelEvent ev)
+    {
+        if (pooling_) {
+            ent.lp_.recycle(ev);
+        }
+    }
+
+    /**
+     * Stops an entity whose event handler raised an exception
+     * @param ent  the entity
+     * @param e    the exception
+     * @pre ent != null && e != null
+     * @post $none
+     */
+    private void abortEntity(KernelEntity ent, RuntimeException e)
+    {
+        System.out.println(ent.get_name() + ".handleEvent(): Error - " +
+                "exception raised under the event-loop kernel.");
+        e.printStackTrace();
+        finish(ent);
+    }
+
+    /**
+     * Unwinds the bodies of all adapter entities that are still parked
+     * @pre $none
+     * @post $none
+     */
+    private void terminateEntities()
+    {
+        for (int i = 0; i < entities_.length; i++)
+        {
+            KernelEntity ent = entities_[i];
+            if (ent == null) {
+                continue;   // created but not started yet
+            }
+
+            if (ent.thread_ != null && ent.state_ != KernelEntity.FINISHED) {
+                ent.thread_.terminate();
+            }
+            ent.thread_ = null;
+            ent.deferred_.clear();
+            ent.holdEvent_ = null;
+        }
+    }
+
+    /**
+     * Called when the thread of an entity body is started
+     * @pre $none
+     * @post $none
+     */
+    void hostedEntityStarted() {
+        hostedCount_.incrementAndGet();
+    }
+
+    /**
+     * Called by an entity thread when its body returns
+     * @pre $none
+     * @post $none
+     */
+    void hostedEntityFinished() {
+        hostedCount_.decrementAndGet();
+    }
+
+    /**
+     * Called by an entity thread before it parks itself
+     * @pre $none
+     * @post $none
+     */
+    void entityParked()
+    {
+        int count = parkedCount_.incrementAndGet();
+        int peak = peakParkedCount_.get();
+        while (count > peak && !peakParkedCount_.compareAndSet(peak, count)) {
+            peak = peakParkedCount_.get();
+        }
+    }
+
+    /**
+     * Called by the kernel before it resumes a parked entity thread
+     * @pre $none
+     * @post $none
+     */
+    void entityResumed() {
+        parkedCount_.decrementAndGet();
+    }
+
+    /**
+     * Called by an entity thread to hand control back to the kernel
+     * @param ent  the entity run by the thread
+     * @pre ent != null
+     * @post $none
+     */
+    void yieldToKernel(KernelEntity ent) {
+        ent.lp_.yield_.release();
+    }
+
+    /**
+     * Called by the kernel to wait until the running entity thread parks
+     * itself or finishes
+     * @param ent  the entity run by the thread
+     * @pre ent != null
+     * @post $none
+     */
+    void waitForEntity(KernelEntity ent) {
+        ent.lp_.yield_.acquireUninterruptibly();
+    }
+
+    /**
+     * Called by an entity thread before it runs the entity body, so that
+     * the simulation clock of its partition can be found
+     * @param ent  the entity run by the thread
+     * @pre ent != null
+     * @post $none
+     */
+    void bindThread(KernelEntity ent)
+    {
+        if (lps_.length > 1) {
+            current_.set(ent.lp_);
+        }
+    }
+
+    /**
+     * Gets the partition run by the current thread
+     * @return the partition
+     * @pre $none
+     * @post $result != null
+     */
+    private LogicalProcess currentPartition()
+    {
+        LogicalProcess lp = current_.get();
+        return (lp != null) ? lp : lps_[0];
+    }
+
+    //////////////////// methods called by KernelEntity ///////////////////
+
+    /**
+     * Schedules an event. When a callback entity is holding, the event is
+     * sent relative to the end of its hold period, as it would be under
+     * SimJava where the entity only resumes after the hold.
+     * In a parallel run, an event for another partition is kept until the
+     * end of the current window.
+     * @param src    the sender
+     * @param dest   the destination entity id
+     * @param delay  the delay from the current simulation time
+     * @param tag    the event tag
+     * @param data   the event data
+     * @throws Sim_exception  if the delay is negative, or if the event is
+     *         for another partition and is earlier than the lookahead allows
+     * @pre src != null
+     * @post $none
+     */
+    void send(KernelEntity src, int dest, double delay, int tag, Object data)
+    {
+        if (delay < 0.0) {
+            throw new Sim_exception("Sim_system: Send delay can't be negative.");
+        }
+
+        KernelEntity[] table = entities_;
+        if (dest < 0 || dest >= table.length || table[dest] == null) {
+            throw new Sim_exception("Sim_system: Attempt to send to a null " +
+                    "entity detected.");
+        }
+
+        LogicalProcess lp = src.lp_;
+        double start = startTime(src);
+        double time = start + delay;
+        KernelEvent ev = lp.newEvent(KernelEvent.SEND, time,
+                generation(lp, time), start, startGeneration(src),
+                src.get_id(), dest, tag, data, src.seq_++);
+
+        LogicalProcess destLp = table[dest].lp_;
+        if (!parallel_)
+        {
+            destLp.add(ev);
+            return;
+        }
+
+        // an event inside the current window must stay in this partition,
+        // and a synchronous entity only receives events outside windows
+        // that use the lookahead
+        boolean early = time < windowTime_ ||
+                        (time == windowTime_ && ev.gen_ < windowGen_);
+        if ( early && (destLp != lp ||
+             (lookaheadWindow_ && destLp.isSynchronous(dest))) )
+        {
+            throw new Sim_exception("EventLoopKernel: " + src.get_name() +
+                " sent an event to " + table[dest].get_name() + " at time " +
+                time + ", which is earlier than the lookahead of " +
+                runLookahead_ + " allows.");
+        }
+
+        if (destLp == lp) {
+            destLp.add(ev);
+        }
+        else {
+            lp.outbox_.add(ev);
+        }
+    }
+
+    /**
+     * Holds an entity for some time. A callback entity returns immediately
+     * and receives no events until the hold period is over, whereas an
+     * adapter entity is parked.
+     * @param ent    the entity
+     * @param delay  the hold time
+     * @pre ent != null
+     * @post $none
+     */
+    void hold(KernelEntity ent, double delay)
+    {
+        if (delay < 0.0) {
+            throw new Sim_exception("Sim_entity: Negative delay supplied.");
+        }
+
+        LogicalProcess lp = ent.lp_;
+        double start = startTime(ent);
+        long startGen = startGeneration(ent);
+        ent.holdUntil_ = start + delay;
+        if (ent.holdEvent_ != null) {
+            lp.remove(ent.holdEvent_);
+        }
+
+        int id = ent.get_id();
+        ent.holdEvent_ = lp.newEvent(KernelEvent.HOLD_DONE, ent.holdUntil_,
+                generation(lp, ent.holdUntil_), start, startGen, id, id, 0,
+                null, ent.seq_++);
+        ent.state_ = KernelEntity.HOLDING;
+        lp.add(ent.holdEvent_);
+
+        if (!ent.callback_) {
+            ent.thread_.park();
+        }
+    }
+
+    /**
+     * Takes the first event matching a predicate from the deferred queue,
+     * or waits for one to arrive
+     * @param ent    the entity
+     * @param p      the predicate or <tt>null</tt> for any event
+     * @param ev     the event object to be filled
+     * @param checkDeferred  <tt>false</tt> to ignore the deferred queue
+     * @pre ent != null
+     * @post $none
+     */
+    void getNext(KernelEntity ent, Sim_predicate p, Sim_event ev,
+                 boolean checkDeferred)
+    {
+        if (checkDeferred)
+        {
+            KernelEvent e = takeDeferred(ent, p);
+            if (e != null)
+            {
+                if (profiling_) {
+                    record(ent, e.tag_, 0);
+                }
+                SimJavaBridge.copy(ev, e);
+                recycle(ent, e);
+                return;
+            }
+        }
+
+        if (ent.callback_ || ent.thread_ == null)
+        {
+            System.out.println(ent.get_name() + ".handleEvent(): Error - " +
+                    "an event-driven entity can not wait for an event.");
+            return;
+        }
+
+        ent.waitPredicate_ = p;
+        ent.waitBuffer_ = ev;
+        ent.state_ = KernelEntity.WAITING;
+        ent.thread_.park();
+    }
+
+    /**
+     * Takes the first event matching a predicate from the deferred queue,
+     * without waiting
+     * @param ent  the entity
+     * @param p    the predicate or <tt>null</tt> for any event
+     * @param ev   the event object to be filled
+     * @pre ent != null
+     * @post $none
+     */
+    void select(KernelEntity ent, Sim_predicate p, Sim_event ev)
+    {
+        KernelEvent e = takeDeferred(ent, p);
+        if (e != null)
+        {
+            if (profiling_) {
+                record(ent, e.tag_, 0);
+            }
+            SimJavaBridge.copy(ev, e);
+            recycle(ent, e);
+        }
+    }
+
+    /**
+     * Counts the deferred events of an entity that match a predicate
+     * @param ent  the entity
+     * @param p    the predicate or <tt>null</tt> for any event
+     * @return the number of matching events
+     * @pre ent != null
+     * @post $result >= 0
+     */
+    int waiting(KernelEntity ent, Sim_predicate p)
+    {
+        if (p == null) {
+            return ent.deferred_.size();
+        }
+
+        int count = 0;
+        Iterator<KernelEvent> it = ent.deferred_.iterator();
+        while ( it.hasNext() )
+        {
+            if ( p.match(it.next()) ) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Cancels the first future event sent by an entity that matches a
+     * predicate. In a parallel run, only the events that are still held by
+     * the partition of the entity can be cancelled.
+     * @param ent  the entity
+     * @param p    the predicate or <tt>null</tt> for any event
+     * @param ev   the event object to be filled (can be <tt>null</tt>)
+     * @return the number of cancelled events (0 or 1)
+     * @pre ent != null
+     * @post $result >= 0
+     */
+    int cancel(KernelEntity ent, Sim_predicate p, Sim_event ev)
+    {
+        LogicalProcess lp = ent.lp_;
+        int id = ent.get_id();
+        KernelEvent first = lp.findFirst( new CancelPredicate(id, p) );
+
+        int outIndex = -1;
+        for (int i = 0; i < lp.outbox_.size(); i++)
+        {
+            KernelEvent e = lp.outbox_.get(i);
+            if ( isCancellable(e, id, p) &&
+                 (first == null || e.compareKey(first) < 0) )
+            {
+                first = e;
+                outIndex = i;
+            }
+        }
+
+        if (first == null) {
+            return 0;
+        }
+
+        if (outIndex >= 0) {
+            lp.outbox_.remove(outIndex);
+        }
+        else {
+            lp.remove(first);
+        }
+
+        SimJavaBridge.copy(ev, first);
+        return 1;
+    }
+
+    /**
+     * Checks whether a future event can be cancelled by an entity
+     * @param e   the event
+     * @param id  the entity id
+     * @param p   the predicate or <tt>null</tt> for any event
+     * @return <tt>true</tt> if the event was sent by the entity and matches
+     * @pre e != null
+     * @post $none
+     */
+    private static boolean isCancellable(KernelEvent e, int id, Sim_predicate p)
+    {
+        return e.src_ == id && e.type_ == KernelEvent.SEND &&
+               (p == null || p.match(e));
+    }
+
+    /**
+     * Selects the future events that an entity can cancel
+     */
+    private static final class CancelPredicate extends Sim_predicate
+    {
+        private final int id_;              // the entity id
+        private final Sim_predicate p_;     // or null for any event
+
+        /**
+         * Allocates a new predicate
+         * @param id  the entity id
+         * @param p   the predicate or <tt>null</tt> for any event
+         * @pre $none
+         * @post $none
+         */
+        CancelPredicate(int id, Sim_predicate p)
+        {
+            id_ = id;
+            p_ = p;
+        }
+
+        /**
+         * Checks whether a future event can be cancelled by the entity
+         * @param ev  the event
+         * @return <tt>true</tt> if the event can be cancelled
+         * @pre ev != null
+         * @post $none
+         */
+        public boolean match(Sim_event ev) {
+            return isCancellable((KernelEvent) ev, id_, p_);
+        }
+    }
+
+    /**
+     * Puts an event back into the deferred queue of an entity
+     * @param ent  the entity
+     * @param ev   the event
+     * @pre ent != null && ev != null
+     * @post $none
+     */
+    void putback(KernelEntity ent, Sim_event ev)
+    {
+        ent.deferred_.add( new KernelEvent(KernelEvent.SEND, ev.event_time(), 0,
+                ev.event_time(), 0, ev.get_src(), ent.get_id(), ev.get_tag(),
+                ev.get_data(), 0) );
+    }
+
+    /**
+     * Marks an entity as finished and discards its pending events
+     * @param ent  the entity
+     * @pre ent != null
+     * @post $none
+     */
+    void finish(KernelEntity ent)
+    {
+        ent.state_ = KernelEntity.FINISHED;
+        ent.deferred_.clear();
+        if (ent.holdEvent_ != null)
+        {
+            ent.lp_.remove(ent.holdEvent_);
+            ent.holdEvent_ = null;
+        }
+    }
+
+    /**
+     * Gets the time from which an entity sends or holds: the end of its
+     * hold period if it is a holding callback entity, or the current time
+     * @param ent  the entity
+     * @return the start time
+     * @pre ent != null
+     * @post $result >= clock()
+     */
+    private double startTime(KernelEntity ent)
+    {
+        if (ent.callback_ && ent.state_ == KernelEntity.HOLDING) {
+            return ent.holdUntil_;
+        }
+        return ent.lp_.clock_;
+    }
+
+    /**
+     * Gets the generation from which an entity sends or holds, within
+     * {@link #startTime(KernelEntity)}: the generation of the end of its hold
+     * period if it is a holding callback entity, or the current generation
+     * @param ent  the entity
+     * @return the start generation
+     * @pre ent != null
+     * @post $result >= 0
+     */
+    private long startGeneration(KernelEntity ent)
+    {
+        if (ent.callback_ && ent.state_ == KernelEntity.HOLDING &&
+            ent.holdEvent_ != null)
+        {
+            return ent.holdEvent_.gen_;
+        }
+        return ent.lp_.gen_;
+    }
+
+    /**
+     * Gets the generation of a new event. Events for the current time are
+     * delivered after the event being processed, whereas events for a
+     * future time start a new sequence of generations.
+     * @param lp    the partition of the sender
+     * @param time  delivery time of the new event
+     * @return the generation
+     * @pre lp != null && time >= lp.clock_
+     * @post $result >= 0
+     */
+    private static long generation(LogicalProcess lp, double time) {
+        return (time == lp.clock_) ? lp.gen_ + 1 : 0;
+    }
+
+    /**
+     * Removes the first deferred event of an entity matching a predicate
+     * @param ent  the entity
+     * @param p    the predicate or <tt>null</tt> for any event
+     * @return the event or <tt>null</tt> if none matches
+     * @pre ent != null
+     * @post $none
+     */
+    private KernelEvent takeDeferred(KernelEntity ent, Sim_predicate p)
+    {
+        if (p == null) {
+            return ent.deferred_.pollFirst();
+        }
+
+        Iterator<KernelEvent> it = ent.deferred_.iterator();
+        while ( it.hasNext() )
+        {
+            KernelEvent e = it.next();
+            if ( p.match(e) )
+            {
+                it.remove();
+                return e;
+            }
+        }
+        return null;
+    }
+
+} // end class
@@ -0,0 +1,269 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.kernel;
+
+import eduni.simjava.Sim_predicate;
+
+/**
+ * The future event list of an {@link EventLoopKernel}, i.e. the priority
+ * queue of events that have been scheduled but not delivered yet. Events
+ * are ordered by {@link KernelEvent#compareKey(KernelEvent)}, which is a
+ * total order, so every implementation delivers the events in exactly the
+ * same order and gives the same simulation results.
+ * <p>
+ * The following implementations can be chosen with
+ * {@link EventLoopKernel#setFutureEventList(int)}:
+ * <ul>
+ *      <li> {@link #BINARY_HEAP}: an array-based binary heap, with
+ *           <tt>O(log n)</tt> operations (the default). It suits small and
+ *           medium queues.
+ *      <li> {@link #CALENDAR_QUEUE}: a calendar queue, which spreads events
+ *           over buckets of a fixed time width, like the days of a year,
+ *           and resizes itself as the queue grows or shrinks. Its
+ *           operations take <tt>O(1)</tt> time on average when the event
+ *           times are evenly distributed.
+ *      <li> {@link #LADDER_QUEUE}: a ladder queue, which keeps far future
+ *           events unsorted and only sorts the events that are about to be
+ *           delivered, splitting crowded time intervals into finer ones.
+ *           Its operations take <tt>O(1)</tt> amortized time, even when the
+ *           event times are skewed.
+ * </ul>
+ * <p>
+ * Every implementation counts the events that are enqueued and dequeued,
+ * and samples the queue depth after each of these operations, so that the
+ * implementation that suits a workload best can be chosen.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.kernel.EventLoopKernel#getFutureEventList(int)
+ * @invariant $none
+ */
+public abstract class FutureEventList
+{
+    /** An array-based binary heap */
+    public static final int BINARY_HEAP = 1;
+
+    /** A calendar queue */
+    public static final int CALENDAR_QUEUE = 2;
+
+    /** A ladder queue */
+    public static final int LADDER_QUEUE = 3;
+
+    private long enqueueCount_;     // number of enqueued events
+    private long dequeueCount_;     // number of dequeued events
+    private long depthSum_;         // sum of the sampled queue depths
+    private int maxDepth_;          // highest queue depth
+
+    /**
+     * Allocates a new future event list
+     * @pre $none
+     * @post $none
+     */
+    FutureEventList()
+    {
+        enqueueCount_ = 0;
+        dequeueCount_ = 0;
+        depthSum_ = 0;
+        maxDepth_ = 0;
+    }
+
+    /**
+     * Creates a future event list
+     * @param type  {@link #BINARY_HEAP}, {@link #CALENDAR_QUEUE} or
+     *              {@link #LADDER_QUEUE}
+     * @return a new empty list, or <tt>null</tt> if the type is unknown
+     * @pre $none
+     * @post $none
+     */
+    static FutureEventList create(int type)
+    {
+        switch (type)
+        {
+            case BINARY_HEAP:
+                return new BinaryHeapEventList();
+
+            case CALENDAR_QUEUE:
+                return new CalendarQueueEventList();
+
+            case LADDER_QUEUE:
+                return new LadderQueueEventList();
+
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Gets the type of this future event list
+     * @return {@link #BINARY_HEAP}, {@link #CALENDAR_QUEUE} or
+     *         {@link #LADDER_QUEUE}
+     * @pre $none
+     * @post $none
+     */
+    public abstract int getType();
+
+    /**
+     * Gets the number of events in this list
+     * @return the number of events
+     * @pre $none
+     * @post $result >= 0
+     */
+    public abstract int size();
+
+    /**
+     * Checks whether this list is empty
+     * @return <tt>true</tt> if there are no events
+     * @pre $none
+     * @post $none
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Gets the number of events added to this list so far
+     * @return the number of enqueued events
+     * @pre $none
+     * @post $result >= 0
+     */
+    public long getEnqueueCount() {
+        return enqueueCount_;
+    }
+
+    /**
+     * Gets the number of events taken from the front of this list so far.
+     * Cancelled events are not counted.
+     * @return the number of dequeued events
+     * @pre $none
+     * @post $result >= 0
+     */
+    public long getDequeueCount() {
+        return dequeueCount_;
+    }
+
+    /**
+     * Gets the mean number of events in this list, sampled after every
+     * enqueue and dequeue operation
+     * @return the mean queue depth, or 0 if no event has been enqueued
+     * @pre $none
+     * @post $result >= 0
+     */
+    public double getMeanDepth()
+    {
+        long samples = enqueueCount_ + dequeueCount_;
+        if (samples == 0) {
+            return 0.0;
+        }
+        return (double) depthSum_ / samples;
+    }
+
+    /**
+     * Gets the highest number of events that were in this list at the
+     * same time
+     * @return the maximum queue depth
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int getMaxDepth() {
+        return maxDepth_;
+    }
+
+    /**
+     * Adds an event into this list
+     * @param ev  the event
+     * @pre ev != null
+     * @post $none
+     */
+    final void add(KernelEvent ev)
+    {
+        insert(ev);
+        enqueueCount_++;
+        sample();
+    }
+
+    /**
+     * Removes and returns the first event
+     * @return the first event or <tt>null</tt> if the list is empty
+     * @pre $none
+     * @post $none
+     */
+    final KernelEvent poll()
+    {
+        KernelEvent ev = removeFirst();
+        if (ev != null)
+        {
+            dequeueCount_++;
+            sample();
+        }
+        return ev;
+    }
+
+    /**
+     * Records the current queue depth
+     * @pre $none
+     * @post $none
+     */
+    private void sample()
+    {
+        int depth = size();
+        depthSum_ += depth;
+        if (depth > maxDepth_) {
+            maxDepth_ = depth;
+        }
+    }
+
+    /**
+     * Adds an event into this list, without updating the statistics
+     * @param ev  the event
+     * @pre ev != null
+     * @post $none
+     */
+    abstract void insert(KernelEvent ev);
+
+    /**
+     * Removes and returns the first event, without updating the statistics
+     * @return the first event or <tt>null</tt> if the list is empty
+     * @pre $none
+     * @post $none
+     */
+    abstract KernelEvent removeFirst();
+
+    /**
+     * Gets the first event without removing it
+     * @return the first event or <tt>null</tt> if the list is empty
+     * @pre $none
+     * @post $none
+     */
+    abstract KernelEvent peek();
+
+    /**
+     * Removes a given event from this list, e.g. when it is cancelled
+     * @param ev  the event
+     * @return <tt>true</tt> if the event was in this list
+     * @pre ev != null
+     * @post $none
+     */
+    abstract boolean remove(KernelEvent ev);
+
+    /**
+     * Finds the first event, in delivery order, that matches a predicate
+     * @param p  the predicate
+     * @return the first matching event, or <tt>null</tt> if none matches
+     * @pre p != null
+     * @post $none
+     */
+    abstract KernelEvent findFirst(Sim_predicate p);
+
+    /**
+     * Removes all events from this list
+     * @pre $none
+     * @post size() == 0
+     */
+    abstract void clear();
+
+} // end class
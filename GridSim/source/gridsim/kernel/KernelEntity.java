@@ -0,0 +1,483 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.kernel;
+
+import eduni.simjava.Sim_entity;
+import eduni.simjava.Sim_event;
+import eduni.simjava.Sim_port;
+import eduni.simjava.Sim_predicate;
+import java.util.ArrayDeque;
+
+/**
+ * The base class of all GridSim entities. It is a SimJava
+ * {@link eduni.simjava.Sim_entity} that can also be run by an
+ * {@link EventLoopKernel}.
+ * <p>
+ * When GridSim is initialized with
+ * {@link gridsim.GridSimTags#KERNEL_SIMJAVA} (the default), this class
+ * behaves exactly like <tt>Sim_entity</tt>: each entity runs its
+ * <tt>body()</tt> method on its own thread and SimJava delivers the events.
+ * <p>
+ * When GridSim is initialized with
+ * {@link gridsim.GridSimTags#KERNEL_EVENT_LOOP}, the scheduling methods
+ * inherited from <tt>Sim_entity</tt>, such as <tt>sim_schedule()</tt>,
+ * <tt>sim_get_next()</tt> and <tt>sim_process()</tt>, are redirected to the
+ * kernel. Entities that implement {@link EventDriven} are then run as
+ * callbacks on the kernel thread, whereas the remaining ones keep running
+ * their <tt>body()</tt> method unchanged through an adapter.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.kernel.EventLoopKernel
+ * @see gridsim.kernel.EventDriven
+ * @invariant $none
+ */
+public class KernelEntity extends Sim_entity
+{
+    /** The entity can run or is running */
+    static final int RUNNABLE = 0;
+
+    /** The entity is waiting for an event */
+    static final int WAITING = 1;
+
+    /** The entity is holding for a period of time */
+    static final int HOLDING = 2;
+
+    /** The entity has finished */
+    static final int FINISHED = 3;
+
+    // NOTE: the attributes below are only used by the event-loop kernel
+    EventLoopKernel kernel_;        // kernel running this entity, or null
+    int state_;                     // RUNNABLE, WAITING, HOLDING or FINISHED
+    boolean callback_;              // true if run through EventDriven
+    long seq_;                      // number of events sent so far
+    double holdUntil_;              // end of the current hold period
+    KernelEvent holdEvent_;         // pending HOLD_DONE event
+    ArrayDeque<KernelEvent> deferred_;  // events waiting to be received
+    Sim_predicate waitPredicate_;   // what a WAITING entity is waiting for
+    Sim_event waitBuffer_;          // where to copy the awaited event
+    EntityThread thread_;           // thread running body(), if any
+    LogicalProcess lp_;             // partition holding the entity events
+    boolean restored_;              // restored from a snapshot
+    volatile EntityProfile profile_;    // received events, if profiled
+
+    /**
+     * Allocates a new entity.
+     * If an event-loop kernel has been selected, the entity is bound to it.
+     * Entities can also be created while the kernel is running, in which
+     * case they are started at the current simulation time.
+     * @param name  the name to be associated with this entity
+     * @throws NullPointerException  if the name is <tt>null</tt>
+     * @pre name != null
+     * @post $none
+     */
+    public KernelEntity(String name) throws NullPointerException
+    {
+        super( EventLoopKernel.prepareEntity(name) );
+        kernel_ = EventLoopKernel.getActive();
+        state_ = RUNNABLE;
+        callback_ = false;
+        seq_ = 0;
+        holdUntil_ = 0.0;
+        holdEvent_ = null;
+        deferred_ = new ArrayDeque<KernelEvent>();
+        waitPredicate_ = null;
+        waitBuffer_ = null;
+        thread_ = null;
+        lp_ = null;
+        restored_ = false;
+        profile_ = null;
+
+        if (kernel_ != null) {
+            kernel_.addEntity(this);
+        }
+    }
+
+    /**
+     * Gets the id of this entity.
+     * While an entity of an isolated kernel is being constructed, SimJava
+     * is told that it already has an id, so that the entity is not added to
+     * the SimJava entity list. The kernel gives it an id of its own instead.
+     * @return the entity id
+     * @pre $none
+     * @post $none
+     * @see gridsim.kernel.EventLoopKernel#EventLoopKernel(boolean, boolean)
+     */
+    public int get_id()
+    {
+        int id = super.get_id();
+        if (id == -1 && kernel_ == null && EventLoopKernel.isRegistering()) {
+            return Integer.MAX_VALUE;
+        }
+        return id;
+    }
+
+    /**
+     * Checks whether the event-loop kernel is delivering events to this
+     * entity
+     * @return <tt>true</tt> if the kernel is running this entity
+     * @pre $none
+     * @post $none
+     */
+    protected boolean isKernelMode() {
+        return kernel_ != null && kernel_.isRunning();
+    }
+
+    /**
+     * Checks whether this entity has been restored from a snapshot by the
+     * event-loop kernel. In this case, <tt>body()</tt> is run again while
+     * the simulation continues from the time of the snapshot, so it should
+     * skip its start-up, e.g. registering to other entities, and go straight
+     * to its event loop.
+     * @return <tt>true</tt> if this entity has been restored
+     * @pre $none
+     * @post $none
+     * @see gridsim.kernel.EventLoopKernel#restoreSnapshot(String)
+     * @see gridsim.kernel.Checkpointable
+     */
+    protected boolean isRestored() {
+        return restored_ && isKernelMode();
+    }
+
+    /**
+     * Marks this entity as finished. An {@link EventDriven} entity calls
+     * this method once it receives <tt>END_OF_SIMULATION</tt>, after which
+     * the kernel discards any further events sent to it.
+     * This method has no effect when running on SimJava.
+     * @pre $none
+     * @post $none
+     */
+    protected void endEntity()
+    {
+        if ( isKernelMode() ) {
+            kernel_.finish(this);
+        }
+    }
+
+    ////////////////////////// SimJava methods /////////////////////////////
+
+    /**
+     * Sends an event to another entity
+     * @param dest   the destination entity id
+     * @param delay  how long from the current simulation time the event
+     *               should be sent
+     * @param tag    a user-defined number representing the type of event
+     * @param data   a reference to data to be sent with the event
+     * @pre delay >= 0.0
+     * @post $none
+     */
+    public void sim_schedule(int dest, double delay, int tag, Object data)
+    {
+        if ( isKernelMode() ) {
+            kernel_.send(this, dest, delay, tag, data);
+        }
+        else {
+            super.sim_schedule(dest, delay, tag, data);
+        }
+    }
+
+    /**
+     * Sends an event with no data to another entity
+     * @param dest   the destination entity id
+     * @param delay  how long from the current simulation time the event
+     *               should be sent
+     * @param tag    a user-defined number representing the type of event
+     * @pre delay >= 0.0
+     * @post $none
+     */
+    public void sim_schedule(int dest, double delay, int tag) {
+        sim_schedule(dest, delay, tag, null);
+    }
+
+    /**
+     * Sends an event through a port
+     * @param dest   the port to send the event through
+     * @param delay  how long from the current simulation time the event
+     *               should be sent
+     * @param tag    a user-defined number representing the type of event
+     * @param data   a reference to data to be sent with the event
+     * @pre dest != null
+     * @pre delay >= 0.0
+     * @post $none
+     */
+    public void sim_schedule(Sim_port dest, double delay, int tag, Object data)
+    {
+        if ( isKernelMode() ) {
+            kernel_.send(this, dest.get_dest(), delay, tag, data);
+        }
+        else {
+            super.sim_schedule(dest, delay, tag, data);
+        }
+    }
+
+    /**
+     * Sends an event with no data through a port
+     * @param dest   the port to send the event through
+     * @param delay  how long from the current simulation time the event
+     *               should be sent
+     * @param tag    a user-defined number representing the type of event
+     * @pre dest != null
+     * @pre delay >= 0.0
+     * @post $none
+     */
+    public void sim_schedule(Sim_port dest, double delay, int tag) {
+        sim_schedule(dest, delay, tag, null);
+    }
+
+    /**
+     * Sends an event to another entity given its name
+     * @param dest   the destination entity name
+     * @param delay  how long from the current simulation time the event
+     *               should be sent
+     * @param tag    a user-defined number representing the type of event
+     * @param data   a reference to data to be sent with the event
+     * @pre dest != null
+     * @pre delay >= 0.0
+     * @post $none
+     */
+    public void sim_schedule(String dest, double delay, int tag, Object data)
+    {
+        if ( isKernelMode() ) {
+            kernel_.send(this, kernel_.getEntityId(dest), delay, tag, data);
+        }
+        else {
+            super.sim_schedule(dest, delay, tag, data);
+        }
+    }
+
+    /**
+     * Sends an event with no data to another entity given its name
+     * @param dest   the destination entity name
+     * @param delay  how long from the current simulation time the event
+     *               should be sent
+     * @param tag    a user-defined number representing the type of event
+     * @pre dest != null
+     * @pre delay >= 0.0
+     * @post $none
+     */
+    public void sim_schedule(String dest, double delay, int tag) {
+        sim_schedule(dest, delay, tag, null);
+    }
+
+    /**
+     * Counts the number of events waiting in the deferred queue of this
+     * entity that match a predicate
+     * @param p  the predicate
+     * @return the number of matching events
+     * @pre p != null
+     * @post $result >= 0
+     */
+    public int sim_waiting(Sim_predicate p)
+    {
+        if ( isKernelMode() ) {
+            return kernel_.waiting(this, p);
+        }
+        return super.sim_waiting(p);
+    }
+
+    /**
+     * Counts the number of events waiting in the deferred queue of this
+     * entity
+     * @return the number of events
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int sim_waiting()
+    {
+        if ( isKernelMode() ) {
+            return kernel_.waiting(this, null);
+        }
+        return super.sim_waiting();
+    }
+
+    /**
+     * Removes the first event in the deferred queue that matches a
+     * predicate, without waiting if there is none
+     * @param p   the predicate
+     * @param ev  the event object to be filled
+     * @pre p != null
+     * @post $none
+     */
+    public void sim_select(Sim_predicate p, Sim_event ev)
+    {
+        if ( isKernelMode() ) {
+            kernel_.select(this, p, ev);
+        }
+        else {
+            super.sim_select(p, ev);
+        }
+    }
+
+    /**
+     * Cancels the first event sent by this entity that matches a predicate
+     * and has not been delivered yet
+     * @param p   the predicate
+     * @param ev  the event object to be filled with the cancelled event
+     *            (can be <tt>null</tt>)
+     * @return the number of cancelled events (0 or 1)
+     * @pre p != null
+     * @post $result >= 0
+     */
+    public int sim_cancel(Sim_predicate p, Sim_event ev)
+    {
+        if ( isKernelMode() ) {
+            return kernel_.cancel(this, p, ev);
+        }
+        return super.sim_cancel(p, ev);
+    }
+
+    /**
+     * Puts an event back into the deferred queue of this entity
+     * @param ev  the event
+     * @pre ev != null
+     * @post $none
+     */
+    public void sim_putback(Sim_event ev)
+    {
+        if ( isKernelMode() ) {
+            kernel_.putback(this, ev);
+        }
+        else {
+            super.sim_putback(ev);
+        }
+    }
+
+    /**
+     * Gets the first event matching a predicate from the deferred queue,
+     * or waits for one to arrive
+     * @param p   the predicate
+     * @param ev  the event object to be filled
+     * @pre p != null
+     * @pre ev != null
+     * @post $none
+     */
+    public void sim_get_next(Sim_predicate p, Sim_event ev)
+    {
+        if ( isKernelMode() ) {
+            kernel_.getNext(this, p, ev, true);
+        }
+        else {
+            super.sim_get_next(p, ev);
+        }
+    }
+
+    /**
+     * Gets the first event from the deferred queue, or waits for one to
+     * arrive
+     * @param ev  the event object to be filled
+     * @pre ev != null
+     * @post $none
+     */
+    public void sim_get_next(Sim_event ev)
+    {
+        if ( isKernelMode() ) {
+            kernel_.getNext(this, null, ev, true);
+        }
+        else {
+            super.sim_get_next(ev);
+        }
+    }
+
+    /**
+     * Waits for the next event to arrive
+     * @param ev  the event object to be filled
+     * @pre ev != null
+     * @post $none
+     */
+    public void sim_wait(Sim_event ev)
+    {
+        if ( isKernelMode() ) {
+            kernel_.getNext(this, null, ev, false);
+        }
+        else {
+            super.sim_wait(ev);
+        }
+    }
+
+    /**
+     * Waits for the next event that matches a predicate to arrive
+     * @param p   the predicate
+     * @param ev  the event object to be filled
+     * @pre p != null
+     * @pre ev != null
+     * @post $none
+     */
+    public void sim_wait_for(Sim_predicate p, Sim_event ev)
+    {
+        if ( isKernelMode() ) {
+            kernel_.getNext(this, p, ev, false);
+        }
+        else {
+            super.sim_wait_for(p, ev);
+        }
+    }
+
+    /**
+     * Holds this entity for some time while it processes something
+     * @param delay  the processing time
+     * @pre delay >= 0.0
+     * @post $none
+     */
+    public void sim_process(double delay)
+    {
+        if ( isKernelMode() ) {
+            kernel_.hold(this, delay);
+        }
+        else {
+            super.sim_process(delay);
+        }
+    }
+
+    /**
+     * Pauses this entity for some time
+     * @param delay  the pause time
+     * @pre delay >= 0.0
+     * @post $none
+     */
+    public void sim_pause(double delay)
+    {
+        if ( isKernelMode() ) {
+            kernel_.hold(this, delay);
+        }
+        else {
+            super.sim_pause(delay);
+        }
+    }
+
+    /**
+     * Holds this entity for some time
+     * @param delay  the hold time
+     * @pre delay >= 0.0
+     * @post $none
+     */
+    public void sim_hold(double delay)
+    {
+        if ( isKernelMode() ) {
+            kernel_.hold(this, delay);
+        }
+        else {
+            super.sim_hold(delay);
+        }
+    }
+
+    /**
+     * Notifies that an event has been completely processed. This only
+     * updates SimJava statistics, so it does nothing under the event-loop
+     * kernel.
+     * @param ev  the processed event
+     * @pre ev != null
+     * @post $none
+     */
+    public void sim_completed(Sim_event ev)
+    {
+        if ( !isKernelMode() ) {
+            super.sim_completed(ev);
+        }
+    }
+
+} // end class
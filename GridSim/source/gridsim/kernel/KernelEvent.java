@@ -0,0 +1,329 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.kernel;
+
+import eduni.simjava.Sim_event;
+
+/**
+ * An event held in the future event list of an {@link EventLoopKernel}.
+ * It extends {@link eduni.simjava.Sim_event} so that it can be given
+ * directly to {@link EventDriven#handleEvent(Sim_event)} and be matched
+ * by the existing SimJava predicates, but it keeps its attributes in
+ * plain fields that the kernel can read and write without going through
+ * SimJava.
+ * <p>
+ * Events are ordered by <tt>(time, generation, sent time, sent generation,
+ * source id, sequence)</tt>.
+ * The generation counts how many zero-delay hops separate an event from the
+ * first event delivered at the same simulation time, which mirrors the
+ * tick-by-tick delivery of SimJava. SimJava then delivers the events of a
+ * tick in the order in which they were sent, so an event sent at an earlier
+ * time and generation comes first. Only the events sent by entities running
+ * in the same tick are in no particular order in SimJava. These are ordered
+ * by the source id and the per-source sequence number instead, so that the
+ * ordering does not depend on the order in which entities are visited, and
+ * a run is fully reproducible.
+ *
+ * @since GridSim Toolkit 5.2
+ * @invariant $none
+ */
+public class KernelEvent extends Sim_event
+{
+    /** A normal event sent from one entity to another */
+    public static final int SEND = 1;
+
+    /** An event that wakes up an entity at the end of a hold period */
+    public static final int HOLD_DONE = 2;
+
+    /** An event that starts an entity created during the simulation */
+    public static final int START = 3;
+
+    double time_;       // delivery time of this event
+    long gen_;          // zero-delay generation within time_
+    double sentTime_;   // time at which this event was sent
+    long sentGen_;      // generation within sentTime_ it was sent from
+    int src_;           // sender id
+    int dst_;           // destination id
+    int tag_;           // event tag
+    Object data_;       // event data
+    long seq_;          // sequence number of this event for the sender
+    int type_;          // SEND, HOLD_DONE or START
+    int index_;         // used by the future event list, or -1
+
+    /**
+     * Allocates a new empty event
+     * @pre $none
+     * @post $none
+     */
+    public KernelEvent()
+    {
+        super();
+        time_ = -1;
+        gen_ = 0;
+        sentTime_ = -1;
+        sentGen_ = 0;
+        src_ = -1;
+        dst_ = -1;
+        tag_ = -1;
+        data_ = null;
+        seq_ = 0;
+        type_ = SEND;
+        index_ = -1;
+    }
+
+    /**
+     * Allocates a new event
+     * @param type  {@link #SEND}, {@link #HOLD_DONE} or {@link #START}
+     * @param time  delivery time of this event
+     * @param gen   zero-delay generation of this event
+     * @param sentTime  time at which this event is sent
+     * @param sentGen   generation within <tt>sentTime</tt> it is sent from
+     * @param src   sender id
+     * @param dst   destination id
+     * @param tag   event tag
+     * @param data  event data (can be <tt>null</tt>)
+     * @param seq   sequence number of this event for the sender
+     * @pre time >= 0.0
+     * @post $none
+     */
+    public KernelEvent(int type, double time, long gen, double sentTime,
+                       long sentGen, int src, int dst, int tag, Object data,
+                       long seq)
+    {
+        super();
+        set(type, time, gen, sentTime, sentGen, src, dst, tag, data, seq);
+    }
+
+    /**
+     * Sets all attributes of this event, so that it can be used again
+     * @param type  {@link #SEND}, {@link #HOLD_DONE} or {@link #START}
+     * @param time  delivery time of this event
+     * @param gen   zero-delay generation of this event
+     * @param sentTime  time at which this event is sent
+     * @param sentGen   generation within <tt>sentTime</tt> it is sent from
+     * @param src   sender id
+     * @param dst   destination id
+     * @param tag   event tag
+     * @param data  event data (can be <tt>null</tt>)
+     * @param seq   sequence number of this event for the sender
+     * @pre time >= 0.0
+     * @post $none
+     */
+    final void set(int type, double time, long gen, double sentTime,
+                   long sentGen, int src, int dst, int tag, Object data,
+                   long seq)
+    {
+        type_ = type;
+        time_ = time;
+        gen_ = gen;
+        sentTime_ = sentTime;
+        sentGen_ = sentGen;
+        src_ = src;
+        dst_ = dst;
+        tag_ = tag;
+        data_ = data;
+        seq_ = seq;
+        index_ = -1;
+    }
+
+    /**
+     * Compares the ordering key of two events
+     * @param other  another event
+     * @return a negative value, zero or a positive value if this event is
+     *         delivered before, at the same position, or after the other
+     * @pre other != null
+     * @post $none
+     */
+    public final int compareKey(KernelEvent other)
+    {
+        if (time_ < other.time_) {
+            return -1;
+        }
+        if (time_ > other.time_) {
+            return 1;
+        }
+        if (gen_ != other.gen_) {
+            return (gen_ < other.gen_) ? -1 : 1;
+        }
+        if (sentTime_ != other.sentTime_) {
+            return (sentTime_ < other.sentTime_) ? -1 : 1;
+        }
+        if (sentGen_ != other.sentGen_) {
+            return (sentGen_ < other.sentGen_) ? -1 : 1;
+        }
+        if (src_ != other.src_) {
+            return (src_ < other.src_) ? -1 : 1;
+        }
+        if (seq_ != other.seq_) {
+            return (seq_ < other.seq_) ? -1 : 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Compares this event with another one, using {@link #compareKey}
+     * @param obj  another event
+     * @return the result of {@link #compareKey}
+     * @pre obj != null
+     * @post $none
+     */
+    public int compareTo(Object obj)
+    {
+        if (obj instanceof KernelEvent) {
+            return compareKey( (KernelEvent) obj );
+        }
+        return super.compareTo(obj);
+    }
+
+    /**
+     * Gets the zero-delay generation of this event
+     * @return the generation
+     * @pre $none
+     * @post $result >= 0
+     */
+    public long getGeneration() {
+        return gen_;
+    }
+
+    /**
+     * Gets the sequence number of this event for its sender
+     * @return the sequence number
+     * @pre $none
+     * @post $none
+     */
+    public long getSequence() {
+        return seq_;
+    }
+
+    /**
+     * Gets the destination entity id
+     * @return the destination id
+     * @pre $none
+     * @post $none
+     */
+    public int get_dest() {
+        return dst_;
+    }
+
+    /**
+     * Gets the source entity id
+     * @return the source id
+     * @pre $none
+     * @post $none
+     */
+    public int get_src() {
+        return src_;
+    }
+
+    /**
+     * Gets the delivery time of this event
+     * @return the delivery time
+     * @pre $none
+     * @post $none
+     */
+    public double event_time() {
+        return time_;
+    }
+
+    /**
+     * Gets the time this event stopped waiting in a deferred queue. The
+     * event-loop kernel does not record waiting times, so this is the
+     * delivery time.
+     * @return the delivery time
+     * @pre $none
+     * @post $none
+     */
+    public double end_waiting_time() {
+        return time_;
+    }
+
+    /**
+     * Gets the type of this event
+     * @return {@link #SEND}, {@link #HOLD_DONE} or {@link #START}
+     * @pre $none
+     * @post $none
+     */
+    public int type() {
+        return type_;
+    }
+
+    /**
+     * Gets the id of the entity that scheduled this event
+     * @return the source id
+     * @pre $none
+     * @post $none
+     */
+    public int scheduled_by() {
+        return src_;
+    }
+
+    /**
+     * Gets the tag of this event
+     * @return the event tag
+     * @pre $none
+     * @post $none
+     */
+    public int get_tag() {
+        return tag_;
+    }
+
+    /**
+     * Gets the data carried by this event
+     * @return the event data or <tt>null</tt>
+     * @pre $none
+     * @post $none
+     */
+    public Object get_data() {
+        return data_;
+    }
+
+    /**
+     * Sets the source entity id
+     * @param src  the source id
+     * @pre $none
+     * @post $none
+     */
+    public void set_src(int src) {
+        src_ = src;
+    }
+
+    /**
+     * Sets the destination entity id
+     * @param dst  the destination id
+     * @pre $none
+     * @post $none
+     */
+    public void set_dest(int dst) {
+        dst_ = dst;
+    }
+
+    /**
+     * Creates a copy of this event that is not part of any event list
+     * @return a new event with the same attributes
+     * @pre $none
+     * @post $result != null
+     */
+    public Object clone() {
+        return new KernelEvent(type_, time_, gen_, sentTime_, sentGen_, src_,
+                               dst_, tag_, data_, seq_);
+    }
+
+    /**
+     * Gets a description of this event
+     * @return a String describing this event
+     * @pre $none
+     * @post $result != null
+     */
+    public String toString()
+    {
+        return "KernelEvent(time=" + time_ + ", gen=" + gen_ + ", src=" + src_
+            + ", dst=" + dst_ + ", tag=" + tag_ + ")";
+    }
+
+} // end class
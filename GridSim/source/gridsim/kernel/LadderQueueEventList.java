@@ -0,0 +1,492 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.kernel;
+
+import eduni.simjava.Sim_predicate;
+
+/**
+ * A future event list that is a ladder queue (W. T. Tang, R. S. M. Goh and
+ * I. L.-J. Thng, "Ladder Queue: An O(1) Priority Queue Structure for
+ * Large-Scale Discrete Event Simulation", ACM TOMACS, 15(3), 2005).
+ * <p>
+ * The queue has three parts. <i>Top</i> keeps the far future events
+ * unsorted. When everything else is empty, they are spread over the
+ * buckets of the first <i>rung</i> of the ladder, each bucket covering an
+ * equal time interval. Buckets are then taken in time order: a bucket with
+ * few events is sorted into <i>bottom</i>, from which events are
+ * delivered, whereas a crowded bucket is spread over a new, finer rung.
+ * Each event is therefore only sorted among a small number of others.
+ * <p>
+ * The parts cover consecutive time intervals: bottom comes first, then the
+ * rungs from the finest to the coarsest, then top. A new event is put into
+ * the part that covers its time, so events of the same time always end up
+ * together and are delivered in the order of
+ * {@link KernelEvent#compareKey(KernelEvent)}. Removed events are only
+ * marked, and are dropped when they reach the front of the queue.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.kernel.FutureEventList#LADDER_QUEUE
+ * @invariant $none
+ */
+final class LadderQueueEventList extends FutureEventList
+{
+    private static final int THRESHOLD = 50;    // max events sorted at once
+    private static final int MAX_RUNGS = 8;     // max number of rungs
+    private static final int QUEUED = 0;        // index_ of a queued event
+    private static final int REMOVED = -2;      // index_ of a removed event
+
+    private int size_;                  // number of events, not removed ones
+
+    private EventBucket top_;           // unsorted far future events
+    private double topMin_;             // smallest time in top
+    private double topMax_;             // largest time in top
+    private double topStart_;           // top holds events from this time
+
+    private int rungs_;                 // number of rungs in use
+    private EventBucket[][] buckets_;   // the buckets of each rung
+    private double[] rungStart_;        // start time of each rung
+    private double[] rungWidth_;        // bucket width of each rung
+    private int[] rungCur_;             // next bucket to take from each rung
+    private int[] rungCount_;           // number of events in each rung
+
+    private EventBucket bottom_;        // sorted events to be delivered next
+
+    /**
+     * Allocates a new empty queue
+     * @pre $none
+     * @post $none
+     */
+    LadderQueueEventList()
+    {
+        size_ = 0;
+        top_ = new EventBucket();
+        topMin_ = 0.0;
+        topMax_ = 0.0;
+        topStart_ = Double.NEGATIVE_INFINITY;
+
+        rungs_ = 0;
+        buckets_ = new EventBucket[MAX_RUNGS][];
+        rungStart_ = new double[MAX_RUNGS];
+        rungWidth_ = new double[MAX_RUNGS];
+        rungCur_ = new int[MAX_RUNGS];
+        rungCount_ = new int[MAX_RUNGS];
+
+        bottom_ = new EventBucket();
+    }
+
+    /**
+     * Gets the type of this future event list
+     * @return {@link FutureEventList#LADDER_QUEUE}
+     * @pre $none
+     * @post $none
+     */
+    public int getType() {
+        return LADDER_QUEUE;
+    }
+
+    /**
+     * Gets the number of events in this queue
+     * @return the number of events
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int size() {
+        return size_;
+    }
+
+    /**
+     * Adds an event into this queue
+     * @param ev  the event
+     * @pre ev != null
+     * @post $none
+     */
+    void insert(KernelEvent ev)
+    {
+        ev.index_ = QUEUED;
+        size_++;
+
+        double time = ev.time_;
+        if (time >= topStart_)
+        {
+            if ( top_.isEmpty() )
+            {
+                topMin_ = time;
+                topMax_ = time;
+            }
+            else if (time < topMin_) {
+                topMin_ = time;
+            }
+            else if (time > topMax_) {
+                topMax_ = time;
+            }
+
+            top_.append(ev);
+            return;
+        }
+
+        // find the coarsest rung that covers this time
+        for (int r = 0; r < rungs_; r++)
+        {
+            int count = buckets_[r].length;
+            if (rungCur_[r] < count && time >= bucketStart(r, rungCur_[r]))
+            {
+                bucket(r, bucketIndex(r, time)).append(ev);
+                rungCount_[r]++;
+                return;
+            }
+        }
+
+        bottom_.insertSorted(ev);
+    }
+
+    /**
+     * Gets the first event without removing it
+     * @return the first event or <tt>null</tt> if the queue is empty
+     * @pre $none
+     * @post $none
+     */
+    KernelEvent peek()
+    {
+        if (size_ == 0)
+        {
+            reset();
+            return null;
+        }
+
+        while (true)
+        {
+            while ( !bottom_.isEmpty() )
+            {
+                KernelEvent ev = bottom_.first();
+                if (ev.index_ != REMOVED) {
+                    return ev;
+                }
+
+                bottom_.pollFirst();
+                ev.index_ = -1;
+            }
+
+            fillBottom();
+        }
+    }
+
+    /**
+     * Removes and returns the first event
+     * @return the first event or <tt>null</tt> if the queue is empty
+     * @pre $none
+     * @post $none
+     */
+    KernelEvent removeFirst()
+    {
+        KernelEvent ev = peek();
+        if (ev == null) {
+            return null;
+        }
+
+        bottom_.pollFirst();
+        ev.index_ = -1;
+        size_--;
+        return ev;
+    }
+
+    /**
+     * Removes a given event from this queue. The event is only marked as
+     * removed, and is dropped when it reaches the front of the queue.
+     * @param ev  the event
+     * @return <tt>true</tt> if the event was in this queue
+     * @pre ev != null
+     * @post $none
+     */
+    boolean remove(KernelEvent ev)
+    {
+        if (ev.index_ != QUEUED) {
+            return false;
+        }
+
+        ev.index_ = REMOVED;
+        size_--;
+        return true;
+    }
+
+    /**
+     * Finds the first event, in delivery order, that matches a predicate
+     * @param p  the predicate
+     * @return the first matching event, or <tt>null</tt> if none matches
+     * @pre p != null
+     * @post $none
+     */
+    KernelEvent findFirst(Sim_predicate p)
+    {
+        KernelEvent first = findFirst(bottom_, p, null);
+        for (int r = rungs_ - 1; r >= 0; r--)
+        {
+            EventBucket[] rung = buckets_[r];
+            for (int i = rungCur_[r]; i < rung.length; i++)
+            {
+                if (rung[i] != null) {
+                    first = findFirst(rung[i], p, first);
+                }
+            }
+        }
+
+        return findFirst(top_, p, first);
+    }
+
+    /**
+     * Removes all events from this queue
+     * @pre $none
+     * @post size() == 0
+     */
+    void clear()
+    {
+        release(bottom_);
+        for (int r = 0; r < rungs_; r++)
+        {
+            EventBucket[] rung = buckets_[r];
+            for (int i = 0; i < rung.length; i++)
+            {
+                if (rung[i] != null) {
+                    release(rung[i]);
+                }
+            }
+        }
+        release(top_);
+
+        size_ = 0;
+        reset();
+    }
+
+    /**
+     * Empties all parts of this queue once no events are left, so that the
+     * next events start a new ladder
+     * @pre size_ == 0
+     * @post $none
+     */
+    private void reset()
+    {
+        bottom_.clear();
+        top_.clear();
+        for (int r = 0; r < rungs_; r++) {
+            buckets_[r] = null;
+        }
+
+        rungs_ = 0;
+        topStart_ = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Moves the next events into the empty bottom, taking them from the
+     * finest rung that still has events, or from top
+     * @pre bottom_.isEmpty() && size_ > 0
+     * @post $none
+     */
+    private void fillBottom()
+    {
+        while (rungs_ > 0)
+        {
+            int r = rungs_ - 1;
+            if (rungCount_[r] == 0)
+            {
+                buckets_[r] = null;
+                rungs_--;
+                continue;
+            }
+
+            // take the next bucket that has events
+            EventBucket[] rung = buckets_[r];
+            int i = rungCur_[r];
+            while (rung[i] == null || rung[i].isEmpty()) {
+                i++;
+            }
+
+            EventBucket bucket = rung[i];
+            rung[i] = null;
+            rungCur_[r] = i + 1;
+            rungCount_[r] -= bucket.size();
+
+            // a crowded bucket is spread over a finer rung
+            if (bucket.size() > THRESHOLD && rungs_ < MAX_RUNGS &&
+                addRung(bucketStart(r, i), rungWidth_[r], bucket) ) {
+                continue;
+            }
+
+            bucket.sort();
+            bottom_ = bucket;
+            return;
+        }
+
+        moveTop();
+    }
+
+    /**
+     * Moves all events of top into the first rung, or directly into the
+     * bottom if they are only a few
+     * @pre rungs_ == 0 && bottom_.isEmpty() && !top_.isEmpty()
+     * @post $none
+     */
+    private void moveTop()
+    {
+        EventBucket events = top_;
+        top_ = new EventBucket();
+        if ( events.size() > THRESHOLD &&
+             addRung(topMin_, topMax_ - topMin_, events) )
+        {
+            // new events after the first rung go to top again
+            topStart_ = bucketStart(0, buckets_[0].length);
+            return;
+        }
+
+        events.sort();
+        bottom_ = events;
+        topStart_ = Math.nextUp(topMax_);
+    }
+
+    /**
+     * Spreads events over the buckets of a new rung. The rung covers an
+     * interval starting at a given time, split into as many buckets as
+     * there are events.
+     * @param start   the start time of the interval
+     * @param length  the length of the interval
+     * @param events  the events
+     * @return <tt>true</tt> if the rung has been added, <tt>false</tt> if
+     *         the events are too close in time to be spread
+     * @pre rungs_ < MAX_RUNGS
+     * @post $none
+     */
+    private boolean addRung(double start, double length, EventBucket events)
+    {
+        int count = events.size();
+        double width = length / count;
+        if ( !(width > 0.0) || start + width == start ) {
+            return false;
+        }
+
+        // make sure the last event is inside the rung
+        double max = start;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, events.get(i).time_);
+        }
+        while (start + count * width <= max) {
+            count++;
+        }
+
+        int r = rungs_;
+        buckets_[r] = new EventBucket[count];
+        rungStart_[r] = start;
+        rungWidth_[r] = width;
+        rungCur_[r] = 0;
+        rungCount_[r] = events.size();
+        rungs_++;
+
+        for (int i = 0; i < events.size(); i++)
+        {
+            KernelEvent ev = events.get(i);
+            bucket(r, bucketIndex(r, ev.time_)).append(ev);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the start time of a bucket
+     * @param r  the rung
+     * @param i  the bucket
+     * @return the start time
+     * @pre r >= 0 && r < rungs_
+     * @post $none
+     */
+    private double bucketStart(int r, int i) {
+        return rungStart_[r] + i * rungWidth_[r];
+    }
+
+    /**
+     * Gets the bucket of a rung that covers a given time. The result is
+     * consistent with {@link #bucketStart(int, int)}, so that it does not
+     * depend on rounding.
+     * @param r     the rung
+     * @param time  the time
+     * @return the bucket number, from the next bucket to take to the last
+     * @pre r >= 0 && r < rungs_
+     * @post $none
+     */
+    private int bucketIndex(int r, double time)
+    {
+        int last = buckets_[r].length - 1;
+        double index = (time - rungStart_[r]) / rungWidth_[r];
+        int i = (index >= last) ? last : (int) index;
+        if (i < rungCur_[r]) {
+            i = rungCur_[r];
+        }
+
+        while (i > rungCur_[r] && time < bucketStart(r, i)) {
+            i--;
+        }
+        while (i < last && time >= bucketStart(r, i + 1)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Gets a bucket of a rung, allocating it if needed
+     * @param r  the rung
+     * @param i  the bucket
+     * @return the bucket
+     * @pre r >= 0 && r < rungs_
+     * @post $result != null
+     */
+    private EventBucket bucket(int r, int i)
+    {
+        EventBucket bucket = buckets_[r][i];
+        if (bucket == null)
+        {
+            bucket = new EventBucket();
+            buckets_[r][i] = bucket;
+        }
+        return bucket;
+    }
+
+    /**
+     * Finds the first event of a bucket that matches a predicate and comes
+     * before a given event
+     * @param bucket  the bucket
+     * @param p       the predicate
+     * @param first   the first matching event so far, or <tt>null</tt>
+     * @return the first matching event
+     * @pre bucket != null && p != null
+     * @post $none
+     */
+    private static KernelEvent findFirst(EventBucket bucket, Sim_predicate p,
+                                         KernelEvent first)
+    {
+        for (int i = 0; i < bucket.size(); i++)
+        {
+            KernelEvent ev = bucket.get(i);
+            if ( ev.index_ != REMOVED &&
+                 (first == null || ev.compareKey(first) < 0) && p.match(ev) ) {
+                first = ev;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Marks the events of a bucket as not queued and empties it
+     * @param bucket  the bucket
+     * @pre bucket != null
+     * @post $none
+     */
+    private static void release(EventBucket bucket)
+    {
+        for (int i = 0; i < bucket.size(); i++) {
+            bucket.get(i).index_ = -1;
+        }
+        bucket.clear();
+    }
+
+} // end class
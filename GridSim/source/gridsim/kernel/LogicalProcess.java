@@ -0,0 +1,285 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.kernel;
+
+import eduni.simjava.Sim_predicate;
+import java.util.ArrayList;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A partition of the entities run by an {@link EventLoopKernel}. Each
+ * logical process owns the future events of its entities and its own
+ * simulation clock. In a sequential run there is only one logical process,
+ * whereas a parallel run advances several of them on separate threads.
+ * <p>
+ * The events of synchronous entities, which may exchange zero-delay events
+ * with other partitions, are kept in a second future event list, so that
+ * the kernel can find the first of them without searching all events.
+ * <p>
+ * All fields are only accessed by the thread running this logical process,
+ * or by the kernel while all logical processes wait at a window barrier.
+ *
+ * @since GridSim Toolkit 5.2
+ * @invariant $none
+ */
+final class LogicalProcess
+{
+    private static final int POOL_SIZE = 1024;  // max events kept for reuse
+
+    final int index_;               // partition number
+    final FutureEventList queue_;   // future events of this partition
+    final FutureEventList syncQueue_;   // events of synchronous entities
+    final Semaphore yield_;         // released when an entity thread parks
+    final ArrayList<KernelEvent> outbox_;  // events for other partitions
+    double clock_;                  // time of the current event
+    long gen_;                      // generation of the current event
+    long eventCount_;               // number of delivered events
+    long allocCount_;               // number of events allocated
+    long reuseCount_;               // number of events taken from the pool
+    private final KernelEvent[] pool_;  // delivered events to be reused
+    private int poolCount_;             // number of events in pool_
+    private final boolean[] synchronous_;   // shared by all partitions
+
+    /**
+     * Allocates a new logical process
+     * @param index    the partition number
+     * @param felType  the type of the future event list
+     * @param synchronous  which entities are synchronous, indexed by entity
+     *                     id, or <tt>null</tt> if none is
+     * @pre index >= 0
+     * @post $none
+     */
+    LogicalProcess(int index, int felType, boolean[] synchronous)
+    {
+        index_ = index;
+        queue_ = FutureEventList.create(felType);
+        syncQueue_ = (synchronous == null) ? null :
+                     FutureEventList.create(felType);
+        synchronous_ = synchronous;
+        yield_ = new Semaphore(0);
+        outbox_ = new ArrayList<KernelEvent>();
+        clock_ = 0.0;
+        gen_ = 0;
+        eventCount_ = 0;
+        allocCount_ = 0;
+        reuseCount_ = 0;
+        pool_ = new KernelEvent[POOL_SIZE];
+        poolCount_ = 0;
+    }
+
+    /**
+     * Gets an event, reusing a delivered one if there is any
+     * @param type  {@link KernelEvent#SEND} or {@link KernelEvent#HOLD_DONE}
+     * @param time  delivery time of the event
+     * @param gen   zero-delay generation of the event
+     * @param sentTime  time at which the event is sent
+     * @param sentGen   generation within <tt>sentTime</tt> it is sent from
+     * @param src   sender id
+     * @param dst   destination id
+     * @param tag   event tag
+     * @param data  event data (can be <tt>null</tt>)
+     * @param seq   sequence number of the event for the sender
+     * @return the event
+     * @pre time >= 0.0
+     * @post $result != null
+     */
+    KernelEvent newEvent(int type, double time, long gen, double sentTime,
+                         long sentGen, int src, int dst, int tag, Object data,
+                         long seq)
+    {
+        if (poolCount_ == 0)
+        {
+            allocCount_++;
+            return new KernelEvent(type, time, gen, sentTime, sentGen, src,
+                                   dst, tag, data, seq);
+        }
+
+        reuseCount_++;
+        poolCount_--;
+        KernelEvent ev = pool_[poolCount_];
+        pool_[poolCount_] = null;
+        ev.set(type, time, gen, sentTime, sentGen, src, dst, tag, data, seq);
+        return ev;
+    }
+
+    /**
+     * Keeps a delivered event for reuse. The event must not be referenced
+     * by any event list or entity any more.
+     * @param ev  the event
+     * @pre ev != null
+     * @post $none
+     */
+    void recycle(KernelEvent ev)
+    {
+        ev.data_ = null;    // don't keep the data alive
+        if (poolCount_ < POOL_SIZE)
+        {
+            pool_[poolCount_] = ev;
+            poolCount_++;
+        }
+    }
+
+    /**
+     * Checks whether the next event of this partition comes before the end
+     * of a synchronization window
+     * @param time  the window end time
+     * @param gen   the window end generation
+     * @return <tt>true</tt> if the next event can be delivered
+     * @pre $none
+     * @post $none
+     */
+    boolean hasEventBefore(double time, long gen)
+    {
+        KernelEvent ev = peek();
+        if (ev == null) {
+            return false;
+        }
+        return ev.time_ < time || (ev.time_ == time && ev.gen_ < gen);
+    }
+
+    /**
+     * Checks whether an entity is synchronous, i.e. it only receives events
+     * in windows that hold a single time and zero-delay generation. An
+     * entity created during the simulation is synchronous.
+     * @param id  the entity id
+     * @return <tt>true</tt> if the entity is synchronous
+     * @pre id >= 0
+     * @post $none
+     */
+    boolean isSynchronous(int id) {
+        return synchronous_ != null && (id >= synchronous_.length || synchronous_[id]);
+    }
+
+    /**
+     * Gets the future event list that keeps an event
+     * @param ev  the event
+     * @return the future event list of the destination of the event
+     * @pre ev != null
+     * @post $result != null
+     */
+    private FutureEventList listOf(KernelEvent ev) {
+        return isSynchronous(ev.dst_) ? syncQueue_ : queue_;
+    }
+
+    /**
+     * Adds a future event
+     * @param ev  the event
+     * @pre ev != null
+     * @post $none
+     */
+    void add(KernelEvent ev) {
+        listOf(ev).add(ev);
+    }
+
+    /**
+     * Gets the next event of this partition without removing it
+     * @return the next event or <tt>null</tt> if there is none
+     * @pre $none
+     * @post $none
+     */
+    KernelEvent peek()
+    {
+        KernelEvent ev = queue_.peek();
+        if (syncQueue_ == null) {
+            return ev;
+        }
+
+        KernelEvent sync = syncQueue_.peek();
+        if (ev == null || (sync != null && sync.compareKey(ev) < 0)) {
+            return sync;
+        }
+        return ev;
+    }
+
+    /**
+     * Gets the next event of a synchronous entity without removing it
+     * @return the next event or <tt>null</tt> if there is none
+     * @pre $none
+     * @post $none
+     */
+    KernelEvent peekSynchronous() {
+        return (syncQueue_ == null) ? null : syncQueue_.peek();
+    }
+
+    /**
+     * Removes the next event of this partition
+     * @return the next event or <tt>null</tt> if there is none
+     * @pre $none
+     * @post $none
+     */
+    KernelEvent poll()
+    {
+        KernelEvent ev = peek();
+        if (ev != null) {
+            listOf(ev).poll();
+        }
+        return ev;
+    }
+
+    /**
+     * Removes a future event
+     * @param ev  the event
+     * @return <tt>true</tt> if the event has been removed
+     * @pre ev != null
+     * @post $none
+     */
+    boolean remove(KernelEvent ev) {
+        return listOf(ev).remove(ev);
+    }
+
+    /**
+     * Finds the first future event matching a predicate
+     * @param p  the predicate
+     * @return the first matching event or <tt>null</tt> if none matches
+     * @pre p != null
+     * @post $none
+     */
+    KernelEvent findFirst(Sim_predicate p)
+    {
+        KernelEvent ev = queue_.findFirst(p);
+        if (syncQueue_ == null) {
+            return ev;
+        }
+
+        KernelEvent sync = syncQueue_.findFirst(p);
+        if (ev == null || (sync != null && sync.compareKey(ev) < 0)) {
+            return sync;
+        }
+        return ev;
+    }
+
+    /**
+     * Gets the number of future events of this partition
+     * @return the number of events
+     * @pre $none
+     * @post $result >= 0
+     */
+    int size()
+    {
+        int size = queue_.size();
+        if (syncQueue_ != null) {
+            size += syncQueue_.size();
+        }
+        return size;
+    }
+
+    /**
+     * Removes all future events of this partition
+     * @pre $none
+     * @post $none
+     */
+    void clear()
+    {
+        queue_.clear();
+        if (syncQueue_ != null) {
+            syncQueue_.clear();
+        }
+    }
+
+} // end class
@@ -0,0 +1,59 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.kernel;
+
+/**
+ * Splits the entities of a simulation into logical processes for a
+ * parallel run of the {@link EventLoopKernel}.
+ * <p>
+ * Any partitioning gives the same results as a sequential run. However,
+ * entities that share mutable state outside of events, such as a common
+ * random number generator, should be placed in the same partition,
+ * otherwise the order in which they access that state is not reproducible.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.kernel.EventLoopKernel#setPartitions(int, Partitioner)
+ * @invariant $none
+ */
+public interface Partitioner
+{
+    /**
+     * Assigns every entity to a partition
+     * @param entities  all entities, indexed by their id
+     * @param count     the maximum number of partitions
+     * @return the partition number of every entity, indexed by entity id.
+     *         Each number must be between 0 and <tt>count - 1</tt>.
+     * @pre entities != null
+     * @pre count > 0
+     * @post $result != null
+     */
+    int[] partition(KernelEntity[] entities, int count);
+
+    /**
+     * Finds the synchronous entities of a partitioning and its lookahead.
+     * A synchronous entity may exchange events with other partitions at
+     * any time, e.g. zero-delay events, so it only receives events in
+     * windows that hold a single time and zero-delay generation. All other
+     * entities must send events to other partitions, or to synchronous
+     * entities, with a delay of at least the lookahead, unless they send
+     * them at the time of an event of a synchronous entity.
+     * @param entities     all entities, indexed by their id
+     * @param part         the partition number of every entity, as returned
+     *                     by {@link #partition(KernelEntity[], int)}
+     * @param synchronous  filled with <tt>true</tt> for every synchronous
+     *                     entity, indexed by entity id
+     * @return the lookahead, or 0 if there is none, in which case every
+     *         window holds a single generation
+     * @pre entities != null && part != null && synchronous != null
+     * @post $result >= 0.0
+     */
+    double getLookahead(KernelEntity[] entities, int[] part,
+                        boolean[] synchronous);
+
+} // end interface
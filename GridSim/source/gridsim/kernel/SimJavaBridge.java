@@ -0,0 +1,167 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.kernel;
+
+import eduni.simjava.Sim_entity;
+import eduni.simjava.Sim_event;
+import eduni.simjava.Sim_port;
+import eduni.simjava.Sim_system;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * Gives the kernel access to a few package-private parts of SimJava.
+ * SimJava is only available as a binary library, so these are reached
+ * through reflection once, when this class is loaded.
+ * <p>
+ * Only a few things are needed: copying the attributes of a
+ * {@link KernelEvent} into a <tt>Sim_event</tt> object owned by an entity,
+ * setting the id of an entity created during the simulation, and switching
+ * the value returned by <tt>Sim_system.running()</tt> so that existing
+ * <tt>body()</tt> loops keep running under the event-loop kernel.
+ *
+ * @since GridSim Toolkit 5.2
+ * @invariant $none
+ */
+final class SimJavaBridge
+{
+    private static final Method copy_;       // Sim_event.copy(Sim_event)
+    private static final Method setId_;      // Sim_entity.set_id(int)
+    private static final Field running_;     // Sim_system.running
+    private static final Method connect_;    // Sim_port.connect(Sim_entity)
+
+    static
+    {
+        Method copy = null;
+        Method setId = null;
+        Field running = null;
+        Method connect = null;
+        try
+        {
+            copy = Sim_event.class.getDeclaredMethod("copy", Sim_event.class);
+            copy.setAccessible(true);
+
+            setId = Sim_entity.class.getDeclaredMethod("set_id", int.class);
+            setId.setAccessible(true);
+
+            running = Sim_system.class.getDeclaredField("running");
+            running.setAccessible(true);
+
+            connect = Sim_port.class.getDeclaredMethod("connect",
+                                                       Sim_entity.class);
+            connect.setAccessible(true);
+        }
+        catch (Exception e)
+        {
+            System.out.println("SimJavaBridge: Error - incompatible SimJava " +
+                    "library. " + e.getMessage());
+        }
+
+        copy_ = copy;
+        setId_ = setId;
+        running_ = running;
+        connect_ = connect;
+    }
+
+    /** This class is not meant to be instantiated */
+    private SimJavaBridge() {
+        // empty
+    }
+
+    /**
+     * Checks whether the SimJava library is compatible with the event-loop
+     * kernel
+     * @return <tt>true</tt> if all required members were found
+     * @pre $none
+     * @post $none
+     */
+    static boolean isAvailable() {
+        return copy_ != null && setId_ != null && running_ != null &&
+               connect_ != null;
+    }
+
+    /**
+     * Copies the attributes of an event into another event object
+     * @param dest  the event object to be filled
+     * @param src   the event to copy from
+     * @pre dest != null && src != null
+     * @post $none
+     */
+    static void copy(Sim_event dest, Sim_event src)
+    {
+        if (dest == null || dest == src) {
+            return;
+        }
+
+        try {
+            copy_.invoke(dest, src);
+        }
+        catch (Exception e) {
+            throw new IllegalStateException("SimJavaBridge.copy(): " +
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Sets the id of an entity
+     * @param ent  the entity
+     * @param id   the new id
+     * @pre ent != null
+     * @post $none
+     */
+    static void setId(Sim_entity ent, int id)
+    {
+        try {
+            setId_.invoke(ent, id);
+        }
+        catch (Exception e) {
+            throw new IllegalStateException("SimJavaBridge.setId(): " +
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Connects a port to its destination entity
+     * @param port  the port
+     * @param dest  the entity receiving the events sent through the port
+     * @pre port != null && dest != null
+     * @post $none
+     */
+    static void connect(Sim_port port, Sim_entity dest)
+    {
+        try {
+            connect_.invoke(port, dest);
+        }
+        catch (Exception e) {
+            throw new IllegalStateException("SimJavaBridge.connect(): " +
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Sets the value returned by <tt>Sim_system.running()</tt>
+     * @param running  the new value
+     * @pre $none
+     * @post $none
+     */
+    static void setRunning(boolean running)
+    {
+        try
+        {
+            synchronized (Sim_system.class) {
+                running_.setBoolean(null, running);
+            }
+        }
+        catch (Exception e) {
+            throw new IllegalStateException("SimJavaBridge.setRunning(): " +
+                    e.getMessage());
+        }
+    }
+
+} // end class
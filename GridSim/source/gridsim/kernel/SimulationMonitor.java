@@ -0,0 +1,623 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.kernel;
+
+import eduni.simjava.Sim_entity;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Timer;
+import java.util.TimerTask;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Publishes the live metrics of a simulation run by an
+ * {@link EventLoopKernel}: the simulation clock, the number of events
+ * delivered per wall-clock second, the depth of the future event list and,
+ * while profiling is enabled, the number of events received by every entity
+ * and the time spent handling them, per event tag. This shows which entity,
+ * or which class of entities such as an <tt>AllocPolicy</tt> or a
+ * <tt>Router</tt>, slows a run down, without attaching a profiler.
+ * <p>
+ * The metrics can be read through the methods of this class, through JMX
+ * once the monitor has been registered with {@link #register()}, or from a
+ * file where {@link #startDump(String, long)} appends a report periodically.
+ * <p>
+ * The handling time of an event is the wall-clock time elapsed while the
+ * entity processes it, i.e. while its <tt>handleEvent()</tt> method or its
+ * <tt>body()</tt> runs until it blocks again. Since a partition runs one
+ * entity at a time, this is the processor time used by the entity, apart
+ * from garbage collection and I/O. Events taken by <tt>sim_get_next()</tt>
+ * or <tt>sim_select()</tt> while the entity is already running are counted
+ * without any time of their own. The end of a hold period is counted under
+ * the tag <tt>hold</tt>.
+ * <p>
+ * A monitor can be created by {@link gridsim.GridSim#initKernelMonitor(
+ * String, long)} before GridSim is initialized, or directly:
+ * <pre>
+ *     SimulationMonitor monitor = new SimulationMonitor(GridSim.getKernel());
+ *     monitor.setProfiling(true);
+ *     monitor.register();
+ * </pre>
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.kernel.EventLoopKernel#setProfiling(boolean)
+ * @invariant $none
+ */
+public class SimulationMonitor implements SimulationMonitorMBean
+{
+    /** The JMX domain of all monitors */
+    public static final String DOMAIN = "gridsim";
+
+    private static final long RATE_INTERVAL = 1000;   // in milliseconds
+    private static final double NANOS_PER_MILLI = 1000000.0;
+    private static final int TOP_ENTITIES = 10;       // tags in the report
+
+    private final EventLoopKernel kernel_;  // the monitored kernel
+    private final long startTime_;          // creation time, in nanoseconds
+    private long sampleTime_;               // time of the last rate sample
+    private long sampleCount_;              // event count of the last sample
+    private double rate_;                   // event rate of the last sample
+    private ObjectName name_;               // null if not registered
+    private Timer timer_;                   // null if not dumping
+    private String dumpFile_;               // where the dump is appended
+
+    /**
+     * A line of statistics
+     */
+    private static final class Row
+    {
+        final String label_;    // what the line is about
+        long entities_;         // number of entities of this row
+        long count_;            // number of events
+        long nanos_;            // handling time in nanoseconds
+
+        /**
+         * Allocates a new empty row
+         * @param label  what the line is about
+         * @pre label != null
+         * @post $none
+         */
+        Row(String label)
+        {
+            label_ = label;
+            entities_ = 0;
+            count_ = 0;
+            nanos_ = 0;
+        }
+    }
+
+    // sorts rows by decreasing handling time, then by decreasing count
+    private static final Comparator<Row> BUSIEST_FIRST = new Comparator<Row>()
+    {
+        public int compare(Row a, Row b)
+        {
+            if (a.nanos_ != b.nanos_) {
+                return (a.nanos_ > b.nanos_) ? -1 : 1;
+            }
+            if (a.count_ != b.count_) {
+                return (a.count_ > b.count_) ? -1 : 1;
+            }
+            return a.label_.compareTo(b.label_);
+        }
+    };
+
+    /**
+     * Allocates a new monitor. Profiling is not enabled by this
+     * constructor.
+     * @param kernel  the kernel to be monitored
+     * @throws NullPointerException  if the kernel is <tt>null</tt>
+     * @pre kernel != null
+     * @post $none
+     */
+    public SimulationMonitor(EventLoopKernel kernel)
+            throws NullPointerException
+    {
+        if (kernel == null) {
+            throw new NullPointerException("SimulationMonitor(): Error - " +
+                    "the kernel is null.");
+        }
+
+        kernel_ = kernel;
+        startTime_ = System.nanoTime();
+        sampleTime_ = startTime_;
+        sampleCount_ = 0;
+        rate_ = 0.0;
+        name_ = null;
+        timer_ = null;
+        dumpFile_ = null;
+    }
+
+    /**
+     * Gets the monitored kernel
+     * @return the kernel
+     * @pre $none
+     * @post $result != null
+     */
+    public EventLoopKernel getKernel() {
+        return kernel_;
+    }
+
+    /**
+     * Registers this monitor to the platform MBean server as
+     * <tt>gridsim:type=SimulationMonitor,name=...</tt>. The first monitor
+     * is named <tt>Simulation</tt>, and the following ones
+     * <tt>Simulation-2</tt>, <tt>Simulation-3</tt> and so on.
+     * @return <tt>true</tt> if this monitor has been registered,
+     *         <tt>false</tt> otherwise
+     * @pre $none
+     * @post $none
+     */
+    public synchronized boolean register()
+    {
+        if (name_ != null) {
+            return true;
+        }
+
+        try
+        {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for (int i = 1; name_ == null; i++)
+            {
+                String suffix = (i == 1) ? "" : "-" + i;
+                ObjectName name = new ObjectName(DOMAIN +
+                        ":type=SimulationMonitor,name=Simulation" + suffix);
+                if ( !server.isRegistered(name) )
+                {
+                    server.registerMBean(this, name);
+                    name_ = name;
+                }
+            }
+        }
+        catch (Exception e)
+        {
+            System.out.println("SimulationMonitor.register(): Warning - " +
+                    "the monitor can't be registered. " + e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Removes this monitor from the platform MBean server, and stops the
+     * periodic dump if any
+     * @pre $none
+     * @post $none
+     */
+    public synchronized void unregister()
+    {
+        stopDump();
+        if (name_ == null) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name_);
+        }
+        catch (Exception e) {
+            // already removed
+        }
+        name_ = null;
+    }
+
+    /**
+     * Gets the name of this monitor in the platform MBean server
+     * @return the object name or <tt>null</tt> if it is not registered
+     * @pre $none
+     * @post $none
+     */
+    public synchronized ObjectName getObjectName() {
+        return name_;
+    }
+
+    /**
+     * Gets the current simulation time
+     * @return the simulation clock
+     * @pre $none
+     * @post $result >= 0.0
+     */
+    public double getSimulationClock() {
+        return kernel_.clock();
+    }
+
+    /**
+     * Gets the number of events delivered so far
+     * @return the number of events
+     * @pre $none
+     * @post $result >= 0
+     */
+    public long getEventCount() {
+        return kernel_.getEventCount();
+    }
+
+    /**
+     * Gets the number of events delivered per wall-clock second, measured
+     * over the last second or so
+     * @return the current event rate
+     * @pre $none
+     * @post $result >= 0.0
+     */
+    public synchronized double getEventRate()
+    {
+        long now = System.nanoTime();
+        long elapsed = now - sampleTime_;
+        if (elapsed >= RATE_INTERVAL * NANOS_PER_MILLI)
+        {
+            long count = kernel_.getEventCount();
+            rate_ = (count - sampleCount_) * 1e9 / elapsed;
+            sampleTime_ = now;
+            sampleCount_ = count;
+        }
+        return rate_;
+    }
+
+    /**
+     * Gets the number of events delivered per wall-clock second since this
+     * monitor was created
+     * @return the average event rate
+     * @pre $none
+     * @post $result >= 0.0
+     */
+    public double getAverageEventRate()
+    {
+        long elapsed = System.nanoTime() - startTime_;
+        if (elapsed <= 0) {
+            return 0.0;
+        }
+        return kernel_.getEventCount() * 1e9 / elapsed;
+    }
+
+    /**
+     * Gets the number of events waiting in the future event list
+     * @return the depth of the future event list
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int getFutureEventCount() {
+        return kernel_.getFutureEventCount();
+    }
+
+    /**
+     * Gets the number of entities of the simulation
+     * @return the number of entities
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int getEntityCount() {
+        return kernel_.getEntityCount();
+    }
+
+    /**
+     * Checks whether the events received by every entity are recorded
+     * @return <tt>true</tt> if profiling is enabled
+     * @pre $none
+     * @post $none
+     */
+    public boolean isProfiling() {
+        return kernel_.isProfiling();
+    }
+
+    /**
+     * Sets whether the events received by every entity are recorded
+     * @param profiling  <tt>true</tt> to enable profiling
+     * @pre $none
+     * @post $none
+     */
+    public void setProfiling(boolean profiling) {
+        kernel_.setProfiling(profiling);
+    }
+
+    /**
+     * Gets the number of events received and the time spent handling them
+     * by every entity, the busiest entity first
+     * @return one line per entity
+     * @pre $none
+     * @post $result != null
+     */
+    public String[] getEntityStatistics()
+    {
+        ArrayList<Row> rows = new ArrayList<Row>();
+        int count = kernel_.getEntityCount();
+        for (int id = 0; id < count; id++)
+        {
+            EntityProfile profile = kernel_.getProfile(id);
+            Sim_entity ent = kernel_.getEntity(id);
+            if (profile == null || ent == null) {
+                continue;
+            }
+
+            Row row = new Row( ent.get_name() + " (" +
+                               ent.getClass().getName() + ")" );
+            row.count_ = profile.getCount();
+            row.nanos_ = profile.getTime();
+            rows.add(row);
+        }
+        return format(rows, false);
+    }
+
+    /**
+     * Gets the number of events received and the time spent handling them
+     * by the entities of every class, the busiest class first
+     * @return one line per entity class
+     * @pre $none
+     * @post $result != null
+     */
+    public String[] getClassStatistics()
+    {
+        HashMap<String, Row> classes = new HashMap<String, Row>();
+        int count = kernel_.getEntityCount();
+        for (int id = 0; id < count; id++)
+        {
+            EntityProfile profile = kernel_.getProfile(id);
+            Sim_entity ent = kernel_.getEntity(id);
+            if (profile == null || ent == null) {
+                continue;
+            }
+
+            String name = ent.getClass().getName();
+            Row row = classes.get(name);
+            if (row == null)
+            {
+                row = new Row(name);
+                classes.put(name, row);
+            }
+            row.entities_++;
+            row.count_ += profile.getCount();
+            row.nanos_ += profile.getTime();
+        }
+        return format( new ArrayList<Row>(classes.values()), true );
+    }
+
+    /**
+     * Gets the number of events received and the time spent handling them
+     * by an entity, per event tag
+     * @param entityName  the entity name
+     * @return one line per tag, the busiest tag first, or an empty array if
+     *         the entity does not exist or has not been profiled
+     * @pre entityName != null
+     * @post $result != null
+     */
+    public String[] getTagStatistics(String entityName)
+    {
+        EntityProfile profile = null;
+        if (entityName != null) {
+            profile = kernel_.getProfile( kernel_.getEntityId(entityName) );
+        }
+
+        ArrayList<Row> rows = new ArrayList<Row>();
+        if (profile == null) {
+            return format(rows, false);
+        }
+
+        // read all arrays at once, so that they match each other
+        int[] tags;
+        long[] counts;
+        long[] times;
+        synchronized (profile)
+        {
+            tags = profile.getTags();
+            counts = profile.getCounts();
+            times = profile.getTimes();
+        }
+
+        for (int i = 0; i < tags.length; i++)
+        {
+            Row row = new Row( (tags[i] == EntityProfile.HOLD) ? "hold"
+                               : "tag " + tags[i] );
+            row.count_ = counts[i];
+            row.nanos_ = times[i];
+            rows.add(row);
+        }
+        return format(rows, false);
+    }
+
+    /**
+     * Discards the profiles of all entities
+     * @pre $none
+     * @post $none
+     */
+    public void resetStatistics() {
+        kernel_.resetProfiles();
+    }
+
+    /**
+     * Gets all metrics as a text report, which lists the events per tag of
+     * the ten busiest entities
+     * @return the report
+     * @pre $none
+     * @post $result != null
+     */
+    public String getReport()
+    {
+        String newLine = System.getProperty("line.separator");
+        StringBuffer buf = new StringBuffer();
+        buf.append("GridSim monitor at ").append( new Date() ).append(newLine);
+        buf.append("clock = ").append( getSimulationClock() ).append(newLine);
+        buf.append("events = ").append( getEventCount() ).append(newLine);
+        buf.append("event rate = ").append( (long) getEventRate() )
+           .append(" /s (average ").append( (long) getAverageEventRate() )
+           .append(" /s)").append(newLine);
+        buf.append("future events = ").append( getFutureEventCount() )
+           .append(newLine);
+        buf.append("entities = ").append( getEntityCount() ).append(newLine);
+        if ( !isProfiling() )
+        {
+            buf.append("profiling disabled").append(newLine);
+            return buf.toString();
+        }
+
+        buf.append(newLine).append("Classes:").append(newLine);
+        append(buf, getClassStatistics(), newLine);
+
+        buf.append(newLine).append("Entities:").append(newLine);
+        append(buf, getEntityStatistics(), newLine);
+
+        // the tags of the busiest entities
+        ArrayList<Row> rows = new ArrayList<Row>();
+        for (int id = 0; id < kernel_.getEntityCount(); id++)
+        {
+            EntityProfile profile = kernel_.getProfile(id);
+            Sim_entity ent = kernel_.getEntity(id);
+            if (profile != null && ent != null)
+            {
+                Row row = new Row( ent.get_name() );
+                row.count_ = profile.getCount();
+                row.nanos_ = profile.getTime();
+                rows.add(row);
+            }
+        }
+        Collections.sort(rows, BUSIEST_FIRST);
+
+        for (int i = 0; i < TOP_ENTITIES && i < rows.size(); i++)
+        {
+            String name = rows.get(i).label_;
+            buf.append(newLine).append("Tags of ").append(name).append(':')
+               .append(newLine);
+            append( buf, getTagStatistics(name), newLine );
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Appends the report to a file
+     * @param fileName  the file name
+     * @return <tt>true</tt> if the report has been written,
+     *         <tt>false</tt> otherwise
+     * @pre fileName != null
+     * @post $none
+     */
+    public boolean dump(String fileName)
+    {
+        if (fileName == null) {
+            return false;
+        }
+
+        FileWriter out = null;
+        try
+        {
+            out = new FileWriter(fileName, true);
+            out.write( getReport() );
+            out.write( System.getProperty("line.separator") );
+        }
+        catch (IOException e)
+        {
+            System.out.println("SimulationMonitor.dump(): Warning - can't " +
+                    "write into " + fileName + ". " + e.getMessage());
+            return false;
+        }
+        finally
+        {
+            try
+            {
+                if (out != null) {
+                    out.close();
+                }
+            }
+            catch (IOException e) {
+                // ignore
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Appends the report to a file periodically, on a daemon thread, until
+     * {@link #stopDump()} is called. A dump that is already running is
+     * stopped first.
+     * @param fileName  the file name
+     * @param period    the time between two reports, in milliseconds
+     * @return <tt>true</tt> if the dump has been started,
+     *         <tt>false</tt> if the arguments are invalid
+     * @pre fileName != null && period > 0
+     * @post $none
+     */
+    public synchronized boolean startDump(String fileName, long period)
+    {
+        if (fileName == null || period <= 0) {
+            return false;
+        }
+
+        stopDump();
+        dumpFile_ = fileName;
+        timer_ = new Timer("SimulationMonitor", true);
+        timer_.schedule(new TimerTask() {
+            public void run() {
+                dump(dumpFile_);
+            }
+        }, period, period);
+        return true;
+    }
+
+    /**
+     * Stops the periodic dump, after appending a last report
+     * @pre $none
+     * @post $none
+     */
+    public synchronized void stopDump()
+    {
+        if (timer_ == null) {
+            return;
+        }
+
+        timer_.cancel();
+        timer_ = null;
+        dump(dumpFile_);
+    }
+
+    /**
+     * Formats rows of statistics, sorted by decreasing handling time
+     * @param rows     the rows
+     * @param classes  <tt>true</tt> if the rows are entity classes
+     * @return one line per row
+     * @pre rows != null
+     * @post $result != null
+     */
+    private static String[] format(ArrayList<Row> rows, boolean classes)
+    {
+        Collections.sort(rows, BUSIEST_FIRST);
+        String[] lines = new String[rows.size()];
+        for (int i = 0; i < lines.length; i++)
+        {
+            Row row = rows.get(i);
+            StringBuffer buf = new StringBuffer(row.label_);
+            buf.append(": ");
+            if (classes) {
+                buf.append("entities=").append(row.entities_).append(' ');
+            }
+            buf.append("events=").append(row.count_);
+            buf.append(" time=").append(row.nanos_ / NANOS_PER_MILLI);
+            buf.append(" ms");
+            lines[i] = buf.toString();
+        }
+        return lines;
+    }
+
+    /**
+     * Appends lines to a report
+     * @param buf      the report
+     * @param lines    the lines
+     * @param newLine  the line separator
+     * @pre buf != null && lines != null && newLine != null
+     * @post $none
+     */
+    private static void append(StringBuffer buf, String[] lines,
+                               String newLine)
+    {
+        for (int i = 0; i < lines.length; i++) {
+            buf.append("    ").append(lines[i]).append(newLine);
+        }
+    }
+
+} // end class
@@ -0,0 +1,161 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.kernel;
+
+/**
+ * The management interface of a {@link SimulationMonitor}, through which
+ * the live metrics of a simulation run by an {@link EventLoopKernel} are
+ * published as a JMX MBean, e.g. to <tt>jconsole</tt>.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.kernel.SimulationMonitor
+ * @invariant $none
+ */
+public interface SimulationMonitorMBean
+{
+    /**
+     * Gets the current simulation time
+     * @return the simulation clock
+     * @pre $none
+     * @post $result >= 0.0
+     */
+    double getSimulationClock();
+
+    /**
+     * Gets the number of events delivered so far
+     * @return the number of events
+     * @pre $none
+     * @post $result >= 0
+     */
+    long getEventCount();
+
+    /**
+     * Gets the number of events delivered per wall-clock second, measured
+     * over the last second or so
+     * @return the current event rate
+     * @pre $none
+     * @post $result >= 0.0
+     */
+    double getEventRate();
+
+    /**
+     * Gets the number of events delivered per wall-clock second since the
+     * monitor was created
+     * @return the average event rate
+     * @pre $none
+     * @post $result >= 0.0
+     */
+    double getAverageEventRate();
+
+    /**
+     * Gets the number of events waiting in the future event list
+     * @return the depth of the future event list
+     * @pre $none
+     * @post $result >= 0
+     */
+    int getFutureEventCount();
+
+    /**
+     * Gets the number of entities of the simulation
+     * @return the number of entities
+     * @pre $none
+     * @post $result >= 0
+     */
+    int getEntityCount();
+
+    /**
+     * Checks whether the events received by every entity are recorded
+     * @return <tt>true</tt> if profiling is enabled
+     * @pre $none
+     * @post $none
+     */
+    boolean isProfiling();
+
+    /**
+     * Sets whether the events received by every entity are recorded
+     * @param profiling  <tt>true</tt> to enable profiling
+     * @pre $none
+     * @post $none
+     */
+    void setProfiling(boolean profiling);
+
+    /**
+     * Gets the number of events received and the time spent handling them
+     * by every entity, the busiest entity first
+     * @return one line per entity
+     * @pre $none
+     * @post $result != null
+     */
+    String[] getEntityStatistics();
+
+    /**
+     * Gets the number of events received and the time spent handling them
+     * by the entities of every class, the busiest class first
+     * @return one line per entity class
+     * @pre $none
+     * @post $result != null
+     */
+    String[] getClassStatistics();
+
+    /**
+     * Gets the number of events received and the time spent handling them
+     * by an entity, per event tag
+     * @param entityName  the entity name
+     * @return one line per tag, the busiest tag first, or an empty array if
+     *         the entity does not exist or has not been profiled
+     * @pre entityName != null
+     * @post $result != null
+     */
+    String[] getTagStatistics(String entityName);
+
+    /**
+     * Discards the profiles of all entities
+     * @pre $none
+     * @post $none
+     */
+    void resetStatistics();
+
+    /**
+     * Gets all metrics as a text report
+     * @return the report
+     * @pre $none
+     * @post $result != null
+     */
+    String getReport();
+
+    /**
+     * Appends the report to a file
+     * @param fileName  the file name
+     * @return <tt>true</tt> if the report has been written,
+     *         <tt>false</tt> otherwise
+     * @pre fileName != null
+     * @post $none
+     */
+    boolean dump(String fileName);
+
+    /**
+     * Appends the report to a file periodically, until
+     * {@link #stopDump()} is called
+     * @param fileName  the file name
+     * @param period    the time between two reports, in milliseconds
+     * @return <tt>true</tt> if the dump has been started,
+     *         <tt>false</tt> if the arguments are invalid
+     * @pre fileName != null && period > 0
+     * @post $none
+     */
+    boolean startDump(String fileName, long period);
+
+    /**
+     * Stops the periodic dump, after appending a last report
+     * @pre $none
+     * @post $none
+     */
+    void stopDump();
+
+} // end interface
@@ -0,0 +1,430 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.kernel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes and reads the snapshots of an {@link EventLoopKernel}.
+ * <p>
+ * A snapshot is a compressed object stream holding, in this order, the
+ * simulation clock, the name and class of every entity, the kernel state of
+ * every entity (its state, sequence number, hold period and deferred
+ * events), all pending events, the {@link Checkpointable} state of every
+ * entity that has not finished, and finally the global state given to
+ * {@link EventLoopKernel#setGlobalState(Checkpointable)}. Entity references
+ * are replaced by entity ids throughout the stream.
+ * <p>
+ * Events are saved with their whole ordering key, so a restored simulation
+ * delivers them in exactly the same order as the simulation that saved
+ * them would have.
+ *
+ * @since GridSim Toolkit 5.2
+ * @invariant $none
+ */
+final class Snapshot
+{
+    private static final String MAGIC = "GridSim snapshot";
+    private static final int VERSION = 2;
+
+    /**
+     * Replaces an entity within a snapshot
+     */
+    private static final class EntityReference implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        final int id_;      // the entity id
+
+        /**
+         * Allocates a new reference
+         * @param id  the entity id
+         * @pre $none
+         * @post $none
+         */
+        EntityReference(int id) {
+            id_ = id;
+        }
+    }
+
+    /**
+     * Writes entity ids instead of entities
+     */
+    private static final class Output extends ObjectOutputStream
+    {
+        /**
+         * Allocates a new stream
+         * @param out  the underlying stream
+         * @throws IOException  if the stream header can't be written
+         * @pre out != null
+         * @post $none
+         */
+        Output(OutputStream out) throws IOException
+        {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        /**
+         * Replaces an entity by a reference to its id
+         * @param obj  an object to be written
+         * @return the object or an entity reference
+         * @pre $none
+         * @post $none
+         */
+        protected Object replaceObject(Object obj)
+        {
+            if (obj instanceof KernelEntity) {
+                return new EntityReference( ((KernelEntity) obj).get_id() );
+            }
+            return obj;
+        }
+    }
+
+    /**
+     * Reads entity ids as the entities of the restored simulation
+     */
+    private static final class Input extends ObjectInputStream
+    {
+        private final KernelEntity[] table_;    // entities indexed by id
+
+        /**
+         * Allocates a new stream
+         * @param in     the underlying stream
+         * @param table  all entities, indexed by their id
+         * @throws IOException  if the stream header can't be read
+         * @pre in != null && table != null
+         * @post $none
+         */
+        Input(InputStream in, KernelEntity[] table) throws IOException
+        {
+            super(in);
+            table_ = table;
+            enableResolveObject(true);
+        }
+
+        /**
+         * Resolves an entity reference
+         * @param obj  an object that has been read
+         * @return the object or the referenced entity
+         * @throws IOException  if the entity does not exist
+         * @pre $none
+         * @post $none
+         */
+        protected Object resolveObject(Object obj) throws IOException
+        {
+            if ( !(obj instanceof EntityReference) ) {
+                return obj;
+            }
+
+            int id = ((EntityReference) obj).id_;
+            if (id < 0 || id >= table_.length || table_[id] == null) {
+                throw new IOException("unknown entity id " + id);
+            }
+            return table_[id];
+        }
+    }
+
+    /**
+     * This class only has static methods
+     * @pre $none
+     * @post $none
+     */
+    private Snapshot() {
+        // empty
+    }
+
+    /**
+     * Finds an entity whose state can't be saved. An entity can be saved
+     * once it has finished, or if it implements {@link Checkpointable} and
+     * either is {@link EventDriven}, or waits in its <tt>body()</tt> for any
+     * event.
+     * @param table  all entities, indexed by their id
+     * @return the first entity that can't be saved, or <tt>null</tt> if all
+     *         of them can
+     * @pre table != null
+     * @post $none
+     */
+    static KernelEntity findUnsaveable(KernelEntity[] table)
+    {
+        for (int i = 0; i < table.length; i++)
+        {
+            KernelEntity ent = table[i];
+            if (ent == null || ent.state_ == KernelEntity.FINISHED) {
+                continue;
+            }
+
+            if ( !(ent instanceof Checkpointable) ) {
+                return ent;
+            }
+
+            if ( !ent.callback_ && (ent.state_ != KernelEntity.WAITING ||
+                                    ent.waitPredicate_ != null) ) {
+                return ent;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes a snapshot of a sequential simulation
+     * @param fileName  the snapshot file
+     * @param lp        the only partition
+     * @param table     all entities, indexed by their id
+     * @param global    the global state, or <tt>null</tt>
+     * @throws IOException  if the snapshot can't be written
+     * @pre fileName != null && lp != null && table != null
+     * @pre findUnsaveable(table) == null
+     * @post $none
+     */
+    static void write(String fileName, LogicalProcess lp, KernelEntity[] table,
+                      Checkpointable global) throws IOException
+    {
+        ObjectOutputStream out = new Output( new BufferedOutputStream(
+                new GZIPOutputStream(new FileOutputStream(fileName))) );
+        try
+        {
+            out.writeUTF(MAGIC);
+            out.writeInt(VERSION);
+            out.writeDouble(lp.clock_);
+            out.writeLong(lp.gen_);
+            out.writeLong(lp.eventCount_);
+
+            out.writeInt(table.length);
+            for (int i = 0; i < table.length; i++)
+            {
+                out.writeUTF( table[i].get_name() );
+                out.writeUTF( table[i].getClass().getName() );
+            }
+
+            for (int i = 0; i < table.length; i++)
+            {
+                KernelEntity ent = table[i];
+                out.writeInt(ent.state_);
+                out.writeBoolean(ent.callback_);
+                out.writeLong(ent.seq_);
+                out.writeDouble(ent.holdUntil_);
+                writeEvents(out, ent.deferred_);
+            }
+
+            // the pending events in delivery order, which leaves the queue
+            // as it was and does not change its statistics
+            ArrayList<KernelEvent> events = new ArrayList<KernelEvent>();
+            while ( !lp.queue_.isEmpty() ) {
+                events.add( lp.queue_.removeFirst() );
+            }
+            for (int i = 0; i < events.size(); i++) {
+                lp.queue_.insert( events.get(i) );
+            }
+            writeEvents(out, events);
+
+            for (int i = 0; i < table.length; i++)
+            {
+                if (table[i].state_ != KernelEntity.FINISHED) {
+                    ((Checkpointable) table[i]).saveState(out);
+                }
+            }
+
+            out.writeBoolean(global != null);
+            if (global != null) {
+                global.saveState(out);
+            }
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads a snapshot into a simulation that has been built again. The
+     * pending events are put into the partition of their destination.
+     * @param fileName  the snapshot file
+     * @param lps       all partitions
+     * @param table     all entities, indexed by their id
+     * @param global    the global state, or <tt>null</tt>
+     * @throws IOException  if the snapshot can't be read or does not match
+     *         the entities of the simulation
+     * @throws ClassNotFoundException  if the class of a saved object is not
+     *         found
+     * @pre fileName != null && lps != null && table != null
+     * @post $none
+     */
+    static void read(String fileName, LogicalProcess[] lps,
+                     KernelEntity[] table, Checkpointable global)
+                     throws IOException, ClassNotFoundException
+    {
+        if ( !new File(fileName).exists() ) {
+            throw new IOException(fileName + " does not exist");
+        }
+
+        ObjectInputStream in = new Input( new BufferedInputStream(
+                new GZIPInputStream(new FileInputStream(fileName))), table );
+        try
+        {
+            if ( !MAGIC.equals(in.readUTF()) || in.readInt() != VERSION ) {
+                throw new IOException(fileName + " is not a snapshot");
+            }
+
+            double clock = in.readDouble();
+            long gen = in.readLong();
+            long eventCount = in.readLong();
+            for (int i = 0; i < lps.length; i++)
+            {
+                lps[i].clock_ = clock;
+                lps[i].gen_ = gen;
+            }
+            lps[0].eventCount_ = eventCount;
+
+            int count = in.readInt();
+            if (count != table.length) {
+                throw new IOException("the snapshot has " + count +
+                        " entities instead of " + table.length);
+            }
+
+            for (int i = 0; i < count; i++)
+            {
+                String name = in.readUTF();
+                String className = in.readUTF();
+                if ( !name.equals(table[i].get_name()) ||
+                     !className.equals(table[i].getClass().getName()) )
+                {
+                    throw new IOException("entity #" + i + " is " + name +
+                            " (" + className + ") in the snapshot");
+                }
+            }
+
+            for (int i = 0; i < count; i++)
+            {
+                KernelEntity ent = table[i];
+                ent.state_ = in.readInt();
+                ent.callback_ = in.readBoolean();
+                ent.seq_ = in.readLong();
+                ent.holdUntil_ = in.readDouble();
+                ent.holdEvent_ = null;
+                ent.deferred_.clear();
+                readEvents(in, ent.deferred_);
+            }
+
+            ArrayList<KernelEvent> events = new ArrayList<KernelEvent>();
+            readEvents(in, events);
+            for (int i = 0; i < events.size(); i++)
+            {
+                KernelEvent ev = events.get(i);
+                KernelEntity dst = table[ev.dst_];
+                if (ev.type_ == KernelEvent.HOLD_DONE) {
+                    dst.holdEvent_ = ev;
+                }
+                dst.lp_.add(ev);
+            }
+
+            for (int i = 0; i < count; i++)
+            {
+                KernelEntity ent = table[i];
+                if (ent.state_ == KernelEntity.FINISHED) {
+                    continue;
+                }
+
+                if ( !(ent instanceof Checkpointable) ) {
+                    throw new IOException(ent.get_name() +
+                            " does not implement Checkpointable");
+                }
+                ((Checkpointable) ent).restoreState(in);
+            }
+
+            if ( in.readBoolean() )
+            {
+                if (global == null) {
+                    throw new IOException("the global state is not restored");
+                }
+                global.restoreState(in);
+            }
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Writes a list of events
+     * @param out     the snapshot stream
+     * @param events  the events
+     * @throws IOException  if an event can't be written
+     * @pre out != null && events != null
+     * @post $none
+     */
+    private static void writeEvents(ObjectOutputStream out,
+                                    Collection<KernelEvent> events)
+                                    throws IOException
+    {
+        out.writeInt( events.size() );
+        Iterator<KernelEvent> it = events.iterator();
+        while ( it.hasNext() )
+        {
+            KernelEvent ev = it.next();
+            out.writeInt(ev.type_);
+            out.writeDouble(ev.time_);
+            out.writeLong(ev.gen_);
+            out.writeDouble(ev.sentTime_);
+            out.writeLong(ev.sentGen_);
+            out.writeInt(ev.src_);
+            out.writeInt(ev.dst_);
+            out.writeInt(ev.tag_);
+            out.writeLong(ev.seq_);
+            out.writeObject(ev.data_);
+        }
+    }
+
+    /**
+     * Reads a list of events
+     * @param in      the snapshot stream
+     * @param events  where to add the events
+     * @throws IOException  if an event can't be read
+     * @throws ClassNotFoundException  if the class of the event data is not
+     *         found
+     * @pre in != null && events != null
+     * @post $none
+     */
+    private static void readEvents(ObjectInputStream in,
+                                   Collection<KernelEvent> events)
+                                   throws IOException, ClassNotFoundException
+    {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++)
+        {
+            int type = in.readInt();
+            double time = in.readDouble();
+            long gen = in.readLong();
+            double sentTime = in.readDouble();
+            long sentGen = in.readLong();
+            int src = in.readInt();
+            int dst = in.readInt();
+            int tag = in.readInt();
+            long seq = in.readLong();
+            Object data = in.readObject();
+            events.add( new KernelEvent(type, time, gen, sentTime, sentGen,
+                                        src, dst, tag, data, seq) );
+        }
+    }
+
+} // end class
@@ -0,0 +1,100 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.kernel;
+
+import java.lang.reflect.Method;
+
+/**
+ * Creates the threads that run entity bodies under an
+ * {@link EventLoopKernel}, either as platform threads or as virtual
+ * threads.
+ * <p>
+ * Virtual threads are only available from Java 21 onwards, whereas GridSim
+ * is compiled for older versions. Hence, they are created through
+ * reflection. A parked virtual thread only keeps its stack on the heap, so
+ * a simulation can host hundreds of thousands of <tt>body()</tt> entities
+ * without reserving a native stack for each of them.
+ *
+ * @since GridSim Toolkit 5.2
+ * @invariant $none
+ */
+final class VirtualThreads
+{
+    private static final Object builder_;      // Thread.ofVirtual()
+    private static final Method unstarted_;    // Thread.Builder.unstarted()
+
+    static
+    {
+        Object builder = null;
+        Method unstarted = null;
+        try
+        {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            builder = ofVirtual.invoke(null);
+
+            Class<?> c = Class.forName("java.lang.Thread$Builder");
+            unstarted = c.getMethod("unstarted", Runnable.class);
+        }
+        catch (Exception e) {
+            builder = null;   // this Java version has no virtual threads
+        }
+
+        builder_ = builder;
+        unstarted_ = unstarted;
+    }
+
+    /** This class is not meant to be instantiated */
+    private VirtualThreads() {
+        // empty
+    }
+
+    /**
+     * Checks whether this Java version supports virtual threads
+     * @return <tt>true</tt> if virtual threads can be created
+     * @pre $none
+     * @post $none
+     */
+    static boolean isAvailable() {
+        return builder_ != null && unstarted_ != null;
+    }
+
+    /**
+     * Creates a new thread that has not been started yet
+     * @param task     the task run by the thread
+     * @param name     the thread name
+     * @param virtual  <tt>true</tt> for a virtual thread, <tt>false</tt>
+     *                 for a platform daemon thread
+     * @return the new thread
+     * @pre task != null && name != null
+     * @post $result != null
+     */
+    static Thread newThread(Runnable task, String name, boolean virtual)
+    {
+        Thread thread = null;
+        if (virtual && isAvailable())
+        {
+            try {
+                thread = (Thread) unstarted_.invoke(builder_, task);
+            }
+            catch (Exception e) {
+                thread = null;
+            }
+        }
+
+        if (thread == null)
+        {
+            thread = new Thread(task);
+            thread.setDaemon(true);
+        }
+
+        thread.setName(name);
+        return thread;
+    }
+
+} // end class
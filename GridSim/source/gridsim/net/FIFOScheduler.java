@@ -31,11 +31,15 @@ import java.util.*;
  * @since  GridSim Toolkit 3.1
  * @invariant $none
  */
-public class FIFOScheduler implements PacketScheduler
+public class FIFOScheduler implements PacketScheduler, java.io.Serializable
 {
+    private static final long serialVersionUID = -7323017818879537574L;
+
     private String name_;       // this scheduler name
     private double baudRate_;   // baud rate of this scheduler
     private Vector pktList;     // Sorted List of all Packets
+    private int size_;          // number of packets, including the ones
+                                // of the packet trains in pktList
 
 
     /**
@@ -91,6 +95,7 @@ public class FIFOScheduler implements PacketScheduler
         name_ = name;
         baudRate_ = 0;
         pktList = new Vector();
+        size_ = 0;
     }
 
     /**
@@ -108,12 +113,15 @@ public class FIFOScheduler implements PacketScheduler
         name_ = "FIFOScheduler";
         baudRate_ = 0;
         pktList = new Vector();
+        size_ = 0;
     }
 
     /**
      * In this scheduler, the packet is put into the tail of the queue.
      * There is no buffer management, so packets are never dropped, and the
-     * queue can grow as long as system memory is available.
+     * queue can grow as long as system memory is available. A
+     * {@link PacketTrain} is queued as one entry, which gives its packets
+     * one at a time.
      *
      * @param np    A Packet to be enqued by this scheduler.
      * @return <tt>true</tt> if enqued, <tt>false</tt> otherwise
@@ -123,6 +131,12 @@ public class FIFOScheduler implements PacketScheduler
     public synchronized boolean enque(Packet np)
     {
         pktList.add(np);
+        if (np instanceof PacketTrain) {
+            size_ += ((PacketTrain) np).getCount();
+        }
+        else {
+            size_++;
+        }
         return true;
     }
 
@@ -140,7 +154,8 @@ public class FIFOScheduler implements PacketScheduler
             return null;
         }
 
-        Packet p = (Packet) pktList.remove(0);
+        Packet p = PacketTrain.removeFirstPacket(pktList);
+        size_--;
         return p;
     }
 
@@ -166,7 +181,7 @@ public class FIFOScheduler implements PacketScheduler
      * @post $none
      */
     public synchronized int size() {
-        return pktList.size();
+        return size_;
     }
 
     /**
@@ -257,6 +272,7 @@ public class FIFOScheduler implements PacketScheduler
         name_ = name;
         baudRate_ = rate;
         pktList = new Vector();
+        size_ = 0;
     }
 
 
@@ -0,0 +1,196 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.net;
+
+
+/**
+ * FlowTable stores the finish time of the last packet of each flow, as used
+ * by {@link SCFQScheduler} and {@link gridsim.net.fnb.FnbSCFQScheduler}. A
+ * flow is identified by the source entity ID, the destination entity ID and
+ * the service type of its packets.
+ * <p>
+ * This table uses open addressing on primitive arrays, where both entity IDs
+ * are packed into a <tt>long</tt> key. Hence, looking up or updating a flow
+ * does not create any object. Flows are never removed from this table.
+ * <p>
+ * Before GridSim Toolkit 5.2, the schedulers keyed a flow on the string
+ * <tt>"" + srcID + destID + type</tt>. Hence, the flow from entity 1 to
+ * entity 23 and the one from entity 12 to entity 3 shared the same finish
+ * time. This table keeps them apart, so the packets of such flows may leave
+ * a scheduler in a different order than before.
+ *
+ * @since GridSim Toolkit 5.2
+ * @invariant $none
+ */
+public final class FlowTable implements java.io.Serializable
+{
+    private static final long serialVersionUID = 1L;
+    private static final int INITIAL_SIZE = 16;     // a power of two
+
+    private long[] ends_;       // source and destination IDs of each flow
+    private int[] types_;       // service type of each flow
+    private double[] times_;    // finish time of the last packet of each flow
+    private boolean[] used_;    // whether a slot holds a flow
+    private int size_;          // number of flows
+
+
+    /**
+     * Allocates a new empty table
+     * @pre $none
+     * @post $none
+     */
+    public FlowTable()
+    {
+        ends_ = new long[INITIAL_SIZE];
+        types_ = new int[INITIAL_SIZE];
+        times_ = new double[INITIAL_SIZE];
+        used_ = new boolean[INITIAL_SIZE];
+        size_ = 0;
+    }
+
+    /**
+     * Gets the number of flows in this table
+     * @return the number of flows
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int size() {
+        return size_;
+    }
+
+    /**
+     * Gets the finish time of the last packet of a flow
+     * @param srcID    the source entity ID
+     * @param destID   the destination entity ID
+     * @param type     the service type
+     * @param defaultTime  the time returned if the flow is not found
+     * @return the finish time or <tt>defaultTime</tt> if the flow is not found
+     * @pre $none
+     * @post $none
+     */
+    public double getTime(int srcID, int destID, int type, double defaultTime)
+    {
+        int slot = find(pack(srcID, destID), type);
+        return used_[slot] ? times_[slot] : defaultTime;
+    }
+
+    /**
+     * Sets the finish time of the last packet of a flow, and adds the flow
+     * if it is not found
+     * @param srcID    the source entity ID
+     * @param destID   the destination entity ID
+     * @param type     the service type
+     * @param time     the finish time
+     * @pre $none
+     * @post $none
+     */
+    public void setTime(int srcID, int destID, int type, double time)
+    {
+        long ends = pack(srcID, destID);
+        int slot = find(ends, type);
+        if ( !used_[slot] )
+        {
+            if ( (size_ + 1) * 2 > used_.length )
+            {
+                resize(used_.length * 2);
+                slot = find(ends, type);
+            }
+
+            ends_[slot] = ends;
+            types_[slot] = type;
+            used_[slot] = true;
+            size_++;
+        }
+
+        times_[slot] = time;
+    }
+
+    /**
+     * Finds the slot of a flow
+     * @param ends   the packed source and destination entity IDs
+     * @param type   the service type
+     * @return the slot of the flow, or the empty slot where it can be added
+     * @pre $none
+     * @post $none
+     */
+    private int find(long ends, int type)
+    {
+        int mask = used_.length - 1;
+        int slot = hash(ends, type) & mask;
+        while ( used_[slot] )
+        {
+            if (ends_[slot] == ends && types_[slot] == type) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    /**
+     * Changes the capacity of this table
+     * @param capacity  the new capacity, a power of two
+     * @pre capacity > size()
+     * @post $none
+     */
+    private void resize(int capacity)
+    {
+        long[] ends = ends_;
+        int[] types = types_;
+        double[] times = times_;
+        boolean[] used = used_;
+
+        ends_ = new long[capacity];
+        types_ = new int[capacity];
+        times_ = new double[capacity];
+        used_ = new boolean[capacity];
+
+        for (int i = 0; i < used.length; i++)
+        {
+            if ( !used[i] ) {
+                continue;
+            }
+
+            int slot = find(ends[i], types[i]);
+            ends_[slot] = ends[i];
+            types_[slot] = types[i];
+            times_[slot] = times[i];
+            used_[slot] = true;
+        }
+    }
+
+    /**
+     * Packs the source and destination entity IDs of a flow
+     * @param srcID    the source entity ID
+     * @param destID   the destination entity ID
+     * @return the packed IDs
+     * @pre $none
+     * @post $none
+     */
+    private static long pack(int srcID, int destID) {
+        return ((long) srcID << 32) | (destID & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Spreads the bits of a flow
+     * @param ends   the packed source and destination entity IDs
+     * @param type   the service type
+     * @return the hash code
+     * @pre $none
+     * @post $none
+     */
+    private static int hash(long ends, int type)
+    {
+        int h = ( (int) (ends ^ (ends >>> 32)) + type * 0x85EBCA6B )
+                * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+} // end class
@@ -41,6 +41,8 @@ import gridsim.* ;
 
 public class InfoPacket implements Packet
 {
+    private static final long serialVersionUID = 6737031999687573300L;
+
     private String name_;   // packet name
     private long size_;     // size of this packet
     private int packetID_;  // id of this packet
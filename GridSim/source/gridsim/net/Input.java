@@ -14,6 +14,11 @@ import gridsim.net.*;
 import gridsim.util.TrafficGenerator;
 import java.util.Collection;
 import eduni.simjava.*;
+import gridsim.kernel.Checkpointable;
+import gridsim.kernel.EventDriven;
+import gridsim.kernel.KernelEntity;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 
 /**
  * GridSim Input class defines a port through which a simulation entity
@@ -31,7 +36,8 @@ import eduni.simjava.*;
  * @since   GridSim Toolkit 1.0
  * @invariant $none
  */
-public class Input extends Sim_entity implements NetIO
+public class Input extends KernelEntity
+        implements NetIO, EventDriven, Checkpointable
 {
     private Sim_port inPort_;
     private Link link_;
@@ -132,29 +138,87 @@ public class Input extends Sim_entity implements NetIO
     public void body()
     {
         // Process events
-        Object obj = null;
-        while ( Sim_system.running() )
+        while ( GridSim.isSimulationRunning() )
         {
             Sim_event ev = new Sim_event();
             super.sim_get_next(ev);     // get the next event in the queue
-            obj = ev.get_data();        // get the incoming data
 
             // if the simulation finishes then exit the loop
             if (ev.get_tag() == GridSimTags.END_OF_SIMULATION) {
                 break;
             }
 
-            // if this entity is not connected in a network topology
-            if (obj != null && obj instanceof IO_data) {
-                getDataFromEvent(ev);
-            }
+            processEvent(ev);
+            ev = null;   // reset to null for gc to collect
+        }
+    }
 
-            // if this entity belongs to a network topology
-            else if (obj != null && link_ != null) {
-                getDataFromLink(ev);
-            }
+    /**
+     * Does nothing, since this entity only reacts to incoming events
+     * @pre $none
+     * @post $none
+     */
+    public void startEntity() {
+        // empty
+    }
 
-            ev = null;   // reset to null for gc to collect
+    /**
+     * Does nothing, since this entity keeps no state between events
+     * @param out  the snapshot stream
+     * @pre out != null
+     * @post $none
+     */
+    public void saveState(ObjectOutputStream out) {
+        // empty
+    }
+
+    /**
+     * Does nothing, since this entity keeps no state between events
+     * @param in  the snapshot stream
+     * @pre in != null
+     * @post $none
+     */
+    public void restoreState(ObjectInputStream in) {
+        // empty
+    }
+
+    /**
+     * Handles an incoming event when this entity is run by the event-loop
+     * kernel
+     * @param ev  an incoming event
+     * @pre ev != null
+     * @post $none
+     */
+    public void handleEvent(Sim_event ev)
+    {
+        // if the simulation finishes then stop receiving events
+        if (ev.get_tag() == GridSimTags.END_OF_SIMULATION)
+        {
+            super.endEntity();
+            return;
+        }
+
+        processEvent(ev);
+    }
+
+    /**
+     * Processes one incoming event
+     * @param ev  an incoming event
+     * @pre ev != null
+     * @post $none
+     */
+    private void processEvent(Sim_event ev)
+    {
+        Object obj = ev.get_data();     // get the incoming data
+
+        // if this entity is not connected in a network topology
+        if (obj != null && obj instanceof IO_data) {
+            getDataFromEvent(ev);
+        }
+
+        // if this entity belongs to a network topology
+        else if (obj != null && link_ != null) {
+            getDataFromLink(ev);
         }
     }
 
@@ -173,25 +237,26 @@ public class Input extends Sim_entity implements NetIO
         // since it is not compatible.
         if (link_ != null)
         {
-            // outName = "Output_xxx", where xxx = sender entity name
-            String outName = GridSim.getEntityName( ev.get_src() );
-
-            // NOTE: this is a HACK job. "Output_" has 7 chars. So,
-            // the idea is to get only the entity name by removing
-            // "Output_" word in the outName string.
-            String name = outName.substring(7);
+            // the sender is "Output_xxx", where xxx = sender entity name
+            EntityRegistry registry = GridSim.getEntityRegistry();
+            int sender = registry.getOwnerId( ev.get_src() );
 
             // if the sender is not system GIS then ignore the message
-            if (GridSim.getEntityId(name) != GridSim.getGridInfoServiceEntityId())
+            if (sender != GridSim.getGridInfoServiceEntityId())
             {
                 // sends back the data to "Input_xxx", where
                 // xxx = sender entity name. If not sent, then the sender
                 // will wait forever to receive this data. As a result,
                 // the whole simulation program will be hanged or does not
                 // terminate successfully.
-                int id = GridSim.getEntityId("Input_" + name);
+                int id = registry.getInputId(sender);
                 super.sim_schedule(id, 0.0, ev.get_tag(), io);
 
+                // NOTE: "Output_" has 7 chars, so removing it from the
+                // sender's name gives the entity name.
+                String name = registry.getEntityName( ev.get_src() );
+                name = name.substring(7);
+
                 // print an error message
                 System.out.println(super.get_name() + ".body(): Error - " +
                     "incompatible message protocol.");
@@ -212,7 +277,7 @@ public class Input extends Sim_entity implements NetIO
             // Simulate Transmission Time after Receiving
             // Hold first then dispatch
             double senderBaudRate = ( (Output)
-                    Sim_system.get_entity(ev.get_src()) ).getBaudRate();
+                    GridSim.getEntity(ev.get_src()) ).getBaudRate();
 
             // NOTE: io is in byte and baud rate is in bits. 1 byte = 8 bits
             // So, convert io into bits
@@ -273,14 +338,9 @@ public class Input extends Sim_entity implements NetIO
                     return;
                 }
 
-                // convert the packets into IO_data
-                Object data = np.getData();
-                IO_data io = new IO_data( data, np.getSize(),
-                                          inPort_.get_dest() );
-
                 // send the data into entity input port
                 super.sim_schedule(inPort_, GridSimTags.SCHEDULE_NOW, tag,
-                                   io.getData() );
+                                   np.getData() );
             }
         }
     }
@@ -297,11 +357,9 @@ public class Input extends Sim_entity implements NetIO
         pkt.addHop( inPort_.get_dest() );
         pkt.addEntryTime( GridSim.clock() );
 
-        IO_data io = new IO_data( pkt, pkt.getSize(), inPort_.get_dest() );
-
         // send this ping() packet to the entity
         super.sim_schedule(inPort_, GridSimTags.SCHEDULE_NOW,
-                           pkt.getTag(), io.getData());
+                           pkt.getTag(), pkt);
     }
 
 } // end class
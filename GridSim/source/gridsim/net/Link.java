@@ -17,6 +17,7 @@
 package gridsim.net;
 
 import eduni.simjava.*;
+import gridsim.kernel.KernelEntity;
 import gridsim.*;
 import java.util.*;
 
@@ -38,7 +39,7 @@ import java.util.*;
  * @since GridSim Toolkit 3.1
  * @author Gokul Poduval & Chen-Khong Tham, National University of Singapore
  */
-public abstract class Link extends Sim_entity
+public abstract class Link extends KernelEntity
 {
     /** Propagation delay of this link in millisecond */
     protected double delay_;
@@ -60,6 +61,9 @@ public abstract class Link extends Sim_entity
 
     /** A constant represents 1 second in milliseconds */
     protected final int MILLI_SEC = 1000; 
+
+    private int end1_;      // id of the entity attached to one end
+    private int end2_;      // id of the entity attached to the other end
     
     /**
      * Constructs a Link which simulates a physical link between two entities.
@@ -106,6 +110,8 @@ public abstract class Link extends Sim_entity
         this.baudRate_ = baudRate;
         this.delay_ = propDelay;
         this.MTU_ = MTU;
+        this.end1_ = -1;
+        this.end2_ = -1;
     }
 
     /**
@@ -132,6 +138,24 @@ public abstract class Link extends Sim_entity
      */
     public abstract void attach(String end1, String end2);
 
+    /**
+     * Sends a packet into this link. An entity attached to one end of this
+     * link calls this method rather than sending the packet to the link
+     * entity, so that the link can choose how the packet enters it. By
+     * default, the packet is sent to this link without any delay.
+     *
+     * @param sender  the entity at one end of this link, which sends the
+     *                packet
+     * @param tag     the event tag
+     * @param np      the packet
+     * @pre sender != null
+     * @pre np != null
+     * @post $none
+     */
+    public void transmit(Sim_entity sender, int tag, Packet np) {
+        sender.sim_schedule(super.get_id(), GridSimTags.SCHEDULE_NOW, tag, np);
+    }
+
     /**
      * Returns the baud rate of the link in bits/s.
      *
@@ -166,5 +190,43 @@ public abstract class Link extends Sim_entity
         return this.MTU_;
     }
 
+    /**
+     * Records the entities attached to both ends of this link. This method
+     * should be called by {@link #attach(Sim_entity, Sim_entity)} and
+     * {@link #attach(String, String)}.
+     *
+     * @param end1  id of the entity attached to one end of the Link
+     * @param end2  id of the entity attached to the other end of the Link
+     * @pre $none
+     * @post $none
+     */
+    protected void setEnds(int end1, int end2)
+    {
+        this.end1_ = end1;
+        this.end2_ = end2;
+    }
+
+    /**
+     * Returns the id of the entity attached to one end of this Link
+     *
+     * @return the entity id or <tt>-1</tt> if this Link is not attached
+     * @pre $none
+     * @post $none
+     */
+    public int getEnd1() {
+        return this.end1_;
+    }
+
+    /**
+     * Returns the id of the entity attached to the other end of this Link
+     *
+     * @return the entity id or <tt>-1</tt> if this Link is not attached
+     * @pre $none
+     * @post $none
+     */
+    public int getEnd2() {
+        return this.end2_;
+    }
+
 } // end class
 
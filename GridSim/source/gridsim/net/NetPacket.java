@@ -29,6 +29,8 @@ import eduni.simjava.*;
  */
 public class NetPacket implements Packet
 {
+    private static final long serialVersionUID = -3347838655304591296L;
+
     private int destID;  // where the packet wants to go
     private int srcID;   // sender ID
     private long size;   // packet size (for calculating transmission time)
@@ -14,6 +14,12 @@ import gridsim.net.*;
 import gridsim.util.*;
 
 import eduni.simjava.*;
+import gridsim.kernel.Checkpointable;
+import gridsim.kernel.EventDriven;
+import gridsim.kernel.KernelEntity;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.*;
 
 
@@ -31,7 +37,8 @@ import java.util.*;
  * @since        GridSim Toolkit 1.0
  * @invariant $none
  */
-public class Output extends Sim_entity implements NetIO
+public class Output extends KernelEntity
+        implements NetIO, EventDriven, Checkpointable
 {
     private Sim_port outPort_;      // output port
     private Link link_;             // a link to this output entity
@@ -42,6 +49,9 @@ public class Output extends Sim_entity implements NetIO
     private TrafficGenerator gen_;  // background traffic generator
     private ArrayList list_;        // list of resources + user entities
     private boolean hasStarted_;    // a flag for background traffic has started
+    private int gisID_;             // the central/default GIS entity ID
+    private int statID_;            // the GridStatistics entity ID
+    private int shutdownID_;        // the GridSimShutdown entity ID
 
 
     /**
@@ -71,6 +81,10 @@ public class Output extends Sim_entity implements NetIO
         list_ = null;
         random_ = null;
         hasStarted_ = false;
+
+        gisID_ = -1;
+        statID_ = -1;
+        shutdownID_ = -1;
     }
 
     /**
@@ -211,17 +225,10 @@ public class Output extends Sim_entity implements NetIO
      */
     public void body()
     {
-        // find out ids for entities that are not part of simulation network
-        // topology, such as GIS, GridSimShutdown and GridStatistics
-        int gisID = GridSim.getGridInfoServiceEntityId();
-        int statID = GridSim.getGridStatisticsEntityId();
-        int shutdownID = GridSim.getGridSimShutdownEntityId();
-
-        // start generating some junk packets or background traffic
-        startBackgroundTraffic();
+        startEntity();
 
         // Process incoming events
-        while ( Sim_system.running() )
+        while ( GridSim.isSimulationRunning() )
         {
             Sim_event ev = new Sim_event();
             super.sim_get_next(ev);     // get the next event in the queue
@@ -231,32 +238,123 @@ public class Output extends Sim_entity implements NetIO
                 break;
             }
 
-            // handle different types of incoming events
-            switch ( ev.get_tag() )
-            {
-                case GridSimTags.SEND_PACKET:
-                    sendPacket();
-                    break;
-
-                // submit ping() request
-                case GridSimTags.INFOPKT_SUBMIT:
-                    sendInfoPacket(ev);
-                    break;
-
-                // replying ping() request from another entity
-                case GridSimTags.INFOPKT_RETURN:
-                    returnInfoPacket(ev);
-                    break;
-
-                // activate background traffic
-                case GridSimTags.JUNK_PKT:
-                    generateBackgroundTraffic();
-                    break;
-
-                default:
-                    defaultSend(ev, gisID, statID, shutdownID);
-                    break;
-            }
+            processEvent(ev);
+        }
+    }
+
+    /**
+     * Finds out the entity IDs that are not part of the network topology and
+     * starts the background traffic, if any
+     * @pre $none
+     * @post $none
+     */
+    public void startEntity()
+    {
+        // find out ids for entities that are not part of simulation network
+        // topology, such as GIS, GridSimShutdown and GridStatistics
+        gisID_ = GridSim.getGridInfoServiceEntityId();
+        statID_ = GridSim.getGridStatisticsEntityId();
+        shutdownID_ = GridSim.getGridSimShutdownEntityId();
+
+        // start generating some junk packets or background traffic
+        startBackgroundTraffic();
+    }
+
+    /**
+     * Saves the packets waiting to be sent and the packet counter into a
+     * snapshot. The state of the background traffic generator is not
+     * saved, so a restored entity starts a new sequence of junk packets.
+     * @param out  the snapshot stream
+     * @throws IOException  if the state can't be written
+     * @pre out != null
+     * @post $none
+     */
+    public void saveState(ObjectOutputStream out) throws IOException
+    {
+        out.writeInt(pktID_);
+        out.writeObject(packetList_);
+        out.writeObject(random_);
+        out.writeObject(list_);
+        out.writeBoolean(hasStarted_);
+        out.writeInt(gisID_);
+        out.writeInt(statID_);
+        out.writeInt(shutdownID_);
+    }
+
+    /**
+     * Restores the packets waiting to be sent and the packet counter from a
+     * snapshot
+     * @param in  the snapshot stream
+     * @throws IOException  if the state can't be read
+     * @throws ClassNotFoundException  if a saved class is not found
+     * @pre in != null
+     * @post $none
+     */
+    public void restoreState(ObjectInputStream in)
+            throws IOException, ClassNotFoundException
+    {
+        pktID_ = in.readInt();
+        packetList_ = (Vector) in.readObject();
+        random_ = (Random) in.readObject();
+        list_ = (ArrayList) in.readObject();
+        hasStarted_ = in.readBoolean();
+        gisID_ = in.readInt();
+        statID_ = in.readInt();
+        shutdownID_ = in.readInt();
+    }
+
+    /**
+     * Handles an incoming event when this entity is run by the event-loop
+     * kernel
+     * @param ev  an incoming event
+     * @pre ev != null
+     * @post $none
+     */
+    public void handleEvent(Sim_event ev)
+    {
+        // if the simulation finishes then stop receiving events
+        if (ev.get_tag() == GridSimTags.END_OF_SIMULATION)
+        {
+            super.endEntity();
+            return;
+        }
+
+        processEvent(ev);
+    }
+
+    /**
+     * Processes one incoming event
+     * @param ev  an incoming event
+     * @pre ev != null
+     * @post $none
+     */
+    private void processEvent(Sim_event ev)
+    {
+        // handle different types of incoming events
+        switch ( ev.get_tag() )
+        {
+            case GridSimTags.SEND_PACKET:
+                sendPacket();
+                break;
+
+            // submit ping() request
+            case GridSimTags.INFOPKT_SUBMIT:
+                sendInfoPacket(ev);
+                break;
+
+            // replying ping() request from another entity
+            case GridSimTags.INFOPKT_RETURN:
+                returnInfoPacket(ev);
+                break;
+
+            // activate background traffic
+            case GridSimTags.JUNK_PKT:
+                generateBackgroundTraffic();
+                break;
+
+            default:
+                defaultSend(ev, gisID_, statID_, shutdownID_);
+                break;
         }
     }
 
@@ -415,14 +513,13 @@ public class Output extends Sim_entity implements NetIO
 
         // Identify ID of an entity which acts as Input/Buffer
         // entity of destination entity
-        int id = GridSim.getEntityId( "Input_" +
-                 Sim_system.get_entity(destId).get_name() );
+        int id = GridSim.getEntityRegistry().getInputId(destId);
 
         // Send first and then hold
         super.sim_schedule(id, GridSimTags.SCHEDULE_NOW, ev.get_tag(), io);
 
         double receiverBaudRate = ( (Input)
-                Sim_system.get_entity(id) ).getBaudRate();
+                GridSim.getEntity(id) ).getBaudRate();
 
         // NOTE: io is in byte and baud rate is in bits. 1 byte = 8 bits
         // So, convert io into bits
@@ -474,26 +571,41 @@ public class Output extends Sim_entity implements NetIO
     }
 
     /**
-     * Creates many dummy or null packets
+     * Creates many dummy or null packets. If packet trains are enabled,
+     * they are queued as one {@link PacketTrain}, which creates each packet
+     * only when it is sent.
      * @param size          packet size (in bytes)
-     * @param numPackets    total number of packets to be created
+     * @param numPackets    total number of packets, i.e. the dummy packets
+     *                      plus the packet that follows them
      * @param tag           packet tag
      * @param destId        destination ID for sending the packet
      * @param netServiceType    level type of service for the packet
      * @pre $none
      * @post $none
+     * @see gridsim.GridSim#initPacketTrains(boolean)
      */
     private synchronized void convertIntoPacket(long size, int numPackets,
                 int tag, int destId, int netServiceType)
     {
+        // change the tag name for dummy packets, apart from junk packets
+        if (tag != GridSimTags.JUNK_PKT) {
+            tag = GridSimTags.EMPTY_PKT;
+        }
+
         NetPacket np = null;
-        for (int i = 0; i < numPackets - 1; i++)
+        int count = numPackets - 1;     // number of dummy packets
+        if (count > 1 && GridSim.isPacketTrainEnabled())
         {
-            // change the tag name for dummy packets, apart from junk packets
-            if (tag != GridSimTags.JUNK_PKT) {
-                tag = GridSimTags.EMPTY_PKT;
-            }
+            np = new PacketTrain(pktID_, 1, size, tag, super.get_id(), destId,
+                                 netServiceType, count, numPackets);
 
+            pktID_ += count;    // increments packet ID for each packet
+            enque(np, GridSimTags.SCHEDULE_NOW);
+            return;
+        }
+
+        for (int i = 0; i < count; i++)
+        {
             np = new NetPacket(null, pktID_, size, tag, super.get_id(), destId,
                                netServiceType, i+1, numPackets);
 
@@ -598,6 +710,7 @@ public class Output extends Sim_entity implements NetIO
     private synchronized void enque(Packet pkt, double delay)
     {
         packetList_.add(pkt);
+
         if (packetList_.size() == 1)
         {
             double total = delay + (pkt.getSize()*NetIO.BITS / link_.getBaudRate());
@@ -617,8 +730,9 @@ public class Output extends Sim_entity implements NetIO
             return;
         }
 
-        // submits the first packet in the list
-        Packet np = (Packet) packetList_.remove(0);
+        // submits the first packet in the list. A packet train stays at
+        // the head of the list until its last packet has been sent
+        Packet np = PacketTrain.removeFirstPacket(packetList_);
 
         boolean ping = false;   // a flag to determine ping packet or not
         int tag = -1;       // event tag ID
@@ -635,10 +749,9 @@ public class Output extends Sim_entity implements NetIO
         // if an entity tries to send a packet to itself
         if ( np.getDestID() == outPort_.get_dest() )
         {
-            // then change the destination name and id
-            String destName = super.get_name();
-            destName = destName.replaceFirst("Output", "Input");
-            dest = Sim_system.get_entity_id(destName);
+            // then change the destination to the Input entity
+            EntityRegistry registry = GridSim.getEntityRegistry();
+            dest = registry.getInputId( registry.getOwnerId(super.get_id()) );
 
             // for a ping packet, change the tag
             if (ping == true)
@@ -664,7 +777,7 @@ public class Output extends Sim_entity implements NetIO
         }
 
         // send the packet
-        super.sim_schedule(dest, GridSimTags.SCHEDULE_NOW, tag, np);
+        sendToLink(dest, tag, np);
 
         /*****   // DEBUG info
         System.out.println(super.get_name() + " send to " +
@@ -679,5 +792,23 @@ public class Output extends Sim_entity implements NetIO
         }
     }
 
+    /**
+     * Sends a packet either into the link or to the Input entity
+     * @param dest  the link or Input entity ID
+     * @param tag   the event tag
+     * @param np    the packet
+     * @pre np != null
+     * @post $none
+     */
+    private void sendToLink(int dest, int tag, Packet np)
+    {
+        if (dest == link_.get_id()) {
+            link_.transmit(this, tag, np);
+        }
+        else {
+            super.sim_schedule(dest, GridSimTags.SCHEDULE_NOW, tag, np);
+        }
+    }
+
 } // end class
 
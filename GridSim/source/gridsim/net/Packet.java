@@ -23,7 +23,7 @@ package gridsim.net;
  * @since GridSim Toolkit 3.1
  * @author Gokul Poduval & Chen-Khong Tham, National University of Singapore
  */
-public interface Packet
+public interface Packet extends java.io.Serializable
 {
     /**
      * Returns a string describing this packet in detail.
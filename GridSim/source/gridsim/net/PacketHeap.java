@@ -0,0 +1,298 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.net;
+
+
+/**
+ * PacketHeap is a queue of packets sorted by their finish time, as used by
+ * {@link SCFQScheduler} and {@link gridsim.net.fnb.FnbSCFQScheduler}. It is
+ * an array-based binary heap, so adding and removing a packet takes
+ * logarithmic time. The finish times are kept in a primitive array, hence no
+ * object is created per packet.
+ * <p>
+ * Packets with the same finish time leave in the order they were added.
+ * Positions in this queue, i.e. from <tt>0</tt> to {@link #size()} - 1,
+ * follow the heap order rather than the order the packets leave, apart from
+ * position <tt>0</tt> that always holds the first packet.
+ *
+ * @since GridSim Toolkit 5.2
+ * @invariant $none
+ */
+public final class PacketHeap implements java.io.Serializable
+{
+    private static final long serialVersionUID = 1L;
+    private static final int INITIAL_SIZE = 16;
+
+    private Packet[] pkts_;     // the packets
+    private double[] times_;    // finish time of each packet
+    private long[] orders_;     // the order each packet was added
+    private long count_;        // number of packets added so far
+    private int size_;
+
+
+    /**
+     * Allocates a new empty queue
+     * @pre $none
+     * @post $none
+     */
+    public PacketHeap()
+    {
+        pkts_ = new Packet[INITIAL_SIZE];
+        times_ = new double[INITIAL_SIZE];
+        orders_ = new long[INITIAL_SIZE];
+        count_ = 0;
+        size_ = 0;
+    }
+
+    /**
+     * Gets the number of packets in this queue
+     * @return the number of packets
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int size() {
+        return size_;
+    }
+
+    /**
+     * Checks whether this queue is empty
+     * @return <tt>true</tt> if there are no packets, <tt>false</tt> otherwise
+     * @pre $none
+     * @post $none
+     */
+    public boolean isEmpty() {
+        return size_ == 0;
+    }
+
+    /**
+     * Adds a packet into this queue
+     * @param pkt   a packet
+     * @param time  the finish time of the packet
+     * @pre pkt != null
+     * @post $none
+     */
+    public void add(Packet pkt, double time) {
+        add(pkt, time, count_);
+    }
+
+    /**
+     * Adds a packet into this queue with a given order, e.g. a packet that
+     * has been moved from another queue. Packets with the same finish time
+     * leave by their order, the lowest first.
+     * @param pkt    a packet
+     * @param time   the finish time of the packet
+     * @param order  the order of the packet
+     * @pre pkt != null
+     * @pre order >= 0
+     * @post $none
+     * @see #getOrder(int)
+     */
+    public void add(Packet pkt, double time, long order)
+    {
+        if (size_ == pkts_.length)
+        {
+            int length = size_ * 2;
+            Packet[] pkts = new Packet[length];
+            double[] times = new double[length];
+            long[] orders = new long[length];
+
+            System.arraycopy(pkts_, 0, pkts, 0, size_);
+            System.arraycopy(times_, 0, times, 0, size_);
+            System.arraycopy(orders_, 0, orders, 0, size_);
+
+            pkts_ = pkts;
+            times_ = times;
+            orders_ = orders;
+        }
+
+        pkts_[size_] = pkt;
+        times_[size_] = time;
+        orders_[size_] = order;
+        if (order >= count_) {
+            count_ = order + 1;
+        }
+        size_++;
+        siftUp(size_ - 1);
+    }
+
+    /**
+     * Gets the packet at a given position
+     * @param index  the position, where <tt>0</tt> is the first packet
+     * @return the packet
+     * @pre index >= 0 && index < size()
+     * @post $none
+     */
+    public Packet get(int index) {
+        return pkts_[index];
+    }
+
+    /**
+     * Gets the finish time of the packet at a given position
+     * @param index  the position, where <tt>0</tt> is the first packet
+     * @return the finish time
+     * @pre index >= 0 && index < size()
+     * @post $none
+     */
+    public double getTime(int index) {
+        return times_[index];
+    }
+
+    /**
+     * Gets the order of the packet at a given position, i.e. the number of
+     * packets added to this queue before it, unless the order has been given
+     * @param index  the position, where <tt>0</tt> is the first packet
+     * @return the order
+     * @pre index >= 0 && index < size()
+     * @post $result >= 0
+     * @see #add(Packet, double, long)
+     */
+    public long getOrder(int index) {
+        return orders_[index];
+    }
+
+    /**
+     * Checks whether the packet at a given position leaves before another one
+     * @param i  the position of a packet
+     * @param j  the position of another packet
+     * @return <tt>true</tt> if the packet at position <tt>i</tt> comes
+     *         first, <tt>false</tt> otherwise
+     * @pre i >= 0 && i < size()
+     * @pre j >= 0 && j < size()
+     * @post $none
+     */
+    public boolean before(int i, int j)
+    {
+        if (times_[i] != times_[j]) {
+            return times_[i] < times_[j];
+        }
+
+        return orders_[i] < orders_[j];
+    }
+
+    /**
+     * Removes the packet at a given position
+     * @param index  the position, where <tt>0</tt> is the first packet
+     * @return the packet
+     * @pre index >= 0 && index < size()
+     * @post $none
+     */
+    public Packet remove(int index)
+    {
+        Packet pkt = pkts_[index];
+        size_--;
+
+        if (index < size_)
+        {
+            move(size_, index);
+            if (siftDown(index) == index) {
+                siftUp(index);
+            }
+        }
+
+        pkts_[size_] = null;
+        return pkt;
+    }
+
+    /**
+     * Removes all packets from this queue
+     * @pre $none
+     * @post size() == 0
+     */
+    public void clear()
+    {
+        for (int i = 0; i < size_; i++) {
+            pkts_[i] = null;
+        }
+
+        size_ = 0;
+    }
+
+    /**
+     * Moves a packet from one position to another one
+     * @param from  the old position
+     * @param to    the new position
+     * @pre from >= 0 && to >= 0
+     * @post $none
+     */
+    private void move(int from, int to)
+    {
+        pkts_[to] = pkts_[from];
+        times_[to] = times_[from];
+        orders_[to] = orders_[from];
+    }
+
+    /**
+     * Moves a packet up the heap until its parent comes before it
+     * @param i  position of the packet
+     * @pre i >= 0 && i < size_
+     * @post $none
+     */
+    private void siftUp(int i)
+    {
+        Packet pkt = pkts_[i];
+        double time = times_[i];
+        long order = orders_[i];
+
+        while (i > 0)
+        {
+            int parent = (i - 1) >>> 1;
+            if (time > times_[parent] || (time == times_[parent] &&
+                order > orders_[parent]) )
+            {
+                break;
+            }
+
+            move(parent, i);
+            i = parent;
+        }
+
+        pkts_[i] = pkt;
+        times_[i] = time;
+        orders_[i] = order;
+    }
+
+    /**
+     * Moves a packet down the heap until its children come after it
+     * @param i  position of the packet
+     * @return the new position of the packet
+     * @pre i >= 0 && i < size_
+     * @post $none
+     */
+    private int siftDown(int i)
+    {
+        Packet pkt = pkts_[i];
+        double time = times_[i];
+        long order = orders_[i];
+
+        int half = size_ >>> 1;
+        while (i < half)
+        {
+            int child = (i << 1) + 1;
+            int right = child + 1;
+            if (right < size_ && before(right, child)) {
+                child = right;
+            }
+
+            if (time < times_[child] || (time == times_[child] &&
+                order < orders_[child]) )
+            {
+                break;
+            }
+
+            move(child, i);
+            i = child;
+        }
+
+        pkts_[i] = pkt;
+        times_[i] = time;
+        orders_[i] = order;
+        return i;
+    }
+
+} // end class
@@ -0,0 +1,229 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.net;
+
+import java.util.List;
+
+
+/**
+ * A packet train stands for a series of empty network packets of the same
+ * size, such as the MTU-sized packets in front of the last packet of a
+ * large transfer. It is queued as one entry, and creates each
+ * {@link NetPacket} only when the packet leaves the queue. Hence, a 1 GB
+ * transfer over a link with a 1500 byte MTU waits in {@link Output} as one
+ * object rather than about 700,000 packets.
+ * <p>
+ * The packets of a train are still sent one by one, so each of them has
+ * its own events on the way to the destination. Hence, a simulation gives
+ * exactly the same results with or without packet trains. A queue only
+ * needs to take the packets of a train in order, working out the time
+ * each of them takes from its size, i.e. {@link #getSize()}:
+ * <ul>
+ *      <li> {@link Output} and {@link FIFOScheduler} keep a train at the
+ *           head of their queue until its last packet has been sent.
+ *      <li> {@link SCFQScheduler} gives each packet of a train its own
+ *           finish time, as if the packets were queued one after another,
+ *           so that they are interleaved with the other flows in the same
+ *           way.
+ * </ul>
+ * {@link RIPRouter} only queues a train in one of these schedulers, see
+ * {@link #isAccepted(PacketScheduler)}. Other schedulers get single
+ * packets.
+ * <p>
+ * A train does not go through a link as one object and one event, since
+ * that can't give the same results:
+ * <ul>
+ *      <li> The packets of a train reach the next router one by one, as
+ *           each of them is sent once the one before has left. Packets of
+ *           other flows arriving meanwhile are queued between them, and a
+ *           {@link SCFQScheduler} orders them by the finish time of each
+ *           packet. One event for the whole train can only approximate
+ *           this when other flows share the router.
+ *      <li> SimJava handles the events of the same time in the order they
+ *           were scheduled. Hence, even the events of packets that no
+ *           entity looks at, e.g. before the last packet of a transfer
+ *           reaches {@link Input}, change the order of the other events.
+ * </ul>
+ * Sending a train as one object, where each hop works out the time of each
+ * packet from the arrival of the train, changed the results of the SCFQ and
+ * data grid examples. Hence, a train only saves the memory of the packets
+ * waiting in a scheduler, not their events.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.GridSim#initPacketTrains(boolean)
+ * @invariant $none
+ */
+public class PacketTrain extends NetPacket
+{
+    private static final long serialVersionUID = -1528163494700706265L;
+
+    private int firstID_;   // ID of the first packet left in this train
+    private int idStep_;    // difference between the IDs of two packets
+    private int first_;     // number of the first packet left in this train
+    private int count_;     // number of packets left in this train
+
+
+    /**
+     * Creates a new packet train. The packets are numbered from 1, out of
+     * <tt>totalPkts</tt> packets of the same series.
+     *
+     * @param pktID  The ID of the first packet
+     * @param idStep The difference between the IDs of two packets following
+     *               each other, i.e. <tt>1</tt> if each packet has its own
+     *               ID or <tt>0</tt> if all packets share the same ID
+     * @param size   The size of each packet (in bytes)
+     * @param tag    The tag of each packet
+     * @param srcID  The id of the entity where the packets were created
+     * @param destID The destination to which the packets have to be sent
+     * @param netServiceType the network class type of the packets
+     * @param count  The number of packets in this train
+     * @param totalPkts The total number of packets of the series, i.e. the
+     *               packets of this train and the ones that follow it
+     * @throws IllegalArgumentException  if there are no packets
+     * @pre size > 0
+     * @pre count > 0
+     * @pre totalPkts >= count
+     * @post $none
+     */
+    public PacketTrain(int pktID, int idStep, long size, int tag, int srcID,
+                       int destID, int netServiceType, int count,
+                       int totalPkts) throws IllegalArgumentException
+    {
+        super(null, pktID, size, tag, srcID, destID, netServiceType, 1,
+              totalPkts);
+
+        if (count < 1) {
+            throw new IllegalArgumentException(
+                    "PacketTrain(): A train needs at least 1 packet.");
+        }
+
+        firstID_ = pktID;
+        idStep_ = idStep;
+        first_ = 1;
+        count_ = count;
+    }
+
+    /**
+     * Gets the number of packets left in this train
+     * @return the number of packets
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int getCount() {
+        return count_;
+    }
+
+    /**
+     * Checks whether all packets of this train have been taken
+     * @return <tt>true</tt> if there are no packets left, <tt>false</tt>
+     *         otherwise
+     * @pre $none
+     * @post $none
+     */
+    public boolean isEmpty() {
+        return count_ == 0;
+    }
+
+    /**
+     * Gets the ID of the first packet left in this train
+     * @return the packet ID
+     * @pre $none
+     * @post $none
+     */
+    public int getID() {
+        return firstID_;
+    }
+
+    /**
+     * Gets the serial number of the first packet left in this train
+     * @return the packet number
+     * @pre $none
+     * @post $none
+     */
+    public int getPacketNum() {
+        return first_;
+    }
+
+    /**
+     * Takes the first packet out of this train
+     * @return a network packet, or <tt>null</tt> if this train is empty
+     * @pre $none
+     * @post $none
+     */
+    public NetPacket removeFirst()
+    {
+        if (count_ == 0) {
+            return null;
+        }
+
+        NetPacket np = new NetPacket(null, firstID_, super.getSize(),
+                super.getTag(), super.getSrcID(), super.getDestID(),
+                super.getNetServiceType(), first_, super.getTotalPackets());
+
+        np.setLast( super.getLast() );
+        firstID_ += idStep_;
+        first_++;
+        count_--;
+        return np;
+    }
+
+    /**
+     * Takes the first packet out of a queue. If the queue starts with a
+     * packet train, only its first packet is taken, and the train is
+     * removed once it is empty.
+     * @param list  a queue of packets
+     * @return the first packet
+     * @pre list != null && list.size() > 0
+     * @post $none
+     */
+    static Packet removeFirstPacket(List<?> list)
+    {
+        Packet pkt = (Packet) list.get(0);
+        if ( !(pkt instanceof PacketTrain) )
+        {
+            list.remove(0);
+            return pkt;
+        }
+
+        PacketTrain train = (PacketTrain) pkt;
+        pkt = train.removeFirst();
+        if ( train.isEmpty() ) {
+            list.remove(0);
+        }
+
+        return pkt;
+    }
+
+    /**
+     * Checks whether a packet scheduler takes packet trains. Only
+     * {@link FIFOScheduler} and {@link SCFQScheduler} do, rather than their
+     * subclasses, which may look at each packet when it is queued.
+     * @param sched  a packet scheduler
+     * @return <tt>true</tt> if a train can be queued in this scheduler,
+     *         <tt>false</tt> otherwise
+     * @pre sched != null
+     * @post $none
+     */
+    static boolean isAccepted(PacketScheduler sched)
+    {
+        Class<?> type = sched.getClass();
+        return type == FIFOScheduler.class || type == SCFQScheduler.class;
+    }
+
+    /**
+     * Returns a description of this packet train
+     * @return a description of this packet train
+     * @pre $none
+     * @post $none
+     */
+    public String toString() {
+        return super.toString() + ", train of, " + count_;
+    }
+
+} // end class
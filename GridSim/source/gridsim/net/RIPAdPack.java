@@ -30,8 +30,10 @@ import java.util.*;
  * @since GridSim Toolkit 3.1
  * @author Gokul Poduval & Chen-Khong Tham, National University of Singapore
  */
-public class RIPAdPack
+public class RIPAdPack implements java.io.Serializable
 {
+    private static final long serialVersionUID = -8093527077479696861L;
+
     private Collection hosts;
     private String sender;
     private int hopcount;
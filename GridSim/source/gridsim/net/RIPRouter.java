@@ -18,7 +18,11 @@ package gridsim.net;
 
 import eduni.simjava.*;
 import gridsim.*;
+import gridsim.kernel.Checkpointable;
 import gridsim.util.*;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.*;
 
 
@@ -38,13 +42,14 @@ import java.util.*;
  * @since GridSim Toolkit 3.1
  * @author Gokul Poduval & Chen-Khong Tham, National University of Singapore
  */
-public class RIPRouter extends Router
+public class RIPRouter extends Router implements Checkpointable
 {
     private Hashtable linkTable;
     private Hashtable schedTable; // table of schedulers
     private Hashtable hostTable;
     private Hashtable routerTable;
     private Hashtable forwardTable;
+    private RouteCache routeCache;  // routes by destination id
     private int id;
 
 
@@ -96,6 +101,7 @@ public class RIPRouter extends Router
         routerTable = new Hashtable();
         forwardTable = new Hashtable();
         schedTable = new Hashtable();
+        routeCache = new RouteCache();
     }
 
     /**
@@ -107,6 +113,39 @@ public class RIPRouter extends Router
         // ... empty - maybe need to clean up all the hashtables
     }
 
+    /**
+     * Saves the forwarding table and the packet schedulers, together with
+     * the packets waiting in them, into a snapshot. The other tables are
+     * only filled before the simulation starts.
+     * @param out  the snapshot stream
+     * @throws IOException  if the state can't be written
+     * @pre out != null
+     * @post $none
+     */
+    public void saveState(ObjectOutputStream out) throws IOException
+    {
+        out.writeObject(forwardTable);
+        out.writeObject(schedTable);
+    }
+
+    /**
+     * Restores the forwarding table and the packet schedulers from a
+     * snapshot
+     * @param in  the snapshot stream
+     * @throws IOException  if the state can't be read
+     * @throws ClassNotFoundException  if the class of a saved object is
+     *         not found
+     * @pre in != null
+     * @post $none
+     */
+    public void restoreState(ObjectInputStream in)
+                throws IOException, ClassNotFoundException
+    {
+        forwardTable = (Hashtable) in.readObject();
+        schedTable = (Hashtable) in.readObject();
+        routeCache.clear();     // the schedulers have been replaced
+    }
+
     /**
      * Joins two routers with a Link.
      * @param router    The router on the other side to which this one will
@@ -190,6 +229,7 @@ public class RIPRouter extends Router
         }
 
         linkTable.put(router.get_name(), link.get_name());
+        routeCache.clear();
 
         if (!schedTable.containsKey( link.get_name()) ) {
             schedTable.put(link.get_name(), sched);
@@ -246,6 +286,7 @@ public class RIPRouter extends Router
         sched.setBaudRate( link.getBaudRate() );
         link.attach(this, entity);
         linkTable.put( entity.get_name(), link.get_name() );
+        routeCache.clear();
 
         if (!schedTable.containsKey( link.get_name() )) {
             schedTable.put(link.get_name(), sched);
@@ -300,7 +341,8 @@ public class RIPRouter extends Router
     /**
      * Processes incoming network packets, one at a time.
      * The incoming packet will be split up into smaller pieces if
-     * the packet size > MTU of the other end.
+     * the packet size > MTU of the other end. If the packet scheduler takes
+     * packet trains, the empty pieces are queued as one {@link PacketTrain}.
      *
      * @param ev    a Sim_event object
      * @pre ev != null
@@ -310,7 +352,7 @@ public class RIPRouter extends Router
     {
         double nextTime = 0;
         Packet pkt = (Packet) ev.get_data();
-        PacketScheduler sched = getScheduler(pkt);
+        PacketScheduler sched = findRoute( pkt.getDestID() );
 
         // if a packet scheduler is not found, then try reschedule this packet
         // in the future
@@ -333,9 +375,7 @@ public class RIPRouter extends Router
         }
 
         // check downlink MTU, and split accordingly
-        String linkName = getLinkName( pkt.getDestID() );
-        Link downLink = (Link) Sim_system.get_entity(linkName);
-        int MTU = downLink.getMTU();
+        int MTU = routeCache.getMTU( pkt.getDestID() );
         int numPackets = (int) Math.ceil(pkt.getSize() / (MTU * 1.0));
 
         // if no packets at the moment
@@ -361,17 +401,33 @@ public class RIPRouter extends Router
 
         // break a large packet into smaller ones that fit into MTU
         // by making null or empty packets except for the last one
-        for (int i = 0; i < numPackets - 1; i++)
+        if (numPackets > 2 && GridSim.isPacketTrainEnabled() &&
+            PacketTrain.isAccepted(sched))
         {
-            NetPacket np = new NetPacket(null, pkt.getID(), MTU, tag,
-                                         pkt.getSrcID(), pkt.getDestID(),
-                                         pkt.getNetServiceType(),i+1,numPackets);
+            PacketTrain train = new PacketTrain(pkt.getID(), 0, MTU, tag,
+                    pkt.getSrcID(), pkt.getDestID(), pkt.getNetServiceType(),
+                    numPackets - 1, numPackets);
 
-            np.setLast(id);
+            train.setLast(id);
             if (super.reportWriter_ != null) {
-                super.write("enqueing, " + np);
+                super.write("enqueing, " + train);
+            }
+            sched.enque(train);  // put the packets into the scheduler
+        }
+        else
+        {
+            for (int i = 0; i < numPackets - 1; i++)
+            {
+                NetPacket np = new NetPacket(null, pkt.getID(), MTU, tag,
+                                    pkt.getSrcID(), pkt.getDestID(),
+                                    pkt.getNetServiceType(),i+1,numPackets);
+
+                np.setLast(id);
+                if (super.reportWriter_ != null) {
+                    super.write("enqueing, " + np);
+                }
+                sched.enque(np);  // put the packet into the scheduler
             }
-            sched.enque(np);  // put the packet into the scheduler
         }
 
         // put the actual packet into the last one and resize it accordingly
@@ -383,6 +439,33 @@ public class RIPRouter extends Router
         sched.enque(pkt);  // put the packet into the scheduler
     }
 
+    /**
+     * Finds the route to a destination. The route is looked up in the
+     * routing tables once, and then kept in a {@link RouteCache} until the
+     * tables change.
+     * @param destID    a destination id
+     * @return the packet scheduler or <tt>null</tt> if no route is found
+     * @pre destID > 0
+     * @post $none
+     */
+    private synchronized PacketScheduler findRoute(int destID)
+    {
+        PacketScheduler sched = routeCache.getScheduler(destID);
+        if (sched != null) {
+            return sched;
+        }
+
+        String destName = GridSim.getEntityRegistry().getEntityName(destID);
+        sched = getScheduler(destName);
+        if (sched != null)
+        {
+            Link link = (Link) GridSim.getEntity( getLinkName(destID) );
+            routeCache.put(destID, sched, link);
+        }
+
+        return sched;
+    }
+
     /**
      * Gets the link's name for a given id
      * @param destID    a destination id
@@ -392,18 +475,20 @@ public class RIPRouter extends Router
      */
     private synchronized String getLinkName(int destID)
     {
-        String destName = GridSim.getEntityName(destID);
-        String linkName = null;
+        String destName = GridSim.getEntityRegistry().getEntityName(destID);
 
-        //directly connected
-        if (hostTable.containsValue(destName)) {
-            linkName = (String)linkTable.get(destName);
-        }
-        else
+        //directly connected, since only attached entities are in linkTable
+        String linkName = (String) linkTable.get(destName);
+        if (linkName == null)
         {
             // need to forward to another router
-            Object[] data = (Object[]) forwardTable.get(destName);
-            String router = (String) data[0];
+            String router = super.getNextRouter(destName);
+            if (router == null)
+            {
+                Object[] data = (Object[]) forwardTable.get(destName);
+                router = (String) data[0];
+            }
+
             linkName = (String) linkTable.get(router);
         }
 
@@ -468,23 +553,28 @@ public class RIPRouter extends Router
         PacketScheduler sched = null;
         try
         {
-            if ( hostTable.containsValue(dest) )
+            String linkName = (String) linkTable.get(dest);
+            if (linkName != null)   // directly connected
             {
-                String linkName = (String) linkTable.get(dest);
                 sched = (PacketScheduler) schedTable.get(linkName);
             }
             else
             {
                 // need to forward to another router
-                Object[] data = (Object[]) forwardTable.get(dest);
+                String router = super.getNextRouter(dest);
+                if (router == null)
+                {
+                    Object[] data = (Object[]) forwardTable.get(dest);
+
+                    // in case the forwarding table is incomplete
+                    if (data == null) {
+                        return null;
+                    }
 
-                // in case the forwarding table is incomplete
-                if (data == null) {
-                    return null;
+                    router = (String) data[0];
                 }
 
-                String router = (String) data[0];
-                String linkName = (String) linkTable.get(router);
+                linkName = (String) linkTable.get(router);
                 sched = (PacketScheduler) schedTable.get(linkName);
             }
         }
@@ -533,10 +623,27 @@ public class RIPRouter extends Router
             tag = GridSimTags.JUNK_PKT;
         }
 
-        // sends the packet via the link
-        String linkName = getLinkName( np.getDestID() );
-        super.sim_schedule(GridSim.getEntityId(linkName),
-                           GridSimTags.SCHEDULE_NOW, tag, np);
+        // sends the packet via the link of the scheduler. This is the
+        // cached route, unless the route has changed since it was queued
+        int destID = np.getDestID();
+        int linkID = -1;
+        if (findRoute(destID) == sched) {
+            linkID = routeCache.getLinkID(destID);
+        }
+        else {
+            linkID = getLinkID(sched);
+        }
+
+        if (linkID < 0)
+        {
+            System.out.println(super.get_name() + ".dequeue(): Warning - " +
+                "can't find the link of " + sched.getSchedName() + " for " +
+                np);
+            System.out.println("-> This packet is dropped.");
+        }
+        else {
+            ((Link) GridSim.getEntity(linkID)).transmit(this, tag, np);
+        }
 
         // process the next packet in the scheduler
         if ( !sched.isEmpty() )
@@ -546,6 +653,29 @@ public class RIPRouter extends Router
         }
     }
 
+    /**
+     * Gets the link behind a packet scheduler, i.e. the link where the
+     * packets queued in the scheduler are sent
+     * @param sched  a packet scheduler of this router
+     * @return the link entity ID or <tt>-1</tt> if the scheduler is not
+     *         attached to a link
+     * @pre sched != null
+     * @post $none
+     */
+    private int getLinkID(PacketScheduler sched)
+    {
+        Enumeration names = schedTable.keys();
+        while ( names.hasMoreElements() )
+        {
+            String linkName = (String) names.nextElement();
+            if (schedTable.get(linkName) == sched) {
+                return GridSim.getEntityId(linkName);
+            }
+        }
+
+        return -1;
+    }
+
     /**
      * Sends an internal event to itself
      * @param time  the delay time period
@@ -591,6 +721,7 @@ public class RIPRouter extends Router
                 System.out.println(host + "\t\t" + nextHop);
             }
 
+            super.printStaticRoutes();
             System.out.println("-------------------------------------");
             System.out.println();
         }
@@ -616,7 +747,7 @@ public class RIPRouter extends Router
             if (super.reportWriter_ != null) {
                 super.write("advertise to router, " + router);
             }
-            sim_schedule(Sim_system.get_entity_id(router),
+            sim_schedule(GridSim.getEntityId(router),
                          GridSimTags.SCHEDULE_NOW, GridSimTags.ROUTER_AD, ad);
         }
 
@@ -670,6 +801,7 @@ public class RIPRouter extends Router
                 {
                     Object[] toPut = { sender, new Integer(ad.getHopCount()) };
                     forwardTable.put(host, toPut);
+                    routeCache.clear();     // a shorter route is found
                 }
             }
             else
@@ -703,7 +835,7 @@ public class RIPRouter extends Router
             String router = (String)routers.nextElement();
             if (!router.equals(sender))
             {
-                sim_schedule(Sim_system.get_entity_id(router),
+                sim_schedule(GridSim.getEntityId(router),
                       GridSimTags.SCHEDULE_NOW, GridSimTags.ROUTER_AD, newad);
             }
         }
@@ -310,7 +310,11 @@ public class RateControlledRouter extends Router
     {
         double nextTime = 0;
         Packet pkt = (Packet) ev.get_data();
-        PacketScheduler sched = getScheduler(pkt);
+        // a static route is kept by destination ID, so no names are looked up
+        PacketScheduler sched = super.getStaticScheduler( pkt.getDestID() );
+        if (sched == null) {
+            sched = getScheduler(pkt);
+        }
 
         // if a packet scheduler is not found, then try reschedule this packet
         // in the future
@@ -332,9 +336,13 @@ public class RateControlledRouter extends Router
         }
 
         // check downlink MTU, and split accordingly
-        String linkName = getLinkName( pkt.getDestID() );
-        Link downLink = (Link) Sim_system.get_entity(linkName);
-        int MTU = downLink.getMTU();
+        int MTU = super.getStaticMTU( pkt.getDestID() );
+        if (MTU < 0)
+        {
+            String linkName = getLinkName( pkt.getDestID() );
+            Link downLink = (Link) GridSim.getEntity(linkName);
+            MTU = downLink.getMTU();
+        }
         int numPackets = (int) Math.ceil(pkt.getSize() / (MTU * 1.0));
 
         // log / record ....
@@ -382,18 +390,20 @@ public class RateControlledRouter extends Router
      */
     private synchronized String getLinkName(int destID)
     {
-        String destName = GridSim.getEntityName(destID);
-        String linkName = null;
+        String destName = GridSim.getEntityRegistry().getEntityName(destID);
 
-        //directly connected
-        if (hostTable_.containsValue(destName)) {
-            linkName = (String)linkTable_.get(destName);
-        }
-        else
+        //directly connected, since only attached entities are in linkTable_
+        String linkName = (String) linkTable_.get(destName);
+        if (linkName == null)
         {
             // need to forward to another router
-            Object[] data = (Object[]) forwardTable_.get(destName);
-            String router = (String) data[0];
+            String router = super.getNextRouter(destName);
+            if (router == null)
+            {
+                Object[] data = (Object[]) forwardTable_.get(destName);
+                router = (String) data[0];
+            }
+
             linkName = (String) linkTable_.get(router);
         }
 
@@ -458,23 +468,28 @@ public class RateControlledRouter extends Router
         PacketScheduler sched = null;
         try
         {
-            if ( hostTable_.containsValue(dest) )
+            String linkName = (String) linkTable_.get(dest);
+            if (linkName != null)   // directly connected
             {
-                String linkName = (String) linkTable_.get(dest);
                 sched = (PacketScheduler) schedTable_.get(linkName);
             }
             else
             {
                 // need to forward to another router
-                Object[] data = (Object[]) forwardTable_.get(dest);
+                String router = super.getNextRouter(dest);
+                if (router == null)
+                {
+                    Object[] data = (Object[]) forwardTable_.get(dest);
 
-                // in case the forwarding table is incomplete
-                if (data == null) {
-                    return null;
+                    // in case the forwarding table is incomplete
+                    if (data == null) {
+                        return null;
+                    }
+
+                    router = (String) data[0];
                 }
 
-                String router = (String) data[0];
-                String linkName = (String) linkTable_.get(router);
+                linkName = (String) linkTable_.get(router);
                 sched = (PacketScheduler) schedTable_.get(linkName);
             }
         }
@@ -514,9 +529,11 @@ public class RateControlledRouter extends Router
         }
 
         // sends the packet via the link
-        String linkName = getLinkName( np.getDestID() );
-        super.sim_schedule(GridSim.getEntityId(linkName),
-                           GridSimTags.SCHEDULE_NOW, tag, np);
+        int linkID = super.getStaticLinkID( np.getDestID() );
+        if (linkID < 0) {
+            linkID = GridSim.getEntityId( getLinkName(np.getDestID()) );
+        }
+        ((Link) GridSim.getEntity(linkID)).transmit(this, tag, np);
     }
 
     /**
@@ -546,6 +563,7 @@ public class RateControlledRouter extends Router
                 System.out.println(host + "\t\t" + nextHop);
             }
 
+            super.printStaticRoutes();
             System.out.println("-------------------------------------");
             System.out.println();
         }
@@ -572,7 +590,7 @@ public class RateControlledRouter extends Router
                 super.write("advertise to router, " + router);
             }
 
-            sim_schedule(Sim_system.get_entity_id(router),
+            sim_schedule(GridSim.getEntityId(router),
                          GridSimTags.SCHEDULE_NOW, GridSimTags.ROUTER_AD, ad);
         }
 
@@ -658,7 +676,7 @@ public class RateControlledRouter extends Router
             String router = (String)routers.nextElement();
             if (!router.equals(sender))
             {
-                sim_schedule(Sim_system.get_entity_id(router),
+                sim_schedule(GridSim.getEntityId(router),
                       GridSimTags.SCHEDULE_NOW, GridSimTags.ROUTER_AD, newad);
             }
         }
@@ -18,6 +18,7 @@ package gridsim.net;
 
 import gridsim.net.*;
 import eduni.simjava.*;
+import gridsim.kernel.KernelEntity;
 import gridsim.*;
 import java.util.*;
 
@@ -40,7 +41,7 @@ import java.util.*;
  * @since  GridSim Toolkit 4.0
  * @invariant $none
  */
-public class RateControlledScheduler extends Sim_entity
+public class RateControlledScheduler extends KernelEntity
                                      implements PacketScheduler
 {
     private double baudRate_;       // baud rate of a link
@@ -216,7 +217,7 @@ public class RateControlledScheduler extends Sim_entity
     public void body()
     {
         Sim_event ev = new Sim_event();
-        while ( Sim_system.running() )
+        while ( GridSim.isSimulationRunning() )
         {
             super.sim_get_next(ev);     // get the incoming event
 
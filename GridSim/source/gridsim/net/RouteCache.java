@@ -0,0 +1,152 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.net;
+
+
+/**
+ * RouteCache keeps the route of a router to each destination in arrays
+ * indexed by the destination entity ID, i.e. the packet scheduler of the
+ * egress port, together with the MTU and entity ID of the link behind
+ * it. A router looks up a destination by name in its routing tables once,
+ * and then forwards the following packets with a few array loads.
+ * <p>
+ * A route is only valid as long as the routing tables of the router don't
+ * change. Hence, the router has to call {@link #clear()} whenever a host
+ * or router is attached or its forwarding table is updated.
+ *
+ * @since GridSim Toolkit 5.2
+ * @invariant $none
+ */
+public final class RouteCache
+{
+    private static final int INITIAL_SIZE = 64;
+
+    private PacketScheduler[] scheds_;  // egress scheduler by destination
+    private int[] mtus_;                // MTU of the link by destination
+    private int[] linkIds_;             // link entity ID by destination
+    private int count_;                 // number of cached routes
+
+
+    /**
+     * Allocates a new empty cache
+     * @pre $none
+     * @post $none
+     */
+    public RouteCache()
+    {
+        scheds_ = new PacketScheduler[INITIAL_SIZE];
+        mtus_ = new int[INITIAL_SIZE];
+        linkIds_ = new int[INITIAL_SIZE];
+        count_ = 0;
+    }
+
+    /**
+     * Gets the packet scheduler used to reach a destination
+     * @param destID  the destination entity ID
+     * @return the packet scheduler or <tt>null</tt> if the route of this
+     *         destination is not cached
+     * @pre $none
+     * @post $none
+     */
+    public PacketScheduler getScheduler(int destID)
+    {
+        if (destID < 0 || destID >= scheds_.length) {
+            return null;
+        }
+
+        return scheds_[destID];
+    }
+
+    /**
+     * Gets the MTU of the link used to reach a destination
+     * @param destID  the destination entity ID
+     * @return the MTU in bytes
+     * @pre getScheduler(destID) != null
+     * @post $none
+     */
+    public int getMTU(int destID) {
+        return mtus_[destID];
+    }
+
+    /**
+     * Gets the entity ID of the link used to reach a destination
+     * @param destID  the destination entity ID
+     * @return the link entity ID
+     * @pre getScheduler(destID) != null
+     * @post $none
+     */
+    public int getLinkID(int destID) {
+        return linkIds_[destID];
+    }
+
+    /**
+     * Stores the route to a destination
+     * @param destID  the destination entity ID
+     * @param sched   the packet scheduler of the egress port
+     * @param link    the link behind the egress port
+     * @return <tt>true</tt> if successful, <tt>false</tt> otherwise
+     * @pre destID >= 0
+     * @pre sched != null
+     * @pre link != null
+     * @post $none
+     */
+    public boolean put(int destID, PacketScheduler sched, Link link)
+    {
+        if (destID < 0 || sched == null || link == null) {
+            return false;
+        }
+
+        if (destID >= scheds_.length)
+        {
+            int length = Math.max(destID + 1, scheds_.length * 2);
+            PacketScheduler[] scheds = new PacketScheduler[length];
+            int[] mtus = new int[length];
+            int[] linkIds = new int[length];
+
+            System.arraycopy(scheds_, 0, scheds, 0, scheds_.length);
+            System.arraycopy(mtus_, 0, mtus, 0, mtus_.length);
+            System.arraycopy(linkIds_, 0, linkIds, 0, linkIds_.length);
+
+            scheds_ = scheds;
+            mtus_ = mtus;
+            linkIds_ = linkIds;
+        }
+
+        if (scheds_[destID] == null) {
+            count_++;
+        }
+
+        scheds_[destID] = sched;
+        mtus_[destID] = link.getMTU();
+        linkIds_[destID] = link.get_id();
+        return true;
+    }
+
+    /**
+     * Removes all routes, e.g. after the routing tables have changed
+     * @pre $none
+     * @post $none
+     */
+    public void clear()
+    {
+        if (count_ == 0) {
+            return;
+        }
+
+        for (int i = 0; i < scheds_.length; i++)
+        {
+            scheds_[i] = null;
+            mtus_[i] = 0;
+            linkIds_[i] = 0;
+        }
+
+        count_ = 0;
+    }
+
+} // end class
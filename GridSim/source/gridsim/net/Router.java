@@ -17,6 +17,7 @@
 package gridsim.net;
 
 import eduni.simjava.*;
+import gridsim.kernel.KernelEntity;
 import gridsim.*;
 import gridsim.util.SimReport;
 import java.util.*;
@@ -57,7 +58,7 @@ import java.util.*;
  * @since GridSim Toolkit 3.1
  * @author Gokul Poduval & Chen-Khong Tham, National University of Singapore
  */
-public abstract class Router extends Sim_entity
+public abstract class Router extends KernelEntity
 {
     /** An attribute that denotes the maximum number of hopcount used for 
      * advertising adjacent routers. The default value is 15.
@@ -75,6 +76,11 @@ public abstract class Router extends Sim_entity
     /** Denotes a time delay (in second) for sending events in the future. */
     protected static int DELAY = 2;  // in seconds
 
+    private StaticRoutes routes_;   // precomputed routes, if any
+    private int[] nextHops_;        // next router for each destination router
+    private int index_;             // position of this router in the routes
+    private RouteCache staticTable_;    // static route by destination ID
+
 
     /**
      *Creates a new RIPRouter object. By default, <b>no recording or logging</b>
@@ -238,6 +244,7 @@ public abstract class Router extends Sim_entity
      * <li>must overridden {@link #advertiseHosts()} method. It is
      *     needed for advertising all hosts or
      *     entities connected to this entity to adjacent routers.
+     *     It is not called if static routes have been installed.
      * <li> {@link #registerOtherEntity()} method : for registering other
      *      event type/tag to {@link gridsim.GridInformationService}.
      *      This is optional.
@@ -250,20 +257,27 @@ public abstract class Router extends Sim_entity
      */
     public void body()
     {
-        //register oneself
-        write("register this entity to GridInformationService entity.");
-        super.sim_schedule(GridSim.getGridInfoServiceEntityId(),
-                GridSimTags.SCHEDULE_NOW, GridSimTags.REGISTER_ROUTER,
-                new Integer(super.get_id()) );
+        // a router restored from a snapshot has already done all of this
+        if ( !super.isRestored() )
+        {
+            //register oneself
+            write("register this entity to GridInformationService entity.");
+            super.sim_schedule(GridSim.getGridInfoServiceEntityId(),
+                    GridSimTags.SCHEDULE_NOW, GridSimTags.REGISTER_ROUTER,
+                    Integer.valueOf(super.get_id()) );
 
-        // methods to be overriden by children classes
-        advertiseHosts();
-        registerOtherEntity();
-        sendInitialEvent();
+            // methods to be overriden by children classes. A router with
+            // static routes already knows where to forward packets.
+            if (routes_ == null) {
+                advertiseHosts();
+            }
+            registerOtherEntity();
+            sendInitialEvent();
+        }
 
         // Process incoming events
         Sim_event ev = new Sim_event();
-        while ( Sim_system.running() )
+        while ( GridSim.isSimulationRunning() )
         {
             //Sim_event ev = new Sim_event();
             super.sim_get_next(ev);
@@ -294,6 +308,215 @@ public abstract class Router extends Sim_entity
      */
     protected abstract void advertiseHosts();
 
+    /**
+     * Installs the static routes of this router
+     * @param routes    the routes of all routers
+     * @param nextHops  the position of the next router for each destination
+     *                  router, or <tt>-1</tt> if it can't be reached
+     * @param index     the position of this router
+     * @see gridsim.net.StaticRoutes#install()
+     * @pre routes != null
+     * @pre nextHops != null
+     * @pre index >= 0
+     * @post $none
+     */
+    void setStaticRoutes(StaticRoutes routes, int[] nextHops, int index)
+    {
+        routes_ = routes;
+        nextHops_ = nextHops;
+        index_ = index;
+        staticTable_ = new RouteCache();
+    }
+
+    /**
+     * Checks whether static routes have been installed in this router
+     * @return <tt>true</tt> if they have, <tt>false</tt> otherwise
+     * @see gridsim.net.StaticRoutes
+     * @pre $none
+     * @post $none
+     */
+    protected boolean hasStaticRoutes() {
+        return routes_ != null;
+    }
+
+    /**
+     * Gets the packet scheduler on the static route to a destination.
+     * The route to each destination is found once and then kept in an
+     * array indexed by its ID, so that forwarding a packet doesn't look up
+     * any names.
+     * @param destID  the entity ID of a router or host
+     * @return the packet scheduler or <tt>null</tt> if no static routes
+     *         have been installed or the destination can't be reached
+     * @see #getStaticLinkID(int)
+     * @pre destID >= 0
+     * @post $none
+     */
+    protected PacketScheduler getStaticScheduler(int destID)
+    {
+        if (routes_ == null) {
+            return null;
+        }
+
+        PacketScheduler sched = staticTable_.getScheduler(destID);
+        if (sched == null && findStaticRoute(destID) == true) {
+            sched = staticTable_.getScheduler(destID);
+        }
+
+        return sched;
+    }
+
+    /**
+     * Gets the MTU of the link on the static route to a destination
+     * @param destID  the entity ID of a router or host
+     * @return the MTU or <tt>-1</tt> if no route has been found by
+     *         {@link #getStaticScheduler(int)}
+     * @pre destID >= 0
+     * @post $none
+     */
+    protected int getStaticMTU(int destID)
+    {
+        if (routes_ == null || staticTable_.getScheduler(destID) == null) {
+            return -1;
+        }
+        return staticTable_.getMTU(destID);
+    }
+
+    /**
+     * Gets the entity ID of the link on the static route to a destination
+     * @param destID  the entity ID of a router or host
+     * @return the link ID or <tt>-1</tt> if no route has been found by
+     *         {@link #getStaticScheduler(int)}
+     * @pre destID >= 0
+     * @post $none
+     */
+    protected int getStaticLinkID(int destID)
+    {
+        if (routes_ == null || staticTable_.getScheduler(destID) == null) {
+            return -1;
+        }
+        return staticTable_.getLinkID(destID);
+    }
+
+    /**
+     * Finds the packet scheduler and link of the static route to a
+     * destination and keeps them. A destination that can't be reached is
+     * not kept, since its host may be attached later on.
+     * @param destID  the entity ID of a router or host
+     * @return <tt>true</tt> if a route has been found, <tt>false</tt>
+     *         otherwise
+     * @pre destID >= 0
+     * @post $none
+     */
+    private boolean findStaticRoute(int destID)
+    {
+        String dest = GridSim.getEntityName(destID);
+        if (dest == null) {
+            return false;
+        }
+
+        int index = routes_.getRouterIndex(dest);
+        if (index < 0 || nextHops_[index] < 0) {
+            return false;
+        }
+
+        // a host attached to this router or the next router on the way
+        String hop = null;
+        Link link = null;
+        int next = nextHops_[index];
+        if (next == index_)
+        {
+            Object obj = GridSim.getEntity(destID);
+            if (obj instanceof GridSimCore)
+            {
+                hop = dest;
+                link = ((GridSimCore) obj).getLink();
+            }
+        }
+        else
+        {
+            hop = routes_.getRouter(next).get_name();
+            link = routes_.getLink(index_, next);
+        }
+
+        if (hop == null || link == null) {
+            return false;
+        }
+
+        PacketScheduler sched = getScheduler(hop);
+        if (sched == null) {
+            return false;
+        }
+
+        return staticTable_.put(destID, sched, link);
+    }
+
+    /**
+     * Gets the next router on the static route to a destination
+     * @param dest  the name of a router or host
+     * @return the name of the next router or <tt>null</tt> if no static
+     *         routes have been installed or the destination can't be reached
+     * @see gridsim.net.StaticRoutes
+     * @pre dest != null
+     * @post $none
+     */
+    protected String getNextRouter(String dest)
+    {
+        if (routes_ == null) {
+            return null;
+        }
+
+        int index = routes_.getRouterIndex(dest);
+        if (index < 0 || nextHops_[index] < 0) {
+            return null;
+        }
+
+        return routes_.getRouter( nextHops_[index] ).get_name();
+    }
+
+    /**
+     * Prints the static routes to the routers that are not adjacent to
+     * this one and to the hosts that are not attached to this one, if any,
+     * in the same layout as {@link #printRoutingTable()}
+     * @pre $none
+     * @post $none
+     */
+    protected void printStaticRoutes()
+    {
+        if (routes_ == null) {
+            return;
+        }
+
+        for (int i = 0; i < nextHops_.length; i++)
+        {
+            // skip this router, adjacent routers and unreachable ones
+            int next = nextHops_[i];
+            if (next < 0 || next == i) {
+                continue;
+            }
+
+            System.out.println(routes_.getRouter(i).get_name() + "\t\t" +
+                               routes_.getRouter(next).get_name());
+        }
+
+        EntityRegistry registry = GridSim.getEntityRegistry();
+        for (int id = 0; id < registry.size(); id++)
+        {
+            // skip routers and the hosts attached to this router
+            Sim_entity ent = registry.getEntity(id);
+            if ( !(ent instanceof GridSimCore) || ent instanceof Router ) {
+                continue;
+            }
+
+            int index = routes_.getRouterIndex( ent.get_name() );
+            if (index < 0 || index == index_ || nextHops_[index] < 0) {
+                continue;
+            }
+
+            System.out.println(ent.get_name() + "\t\t" +
+                    routes_.getRouter( nextHops_[index] ).get_name());
+        }
+    }
+
     /**
      * Overrides this method when creating a new type of router.
      * This method is called by {@link #body()} for incoming unknown tags.
@@ -0,0 +1,544 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.net;
+
+import gridsim.AllocPolicy;
+import gridsim.EntityRegistry;
+import gridsim.GridResource;
+import gridsim.GridSim;
+import gridsim.GridSimRandom;
+import gridsim.kernel.KernelEntity;
+import gridsim.kernel.Partitioner;
+import java.util.ArrayList;
+import java.util.LinkedList;
+
+/**
+ * Splits a network topology into logical processes for a parallel run of
+ * the {@link gridsim.kernel.EventLoopKernel}, by router subtree.
+ * <p>
+ * The routers are first arranged into spanning trees, following the links
+ * between them. The subtrees below each root are then spread over the
+ * partitions, largest first, so that every partition gets a similar number
+ * of routers. The links and the packet schedulers that are entities follow
+ * their router. So do the {@link gridsim.GridResource} entities attached to
+ * a router, together with their <tt>Input</tt> and <tt>Output</tt> entities
+ * and their allocation policy, if the factors of
+ * {@link gridsim.GridSimRandom} are zero. These entities only draw random
+ * numbers when talking to the GIS, and such numbers then have no effect.
+ * <p>
+ * All other entities, such as users and the GIS, are kept in partition 0.
+ * Routers attached to links that are not {@link SimpleLink} objects, such
+ * as the links of the flow network, also stay in partition 0.
+ * <p>
+ * The links and resources of the <tt>gridsim.net</tt> and <tt>gridsim</tt>
+ * packages only exchange events through links after the simulation has
+ * started. So do the routers of the <tt>gridsim.net</tt> package that have
+ * static routes, whereas the other routers send their advertisements to
+ * the adjacent routers directly. The other entities may send zero-delay
+ * events to any entity, e.g. the GIS. Hence, only the latter routers and
+ * entities are synchronous. A {@link SimpleLink} lets a packet enter it half of its
+ * propagation delay after the packet has been sent, and delivers it at
+ * least that long after it has entered, so the lookahead is half of the
+ * smallest propagation delay of the links between partitions or to
+ * synchronous entities.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.kernel.EventLoopKernel#setPartitions(int, Partitioner)
+ * @invariant $none
+ */
+public class RouterPartitioner implements Partitioner
+{
+    // keeps the lookahead below the link delays despite rounding errors
+    private static final double LOOKAHEAD_MARGIN = 0.999;
+
+    /**
+     * Allocates a new partitioner
+     * @pre $none
+     * @post $none
+     */
+    public RouterPartitioner() {
+        // empty
+    }
+
+    /**
+     * Assigns every entity to a partition
+     * @param entities  all entities, indexed by their id
+     * @param count     the maximum number of partitions
+     * @return the partition number of every entity, indexed by entity id
+     * @pre entities != null
+     * @pre count > 0
+     * @post $result != null
+     */
+    public int[] partition(KernelEntity[] entities, int count)
+    {
+        int[] part = new int[entities.length];
+        if (count < 2) {
+            return part;
+        }
+
+        // find the routers that can be moved, and the links between them
+        boolean[] movable = findMovable(entities);
+        ArrayList<ArrayList<Integer>> neighbours =
+                new ArrayList<ArrayList<Integer>>(entities.length);
+        for (int i = 0; i < entities.length; i++) {
+            neighbours.add(null);
+        }
+
+        for (int i = 0; i < entities.length; i++)
+        {
+            if ( !(entities[i] instanceof SimpleLink) ) {
+                continue;
+            }
+
+            Link link = (Link) entities[i];
+            int end1 = link.getEnd1();
+            int end2 = link.getEnd2();
+            if ( isRouter(entities, end1) && isRouter(entities, end2) )
+            {
+                addNeighbour(neighbours, end1, end2);
+                addNeighbour(neighbours, end2, end1);
+            }
+        }
+
+        // split the router trees into subtrees and spread them
+        int[] load = new int[count];
+        int[] parent = new int[entities.length];
+        boolean[] visited = new boolean[entities.length];
+        for (int root = 0; root < entities.length; root++)
+        {
+            if (!movable[root] || visited[root]) {
+                continue;
+            }
+
+            ArrayList<Integer> order = spanningTree(root, movable, neighbours,
+                                                    visited, parent);
+            assignTree(order, root, parent, part, load);
+        }
+
+        // links and schedulers follow their router
+        for (int i = 0; i < entities.length; i++)
+        {
+            if (entities[i] instanceof SimpleLink)
+            {
+                Link link = (Link) entities[i];
+                int end = isRouter(entities, link.getEnd1()) ?
+                          link.getEnd1() : link.getEnd2();
+                if (end >= 0 && movable[end]) {
+                    part[i] = part[end];
+                }
+            }
+            else if (entities[i] instanceof PacketScheduler)
+            {
+                int router = ((PacketScheduler) entities[i]).getRouterID();
+                if (router >= 0 && router < entities.length && movable[router]) {
+                    part[i] = part[router];
+                }
+            }
+        }
+
+        // resources follow their router
+        int[] router = findResourceRouters(entities, movable);
+        for (int i = 0; i < entities.length; i++)
+        {
+            if (router[i] >= 0) {
+                part[i] = part[ router[i] ];
+            }
+        }
+
+        return part;
+    }
+
+    /**
+     * Finds the synchronous entities and the lookahead of a partitioning
+     * @param entities     all entities, indexed by their id
+     * @param part         the partition number of every entity
+     * @param synchronous  filled with <tt>true</tt> for every synchronous
+     *                     entity
+     * @return half of the smallest propagation delay of the links between
+     *         partitions or to synchronous entities, or 0 if there is none
+     * @pre entities != null && part != null && synchronous != null
+     * @post $result >= 0.0
+     */
+    public double getLookahead(KernelEntity[] entities, int[] part,
+                               boolean[] synchronous)
+    {
+        boolean[] movable = findMovable(entities);
+        int[] router = findResourceRouters(entities, movable);
+        for (int i = 0; i < entities.length; i++) {
+            synchronous[i] = true;
+        }
+
+        for (int i = 0; i < entities.length; i++)
+        {
+            if (entities[i] instanceof SimpleLink || router[i] >= 0) {
+                synchronous[i] = false;
+            }
+            else if (movable[i] && isNetworkEntity(entities[i]) &&
+                     ((Router) entities[i]).hasStaticRoutes()) {
+                synchronous[i] = false;
+            }
+        }
+
+        // schedulers are synchronous unless their router isn't
+        for (int i = 0; i < entities.length; i++)
+        {
+            if (entities[i] instanceof PacketScheduler &&
+                isNetworkEntity(entities[i]))
+            {
+                int id = ((PacketScheduler) entities[i]).getRouterID();
+                if (id >= 0 && id < entities.length && movable[id]) {
+                    synchronous[i] = synchronous[id];
+                }
+            }
+        }
+
+        double lookahead = Double.MAX_VALUE;
+        for (int i = 0; i < entities.length; i++)
+        {
+            if ( !(entities[i] instanceof SimpleLink) ) {
+                continue;
+            }
+
+            SimpleLink link = (SimpleLink) entities[i];
+            if ( isCut(link.getEnd1(), i, part, synchronous) ||
+                 isCut(link.getEnd2(), i, part, synchronous) ) {
+                lookahead = Math.min(lookahead, link.getEntryDelay());
+            }
+        }
+
+        if (lookahead == Double.MAX_VALUE) {
+            return 0.0;
+        }
+        return lookahead * LOOKAHEAD_MARGIN;
+    }
+
+    /**
+     * Finds the routers that can be moved to another partition, i.e. the
+     * ones only attached to {@link SimpleLink} objects
+     * @param entities  all entities
+     * @return which entities are movable routers
+     * @pre entities != null
+     * @post $result != null
+     */
+    private boolean[] findMovable(KernelEntity[] entities)
+    {
+        boolean[] movable = new boolean[entities.length];
+        for (int i = 0; i < entities.length; i++) {
+            movable[i] = (entities[i] instanceof Router);
+        }
+
+        for (int i = 0; i < entities.length; i++)
+        {
+            if ( entities[i] instanceof Link &&
+                 !(entities[i] instanceof SimpleLink) )
+            {
+                Link link = (Link) entities[i];
+                setFixed(movable, link.getEnd1());
+                setFixed(movable, link.getEnd2());
+            }
+        }
+        return movable;
+    }
+
+    /**
+     * Finds the resources that follow their router, together with their
+     * <tt>Input</tt> and <tt>Output</tt> entities and allocation policy.
+     * Only {@link gridsim.GridResource} entities whose policy belongs to
+     * the <tt>gridsim</tt> package are moved, and only if the factors of
+     * {@link gridsim.GridSimRandom} are zero.
+     * @param entities  all entities
+     * @param movable   which routers can be moved
+     * @return the router followed by each entity, or -1 if none
+     * @pre entities != null && movable != null
+     * @post $result != null
+     */
+    private int[] findResourceRouters(KernelEntity[] entities,
+                                      boolean[] movable)
+    {
+        int[] router = new int[entities.length];
+        for (int i = 0; i < entities.length; i++) {
+            router[i] = -1;
+        }
+
+        if ( GridSimRandom.hasFactors() ) {
+            return router;
+        }
+
+        EntityRegistry registry = GridSim.getEntityRegistry();
+        for (int i = 0; i < entities.length; i++)
+        {
+            if ( !(entities[i] instanceof SimpleLink) ) {
+                continue;
+            }
+
+            Link link = (Link) entities[i];
+            int end = link.getEnd1();
+            int res = link.getEnd2();
+            if ( !isRouter(entities, end) )
+            {
+                end = link.getEnd2();
+                res = link.getEnd1();
+            }
+
+            if (!isRouter(entities, end) || !movable[end] || res < 0 ||
+                res >= entities.length || entities[res] == null ||
+                entities[res].getClass() != GridResource.class) {
+                continue;
+            }
+
+            GridResource resource = (GridResource) entities[res];
+            AllocPolicy policy = resource.getAllocationPolicy();
+            int input = registry.getInputId(res);
+            int output = registry.getOutputId(res);
+            if (policy == null || policy.get_id() < 0 ||
+                policy.get_id() >= entities.length ||
+                policy.getClass().getPackage() !=
+                    GridResource.class.getPackage() ||
+                !isEntity(entities, input, Input.class) ||
+                !isEntity(entities, output, Output.class)) {
+                continue;
+            }
+
+            router[res] = end;
+            router[input] = end;
+            router[output] = end;
+            router[ policy.get_id() ] = end;
+        }
+
+        return router;
+    }
+
+    /**
+     * Checks whether an entity belongs to the <tt>gridsim.net</tt> package,
+     * whose routers and schedulers only send events to other entities
+     * through links once the simulation has started
+     * @param ent  the entity
+     * @return <tt>true</tt> if the class of the entity is in this package
+     * @pre ent != null
+     * @post $none
+     */
+    private boolean isNetworkEntity(KernelEntity ent) {
+        return ent.getClass().getPackage() == Router.class.getPackage();
+    }
+
+    /**
+     * Checks whether an entity has a given class
+     * @param entities  all entities
+     * @param id        the entity id
+     * @param type      the class
+     * @return <tt>true</tt> if the entity exists and has exactly this class
+     * @pre entities != null && type != null
+     * @post $none
+     */
+    private boolean isEntity(KernelEntity[] entities, int id, Class<?> type)
+    {
+        return id >= 0 && id < entities.length && entities[id] != null &&
+               entities[id].getClass() == type;
+    }
+
+    /**
+     * Checks whether one end of a link exchanges events with the link
+     * across partitions, or is synchronous
+     * @param end          the entity at one end of the link
+     * @param link         the link id
+     * @param part         the partition number of every entity
+     * @param synchronous  which entities are synchronous
+     * @return <tt>true</tt> if the link delay bounds the lookahead
+     * @pre part != null && synchronous != null
+     * @post $none
+     */
+    private boolean isCut(int end, int link, int[] part,
+                          boolean[] synchronous)
+    {
+        if (end < 0 || end >= part.length) {
+            return false;
+        }
+        return part[end] != part[link] || synchronous[end];
+    }
+
+    /**
+     * Builds a spanning tree of routers in breadth-first order
+     * @param root        the first router
+     * @param movable     which routers can be moved
+     * @param neighbours  the adjacent routers of each router
+     * @param visited     which routers already belong to a tree
+     * @param parent      filled with the parent of each router in the tree
+     * @return the routers of this tree, in breadth-first order
+     * @pre root >= 0
+     * @post $result != null
+     */
+    private ArrayList<Integer> spanningTree(int root, boolean[] movable,
+                ArrayList<ArrayList<Integer>> neighbours, boolean[] visited,
+                int[] parent)
+    {
+        ArrayList<Integer> order = new ArrayList<Integer>();
+        LinkedList<Integer> queue = new LinkedList<Integer>();
+        queue.add( Integer.valueOf(root) );
+        visited[root] = true;
+        parent[root] = -1;
+
+        while ( !queue.isEmpty() )
+        {
+            int router = queue.removeFirst().intValue();
+            order.add( Integer.valueOf(router) );
+            ArrayList<Integer> adjacent = neighbours.get(router);
+            if (adjacent == null) {
+                continue;
+            }
+
+            for (int i = 0; i < adjacent.size(); i++)
+            {
+                int next = adjacent.get(i).intValue();
+                if (movable[next] && !visited[next])
+                {
+                    visited[next] = true;
+                    parent[next] = router;
+                    queue.add( Integer.valueOf(next) );
+                }
+            }
+        }
+
+        return order;
+    }
+
+    /**
+     * Spreads the subtrees below the root of a tree over the partitions
+     * 1 to <tt>count - 1</tt>, largest first, and puts the root with its
+     * largest subtree
+     * @param order   the routers of the tree, in breadth-first order
+     * @param root    the root of the tree
+     * @param parent  the parent of each router in the tree
+     * @param part    filled with the partition of each router
+     * @param load    the number of routers in each partition
+     * @pre order != null
+     * @post $none
+     */
+    private void assignTree(ArrayList<Integer> order, int root, int[] parent,
+                            int[] part, int[] load)
+    {
+        // find the child of the root that each router descends from
+        int[] branch = new int[part.length];
+        int[] size = new int[part.length];
+        ArrayList<Integer> children = new ArrayList<Integer>();
+        for (int i = 1; i < order.size(); i++)
+        {
+            int router = order.get(i).intValue();
+            if (parent[router] == root)
+            {
+                branch[router] = router;
+                children.add( Integer.valueOf(router) );
+            }
+            else {
+                branch[router] = branch[ parent[router] ];
+            }
+            size[ branch[router] ]++;
+        }
+
+        // a single router forms its own subtree
+        if ( children.isEmpty() )
+        {
+            part[root] = leastLoaded(load);
+            load[ part[root] ]++;
+            return;
+        }
+
+        int largest = -1;
+        while ( !children.isEmpty() )
+        {
+            int index = 0;
+            for (int i = 1; i < children.size(); i++)
+            {
+                int child = children.get(i).intValue();
+                int best = children.get(index).intValue();
+                if (size[child] > size[best]) {
+                    index = i;
+                }
+            }
+
+            int child = children.remove(index).intValue();
+            part[child] = leastLoaded(load);
+            load[ part[child] ] += size[child];
+            if (largest == -1) {
+                largest = child;
+            }
+        }
+
+        for (int i = 1; i < order.size(); i++)
+        {
+            int router = order.get(i).intValue();
+            part[router] = part[ branch[router] ];
+        }
+
+        part[root] = part[largest];
+        load[ part[root] ]++;
+    }
+
+    /**
+     * Finds the partition with the fewest routers, excluding partition 0
+     * @param load  the number of routers in each partition
+     * @return the partition number
+     * @pre load != null && load.length > 1
+     * @post $result > 0
+     */
+    private int leastLoaded(int[] load)
+    {
+        int result = 1;
+        for (int i = 2; i < load.length; i++)
+        {
+            if (load[i] < load[result]) {
+                result = i;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether an entity is a router
+     * @param entities  all entities
+     * @param id        the entity id
+     * @return <tt>true</tt> if it is a router
+     * @pre entities != null
+     * @post $none
+     */
+    private boolean isRouter(KernelEntity[] entities, int id) {
+        return id >= 0 && id < entities.length && entities[id] instanceof Router;
+    }
+
+    /**
+     * Keeps an entity in partition 0
+     * @param movable  which routers can be moved
+     * @param id       the entity id
+     * @pre movable != null
+     * @post $none
+     */
+    private void setFixed(boolean[] movable, int id)
+    {
+        if (id >= 0 && id < movable.length) {
+            movable[id] = false;
+        }
+    }
+
+    /**
+     * Records that two routers are connected by a link
+     * @param neighbours  the adjacent routers of each router
+     * @param from        a router id
+     * @param to          another router id
+     * @pre neighbours != null
+     * @post $none
+     */
+    private void addNeighbour(ArrayList<ArrayList<Integer>> neighbours,
+                              int from, int to)
+    {
+        if (neighbours.get(from) == null) {
+            neighbours.set(from, new ArrayList<Integer>());
+        }
+        neighbours.get(from).add( Integer.valueOf(to) );
+    }
+
+} // end class
@@ -48,15 +48,16 @@ import java.util.*;
  * @since GridSim Toolkit 3.1
  * @author Gokul Poduval & Chen-Khong Tham, National University of Singapore
  */
-public class SCFQScheduler implements PacketScheduler
+public class SCFQScheduler implements PacketScheduler, java.io.Serializable
 {
+    private static final long serialVersionUID = 6585648216498472110L;
+
     private String name_;       // this scheduler name
 	private double baudRate_;   // baud rate of this scheduler
-    private Vector pktList;     // Sorted List of all Packets
-    private Vector timeList;    // Sorted list of finish times
+    private PacketHeap pktList; // all packets, sorted by finish times
     private double[] weights;   // weights for different ToS packets
     private double CF ;         // current finish number
-    private Hashtable flowTable;
+    private FlowTable flowTable; // finish time of the last packet of each flow
 
 
     /**
@@ -157,9 +158,8 @@ public class SCFQScheduler implements PacketScheduler
      */
     private void init()
     {
-        flowTable = new Hashtable();
-        pktList = new Vector();
-        timeList = new Vector();
+        flowTable = new FlowTable();
+        pktList = new PacketHeap();
         weights = null;
         CF = 0;
     }
@@ -199,7 +199,8 @@ public class SCFQScheduler implements PacketScheduler
     }
 
     /**
-     * Puts a packet into the queue
+     * Puts a packet into the queue. The packets of a {@link PacketTrain} get
+     * their own finish times, as if they were queued one after another.
      *
      * @param pnp    A Packet to be enqued by this scheduler.
      * @return <tt>true</tt> if enqued, <tt>false</tt> otherwise
@@ -212,16 +213,19 @@ public class SCFQScheduler implements PacketScheduler
         int destID = pnp.getDestID();   // destination entity id
         int type = pnp.getNetServiceType();     // packet service type
 
-        Double nextTime = (Double) flowTable.get("" + srcID + destID + type);
-        if (nextTime == null)
+        int count = 1;
+        if (pnp instanceof PacketTrain) {
+            count = ((PacketTrain) pnp).getCount();
+        }
+
+        double pktTime = flowTable.getTime(srcID, destID, type, CF);
+        for (int i = 0; i < count; i++)
         {
-            nextTime = new Double(CF);
-            flowTable.put("" + srcID + destID + type, nextTime);
+            pktTime = calculateFinishTime(pnp, pktTime);
+            pktList.add(pnp, pktTime);   // Sort the queue list
         }
 
-        double pktTime = calculateFinishTime( pnp, nextTime.doubleValue() );
-        flowTable.put("" + srcID + destID + type, new Double(pktTime) );
-        insert(pnp, pktTime);   // Sort the queue list
+        flowTable.setTime(srcID, destID, type, pktTime);
         return true;
     }
 
@@ -265,42 +269,6 @@ public class SCFQScheduler implements PacketScheduler
         return time;
     }
 
-    /**
-     * This function inserts a WFQClass into the sorted
-     * queue list (using binary search)
-     *
-     * @param np    a network packet
-     * @param time  simulation time
-     * @pre np != null
-     * @pre time >= 0
-     * @post $none
-     */
-    private synchronized void insert(Packet np, double time)
-    {
-        if ( timeList.isEmpty() )
-        {
-            timeList.add( new Double(time) );
-            pktList.add(np);
-            return;
-        }
-
-        for (int i = 0; i < timeList.size(); i++)
-        {
-            double next = ( (Double) timeList.get(i) ).doubleValue();
-            if (next > time)
-            {
-                timeList.add(i, new Double(time));
-                pktList.add(i, np);
-                return;
-            }
-        }
-
-        // add to end
-        timeList.add( new Double(time) );
-        pktList.add(np);
-        return;
-    }
-
     /**
      * The method deque() has to decide which queue is to be
      * served next. In the original WFQ algorithm, this is always the
@@ -314,10 +282,15 @@ public class SCFQScheduler implements PacketScheduler
     public synchronized Packet deque()
     {
         Packet p = null;
-        if (pktList.size() > 0 && timeList.size() > 0)
+        if (pktList.size() > 0)
         {
-            p = (Packet) pktList.remove(0);
-            CF = ( (Double) timeList.remove(0) ).doubleValue();
+            CF = pktList.getTime(0);
+            p = pktList.remove(0);
+
+            // the packets of a train leave in order
+            if (p instanceof PacketTrain) {
+                p = ((PacketTrain) p).removeFirst();
+            }
         }
 
         return p;
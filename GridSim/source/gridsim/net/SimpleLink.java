@@ -18,6 +18,11 @@ package gridsim.net;
 
 import eduni.simjava.*;
 import gridsim.*;
+import gridsim.kernel.Checkpointable;
+import gridsim.kernel.EventDriven;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.*;
 
 
@@ -25,15 +30,31 @@ import java.util.*;
  * This class realizes a link in its simplest form. It implements a simplex link
  * that just takes a packet in from one end, delays it by a user specified time
  * (i.e. propagation delay) and trasmits it to the other end.
+ * <p>
+ * When the simulation is run by {@link GridSimTags#KERNEL_PARALLEL}, a
+ * packet sent with {@link #transmit(Sim_entity, int, Packet)} enters this
+ * link half of the propagation delay after it has been sent. The link then
+ * works out when the packet leaves from the time it was sent, so the
+ * packets arrive at the other end at the same time as if they had been
+ * queued on the link right away. A packet sent to this link directly is
+ * delayed in the same way. Hence, the two ends of a link only ever exchange
+ * events that are at least half of the propagation delay ahead, which is
+ * the lookahead that lets {@link RouterPartitioner} run them in different
+ * logical processes. Other kernels don't need a lookahead, so a packet is
+ * queued on this link as soon as it has been sent, and the link sends one
+ * packet of its queue every propagation delay.
  *
  * @invariant $none
  * @since GridSim Toolkit 3.1
  * @author Gokul Poduval & Chen-Khong Tham, National University of Singapore
  */
-public class SimpleLink extends Link
+public class SimpleLink extends Link implements EventDriven, Checkpointable
 {
-    private Vector q_;
+    private Vector<Packet> q_;
     private double lastUpdateTime_; // a timer to denote the last update time
+    private boolean lookahead_;     // packets enter half of the delay later
+    private Vector<Entry> entries_; // packets entering at the current time
+    private double freeTime_;       // when the last packet leaves this link
     private int inEnd1_;
     private int outEnd1_;
     private int inEnd2_;
@@ -104,7 +125,10 @@ public class SimpleLink extends Link
     private void init()
     {
         lastUpdateTime_ = 0.0;
-        q_ = new Vector();
+        q_ = new Vector<Packet>();
+        lookahead_ = (GridSim.getKernelType() == GridSimTags.KERNEL_PARALLEL);
+        entries_ = new Vector<Entry>();
+        freeTime_ = 0.0;
         inEnd1_ = -1;
         outEnd1_ = -1;
         inEnd2_ = -1;
@@ -128,6 +152,7 @@ public class SimpleLink extends Link
             return;
         }
 
+        super.setEnds( end1.get_id(), end2.get_id() );
         inEnd1_ = GridSim.getEntityId( "Input_" + end1.get_name() );
         outEnd1_ = GridSim.getEntityId( "Output_" + end1.get_name() );
 
@@ -173,6 +198,7 @@ public class SimpleLink extends Link
             return;
         }
 
+        super.setEnds( GridSim.getEntityId(end1), GridSim.getEntityId(end2) );
         inEnd1_ = GridSim.getEntityId("Input_" + end1);
         outEnd1_ = GridSim.getEntityId("Output_" + end1);
 
@@ -201,13 +227,10 @@ public class SimpleLink extends Link
      */
     public void body()
     {
-        // register oneself to the system GIS
-        super.sim_schedule(GridSim.getGridInfoServiceEntityId(),
-                           GridSimTags.SCHEDULE_NOW, GridSimTags.REGISTER_LINK,
-                           new Integer(super.get_id()) );
+        startEntity();
 
         Sim_event ev = new Sim_event();
-        while ( Sim_system.running() )
+        while ( GridSim.isSimulationRunning() )
         {
             super.sim_get_next(ev);
 
@@ -229,6 +252,73 @@ public class SimpleLink extends Link
         }
     }
 
+    /**
+     * Registers this link to the system GIS when the simulation starts
+     * @pre $none
+     * @post $none
+     */
+    public void startEntity()
+    {
+        // register oneself to the system GIS
+        super.sim_schedule(GridSim.getGridInfoServiceEntityId(),
+                           GridSimTags.SCHEDULE_NOW, GridSimTags.REGISTER_LINK,
+                           Integer.valueOf(super.get_id()) );
+    }
+
+    /**
+     * Saves the packets on this link into a snapshot
+     * @param out  the snapshot stream
+     * @throws IOException  if the state can't be written
+     * @pre out != null
+     * @post $none
+     */
+    public void saveState(ObjectOutputStream out) throws IOException
+    {
+        out.writeObject(q_);
+        out.writeDouble(lastUpdateTime_);
+        out.writeBoolean(lookahead_);
+        out.writeObject(entries_);
+        out.writeDouble(freeTime_);
+    }
+
+    /**
+     * Restores the packets on this link from a snapshot
+     * @param in  the snapshot stream
+     * @throws IOException  if the state can't be read
+     * @throws ClassNotFoundException  if a saved class is not found
+     * @pre in != null
+     * @post $none
+     */
+    @SuppressWarnings("unchecked")
+    public void restoreState(ObjectInputStream in)
+            throws IOException, ClassNotFoundException
+    {
+        q_ = (Vector<Packet>) in.readObject();
+        lastUpdateTime_ = in.readDouble();
+        lookahead_ = in.readBoolean();
+        entries_ = (Vector<Entry>) in.readObject();
+        freeTime_ = in.readDouble();
+    }
+
+    /**
+     * Handles an incoming event when this link is run by the event-loop
+     * kernel
+     * @param ev    a Sim_event object
+     * @pre ev != null
+     * @post $none
+     */
+    public void handleEvent(Sim_event ev)
+    {
+        // if the simulation finishes then stop receiving events
+        if (ev.get_tag() == GridSimTags.END_OF_SIMULATION)
+        {
+            super.endEntity();
+            return;
+        }
+
+        processEvent(ev);
+    }
+
     /**
      * Processes incoming events
      * @param ev    a Sim_event object
@@ -256,6 +346,42 @@ public class SimpleLink extends Link
         }
     }
 
+    /**
+     * Sends a packet into this link. When the simulation is run by
+     * {@link GridSimTags#KERNEL_PARALLEL}, the packet enters the link half
+     * of the propagation delay later, together with the time it was sent.
+     * Otherwise, it is sent to this link without any delay.
+     * @param sender  the entity at one end of this link, which sends the
+     *                packet
+     * @param tag     the event tag
+     * @param np      the packet
+     * @pre sender != null
+     * @pre np != null
+     * @post $none
+     */
+    public void transmit(Sim_entity sender, int tag, Packet np)
+    {
+        if ( !lookahead_ )
+        {
+            super.transmit(sender, tag, np);
+            return;
+        }
+
+        sender.sim_schedule(super.get_id(), getEntryDelay(), tag,
+                            new Entry(GridSim.clock(), np) );
+    }
+
+    /**
+     * Gets the time between sending a packet and its entering this link,
+     * i.e. half of the propagation delay
+     * @return the delay time
+     * @pre $none
+     * @post $result > 0.0
+     */
+    double getEntryDelay() {
+        return super.delay_ / super.MILLI_SEC / 2;
+    }
+
     /**
      * Sends an internal event to itself for a certain time period
      * @param time  the delay time
@@ -279,6 +405,12 @@ public class SimpleLink extends Link
      */
     private synchronized void processInternalEvent()
     {
+        if (lookahead_)
+        {
+            processEntries();
+            return;
+        }
+
         // this is a constraint that prevents an infinite loop
         // Compare between 2 floating point numbers. This might be incorrect
         // for some hardware platform.
@@ -292,15 +424,38 @@ public class SimpleLink extends Link
             return;
         }
         else if (q_.size() == 1) {
-            deque( (Packet) q_.remove(0) );
+            deque( q_.remove(0), lastUpdateTime_ );
         }
         else
         {
-            deque( (Packet)q_.remove(0) );
+            deque( q_.remove(0), lastUpdateTime_ );
             sendInternalEvent(super.delay_ / super.MILLI_SEC);  // delay in ms
         }
     }
 
+    /**
+     * Sends the packets that have entered this link at the current time, in
+     * the order they were sent. This is only used when the simulation is
+     * run by {@link GridSimTags#KERNEL_PARALLEL}.
+     * @pre $none
+     * @post $none
+     */
+    private void processEntries()
+    {
+        for (int i = 0; i < entries_.size(); i++)
+        {
+            Entry entry = entries_.get(i);
+
+            // the packet is queued from the time it was sent, behind the
+            // packets sent before it
+            double time = Math.max(entry.time_, freeTime_);
+            freeTime_ = time + super.delay_ / super.MILLI_SEC;  // delay in ms
+            deque(entry.packet_, freeTime_);
+        }
+
+        entries_.clear();
+    }
+
     /**
      * Puts an event into a queue and sends an internal event to itself
      * @param ev    a Sim_event object
@@ -309,19 +464,59 @@ public class SimpleLink extends Link
      */
     private synchronized void enque(Sim_event ev)
     {
-        q_.add( ev.get_data() );
+        if (lookahead_)
+        {
+            enqueEntry(ev);
+            return;
+        }
+
+        q_.add( (Packet) ev.get_data() );
         if (q_.size() == 1) {
             sendInternalEvent(super.delay_ / super.MILLI_SEC); // delay in ms
         }
     }
 
+    /**
+     * Puts a packet that enters this link into a queue and sends an
+     * internal event to itself. A packet sent to this link directly is
+     * first delayed like one sent with
+     * {@link #transmit(Sim_entity, int, Packet)}. This is only used when
+     * the simulation is run by {@link GridSimTags#KERNEL_PARALLEL}.
+     * @param ev    a Sim_event object
+     * @pre ev != null
+     * @post $none
+     */
+    private void enqueEntry(Sim_event ev)
+    {
+        if ( !(ev.get_data() instanceof Entry) )
+        {
+            transmit(this, ev.get_tag(), (Packet) ev.get_data());
+            return;
+        }
+
+        // the packets entering at the same time are sent once all of them
+        // have arrived
+        if (entries_.size() == 0) {
+            sendInternalEvent(GridSimTags.SCHEDULE_NOW);
+        }
+
+        Entry entry = (Entry) ev.get_data();
+        int index = entries_.size();
+        while (index > 0 && entries_.get(index - 1).time_ > entry.time_) {
+            index--;
+        }
+        entries_.add(index, entry);
+    }
+
     /**
      * Sends a packet to the next destination
      * @param np    a packet
+     * @param time  the time when the packet leaves this link
      * @pre np != null
+     * @pre time >= GridSim.clock()
      * @post $none
      */
-    private synchronized void deque(Packet np)
+    private synchronized void deque(Packet np, double time)
     {
         int dest = getNextHop(np);
         if (dest == -1) {
@@ -346,8 +541,16 @@ public class SimpleLink extends Link
             tag = np.getTag();
         }
 
-        // sends the packet
-        super.sim_schedule(dest, GridSimTags.SCHEDULE_NOW, tag, np);
+        // sends the packet, so that it arrives exactly at the given time
+        double clock = GridSim.clock();
+        double delay = time - clock;
+        while (clock + delay < time) {
+            delay = Math.nextAfter(delay, Double.POSITIVE_INFINITY);
+        }
+        while (clock + delay > time) {
+            delay = Math.nextAfter(delay, 0.0);
+        }
+        super.sim_schedule(dest, delay, tag, np);
     }
 
     /**
@@ -376,5 +579,31 @@ public class SimpleLink extends Link
         return dest;
     }
 
+    /**
+     * A packet sent into this link, together with the time it was sent
+     */
+    private static class Entry implements java.io.Serializable
+    {
+        private static final long serialVersionUID = 1387173267409614229L;
+
+        final double time_;     // the time the packet was sent
+        final Packet packet_;   // the packet
+
+        /**
+         * Allocates a new entry
+         * @param time    the time the packet was sent
+         * @param packet  the packet
+         * @pre time >= 0.0
+         * @pre packet != null
+         * @post $none
+         */
+        Entry(double time, Packet packet)
+        {
+            time_ = time;
+            packet_ = packet;
+        }
+
+    } // end inner class
+
 } // end class
 
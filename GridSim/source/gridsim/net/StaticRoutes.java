@@ -0,0 +1,291 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.net;
+
+import gridsim.*;
+import java.util.*;
+
+
+/**
+ * StaticRoutes computes the routes of a network topology before the
+ * simulation starts, instead of letting the routers advertise their hosts
+ * to each other. A router with static routes skips
+ * {@link Router#advertiseHosts()}, hence it neither floods
+ * {@link RIPAdPack} events through the network nor waits for them.
+ * <p>
+ * As with RIP, a packet follows the route with the lowest hop count. The
+ * routes are found by a breadth-first search from each router, which is
+ * Dijkstra's algorithm for links of equal cost. Each router then keeps
+ * the next router for every destination router in an array indexed by
+ * the position of the destination in the router list. A host is looked
+ * up through the router at the other end of its link. While forwarding,
+ * a router keeps the packet scheduler and link of the static route to
+ * each destination in a {@link RouteCache}, so that a packet is forwarded
+ * by its destination ID without looking up any names.
+ * <p>
+ * The example below installs static routes for two routers:
+ * <pre>
+ * LinkedList routerList = new LinkedList();
+ * routerList.add(r1);
+ * routerList.add(r2);
+ * r1.attachRouter(r2, link, sched1, sched2);
+ *
+ * StaticRoutes routes = new StaticRoutes(routerList);
+ * routes.connect(r1, r2, link);
+ * routes.install();
+ * </pre>
+ * The routes must be installed before the simulation starts. Both
+ * {@link gridsim.util.NetworkReader} and
+ * {@link gridsim.net.fnb.FnbNetworkReader} can do this for a topology
+ * read from a file.
+ *
+ * @since GridSim Toolkit 5.2
+ * @invariant $none
+ */
+public final class StaticRoutes
+{
+    private static final int NOT_FOUND = -1;
+
+    private final Router[] routers_;        // routers indexed by position
+    private final int[][] adjacent_;        // adjacent routers by position
+    private final Link[][] links_;          // links to the adjacent routers
+    private final int[] degrees_;           // number of adjacent routers
+
+    // position of a router or host by its name
+    private final Hashtable<String, Integer> indices_;
+
+
+    /**
+     * Creates a new object without any connections between the routers
+     * @param routerList  a list of {@link Router} objects
+     * @throws ParameterException  if the list is <tt>null</tt> or contains
+     *         an object that is not a router
+     * @pre routerList != null
+     * @post $none
+     */
+    public StaticRoutes(LinkedList<?> routerList) throws ParameterException
+    {
+        if (routerList == null) {
+            throw new ParameterException("StaticRoutes(): list is null.");
+        }
+
+        int count = routerList.size();
+        routers_ = new Router[count];
+        indices_ = new Hashtable<String, Integer>(count * 2);
+        adjacent_ = new int[count][];
+        links_ = new Link[count][];
+        degrees_ = new int[count];
+
+        Iterator<?> it = routerList.iterator();
+        for (int i = 0; i < count; i++)
+        {
+            Object obj = it.next();
+            if ( !(obj instanceof Router) )
+            {
+                throw new ParameterException("StaticRoutes(): " + obj +
+                    " is not a router.");
+            }
+
+            routers_[i] = (Router) obj;
+            adjacent_[i] = new int[2];
+            links_[i] = new Link[2];
+            indices_.put( routers_[i].get_name(), Integer.valueOf(i) );
+        }
+    }
+
+    /**
+     * Records that two routers are joined by a link. This does not attach
+     * the routers to each other, which is done by
+     * {@link Router#attachRouter(Router, Link, PacketScheduler,
+     * PacketScheduler)}.
+     * @param r1    a router
+     * @param r2    the router at the other end of the link
+     * @param link  the link between the two routers
+     * @return <tt>true</tt> if successful, <tt>false</tt> if one of the
+     *         routers is not in the router list
+     * @pre r1 != null
+     * @pre r2 != null
+     * @pre link != null
+     * @post $none
+     */
+    public boolean connect(Router r1, Router r2, Link link)
+    {
+        if (r1 == null || r2 == null || link == null) {
+            return false;
+        }
+
+        int i = getRouterIndex( r1.get_name() );
+        int j = getRouterIndex( r2.get_name() );
+        if (i == NOT_FOUND || j == NOT_FOUND || i == j) {
+            return false;
+        }
+
+        add(i, j, link);
+        add(j, i, link);
+        return true;
+    }
+
+    /**
+     * Computes the routes of all routers and installs them, so that the
+     * routers don't advertise their hosts once the simulation starts.
+     * Since routers that are not connected can't reach each other, packets
+     * between them are not forwarded.
+     * @pre $none
+     * @post $none
+     */
+    public void install()
+    {
+        int count = routers_.length;
+        int[] queue = new int[count];
+
+        for (int src = 0; src < count; src++)
+        {
+            // the first router on the way to each router, found by a
+            // breadth-first search in the order the links were connected
+            int[] nextHops = new int[count];
+            Arrays.fill(nextHops, NOT_FOUND);
+            nextHops[src] = src;
+
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = src;
+            while (head < tail)
+            {
+                int current = queue[head++];
+                for (int k = 0; k < degrees_[current]; k++)
+                {
+                    int next = adjacent_[current][k];
+                    if (nextHops[next] != NOT_FOUND) {
+                        continue;
+                    }
+
+                    if (current == src) {
+                        nextHops[next] = next;
+                    }
+                    else {
+                        nextHops[next] = nextHops[current];
+                    }
+
+                    queue[tail++] = next;
+                }
+            }
+
+            routers_[src].setStaticRoutes(this, nextHops, src);
+        }
+    }
+
+    /**
+     * Gets the position of the router for a given destination. The
+     * destination is either a router or a host attached to a router.
+     * @param name  the name of a router or host
+     * @return the position of the router in the router list or
+     *         <tt>-1</tt> if it is not found
+     * @pre name != null
+     * @post $result >= -1
+     */
+    int getRouterIndex(String name)
+    {
+        Integer index = indices_.get(name);
+        if (index != null) {
+            return index.intValue();
+        }
+
+        // a host, which is attached to a router by its own link
+        Object obj = GridSim.getEntity(name);
+        if ( !(obj instanceof GridSimCore) ) {
+            return NOT_FOUND;
+        }
+
+        Link link = ((GridSimCore) obj).getLink();
+        if (link == null) {
+            return NOT_FOUND;
+        }
+
+        String end = GridSim.getEntityName( link.getEnd1() );
+        index = (end == null) ? null : indices_.get(end);
+        if (index == null)
+        {
+            end = GridSim.getEntityName( link.getEnd2() );
+            index = (end == null) ? null : indices_.get(end);
+        }
+
+        if (index == null) {
+            return NOT_FOUND;
+        }
+
+        indices_.put(name, index);
+        return index.intValue();
+    }
+
+    /**
+     * Gets the router at a given position
+     * @param index  the position in the router list
+     * @return the router
+     * @pre index >= 0
+     * @post $result != null
+     */
+    Router getRouter(int index) {
+        return routers_[index];
+    }
+
+    /**
+     * Gets the link between two adjacent routers
+     * @param i  the position of a router
+     * @param j  the position of the adjacent router
+     * @return the link or <tt>null</tt> if the routers are not adjacent
+     * @pre i >= 0 && j >= 0
+     * @post $none
+     */
+    Link getLink(int i, int j)
+    {
+        for (int k = 0; k < degrees_[i]; k++)
+        {
+            if (adjacent_[i][k] == j) {
+                return links_[i][k];
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Adds a router to the routers adjacent to another one
+     * @param i     the position of a router
+     * @param j     the position of the adjacent router
+     * @param link  the link between the two routers
+     * @pre i >= 0 && j >= 0
+     * @pre link != null
+     * @post $none
+     */
+    private void add(int i, int j, Link link)
+    {
+        for (int k = 0; k < degrees_[i]; k++)
+        {
+            if (adjacent_[i][k] == j) {
+                return;
+            }
+        }
+
+        if (degrees_[i] == adjacent_[i].length)
+        {
+            int[] adjacent = new int[degrees_[i] * 2];
+            System.arraycopy(adjacent_[i], 0, adjacent, 0, degrees_[i]);
+            adjacent_[i] = adjacent;
+
+            Link[] links = new Link[degrees_[i] * 2];
+            System.arraycopy(links_[i], 0, links, 0, degrees_[i]);
+            links_[i] = links;
+        }
+
+        adjacent_[i][degrees_[i]] = j;
+        links_[i][degrees_[i]] = link;
+        degrees_[i]++;
+    }
+
+} // end class
@@ -18,6 +18,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 
 import eduni.simjava.*;
+import gridsim.kernel.KernelEntity;
 
 /**
  * GridSim FlowInput class defines a port through which a simulation entity
@@ -30,17 +31,23 @@ import eduni.simjava.*;
  * It simulates Network communication delay depending on current bottleneck Baud rate
  * and data length. Simultaneous inputs can be modeled using multiple
  * instances of this class.
+ * <p>
+ * With {@link gridsim.GridSimTags#NET_MAX_MIN_FLOW_LEVEL}, the flows are
+ * timed by the {@link FlowNetwork} entity instead. A flow that arrives
+ * through the links is passed on to it, and the data is delivered once
+ * the flow comes back.
  *
  * @author       James Broberg
  * @since   GridSim Toolkit 4.2
  * @invariant $none
  */
-public class FlowInput extends Sim_entity implements NetIO
+public class FlowInput extends KernelEntity implements NetIO
 {
     private Sim_port inPort_;
     private Link link_;
     private double baudRate_;
     private HashMap<Integer, Packet> activeFlows_; // stores a list of active Flows
+    private int networkID_;     // ID of the FlowNetwork entity, if any
 
 
     /**
@@ -64,6 +71,7 @@ public class FlowInput extends Sim_entity implements NetIO
         super.add_port(inPort_);
         
         activeFlows_ = null;
+        networkID_ = -1;
 
     }
 
@@ -144,7 +152,7 @@ public class FlowInput extends Sim_entity implements NetIO
     {
         // Process events
         Object obj = null;
-        while ( Sim_system.running() )
+        while ( GridSim.isSimulationRunning() )
         {
             Sim_event ev = new Sim_event();
             super.sim_get_next(ev);     // get the next event in the queue
@@ -201,10 +209,8 @@ public class FlowInput extends Sim_entity implements NetIO
     	
         // If flow hasn't already finished, send it to inPort
         if ((fp = (FlowPacket) activeFlows_.get(pktID)) != null) {
-            Object data = fp.getData();
-            IO_data io = new IO_data( data, fp.getSize(),
-            		                  inPort_.get_src());
-            super.sim_schedule(inPort_, GridSimTags.SCHEDULE_NOW, fp.getTag() , io.getData());
+            super.sim_schedule(inPort_, GridSimTags.SCHEDULE_NOW, fp.getTag(),
+                               fp.getData());
             activeFlows_.remove(pktID);  
             
             //System.out.println(super.get_name() + ".checkForecast(): flow came from " + GridSim.getEntityName(fp.getSrcID())
@@ -300,25 +306,26 @@ public class FlowInput extends Sim_entity implements NetIO
         // since it is not compatible.
         if (link_ != null)
         {
-            // outName = "Output_xxx", where xxx = sender entity name
-            String outName = GridSim.getEntityName( ev.get_src() );
-
-            // NOTE: this is a HACK job. "Output_" has 7 chars. So,
-            // the idea is to get only the entity name by removing
-            // "Output_" word in the outName string.
-            String name = outName.substring(7);
+            // the sender is "Output_xxx", where xxx = sender entity name
+            EntityRegistry registry = GridSim.getEntityRegistry();
+            int sender = registry.getOwnerId( ev.get_src() );
 
             // if the sender is not system GIS then ignore the message
-            if (GridSim.getEntityId(name) != GridSim.getGridInfoServiceEntityId())
+            if (sender != GridSim.getGridInfoServiceEntityId())
             {
                 // sends back the data to "Input_xxx", where
                 // xxx = sender entity name. If not sent, then the sender
                 // will wait forever to receive this data. As a result,
                 // the whole simulation program will be hanged or does not
                 // terminate successfully.
-                int id = GridSim.getEntityId("Input_" + name);
+                int id = registry.getInputId(sender);
                 super.sim_schedule(id, 0.0, ev.get_tag(), io);
 
+                // NOTE: "Output_" has 7 chars, so removing it from the
+                // sender's name gives the entity name.
+                String name = registry.getEntityName( ev.get_src() );
+                name = name.substring(7);
+
                 // print an error message
                 System.out.println(super.get_name() + ".body(): Error - " +
                     "incompatible message protocol.");
@@ -339,7 +346,7 @@ public class FlowInput extends Sim_entity implements NetIO
             // Simulate Transmission Time after Receiving
             // Hold first then dispatch
             double senderBaudRate = ( (FlowOutput)
-                    Sim_system.get_entity(ev.get_src()) ).getBaudRate();
+                    GridSim.getEntity(ev.get_src()) ).getBaudRate();
 
             // NOTE: io is in byte and baud rate is in bits. 1 byte = 8 bits
             // So, convert io into bits
@@ -403,10 +410,27 @@ public class FlowInput extends Sim_entity implements NetIO
                 //System.out.println(super.get_name() + ".getDataFromLink() Time now " + GridSim.clock() 
                 //		+ " bottleneck is " + np.getBandwidth() + " sum lat is " + np.getLatency() );
                 
+                // the flow network shares the bandwidth of the whole path
+                if (FlowNetwork.isEnabled() && FlowNetwork.isFlow(tag) &&
+                    ev.get_src() != getNetworkID())
+                {
+                    super.sim_schedule(getNetworkID(), GridSimTags.SCHEDULE_NOW,
+                                       GridSimTags.PKT_FORWARD, np);
+                    return;
+                }
+                else if (FlowNetwork.isEnabled())
+                {
+                    super.sim_schedule(inPort_, GridSimTags.SCHEDULE_NOW, tag,
+                                       np.getData() );
+                    return;
+                }
+
                 // if flow terminates at next entity, add to active flows 
                 // & hold for appropriate duration
                 if (pkt.getTag() == GridSimTags.FLOW_SUBMIT || pkt.getTag() == GridSimTags.GRIDLET_SUBMIT ||
                 		pkt.getTag() == GridSimTags.GRIDLET_SUBMIT_ACK || pkt.getTag() == GridSimTags.GRIDLET_RETURN
+                		|| pkt.getTag() == GridSimTags.GRIDLET_SUBMIT_BULK || pkt.getTag() == GridSimTags.GRIDLET_SUBMIT_BULK_ACK
+                		|| pkt.getTag() == GridSimTags.GRIDLET_RETURN_BULK || pkt.getTag() == GridSimTags.GRIDLET_MIGRATE
                 		|| pkt.getTag() == GridSimTags.JUNK_PKT) {
                 	np.setStartTime(GridSim.clock());
                 	np.setUpdateTime(GridSim.clock());
@@ -418,20 +442,30 @@ public class FlowInput extends Sim_entity implements NetIO
                     return;
                 }
                 
-                // convert the packets into IO_data
-                Object data = np.getData();
-                IO_data io = new IO_data( data, np.getSize(),
-                                          inPort_.get_dest() );
-                
                 // send the data into entity input port
                 super.sim_schedule(inPort_, GridSimTags.SCHEDULE_NOW, tag,
-                                   io.getData() );
+                                   np.getData() );
  
 
             }
         }
     }
 
+    /**
+     * Gets the entity ID of the {@link FlowNetwork} entity
+     * @return the entity ID
+     * @pre $none
+     * @post $none
+     */
+    private int getNetworkID()
+    {
+        if (networkID_ == -1) {
+            networkID_ = GridSim.getEntityId(FlowNetwork.NAME);
+        }
+
+        return networkID_;
+    }
+
     /**
      * Processes a ping request
      * @param   pkt     a packet for pinging
@@ -444,11 +478,9 @@ public class FlowInput extends Sim_entity implements NetIO
         pkt.addHop( inPort_.get_dest() );
         pkt.addEntryTime( GridSim.clock() );
 
-        IO_data io = new IO_data( pkt, pkt.getSize(), inPort_.get_dest() );
-
         // send this ping() packet to the entity
         super.sim_schedule(inPort_, GridSimTags.SCHEDULE_NOW,
-                           pkt.getTag(), io.getData());
+                           pkt.getTag(), pkt);
     }
 
 } // end class
@@ -106,6 +106,7 @@ public class FlowLink extends Link
             return;
         }
 
+        super.setEnds( end1.get_id(), end2.get_id() );
         inEnd1_ = GridSim.getEntityId( "Input_" + end1.get_name() );
         outEnd1_ = GridSim.getEntityId( "Output_" + end1.get_name() );
 
@@ -151,6 +152,7 @@ public class FlowLink extends Link
             return;
         }
 
+        super.setEnds( GridSim.getEntityId(end1), GridSim.getEntityId(end2) );
         inEnd1_ = GridSim.getEntityId("Input_" + end1);
         outEnd1_ = GridSim.getEntityId("Output_" + end1);
 
@@ -185,7 +187,7 @@ public class FlowLink extends Link
                            new Integer(super.get_id()) );
 
         Sim_event ev = new Sim_event();
-        while ( Sim_system.running() )
+        while ( GridSim.isSimulationRunning() )
         {
             super.sim_get_next(ev);
             
@@ -312,6 +314,8 @@ public class FlowLink extends Link
         // Register passing flow, gridlet or junk as active on this link
         if (tag == GridSimTags.FLOW_SUBMIT || tag == GridSimTags.GRIDLET_SUBMIT || 
         		tag == GridSimTags.GRIDLET_SUBMIT_ACK || tag == GridSimTags.GRIDLET_RETURN ||
+        		tag == GridSimTags.GRIDLET_SUBMIT_BULK || tag == GridSimTags.GRIDLET_SUBMIT_BULK_ACK ||
+        		tag == GridSimTags.GRIDLET_RETURN_BULK || tag == GridSimTags.GRIDLET_MIGRATE ||
         		tag == GridSimTags.JUNK_PKT) {
         	registerFlow((Packet)ev.get_data());
         }
@@ -400,7 +404,9 @@ public class FlowLink extends Link
     /**
      * Registers active flow to the link, and the link to flow.
      * Notifies the destination of any active flows if the bottleneck
-     * bandwidth is changed.
+     * bandwidth is changed. With {@link FlowNetwork}, only the link is
+     * registered to the flow, since the bandwidth is shared over the whole
+     * path once the flow reaches its destination.
      * @param np    a packet
      * @pre $none
      * @post $none
@@ -409,6 +415,11 @@ public class FlowLink extends Link
     	
     	FlowPacket tempFlow = null;
     	
+    	if (FlowNetwork.isEnabled()) {
+    	    ((FlowPacket)np).addLink(this);
+    	    return;
+    	}
+    	
     	// Add flow to link
     	activeFlows_.put(np.getID(), np );
     	
@@ -430,8 +441,8 @@ public class FlowLink extends Link
         		// I can notify directly as I  know the destId's!!!!
         		//System.out.println(super.get_name() + ".registerFlow(): updating flow #" + tempFlow.getID()
         		//		+ " destination " + tempFlow.getDestID());
-                super.sim_schedule(GridSim.getEntityId("Input_" + 
-                		GridSim.getEntityName(tempFlow.getDestID())), GridSimTags.SCHEDULE_NOW, 
+                super.sim_schedule(GridSim.getEntityRegistry().getInputId(
+                		tempFlow.getDestID()), GridSimTags.SCHEDULE_NOW, 
                 		GridSimTags.FLOW_UPDATE, new Integer(tempFlow.getID()));  
         	}
         }
@@ -470,8 +481,8 @@ public class FlowLink extends Link
             		// I can notify directly as I  know the destId's!!!!
             		//System.out.println(super.get_name() + ".deregisterFlow(): updating flow #" + tempFlow.getID()
             		//		+ " destination " + tempFlow.getDestID());
-                    super.sim_schedule(GridSim.getEntityId("Input_" + 
-                    		GridSim.getEntityName(tempFlow.getDestID())), GridSimTags.SCHEDULE_NOW, 
+                    super.sim_schedule(GridSim.getEntityRegistry().getInputId(
+                    		tempFlow.getDestID()), GridSimTags.SCHEDULE_NOW, 
                     		GridSimTags.FLOW_UPDATE, new Integer(tempFlow.getID()));  
             	}
     		
@@ -495,7 +506,17 @@ public class FlowLink extends Link
 		}
 
     }
-    	
+
+    /**
+     * Returns the baud rate of this link regardless of the active flows
+     * @return the baud rate in bits/s
+     * @pre $none
+     * @post $result > 0
+     */
+    public double getCapacity() {
+        return super.baudRate_;
+    }
+
 
 
 } // end class
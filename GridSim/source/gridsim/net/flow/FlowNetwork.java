@@ -0,0 +1,473 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.net.flow;
+
+import eduni.simjava.*;
+import gridsim.*;
+import gridsim.kernel.KernelEntity;
+import gridsim.net.Link;
+import gridsim.net.NetIO;
+import java.util.*;
+
+
+/**
+ * FlowNetwork shares the bandwidth of the network among all active flows
+ * when {@link gridsim.GridSimTags#NET_MAX_MIN_FLOW_LEVEL} is used. Rather
+ * than splitting the bandwidth of each {@link FlowLink} equally, it gives
+ * every flow its max-min fair rate over the whole path, i.e. the rate of a
+ * flow can only be raised by lowering the rate of a flow that has the same
+ * or a lower rate.
+ * <p>
+ * The rates are found by progressive filling: the link with the smallest
+ * fair share fixes the rate of its flows, their rates are taken off the
+ * other links on their paths, and so on until every flow has a rate. When
+ * a flow starts or finishes, only the flows that share links with it,
+ * directly or through other flows, are filled again. Each flow has one
+ * completion event, which is moved whenever its rate changes. Once a flow
+ * has finished, its data is delivered to the <tt>FlowInput</tt> entity of
+ * the destination.
+ * <p>
+ * A {@link FlowOutput} entity sends a flow straight to this entity, after
+ * the propagation delay of its path, if the {@link FlowRouter} objects on
+ * the way already know the route. Otherwise, the flow goes through the
+ * routers and links first, as with
+ * {@link gridsim.GridSimTags#NET_FLOW_LEVEL}, and is passed on by the
+ * <tt>FlowInput</tt> entity of the destination. Messages other than
+ * Gridlets and flows are delivered without taking any bandwidth.
+ * <p>
+ * There is one FlowNetwork entity per simulation, which is created
+ * together with the first entity that uses the network.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.GridSimTags#NET_MAX_MIN_FLOW_LEVEL
+ * @invariant $none
+ */
+public class FlowNetwork extends KernelEntity
+{
+    /** The name of the FlowNetwork entity */
+    public static final String NAME = "FlowNetwork";
+
+    private HashMap<Link, Channel> channels_;       // links in use
+    private HashMap<Integer, Transfer> transfers_;  // active flows by id
+    private int nextID_;        // id of the next flow
+    private int stamp_;         // marks a component while it is filled
+
+
+    /**
+     * Allocates a new FlowNetwork object. Use {@link #create()} instead,
+     * since a simulation only needs one.
+     * @param name  the name of this entity
+     * @throws NullPointerException This happens when creating this entity
+     *                  before initializing GridSim package or this entity name
+     *                  is <tt>null</tt> or empty
+     * @pre name != null
+     * @post $none
+     */
+    protected FlowNetwork(String name) throws NullPointerException
+    {
+        super(name);
+        channels_ = new HashMap<Link, Channel>();
+        transfers_ = new HashMap<Integer, Transfer>();
+        nextID_ = 0;
+        stamp_ = 0;
+    }
+
+    /**
+     * Creates the FlowNetwork entity of the current simulation, unless it
+     * exists already
+     * @return the FlowNetwork entity
+     * @pre $none
+     * @post $result != null
+     */
+    public static synchronized FlowNetwork create()
+    {
+        Sim_entity ent = GridSim.getEntity(NAME);
+        if (ent instanceof FlowNetwork) {
+            return (FlowNetwork) ent;
+        }
+
+        return new FlowNetwork(NAME);
+    }
+
+    /**
+     * Checks whether the current simulation shares bandwidth with this
+     * entity, i.e. whether it uses
+     * {@link gridsim.GridSimTags#NET_MAX_MIN_FLOW_LEVEL}
+     * @return <tt>true</tt> if it does, <tt>false</tt> otherwise
+     * @pre $none
+     * @post $none
+     */
+    public static boolean isEnabled() {
+        return GridSim.getNetworkType() == GridSimTags.NET_MAX_MIN_FLOW_LEVEL;
+    }
+
+    /**
+     * Checks whether a packet with a given tag is sent as a flow, which
+     * takes bandwidth, or as a message, which doesn't
+     * @param tag  the tag of a packet
+     * @return <tt>true</tt> for a flow, <tt>false</tt> otherwise
+     * @pre $none
+     * @post $none
+     */
+    static boolean isFlow(int tag)
+    {
+        switch (tag)
+        {
+            case GridSimTags.FLOW_SUBMIT:
+            case GridSimTags.GRIDLET_SUBMIT:
+            case GridSimTags.GRIDLET_SUBMIT_ACK:
+            case GridSimTags.GRIDLET_RETURN:
+            case GridSimTags.GRIDLET_SUBMIT_BULK:
+            case GridSimTags.GRIDLET_SUBMIT_BULK_ACK:
+            case GridSimTags.GRIDLET_RETURN_BULK:
+            case GridSimTags.GRIDLET_MIGRATE:
+            case GridSimTags.JUNK_PKT:
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Gets the number of flows that are currently active
+     * @return the number of flows
+     * @pre $none
+     * @post $result >= 0
+     */
+    public synchronized int getNumFlows() {
+        return transfers_.size();
+    }
+
+    /**
+     * Handles incoming flows and the completion of active flows
+     * @pre $none
+     * @post $none
+     */
+    public void body()
+    {
+        // register oneself to the system GIS, so that this entity is told
+        // when the simulation ends
+        super.sim_schedule(GridSim.getGridInfoServiceEntityId(),
+                           GridSimTags.SCHEDULE_NOW, GridSimTags.REGISTER_LINK,
+                           Integer.valueOf(super.get_id()) );
+
+        Sim_event ev = new Sim_event();
+        while ( GridSim.isSimulationRunning() )
+        {
+            super.sim_get_next(ev);
+
+            // if the simulation finishes then exit the loop
+            if (ev.get_tag() == GridSimTags.END_OF_SIMULATION) {
+                break;
+            }
+
+            if (ev.get_tag() == GridSimTags.FLOW_HOLD) {
+                finish( (Integer) ev.get_data() );
+            }
+            else if (ev.get_data() instanceof FlowPacket) {
+                start( (FlowPacket) ev.get_data() );
+            }
+            else
+            {
+                System.out.println(super.get_name() + ".body(): Warning - " +
+                        "unable to handle request from GridSimTags " +
+                        "with constant number " + ev.get_tag());
+            }
+        }
+
+        while (super.sim_waiting() > 0)
+        {
+            // wait for event and ignore
+            super.sim_get_next(ev);
+        }
+    }
+
+    /**
+     * Starts a flow along the links it has been given
+     * @param pkt  a flow
+     * @pre pkt != null
+     * @post $none
+     */
+    private synchronized void start(FlowPacket pkt)
+    {
+        // a message doesn't take any bandwidth
+        Vector<?> links = pkt.getLinks();
+        if ( !isFlow(pkt.getTag()) || links.size() == 0 )
+        {
+            deliver(pkt);
+            return;
+        }
+
+        pkt.setStartTime( GridSim.clock() );
+        pkt.setUpdateTime( GridSim.clock() );
+
+        Transfer transfer = new Transfer(nextID_, pkt, links.size());
+        nextID_++;
+        transfers_.put(Integer.valueOf(transfer.id_), transfer);
+
+        for (int i = 0; i < links.size(); i++)
+        {
+            Link link = (Link) links.get(i);
+            Channel channel = channels_.get(link);
+            if (channel == null)
+            {
+                channel = new Channel(link);
+                channels_.put(link, channel);
+            }
+
+            transfer.path_[i] = channel;
+            channel.transfers_.add(transfer);
+        }
+
+        fill(transfer.path_);
+    }
+
+    /**
+     * Finishes a flow, delivers it to its destination and shares its
+     * bandwidth among the other flows
+     * @param id  the id of the flow
+     * @pre id != null
+     * @post $none
+     */
+    private synchronized void finish(Integer id)
+    {
+        Transfer transfer = transfers_.remove(id);
+        if (transfer == null) {
+            return;
+        }
+
+        for (int i = 0; i < transfer.path_.length; i++)
+        {
+            Channel channel = transfer.path_[i];
+            channel.transfers_.remove(transfer);
+            if ( channel.transfers_.isEmpty() ) {
+                channels_.remove(channel.link_);
+            }
+        }
+
+        deliver(transfer.pkt_);
+        fill(transfer.path_);
+    }
+
+    /**
+     * Sends a flow to the <tt>FlowInput</tt> entity of its destination
+     * @param pkt  a flow
+     * @pre pkt != null
+     * @post $none
+     */
+    private void deliver(FlowPacket pkt)
+    {
+        int id = GridSim.getEntityRegistry().getInputId( pkt.getDestID() );
+        super.sim_schedule(id, GridSimTags.SCHEDULE_NOW, pkt.getTag(), pkt);
+    }
+
+    /**
+     * Works out the max-min fair rates of the flows that share links with
+     * the given ones, directly or through other flows, and moves the
+     * completion events of the flows whose rate has changed
+     * @param seeds  the links where the flows have changed
+     * @pre seeds != null
+     * @post $none
+     */
+    private void fill(Channel[] seeds)
+    {
+        // find the links and flows that are connected to the seeds
+        stamp_++;
+        ArrayList<Channel> links = new ArrayList<Channel>();
+        ArrayList<Transfer> flows = new ArrayList<Transfer>();
+        ArrayList<Channel> stack = new ArrayList<Channel>();
+        for (int i = 0; i < seeds.length; i++)
+        {
+            if (seeds[i].stamp_ != stamp_ && !seeds[i].transfers_.isEmpty())
+            {
+                seeds[i].stamp_ = stamp_;
+                stack.add(seeds[i]);
+            }
+        }
+
+        while ( !stack.isEmpty() )
+        {
+            Channel channel = stack.remove(stack.size() - 1);
+            links.add(channel);
+            for (int i = 0; i < channel.transfers_.size(); i++)
+            {
+                Transfer transfer = channel.transfers_.get(i);
+                if (transfer.stamp_ == stamp_) {
+                    continue;
+                }
+
+                transfer.stamp_ = stamp_;
+                flows.add(transfer);
+                for (int k = 0; k < transfer.path_.length; k++)
+                {
+                    Channel next = transfer.path_[k];
+                    if (next.stamp_ != stamp_)
+                    {
+                        next.stamp_ = stamp_;
+                        stack.add(next);
+                    }
+                }
+            }
+        }
+
+        // the data sent so far at the old rates
+        double now = GridSim.clock();
+        for (int i = 0; i < flows.size(); i++)
+        {
+            Transfer transfer = flows.get(i);
+            transfer.remaining_ -= transfer.rate_ * (now - transfer.time_);
+            transfer.remaining_ = Math.max(0.0, transfer.remaining_);
+            transfer.time_ = now;
+            transfer.fixed_ = false;
+        }
+
+        for (int i = 0; i < links.size(); i++)
+        {
+            Channel channel = links.get(i);
+            channel.residual_ = channel.capacity_;
+            channel.count_ = channel.transfers_.size();
+        }
+
+        // progressive filling: the link with the smallest fair share sets
+        // the rate of all its flows that don't have one yet
+        int left = flows.size();
+        while (left > 0)
+        {
+            Channel bottleneck = null;
+            double share = Double.MAX_VALUE;
+            for (int i = 0; i < links.size(); i++)
+            {
+                Channel channel = links.get(i);
+                if (channel.count_ == 0) {
+                    continue;
+                }
+
+                double fair = channel.residual_ / channel.count_;
+                if (fair < share)
+                {
+                    share = fair;
+                    bottleneck = channel;
+                }
+            }
+
+            share = Math.max(0.0, share);
+            for (int i = 0; i < bottleneck.transfers_.size(); i++)
+            {
+                Transfer transfer = bottleneck.transfers_.get(i);
+                if (transfer.fixed_) {
+                    continue;
+                }
+
+                transfer.fixed_ = true;
+                left--;
+                for (int k = 0; k < transfer.path_.length; k++)
+                {
+                    transfer.path_[k].residual_ -= share;
+                    transfer.path_[k].count_--;
+                }
+
+                transfer.pkt_.setBottleneckID( bottleneck.link_.get_id() );
+                if (share != transfer.rate_ || !transfer.scheduled_) {
+                    reschedule(transfer, share);
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the completion event of a flow according to its new rate
+     * @param transfer  an active flow
+     * @param rate      the new rate in bits/s
+     * @pre transfer != null
+     * @pre rate >= 0.0
+     * @post $none
+     */
+    private void reschedule(Transfer transfer, double rate)
+    {
+        Integer id = Integer.valueOf(transfer.id_);
+        if (transfer.scheduled_) {
+            super.sim_cancel( new FilterFlow(transfer.id_,
+                              GridSimTags.FLOW_HOLD), null );
+        }
+
+        transfer.rate_ = rate;
+        transfer.pkt_.setBandwidth(rate);
+        transfer.pkt_.setRemSize( (long) (transfer.remaining_ / NetIO.BITS) );
+        transfer.pkt_.setUpdateTime( GridSim.clock() );
+        transfer.scheduled_ = false;
+
+        // a flow without any bandwidth waits until another one finishes
+        if (rate <= 0.0) {
+            return;
+        }
+
+        super.sim_schedule(super.get_id(), transfer.remaining_ / rate,
+                           GridSimTags.FLOW_HOLD, id);
+        transfer.scheduled_ = true;
+    }
+
+
+    /**
+     * A link that is used by one or more active flows
+     */
+    private static class Channel
+    {
+        final Link link_;
+        final double capacity_;     // baud rate of the link in bits/s
+        final ArrayList<Transfer> transfers_;   // flows using the link
+        double residual_;   // bandwidth left while filling
+        int count_;         // flows without a rate while filling
+        int stamp_;         // marks the component being filled
+
+        Channel(Link link)
+        {
+            link_ = link;
+            if (link instanceof FlowLink) {
+                capacity_ = ((FlowLink) link).getCapacity();
+            }
+            else {
+                capacity_ = link.getBaudRate();
+            }
+
+            transfers_ = new ArrayList<Transfer>();
+            stamp_ = 0;
+        }
+    }
+
+    /**
+     * A flow that is being sent
+     */
+    private static class Transfer
+    {
+        final int id_;
+        final FlowPacket pkt_;
+        final Channel[] path_;  // links from source to destination
+        double rate_;           // current rate in bits/s
+        double remaining_;      // bits left to send at time_
+        double time_;           // last time remaining_ was updated
+        boolean scheduled_;     // whether the completion event is set
+        boolean fixed_;         // whether the rate is set while filling
+        int stamp_;             // marks the component being filled
+
+        Transfer(int id, FlowPacket pkt, int hops)
+        {
+            id_ = id;
+            pkt_ = pkt;
+            path_ = new Channel[hops];
+            rate_ = 0.0;
+            remaining_ = pkt.getSize() * NetIO.BITS;
+            time_ = GridSim.clock();
+            scheduled_ = false;
+            fixed_ = false;
+            stamp_ = 0;
+        }
+    }
+
+} // end class
@@ -15,6 +15,7 @@ import gridsim.net.*;
 import gridsim.util.*;
 
 import eduni.simjava.*;
+import gridsim.kernel.KernelEntity;
 
 import java.util.*;
 import java.util.Random;
@@ -29,12 +30,16 @@ import java.util.Random;
  * It works along with FlowInput entity to simulate network
  * communication delay. Simultaneous outputs can be modeled by using multiple
  * instances of this class
+ * <p>
+ * With {@link gridsim.GridSimTags#NET_MAX_MIN_FLOW_LEVEL}, a flow is sent
+ * straight to the {@link FlowNetwork} entity after the propagation delay of
+ * its path, provided that the routers on the way know the destination.
  *
  * @author       James Broberg
  * @since        GridSim Toolkit 4.2
  * @invariant $none
  */
-public class FlowOutput extends Sim_entity implements NetIO
+public class FlowOutput extends KernelEntity implements NetIO
 {
     private Sim_port outPort_;      // output port
     private Link link_;             // a link to this output entity
@@ -230,7 +235,7 @@ public class FlowOutput extends Sim_entity implements NetIO
         startBackgroundTraffic();
 
         // Process incoming events
-        while ( Sim_system.running() )
+        while ( GridSim.isSimulationRunning() )
         {
             Sim_event ev = new Sim_event();
             super.sim_get_next(ev);     // get the next event in the queue
@@ -421,14 +426,13 @@ public class FlowOutput extends Sim_entity implements NetIO
 
         // Identify ID of an entity which acts as Input/Buffer
         // entity of destination entity
-        int id = GridSim.getEntityId( "Input_" +
-                 Sim_system.get_entity(destId).get_name() );
+        int id = GridSim.getEntityRegistry().getInputId(destId);
 
         // Send first and then hold
         super.sim_schedule(id, GridSimTags.SCHEDULE_NOW, ev.get_tag(), io);
 
         double receiverBaudRate = ( (FlowInput)
-                Sim_system.get_entity(id) ).getBaudRate();
+                GridSim.getEntity(id) ).getBaudRate();
 
         // NOTE: io is in byte and baud rate is in bits. 1 byte = 8 bits
         // So, convert io into bits
@@ -466,10 +470,82 @@ public class FlowOutput extends Sim_entity implements NetIO
                            destId, netServiceType, 1, 1);
 
 
+        // the flow network doesn't need the routers to forward the flow
+        if (FlowNetwork.isEnabled() && destId != outPort_.get_dest() &&
+            sendToNetwork(np) == true)
+        {
+            return;
+        }
+
         //System.out.println("Sending flow packet to link at time = " + GridSim.clock() + " id is " + np.getID());
         enque(np, GridSimTags.SCHEDULE_NOW);
     }
 
+    /**
+     * Finds the links from this entity to the destination of a packet
+     * through the routing tables of the {@link FlowRouter} objects on the
+     * way. Then, sends a flow to the {@link FlowNetwork} entity, or any
+     * other packet to the destination, after the propagation delay of
+     * these links.
+     * @param np    a packet
+     * @return <tt>true</tt> if the packet has been sent, <tt>false</tt> if
+     *         the path is not known yet
+     * @pre np != null
+     * @post $none
+     */
+    private boolean sendToNetwork(FlowPacket np)
+    {
+        int destId = np.getDestID();
+        int current = outPort_.get_dest();
+        Link link = link_;
+        ArrayList path = new ArrayList();
+
+        while (true)
+        {
+            // routes without loops don't use a link twice
+            if (link == null || path.contains(link) == true) {
+                return false;
+            }
+
+            path.add(link);
+            int next = link.getEnd1();
+            if (next == current) {
+                next = link.getEnd2();
+            }
+
+            if (next == destId) {
+                break;
+            }
+
+            Sim_entity ent = GridSim.getEntity(next);
+            if ( !(ent instanceof FlowRouter) ) {
+                return false;
+            }
+
+            current = next;
+            link = ((FlowRouter) ent).getLink(destId);
+        }
+
+        for (int i = 0; i < path.size(); i++) {
+            np.addLink( (Link) path.get(i) );
+        }
+
+        // the latency of a packet is in milliseconds
+        double delay = np.getLatency() / 1000.0;
+        if (FlowNetwork.isFlow( np.getTag() ) == true)
+        {
+            super.sim_schedule(GridSim.getEntityId(FlowNetwork.NAME), delay,
+                               GridSimTags.PKT_FORWARD, np);
+        }
+        else
+        {
+            int id = GridSim.getEntityRegistry().getInputId(destId);
+            super.sim_schedule(id, delay, np.getTag(), np);
+        }
+
+        return true;
+    }
+
     /**
      * Creates many dummy or null packets
      * @param size          packet size (in bytes)
@@ -637,9 +713,8 @@ public class FlowOutput extends Sim_entity implements NetIO
         {
             //System.out.println("Sending packet to self!");
             // then change the destination name and id
-            String destName = super.get_name();
-            destName = destName.replaceFirst("Output", "Input");
-            dest = Sim_system.get_entity_id(destName);
+            EntityRegistry registry = GridSim.getEntityRegistry();
+            dest = registry.getInputId( registry.getOwnerId(super.get_id()) );
 
             // for a ping packet, change the tag
             if (ping == true)
@@ -26,6 +26,8 @@ import gridsim.net.Packet;
  */
 public class FlowPacket implements Packet
 {
+    private static final long serialVersionUID = -6012419654366516984L;
+
     private int destID;  // where the flow wants to go
     private int srcID;   // sender ID
     private long size;   // flow size (for calculating transmission time)
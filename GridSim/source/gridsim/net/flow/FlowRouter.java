@@ -42,6 +42,7 @@ public class FlowRouter extends Router
     private Hashtable hostTable;
     private Hashtable routerTable;
     private Hashtable forwardTable;
+    private RouteCache routeCache;  // routes by destination id
     private int id;
 
 
@@ -93,6 +94,7 @@ public class FlowRouter extends Router
         routerTable = new Hashtable();
         forwardTable = new Hashtable();
         schedTable = new Hashtable();
+        routeCache = new RouteCache();
     }
 
     /**
@@ -187,6 +189,7 @@ public class FlowRouter extends Router
         }
 
         linkTable.put(router.get_name(), link.get_name());
+        routeCache.clear();
 
         if (!schedTable.containsKey( link.get_name()) ) {
             schedTable.put(link.get_name(), sched);
@@ -243,6 +246,7 @@ public class FlowRouter extends Router
         sched.setBaudRate( link.getBaudRate() );
         link.attach(this, entity);
         linkTable.put( entity.get_name(), link.get_name() );
+        routeCache.clear();
 
         if (!schedTable.containsKey( link.get_name() )) {
             schedTable.put(link.get_name(), sched);
@@ -318,7 +322,7 @@ public class FlowRouter extends Router
     private synchronized void processFlowPacket(Sim_event ev, int tag)
     {
         Packet pkt = (Packet) ev.get_data();
-        PacketScheduler sched = getScheduler(pkt);
+        PacketScheduler sched = findRoute( pkt.getDestID() );
         //System.out.println("Packet id is " + pkt.getID());
 
         // if a packet scheduler is not found, then try reschedule this packet
@@ -384,6 +388,50 @@ public class FlowRouter extends Router
     }
 
 
+    /**
+     * Finds the route to a destination. The route is looked up in the
+     * routing tables once, and then kept in a {@link RouteCache} until the
+     * tables change.
+     * @param destID    a destination id
+     * @return the packet scheduler or <tt>null</tt> if no route is found
+     * @pre destID > 0
+     * @post $none
+     */
+    private synchronized PacketScheduler findRoute(int destID)
+    {
+        PacketScheduler sched = routeCache.getScheduler(destID);
+        if (sched != null) {
+            return sched;
+        }
+
+        String destName = GridSim.getEntityRegistry().getEntityName(destID);
+        sched = getScheduler(destName);
+        if (sched != null)
+        {
+            Link link = (Link) GridSim.getEntity( getLinkName(destID) );
+            routeCache.put(destID, sched, link);
+        }
+
+        return sched;
+    }
+
+    /**
+     * Gets the link used to reach a destination, e.g. to find the path of
+     * a flow for {@link FlowNetwork}
+     * @param destID    a destination id
+     * @return the link or <tt>null</tt> if no route is found
+     * @pre destID > 0
+     * @post $none
+     */
+    public synchronized Link getLink(int destID)
+    {
+        if (findRoute(destID) == null) {
+            return null;
+        }
+
+        return (Link) GridSim.getEntity( routeCache.getLinkID(destID) );
+    }
+
     /**
      * Gets the link's name for a given id
      * @param destID    a destination id
@@ -393,18 +441,20 @@ public class FlowRouter extends Router
      */
     private synchronized String getLinkName(int destID)
     {
-        String destName = GridSim.getEntityName(destID);
-        String linkName = null;
+        String destName = GridSim.getEntityRegistry().getEntityName(destID);
 
-        //directly connected
-        if (hostTable.containsValue(destName)) {
-            linkName = (String)linkTable.get(destName);
-        }
-        else
+        //directly connected, since only attached entities are in linkTable
+        String linkName = (String) linkTable.get(destName);
+        if (linkName == null)
         {
             // need to forward to another router
-            Object[] data = (Object[]) forwardTable.get(destName);
-            String router = (String) data[0];
+            String router = super.getNextRouter(destName);
+            if (router == null)
+            {
+                Object[] data = (Object[]) forwardTable.get(destName);
+                router = (String) data[0];
+            }
+
             linkName = (String) linkTable.get(router);
         }
 
@@ -469,23 +519,28 @@ public class FlowRouter extends Router
         PacketScheduler sched = null;
         try
         {
-            if ( hostTable.containsValue(dest) )
+            String linkName = (String) linkTable.get(dest);
+            if (linkName != null)   // directly connected
             {
-                String linkName = (String) linkTable.get(dest);
                 sched = (PacketScheduler) schedTable.get(linkName);
             }
             else
             {
                 // need to forward to another router
-                Object[] data = (Object[]) forwardTable.get(dest);
+                String router = super.getNextRouter(dest);
+                if (router == null)
+                {
+                    Object[] data = (Object[]) forwardTable.get(dest);
 
-                // in case the forwarding table is incomplete
-                if (data == null) {
-                    return null;
+                    // in case the forwarding table is incomplete
+                    if (data == null) {
+                        return null;
+                    }
+
+                    router = (String) data[0];
                 }
 
-                String router = (String) data[0];
-                String linkName = (String) linkTable.get(router);
+                linkName = (String) linkTable.get(router);
                 sched = (PacketScheduler) schedTable.get(linkName);
             }
         }
@@ -534,10 +589,27 @@ public class FlowRouter extends Router
             tag = GridSimTags.JUNK_PKT;
         }
 
-        // sends the packet via the link
-        String linkName = getLinkName( np.getDestID() );
-        super.sim_schedule(GridSim.getEntityId(linkName),
-                           GridSimTags.SCHEDULE_NOW, tag, np);
+        // sends the packet via the link of the scheduler. This is the
+        // cached route, unless the route has changed since it was queued
+        int destID = np.getDestID();
+        int linkID = -1;
+        if (findRoute(destID) == sched) {
+            linkID = routeCache.getLinkID(destID);
+        }
+        else {
+            linkID = getLinkID(sched);
+        }
+
+        if (linkID < 0)
+        {
+            System.out.println(super.get_name() + ".dequeue(): Warning - " +
+                "can't find the link of " + sched.getSchedName() + " for " +
+                np);
+            System.out.println("-> This packet is dropped.");
+        }
+        else {
+            super.sim_schedule(linkID, GridSimTags.SCHEDULE_NOW, tag, np);
+        }
 
         //System.out.println(super.get_name() + ".deque() time now " +        GridSim.clock());
 
@@ -549,6 +621,29 @@ public class FlowRouter extends Router
         }
     }
 
+    /**
+     * Gets the link behind a packet scheduler, i.e. the link where the
+     * packets queued in the scheduler are sent
+     * @param sched  a packet scheduler of this router
+     * @return the link entity ID or <tt>-1</tt> if the scheduler is not
+     *         attached to a link
+     * @pre sched != null
+     * @post $none
+     */
+    private int getLinkID(PacketScheduler sched)
+    {
+        Enumeration names = schedTable.keys();
+        while ( names.hasMoreElements() )
+        {
+            String linkName = (String) names.nextElement();
+            if (schedTable.get(linkName) == sched) {
+                return GridSim.getEntityId(linkName);
+            }
+        }
+
+        return -1;
+    }
+
     /**-
      * Sends an internal event to itself
      * @param time  the delay time period
@@ -594,6 +689,7 @@ public class FlowRouter extends Router
                 System.out.println(host + "\t\t" + nextHop);
             }
 
+            super.printStaticRoutes();
             System.out.println("-------------------------------------");
             System.out.println();
         }
@@ -621,7 +717,7 @@ public class FlowRouter extends Router
                 super.write("advertise to router, " + router);
             }
 
-            sim_schedule(Sim_system.get_entity_id(router),
+            sim_schedule(GridSim.getEntityId(router),
                          GridSimTags.SCHEDULE_NOW, GridSimTags.ROUTER_AD, ad);
         }
 
@@ -675,6 +771,7 @@ public class FlowRouter extends Router
                 {
                     Object[] toPut = { sender, new Integer(ad.getHopCount()) };
                     forwardTable.put(host, toPut);
+                    routeCache.clear();     // a shorter route is found
                 }
             }
             else
@@ -708,7 +805,7 @@ public class FlowRouter extends Router
             String router = (String)routers.nextElement();
             if (!router.equals(sender))
             {
-                sim_schedule(Sim_system.get_entity_id(router),
+                sim_schedule(GridSim.getEntityId(router),
                       GridSimTags.SCHEDULE_NOW, GridSimTags.ROUTER_AD, newad);
             }
         }
@@ -21,6 +21,8 @@ import gridsim.net.*;
  */
 public class FnbDroppedUserObject implements Packet
 {
+    private static final long serialVersionUID = 3012911863869030688L;
+
     private int userID;
     private int objectID; // id of the object (e.g. gridlet) the dropped pkt belonged to
     private boolean isFile; // true if this is a file
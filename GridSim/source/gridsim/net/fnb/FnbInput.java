@@ -22,6 +22,7 @@ import gridsim.net.fnb.*;
 import gridsim.*;
 import gridsim.net.*;
 import eduni.simjava.*;
+import gridsim.kernel.KernelEntity;
 import java.util.*;
 import java.io.FileWriter;
 import gridsim.util.TrafficGenerator;
@@ -44,7 +45,7 @@ import gridsim.util.TrafficGenerator;
  * @since GridSim Toolkit 4.2
  * @see gridsim.net.Input
  */
-public class FnbInput extends Sim_entity implements NetIO
+public class FnbInput extends KernelEntity implements NetIO
 {
     private Sim_port inPort_;
     private Link link_;
@@ -149,7 +150,7 @@ public class FnbInput extends Sim_entity implements NetIO
     {
         // Process events
         Object obj = null;
-        while ( Sim_system.running() )
+        while ( GridSim.isSimulationRunning() )
         {
             Sim_event ev = new Sim_event();
             super.sim_get_next(ev);     // get the next event in the queue
@@ -189,25 +190,26 @@ public class FnbInput extends Sim_entity implements NetIO
         // since it is not compatible.
         if (link_ != null)
         {
-            // outName = "Output_xxx", where xxx = sender entity name
-            String outName = GridSim.getEntityName( ev.get_src() );
-
-            // NOTE: this is a HACK job. "Output_" has 7 chars. So,
-            // the idea is to get only the entity name by removing
-            // "Output_" word in the outName string.
-            String name = outName.substring(7);
+            // the sender is "Output_xxx", where xxx = sender entity name
+            EntityRegistry registry = GridSim.getEntityRegistry();
+            int sender = registry.getOwnerId( ev.get_src() );
 
             // if the sender is not system GIS then ignore the message
-            if (GridSim.getEntityId(name) != GridSim.getGridInfoServiceEntityId())
+            if (sender != GridSim.getGridInfoServiceEntityId())
             {
                 // sends back the data to "Input_xxx", where
                 // xxx = sender entity name. If not sent, then the sender
                 // will wait forever to receive this data. As a result,
                 // the whole simulation program will be hanged or does not
                 // terminate successfully.
-                int id = GridSim.getEntityId("Input_" + name);
+                int id = registry.getInputId(sender);
                 super.sim_schedule(id, 0.0, ev.get_tag(), io);
 
+                // NOTE: "Output_" has 7 chars, so removing it from the
+                // sender's name gives the entity name.
+                String name = registry.getEntityName( ev.get_src() );
+                name = name.substring(7);
+
                 // print an error message
                 System.out.println(super.get_name() + ".body(): Error - " +
                     "incompatible message protocol.");
@@ -228,7 +230,7 @@ public class FnbInput extends Sim_entity implements NetIO
             // Simulate Transmission Time after Receiving
             // Hold first then dispatch
             double senderBaudRate = ( (Output)
-                    Sim_system.get_entity(ev.get_src()) ).getBaudRate();
+                    GridSim.getEntity(ev.get_src()) ).getBaudRate();
 
             // NOTE: io is in byte and baud rate is in bits. 1 byte = 8 bits
             // So, convert io into bits
@@ -372,16 +374,11 @@ public class FnbInput extends Sim_entity implements NetIO
                         {
                             // The gridlet has arrived perfect, with no packet lost
 
-                            // convert the packets into IO_data
-                            Object data = np.getData();
-                            IO_data io = new IO_data(data, np.getSize(),
-                                    inPort_.get_dest());
-
                             // send the data into entity input port
                             super.sim_schedule(inPort_,
                                                GridSimTags.SCHEDULE_NOW,
                                                tag,
-                                               io.getData());
+                                               np.getData());
 
                            /*// REMOVE!!!
                             System.out.println("\n*********" + super.get_name() +
@@ -513,11 +510,9 @@ public class FnbInput extends Sim_entity implements NetIO
         pkt.addHop( inPort_.get_dest() );
         pkt.addEntryTime( GridSim.clock() );
 
-        IO_data io = new IO_data( pkt, pkt.getSize(), inPort_.get_dest() );
-
         // send this ping() packet to the entity
         super.sim_schedule(inPort_, GridSimTags.SCHEDULE_NOW,
-                           pkt.getTag(), io.getData());
+                           pkt.getTag(), pkt);
     }
 
 } // end class
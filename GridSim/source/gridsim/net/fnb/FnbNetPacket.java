@@ -31,6 +31,8 @@ import gridsim.net.*;
  */
 public class FnbNetPacket implements Packet
 {
+    private static final long serialVersionUID = 8363338199077351212L;
+
     private long size;   // packet size (for calculating transmission time)
     private Object obj;  // the actual object, the type depends on context
 
@@ -50,6 +50,10 @@ import gridsim.*;
  * NOTE: <tt>[]</tt> means an optional parameter for logging activities
  * inside a router.
  * If it is not given, then by default the value is false.
+ * <p>
+ * As with {@link gridsim.util.NetworkReader}, the routes are computed
+ * while the topology is read if
+ * {@link gridsim.GridSim#initStaticRoutes(boolean)} is set.
  *
  * @see gridsim.net.fnb.FnbSCFQScheduler
  * @since GridSim Toolkit 4.2
@@ -269,6 +273,12 @@ public class FnbNetworkReader
         Router r1, r2;
         Link tempLink = null;
 
+        // the links between routers, if the routes are computed up front
+        StaticRoutes routes = null;
+        if ( GridSim.isStaticRouteEnabled() ) {
+            routes = new StaticRoutes(routerList);
+        }
+
         // creating the linking between two routers
         while ((line = buf.readLine()) != null)
         {
@@ -352,8 +362,15 @@ public class FnbNetworkReader
             r1Sched.setWeights(weight);
             r2Sched.setWeights(weight);
             r1.attachRouter(r2, tempLink, r1Sched, r2Sched);
+            if (routes != null) {
+                routes.connect(r1, r2, tempLink);
+            }
         }
-        
+
+        if (routes != null) {
+            routes.install();
+        }
+
         return routerList;
     }
 
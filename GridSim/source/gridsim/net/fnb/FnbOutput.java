@@ -23,6 +23,7 @@ import gridsim.net.*;
 import gridsim.util.*;
 
 import eduni.simjava.*;
+import gridsim.kernel.KernelEntity;
 import java.util.*;
 import gridsim.net.fnb.*;
 import gridsim.datagrid.*;
@@ -42,7 +43,7 @@ import gridsim.datagrid.*;
  * @since GridSim Toolkit 4.2
  * @author  Agustin Caminero, Universidad de Castilla-La Mancha (UCLM) (Spain)
  */
-public class FnbOutput extends Sim_entity implements NetIO
+public class FnbOutput extends KernelEntity implements NetIO
 {
     private Sim_port outPort_; // output port
     private Link link_; // a link to this output entity
@@ -281,7 +282,7 @@ public class FnbOutput extends Sim_entity implements NetIO
         startBackgroundTraffic();
 
         // Process incoming events
-        while (Sim_system.running())
+        while (GridSim.isSimulationRunning())
         {
             Sim_event ev = new Sim_event();
             super.sim_get_next(ev); // get the next event in the queue
@@ -549,14 +550,13 @@ public class FnbOutput extends Sim_entity implements NetIO
 
         // Identify ID of an entity which acts as Input/Buffer
         // entity of destination entity
-        int id = GridSim.getEntityId( "Input_" +
-                 Sim_system.get_entity(destId).get_name() );
+        int id = GridSim.getEntityRegistry().getInputId(destId);
 
         // Send first and then hold
         super.sim_schedule(id, GridSimTags.SCHEDULE_NOW, ev.get_tag(), io);
 
         double receiverBaudRate = ( (NetIO)   //(Input)
-                Sim_system.get_entity(id) ).getBaudRate();
+                GridSim.getEntity(id) ).getBaudRate();
 
         // NOTE: io is in byte and baud rate is in bits. 1 byte = 8 bits
         // So, convert io into bits
@@ -984,9 +984,8 @@ public class FnbOutput extends Sim_entity implements NetIO
         if (np.getDestID() == outPort_.get_dest())
         {
             // then change the destination name and id
-            String destName = super.get_name();
-            destName = destName.replaceFirst("Output", "Input");
-            dest = Sim_system.get_entity_id(destName);
+            EntityRegistry registry = GridSim.getEntityRegistry();
+            dest = registry.getInputId( registry.getOwnerId(super.get_id()) );
 
             // for a ping packet, change the tag
             if (ping == true)
@@ -1014,7 +1013,12 @@ public class FnbOutput extends Sim_entity implements NetIO
         }
 
         // send the packet
-        super.sim_schedule(dest, GridSimTags.SCHEDULE_NOW, tag, np);
+        if (dest == link_.get_id()) {
+            link_.transmit(this, tag, np);
+        }
+        else {
+            super.sim_schedule(dest, GridSimTags.SCHEDULE_NOW, tag, np);
+        }
 
         /*****   // DEBUG info
                  System.out.println(super.get_name() + " send to " +
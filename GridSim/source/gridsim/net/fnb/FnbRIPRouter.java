@@ -496,7 +496,11 @@ public class FnbRIPRouter extends Router
 
         double nextTime = 0;
         Packet pkt = (Packet) ev.get_data();
-        PacketScheduler sched = getScheduler(pkt);
+        // a static route is kept by destination ID, so no names are looked up
+        PacketScheduler sched = super.getStaticScheduler( pkt.getDestID() );
+        if (sched == null) {
+            sched = getScheduler(pkt);
+        }
 
         boolean isFile = false;
         if (pkt instanceof FnbNetPacket)
@@ -523,9 +527,13 @@ public class FnbRIPRouter extends Router
         }
 
         // check downlink MTU, and split accordingly
-        String linkName = getLinkName( pkt.getDestID() );
-        Link downLink = (Link) Sim_system.get_entity(linkName);
-        int MTU = downLink.getMTU();
+        int MTU = super.getStaticMTU( pkt.getDestID() );
+        if (MTU < 0)
+        {
+            String linkName = getLinkName( pkt.getDestID() );
+            Link downLink = (Link) GridSim.getEntity(linkName);
+            MTU = downLink.getMTU();
+        }
         int numPackets = (int) Math.ceil(pkt.getSize() / (MTU * 1.0));
 
         // if no packets at the moment
@@ -595,18 +603,20 @@ public class FnbRIPRouter extends Router
      */
     private synchronized String getLinkName(int destID)
     {
-        String destName = GridSim.getEntityName(destID);
-        String linkName = null;
+        String destName = GridSim.getEntityRegistry().getEntityName(destID);
 
-        //directly connected
-        if (hostTable.containsValue(destName)) {
-            linkName = (String)linkTable.get(destName);
-        }
-        else
+        //directly connected, since only attached entities are in linkTable
+        String linkName = (String) linkTable.get(destName);
+        if (linkName == null)
         {
             // need to forward to another router
-            Object[] data = (Object[]) forwardTable.get(destName);
-            String router = (String) data[0];
+            String router = super.getNextRouter(destName);
+            if (router == null)
+            {
+                Object[] data = (Object[]) forwardTable.get(destName);
+                router = (String) data[0];
+            }
+
             linkName = (String) linkTable.get(router);
         }
 
@@ -671,23 +681,28 @@ public class FnbRIPRouter extends Router
         PacketScheduler sched = null;
         try
         {
-            if ( hostTable.containsValue(dest) )
+            String linkName = (String) linkTable.get(dest);
+            if (linkName != null)   // directly connected
             {
-                String linkName = (String) linkTable.get(dest);
                 sched = (PacketScheduler) schedTable.get(linkName);
             }
             else
             {
                 // need to forward to another router
-                Object[] data = (Object[]) forwardTable.get(dest);
+                String router = super.getNextRouter(dest);
+                if (router == null)
+                {
+                    Object[] data = (Object[]) forwardTable.get(dest);
 
-                // in case the forwarding table is incomplete
-                if (data == null) {
-                    return null;
+                    // in case the forwarding table is incomplete
+                    if (data == null) {
+                        return null;
+                    }
+
+                    router = (String) data[0];
                 }
 
-                String router = (String) data[0];
-                String linkName = (String) linkTable.get(router);
+                linkName = (String) linkTable.get(router);
                 sched = (PacketScheduler) schedTable.get(linkName);
             }
         }
@@ -739,9 +754,11 @@ public class FnbRIPRouter extends Router
             }
 
             // sends the packet via the link
-            String linkName = getLinkName( np.getDestID() );
-            super.sim_schedule(GridSim.getEntityId(linkName),
-                               GridSimTags.SCHEDULE_NOW, tag, np);
+            int linkID = super.getStaticLinkID( np.getDestID() );
+            if (linkID < 0) {
+                linkID = GridSim.getEntityId( getLinkName(np.getDestID()) );
+            }
+            ((Link) GridSim.getEntity(linkID)).transmit(this, tag, np);
 
             // process the next packet in the scheduler
             if ( !sched.isEmpty() )
@@ -797,6 +814,7 @@ public class FnbRIPRouter extends Router
                 System.out.println(host + "\t\t" + nextHop);
             }
 
+            super.printStaticRoutes();
             System.out.println("-------------------------------------");
             System.out.println();
         }
@@ -832,7 +850,7 @@ public class FnbRIPRouter extends Router
             if (super.reportWriter_ != null) {
                 super.write("advertise to router, " + router);
             }
-            sim_schedule(Sim_system.get_entity_id(router),
+            sim_schedule(GridSim.getEntityId(router),
                          GridSimTags.SCHEDULE_NOW, GridSimTags.ROUTER_AD, ad);
         }
 
@@ -919,7 +937,7 @@ public class FnbRIPRouter extends Router
             String router = (String)routers.nextElement();
             if (!router.equals(sender))
             {
-                sim_schedule(Sim_system.get_entity_id(router),
+                sim_schedule(GridSim.getEntityId(router),
                       GridSimTags.SCHEDULE_NOW, GridSimTags.ROUTER_AD, newad);
             }
         }
@@ -33,6 +33,7 @@
 package gridsim.net.fnb;
 
 import eduni.simjava.*;
+import gridsim.kernel.KernelEntity;
 import gridsim.*;
 import java.util.*;
 import gridsim.net.Packet;
@@ -69,15 +70,17 @@ import gridsim.net.fnb.*;
  * @since GridSim Toolkit 4.2
  * @author  Agustin Caminero, Universidad de Castilla-La Mancha (UCLM) (Spain)
  */
-public abstract class FnbSCFQScheduler extends Sim_entity implements PacketScheduler
+public abstract class FnbSCFQScheduler extends KernelEntity implements PacketScheduler
 {
     private String name_;       // this scheduler name
     private double baudRate_;   // baud rate of this scheduler
-    private Vector pktList;     // Sorted List of all Packets
-    private Vector timeList;    // Sorted list of finish times
+    private PacketHeap pktList; // packets that can't be dropped, by finish times
+    private PacketHeap dropList;    // packets that can be dropped, by finish times
+    private long pktCount_;         // number of packets queued so far
+    private int whiteListCount_;    // changes to the white list when sorted out
     private double[] weights;   // weights for different ToS packets
     private double CF ;         // current finish number
-    private Hashtable flowTable;
+    private FlowTable flowTable; // finish time of the last packet of each flow
 
     private int maxBufferSize = 0; // max buffer size used this scheduler in the experiment
     private boolean storeStats;    // record stats or not
@@ -272,9 +275,11 @@ public abstract class FnbSCFQScheduler extends Sim_entity implements PacketSched
     */
     private void init()
     {
-        flowTable = new Hashtable();
-        pktList = new Vector();
-        timeList = new Vector();
+        flowTable = new FlowTable();
+        pktList = new PacketHeap();
+        dropList = new PacketHeap();
+        pktCount_ = 0;
+        whiteListCount_ = FnbWhiteList.getInstance().getModCount();
         weights = null;
         CF = 0;
 
@@ -397,16 +402,11 @@ public abstract class FnbSCFQScheduler extends Sim_entity implements PacketSched
         int destID = pnp.getDestID();   // destination entity id
         int type = pnp.getNetServiceType();     // packet service type
 
-        Double nextTime = (Double) flowTable.get("" + srcID + destID + type);
-        if (nextTime == null)
-        {
-            nextTime = new Double(CF);
-            flowTable.put("" + srcID + destID + type, nextTime);
-        }
-
-        double pktTime = calculateFinishTime(pnp, nextTime.doubleValue());
-        flowTable.put("" + srcID + destID + type, new Double(pktTime));
-        insert(pnp, pktTime); // Sort the queue list
+        double nextTime = flowTable.getTime(srcID, destID, type, CF);
+        double pktTime = calculateFinishTime(pnp, nextTime);
+        flowTable.setTime(srcID, destID, type, pktTime);
+        getQueue(pnp).add(pnp, pktTime, pktCount_); // Sort the queue list
+        pktCount_++;
 
         // Keep an statistic regarding the size of the buffers.
         int bufferSize = this.size();
@@ -426,43 +426,6 @@ public abstract class FnbSCFQScheduler extends Sim_entity implements PacketSched
         return true;
     }
     
-    /**
-    * This function inserts a WFQClass into the sorted
-    * queue list (using binary search)
-    *
-    * @param np    a network packet
-    * @param time  simulation time
-    * @pre np != null
-    * @pre time >= 0
-    * @post $none
-    */
-    private synchronized void insert(Packet np, double time)
-    {
-
-        if ( timeList.isEmpty() )
-        {
-            timeList.add( new Double(time) );
-            pktList.add(np);
-            return;
-        }
-
-        for (int i = 0; i < timeList.size(); i++)
-        {
-            double next = ( (Double) timeList.get(i) ).doubleValue();
-            if (next > time)
-            {
-                timeList.add(i, new Double(time));
-                pktList.add(i, np);
-                return;
-            }
-        }
-
-        // add to end
-        timeList.add( new Double(time) );
-        pktList.add(np);
-        return;
-    }
-
     /**
     * The method deque() has to decide which queue is to be
     * served next. In the original WFQ algorithm, this is always the
@@ -477,10 +440,11 @@ public abstract class FnbSCFQScheduler extends Sim_entity implements PacketSched
     {
 
         Packet p = null;
-        if (pktList.size() > 0 && timeList.size() > 0)
+        PacketHeap queue = getFirstQueue();
+        if (queue != null)
         {
-            p = (Packet) pktList.remove(0);
-            CF = ((Double) timeList.remove(0)).doubleValue();
+            CF = queue.getTime(0);
+            p = queue.remove(0);
 
             /************
             System.out.println(super.get_name() + ": <<<< deque function. PktID: " +
@@ -496,7 +460,7 @@ public abstract class FnbSCFQScheduler extends Sim_entity implements PacketSched
     * @return size of the list of packets*/
     protected double pktListSize()
     {
-        return pktList.size();
+        return size();
     }
 
     /**
@@ -509,7 +473,7 @@ public abstract class FnbSCFQScheduler extends Sim_entity implements PacketSched
     * @post $none
     */
     public synchronized boolean isEmpty() {
-        return pktList.isEmpty();
+        return pktList.isEmpty() && dropList.isEmpty();
     }
 
     /**
@@ -521,7 +485,7 @@ public abstract class FnbSCFQScheduler extends Sim_entity implements PacketSched
     * @post $none
     */
     public synchronized int size() {
-        return pktList.size();
+        return pktList.size() + dropList.size();
     }
 
     /**
@@ -676,112 +640,161 @@ public abstract class FnbSCFQScheduler extends Sim_entity implements PacketSched
                         size() + " pkts. Time: " + GridSim.clock());
         ************/
 
-        for (int i = 0; i < size() ; i++)
+        // the first packet in the queue that can be dropped is the first
+        // one of dropList, once the packets are sorted out again if the
+        // white list has changed
+        sortOutPackets();
+        if ( dropList.isEmpty() )
         {
-            pkt = (Packet) pktList.get(i);
+            //System.out.println("\n" + super.get_name() +
+            //    ":(make) No packet could be dropped.\nTime: " + GridSim.clock() );
 
-            if (pkt instanceof FnbNetPacket)
-            isFile = ((FnbNetPacket) pkt).isFile();
+            return false;
+        }
 
-            int pktID = pkt.getID();
+        pkt = dropList.get(0);
+        if (pkt instanceof FnbNetPacket)
+        isFile = ((FnbNetPacket) pkt).isFile();
 
-            src_outputPort = ((FnbNetPacket) pkt).getSrcID();
-            src_outputPort_str = GridSim.getEntityName(src_outputPort);
+        src_outputPort = ((FnbNetPacket) pkt).getSrcID();
+        src_outputPort_str = GridSim.getEntityName(src_outputPort);
+        // for example, src_outputPort_str = Output_SIM_0_User_0
 
-            String src_str = src_outputPort_str.substring(7);
-            // for example, src_str = SIM_0_User_0
+        String src_str = src_outputPort_str.substring(7);
+        // for example, src_str = SIM_0_User_0
 
+        // Check the destination, as I'm not sure if it works like that
+        dst = ((FnbNetPacket) pkt).getDestID();
+        dst_str = GridSim.getEntityName(dst);
 
-            src_outputPort = ((FnbNetPacket) pkt).getSrcID();
-            src_outputPort_str = GridSim.getEntityName(src_outputPort);
-            // for example, src_outputPort_str = Output_SIM_0_User_0
+        // We must tell the user, not the other end of the transmission
+        int entity;
+        if (dst_str.indexOf("User") == -1)
+        {
+            entity = GridSim.getEntityId(src_str);
+        }
+        else
+        {
+            entity = GridSim.getEntityId(dst_str);
+        }
 
-            // Check the destination, as I'm not sure if it works like that
-            dst = ((FnbNetPacket) pkt).getDestID();
-            dst_str = GridSim.getEntityName(dst);
+        // To remove a packet form this queue we have to do some stuff
+        // I've copied this from the deque method
+        if (getFirstQueue() == dropList)
+        {
+            CF = dropList.getTime(0);
+        }
+        dropList.remove(0);
 
-            // We must tell the user, not the other end of the transmission
-            int entity;
-            if (dst_str.indexOf("User") == -1)
-            {
-                entity = GridSim.getEntityId(src_str);
-            }
-            else
-            {
-                entity = GridSim.getEntityId(dst_str);
-            }
+        // Also, we have to tell the user involved in this transmission
+        // that this packet it's been dropped.
+        glID = ((FnbNetPacket) pkt).getObjectID();
+        if (checkDroppedGlList(glID, entity) == false)
+        {
+            //super.send(src_outputPort, GridSimTags.SCHEDULE_NOW,
+            super.sim_schedule(src_outputPort, GridSimTags.SCHEDULE_NOW,
+                    GridSimTags.FNB_PACKET_DROPPED,
+                    new FnbDroppedUserObject(entity, glID, isFile));
+
+            /******
+            System.out.println("\n" + super.get_name() +
+                ":(make) A packet has been dropped, and an ACK has been sent.\n" +
+                "  src.output: " + src_outputPort_str +
+                ". dst: " + dst_str + "\n  Time: " +
+                GridSim.clock() + ". PktID: " + pkt.getID() +". Gl: " + glID);
+            ******/
 
-            /************* // This works
-            // If none of the ends of this packet is the broker or the GIS
-            if ((src_outputPort_str.indexOf("Broker") == -1) &&
-                (dst_str.indexOf("Broker") == -1) &&
-                (src_outputPort_str.indexOf("GIS") == -1) &&
-                (dst_str.indexOf("GIS") == -1) ||
-                (src_outputPort_str.indexOf("RC") != -1) ||
-                (dst_str.indexOf("RC") != -1))
-            ***************/
-
-
-            // if the src and the dest of the packet are not in the whitelist, 
-            // then we can drop the pkt
-            FnbWhiteList whiteList = FnbWhiteList.getInstance();
-            if (!whiteList.checkList(dst) &&
-                !whiteList.checkList(src_outputPort))
-            {
-                // To remove a packet form this queue we have to do some stuff
-                // I've copied this from the deque method
-                pktList.remove(i);
-                if (i == 0)
-                {
-                    CF = ((Double) timeList.remove(i)).doubleValue();
-                }
-                else
-                {
-                    timeList.remove(i);
-                }
+        }
+        /*****
+        else
+        {
+            System.out.println("\n" + super.get_name() +
+                ":(make) A packet has been dropped.\n" +
+                "  src.output: " + src_outputPort_str +
+                ". dst: " + dst_str +
+                "\n  Time: " + GridSim.clock() + ". PktID: " + pkt.getID() +
+                ". Gl: " + glID);
 
-                // Also, we have to tell the user involved in this transmission
-                // that this packet it's been dropped.
-                glID = ((FnbNetPacket) pkt).getObjectID();
-                if (checkDroppedGlList(glID, entity) == false)
-                {
-                    //super.send(src_outputPort, GridSimTags.SCHEDULE_NOW,
-                    super.sim_schedule(src_outputPort, GridSimTags.SCHEDULE_NOW,
-                            GridSimTags.FNB_PACKET_DROPPED, 
-                            new FnbDroppedUserObject(entity, glID, isFile));
-
-                    /******
-                    System.out.println("\n" + super.get_name() +
-                        ":(make) A packet has been dropped, and an ACK has been sent.\n" +
-                        "  src.output: " + src_outputPort_str +
-                        ". dst: " + dst_str + "\n  Time: " +
-                        GridSim.clock() + ". PktID: " + pkt.getID() +". Gl: " + glID);
-                    ******/
+        }
+        *****/
 
-                }
-                /*****
-                else
-                {
-                    System.out.println("\n" + super.get_name() +
-                        ":(make) A packet has been dropped.\n" +
-                        "  src.output: " + src_outputPort_str +
-                        ". dst: " + dst_str +
-                        "\n  Time: " + GridSim.clock() + ". PktID: " + pkt.getID() +
-                        ". Gl: " + glID);
-                   
-                }
-                *****/
+        return true;
+    }
 
-                return true;
-            }
+    /**
+    * Gets the queue of a packet. A packet can be dropped if neither its source
+    * nor its destination is in the white list.
+    * @param pkt   a packet
+    * @return dropList if the packet can be dropped, pktList otherwise
+    * @pre pkt != null
+    * @post $none
+    */
+    private PacketHeap getQueue(Packet pkt)
+    {
+        FnbWhiteList whiteList = FnbWhiteList.getInstance();
+        if (whiteList.checkList(pkt.getDestID()) ||
+            whiteList.checkList(pkt.getSrcID()))
+        {
+            return pktList;
+        }
 
+        return dropList;
+    }
 
-        }// for (int i = 0; i < size() ; i++)
+    /**
+    * Gets the queue that holds the packet to be sent out next, i.e. the one
+    * with the lowest finish time. Packets with the same finish time leave in
+    * the order they were queued.
+    * @return pktList or dropList, or <tt>null</tt> if both are empty
+    * @pre $none
+    * @post $none
+    */
+    private PacketHeap getFirstQueue()
+    {
+        if ( dropList.isEmpty() ) {
+            return pktList.isEmpty() ? null : pktList;
+        }
 
-        //System.out.println("\n" + super.get_name() +
-        //    ":(make) No packet could be dropped.\nTime: " + GridSim.clock() );
+        if ( pktList.isEmpty() ) {
+            return dropList;
+        }
 
-        return false;
+        double time = pktList.getTime(0);
+        double dropTime = dropList.getTime(0);
+        if (time != dropTime) {
+            return (time < dropTime) ? pktList : dropList;
+        }
+
+        return (pktList.getOrder(0) < dropList.getOrder(0)) ? pktList : dropList;
+    }
+
+    /**
+    * Puts every packet into its queue again if the white list has changed
+    * since the packets were queued
+    * @pre $none
+    * @post $none
+    */
+    private void sortOutPackets()
+    {
+        int count = FnbWhiteList.getInstance().getModCount();
+        if (count == whiteListCount_) {
+            return;
+        }
+
+        whiteListCount_ = count;
+        PacketHeap[] queues = { pktList, dropList };
+        pktList = new PacketHeap();
+        dropList = new PacketHeap();
+
+        for (int i = 0; i < queues.length; i++)
+        {
+            PacketHeap queue = queues[i];
+            for (int j = 0; j < queue.size(); j++)
+            {
+                Packet pkt = queue.get(j);
+                getQueue(pkt).add(pkt, queue.getTime(j), queue.getOrder(j));
+            }
+        }
     }
 
     /**
@@ -839,7 +852,7 @@ public abstract class FnbSCFQScheduler extends Sim_entity implements PacketSched
         /**********  // NOTE: an empty body() method
         // Process events
         Object obj = null;
-        while ( Sim_system.running() )
+        while ( GridSim.isSimulationRunning() )
         {
             Sim_event ev = new Sim_event();
             super.sim_get_next(ev); // get the next event in the queue
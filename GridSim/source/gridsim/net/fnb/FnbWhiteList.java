@@ -44,6 +44,15 @@ public class FnbWhiteList extends ArrayList {
         super();
     }
     
+    /**
+     * Gets the number of times this white list has been changed, so that a
+     * scheduler can tell whether the packets it holds must be checked again
+     * @return the number of changes to this white list
+     */
+    int getModCount() {
+        return super.modCount;
+    }
+
     /**
      * Returns <tt>true</tt> if the given id is in the white list.
      * @param   id  an entity id
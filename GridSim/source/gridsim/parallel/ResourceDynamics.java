@@ -32,6 +32,8 @@ import gridsim.parallel.profile.PERangeList;
  * @since 	5.0
  */
 public class ResourceDynamics extends ResourceCharacteristics {
+	private static final long serialVersionUID = -2583119126244433784L;
+
 	private PERangeList freePEs;		// ranges of PEs available
 	private int numPE;					// number of PEs in the resource
 	
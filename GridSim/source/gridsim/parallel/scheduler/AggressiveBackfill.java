@@ -14,7 +14,6 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import eduni.simjava.Sim_event;
-import eduni.simjava.Sim_system;
 import gridsim.AllocPolicy;
 import gridsim.GridSim;
 import gridsim.GridSimTags;
@@ -130,7 +129,7 @@ public class AggressiveBackfill extends AllocPolicy {
         // execution. This is particularly important for the
         // GUI to show the completion of advance reservations
         Sim_event ev = new Sim_event();
-        while ( Sim_system.running() ) {
+        while ( GridSim.isSimulationRunning() ) {
             super.sim_get_next(ev);
 
             // if the simulation finishes then exit the loop
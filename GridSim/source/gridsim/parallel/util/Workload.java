@@ -14,11 +14,11 @@ import java.util.List;
 import java.util.logging.Logger;
 
 import eduni.simjava.Sim_event;
-import eduni.simjava.Sim_system;
 
 import gridsim.GridSim;
 import gridsim.GridSimTags;
 import gridsim.Gridlet;
+import gridsim.GridletStore;
 import gridsim.IO_data;
 import gridsim.net.InfoPacket;
 import gridsim.net.Link;
@@ -46,6 +46,11 @@ import gridsim.parallel.log.Logging;
  *           {@link #Workload(String, double, double, int, String, WorkloadModel)}
  *           instead.
  * </ul>
+ * <p>
+ * When the jobs are read by a {@link WorkloadFileReader} and the GridSim 
+ * trace is disabled, the jobs are kept in a {@link GridletStore} and each 
+ * Gridlet is only created when its submit time is reached. This allows 
+ * replaying traces with millions of jobs.
  *
  * @author Marcos Dias de Assuncao
  * @since  5.0
@@ -57,6 +62,12 @@ public class Workload extends GridSim {
     private ArrayList<Gridlet> completedJobs = null;   // list for collecting jobs
     private WorkloadModel model = null;
     private int numGenJobs = 0;
+    
+    // the jobs kept in a store, if any
+    private GridletStore store = null;
+    private int nextJob = 0;        // the next job in the store to be sent
+    private int[] completedSlots = null;   // completed jobs in the store
+    private int numCompleted = 0;
 
     /**
      * Create a new Workload object <b>without</b> using the network extension.
@@ -199,7 +210,7 @@ public class Workload extends GridSim {
         	logger.info(super.get_name() +  " is collecting jobs...");
         	
             Sim_event ev = new Sim_event();
-        	while (Sim_system.running()) {
+        	while (GridSim.isSimulationRunning()) {
                 super.sim_get_next(ev);
 
                 // if the simulation finishes then exit the loop
@@ -211,7 +222,7 @@ public class Workload extends GridSim {
                 processEvent(ev);
                 
                 // if all the Gridlets have been collected
-                if (completedJobs.size() == numGenJobs) {
+                if (numCompleted == numGenJobs) {
                     break;
                 }
             }
@@ -237,6 +248,11 @@ public class Workload extends GridSim {
     	logger.info(super.get_name() +  " is submitting jobs to " + 
     			GridSim.getEntityName(resID) + " ...");
     	
+    	// the store does not record the history of the Gridlets
+    	if (model instanceof WorkloadFileReader && !GridSim.isTraceEnabled()) {
+    		return submitStore( ((WorkloadFileReader) model).generateStore() );
+    	}
+    	
     	List<WorkloadJob> jobs = model.generateWorkload();
     	if(jobs == null) {
     		return false;
@@ -254,6 +270,65 @@ public class Workload extends GridSim {
     	return true;
     }
 
+    /**
+     * Submits the jobs kept in a store to the resource. If the jobs are in
+     * order of submit time, only the jobs submitted now are sent, and this
+     * entity is woken up at the submit time of the next job.
+     * @param jobs the store with the jobs
+     * @return <code>true</code> if successful; <code>false</code> otherwise.
+     */
+    private boolean submitStore(GridletStore jobs) {
+    	if(jobs == null) {
+    		return false;
+    	}
+    	
+    	store = jobs;
+    	numGenJobs = store.size();
+    	completedSlots = new int[numGenJobs];
+    	
+    	boolean sorted = true;
+    	for(int i = 1; i < numGenJobs && sorted; i++) {
+    		sorted = store.getReleaseTime(i - 1) <= store.getReleaseTime(i);
+    	}
+    	
+    	// jobs out of order are all sent at once
+    	if(!sorted) {
+    		for(int i = 0; i < numGenJobs; i++) {
+    			Gridlet gl = store.getGridlet(i);
+                gl.setUserID( super.get_id() );
+                super.send(resID, store.getReleaseTime(i), 
+                		GridSimTags.GRIDLET_SUBMIT, gl);
+    		}
+    		nextJob = numGenJobs;
+    		return true;
+    	}
+    	
+    	releaseJobs();
+    	return true;
+    }
+
+    /**
+     * Sends the jobs in the store whose submit time has been reached, then
+     * asks to be woken up at the submit time of the next job.
+     */
+    private void releaseJobs() {
+    	double now = GridSim.clock();
+    	while(nextJob < numGenJobs) {
+    		long time = store.getReleaseTime(nextJob);
+    		if(time > now) {
+    			super.send(super.get_id(), time - now, 
+    					GridSimTags.INSIGNIFICANT);
+    			return;
+    		}
+    		
+    		Gridlet gl = store.getGridlet(nextJob);
+            gl.setUserID( super.get_id() );   // set the owner ID
+            super.send(resID, GridSimTags.SCHEDULE_NOW, 
+            		GridSimTags.GRIDLET_SUBMIT, gl);
+            nextJob++;
+    	}
+    }
+
     /**
      * Processes events sent to this entity.
      * @param ev the event received.
@@ -264,7 +339,16 @@ public class Workload extends GridSim {
 
         if (data != null && data instanceof Gridlet) {
         	Gridlet gl = (Gridlet)data;
-        	completedJobs.add(gl);
+        	if(store != null) {
+        		completedSlots[numCompleted] = store.indexOf(gl);
+        	}
+        	else {
+        		completedJobs.add(gl);
+        	}
+        	numCompleted++;
+        }
+        else if (store != null && ev.get_tag() == GridSimTags.INSIGNIFICANT) {
+        	releaseJobs();
         }
         else {
             // handle ping request
@@ -298,12 +382,30 @@ public class Workload extends GridSim {
      * simulation completes
      */
     public ArrayList<Gridlet> getGridletList() {
-    	if(completedJobs == null || Sim_system.running()) {
+    	if((completedJobs == null && completedSlots == null) || 
+    			GridSim.isSimulationRunning()) {
     		throw new IllegalStateException("Impossible to return job list " +
     				"before the simulation completes");
     	}
     	
+    	// the Gridlets of the store are only created when asked for
+    	if(completedJobs == null) {
+    		completedJobs = new ArrayList<Gridlet>(numCompleted);
+    		for(int i = 0; i < numCompleted; i++) {
+    			completedJobs.add( store.getGridlet(completedSlots[i]) );
+    		}
+    	}
+    	
         return completedJobs;
     }
+    
+    /**
+     * Gets the store that keeps the jobs, if the jobs have been read into
+     * a {@link GridletStore}
+     * @return the store, or <code>null</code> if none
+     */
+    public GridletStore getGridletStore() {
+    	return store;
+    }
 } 
 
@@ -24,6 +24,7 @@ import java.util.zip.ZipFile;
 
 import gridsim.GridSim;
 import gridsim.Gridlet;
+import gridsim.GridletStore;
 import gridsim.net.Link;
 import gridsim.parallel.log.LoggerEnum;
 import gridsim.parallel.log.Logging;
@@ -78,6 +79,8 @@ public class WorkloadFileReader implements WorkloadModel {
     private int rating;        			// a PE rating
     private int size = Link.DEFAULT_MTU;  	// job size for sending it through a network
     private ArrayList<WorkloadJob> jobs = null;  // a list for getting all the Gridlets
+    private GridletStore store = null;  // a store for getting all the Gridlets
+    private boolean compact = false;    // reads the file into the store
 
     // using Standard Workload Format 
     private int JOB_NUM = 1 - 1;        // job number
@@ -228,32 +231,60 @@ public class WorkloadFileReader implements WorkloadModel {
     public ArrayList<WorkloadJob> generateWorkload() {
     	if(jobs == null) {
 	        jobs = new ArrayList<WorkloadJob>();
-	
-	        // create a temp array
-	        fieldArray = new String[MAX_FIELD];
-	        
-	        try {
-		        if (fileName.endsWith(".gz")) {
-		        	readGZIPFile(fileName);
-		        }
-		        else if (fileName.endsWith(".zip")) {
-		            readZipFile(fileName);
-		        }
-		        else {
-		            readFile(fileName);
-		        }
-			} catch (FileNotFoundException e) {
-				logger.log(Level.SEVERE, "File not found", e);
-			} catch (IOException e) {
-				logger.log(Level.SEVERE, "Error reading file", e);
-			}
+	        compact = false;
+	        readWorkload();
     	}
         
         return jobs;
     }
 
+    /**
+     * Reads job information from a given file into a {@link GridletStore},
+     * without creating one Gridlet object per job. The submit time of each 
+     * job is given by {@link GridletStore#getReleaseTime(int)}, and the jobs 
+     * are in the same order as in the file. This is meant for traces with 
+     * millions of jobs. Unlike {@link #generateWorkload()}, the history of 
+     * the Gridlets is never recorded.
+     * @return the store with the jobs read from the file
+     * @see Workload
+     */
+    public GridletStore generateStore() {
+    	if(store == null) {
+	        store = new GridletStore();
+	        compact = true;
+	        readWorkload();
+	        store.trimToSize();
+    	}
+    	
+    	return store;
+    }
+
     //------------------- PRIVATE METHODS -------------------
 
+    /**
+     * Reads the file into the list of jobs or into the store
+     */
+    private void readWorkload() {
+        // create a temp array
+        fieldArray = new String[MAX_FIELD];
+        
+        try {
+	        if (fileName.endsWith(".gz")) {
+	        	readGZIPFile(fileName);
+	        }
+	        else if (fileName.endsWith(".zip")) {
+	            readZipFile(fileName);
+	        }
+	        else {
+	            readFile(fileName);
+	        }
+		} catch (FileNotFoundException e) {
+			logger.log(Level.SEVERE, "File not found", e);
+		} catch (IOException e) {
+			logger.log(Level.SEVERE, "Error reading file", e);
+		}
+    }
+
     /**
      * Breaks a line of string into many fields.
      * @param line  a line of string
@@ -306,7 +337,7 @@ public class WorkloadFileReader implements WorkloadModel {
             // get the job number
             int id = 0;
             if (JOB_NUM == IRRELEVANT) {
-                id = jobs.size() + 1;
+                id = (compact ? store.size() : jobs.size()) + 1;
             }
             else {
                 obj = new Integer( array[JOB_NUM].trim() );
@@ -360,7 +391,8 @@ public class WorkloadFileReader implements WorkloadModel {
     }
 
     /**
-     * Creates a Gridlet with the given information and adds to the list
+     * Creates a Gridlet with the given information and adds to the list,
+     * or adds the job to the store
      * @param id  a Gridlet ID
      * @param submitTime  Gridlet's submit time
      * @param runTime     Gridlet's run time
@@ -372,15 +404,24 @@ public class WorkloadFileReader implements WorkloadModel {
      * @post $none
      */
     private void createGridlet(int id, long submitTime, int runTime, int numProc) {
-        // create the gridlet
         int len = runTime * rating;      // calculate a job length for each PE
-        Gridlet gl = new Gridlet(id, len, size, size, GridSim.isTraceEnabled());
-        gl.setNumPE(numProc);             // set the requested num of proc
 
         // check the submit time
         if (submitTime < 0) {
             submitTime = 0L;
         }
+
+        // only keep the attributes of the job
+        if (compact) {
+        	int slot = store.add(id, len, size, size);
+        	store.setNumPE(slot, numProc);
+        	store.setReleaseTime(slot, submitTime);
+        	return;
+        }
+
+        // create the gridlet
+        Gridlet gl = new Gridlet(id, len, size, size, GridSim.isTraceEnabled());
+        gl.setNumPE(numProc);             // set the requested num of proc
         
         WorkloadJob wgl = new WorkloadJob(gl, submitTime);
         jobs.add(wgl);
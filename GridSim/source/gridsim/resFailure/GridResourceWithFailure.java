@@ -19,7 +19,6 @@ import gridsim.net.*;
 import gridsim.index.*;
 import java.util.LinkedList;
 import eduni.simjava.Sim_event;
-import eduni.simjava.Sim_system;
 import gridsim.resFailure.FailureMsg;
 import java.io.FileWriter;
 
@@ -424,6 +423,8 @@ public class GridResourceWithFailure extends GridSimCore
      *      <li> {@link gridsim.GridSimTags#GRIDLET_PAUSE} </li>
      *      <li> {@link gridsim.GridSimTags#GRIDLET_RESUME} </li>
      *      <li> {@link gridsim.GridSimTags#GRIDLET_MOVE} </li>
+     *      <li> {@link gridsim.GridSimTags#GRIDLET_MOVE_BULK} </li>
+     *      <li> {@link gridsim.GridSimTags#GRIDLET_MIGRATE} </li>
      *      <li> {@link gridsim.GridSimTags#GRIDLET_STATUS} </li>
      * </ul>
      * <br>
@@ -474,7 +475,7 @@ public class GridResourceWithFailure extends GridSimCore
         // Process events until END_OF_SIMULATION is received from the
         // GridSimShutdown Entity
         Sim_event ev = new Sim_event();
-        while ( Sim_system.running() )
+        while ( GridSim.isSimulationRunning() )
         {
             super.sim_get_next(ev);
 
@@ -695,6 +696,16 @@ public class GridResourceWithFailure extends GridSimCore
                     processGridletMove(ev, GridSimTags.GRIDLET_MOVE_ACK);
                     break;
 
+                    // Moves a list of Gridlets to a different res
+                case GridSimTags.GRIDLET_MOVE_BULK:
+                    processGridletMoveBulk(ev);
+                    break;
+
+                    // Gridlets moved from a different res arrive
+                case GridSimTags.GRIDLET_MIGRATE:
+                    processGridletMigrate(ev);
+                    break;
+
                     // Checks the status of a Gridlet
                 case GridSimTags.GRIDLET_STATUS:
                     processGridletStatus(ev);
@@ -761,6 +772,26 @@ public class GridResourceWithFailure extends GridSimCore
                     new IO_data(gl,gl.getGridletOutputSize(),gl.getUserID()) );
 
             }// if (obj instanceof Gridlet)
+            else if (obj instanceof GridletMigration)
+            {
+                // moved Gridlets are sent back one by one, as if each of
+                // them had been submitted on its own
+                GridletMigration migration = (GridletMigration) obj;
+                migration.arrive();
+
+                for (Gridlet gl : migration.getGridletList())
+                {
+                    try
+                    {
+                        gl.setGridletStatus(Gridlet.FAILED_RESOURCE_UNAVAILABLE);
+                        gl.setResourceParameter(super.get_id(), resource_.getCostPerSec());
+
+                    }catch(Exception e) {}
+
+                    super.send(super.output, 0, GridSimTags.GRIDLET_RETURN,
+                        new IO_data(gl,gl.getGridletOutputSize(),gl.getUserID()) );
+                }
+            }
             else if (ev.get_tag() == GridSimTags.RESOURCE_CHARACTERISTICS)
             {
                 // Resource characteristics inquiry
@@ -824,6 +855,12 @@ public class GridResourceWithFailure extends GridSimCore
             return;
         }
 
+        // a Gridlet moving to this resource has not left the user's view
+        if (status == -1 &&
+            GridletMigration.isInFlight(gridletId, userId, super.get_id())) {
+            status = Gridlet.QUEUED;
+        }
+
         int[] array = new int[2];
         array[0] = gridletId;
         array[1] = status;
@@ -940,6 +977,73 @@ public class GridResourceWithFailure extends GridSimCore
         }
     }
 
+    /**
+     * Process the event for an User who wants to move a list of Gridlets.
+     * @param ev   a Sim_event object
+     * @pre ev != null
+     * @post $none
+     */
+    private void processGridletMoveBulk(Sim_event ev)
+    {
+        try
+        {
+            // the user ID and destination ID, followed by the Gridlet IDs
+            int data[] = (int[]) ev.get_data();
+            int userId = data[0];
+            int destId = data[1];
+
+            int[] gridletIds = new int[data.length - 2];
+            System.arraycopy(data, 2, gridletIds, 0, gridletIds.length);
+
+            policy_.gridletMove(gridletIds, userId, destId);
+        }
+        catch (Exception e)
+        {
+            System.out.println(super.get_name() +
+                    ": Error in moving a list of Gridlets.");
+            System.out.println( e.getMessage() );
+        }
+    }
+
+    /**
+     * Processes Gridlets that have been moved from a different resource.
+     * @param ev   a Sim_event object
+     * @pre ev != null
+     * @post $none
+     */
+    private void processGridletMigrate(Sim_event ev)
+    {
+        try
+        {
+            GridletMigration migration = (GridletMigration) ev.get_data();
+            migration.arrive();
+
+            int i = 0;
+            for (Gridlet gl : migration.getGridletList())
+            {
+                boolean ack = migration.isAckRequired(i);
+                i++;
+
+                // checks whether this Gridlet has finished or not
+                if (gl.isFinished())
+                {
+                    returnFinishedGridlet(gl, ack);
+                    continue;
+                }
+
+                gl.setResourceParameter(super.get_id(),
+                                        resource_.getCostPerSec());
+                policy_.gridletSubmit(gl, ack);
+            }
+        }
+        catch (Exception e)
+        {
+            System.out.println(super.get_name() +
+                    ": Error in receiving moved Gridlets.");
+            System.out.println( e.getMessage() );
+        }
+    }
+
     /**
      * Processes a Gridlet submission
      * @param ev  a Sim_event object
@@ -957,33 +1061,7 @@ public class GridResourceWithFailure extends GridSimCore
             // checks whether this Gridlet has finished or not
             if (gl.isFinished())
             {
-                String name = GridSim.getEntityName( gl.getUserID() );
-                System.out.println(super.get_name() + ": Warning - Gridlet #" +
-                        gl.getGridletID() + " owned by " + name +
-                        " is already completed/finished.");
-                System.out.println("Therefore, it is not being executed again");
-                System.out.println();
-
-                // NOTE: If a Gridlet has finished, then it won't be processed.
-                // So, if ack is required, this method sends back a result.
-                // If ack is not required, this method don't send back a result.
-                // Hence, this might cause GridSim to be hanged since waiting
-                // for this Gridlet back.
-                if (ack)
-                {
-                    int[] array = new int[2];
-                    array[0] = gl.getGridletID();
-                    array[1] = GridSimTags.FALSE;
-
-                    // unique tag = operation tag
-                    int tag = GridSimTags.GRIDLET_SUBMIT_ACK;
-                    super.send(super.output, GridSimTags.SCHEDULE_NOW, tag,
-                            new IO_data(array, SIZE, gl.getUserID()) );
-                }
-
-                super.send(super.output, 0, GridSimTags.GRIDLET_RETURN,
-                    new IO_data(gl,gl.getGridletOutputSize(),gl.getUserID()) );
-
+                returnFinishedGridlet(gl, ack);
                 return;
             }
 
@@ -1005,6 +1083,44 @@ public class GridResourceWithFailure extends GridSimCore
         }
     }
 
+    /**
+     * Sends back a Gridlet that has finished already, since it is not being
+     * executed again
+     * @param gl   a Gridlet that has finished
+     * @param ack  an acknowledgement
+     * @pre gl != null
+     * @post $none
+     */
+    private void returnFinishedGridlet(Gridlet gl, boolean ack)
+    {
+        String name = GridSim.getEntityName( gl.getUserID() );
+        System.out.println(super.get_name() + ": Warning - Gridlet #" +
+                gl.getGridletID() + " owned by " + name +
+                " is already completed/finished.");
+        System.out.println("Therefore, it is not being executed again");
+        System.out.println();
+
+        // NOTE: If a Gridlet has finished, then it won't be processed.
+        // So, if ack is required, this method sends back a result.
+        // If ack is not required, this method don't send back a result.
+        // Hence, this might cause GridSim to be hanged since waiting
+        // for this Gridlet back.
+        if (ack)
+        {
+            int[] array = new int[2];
+            array[0] = gl.getGridletID();
+            array[1] = GridSimTags.FALSE;
+
+            // unique tag = operation tag
+            int tag = GridSimTags.GRIDLET_SUBMIT_ACK;
+            super.send(super.output, GridSimTags.SCHEDULE_NOW, tag,
+                    new IO_data(array, SIZE, gl.getUserID()) );
+        }
+
+        super.send(super.output, 0, GridSimTags.GRIDLET_RETURN,
+            new IO_data(gl,gl.getGridletOutputSize(),gl.getUserID()) );
+    }
+
     /**
      * Processes a ping request.
      * @param ev  a Sim_event object
@@ -105,7 +105,7 @@ class TimeSharedWithFailure extends AllocPolicy implements AllocPolicyWithFailur
     {
         // a loop that is looking for internal events only
         Sim_event ev = new Sim_event();
-        while ( Sim_system.running() )
+        while ( GridSim.isSimulationRunning() )
         {
             super.sim_get_next(ev);
 
@@ -198,20 +198,16 @@ class TimeSharedWithFailure extends AllocPolicy implements AllocPolicyWithFailur
         ResGridlet rgl = null;
 
         // Find in EXEC List first
-        int found = gridletInExecList_.indexOf(gridletId, userId);
-        if (found >= 0)
+        rgl = gridletInExecList_.get(gridletId, userId);
+        if (rgl != null)
         {
-            // Get the Gridlet from the execution list
-            rgl = (ResGridlet) gridletInExecList_.get(found);
             return rgl.getGridletStatus();
         }
 
         // if not found then find again in Paused List
-        found = gridletPausedList_.indexOf(gridletId, userId);
-        if (found >= 0)
+        rgl = gridletPausedList_.get(gridletId, userId);
+        if (rgl != null)
         {
-            // Get the Gridlet from the execution list
-            rgl = (ResGridlet) gridletPausedList_.get(found);
             return rgl.getGridletStatus();
         }
 
@@ -299,14 +295,14 @@ class TimeSharedWithFailure extends AllocPolicy implements AllocPolicyWithFailur
         boolean status = false;
 
         // find this Gridlet in the execution list
-        int found = gridletInExecList_.indexOf(gridletId, userId);
-        if (found >= 0)
+        ResGridlet rgl = gridletInExecList_.get(gridletId, userId);
+        if (rgl != null)
         {
             // update Gridlets in execution list up to this point in time
             updateGridletProcessing();
 
             // get a Gridlet from execution list
-            ResGridlet rgl = (ResGridlet) gridletInExecList_.remove(found);
+            gridletInExecList_.remove(rgl);
 
             // if a Gridlet is finished upon pausing, then set it to success
             // instead.
@@ -434,14 +430,14 @@ class TimeSharedWithFailure extends AllocPolicy implements AllocPolicyWithFailur
         boolean success = false;
 
         // finds in the execution list first
-        int found = gridletPausedList_.indexOf(gridletId, userId);
-        if (found >= 0)
+        ResGridlet rgl = gridletPausedList_.get(gridletId, userId);
+        if (rgl != null)
         {
             // need to update Gridlets in execution up to this point in time
             updateGridletProcessing();
 
             // remove a Gridlet from paused list and change the status
-            ResGridlet rgl = (ResGridlet) gridletPausedList_.remove(found);
+            gridletPausedList_.remove(rgl);
             rgl.setGridletStatus(Gridlet.RESUMED);
 
             // add the Gridlet back to in execution list
@@ -765,16 +761,16 @@ class TimeSharedWithFailure extends AllocPolicy implements AllocPolicyWithFailur
         ResGridlet rgl = null;
 
         // Check whether the Gridlet is in execution list or not
-        int found = gridletInExecList_.indexOf(gridletId, userId);
+        rgl = gridletInExecList_.get(gridletId, userId);
 
         // if a Gridlet is in execution list
-        if (found >= 0)
+        if (rgl != null)
         {
             // update the gridlets in execution list up to this point in time
             updateGridletProcessing();
 
             // Get the Gridlet from the execution list
-            rgl = (ResGridlet) gridletInExecList_.remove(found);
+            gridletInExecList_.remove(rgl);
 
             // if a Gridlet is finished upon cancelling, then set it to success
             if (rgl.getRemainingGridletLength() == 0.0) {
@@ -791,12 +787,12 @@ class TimeSharedWithFailure extends AllocPolicy implements AllocPolicyWithFailur
         // if a Gridlet is not in exec list, then find it in the paused list
         else
         {
-            found = gridletPausedList_.indexOf(gridletId, userId);
+            rgl = gridletPausedList_.get(gridletId, userId);
 
             // if a Gridlet is found in the paused list then remove it
-            if (found >= 0)
+            if (rgl != null)
             {
-                rgl = (ResGridlet) gridletPausedList_.remove(found);
+                gridletPausedList_.remove(rgl);
                 rgl.setGridletStatus(Gridlet.CANCELED);
             }
         }
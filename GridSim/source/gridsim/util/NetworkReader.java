@@ -11,10 +11,12 @@ package gridsim.util;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
+import java.io.Reader;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.StringTokenizer;
 
+import gridsim.GridSim;
 import gridsim.net.FIFOScheduler;
 import gridsim.net.FloodingRouter;
 import gridsim.net.Link;
@@ -24,6 +26,7 @@ import gridsim.net.RateControlledScheduler;
 import gridsim.net.Router;
 import gridsim.net.SCFQScheduler;
 import gridsim.net.SimpleLink;
+import gridsim.net.StaticRoutes;
 import gridsim.net.flow.FlowLink;
 import gridsim.net.flow.FlowRouter;
 
@@ -50,6 +53,14 @@ import gridsim.net.flow.FlowRouter;
  * NOTE: <tt>[]</tt> means an optional parameter for logging activities
  * inside a router.
  * If it is not given, then by default the value is false.
+ * <p>
+ * Each method can also read the description from a <tt>Reader</tt>, so that
+ * a file that has been loaded once can be used by many simulations.
+ * <p>
+ * By default, the routers find their routes by advertising their hosts to
+ * each other when the simulation starts. For a large topology, this takes
+ * many events, so {@link gridsim.GridSim#initStaticRoutes(boolean)} can be
+ * used to compute the routes while the topology is read instead.
  *
  * @author  Uros Cibej and Anthony Sulistio
  * @since   GridSim Toolkit 4.0
@@ -87,6 +98,32 @@ public class NetworkReader
         return routerList;
     }
 
+    /**
+     * Creates a network topology that uses a FIFO packet scheduler, from a
+     * description that has already been loaded, e.g. one that is shared by
+     * many simulations
+     * @param reader  a reader of the description of the network topology
+     * @return the list of Routers of the network or <tt>null</tt> if an error
+     *         occurs
+     * @see #createFIFO(String)
+     * @since GridSim Toolkit 5.2
+     */
+    public static LinkedList createFIFO(Reader reader)
+    {
+        LinkedList routerList = null;
+        try {
+            routerList = createNetworkFIFO( new BufferedReader(reader) );
+        }
+        catch (Exception exp)
+        {
+            System.out.println("NetworkReader: Error - invalid network " +
+                               "topology.");
+            routerList = null;
+        }
+
+        return routerList;
+    }
+
     /**
      * Creates a network topology that uses a SCFQ packet scheduler
      * @param filename  the name of the file containing the description of
@@ -120,6 +157,37 @@ public class NetworkReader
         return routerList;
     }
 
+    /**
+     * Creates a network topology that uses a SCFQ packet scheduler, from a
+     * description that has already been loaded
+     * @param reader  a reader of the description of the network topology
+     * @param weight  a linear array of the weights to be assigned to
+     *                different classes of traffic.
+     * @return the list of Routers of the network or <tt>null</tt> if an error
+     *         occurs
+     * @see #createSCFQ(String, double[])
+     * @since GridSim Toolkit 5.2
+     */
+    public static LinkedList createSCFQ(Reader reader, double[] weight)
+    {
+        if (weight == null) {
+            return null;
+        }
+
+        LinkedList routerList = null;
+        try {
+            routerList = createNetworkSCFQ(new BufferedReader(reader), weight);
+        }
+        catch (Exception exp)
+        {
+            System.out.println("NetworkReader: Error - invalid network " +
+                               "topology.");
+            routerList = null;
+        }
+
+        return routerList;
+    }
+
     /**
      * Creates a network topology that uses a Rate controlled packet scheduler
      * @param filename  the name of the file containing the description of
@@ -167,6 +235,53 @@ public class NetworkReader
         return routerList;
     }
 
+    /**
+     * Creates a network topology that uses a Rate controlled packet
+     * scheduler, from a description that has already been loaded
+     * @param reader  a reader of the description of the network topology
+     * @param percentage  a linear array of bandwidth percentage to be assigned
+     *                    to different classes of traffic.
+     * @return the list of Routers of the network or <tt>null</tt> if an error
+     *         occurs
+     * @see #createRate(String, double[])
+     * @since GridSim Toolkit 5.2
+     */
+    public static LinkedList createRate(Reader reader, double[] percentage)
+    {
+        if (percentage == null) {
+            return null;
+        }
+
+        // check whether the total percentage is greater than 100%
+        double total = 0;
+        int MAX_LIMIT = 100;
+        for (int i = 0; i < percentage.length; i++)
+        {
+            total += percentage[i];
+            if (total > MAX_LIMIT)
+            {
+                System.out.println("NetworkReader: total percentage = " +
+                                    total + ", which is > 100%");
+                return null;
+            }
+        }
+
+        LinkedList routerList = null;
+        try
+        {
+            routerList = createNetworkRate(new BufferedReader(reader),
+                                           percentage.length, percentage);
+        }
+        catch (Exception exp)
+        {
+            System.out.println("NetworkReader: Error - invalid network " +
+                               "topology.");
+            routerList = null;
+        }
+
+        return routerList;
+    }
+
     /**
      * Gets a Router object from the list
      * @param name          a router name
@@ -310,6 +425,12 @@ public class NetworkReader
         Router r1, r2;
         Link tempLink = null;
 
+        // the links between routers, if the routes are computed up front
+        StaticRoutes routes = null;
+        if ( GridSim.isStaticRouteEnabled() ) {
+            routes = new StaticRoutes(routerList);
+        }
+
         // creating the linking between two routers
         while ((line = buf.readLine()) != null)
         {
@@ -352,6 +473,13 @@ public class NetworkReader
                     + "_to_" + r1.get_name());
 
             r1.attachRouter(r2, tempLink, r1Sched, r2Sched);
+            if (routes != null) {
+                routes.connect(r1, r2, tempLink);
+            }
+        }
+
+        if (routes != null) {
+            routes.install();
         }
 
         return routerList;
@@ -381,6 +509,12 @@ public class NetworkReader
         Router r1, r2;
         Link tempLink = null;
 
+        // the links between routers, if the routes are computed up front
+        StaticRoutes routes = null;
+        if ( GridSim.isStaticRouteEnabled() ) {
+            routes = new StaticRoutes(routerList);
+        }
+
         // creating the linking between two routers
         while ((line = buf.readLine()) != null)
         {
@@ -424,7 +558,15 @@ public class NetworkReader
             r1Sched.setWeights(weight);
             r2Sched.setWeights(weight);
             r1.attachRouter(r2, tempLink, r1Sched, r2Sched);
+            if (routes != null) {
+                routes.connect(r1, r2, tempLink);
+            }
+        }
+
+        if (routes != null) {
+            routes.install();
         }
+
         return routerList;
     }
 
@@ -453,6 +595,12 @@ public class NetworkReader
         Router r1, r2;
         Link tempLink = null;
 
+        // the links between routers, if the routes are computed up front
+        StaticRoutes routes = null;
+        if ( GridSim.isStaticRouteEnabled() ) {
+            routes = new StaticRoutes(routerList);
+        }
+
         // creating the linking between two routers
         while ((line = buf.readLine()) != null)
         {
@@ -504,6 +652,13 @@ public class NetworkReader
             r1Sched.setRates(rate);
             r2Sched.setRates(rate);
             r1.attachRouter(r2, tempLink, r1Sched, r2Sched);
+            if (routes != null) {
+                routes.connect(r1, r2, tempLink);
+            }
+        }
+
+        if (routes != null) {
+            routes.install();
         }
 
         return routerList;
@@ -536,6 +691,31 @@ public class NetworkReader
         return routerList;
     }
 
+    /**
+     * Creates a network topology that uses the flow network functionality,
+     * from a description that has already been loaded
+     * @param reader  a reader of the description of the network topology
+     * @return the list of Routers of the network or <tt>null</tt> if an error
+     *         occurs
+     * @see #createFlow(String)
+     * @since GridSim Toolkit 5.2
+     */
+    public static LinkedList createFlow(Reader reader)
+    {
+        LinkedList routerList = null;
+        try {
+            routerList = createNetworkFlow( new BufferedReader(reader) );
+        }
+        catch (Exception exp)
+        {
+            System.out.println("NetworkReader: Error - invalid network " +
+                               "topology.");
+            routerList = null;
+        }
+
+        return routerList;
+    }
+
     /**
      * Creates a network topology from a given buffered reader
      * @param buf   a Buffered Reader object
@@ -558,6 +738,12 @@ public class NetworkReader
         Router r1, r2;
         Link tempLink = null;
 
+        // the links between routers, if the routes are computed up front
+        StaticRoutes routes = null;
+        if ( GridSim.isStaticRouteEnabled() ) {
+            routes = new StaticRoutes(routerList);
+        }
+
         // creating the linking between two routers
         while ((line = buf.readLine()) != null)
         {
@@ -600,6 +786,13 @@ public class NetworkReader
                     + "_to_" + r1.get_name());
 
             r1.attachRouter(r2, tempLink, r1Sched, r2Sched);
+            if (routes != null) {
+                routes.connect(r1, r2, tempLink);
+            }
+        }
+
+        if (routes != null) {
+            routes.install();
         }
 
         return routerList;
@@ -21,11 +21,11 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 import eduni.simjava.Sim_event;
-import eduni.simjava.Sim_system;
 
 import gridsim.GridSim;
 import gridsim.GridSimTags;
 import gridsim.Gridlet;
+import gridsim.GridletList;
 import gridsim.IO_data;
 import gridsim.ParameterException;
 import gridsim.net.InfoPacket;
@@ -50,6 +50,10 @@ import gridsim.net.SimpleLink;
  *      <li> If you need to use multiple trace files to submit Gridlets to
  *           same or different resources, then you need to create multiple
  *           instances of this class <tt>each with a unique entity name</tt>.
+ *      <li> If the same trace file is used by many simulations, e.g. in a
+ *           parameter sweep, then it can be parsed only once into a
+ *           {@link WorkloadTrace} and given to
+ *           {@link #Workload(String, WorkloadTrace, String, int)} instead.
  *      <li> If size of the trace file is huge or contains lots of traces
  *           please increase the JVM heap size accordingly by using
  *           <tt>java -Xmx</tt> option when running the simulation.
@@ -61,6 +65,10 @@ import gridsim.net.SimpleLink;
  *           a resource is {@link gridsim.net.Link#DEFAULT_MTU}.
  *           However, you can specify
  *           the file size by using {@link #setGridletFileSize(int)}.
+ *      <li> Jobs with the same submit time can be sent to the resource in
+ *           one message by using {@link #setBulkSubmission(boolean)}, which
+ *           is much cheaper for a trace with many short jobs. However,
+ *           these jobs then arrive at the resource together.
  *      <li> A job run time is only for 1 PE <tt>not</tt> the total number of
  *           allocated PEs.
  *           Therefore, a Gridlet length is also calculated for 1 PE.<br>
@@ -94,6 +102,10 @@ public class Workload extends GridSim
     private int gridletID_;     // gridletID
     private int size_;          // job size for sending it through a network
     private ArrayList<Gridlet> list_;    // a list for getting all the Gridlets
+    private WorkloadTrace trace_;        // a parsed trace, or null
+    private boolean bulk_;      // submits jobs with the same time at once
+    private GridletList bulkList_;       // jobs not submitted yet, or null
+    private long bulkTime_;     // submit time of the jobs not submitted yet
 
     // constant
     private int JOB_NUM;        // job number
@@ -273,6 +285,113 @@ public class Workload extends GridSim
         init(fileName, resourceName, rating);
     }
 
+    /**
+     * Create a new Workload object that replays a trace which has already
+     * been parsed, instead of reading it from a file. This allows one
+     * {@link WorkloadTrace} to be shared by many simulations, e.g. by all the
+     * runs of a parameter sweep. {@link #setComment(String)} and
+     * {@link #setField(int, int, int, int, int)} have no effect on such an
+     * entity, since the trace was parsed by
+     * {@link WorkloadTrace#read(String, String, int, int, int, int, int)}.
+     *
+     * @param name      this entity name
+     * @param trace     the parsed workload trace
+     * @param resourceName  the resource name
+     * @param rating    the resource's PE rating
+     * @throws Exception  This happens when creating this entity before
+     *                   initializing GridSim package or this entity name is
+     *                   <tt>null</tt> or empty
+     * @throws ParameterException   This happens for the following conditions:
+     *      <ul>
+     *          <li>the entity name is null or empty
+     *          <li>the workload trace is null
+     *          <li>the resource entity name is null or empty
+     *          <li>the resource PE rating <= 0
+     *      </ul>
+     * @see gridsim.util.WorkloadTrace
+     * @since GridSim Toolkit 5.2
+     * @pre name != null
+     * @pre trace != null
+     * @pre resourceName != null
+     * @pre rating > 0
+     * @post $none
+     */
+    public Workload(String name, WorkloadTrace trace, String resourceName,
+                    int rating) throws ParameterException, Exception
+    {
+        super(name, GridSimTags.DEFAULT_BAUD_RATE);
+        initTrace(name, trace, resourceName, rating);
+    }
+
+    /**
+     * Create a new Workload object that replays a trace which has already
+     * been parsed, <b>with</b> the network extension.
+     *
+     * @param name      this entity name
+     * @param link      the link that will be used to connect this Workload
+     *                  to another entity or a Router.
+     * @param trace     the parsed workload trace
+     * @param resourceName  the resource name
+     * @param rating    the resource's PE rating
+     * @throws Exception  This happens when creating this entity before
+     *                   initializing GridSim package or this entity name is
+     *                   <tt>null</tt> or empty
+     * @throws ParameterException   This happens for the following conditions:
+     *      <ul>
+     *          <li>the entity name is null or empty
+     *          <li>the link is empty
+     *          <li>the workload trace is null
+     *          <li>the resource entity name is null or empty
+     *          <li>the resource PE rating <= 0
+     *      </ul>
+     * @see #Workload(String, WorkloadTrace, String, int)
+     * @since GridSim Toolkit 5.2
+     * @pre name != null
+     * @pre link != null
+     * @pre trace != null
+     * @pre resourceName != null
+     * @pre rating > 0
+     * @post $none
+     */
+    public Workload(String name, Link link, WorkloadTrace trace,
+                    String resourceName, int rating)
+                    throws ParameterException, Exception
+    {
+        super(name, link);
+        initTrace(name, trace, resourceName, rating);
+    }
+
+    /**
+     * Checks the parameters of a Workload object that replays a trace,
+     * then initialises all the attributes
+     * @param   name        this entity name
+     * @param   trace       the parsed workload trace
+     * @param   resourceName    resource entity name
+     * @param   rating      resource PE rating
+     * @throws ParameterException  if a parameter is invalid
+     * @pre $none
+     * @post $none
+     */
+    private void initTrace(String name, WorkloadTrace trace,
+                String resourceName, int rating) throws ParameterException
+    {
+        // check the input parameters first
+        String msg = name + "(): Error - ";
+        if (trace == null) {
+            throw new ParameterException(msg + "invalid trace.");
+        }
+        else if (resourceName == null || resourceName.length() == 0) {
+            throw new ParameterException(msg + "invalid resource name.");
+        }
+        else if (rating <= 0) {
+            throw new ParameterException(msg+"resource PE rating must be > 0.");
+        }
+
+        System.out.println(name + ": Creating a workload object ...");
+        init(trace.getFileName(), resourceName, rating);
+        trace_ = trace;
+    }
+
     /**
      * Initialises all the attributes
      * @param   fileName    trace file name
@@ -284,12 +403,16 @@ public class Workload extends GridSim
     private void init(String fileName, String resourceName, int rating)
     {
         fileName_ = fileName;
+        trace_ = null;
         resName_ = resourceName;
         resID_ = GridSim.getEntityId(resName_);
         rating_ = rating;
         gridletID_ = 1;   // starts at 1 to make it the same as in a trace file
         list_ = null;
         size_ = Link.DEFAULT_MTU;
+        bulk_ = false;
+        bulkList_ = null;
+        bulkTime_ = 0;
 
         // if using Standard Workload Format -- don't forget to substract by 1
         // since an array starts at 0, but the field in a trace starts at 1
@@ -322,6 +445,26 @@ public class Workload extends GridSim
         return true;
     }
 
+    /**
+     * Sets whether consecutive jobs with the same submit time are sent to
+     * the resource in one message, rather than one message per job.
+     * By default, each job is sent on its own.
+     * <p>
+     * Jobs sent in bulk all arrive at the time the last of them would
+     * have arrived on its own, since the message carries the file sizes of
+     * all of them. Hence, their start and finish times can be later than
+     * with one message per job, by up to the time taken to send them.
+     * @param bulk  <tt>true</tt> to submit jobs in bulk, <tt>false</tt>
+     *              otherwise
+     * @see gridsim.GridSim#gridletSubmit(GridletList, int, double, boolean)
+     * @pre $none
+     * @post $none
+     * @since GridSim Toolkit 5.2
+     */
+    public void setBulkSubmission(boolean bulk) {
+        bulk_ = bulk;
+    }
+
     /**
      * Identifies the start of a comment line. Hence, a line that starts
      * with a given comment will be ignored.
@@ -520,8 +663,12 @@ public class Workload extends GridSim
 
         boolean success = false;
 
+        // replay a trace that has already been parsed
+        if (trace_ != null) {
+            success = replayTrace();
+        }
         // read the gz file
-        if (fileName_.endsWith(".gz")) {
+        else if (fileName_.endsWith(".gz")) {
             success = readGZIPFile(fileName_);
         }
         // read the zip file
@@ -534,7 +681,9 @@ public class Workload extends GridSim
         }
 
         // if all the gridlets have been submitted
-        if (success == true) {
+        if (success == true)
+        {
+            submitBulk();   // the last jobs, if any
             collectGridlet();
         }
         else
@@ -569,7 +718,7 @@ public class Workload extends GridSim
 
         int counter = 1;    // starts at 1, since gridletID_ starts at 1 too
         Sim_event ev = new Sim_event();
-        while ( Sim_system.running() )
+        while ( GridSim.isSimulationRunning() )
         {
             super.sim_get_next(ev);     // get the next available event
             data = ev.get_data();       // get the event's data
@@ -589,6 +738,14 @@ public class Workload extends GridSim
                 counter++;
             }
 
+            // or the Gridlets that have finished at the same time
+            else if (data != null && data instanceof GridletList)
+            {
+                GridletList finished = (GridletList) data;
+                list_.addAll(finished);
+                counter += finished.size();
+            }
+
             // if all the Gridlets have been collected
             if (counter == gridletID_) {
                 break;
@@ -596,6 +753,23 @@ public class Workload extends GridSim
         }
     }
 
+    /**
+     * Submits the jobs of a trace that has already been parsed
+     * @return <tt>true</tt>
+     * @pre trace_ != null
+     * @post $none
+     */
+    private boolean replayTrace()
+    {
+        int count = trace_.getJobCount();
+        for (int i = 0; i < count; i++)
+        {
+            submitGridlet(trace_.getJobID(i), trace_.getSubmitTime(i),
+                          trace_.getRunTime(i), trace_.getNumPE(i));
+        }
+        return true;
+    }
+
     /**
      * Processes a ping request.
      * @param ev  a Sim_event object
@@ -769,11 +943,61 @@ public class Workload extends GridSim
 
         gridletID_++;   // increment the counter
 
+        // keep jobs with the same submit time together
+        if (bulk_)
+        {
+            if (bulkList_ != null && bulkTime_ != submitTime) {
+                submitBulk();
+            }
+
+            if (bulkList_ == null)
+            {
+                bulkList_ = new GridletList();
+                bulkTime_ = submitTime;
+            }
+
+            bulkList_.add(gl);
+            return;
+        }
+
         // submit a gridlet to resource
         super.send(super.output, submitTime, GridSimTags.GRIDLET_SUBMIT,
                 new IO_data(gl, gl.getGridletFileSize(), resID_) );
     }
 
+    /**
+     * Submits the jobs that have been kept together in one message, if any
+     * @pre $none
+     * @post $none
+     */
+    private void submitBulk()
+    {
+        if (bulkList_ == null) {
+            return;
+        }
+
+        long size = 0;
+        for (Gridlet gl : bulkList_) {
+            size += gl.getGridletFileSize();
+        }
+
+        // a single job is submitted as usual
+        if (bulkList_.size() == 1)
+        {
+            Gridlet gl = bulkList_.getFirst();
+            super.send(super.output, bulkTime_, GridSimTags.GRIDLET_SUBMIT,
+                    new IO_data(gl, size, resID_) );
+        }
+        else
+        {
+            super.send(super.output, bulkTime_,
+                    GridSimTags.GRIDLET_SUBMIT_BULK,
+                    new IO_data(bulkList_, size, resID_) );
+        }
+
+        bulkList_ = null;
+    }
+
     /**
      * Reads a text file one line at the time
      * @param fileName   a file name
@@ -0,0 +1,488 @@
+/*
+ * Title:        GridSim Toolkit
+ * Description:  GridSim (Grid Simulation) Toolkit for Modeling and Simulation
+ *               of Parallel and Distributed Systems such as Clusters and Grids
+ * License:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ */
+
+package gridsim.util;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import gridsim.ParameterException;
+
+/**
+ * WorkloadTrace holds the jobs of a trace file that has already been
+ * parsed, so that the same trace can be replayed by many {@link Workload}
+ * entities, e.g. by every run of a parameter sweep, without reading the file
+ * again. A WorkloadTrace is immutable and can be shared between threads.
+ * <p>
+ * The file is parsed with the same rules as {@link Workload}: it can be
+ * <i>ASCII text, zip</i> or <i>gz</i>, and by default follows the standard
+ * workload format. Other formats are supported by
+ * {@link #read(String, String, int, int, int, int, int)}, which takes the
+ * same parameters as {@link Workload#setComment(String)} and
+ * {@link Workload#setField(int, int, int, int, int)}.
+ *
+ * @since GridSim Toolkit 5.2
+ * @see gridsim.util.Workload#Workload(String, WorkloadTrace, String, int)
+ * @invariant $none
+ */
+public final class WorkloadTrace
+{
+    private final String fileName_;     // the trace file name
+    private final int[] id_;            // job numbers
+    private final long[] submitTime_;   // submit times of the jobs
+    private final int[] runTime_;       // run times of the jobs
+    private final int[] numProc_;       // number of processors of the jobs
+
+    // the standard workload format, counting from 1
+    private static final int SWF_MAX_FIELD = 18;
+    private static final int SWF_JOB_NUM = 1;
+    private static final int SWF_SUBMIT_TIME = 2;
+    private static final int SWF_RUN_TIME = 4;
+    private static final int SWF_NUM_PROC = 5;
+    private static final int SWF_REQ_NUM_PROC = 8;
+    private static final int SWF_REQ_RUN_TIME = 9;
+    private static final String SWF_COMMENT = ";";
+    private static final int IRRELEVANT = -1;  // irrelevant number
+
+    /**
+     * Allocates a new trace
+     * @param fileName    the trace file name
+     * @param id          job numbers
+     * @param submitTime  submit times of the jobs
+     * @param runTime     run times of the jobs
+     * @param numProc     number of processors of the jobs
+     * @param count       number of jobs
+     * @pre count >= 0
+     * @post $none
+     */
+    private WorkloadTrace(String fileName, int[] id, long[] submitTime,
+                          int[] runTime, int[] numProc, int count)
+    {
+        fileName_ = fileName;
+        id_ = trim(id, count);
+        runTime_ = trim(runTime, count);
+        numProc_ = trim(numProc, count);
+
+        submitTime_ = new long[count];
+        System.arraycopy(submitTime, 0, submitTime_, 0, count);
+    }
+
+    /**
+     * Reads a trace file in the standard workload format
+     * @param fileName  the trace file name, ending with <tt>.gz</tt> or
+     *                  <tt>.zip</tt> if it is compressed
+     * @return the parsed trace
+     * @throws ParameterException  if the file name is invalid
+     * @throws IOException  if the file can not be read
+     * @pre fileName != null
+     * @post $result != null
+     */
+    public static WorkloadTrace read(String fileName)
+                                throws ParameterException, IOException
+    {
+        return parse(fileName, SWF_COMMENT, SWF_MAX_FIELD, SWF_JOB_NUM,
+                     SWF_SUBMIT_TIME, SWF_REQ_RUN_TIME, SWF_REQ_NUM_PROC);
+    }
+
+    /**
+     * Reads a trace file in another format. The fields are counted from 1,
+     * as in {@link Workload#setField(int, int, int, int, int)}.
+     * @param fileName    the trace file name, ending with <tt>.gz</tt> or
+     *                    <tt>.zip</tt> if it is compressed
+     * @param comment     a character that denotes the start of a comment
+     * @param maxField    max. number of field/column in one row
+     * @param jobNum      field/column number for locating the job ID,
+     *                    or a negative number to number the jobs from 1
+     * @param submitTime  field/column number for locating the job submit time
+     * @param runTime     field/column number for locating the job run time
+     * @param numProc     field/column number for locating the number of PEs
+     *                    required to run a job
+     * @return the parsed trace
+     * @throws ParameterException  if a parameter is invalid
+     * @throws IOException  if the file can not be read
+     * @pre fileName != null
+     * @post $result != null
+     */
+    public static WorkloadTrace read(String fileName, String comment,
+                int maxField, int jobNum, int submitTime, int runTime,
+                int numProc) throws ParameterException, IOException
+    {
+        String msg = "WorkloadTrace.read(): Error - ";
+        if (comment == null || comment.length() == 0) {
+            throw new ParameterException(msg + "invalid comment.");
+        }
+        else if (jobNum == 0) {
+            throw new ParameterException(msg + "invalid job number field.");
+        }
+        else if (maxField <= 0) {
+            throw new ParameterException(msg +
+                    "invalid max. number of field.");
+        }
+        else if (submitTime <= 0) {
+            throw new ParameterException(msg + "invalid submit time field.");
+        }
+        else if (runTime <= 0) {
+            throw new ParameterException(msg + "invalid run time field.");
+        }
+        else if (numProc <= 0) {
+            throw new ParameterException(msg +
+                    "invalid number of processors field.");
+        }
+
+        return parse(fileName, comment, maxField, jobNum, submitTime,
+                     runTime, numProc);
+    }
+
+    /**
+     * Gets the trace file name
+     * @return the file name
+     * @pre $none
+     * @post $result != null
+     */
+    public String getFileName() {
+        return fileName_;
+    }
+
+    /**
+     * Gets the number of jobs in this trace
+     * @return the number of jobs
+     * @pre $none
+     * @post $result >= 0
+     */
+    public int getJobCount() {
+        return id_.length;
+    }
+
+    /**
+     * Gets the job number, i.e. the Gridlet ID, of a job
+     * @param index  the position of the job in the trace
+     * @return the job number
+     * @pre index >= 0 && index < getJobCount()
+     * @post $none
+     */
+    public int getJobID(int index) {
+        return id_[index];
+    }
+
+    /**
+     * Gets the submit time of a job
+     * @param index  the position of the job in the trace
+     * @return the submit time
+     * @pre index >= 0 && index < getJobCount()
+     * @post $none
+     */
+    public long getSubmitTime(int index) {
+        return submitTime_[index];
+    }
+
+    /**
+     * Gets the run time of a job on one PE
+     * @param index  the position of the job in the trace
+     * @return the run time, which is at least 1 second
+     * @pre index >= 0 && index < getJobCount()
+     * @post $result > 0
+     */
+    public int getRunTime(int index) {
+        return runTime_[index];
+    }
+
+    /**
+     * Gets the number of PEs required by a job
+     * @param index  the position of the job in the trace
+     * @return the number of PEs
+     * @pre index >= 0 && index < getJobCount()
+     * @post $result > 0
+     */
+    public int getNumPE(int index) {
+        return numProc_[index];
+    }
+
+    //////////////////////// PRIVATE METHODS ///////////////////////
+
+    /**
+     * Parses a trace file. The fields are counted from 1.
+     * @param fileName    the trace file name
+     * @param comment     a character that denotes the start of a comment
+     * @param maxField    max. number of field/column in one row
+     * @param jobNum      the job number field, or a negative number
+     * @param submitTime  the submit time field
+     * @param reqRunTime  the required run time field
+     * @param reqNumProc  the required number of PEs field
+     * @return the parsed trace
+     * @throws ParameterException  if the file name is invalid
+     * @throws IOException  if the file can not be read
+     * @pre comment != null
+     * @post $result != null
+     */
+    private static WorkloadTrace parse(String fileName, String comment,
+                int maxField, int jobNum, int submitTime, int reqRunTime,
+                int reqNumProc) throws ParameterException, IOException
+    {
+        if (fileName == null || fileName.length() == 0) {
+            throw new ParameterException("WorkloadTrace.read(): Error - " +
+                    "invalid trace file name.");
+        }
+
+        Parser parser = new Parser(comment, maxField, jobNum - 1,
+                    submitTime - 1, reqRunTime - 1, reqNumProc - 1);
+
+        // read every entry of a zip file, like Workload does
+        if ( fileName.endsWith(".zip") )
+        {
+            ZipFile zip = new ZipFile(fileName);
+            try
+            {
+                Enumeration<? extends ZipEntry> e = zip.entries();
+                while ( e.hasMoreElements() ) {
+                    parser.parse( zip.getInputStream(e.nextElement()) );
+                }
+            }
+            finally {
+                zip.close();
+            }
+        }
+        else
+        {
+            InputStream in = new FileInputStream(fileName);
+            if ( fileName.endsWith(".gz") ) {
+                in = new GZIPInputStream(in);
+            }
+            parser.parse(in);
+        }
+
+        return new WorkloadTrace(fileName, parser.id_, parser.submitTime_,
+                    parser.runTime_, parser.numProc_, parser.count_);
+    }
+
+    /**
+     * Copies an array into a larger one
+     * @param array  the array
+     * @param size   the new size
+     * @return the new array
+     * @pre array != null
+     * @pre size >= array.length
+     * @post $result != null
+     */
+    private static int[] grow(int[] array, int size)
+    {
+        int[] result = new int[size];
+        System.arraycopy(array, 0, result, 0, array.length);
+        return result;
+    }
+
+    /**
+     * Copies the first elements of an array
+     * @param array  the array
+     * @param count  the number of elements
+     * @return the new array
+     * @pre array != null
+     * @pre count <= array.length
+     * @post $result != null
+     */
+    private static int[] trim(int[] array, int count)
+    {
+        int[] result = new int[count];
+        System.arraycopy(array, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * Collects the jobs of a trace file, one line at the time.
+     * The fields are counted from 0.
+     */
+    private static final class Parser
+    {
+        private final String comment_;     // the start of a comment
+        private final int maxField_;       // max number of field
+        private final int jobNum_;         // job number, or a negative number
+        private final int submitField_;    // submit time
+        private final int reqRunField_;    // required running time
+        private final int reqProcField_;   // required number of processors
+        private final String[] field_;     // a temp array of the fields
+
+        private int count_;                // number of jobs so far
+        private int[] id_;
+        private long[] submitTime_;
+        private int[] runTime_;
+        private int[] numProc_;
+
+        /**
+         * Allocates a new parser
+         * @param comment     a character that denotes the start of a comment
+         * @param maxField    max. number of field/column in one row
+         * @param jobNum      the job number field, or a negative number
+         * @param submitTime  the submit time field
+         * @param reqRunTime  the required run time field
+         * @param reqNumProc  the required number of PEs field
+         * @pre comment != null
+         * @post $none
+         */
+        Parser(String comment, int maxField, int jobNum, int submitTime,
+               int reqRunTime, int reqNumProc)
+        {
+            comment_ = comment;
+            maxField_ = maxField;
+            jobNum_ = jobNum;
+            submitField_ = submitTime;
+            reqRunField_ = reqRunTime;
+            reqProcField_ = reqNumProc;
+            field_ = new String[maxField];
+
+            count_ = 0;
+            id_ = new int[1024];
+            submitTime_ = new long[id_.length];
+            runTime_ = new int[id_.length];
+            numProc_ = new int[id_.length];
+        }
+
+        /**
+         * Reads every line of a stream, then closes it
+         * @param in  the stream
+         * @throws IOException  if the stream can not be read
+         * @pre in != null
+         * @post $none
+         */
+        void parse(InputStream in) throws IOException
+        {
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(in) );
+            try
+            {
+                String line = null;
+                int lineNum = 0;
+                while ( (line = reader.readLine()) != null )
+                {
+                    lineNum++;
+                    parseLine(line, lineNum);
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+
+        /**
+         * Breaks a line into fields, and adds the job it describes
+         * @param line     a line of string
+         * @param lineNum  a line number
+         * @pre line != null
+         * @post $none
+         */
+        private void parseLine(String line, int lineNum)
+        {
+            // skip a comment line
+            if ( line.startsWith(comment_) ) {
+                return;
+            }
+
+            // split the fields based on a space
+            int index = 0;
+            String[] sp = line.split("\\s+");
+            for (int i = 0; i < sp.length && index <= maxField_; i++)
+            {
+                if (sp[i].length() == 0) {
+                    continue;
+                }
+
+                if (index < maxField_) {
+                    field_[index] = sp[i];
+                }
+                index++;
+            }
+
+            if (index != maxField_) {
+                return;
+            }
+
+            try
+            {
+                int id = count_ + 1;
+                if (jobNum_ >= 0) {
+                    id = Integer.parseInt( field_[jobNum_].trim() );
+                }
+
+                long submitTime = Long.valueOf(
+                        field_[submitField_].trim() ).intValue();
+
+                // if the required run time is ignored, use the actual one
+                int runTime = Integer.parseInt( field_[reqRunField_].trim() );
+                if (runTime == IRRELEVANT) {
+                    runTime = Integer.parseInt(
+                            field_[SWF_RUN_TIME - 1].trim() );
+                }
+
+                // a run time of 0 is possible due to rounding down
+                if (runTime == 0) {
+                    runTime = 1;
+                }
+
+                // if the required num of PEs is ignored, use the actual one
+                int numProc = Integer.parseInt( field_[reqProcField_].trim() );
+                if (numProc == IRRELEVANT || numProc == 0) {
+                    numProc = Integer.parseInt(
+                            field_[SWF_NUM_PROC - 1].trim() );
+                }
+
+                if (numProc <= 0)
+                {
+                    System.out.println("WorkloadTrace: Warning - job #" + id
+                            + " at line " + lineNum + " requires " + numProc
+                            + " CPU. Change to 1 CPU.");
+                    numProc = 1;
+                }
+
+                add(id, submitTime, runTime, numProc);
+            }
+            catch (Exception e)
+            {
+                System.out.println("WorkloadTrace: Exception in reading file "
+                        + "at line #" + lineNum + ", exception: "
+                        + e.getMessage());
+            }
+        }
+
+        /**
+         * Adds a job
+         * @param id          the job number
+         * @param submitTime  the submit time
+         * @param runTime     the run time
+         * @param numProc     the number of PEs
+         * @pre $none
+         * @post $none
+         */
+        private void add(int id, long submitTime, int runTime, int numProc)
+        {
+            if (count_ == id_.length)
+            {
+                int size = count_ * 2;
+                id_ = grow(id_, size);
+                runTime_ = grow(runTime_, size);
+                numProc_ = grow(numProc_, size);
+
+                long[] temp = new long[size];
+                System.arraycopy(submitTime_, 0, temp, 0, count_);
+                submitTime_ = temp;
+            }
+
+            id_[count_] = id;
+            submitTime_[count_] = (submitTime < 0) ? 0 : submitTime;
+            runTime_[count_] = runTime;
+            numProc_[count_] = numProc;
+            count_++;
+        }
+
+    } // end inner class
+
+} // end class